@@ -27,6 +27,7 @@ import java.io.Serializable;
 import javolution.util.FastMap;
 
 import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorMessageFactory;
+import org.restcomm.protocols.ss7.cap.api.gap.CallGapControl;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCall;
 import org.restcomm.protocols.ss7.cap.api.service.gprs.CAPServiceGprs;
 import org.restcomm.protocols.ss7.cap.api.service.sms.CAPServiceSms;
@@ -105,6 +106,14 @@ public interface CAPProvider extends Serializable {
 
     CAPServiceSms getCAPServiceSms();
 
+    /**
+     * Get the {@link CallGapControl} that keeps gaps received by CallGap requests and checks new calls against them
+     * (gsmSSF side)
+     *
+     * @return
+     */
+    CallGapControl getCallGapControl();
+
     /**
      * The collection of netwokIds that are marked as prohibited or congested.
      *
@@ -0,0 +1,59 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.api.gap;
+
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ControlType;
+
+/**
+ * A call gap that is applied by {@link CallGapControl} for new calls at the gsmSSF side
+ *
+ */
+public interface ActiveCallGap {
+
+    GapCriteria getGapCriteria();
+
+    GapIndicators getGapIndicators();
+
+    ControlType getControlType();
+
+    /**
+     * @return the treatment for gapped calls or null if the gsmSSF has to apply its default treatment
+     */
+    GapTreatment getGapTreatment();
+
+    /**
+     * @return true if the gap duration has elapsed
+     */
+    boolean isExpired();
+
+    /**
+     * @return the count of calls that matched this gap and were allowed
+     */
+    long getAcceptedCount();
+
+    /**
+     * @return the count of calls that matched this gap and were rejected
+     */
+    long getRejectedCount();
+
+}
@@ -0,0 +1,51 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.api.gap;
+
+import org.restcomm.protocols.ss7.cap.api.CAPException;
+
+/**
+ * Thrown when an InitialDP request is not sent because the call is gapped by {@link CallGapControl}. The gsmSSF applies
+ * the gap treatment of {@link #getActiveCallGap()} (or its default treatment) to the call.
+ *
+ */
+public class CAPCallGappedException extends CAPException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ActiveCallGap activeCallGap;
+
+    public CAPCallGappedException(String message, ActiveCallGap activeCallGap) {
+        super(message);
+
+        this.activeCallGap = activeCallGap;
+    }
+
+    /**
+     * @return the gap that rejected the call
+     */
+    public ActiveCallGap getActiveCallGap() {
+        return activeCallGap;
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.api.gap;
+
+import org.restcomm.protocols.ss7.cap.api.CAPException;
+import org.restcomm.protocols.ss7.cap.api.isup.CalledPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.CallingPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.primitives.CalledPartyBCDNumber;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CallGapRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ControlType;
+
+/**
+ * Call gapping (overload control) at the gsmSSF side.
+ *
+ * CallGap requests that are received from a gsmSCF are stored here automatically. New calls are checked by the CAP stack
+ * itself: CAPServiceCircuitSwitchedCall.createNewDialogForInitialDP() checks a call before a TCAP dialog is allocated and
+ * CAPDialogCircuitSwitchedCall.addInitialDPRequest() checks a call of a dialog that was created without the check. A
+ * gapped call is rejected by {@link CAPCallGappedException} and the gsmSSF applies the gap treatment locally.
+ *
+ * Called and calling address values of gap criteria are matched as prefixes of the call addresses. If several gaps of the
+ * same kind match a call the one with the longest address is applied (a gap with a service key is preferred to a gap
+ * without it for the same address). A call is gapped if any of the matching called address, calling address and service
+ * gaps rejects it.
+ *
+ */
+public interface CallGapControl {
+
+    /**
+     * Adds a call gap or replaces a gap with the same criteria. A gap with duration == 0 or gapInterval == 0 removes the gap
+     * with the same criteria.
+     *
+     * @return the added gap or null if the gap was removed
+     */
+    ActiveCallGap addCallGap(GapCriteria gapCriteria, GapIndicators gapIndicators, ControlType controlType,
+            GapTreatment gapTreatment) throws CAPException;
+
+    /**
+     * Adds a call gap from a received CallGap request
+     */
+    ActiveCallGap addCallGap(CallGapRequest callGapRequest) throws CAPException;
+
+    /**
+     * Removes the gap with the given criteria
+     *
+     * @return true if the gap was found
+     */
+    boolean removeCallGap(GapCriteria gapCriteria) throws CAPException;
+
+    void removeAllCallGaps();
+
+    /**
+     * @return gaps that are not expired
+     */
+    ActiveCallGap[] getActiveCallGaps();
+
+    /**
+     * Checks whether a new call may be offered to the gsmSCF. The accepted and rejected counters of matching gaps are
+     * updated.
+     *
+     * @param serviceKey ServiceKey of the InitialDP request
+     * @param calledAddress called party digits (may be null)
+     * @param callingAddress calling party digits (may be null)
+     * @return null if the call is allowed or the gap that rejects the call
+     */
+    ActiveCallGap checkInitialDP(int serviceKey, String calledAddress, String callingAddress);
+
+    /**
+     * Checks whether a new call may be offered to the gsmSCF. The called address is taken from calledPartyNumber or (if it
+     * is null) from calledPartyBCDNumber.
+     *
+     * @return null if the call is allowed or the gap that rejects the call
+     */
+    ActiveCallGap checkInitialDP(int serviceKey, CalledPartyNumberCap calledPartyNumber,
+            CalledPartyBCDNumber calledPartyBCDNumber, CallingPartyNumberCap callingPartyNumber) throws CAPException;
+
+}
@@ -25,6 +25,9 @@ package org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall;
 import org.restcomm.protocols.ss7.cap.api.CAPApplicationContext;
 import org.restcomm.protocols.ss7.cap.api.CAPException;
 import org.restcomm.protocols.ss7.cap.api.CAPServiceBase;
+import org.restcomm.protocols.ss7.cap.api.isup.CalledPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.CallingPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.primitives.CalledPartyBCDNumber;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
 
 /**
@@ -40,6 +43,20 @@ public interface CAPServiceCircuitSwitchedCall extends CAPServiceBase {
     CAPDialogCircuitSwitchedCall createNewDialog(CAPApplicationContext appCntx, SccpAddress origAddress,
             SccpAddress destAddress) throws CAPException;
 
+    /**
+     * Creates a new gsmSSF dialog for an InitialDP request. The call is checked by the provider CallGapControl before a
+     * TCAP dialog is allocated, so gapped calls do not consume a TCAP dialog. The InitialDP request that is then added to the
+     * dialog is not checked again.
+     *
+     * Dialogs that are created by createNewDialog() are checked when an InitialDP request is added into them. A gapped
+     * dialog is released there and nothing is sent to the gsmSCF.
+     *
+     * @throws org.restcomm.protocols.ss7.cap.api.gap.CAPCallGappedException if the call is gapped
+     */
+    CAPDialogCircuitSwitchedCall createNewDialogForInitialDP(CAPApplicationContext appCntx, SccpAddress origAddress,
+            SccpAddress destAddress, Long localTrId, int serviceKey, CalledPartyNumberCap calledPartyNumber,
+            CalledPartyBCDNumber calledPartyBCDNumber, CallingPartyNumberCap callingPartyNumber) throws CAPException;
+
     void addCAPServiceListener(CAPServiceCircuitSwitchedCallListener capServiceListener);
 
     void removeCAPServiceListener(CAPServiceCircuitSwitchedCallListener capServiceListener);
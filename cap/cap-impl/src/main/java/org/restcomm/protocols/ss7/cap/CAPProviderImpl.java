@@ -27,7 +27,6 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javolution.util.FastList;
 import javolution.util.FastMap;
@@ -54,6 +53,7 @@ import org.restcomm.protocols.ss7.cap.api.dialog.ServingCheckData;
 import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorCode;
 import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorMessage;
 import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorMessageFactory;
+import org.restcomm.protocols.ss7.cap.api.gap.CallGapControl;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCall;
 import org.restcomm.protocols.ss7.cap.api.service.gprs.CAPServiceGprs;
 import org.restcomm.protocols.ss7.cap.api.service.sms.CAPServiceSms;
@@ -61,6 +61,7 @@ import org.restcomm.protocols.ss7.cap.dialog.CAPGprsReferenceNumberImpl;
 import org.restcomm.protocols.ss7.cap.dialog.CAPUserAbortPrimitiveImpl;
 import org.restcomm.protocols.ss7.cap.errors.CAPErrorMessageFactoryImpl;
 import org.restcomm.protocols.ss7.cap.errors.CAPErrorMessageImpl;
+import org.restcomm.protocols.ss7.cap.gap.CallGapControlImpl;
 import org.restcomm.protocols.ss7.cap.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCallImpl;
 import org.restcomm.protocols.ss7.cap.service.gprs.CAPServiceGprsImpl;
 import org.restcomm.protocols.ss7.cap.service.sms.CAPServiceSmsImpl;
@@ -124,8 +125,8 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
 
     private transient Collection<CAPDialogListener> dialogListeners = new FastList<CAPDialogListener>().shared();
 
-//    protected transient FastMap<Long, CAPDialogImpl> dialogs = new FastMap<Long, CAPDialogImpl>().shared();
-    protected transient ConcurrentHashMap<Long, CAPDialogImpl> dialogs = new ConcurrentHashMap<Long, CAPDialogImpl>();
+    // CAP dialogs are not stored in a separate map, every CAPDialogImpl is attached to its TCAP Dialog
+    // (Dialog.setUpperDialog()) and is found by the TCAP Dialog
 
     private transient TCAPProvider tcapProvider = null;
 
@@ -141,6 +142,8 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
     private final transient CAPServiceGprs capServiceGprs = new CAPServiceGprsImpl(this);
     private final transient CAPServiceSms capServiceSms = new CAPServiceSmsImpl(this);
 
+    private final transient CallGapControlImpl callGapControl = new CallGapControlImpl();
+
     public CAPProviderImpl(String name, TCAPProvider tcapProvider) {
         this.tcapProvider = tcapProvider;
 
@@ -170,6 +173,10 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
         return this.capServiceSms;
     }
 
+    public CallGapControl getCallGapControl() {
+        return this.callGapControl;
+    }
+
     @Override
     public void addCAPDialogListener(CAPDialogListener capDialogListener) {
         this.dialogListeners.add(capDialogListener);
@@ -207,9 +214,10 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
 
     @Override
     public CAPDialog getCAPDialog(Long dialogId) {
-        //synchronized (this.dialogs) {
-            return this.dialogs.get(dialogId);
-        //}
+        Dialog tcapDialog = this.tcapProvider.getDialogById(dialogId);
+        if (tcapDialog == null)
+            return null;
+        return (CAPDialog) tcapDialog.getUpperDialog();
     }
 
     public void start() {
@@ -218,19 +226,17 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
 
     public void stop() {
         this.tcapProvider.removeTCListener(this);
-
+        this.callGapControl.removeAllCallGaps();
     }
 
     protected void addDialog(CAPDialogImpl dialog) {
-        //synchronized (this.dialogs) {
-            this.dialogs.put(dialog.getLocalDialogId(), dialog);
-        //}
+        dialog.getTcapDialog().setUpperDialog(dialog);
     }
 
-    protected CAPDialogImpl removeDialog(Long dialogId) {
-        //synchronized (this.dialogs) {
-            return this.dialogs.remove(dialogId);
-        //}
+    protected CAPDialogImpl removeDialog(Dialog tcapDialog) {
+        CAPDialogImpl capDialogImpl = (CAPDialogImpl) tcapDialog.getUpperDialog();
+        tcapDialog.setUpperDialog(null);
+        return capDialogImpl;
     }
 
     private void SendUnsupportedAcn(ApplicationContextName acn, Dialog dialog, String cs) {
@@ -440,7 +446,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             capDialogImpl = (CAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            capDialogImpl = (CAPDialogImpl) this.getCAPDialog(tcapDialog.getLocalDialogId());
+            capDialogImpl = (CAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (capDialogImpl == null) {
@@ -564,7 +570,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             capDialogImpl = (CAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            capDialogImpl = (CAPDialogImpl) this.getCAPDialog(tcapDialog.getLocalDialogId());
+            capDialogImpl = (CAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (capDialogImpl == null) {
@@ -668,7 +674,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
     @Override
     public void onInvokeTimeout(Invoke invoke) {
 
-        CAPDialogImpl capDialogImpl = (CAPDialogImpl) this.getCAPDialog(((InvokeImpl) invoke).getDialog().getLocalDialogId());
+        CAPDialogImpl capDialogImpl = (CAPDialogImpl) ((InvokeImpl) invoke).getDialog().getUpperDialog();
 
         if (capDialogImpl != null) {
             try {
@@ -694,7 +700,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
     @Override
     public void onDialogTimeout(Dialog tcapDialog) {
 
-        CAPDialogImpl capDialogImpl = (CAPDialogImpl) this.getCAPDialog(tcapDialog.getLocalDialogId());
+        CAPDialogImpl capDialogImpl = (CAPDialogImpl) tcapDialog.getUpperDialog();
 
         if (capDialogImpl != null) {
             try {
@@ -714,7 +720,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
     @Override
     public void onDialogReleased(Dialog tcapDialog) {
 
-        CAPDialogImpl capDialogImpl = (CAPDialogImpl) this.removeDialog(tcapDialog.getLocalDialogId());
+        CAPDialogImpl capDialogImpl = this.removeDialog(tcapDialog);
 
         if (capDialogImpl != null) {
             try {
@@ -734,7 +740,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             capDialogImpl = (CAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            capDialogImpl = (CAPDialogImpl) this.getCAPDialog(tcapDialog.getLocalDialogId());
+            capDialogImpl = (CAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (capDialogImpl == null) {
@@ -763,7 +769,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             capDialogImpl = (CAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            capDialogImpl = (CAPDialogImpl) this.getCAPDialog(tcapDialog.getLocalDialogId());
+            capDialogImpl = (CAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (capDialogImpl == null) {
@@ -849,7 +855,7 @@ public class CAPProviderImpl implements CAPProvider, TCListener {
 
         Dialog tcapDialog = ind.getDialog();
 
-        CAPDialogImpl capDialogImpl = (CAPDialogImpl) this.getCAPDialog(tcapDialog.getLocalDialogId());
+        CAPDialogImpl capDialogImpl = (CAPDialogImpl) tcapDialog.getUpperDialog();
 
         if (capDialogImpl == null) {
             loger.error("CAP Dialog not found for Dialog Id " + tcapDialog.getLocalDialogId());
@@ -101,7 +101,8 @@ public abstract class CAPServiceBaseImpl implements CAPServiceBase {
     }
 
     /**
-     * Adding CAP Dialog into CAPProviderImpl.dialogs Used when creating a new outgoing CAP Dialog
+     * Registers a new outgoing CAP Dialog. The dialog is attached to its TCAP Dialog, CAPProviderImpl keeps no separate
+     * dialog collection
      *
      * @param dialog
      */
@@ -0,0 +1,164 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.gap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restcomm.protocols.ss7.cap.api.gap.ActiveCallGap;
+import org.restcomm.protocols.ss7.cap.api.gap.GapCriteria;
+import org.restcomm.protocols.ss7.cap.api.gap.GapIndicators;
+import org.restcomm.protocols.ss7.cap.api.gap.GapTreatment;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ControlType;
+
+/**
+ * State of a call gap: after a call has been allowed all calls that match the gap are rejected until gapInterval
+ * elapses. The gap interval also starts when the gap is activated.
+ *
+ */
+public class ActiveCallGapImpl implements ActiveCallGap {
+
+    static final int DURATION_INFINITE = -1;
+    static final int DURATION_NETWORK_SPECIFIC = -2;
+    static final int INTERVAL_BLOCK_ALL = -1;
+
+    private final GapCriteria gapCriteria;
+    private final GapIndicators gapIndicators;
+    private final ControlType controlType;
+    private final GapTreatment gapTreatment;
+
+    // System.nanoTime() values
+    private final long expiryTime;
+    private final long interval;
+    private final AtomicLong nextAllowedTime;
+
+    private final AtomicLong acceptedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    protected ActiveCallGapImpl(GapCriteria gapCriteria, GapIndicators gapIndicators, ControlType controlType,
+            GapTreatment gapTreatment, long now) {
+        this.gapCriteria = gapCriteria;
+        this.gapIndicators = gapIndicators;
+        this.controlType = controlType;
+        this.gapTreatment = gapTreatment;
+
+        int duration = gapIndicators.getDuration();
+        if (duration == DURATION_INFINITE || duration == DURATION_NETWORK_SPECIFIC)
+            this.expiryTime = Long.MAX_VALUE;
+        else
+            this.expiryTime = now + TimeUnit.SECONDS.toNanos(duration);
+
+        int gapInterval = gapIndicators.getGapInterval();
+        if (gapInterval == INTERVAL_BLOCK_ALL)
+            this.interval = -1;
+        else
+            this.interval = TimeUnit.MILLISECONDS.toNanos(gapInterval);
+        this.nextAllowedTime = new AtomicLong(now + Math.max(this.interval, 0));
+    }
+
+    public GapCriteria getGapCriteria() {
+        return gapCriteria;
+    }
+
+    public GapIndicators getGapIndicators() {
+        return gapIndicators;
+    }
+
+    public ControlType getControlType() {
+        return controlType;
+    }
+
+    public GapTreatment getGapTreatment() {
+        return gapTreatment;
+    }
+
+    public boolean isExpired() {
+        return this.isExpired(System.nanoTime());
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.get();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * @return System.nanoTime() based expiry time or Long.MAX_VALUE if the gap never expires
+     */
+    protected long getExpiryTime() {
+        return this.expiryTime;
+    }
+
+    protected boolean isExpired(long now) {
+        return this.expiryTime != Long.MAX_VALUE && now - this.expiryTime >= 0;
+    }
+
+    protected boolean isBlocked(long now) {
+        return this.interval < 0 || now - this.nextAllowedTime.get() < 0;
+    }
+
+    /**
+     * Lets a call pass and restarts the gap interval
+     *
+     * @return false if the interval has been restarted by another call meanwhile
+     */
+    protected boolean pass(long now) {
+        if (this.interval < 0)
+            return false;
+        long next = this.nextAllowedTime.get();
+        return now - next >= 0 && this.nextAllowedTime.compareAndSet(next, now + this.interval);
+    }
+
+    protected void onAccepted() {
+        this.acceptedCount.incrementAndGet();
+    }
+
+    protected void onRejected() {
+        this.rejectedCount.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ActiveCallGap [gapCriteria=");
+        sb.append(this.gapCriteria);
+        sb.append(", gapIndicators=");
+        sb.append(this.gapIndicators);
+        if (this.controlType != null) {
+            sb.append(", controlType=");
+            sb.append(this.controlType);
+        }
+        if (this.gapTreatment != null) {
+            sb.append(", gapTreatment=");
+            sb.append(this.gapTreatment);
+        }
+        sb.append(", acceptedCount=");
+        sb.append(this.acceptedCount.get());
+        sb.append(", rejectedCount=");
+        sb.append(this.rejectedCount.get());
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.gap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.restcomm.protocols.ss7.cap.api.CAPException;
+import org.restcomm.protocols.ss7.cap.api.gap.ActiveCallGap;
+import org.restcomm.protocols.ss7.cap.api.gap.BasicGapCriteria;
+import org.restcomm.protocols.ss7.cap.api.gap.CallGapControl;
+import org.restcomm.protocols.ss7.cap.api.gap.GapCriteria;
+import org.restcomm.protocols.ss7.cap.api.gap.GapIndicators;
+import org.restcomm.protocols.ss7.cap.api.gap.GapTreatment;
+import org.restcomm.protocols.ss7.cap.api.isup.CalledPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.CallingPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.Digits;
+import org.restcomm.protocols.ss7.cap.api.primitives.CalledPartyBCDNumber;
+import org.restcomm.protocols.ss7.cap.api.primitives.ScfID;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CallGapRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ControlType;
+
+/**
+ * {@link CallGapControl} implementation.
+ *
+ * Active gaps are kept in an immutable snapshot (digit tries for called and calling address values and a map for gaps on
+ * service) that is rebuilt when gaps are added or removed. So checks of new calls do not lock, only the interval state of
+ * matching gaps is updated by CAS. Expired gaps are skipped by checks and are dropped at the next rebuild.
+ *
+ */
+public class CallGapControlImpl implements CallGapControl {
+
+    private static final int KIND_CALLED = 0;
+    private static final int KIND_CALLING = 1;
+    private static final int KIND_SERVICE = 2;
+
+    // criteria key -> gap, modified under the monitor of this object
+    private final LinkedHashMap<CriteriaKey, Entry> gaps = new LinkedHashMap<CriteriaKey, Entry>();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public ActiveCallGap addCallGap(GapCriteria gapCriteria, GapIndicators gapIndicators, ControlType controlType,
+            GapTreatment gapTreatment) throws CAPException {
+        if (gapCriteria == null || gapIndicators == null)
+            throw new CAPException("gapCriteria and gapIndicators must not be null");
+
+        CriteriaKey key = createKey(gapCriteria);
+        if (gapIndicators.getDuration() == 0 || gapIndicators.getGapInterval() == 0) {
+            this.removeGap(key);
+            return null;
+        }
+
+        Entry entry = new Entry(key, new ActiveCallGapImpl(gapCriteria, gapIndicators, controlType, gapTreatment,
+                System.nanoTime()));
+        synchronized (this) {
+            this.gaps.remove(key);
+            this.gaps.put(key, entry);
+            this.rebuild();
+        }
+        return entry.gap;
+    }
+
+    public ActiveCallGap addCallGap(CallGapRequest callGapRequest) throws CAPException {
+        return this.addCallGap(callGapRequest.getGapCriteria(), callGapRequest.getGapIndicators(),
+                callGapRequest.getControlType(), callGapRequest.getGapTreatment());
+    }
+
+    public boolean removeCallGap(GapCriteria gapCriteria) throws CAPException {
+        return this.removeGap(createKey(gapCriteria));
+    }
+
+    public synchronized void removeAllCallGaps() {
+        this.gaps.clear();
+        this.rebuild();
+    }
+
+    public ActiveCallGap[] getActiveCallGaps() {
+        long now = System.nanoTime();
+        ArrayList<ActiveCallGap> res = new ArrayList<ActiveCallGap>();
+        synchronized (this) {
+            for (Entry entry : this.gaps.values()) {
+                if (!entry.gap.isExpired(now))
+                    res.add(entry.gap);
+            }
+        }
+        return res.toArray(new ActiveCallGap[res.size()]);
+    }
+
+    public ActiveCallGap checkInitialDP(int serviceKey, CalledPartyNumberCap calledPartyNumber,
+            CalledPartyBCDNumber calledPartyBCDNumber, CallingPartyNumberCap callingPartyNumber) throws CAPException {
+        Snapshot s = this.snapshot;
+        if (s.isEmpty())
+            return null;
+
+        String calledAddress = null;
+        if (calledPartyNumber != null && calledPartyNumber.getCalledPartyNumber() != null)
+            calledAddress = calledPartyNumber.getCalledPartyNumber().getAddress();
+        else if (calledPartyBCDNumber != null)
+            calledAddress = calledPartyBCDNumber.getAddress();
+        String callingAddress = null;
+        if (callingPartyNumber != null && callingPartyNumber.getCallingPartyNumber() != null)
+            callingAddress = callingPartyNumber.getCallingPartyNumber().getAddress();
+
+        return this.checkInitialDP(serviceKey, calledAddress, callingAddress);
+    }
+
+    public ActiveCallGap checkInitialDP(int serviceKey, String calledAddress, String callingAddress) {
+        Snapshot s = this.snapshot;
+        if (s.isEmpty())
+            return null;
+
+        long now = System.nanoTime();
+        ActiveCallGapImpl called = s.calledRoot != null ? findLongest(s.calledRoot, calledAddress, serviceKey, now) : null;
+        ActiveCallGapImpl calling = s.callingRoot != null ? findLongest(s.callingRoot, callingAddress, serviceKey, now) : null;
+        ActiveCallGapImpl service = null;
+        if (s.services != null) {
+            service = s.services.get(serviceKey);
+            if (service != null && service.isExpired(now))
+                service = null;
+        }
+        if (called == null && calling == null && service == null) {
+            if (now - s.nextExpiryTime >= 0)
+                this.dropExpired();
+            return null;
+        }
+
+        // the interval of a gap is restarted only if all matching gaps let the call pass
+        ActiveCallGapImpl blocking = null;
+        if (called != null && called.isBlocked(now))
+            blocking = called;
+        else if (calling != null && calling.isBlocked(now))
+            blocking = calling;
+        else if (service != null && service.isBlocked(now))
+            blocking = service;
+        else if (called != null && !called.pass(now))
+            blocking = called;
+        else if (calling != null && !calling.pass(now))
+            blocking = calling;
+        else if (service != null && !service.pass(now))
+            blocking = service;
+
+        if (blocking != null) {
+            blocking.onRejected();
+            return blocking;
+        }
+
+        if (called != null)
+            called.onAccepted();
+        if (calling != null)
+            calling.onAccepted();
+        if (service != null)
+            service.onAccepted();
+        return null;
+    }
+
+    private static ActiveCallGapImpl findLongest(TrieNode node, String address, int serviceKey, long now) {
+        ActiveCallGapImpl res = node.find(serviceKey, now);
+        if (address == null)
+            return res;
+
+        for (int i1 = 0; i1 < address.length(); i1++) {
+            int digit = Character.digit(address.charAt(i1), 16);
+            if (digit < 0)
+                break;
+            node = node.children[digit];
+            if (node == null)
+                break;
+            ActiveCallGapImpl gap = node.find(serviceKey, now);
+            if (gap != null)
+                res = gap;
+        }
+        return res;
+    }
+
+    private boolean removeGap(CriteriaKey key) {
+        synchronized (this) {
+            if (this.gaps.remove(key) == null)
+                return false;
+            this.rebuild();
+            return true;
+        }
+    }
+
+    private synchronized void dropExpired() {
+        this.rebuild();
+    }
+
+    private void rebuild() {
+        long now = System.nanoTime();
+        Snapshot s = new Snapshot();
+        s.nextExpiryTime = Long.MAX_VALUE;
+
+        for (Iterator<Entry> it = this.gaps.values().iterator(); it.hasNext();) {
+            Entry entry = it.next();
+            if (entry.gap.isExpired(now)) {
+                it.remove();
+                continue;
+            }
+            long expiryTime = entry.gap.getExpiryTime();
+            if (expiryTime - s.nextExpiryTime < 0)
+                s.nextExpiryTime = expiryTime;
+
+            CriteriaKey key = entry.key;
+            switch (key.kind) {
+                case KIND_SERVICE:
+                    if (s.services == null)
+                        s.services = new HashMap<Integer, ActiveCallGapImpl>();
+                    s.services.put(key.serviceKey, entry.gap);
+                    break;
+                case KIND_CALLED:
+                    if (s.calledRoot == null)
+                        s.calledRoot = new TrieNode();
+                    s.calledRoot.add(key, entry.gap);
+                    break;
+                case KIND_CALLING:
+                    if (s.callingRoot == null)
+                        s.callingRoot = new TrieNode();
+                    s.callingRoot.add(key, entry.gap);
+                    break;
+            }
+        }
+
+        this.snapshot = s;
+    }
+
+    private static CriteriaKey createKey(GapCriteria gapCriteria) throws CAPException {
+        BasicGapCriteria basic;
+        ScfID scfId = null;
+        if (gapCriteria.getBasicGapCriteria() != null) {
+            basic = gapCriteria.getBasicGapCriteria();
+        } else if (gapCriteria.getCompoundGapCriteria() != null) {
+            basic = gapCriteria.getCompoundGapCriteria().getBasicGapCriteria();
+            scfId = gapCriteria.getCompoundGapCriteria().getScfID();
+        } else {
+            throw new CAPException("GapCriteria contains neither basicGapCriteria nor compoundGapCriteria");
+        }
+        if (basic == null)
+            throw new CAPException("CompoundCriteria does not contain basicGapCriteria");
+
+        if (basic.getCalledAddressValue() != null) {
+            return new CriteriaKey(KIND_CALLED, getDigits(basic.getCalledAddressValue()), null, scfId);
+        } else if (basic.getCalledAddressAndService() != null) {
+            return new CriteriaKey(KIND_CALLED, getDigits(basic.getCalledAddressAndService().getCalledAddressValue()),
+                    basic.getCalledAddressAndService().getServiceKey(), scfId);
+        } else if (basic.getCallingAddressAndService() != null) {
+            return new CriteriaKey(KIND_CALLING, getDigits(basic.getCallingAddressAndService().getCallingAddressValue()),
+                    basic.getCallingAddressAndService().getServiceKey(), scfId);
+        } else if (basic.getGapOnService() != null) {
+            return new CriteriaKey(KIND_SERVICE, "", basic.getGapOnService().getServiceKey(), scfId);
+        } else {
+            throw new CAPException("BasicGapCriteria does not contain any criteria");
+        }
+    }
+
+    private static String getDigits(Digits digits) throws CAPException {
+        if (digits == null)
+            throw new CAPException("Address value of gap criteria is null");
+        String res;
+        try {
+            if (digits.getIsGenericDigits())
+                res = digits.getGenericDigits().getDecodedDigits();
+            else
+                res = digits.getGenericNumber().getAddress();
+        } catch (CAPException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CAPException("Error when decoding of address value of gap criteria: " + e.getMessage(), e);
+        }
+        if (res == null)
+            return "";
+        for (int i1 = 0; i1 < res.length(); i1++) {
+            if (Character.digit(res.charAt(i1), 16) < 0)
+                throw new CAPException("Unsupported digit in address value of gap criteria: " + res);
+        }
+        return res;
+    }
+
+    private static class Snapshot {
+        static final Snapshot EMPTY = new Snapshot();
+
+        TrieNode calledRoot;
+        TrieNode callingRoot;
+        HashMap<Integer, ActiveCallGapImpl> services;
+        long nextExpiryTime = Long.MAX_VALUE;
+
+        boolean isEmpty() {
+            return this.calledRoot == null && this.callingRoot == null && this.services == null;
+        }
+    }
+
+    /**
+     * Node of the digit trie. A node keeps the gap that applies for any service key and gaps for particular service keys.
+     */
+    private static class TrieNode {
+        final TrieNode[] children = new TrieNode[16];
+        ActiveCallGapImpl anyService;
+        HashMap<Integer, ActiveCallGapImpl> byService;
+
+        void add(CriteriaKey key, ActiveCallGapImpl gap) {
+            TrieNode node = this;
+            for (int i1 = 0; i1 < key.digits.length(); i1++) {
+                int digit = Character.digit(key.digits.charAt(i1), 16);
+                if (node.children[digit] == null)
+                    node.children[digit] = new TrieNode();
+                node = node.children[digit];
+            }
+            if (key.serviceKey == null) {
+                node.anyService = gap;
+            } else {
+                if (node.byService == null)
+                    node.byService = new HashMap<Integer, ActiveCallGapImpl>();
+                node.byService.put(key.serviceKey, gap);
+            }
+        }
+
+        ActiveCallGapImpl find(int serviceKey, long now) {
+            if (this.byService != null) {
+                ActiveCallGapImpl gap = this.byService.get(serviceKey);
+                if (gap != null && !gap.isExpired(now))
+                    return gap;
+            }
+            if (this.anyService != null && !this.anyService.isExpired(now))
+                return this.anyService;
+            return null;
+        }
+    }
+
+    private static class Entry {
+        final CriteriaKey key;
+        final ActiveCallGapImpl gap;
+
+        Entry(CriteriaKey key, ActiveCallGapImpl gap) {
+            this.key = key;
+            this.gap = gap;
+        }
+    }
+
+    /**
+     * Identity of gap criteria: a new gap with the same criteria replaces the old one
+     */
+    private static class CriteriaKey {
+        final int kind;
+        final String digits;
+        final Integer serviceKey;
+        final String scfId;
+
+        CriteriaKey(int kind, String digits, Integer serviceKey, ScfID scfId) {
+            this.kind = kind;
+            this.digits = digits;
+            this.serviceKey = serviceKey;
+            if (scfId != null && scfId.getData() != null) {
+                StringBuilder sb = new StringBuilder();
+                for (byte b : scfId.getData()) {
+                    sb.append(Character.forDigit((b >> 4) & 0x0F, 16));
+                    sb.append(Character.forDigit(b & 0x0F, 16));
+                }
+                this.scfId = sb.toString();
+            } else {
+                this.scfId = null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof CriteriaKey))
+                return false;
+            CriteriaKey x = (CriteriaKey) obj;
+            return this.kind == x.kind && this.digits.equals(x.digits)
+                    && (this.serviceKey == null ? x.serviceKey == null : this.serviceKey.equals(x.serviceKey))
+                    && (this.scfId == null ? x.scfId == null : this.scfId.equals(x.scfId));
+        }
+
+        @Override
+        public int hashCode() {
+            int h = this.kind;
+            h = h * 31 + this.digits.hashCode();
+            h = h * 31 + (this.serviceKey == null ? 0 : this.serviceKey.hashCode());
+            h = h * 31 + (this.scfId == null ? 0 : this.scfId.hashCode());
+            return h;
+        }
+    }
+}
@@ -31,6 +31,9 @@ import org.restcomm.protocols.ss7.cap.api.CAPApplicationContext;
 import org.restcomm.protocols.ss7.cap.api.CAPException;
 import org.restcomm.protocols.ss7.cap.api.CAPOperationCode;
 import org.restcomm.protocols.ss7.cap.api.CAPServiceBase;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPDialogState;
+import org.restcomm.protocols.ss7.cap.api.gap.ActiveCallGap;
+import org.restcomm.protocols.ss7.cap.api.gap.CAPCallGappedException;
 import org.restcomm.protocols.ss7.cap.api.gap.GapCriteria;
 import org.restcomm.protocols.ss7.cap.api.gap.GapIndicators;
 import org.restcomm.protocols.ss7.cap.api.gap.GapTreatment;
@@ -106,11 +109,20 @@ import org.restcomm.protocols.ss7.tcap.asn.comp.ReturnResultLast;
  */
 public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements CAPDialogCircuitSwitchedCall {
 
+    private boolean callGapChecked;
+
     protected CAPDialogCircuitSwitchedCallImpl(CAPApplicationContext appCntx, Dialog tcapDialog,
             CAPProviderImpl capProviderImpl, CAPServiceBase capService) {
         super(appCntx, tcapDialog, capProviderImpl, capService);
     }
 
+    /**
+     * Marks that the call of this dialog has already passed the CallGapControl check
+     */
+    protected void setCallGapChecked() {
+        this.callGapChecked = true;
+    }
+
     @Override
     public Long addInitialDPRequest(int serviceKey, CalledPartyNumberCap calledPartyNumber,
             CallingPartyNumberCap callingPartyNumber, CallingPartysCategoryInap callingPartysCategory,
@@ -156,6 +168,17 @@ public class CAPDialogCircuitSwitchedCallImpl extends CAPDialogImpl implements C
             throw new CAPException(
                     "Bad application context name for addInitialDPRequest: must be CapV1_gsmSSF_to_gsmSCF, CapV2_gsmSSF_to_gsmSCF, CapV3_gsmSSF_scfGeneric or CapV4_gsmSSF_scfGeneric");
 
+        // a gapped call must not reach the gsmSCF: the dialog is released before anything has been sent
+        if (!this.callGapChecked && this.getState() == CAPDialogState.Idle) {
+            ActiveCallGap gap = this.capProviderImpl.getCallGapControl().checkInitialDP(serviceKey, calledPartyNumber,
+                    calledPartyBCDNumber, callingPartyNumber);
+            if (gap != null) {
+                this.release();
+                throw new CAPCallGappedException("InitialDP is rejected by CallGap: " + gap.getGapCriteria(), gap);
+            }
+            this.callGapChecked = true;
+        }
+
         Invoke invoke = this.capProviderImpl.getTCAPProvider().getComponentPrimitiveFactory()
                 .createTCInvokeRequest(InvokeClass.Class2);
         if (customInvokeTimeout == _Timer_Default)
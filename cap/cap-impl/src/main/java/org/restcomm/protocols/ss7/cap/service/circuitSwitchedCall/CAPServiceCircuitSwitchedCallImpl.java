@@ -37,6 +37,11 @@ import org.restcomm.protocols.ss7.cap.api.CAPParsingComponentExceptionReason;
 import org.restcomm.protocols.ss7.cap.api.CAPServiceListener;
 import org.restcomm.protocols.ss7.cap.api.dialog.ServingCheckData;
 import org.restcomm.protocols.ss7.cap.api.dialog.ServingCheckResult;
+import org.restcomm.protocols.ss7.cap.api.gap.ActiveCallGap;
+import org.restcomm.protocols.ss7.cap.api.gap.CAPCallGappedException;
+import org.restcomm.protocols.ss7.cap.api.isup.CalledPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.CallingPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.primitives.CalledPartyBCDNumber;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPDialogCircuitSwitchedCall;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCall;
 import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCallListener;
@@ -84,6 +89,28 @@ public class CAPServiceCircuitSwitchedCallImpl extends CAPServiceBaseImpl implem
         return dialog;
     }
 
+    @Override
+    public CAPDialogCircuitSwitchedCall createNewDialogForInitialDP(CAPApplicationContext appCntx, SccpAddress origAddress,
+            SccpAddress destAddress, Long localTrId, int serviceKey, CalledPartyNumberCap calledPartyNumber,
+            CalledPartyBCDNumber calledPartyBCDNumber, CallingPartyNumberCap callingPartyNumber) throws CAPException {
+
+        // We cannot create a dialog if the service is not activated
+        if (!this.isActivated())
+            throw new CAPException(
+                    "Cannot create CAPDialogCircuitSwitchedCall because CAPServiceCircuitSwitchedCall is not activated");
+
+        // the gap check goes before the TCAP dialog allocation
+        ActiveCallGap gap = this.capProviderImpl.getCallGapControl().checkInitialDP(serviceKey, calledPartyNumber,
+                calledPartyBCDNumber, callingPartyNumber);
+        if (gap != null)
+            throw new CAPCallGappedException("InitialDP is rejected by CallGap: " + gap.getGapCriteria(), gap);
+
+        CAPDialogCircuitSwitchedCallImpl dialog = (CAPDialogCircuitSwitchedCallImpl) this.createNewDialog(appCntx,
+                origAddress, destAddress, localTrId);
+        dialog.setCallGapChecked();
+        return dialog;
+    }
+
     @Override
     public void addCAPServiceListener(CAPServiceCircuitSwitchedCallListener capServiceListener) {
         super.addCAPServiceListener(capServiceListener);
@@ -796,6 +823,12 @@ public class CAPServiceCircuitSwitchedCallImpl extends CAPServiceBaseImpl implem
         ind.setInvokeId(invokeId);
         ind.setCAPDialog(capDialogImpl);
 
+        try {
+            this.capProviderImpl.getCallGapControl().addCallGap(ind);
+        } catch (Exception e) {
+            loger.error("Error when activating of a call gap from callGapRequest: " + e.getMessage(), e);
+        }
+
         for (CAPServiceListener serLis : this.serviceListeners) {
             try {
                 serLis.onCAPMessage(ind);
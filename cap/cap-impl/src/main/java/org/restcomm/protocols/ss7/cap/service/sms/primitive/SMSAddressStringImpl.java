@@ -68,7 +68,7 @@ public class SMSAddressStringImpl extends AddressStringImpl implements SMSAddres
     @Override
     protected void _testLengthEncode() throws MAPException {
 
-        if (this.address == null && this.address.length() > 28)
+        if (this.getAddressLength() > 28)
             throw new MAPException("Error when encoding SMSAddressString: address length must not exceed 28 digits");
     }
 
@@ -103,6 +103,7 @@ public class SMSAddressStringImpl extends AddressStringImpl implements SMSAddres
 
             CharBuffer bf = decoder.decode(bb);
             this.address = bf.toString();
+            this.digits = null;
         } else {
             super._decode(ansIS, length);
         }
@@ -118,7 +119,7 @@ public class SMSAddressStringImpl extends AddressStringImpl implements SMSAddres
             GSMCharsetEncoder encoder = (GSMCharsetEncoder) cs.newEncoder();
             ByteBuffer bb = null;
             try {
-                bb = encoder.encode(CharBuffer.wrap(this.address));
+                bb = encoder.encode(CharBuffer.wrap(this.getAddress()));
             } catch (CharacterCodingException e) {
                 throw new MAPException("CharacterCodingException when encoding SMSAddressString: " + e.getMessage(), e);
             }
@@ -135,7 +136,7 @@ public class SMSAddressStringImpl extends AddressStringImpl implements SMSAddres
     @Override
     public String toString() {
         return "SMSAddressString [AddressNature=" + this.addressNature.toString() + ", NumberingPlan="
-                + this.numberingPlan.toString() + ", Address=" + this.address + "]";
+                + this.numberingPlan.toString() + ", Address=" + this.getAddress() + "]";
     }
 
 }
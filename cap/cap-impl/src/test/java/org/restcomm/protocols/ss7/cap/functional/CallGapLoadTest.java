@@ -0,0 +1,300 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.functional;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.cap.CAPStackImpl;
+import org.restcomm.protocols.ss7.cap.api.CAPApplicationContext;
+import org.restcomm.protocols.ss7.cap.api.CAPDialog;
+import org.restcomm.protocols.ss7.cap.api.CAPException;
+import org.restcomm.protocols.ss7.cap.api.CAPProvider;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPDialogState;
+import org.restcomm.protocols.ss7.cap.api.gap.ActiveCallGap;
+import org.restcomm.protocols.ss7.cap.api.gap.CAPCallGappedException;
+import org.restcomm.protocols.ss7.cap.api.isup.CalledPartyNumberCap;
+import org.restcomm.protocols.ss7.cap.api.isup.Digits;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPDialogCircuitSwitchedCall;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.InitialDPRequest;
+import org.restcomm.protocols.ss7.cap.gap.BasicGapCriteriaImpl;
+import org.restcomm.protocols.ss7.cap.gap.GapCriteriaImpl;
+import org.restcomm.protocols.ss7.cap.gap.GapIndicatorsImpl;
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.isup.message.parameter.CalledPartyNumber;
+import org.restcomm.protocols.ss7.isup.message.parameter.GenericNumber;
+import org.restcomm.protocols.ss7.isup.message.parameter.NAINumber;
+import org.restcomm.protocols.ss7.sccp.impl.SccpHarness;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.protocols.ss7.tcap.api.TCAPProvider;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * gsmSSF to gsmSCF load with call gapping: the gsmSCF answers the first InitialDP with a CallGap and the gsmSSF must not
+ * offer the gapped calls any more than once per gap interval
+ *
+ */
+public class CallGapLoadTest extends SccpHarness {
+
+    private static Logger logger = Logger.getLogger(CallGapLoadTest.class);
+
+    private static final int SERVICE_KEY = 100;
+    private static final String GAPPED_PREFIX = "4161";
+    private static final String FREE_PREFIX = "4162";
+    private static final int GAP_INTERVAL = 250; // milliseconds
+    private static final int LOAD_TIME = 2000; // milliseconds
+    private static final int WAIT_TIMEOUT = 5000;
+
+    private CAPStackImpl stack1;
+    private CAPStackImpl stack2;
+    private SccpAddress peer1Address;
+    private SccpAddress peer2Address;
+    private Client client;
+    private Server server;
+
+    private AtomicInteger scfReceivedGapped = new AtomicInteger();
+    private AtomicInteger scfReceivedFree = new AtomicInteger();
+    private AtomicBoolean callGapSent = new AtomicBoolean();
+    private AtomicReference<Exception> scfError = new AtomicReference<Exception>();
+
+    @Override
+    protected int getSSN() {
+        return 146;
+    }
+
+    @Override
+    protected int getSSN2() {
+        return 146;
+    }
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        this.sccpStack1Name = "CallGapLoadTestSccpStack1";
+        this.sccpStack2Name = "CallGapLoadTestSccpStack2";
+
+        super.setUp();
+
+        peer1Address = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 146);
+        peer2Address = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 146);
+
+        this.stack1 = new CAPStackImplWrapper(this.sccpProvider1, 146);
+        this.stack2 = new CAPStackImplWrapper(this.sccpProvider2, 146);
+
+        this.stack1.start();
+        this.stack2.start();
+
+        scfReceivedGapped.set(0);
+        scfReceivedFree.set(0);
+        callGapSent.set(false);
+        scfError.set(null);
+
+        client = new Client(this.stack1, null, peer1Address, peer2Address);
+        server = new Server(this.stack2, null, peer2Address, peer1Address) {
+            @Override
+            public void onInitialDPRequest(InitialDPRequest ind) {
+                super.onInitialDPRequest(ind);
+
+                ind.getCAPDialog().processInvokeWithoutAnswer(ind.getInvokeId());
+                try {
+                    if (ind.getCalledPartyNumber().getCalledPartyNumber().getAddress().startsWith(GAPPED_PREFIX))
+                        scfReceivedGapped.incrementAndGet();
+                    else
+                        scfReceivedFree.incrementAndGet();
+                } catch (CAPException e) {
+                    scfError.set(e);
+                }
+            }
+
+            @Override
+            public void onDialogDelimiter(CAPDialog capDialog) {
+                super.onDialogDelimiter(capDialog);
+
+                CAPDialogCircuitSwitchedCall dlg = (CAPDialogCircuitSwitchedCall) capDialog;
+                try {
+                    // the first call gets a CallGap for the gapped called number prefix
+                    if (callGapSent.compareAndSet(false, true)) {
+                        GenericNumber genericNumber = capProvider.getISUPParameterFactory().createGenericNumber();
+                        genericNumber.setAddress(GAPPED_PREFIX);
+                        Digits digits = capProvider.getCAPParameterFactory().createDigits_GenericNumber(genericNumber);
+                        dlg.addCallGapRequest(new GapCriteriaImpl(new BasicGapCriteriaImpl(digits)), new GapIndicatorsImpl(
+                                60, GAP_INTERVAL), null, null, null);
+                    }
+                    dlg.close(false);
+                } catch (CAPException e) {
+                    scfError.set(e);
+                }
+            }
+        };
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        this.stack1.stop();
+        this.stack2.stop();
+        super.tearDown();
+    }
+
+    private CalledPartyNumberCap createCalledPartyNumber(String address) throws CAPException {
+        CAPProvider capProvider = this.stack1.getCAPProvider();
+        CalledPartyNumber calledPartyNumber = capProvider.getISUPParameterFactory().createCalledPartyNumber();
+        calledPartyNumber.setNatureOfAddresIndicator(NAINumber._NAI_INTERNATIONAL_NUMBER);
+        calledPartyNumber.setNumberingPlanIndicator(CalledPartyNumber._NPI_ISDN);
+        calledPartyNumber.setAddress(address);
+        return capProvider.getCAPParameterFactory().createCalledPartyNumberCap(calledPartyNumber);
+    }
+
+    private void addInitialDP(CAPDialogCircuitSwitchedCall dlg, CalledPartyNumberCap calledPartyNumber) throws CAPException {
+        dlg.addInitialDPRequest(SERVICE_KEY, calledPartyNumber, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, false, null, null, null, null, null, null, null, null, false,
+                null);
+    }
+
+    /**
+     * Offers a call to the gsmSCF
+     *
+     * @return false if the call was gapped
+     */
+    private boolean offerCall(String calledAddress) throws CAPException {
+        CalledPartyNumberCap calledPartyNumber = createCalledPartyNumber(calledAddress);
+        CAPDialogCircuitSwitchedCall dlg;
+        try {
+            dlg = this.stack1.getCAPProvider().getCAPServiceCircuitSwitchedCall().createNewDialogForInitialDP(
+                    CAPApplicationContext.CapV3_gsmSSF_scfGeneric, peer1Address, peer2Address, null, SERVICE_KEY,
+                    calledPartyNumber, null, null);
+        } catch (CAPCallGappedException e) {
+            assertNotNull(e.getActiveCallGap());
+            return false;
+        }
+        addInitialDP(dlg, calledPartyNumber);
+        dlg.send();
+        return true;
+    }
+
+    private ActiveCallGap activateCallGap() throws Exception {
+        assertTrue(offerCall(GAPPED_PREFIX + "0000"));
+
+        long start = System.currentTimeMillis();
+        while (this.stack1.getCAPProvider().getCallGapControl().getActiveCallGaps().length == 0) {
+            if (System.currentTimeMillis() - start > WAIT_TIMEOUT)
+                fail("CallGap has not been received from the gsmSCF");
+            Thread.sleep(10);
+        }
+        return this.stack1.getCAPProvider().getCallGapControl().getActiveCallGaps()[0];
+    }
+
+    private void waitForScf(int gapped, int free) throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (scfReceivedGapped.get() < gapped || scfReceivedFree.get() < free) {
+            if (System.currentTimeMillis() - start > WAIT_TIMEOUT)
+                break;
+            Thread.sleep(10);
+        }
+        assertNull(scfError.get());
+        assertEquals(scfReceivedGapped.get(), gapped);
+        assertEquals(scfReceivedFree.get(), free);
+    }
+
+    @Test(groups = { "functional.flow", "gap" })
+    public void testInitialDPLoad() throws Exception {
+        ActiveCallGap gap = activateCallGap();
+        waitForScf(1, 0);
+
+        TCAPProvider tcapProvider = this.stack1.getTCAPStack().getProvider();
+        int sentGapped = 0;
+        int suppressed = 0;
+        int sentFree = 0;
+        long start = System.currentTimeMillis();
+        long elapsed;
+        int i1 = 0;
+        do {
+            String suffix = String.format("%04d", i1++ % 10000);
+
+            int dialogsBefore = tcapProvider.getCurrentDialogsCount();
+            if (offerCall(GAPPED_PREFIX + suffix)) {
+                sentGapped++;
+            } else {
+                suppressed++;
+                // a gapped call does not allocate a TCAP dialog
+                assertTrue(tcapProvider.getCurrentDialogsCount() <= dialogsBefore);
+            }
+
+            assertTrue(offerCall(FREE_PREFIX + suffix));
+            sentFree++;
+
+            if (i1 % 8 == 0)
+                Thread.sleep(1);
+            elapsed = System.currentTimeMillis() - start;
+        } while (elapsed < LOAD_TIME);
+
+        waitForScf(1 + sentGapped, sentFree);
+        logger.info("InitialDP load " + elapsed + " ms: gapped prefix sent=" + sentGapped + ", suppressed="
+                + suppressed + ", free prefix sent=" + sentFree);
+
+        // one call per started gap interval passes the gap
+        assertTrue(sentGapped >= 1, "sentGapped=" + sentGapped);
+        assertTrue(sentGapped <= elapsed / GAP_INTERVAL + 1, "sentGapped=" + sentGapped + ", elapsed=" + elapsed);
+        assertTrue(suppressed > sentGapped * 10, "suppressed=" + suppressed + ", sentGapped=" + sentGapped);
+        assertEquals(gap.getRejectedCount(), suppressed);
+        assertEquals(gap.getAcceptedCount(), sentGapped);
+    }
+
+    @Test(groups = { "functional.flow", "gap" })
+    public void testInitialDPOnExistingDialog() throws Exception {
+        ActiveCallGap gap = activateCallGap();
+        waitForScf(1, 0);
+
+        // a dialog that was created without the gap check is released when the gapped InitialDP is added
+        CalledPartyNumberCap calledPartyNumber = createCalledPartyNumber(GAPPED_PREFIX + "0001");
+        CAPDialogCircuitSwitchedCall dlg = this.stack1.getCAPProvider().getCAPServiceCircuitSwitchedCall()
+                .createNewDialog(CAPApplicationContext.CapV3_gsmSSF_scfGeneric, peer1Address, peer2Address);
+        try {
+            addInitialDP(dlg, calledPartyNumber);
+            fail("CAPCallGappedException expected");
+        } catch (CAPCallGappedException e) {
+            assertSame(e.getActiveCallGap(), gap);
+        }
+        assertEquals(dlg.getState(), CAPDialogState.Expunged);
+        assertEquals(gap.getRejectedCount(), 1);
+
+        // calls that do not match the gap are sent
+        dlg = this.stack1.getCAPProvider().getCAPServiceCircuitSwitchedCall().createNewDialog(
+                CAPApplicationContext.CapV3_gsmSSF_scfGeneric, peer1Address, peer2Address);
+        addInitialDP(dlg, createCalledPartyNumber(FREE_PREFIX + "0001"));
+        dlg.send();
+
+        waitForScf(1, 1);
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.cap.gap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.restcomm.protocols.ss7.cap.api.gap.ActiveCallGap;
+import org.restcomm.protocols.ss7.cap.api.gap.GapCriteria;
+import org.restcomm.protocols.ss7.cap.api.gap.GapIndicators;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.primitive.ControlType;
+import org.restcomm.protocols.ss7.cap.isup.DigitsImpl;
+import org.restcomm.protocols.ss7.cap.primitives.ScfIDImpl;
+import org.restcomm.protocols.ss7.cap.service.circuitSwitchedCall.CallGapRequestImpl;
+import org.restcomm.protocols.ss7.isup.impl.message.parameter.GenericNumberImpl;
+import org.restcomm.protocols.ss7.isup.message.parameter.GenericNumber;
+import org.testng.annotations.Test;
+
+/**
+ * Test for CallGapControlImpl gap matching and enforcement
+ *
+ */
+public class CallGapControlTest {
+
+    private static DigitsImpl createDigits(String address) throws Exception {
+        GenericNumberImpl gn = new GenericNumberImpl(GenericNumber._NAI_NATIONAL_SN, address,
+                GenericNumber._NQIA_CONNECTED_NUMBER, GenericNumber._NPI_TELEX, GenericNumber._APRI_ALLOWED,
+                GenericNumber._NI_INCOMPLETE, GenericNumber._SI_USER_PROVIDED_VERIFIED_FAILED);
+        return new DigitsImpl(gn);
+    }
+
+    private static GapCriteria calledCriteria(String address) throws Exception {
+        return new GapCriteriaImpl(new BasicGapCriteriaImpl(createDigits(address)));
+    }
+
+    private static GapCriteria calledAndServiceCriteria(String address, int serviceKey) throws Exception {
+        return new GapCriteriaImpl(new BasicGapCriteriaImpl(new CalledAddressAndServiceImpl(createDigits(address),
+                serviceKey)));
+    }
+
+    private static GapCriteria callingAndServiceCriteria(String address, int serviceKey) throws Exception {
+        return new GapCriteriaImpl(new BasicGapCriteriaImpl(new CallingAddressAndServiceImpl(createDigits(address),
+                serviceKey)));
+    }
+
+    private static GapCriteria serviceCriteria(int serviceKey) throws Exception {
+        return new GapCriteriaImpl(new BasicGapCriteriaImpl(new GapOnServiceImpl(serviceKey)));
+    }
+
+    private static GapIndicators indicators(int duration, int interval) {
+        return new GapIndicatorsImpl(duration, interval);
+    }
+
+    @Test(groups = { "functional.flow", "gap" })
+    public void testMatching() throws Exception {
+        CallGapControlImpl control = new CallGapControlImpl();
+        assertNull(control.checkInitialDP(1, "12345", "999"));
+
+        ActiveCallGap gap1 = control.addCallGap(calledCriteria("123"), indicators(-1, -1), ControlType.sCPOverloaded, null);
+        assertNotNull(gap1);
+        assertSame(control.checkInitialDP(1, "12345", "999"), gap1);
+        assertSame(control.checkInitialDP(2, "123", null), gap1);
+        assertNull(control.checkInitialDP(1, "12", "999"));
+        assertNull(control.checkInitialDP(1, "1245", "999"));
+        assertNull(control.checkInitialDP(1, null, "123"));
+        assertEquals(gap1.getRejectedCount(), 2);
+
+        // the longest prefix wins, the gap interval starts at activation
+        ActiveCallGap gap2 = control.addCallGap(calledCriteria("1234"), indicators(-1, 100), null, null);
+        assertSame(control.checkInitialDP(1, "12345", null), gap2);
+        Thread.sleep(110);
+        assertNull(control.checkInitialDP(1, "12345", null));
+        assertEquals(gap2.getAcceptedCount(), 1);
+        assertSame(control.checkInitialDP(1, "12345", null), gap2);
+        assertSame(control.checkInitialDP(1, "1235", null), gap1);
+
+        // a gap for the service key is preferred at the same prefix
+        ActiveCallGap gap3 = control.addCallGap(calledAndServiceCriteria("1234", 5), indicators(-1, -1), null, null);
+        assertSame(control.checkInitialDP(5, "12345", null), gap3);
+        assertSame(control.checkInitialDP(6, "12345", null), gap2);
+
+        // calling address and service key gaps
+        ActiveCallGap gap4 = control.addCallGap(callingAndServiceCriteria("77", 8), indicators(-1, -1), null, null);
+        ActiveCallGap gap5 = control.addCallGap(serviceCriteria(9), indicators(-1, -1), null, null);
+        assertSame(control.checkInitialDP(8, "555", "771"), gap4);
+        assertNull(control.checkInitialDP(7, "555", "771"));
+        assertSame(control.checkInitialDP(9, "555", "881"), gap5);
+        assertNull(control.checkInitialDP(10, "555", "881"));
+
+        assertEquals(control.getActiveCallGaps().length, 5);
+    }
+
+    @Test(groups = { "functional.flow", "gap" })
+    public void testReplaceAndRemove() throws Exception {
+        CallGapControlImpl control = new CallGapControlImpl();
+
+        ActiveCallGap gap1 = control.addCallGap(calledCriteria("55"), indicators(-1, -1), null, null);
+        ActiveCallGap gap2 = control.addCallGap(calledCriteria("55"), indicators(-2, -1), null, null);
+        assertEquals(control.getActiveCallGaps().length, 1);
+        assertSame(control.checkInitialDP(1, "556", null), gap2);
+        assertEquals(gap1.getRejectedCount(), 0);
+
+        // the same digits with another scfID is another gap
+        GapCriteria compound = new GapCriteriaImpl(new CompoundCriteriaImpl(new BasicGapCriteriaImpl(createDigits("55")),
+                new ScfIDImpl(new byte[] { 1, 2 })));
+        control.addCallGap(compound, indicators(-1, -1), null, null);
+        assertEquals(control.getActiveCallGaps().length, 2);
+
+        // duration 0 or interval 0 removes a gap
+        assertNull(control.addCallGap(calledCriteria("55"), indicators(0, -1), null, null));
+        assertEquals(control.getActiveCallGaps().length, 1);
+        assertNull(control.addCallGap(compound, indicators(10, 0), null, null));
+        assertEquals(control.getActiveCallGaps().length, 0);
+        assertNull(control.checkInitialDP(1, "556", null));
+
+        control.addCallGap(serviceCriteria(3), indicators(-1, -1), null, null);
+        assertFalse(control.removeCallGap(serviceCriteria(4)));
+        assertTrue(control.removeCallGap(serviceCriteria(3)));
+        assertNull(control.checkInitialDP(3, null, null));
+
+        control.addCallGap(serviceCriteria(3), indicators(-1, -1), null, null);
+        control.addCallGap(calledCriteria("1"), indicators(-1, -1), null, null);
+        control.removeAllCallGaps();
+        assertEquals(control.getActiveCallGaps().length, 0);
+
+        // a CallGapRequest activates a gap
+        CallGapRequestImpl req = new CallGapRequestImpl(serviceCriteria(11), indicators(-1, -1),
+                ControlType.manuallyInitiated, null, null);
+        ActiveCallGap gap3 = control.addCallGap(req);
+        assertEquals(gap3.getControlType(), ControlType.manuallyInitiated);
+        assertSame(control.checkInitialDP(11, null, null), gap3);
+    }
+
+    @Test(groups = { "functional.flow", "gap" })
+    public void testExpiry() throws Exception {
+        CallGapControlImpl control = new CallGapControlImpl();
+
+        ActiveCallGap gap = control.addCallGap(calledCriteria("12"), indicators(1, -1), null, null);
+        assertSame(control.checkInitialDP(1, "123", null), gap);
+        assertFalse(gap.isExpired());
+
+        Thread.sleep(1100);
+        assertTrue(gap.isExpired());
+        assertNull(control.checkInitialDP(1, "123", null));
+        assertEquals(control.getActiveCallGaps().length, 0);
+    }
+
+    @Test(groups = { "functional.flow", "gap" })
+    public void testInterval() throws Exception {
+        final CallGapControlImpl control = new CallGapControlImpl();
+        final int interval = 50;
+        final long duration = 1000;
+        final ActiveCallGap gap = control.addCallGap(calledCriteria("100"), indicators(-1, interval), null, null);
+
+        final int threadCount = 8;
+        final AtomicLong otherRejected = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int i1 = 0; i1 < threadCount; i1++) {
+            new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        long endTime = System.currentTimeMillis() + duration;
+                        while (System.currentTimeMillis() < endTime) {
+                            control.checkInitialDP(1, "1001", null);
+                            if (control.checkInitialDP(1, "2001", null) != null)
+                                otherRejected.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+        done.await();
+
+        assertTrue(gap.getAcceptedCount() >= 1);
+        assertTrue(gap.getAcceptedCount() <= duration / interval + 1, "accepted=" + gap.getAcceptedCount());
+        assertTrue(gap.getRejectedCount() > gap.getAcceptedCount());
+        assertEquals(otherRejected.get(), 0);
+    }
+
+}
@@ -37,11 +37,13 @@ public class ExecutorCongestionMonitorImpl extends BaseCongestionMonitor impleme
     private String source;
     private int currentAlarmLevel = 0;
     private ExecutorService[] executors;
+    private ExecutorQueueMeter queueMeter;
 
     private double[] delayThreshold = new double[] { 1, 6, 12 };
     private double[] backToNormalDelayThreshold = new double[] { 0.5, 3, 8 };
 
     protected double calculatedMaxValue;
+    protected int calculatedQueueDepth;
 
     public ExecutorCongestionMonitorImpl(String productName, ExecutorService[] executors) {
         this.productName = productName;
@@ -50,10 +52,23 @@ public class ExecutorCongestionMonitorImpl extends BaseCongestionMonitor impleme
         this.source = SOURCE + productName;
     }
 
+    public ExecutorCongestionMonitorImpl(String productName, ExecutorQueueMeter queueMeter) {
+        this.productName = productName;
+        this.queueMeter = queueMeter;
+
+        this.source = SOURCE + productName;
+    }
+
     @Override
     public void monitor() {
-        TestMonitor testMonitor = new TestMonitor();
-        testMonitor.startMonitor();
+        if (queueMeter != null) {
+            // queues measure their delay themselves - no need for probe tasks
+            calculatedQueueDepth = queueMeter.getQueueDepth();
+            registerResults(queueMeter.getMaxQueueDelay());
+        } else {
+            TestMonitor testMonitor = new TestMonitor();
+            testMonitor.startMonitor();
+        }
     }
 
     @Override
@@ -146,6 +161,10 @@ public class ExecutorCongestionMonitorImpl extends BaseCongestionMonitor impleme
         StringBuilder sb = new StringBuilder();
         sb.append("Last measured max delay between delivering an IP message for sending and a moment when the message was transferred via an IP channel (seconds): ");
         sb.append(calculatedMaxValue);
+        if (queueMeter != null) {
+            sb.append(", queue depth: ");
+            sb.append(calculatedQueueDepth);
+        }
         return sb.toString();
     }
 
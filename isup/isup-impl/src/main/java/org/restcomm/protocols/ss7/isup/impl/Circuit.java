@@ -22,8 +22,8 @@
 
 package org.restcomm.protocols.ss7.isup.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javolution.util.ReentrantLock;
 
@@ -61,6 +61,13 @@ import org.restcomm.protocols.ss7.scheduler.Scheduler;
 import org.restcomm.protocols.ss7.scheduler.Task;
 
 /**
+ * Circuit of the ISUP provider. Circuits are created when the first message for a CIC is sent or received.
+ *
+ * ISUP timers of all circuits are served by the provider's {@link CircuitTimerWheel}. Running timers and the messages
+ * they resend are kept in a {@link TimerState} that exists only while at least one timer of the circuit is running.
+ *
+ * A circuit without running timers and queued messages is idle and is released from the provider. The next message for
+ * the CIC creates a new circuit.
  *
  * @author baranowb
  * @author amit bhayani
@@ -72,16 +79,16 @@ class Circuit {
     private final int dpc;
     private final ISUPProviderImpl provider;
 
-    private ReentrantLock lock = new ReentrantLock();
+    final ReentrantLock lock = new ReentrantLock();
 
     private ConcurrentLinkedList<ISUPMessage> incoming = new ConcurrentLinkedList<ISUPMessage>();
     private ConcurrentLinkedList<ISUPMessage> outgoing = new ConcurrentLinkedList<ISUPMessage>();
+    // number of threads that are putting a message into the queues, -1 once the circuit is released
+    private final AtomicInteger enqueuers = new AtomicInteger();
 
     private Sender sender;
     private Receiver receiver;
 
-    private ByteArrayOutputStream bos = new ByteArrayOutputStream(300);
-
     /**
      * @param cic
      */
@@ -91,26 +98,6 @@ class Circuit {
         this.cic = cic;
         this.dpc = dpc;
         this.provider = provider;
-
-        // create all timers and deactivate them
-        t1 = new TimerT1(scheduler);
-        t5 = new TimerT5(scheduler);
-        t7 = new TimerT7(scheduler);
-        t12 = new TimerT12(scheduler);
-        t13 = new TimerT13(scheduler);
-        t14 = new TimerT14(scheduler);
-        t15 = new TimerT15(scheduler);
-        t16 = new TimerT16(scheduler);
-        t17 = new TimerT17(scheduler);
-        t18 = new TimerT18(scheduler);
-        t19 = new TimerT19(scheduler);
-        t20 = new TimerT20(scheduler);
-        t21 = new TimerT21(scheduler);
-        t22 = new TimerT22(scheduler);
-        t23 = new TimerT23(scheduler);
-        t28 = new TimerT28(scheduler);
-        t33 = new TimerT33(scheduler);
-        onStop();
     }
 
     /**
@@ -133,43 +120,28 @@ class Circuit {
      */
     public boolean cancelTimer(int timerId) {
         try {
-
             lock.lock();
             switch (timerId) {
                 case ISUPTimeoutEvent.T1:
-                    return cancelT1();
                 case ISUPTimeoutEvent.T5:
-                    return cancelT5();
                 case ISUPTimeoutEvent.T7:
-                    return cancelT7();
                 case ISUPTimeoutEvent.T12:
-                    return cancelT12();
                 case ISUPTimeoutEvent.T13:
-                    return cancelT13();
                 case ISUPTimeoutEvent.T14:
-                    return cancelT14();
                 case ISUPTimeoutEvent.T15:
-                    return cancelT15();
                 case ISUPTimeoutEvent.T16:
-                    return cancelT16();
                 case ISUPTimeoutEvent.T17:
-                    return cancelT17();
                 case ISUPTimeoutEvent.T18:
-                    return cancelT18();
                 case ISUPTimeoutEvent.T19:
-                    return cancelT19();
                 case ISUPTimeoutEvent.T20:
-                    return cancelT20();
                 case ISUPTimeoutEvent.T21:
-                    return cancelT21();
                 case ISUPTimeoutEvent.T22:
-                    return cancelT22();
                 case ISUPTimeoutEvent.T23:
-                    return cancelT23();
                 case ISUPTimeoutEvent.T28:
-                    return cancelT28();
                 case ISUPTimeoutEvent.T33:
-                    return cancelT33();
+                    boolean res = cancelT(timerId);
+                    releaseIfIdle();
+                    return res;
                 default:
                     return false;
             }
@@ -180,20 +152,64 @@ class Circuit {
 
     /**
      * @param message
+     * @return false if the circuit has been released, the message must be passed to the circuit that replaces it
      */
-    public void receive(ISUPMessage message) {
-        incoming.offer(message);
-        receiver.submit();
+    public boolean receive(ISUPMessage message) {
+        if (!enter())
+            return false;
+        try {
+            incoming.offer(message);
+            receiver.submit();
+        } finally {
+            enqueuers.decrementAndGet();
+        }
+        return true;
     }
 
     /**
      * @param message
+     * @return false if the circuit has been released, the message must be passed to the circuit that replaces it
      * @throws ParameterException
      * @throws IOException
      */
-    public void send(ISUPMessage message) throws ParameterException, IOException {
-        outgoing.offer(message);
-        sender.submit();
+    public boolean send(ISUPMessage message) throws ParameterException, IOException {
+        if (!enter())
+            return false;
+        try {
+            outgoing.offer(message);
+            sender.submit();
+        } finally {
+            enqueuers.decrementAndGet();
+        }
+        return true;
+    }
+
+    private boolean enter() {
+        while (true) {
+            int n = enqueuers.get();
+            if (n < 0)
+                return false;
+            if (enqueuers.compareAndSet(n, n + 1))
+                return true;
+        }
+    }
+
+    /**
+     * Releases the circuit if it has no running timers and no queued messages. Invoked under the circuit lock.
+     */
+    private void releaseIfIdle() {
+        if (this.timers != null || !enqueuers.compareAndSet(0, -1))
+            return;
+
+        // a message put before the circuit has been closed for enqueuers keeps it alive
+        if (incoming.isEmpty() && outgoing.isEmpty())
+            provider.releaseCircuit(this);
+        else
+            enqueuers.set(0);
+    }
+
+    boolean isReleased() {
+        return enqueuers.get() < 0;
     }
 
     /**
@@ -203,8 +219,7 @@ class Circuit {
      * @throws IOException
      */
     private Mtp3TransferPrimitive decorate(ISUPMessage message) throws ParameterException, IOException {
-        ((AbstractISUPMessage) message).encode(bos);
-        byte[] encoded = bos.toByteArray();
+        byte[] encoded = ((AbstractISUPMessage) message).encode();
         int opc = this.provider.getLocalSpc();
         int dpc = this.dpc;
         int si = Mtp3._SI_SERVICE_ISUP;
@@ -217,7 +232,22 @@ class Circuit {
     }
 
     // --------------- data handlers ---------------------------
-    private class Receiver extends Task {
+    /**
+     * All tasks of a circuit share one ordering key, so the EventDriven scheduler keeps the order of messages and timer
+     * events of the circuit.
+     */
+    private abstract class CircuitTask extends Task {
+        public CircuitTask(Scheduler scheduler) {
+            super(scheduler);
+        }
+
+        @Override
+        public int getOrderingKey() {
+            return (dpc << 12) ^ cic;
+        }
+    }
+
+    private class Receiver extends CircuitTask {
         public Receiver(Scheduler scheduler) {
             super(scheduler);
         }
@@ -282,12 +312,13 @@ class Circuit {
                 }
             }
 
+            releaseIfIdle();
             lock.unlock();
             return 0;
         }
     }
 
-    private class Sender extends Task {
+    private class Sender extends CircuitTask {
         public Sender(Scheduler scheduler) {
             super(scheduler);
         }
@@ -303,10 +334,12 @@ class Circuit {
         public long perform() {
             ISUPMessage message;
             while (!outgoing.isEmpty()) {
+                // take the message under the lock, releaseIfIdle() must not see an empty queue while it is sent
+                lock.lock();
                 try {
                     message = outgoing.poll();
-                    lock.lock();
-                    bos.reset();
+                    if (message == null)
+                        break;
 
                     // FIXME: add SEG creation?
                     Mtp3TransferPrimitive msg = decorate(message);
@@ -353,6 +386,12 @@ class Circuit {
                 }
             }
 
+            lock.lock();
+            try {
+                releaseIfIdle();
+            } finally {
+                lock.unlock();
+            }
             return 0;
         }
     }
@@ -360,1394 +399,460 @@ class Circuit {
     // ----------------- timer handlers ----------------------
 
     // FIXME: check how t3 works....
-
-    private TimerT1 t1;
-    private TimerT5 t5;
-    private Mtp3TransferPrimitive t1t5encodedREL; // keep encoded value, so we can simply send,
-    // without spending CPU on encoding.
-    private ReleaseMessage t1t5REL; // keep for timers.
-    private TimerT7 t7;
-    private ISUPMessage t7AddressMessage; // IAM/SAM
-
     // FIXME: t8 - receive IAM with contuuity check ind.
     // FIXME: t11
-
-    private TimerT12 t12;
-    private TimerT13 t13;
-    private Mtp3TransferPrimitive t12t13encodedBLO; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private BlockingMessage t12t13BLO; // keep for timers.
-
-    private TimerT14 t14;
-    private TimerT15 t15;
-    private Mtp3TransferPrimitive t14t15encodedUBL; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private UnblockingMessage t14t15UBL; // keep for timers.
-
-    private TimerT16 t16;
-    private TimerT17 t17;
-    private Mtp3TransferPrimitive t16t17encodedRSC; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private ResetCircuitMessage t16t17RSC; // keep for timers.
-
-    private TimerT18 t18;
-    private TimerT19 t19;
-    private Mtp3TransferPrimitive t18t19encodedCGB; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private CircuitGroupBlockingMessage t18t19CGB; // keep for timers.
-
-    private TimerT20 t20;
-    private TimerT21 t21;
-    private Mtp3TransferPrimitive t20t21encodedCGU; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private CircuitGroupUnblockingMessage t20t21CGU; // keep for timers.
-
-    private TimerT22 t22;
-    private TimerT23 t23;
-    private Mtp3TransferPrimitive t22t23encodedGRS; // keep encoded value, so we can simply
-    // send, without spending CPU on
-    // encoding.
-    private CircuitGroupResetMessage t22t23GRS; // keep for timers.
-
-    private TimerT28 t28;
-    private CircuitGroupQueryMessage t28CQM;
-
-    private TimerT33 t33;
-    private InformationRequestMessage t33INR;
-
     // FIXME: t34 - check how SEG works
 
-    private void startRELTimers(Mtp3TransferPrimitive encoded, ReleaseMessage rel) {
-        // FIXME: add lock ?
-        this.t1t5encodedREL = encoded;
-        this.t1t5REL = rel;
-
-        // it is started always.
-        startT1();
-
-        if (!this.t5.isActive()) {
-            startT5();
-        }
-    }
+    private static final int TIMER_COUNT = 17;
 
     /**
-     * @return
+     * running timers and messages for them, exists only while at least one timer is running
      */
-    private boolean stopRELTimers() {
-        if (this.t1.isActive() || this.t5.isActive()) {
-            cancelT1();
-            cancelT5();
-            return true;
-        } else {
-            return false;
-        }
-    }
+    private TimerState timers;
 
-    /**
-     * @param encoded
-     * @param message
-     */
-    private void startXAMTimers(ISUPMessage message) {
-        this.cancelT7();
-        this.t7AddressMessage = message;
-        this.startT7();
-    }
+    private static class TimerState {
+        private final CircuitTimerWheel.Entry[] entries = new CircuitTimerWheel.Entry[TIMER_COUNT];
+        private int activeCount;
 
-    /**
-     * @return
-     */
-    private void stoptXAMTimers() {
-        cancelT7();
-    }
+        private Mtp3TransferPrimitive t1t5encodedREL; // keep encoded value, so we can simply send,
+        // without spending CPU on encoding.
+        private ReleaseMessage t1t5REL; // keep for timers.
+        private ISUPMessage t7AddressMessage; // IAM/SAM
 
-    /**
-     * @param encoded
-     * @param message
-     */
-    private void startBLOTimers(Mtp3TransferPrimitive encoded, BlockingMessage message) {
-        this.t12t13BLO = message;
-        this.t12t13encodedBLO = encoded;
-        // it is started always.
-        startT12();
+        private Mtp3TransferPrimitive t12t13encodedBLO;
+        private BlockingMessage t12t13BLO;
 
-        if (!this.t13.isActive())
-            startT13();
-    }
+        private Mtp3TransferPrimitive t14t15encodedUBL;
+        private UnblockingMessage t14t15UBL;
 
-    /**
-     * @return
-     */
-    private void stoptBLOTimers() {
-        cancelT12();
-        cancelT13();
-    }
+        private Mtp3TransferPrimitive t16t17encodedRSC;
+        private ResetCircuitMessage t16t17RSC;
 
-    /**
-     * @param encoded
-     * @param message
-     */
-    private void startUBLTimers(Mtp3TransferPrimitive encoded, UnblockingMessage message) {
-        this.t14t15UBL = message;
-        this.t14t15encodedUBL = encoded;
-        // it is started always.
-        startT14();
+        private Mtp3TransferPrimitive t18t19encodedCGB;
+        private CircuitGroupBlockingMessage t18t19CGB;
 
-        if (!this.t15.isActive())
-            startT15();
-    }
+        private Mtp3TransferPrimitive t20t21encodedCGU;
+        private CircuitGroupUnblockingMessage t20t21CGU;
 
-    /**
-     * @return
-     */
-    private void stoptUBLTimers() {
-        cancelT14();
-        cancelT15();
+        private Mtp3TransferPrimitive t22t23encodedGRS;
+        private CircuitGroupResetMessage t22t23GRS;
 
+        private CircuitGroupQueryMessage t28CQM;
+        private InformationRequestMessage t33INR;
     }
 
-    /**
-     * @param encoded
-     * @param message
-     */
-    private void startRSCTimers(Mtp3TransferPrimitive encoded, ResetCircuitMessage message) {
-        this.t16t17RSC = message;
-        this.t16t17encodedRSC = encoded;
-        // it is started always.
-        startT16();
-
-        if (!this.t17.isActive())
-            startT17();
+    private static int timerIndex(int timerId) {
+        switch (timerId) {
+            case ISUPTimeoutEvent.T1:
+                return 0;
+            case ISUPTimeoutEvent.T5:
+                return 1;
+            case ISUPTimeoutEvent.T7:
+                return 2;
+            case ISUPTimeoutEvent.T12:
+                return 3;
+            case ISUPTimeoutEvent.T13:
+                return 4;
+            case ISUPTimeoutEvent.T14:
+                return 5;
+            case ISUPTimeoutEvent.T15:
+                return 6;
+            case ISUPTimeoutEvent.T16:
+                return 7;
+            case ISUPTimeoutEvent.T17:
+                return 8;
+            case ISUPTimeoutEvent.T18:
+                return 9;
+            case ISUPTimeoutEvent.T19:
+                return 10;
+            case ISUPTimeoutEvent.T20:
+                return 11;
+            case ISUPTimeoutEvent.T21:
+                return 12;
+            case ISUPTimeoutEvent.T22:
+                return 13;
+            case ISUPTimeoutEvent.T23:
+                return 14;
+            case ISUPTimeoutEvent.T28:
+                return 15;
+            case ISUPTimeoutEvent.T33:
+                return 16;
+            default:
+                throw new IllegalArgumentException("Unsupported timer: " + timerId);
+        }
+    }
+
+    private long getTimeout(int timerId) {
+        switch (timerId) {
+            case ISUPTimeoutEvent.T1:
+                return provider.getT1Timeout();
+            case ISUPTimeoutEvent.T5:
+                return provider.getT5Timeout();
+            case ISUPTimeoutEvent.T7:
+                return provider.getT7Timeout();
+            case ISUPTimeoutEvent.T12:
+                return provider.getT12Timeout();
+            case ISUPTimeoutEvent.T13:
+                return provider.getT13Timeout();
+            case ISUPTimeoutEvent.T14:
+                return provider.getT14Timeout();
+            case ISUPTimeoutEvent.T15:
+                return provider.getT15Timeout();
+            case ISUPTimeoutEvent.T16:
+                return provider.getT16Timeout();
+            case ISUPTimeoutEvent.T17:
+                return provider.getT17Timeout();
+            case ISUPTimeoutEvent.T18:
+                return provider.getT18Timeout();
+            case ISUPTimeoutEvent.T19:
+                return provider.getT19Timeout();
+            case ISUPTimeoutEvent.T20:
+                return provider.getT20Timeout();
+            case ISUPTimeoutEvent.T21:
+                return provider.getT21Timeout();
+            case ISUPTimeoutEvent.T22:
+                return provider.getT22Timeout();
+            case ISUPTimeoutEvent.T23:
+                return provider.getT23Timeout();
+            case ISUPTimeoutEvent.T28:
+                return provider.getT28Timeout();
+            case ISUPTimeoutEvent.T33:
+                return provider.getT33Timeout();
+            default:
+                throw new IllegalArgumentException("Unsupported timer: " + timerId);
+        }
+    }
+
+    private TimerState timers() {
+        if (this.timers == null)
+            this.timers = new TimerState();
+        return this.timers;
+    }
+
+    private boolean isActive(int timerId) {
+        return this.timers != null && this.timers.entries[timerIndex(timerId)] != null;
     }
 
     /**
-     * @return
+     * Starts or restarts the timer. The TimerState is kept while restarting, so stored messages are not lost.
      */
-    private void stopRSCTimers() {
-        cancelT16();
-        cancelT17();
-    }
+    private void startT(int timerId) {
+        TimerState ts = timers();
+        int idx = timerIndex(timerId);
+        CircuitTimerWheel.Entry old = ts.entries[idx];
+        if (old != null)
+            provider.timerWheel.cancel(old);
+        else
+            ts.activeCount++;
+        ts.entries[idx] = provider.timerWheel.schedule(this, timerId, getTimeout(timerId));
+    }
+
+    private boolean cancelT(int timerId) {
+        if (this.timers == null)
+            return false;
 
-    /**
-     * @param encoded
-     * @param message
-     */
-    private void startINRTimers(InformationRequestMessage message) {
-        this.t33INR = message;
-        startT33();
+        int idx = timerIndex(timerId);
+        CircuitTimerWheel.Entry e = this.timers.entries[idx];
+        if (e == null)
+            return false;
+
+        provider.timerWheel.cancel(e);
+        removeTimer(idx);
+        return true;
     }
 
-    /**
-     * @return
-     */
-    private void stoptINRTimers() {
-        cancelT33();
+    private void removeTimer(int idx) {
+        this.timers.entries[idx] = null;
+        this.timers.activeCount--;
+        if (this.timers.activeCount == 0) {
+            // circuit is idle, dropping of stored messages
+            this.timers = null;
+        }
     }
 
     /**
-     * @param encoded
-     * @param message
+     * Invoked by the timer wheel when a timer expires
      */
-    private void startCQMTimers(CircuitGroupQueryMessage message) {
-        this.t28CQM = message;
+    void onTimer(CircuitTimerWheel.Entry entry) {
+        try {
+            lock.lock();
+            int idx = timerIndex(entry.timerId);
+            // the timer may have been cancelled or restarted after it has expired
+            if (this.timers == null || this.timers.entries[idx] != entry)
+                return;
 
-        // it is started always.
-        startT28();
-        // FIXME: can we send more than one?
+            TimerState ts = this.timers;
+            switch (entry.timerId) {
+                case ISUPTimeoutEvent.T1:
+                    // restart T1
+                    startT(ISUPTimeoutEvent.T1);
+                    resendAndNotify(ts.t1t5encodedREL, ts.t1t5REL, ISUPTimeoutEvent.T1);
+                    break;
+                case ISUPTimeoutEvent.T5:
+                    // remove t1, restart T5
+                    cancelT(ISUPTimeoutEvent.T1);
+                    startT(ISUPTimeoutEvent.T5);
+                    if (provider.isAutomaticTimerMessages())
+                        try {
+                            final ResetCircuitMessage rcm = provider.getMessageFactory().createRSC(cic);
+                            // avoid provider method, since we dont want other timer to be
+                            // setup.
+                            provider.sendMessage(rcm, dpc);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    provider.deliver(new ISUPTimeoutEvent(provider, ts.t1t5REL, ISUPTimeoutEvent.T5, dpc));
+                    break;
+                case ISUPTimeoutEvent.T7:
+                    removeTimer(idx);
+                    sendREL();
+                    final ISUPMessage addressMessage = ts.t7AddressMessage;
+                    ts.t7AddressMessage = null;
+                    provider.deliver(new ISUPTimeoutEvent(provider, addressMessage, ISUPTimeoutEvent.T7, dpc));
+                    break;
+                case ISUPTimeoutEvent.T12:
+                    restartFirst(ISUPTimeoutEvent.T12, ts.t12t13encodedBLO, ts.t12t13BLO);
+                    break;
+                case ISUPTimeoutEvent.T13:
+                    restartSecond(ISUPTimeoutEvent.T12, ISUPTimeoutEvent.T13, ts.t12t13encodedBLO, ts.t12t13BLO);
+                    break;
+                case ISUPTimeoutEvent.T14:
+                    restartFirst(ISUPTimeoutEvent.T14, ts.t14t15encodedUBL, ts.t14t15UBL);
+                    break;
+                case ISUPTimeoutEvent.T15:
+                    restartSecond(ISUPTimeoutEvent.T14, ISUPTimeoutEvent.T15, ts.t14t15encodedUBL, ts.t14t15UBL);
+                    break;
+                case ISUPTimeoutEvent.T16:
+                    restartFirst(ISUPTimeoutEvent.T16, ts.t16t17encodedRSC, ts.t16t17RSC);
+                    break;
+                case ISUPTimeoutEvent.T17:
+                    restartSecond(ISUPTimeoutEvent.T16, ISUPTimeoutEvent.T17, ts.t16t17encodedRSC, ts.t16t17RSC);
+                    break;
+                case ISUPTimeoutEvent.T18:
+                    restartFirst(ISUPTimeoutEvent.T18, ts.t18t19encodedCGB, ts.t18t19CGB);
+                    break;
+                case ISUPTimeoutEvent.T19:
+                    restartSecond(ISUPTimeoutEvent.T18, ISUPTimeoutEvent.T19, ts.t18t19encodedCGB, ts.t18t19CGB);
+                    break;
+                case ISUPTimeoutEvent.T20:
+                    restartFirst(ISUPTimeoutEvent.T20, ts.t20t21encodedCGU, ts.t20t21CGU);
+                    break;
+                case ISUPTimeoutEvent.T21:
+                    restartSecond(ISUPTimeoutEvent.T20, ISUPTimeoutEvent.T21, ts.t20t21encodedCGU, ts.t20t21CGU);
+                    break;
+                case ISUPTimeoutEvent.T22:
+                    restartFirst(ISUPTimeoutEvent.T22, ts.t22t23encodedGRS, ts.t22t23GRS);
+                    break;
+                case ISUPTimeoutEvent.T23:
+                    restartSecond(ISUPTimeoutEvent.T22, ISUPTimeoutEvent.T23, ts.t22t23encodedGRS, ts.t22t23GRS);
+                    break;
+                case ISUPTimeoutEvent.T28:
+                    removeTimer(idx);
+                    final CircuitGroupQueryMessage cqm = ts.t28CQM;
+                    ts.t28CQM = null;
+                    provider.deliver(new ISUPTimeoutEvent(provider, cqm, ISUPTimeoutEvent.T28, dpc));
+                    break;
+                case ISUPTimeoutEvent.T33:
+                    removeTimer(idx);
+                    sendREL();
+                    final InformationRequestMessage inr = ts.t33INR;
+                    ts.t33INR = null;
+                    provider.deliver(new ISUPTimeoutEvent(provider, inr, ISUPTimeoutEvent.T33, dpc));
+                    // FIXME: do this after call, to prevent send of another msg
+                    break;
+            }
+            releaseIfIdle();
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * @return
+     * expiry of the first timer of a pair (T12, T14, ...): the timer is restarted and the message is resent
      */
-    private void stoptCQMTimers() {
-        cancelT28();
+    private void restartFirst(int timerId, Mtp3TransferPrimitive encoded, ISUPMessage message) {
+        startT(timerId);
+        resendAndNotify(encoded, message, timerId);
     }
 
     /**
-     * @param encoded
-     * @param message
+     * expiry of the second timer of a pair (T13, T15, ...): the first timer is cancelled, the second one is restarted and the
+     * message is resent
      */
-    private void startGRSTimers(Mtp3TransferPrimitive encoded, CircuitGroupResetMessage message) {
-        this.t22t23GRS = message;
-        this.t22t23encodedGRS = encoded;
-        // it is started always.
-        startT22();
-
-        if (!this.t23.isActive())
-            startT23();
+    private void restartSecond(int firstTimerId, int timerId, Mtp3TransferPrimitive encoded, ISUPMessage message) {
+        cancelT(firstTimerId);
+        startT(timerId);
+        resendAndNotify(encoded, message, timerId);
     }
 
-    /**
-     * @return
-     */
-    private void stoptGRSTimers() {
-        cancelT22();
-        cancelT23();
+    private void resendAndNotify(Mtp3TransferPrimitive encoded, ISUPMessage message, int timerId) {
+        if (provider.isAutomaticTimerMessages())
+            try {
+                provider.send(encoded);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        provider.deliver(new ISUPTimeoutEvent(provider, message, timerId, dpc));
     }
 
-    /**
-     * @param encoded
-     * @param message
-     */
-    private void startCGUTimers(Mtp3TransferPrimitive encoded, CircuitGroupUnblockingMessage message) {
-        this.t20t21CGU = message;
-        this.t20t21encodedCGU = encoded;
-        // it is started always.
-        startT20();
-
-        if (!this.t21.isActive())
-            startT21();
+    private void sendREL() {
+        if (provider.isAutomaticTimerMessages())
+            try {
+                final ReleaseMessage rel = provider.getMessageFactory().createREL(cic);
+                final CauseIndicators ci = provider.getParameterFactory().createCauseIndicators();
+                ci.setCauseValue(CauseIndicators._CV_NORMAL_UNSPECIFIED);
+                rel.setCauseIndicators(ci);
+                provider.sendMessage(rel, dpc);
+            } catch (ParameterException e) {
+                e.printStackTrace();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
     }
 
-    /**
-     * @return
-     */
-    private void stoptCGUTimers() {
-        cancelT20();
-        cancelT21();
-    }
+    private void startRELTimers(Mtp3TransferPrimitive encoded, ReleaseMessage rel) {
+        // FIXME: add lock ?
+        TimerState ts = timers();
+        ts.t1t5encodedREL = encoded;
+        ts.t1t5REL = rel;
 
-    /**
-     * @param encoded
-     * @param message
-     */
-    private void startCGBTimers(Mtp3TransferPrimitive encoded, CircuitGroupBlockingMessage message) {
-        this.t18t19CGB = message;
-        this.t18t19encodedCGB = encoded;
         // it is started always.
-        startT18();
+        startT(ISUPTimeoutEvent.T1);
 
-        if (!this.t19.isActive())
-            startT19();
+        if (!isActive(ISUPTimeoutEvent.T5)) {
+            startT(ISUPTimeoutEvent.T5);
+        }
     }
 
     /**
      * @return
      */
-    private void stoptCGBTimers() {
-        cancelT18();
-        cancelT19();
-    }
-
-    private void startT1() {
-        cancelT1();
-        this.t1.start();
-    }
-
-    private boolean cancelT1() {
-        if (this.t1.isActive()) {
-            this.t1.cancel();
-            return true;
-        }
-
-        return false;
-    }
-
-    private void startT5() {
-        cancelT5();
-        this.t5.start();
-    }
-
-    private boolean cancelT5() {
-        if (this.t5.isActive()) {
-            this.t5.cancel();
-            return true;
-        }
-
-        return false;
-    }
-
-    private void startT7() {
-        cancelT7();
-        this.t7.start();
-    }
-
-    private boolean cancelT7() {
-        if (this.t7.isActive()) {
-            this.t7.cancel();
-            return true;
-        }
-
-        return false;
-    }
-
-    private void startT12() {
-        cancelT12();
-        this.t12.start();
-    }
-
-    private boolean cancelT12() {
-        if (this.t12.isActive()) {
-            this.t12.cancel();
+    private boolean stopRELTimers() {
+        if (isActive(ISUPTimeoutEvent.T1) || isActive(ISUPTimeoutEvent.T5)) {
+            cancelT(ISUPTimeoutEvent.T1);
+            cancelT(ISUPTimeoutEvent.T5);
             return true;
+        } else {
+            return false;
         }
-
-        return false;
     }
 
-    private void startT13() {
-        cancelT13();
-        this.t13.start();
-    }
-
-    private boolean cancelT13() {
-        if (this.t13.isActive()) {
-            this.t13.cancel();
-            return true;
-        }
-
-        return false;
+    /**
+     * @param message
+     */
+    private void startXAMTimers(ISUPMessage message) {
+        cancelT(ISUPTimeoutEvent.T7);
+        timers().t7AddressMessage = message;
+        startT(ISUPTimeoutEvent.T7);
     }
 
-    private void startT14() {
-        cancelT14();
-        this.t14.start();
+    private void stoptXAMTimers() {
+        cancelT(ISUPTimeoutEvent.T7);
     }
 
-    private boolean cancelT14() {
-        if (this.t14.isActive()) {
-            this.t14.cancel();
-            return true;
-        }
-
-        return false;
+    private void startBLOTimers(Mtp3TransferPrimitive encoded, BlockingMessage message) {
+        TimerState ts = timers();
+        ts.t12t13BLO = message;
+        ts.t12t13encodedBLO = encoded;
+        startPair(ISUPTimeoutEvent.T12, ISUPTimeoutEvent.T13);
     }
 
-    private void startT15() {
-        cancelT15();
-        this.t15.start();
+    private void stoptBLOTimers() {
+        cancelT(ISUPTimeoutEvent.T12);
+        cancelT(ISUPTimeoutEvent.T13);
     }
 
-    private boolean cancelT15() {
-        if (this.t15.isActive()) {
-            this.t15.cancel();
-            return true;
-        }
-
-        return false;
+    private void startUBLTimers(Mtp3TransferPrimitive encoded, UnblockingMessage message) {
+        TimerState ts = timers();
+        ts.t14t15UBL = message;
+        ts.t14t15encodedUBL = encoded;
+        startPair(ISUPTimeoutEvent.T14, ISUPTimeoutEvent.T15);
     }
 
-    private void startT16() {
-        cancelT16();
-        this.t16.start();
+    private void stoptUBLTimers() {
+        cancelT(ISUPTimeoutEvent.T14);
+        cancelT(ISUPTimeoutEvent.T15);
     }
 
-    private boolean cancelT16() {
-        if (this.t16.isActive()) {
-            this.t16.cancel();
-            return true;
-        }
-
-        return false;
+    private void startRSCTimers(Mtp3TransferPrimitive encoded, ResetCircuitMessage message) {
+        TimerState ts = timers();
+        ts.t16t17RSC = message;
+        ts.t16t17encodedRSC = encoded;
+        startPair(ISUPTimeoutEvent.T16, ISUPTimeoutEvent.T17);
     }
 
-    private void startT17() {
-        cancelT17();
-        this.t17.start();
+    private void stopRSCTimers() {
+        cancelT(ISUPTimeoutEvent.T16);
+        cancelT(ISUPTimeoutEvent.T17);
     }
 
-    private boolean cancelT17() {
-        if (this.t17.isActive()) {
-            this.t17.cancel();
-            return true;
-        }
-
-        return false;
+    private void startINRTimers(InformationRequestMessage message) {
+        timers().t33INR = message;
+        startT(ISUPTimeoutEvent.T33);
     }
 
-    private void startT18() {
-        cancelT18();
-        this.t18.start();
+    private void stoptINRTimers() {
+        cancelT(ISUPTimeoutEvent.T33);
     }
 
-    private boolean cancelT18() {
-        if (this.t18.isActive()) {
-            this.t18.cancel();
-            return true;
-        }
+    private void startCQMTimers(CircuitGroupQueryMessage message) {
+        timers().t28CQM = message;
 
-        return false;
+        // it is started always.
+        startT(ISUPTimeoutEvent.T28);
+        // FIXME: can we send more than one?
     }
 
-    private void startT19() {
-        cancelT19();
-        this.t19.start();
+    private void stoptCQMTimers() {
+        cancelT(ISUPTimeoutEvent.T28);
     }
 
-    private boolean cancelT19() {
-        if (this.t19.isActive()) {
-            this.t19.cancel();
-            return true;
-        }
-
-        return false;
+    private void startGRSTimers(Mtp3TransferPrimitive encoded, CircuitGroupResetMessage message) {
+        TimerState ts = timers();
+        ts.t22t23GRS = message;
+        ts.t22t23encodedGRS = encoded;
+        startPair(ISUPTimeoutEvent.T22, ISUPTimeoutEvent.T23);
     }
 
-    private void startT20() {
-        cancelT20();
-        this.t20.start();
+    private void stoptGRSTimers() {
+        cancelT(ISUPTimeoutEvent.T22);
+        cancelT(ISUPTimeoutEvent.T23);
     }
 
-    private boolean cancelT20() {
-        if (this.t20.isActive()) {
-            this.t20.cancel();
-            return true;
-        }
-
-        return false;
+    private void startCGUTimers(Mtp3TransferPrimitive encoded, CircuitGroupUnblockingMessage message) {
+        TimerState ts = timers();
+        ts.t20t21CGU = message;
+        ts.t20t21encodedCGU = encoded;
+        startPair(ISUPTimeoutEvent.T20, ISUPTimeoutEvent.T21);
     }
 
-    private void startT21() {
-        cancelT21();
-        this.t21.start();
+    private void stoptCGUTimers() {
+        cancelT(ISUPTimeoutEvent.T20);
+        cancelT(ISUPTimeoutEvent.T21);
     }
 
-    private boolean cancelT21() {
-        if (this.t21.isActive()) {
-            this.t21.cancel();
-            return true;
-        }
-
-        return false;
+    private void startCGBTimers(Mtp3TransferPrimitive encoded, CircuitGroupBlockingMessage message) {
+        TimerState ts = timers();
+        ts.t18t19CGB = message;
+        ts.t18t19encodedCGB = encoded;
+        startPair(ISUPTimeoutEvent.T18, ISUPTimeoutEvent.T19);
     }
 
-    private void startT22() {
-        cancelT22();
-        this.t22.start();
+    private void stoptCGBTimers() {
+        cancelT(ISUPTimeoutEvent.T18);
+        cancelT(ISUPTimeoutEvent.T19);
     }
 
-    private boolean cancelT22() {
-        if (this.t22.isActive()) {
-            this.t22.cancel();
-            return true;
-        }
+    /**
+     * the first timer is started always, the second one only if it is not running yet
+     */
+    private void startPair(int firstTimerId, int secondTimerId) {
+        startT(firstTimerId);
 
-        return false;
-    }
-
-    private void startT23() {
-        cancelT23();
-        this.t23.start();
-    }
-
-    private boolean cancelT23() {
-        if (this.t23.isActive()) {
-            this.t23.cancel();
-            return true;
-        }
-
-        return false;
-    }
-
-    private void startT28() {
-        cancelT28();
-        this.t28.start();
-    }
-
-    private boolean cancelT28() {
-        if (this.t28.isActive()) {
-            this.t28.cancel();
-            return true;
-        }
-
-        return false;
-    }
-
-    private void startT33() {
-        cancelT33();
-        this.t33.start();
-    }
-
-    private boolean cancelT33() {
-        if (this.t33.isActive()) {
-            this.t33.cancel();
-            return true;
-        }
-
-        return false;
-    }
-
-    private class TimerT1 extends Task {
-        private int ttl;
-
-        public TimerT1(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT1Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // start T1
-                startT1();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        // TODO: CI required ?
-                        provider.send(t1t5encodedREL);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t1t5REL, ISUPTimeoutEvent.T1, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT5 extends Task {
-        private int ttl;
-
-        public TimerT5(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT5Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove t5, its current runnable.
-                cancelT1();
-                // cancel it
-                this.cancel();
-                // restart T5
-                startT5();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        final ResetCircuitMessage rcm = provider.getMessageFactory().createRSC(cic);
-                        // avoid provider method, since we dont want other timer to be
-                        // setup.
-                        provider.sendMessage(rcm, dpc);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t1t5REL, ISUPTimeoutEvent.T5, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT7 extends Task {
-        private int ttl;
-
-        public TimerT7(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT7Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // send REL
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        final ReleaseMessage rel = provider.getMessageFactory().createREL(cic);
-                        final CauseIndicators ci = provider.getParameterFactory().createCauseIndicators();
-                        ci.setCauseValue(CauseIndicators._CV_NORMAL_UNSPECIFIED);
-                        rel.setCauseIndicators(ci);
-                        provider.sendMessage(rel, dpc);
-                    } catch (ParameterException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    } catch (IOException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t7AddressMessage, ISUPTimeoutEvent.T7, dpc);
-                t7AddressMessage = null;
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT12 extends Task {
-        private int ttl;
-
-        public TimerT12(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT12Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // start T12
-                startT12();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t12t13encodedBLO);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t12t13BLO, ISUPTimeoutEvent.T12, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT13 extends Task {
-        private int ttl;
-
-        public TimerT13(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT13Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // cancel T12
-                cancelT12();
-                // restart T13
-                startT13();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t12t13encodedBLO);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t12t13BLO, ISUPTimeoutEvent.T13, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT14 extends Task {
-        private int ttl;
-
-        public TimerT14(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT14Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // cancel it
-                this.cancel();
-                // start T14
-                startT14();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t14t15encodedUBL);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t14t15UBL, ISUPTimeoutEvent.T14, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT15 extends Task {
-        private int ttl;
-
-        public TimerT15(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT15Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove t15, its current runnable.
-                this.cancel();
-                // cancel T14
-                cancelT14();
-                // start
-                startT15();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t14t15encodedUBL);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t14t15UBL, ISUPTimeoutEvent.T15, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT16 extends Task {
-        private int ttl;
-
-        public TimerT16(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT16Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T14
-                startT16();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t16t17encodedRSC);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t16t17RSC, ISUPTimeoutEvent.T16, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT17 extends Task {
-        private int ttl;
-
-        public TimerT17(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT17Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove t17, its current runnable.
-                this.cancel();
-                // cancel T16
-                cancelT16();
-                // restart T17
-                startT17();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t16t17encodedRSC);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t16t17RSC, ISUPTimeoutEvent.T17, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT18 extends Task {
-        private int ttl;
-
-        public TimerT18(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT18Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T18
-                startT18();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t18t19encodedCGB);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t18t19CGB, ISUPTimeoutEvent.T18, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT19 extends Task {
-        private int ttl;
-
-        public TimerT19(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT19Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove t19, its current runnable.
-                this.cancel();
-                // cancel T18
-                cancelT18();
-                // restart T19
-                startT19();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t18t19encodedCGB);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t18t19CGB, ISUPTimeoutEvent.T19, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT20 extends Task {
-        private int ttl;
-
-        public TimerT20(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT20Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T20
-                startT20();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t20t21encodedCGU);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t20t21CGU, ISUPTimeoutEvent.T20, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT21 extends Task {
-        private int ttl;
-
-        public TimerT21(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT21Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove t21, its current runnable.
-                this.cancel();
-                // cancel T20
-                cancelT20();
-                // restart T21
-                startT21();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t20t21encodedCGU);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t20t21CGU, ISUPTimeoutEvent.T21, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT22 extends Task {
-        private int ttl;
-
-        public TimerT22(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT22Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // start T22
-                startT22();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t22t23encodedGRS);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t22t23GRS, ISUPTimeoutEvent.T22, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT23 extends Task {
-        private int ttl;
-
-        public TimerT23(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT23Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove t23, its current runnable.
-                this.cancel();
-                // cancel T22
-                cancelT22();
-                // restart T23
-                startT23();
-                // send
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        provider.send(t22t23encodedGRS);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, t22t23GRS, ISUPTimeoutEvent.T23, dpc);
-                provider.deliver(timeoutEvent);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT28 extends Task {
-        private int ttl;
-
-        public TimerT28(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT28Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // notify user
-                final CircuitGroupQueryMessage msg = t28CQM;
-                t28CQM = null;
-                ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, msg, ISUPTimeoutEvent.T28, dpc);
-                provider.deliver(timeoutEvent);
-
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
-    }
-
-    private class TimerT33 extends Task {
-        private int ttl;
-
-        public TimerT33(Scheduler scheduler) {
-            super(scheduler);
-        }
-
-        public int getQueueNumber() {
-            return scheduler.HEARTBEAT_QUEUE;
-        }
-
-        public void start() {
-            this.activate(true);
-            ttl = (int) (provider.getT33Timeout() / 100);
-            scheduler.submitHeatbeat(this);
-        }
-
-        public long perform() {
-            if (ttl > 0) {
-                ttl--;
-                scheduler.submitHeatbeat(this);
-                return 0;
-            }
-
-            try {
-                lock.lock();
-                // remove us
-                this.cancel();
-                // send REL
-                if (provider.isAutomaticTimerMessages())
-                    try {
-                        final ReleaseMessage rel = provider.getMessageFactory().createREL(cic);
-                        final CauseIndicators ci = provider.getParameterFactory().createCauseIndicators();
-                        ci.setCauseValue(CauseIndicators._CV_NORMAL_UNSPECIFIED);
-                        rel.setCauseIndicators(ci);
-                        provider.sendMessage(rel, dpc);
-                    } catch (ParameterException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    } catch (IOException e) {
-                        // TODO Auto-generated catch block
-                        e.printStackTrace();
-                    }
-                final InformationRequestMessage msg = t33INR;
-                t33INR = null;
-                // notify user
-                final ISUPTimeoutEvent timeoutEvent = new ISUPTimeoutEvent(provider, msg, ISUPTimeoutEvent.T33, dpc);
-                provider.deliver(timeoutEvent);
-                // FIXME: do this after call, to prevent send of another msg
-
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                lock.unlock();
-            }
-
-            return 0;
-        }
+        if (!isActive(secondTimerId))
+            startT(secondTimerId);
     }
 
     /**
@@ -1756,23 +861,14 @@ class Circuit {
     public void onStop() {
         try {
             lock.lock();
-            cancelT1();
-            cancelT5();
-            cancelT12();
-            cancelT13();
-            cancelT14();
-            cancelT15();
-            cancelT16();
-            cancelT17();
-            cancelT18();
-            cancelT19();
-            cancelT20();
-            cancelT21();
-            cancelT22();
-            cancelT23();
-            cancelT28();
-            cancelT33();
-
+            if (this.timers != null) {
+                for (CircuitTimerWheel.Entry e : this.timers.entries) {
+                    if (e != null)
+                        provider.timerWheel.cancel(e);
+                }
+                this.timers = null;
+            }
+            releaseIfIdle();
         } finally {
             lock.unlock();
         }
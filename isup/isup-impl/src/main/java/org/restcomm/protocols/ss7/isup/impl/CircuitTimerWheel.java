@@ -0,0 +1,189 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.isup.impl;
+
+import java.util.ArrayList;
+
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.scheduler.Scheduler;
+import org.restcomm.protocols.ss7.scheduler.Task;
+
+/**
+ * Timing wheel that serves ISUP timers of all circuits of a provider.
+ *
+ * The wheel is driven by one heartbeat task of the {@link Scheduler} (tick = 100 ms). A running timer is one {@link Entry}
+ * holding the circuit and the timer id. Starting and cancelling a timer are O(1). Expired entries are passed to
+ * {@link Circuit#onTimer(Entry)} outside of the wheel lock.
+ *
+ */
+class CircuitTimerWheel {
+
+    static final long TICK_DURATION = 100;
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final Logger logger = Logger.getLogger(CircuitTimerWheel.class);
+
+    private final Scheduler scheduler;
+    private final Entry[] wheel = new Entry[WHEEL_SIZE];
+    private final ArrayList<Entry> expired = new ArrayList<Entry>();
+    private final HeartbeatTask heartbeatTask;
+    private long currentTick;
+    private int size;
+    private volatile boolean started;
+
+    CircuitTimerWheel(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        this.heartbeatTask = new HeartbeatTask(scheduler);
+    }
+
+    public void start() {
+        synchronized (this) {
+            this.currentTick = 0;
+        }
+        this.started = true;
+        this.scheduler.submitHeatbeat(this.heartbeatTask);
+    }
+
+    public void stop() {
+        this.started = false;
+        this.heartbeatTask.cancel();
+        synchronized (this) {
+            for (int i = 0; i < WHEEL_SIZE; i++) {
+                this.wheel[i] = null;
+            }
+            this.size = 0;
+        }
+    }
+
+    /**
+     * Schedules a timer of the circuit
+     *
+     * @param delay timer duration in milliseconds
+     * @return the entry that is needed for cancelling of the timer
+     */
+    public synchronized Entry schedule(Circuit circuit, int timerId, long delay) {
+        long ticks = (delay + TICK_DURATION - 1) / TICK_DURATION;
+        if (ticks < 1)
+            ticks = 1;
+
+        Entry e = new Entry(circuit, timerId, this.currentTick + ticks);
+        int idx = (int) (e.deadline & WHEEL_MASK);
+        e.next = this.wheel[idx];
+        if (e.next != null)
+            e.next.prev = e;
+        this.wheel[idx] = e;
+        this.size++;
+        return e;
+    }
+
+    /**
+     * Removes a timer from the wheel. Cancelling of an already expired or cancelled timer is ignored.
+     */
+    public synchronized void cancel(Entry e) {
+        if (e.cancelled)
+            return;
+
+        e.cancelled = true;
+        this.unlink(e);
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    private void unlink(Entry e) {
+        if (e.prev != null)
+            e.prev.next = e.next;
+        else
+            this.wheel[(int) (e.deadline & WHEEL_MASK)] = e.next;
+        if (e.next != null)
+            e.next.prev = e.prev;
+        e.prev = null;
+        e.next = null;
+        this.size--;
+    }
+
+    // invoked by the heartbeat task, package visible for tests
+    void onTick() {
+        synchronized (this) {
+            this.currentTick++;
+            Entry e = this.wheel[(int) (this.currentTick & WHEEL_MASK)];
+            while (e != null) {
+                Entry next = e.next;
+                if (e.deadline <= this.currentTick) {
+                    e.cancelled = true;
+                    this.unlink(e);
+                    this.expired.add(e);
+                }
+                e = next;
+            }
+        }
+
+        // the list is used only by the heartbeat task. Slots are filled from the head, so walking backwards fires
+        // timers of the same tick in the order they were started (T13 before the T12 that was restarted last)
+        for (int i = this.expired.size() - 1; i >= 0; i--) {
+            Entry e = this.expired.get(i);
+            try {
+                e.circuit.onTimer(e);
+            } catch (Exception ex) {
+                logger.error("Exception while processing of timer T" + e.timerId + " for cic=" + e.circuit.getCic(), ex);
+            }
+        }
+        this.expired.clear();
+    }
+
+    static final class Entry {
+        final Circuit circuit;
+        final int timerId;
+        final long deadline;
+        boolean cancelled;
+        Entry prev;
+        Entry next;
+
+        Entry(Circuit circuit, int timerId, long deadline) {
+            this.circuit = circuit;
+            this.timerId = timerId;
+            this.deadline = deadline;
+        }
+    }
+
+    private class HeartbeatTask extends Task {
+        public HeartbeatTask(Scheduler scheduler) {
+            super(scheduler);
+        }
+
+        public int getQueueNumber() {
+            return Scheduler.HEARTBEAT_QUEUE;
+        }
+
+        public long perform() {
+            if (!started)
+                return 0;
+
+            scheduler.submitHeatbeat(this);
+            onTick();
+            return 0;
+        }
+    }
+}
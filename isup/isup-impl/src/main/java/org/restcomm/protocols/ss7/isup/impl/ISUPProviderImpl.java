@@ -34,7 +34,6 @@ import javolution.util.FastList;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
-import org.restcomm.protocols.ss7.isup.CircuitManager;
 import org.restcomm.protocols.ss7.isup.ISUPEvent;
 import org.restcomm.protocols.ss7.isup.ISUPListener;
 import org.restcomm.protocols.ss7.isup.ISUPMessageFactory;
@@ -63,7 +62,10 @@ public class ISUPProviderImpl implements ISUPProvider {
     protected final transient ISUPParameterFactory parameterFactory;
     protected final transient Scheduler scheduler;
 
+    // circuits are created on their first message and released when they are idle again
     protected final transient ConcurrentHashMap<Long, Circuit> cic2Circuit = new ConcurrentHashMap<Long, Circuit>();
+    // timers of all circuits
+    protected final transient CircuitTimerWheel timerWheel;
     protected final int ni;
     protected final int localSpc;
     protected final boolean automaticTimerMessages;
@@ -79,6 +81,7 @@ public class ISUPProviderImpl implements ISUPProvider {
 
         this.parameterFactory = new ISUPParameterFactoryImpl();
         this.messageFactory = new ISUPMessageFactoryImpl(this.parameterFactory);
+        this.timerWheel = new CircuitTimerWheel(scheduler);
     }
 
     @Override
@@ -153,10 +156,12 @@ public class ISUPProviderImpl implements ISUPProvider {
         if (!msg.hasAllMandatoryParameters()) {
             throw new ParameterException("Message does not have all required parameters!");
         }
-        sendOnCircuit(getCircuit(msg, dpc), msg);
+        // a circuit released meanwhile refuses the message, it is sent by the circuit that replaces it
+        while (!sendOnCircuit(getCircuit(msg, dpc), msg))
+            ;
     }
 
-    void sendOnCircuit(Circuit c, ISUPMessage msg) throws ParameterException, IOException {
+    boolean sendOnCircuit(Circuit c, ISUPMessage msg) throws ParameterException, IOException {
         if (c == null) {
             throw new NullPointerException();
         }
@@ -167,49 +172,45 @@ public class ISUPProviderImpl implements ISUPProvider {
         if (msg.getCircuitIdentificationCode() == null || msg.getCircuitIdentificationCode().getCIC() != c.getCic()) {
             throw new IllegalArgumentException();
         }
-        c.send(msg);
+        return c.send(msg);
     }
 
     public boolean cancelTimer(int cic, int dpc, int timerId) {
         long channelID = this.stack.getCircuitManager().getChannelID(cic, dpc);
-        if (this.cic2Circuit.containsKey(channelID)) {
-            Circuit c = this.cic2Circuit.get(channelID);
+        // idle circuits are released, so the circuit may be gone between two map lookups
+        Circuit c = this.cic2Circuit.get(channelID);
+        if (c != null)
             return c.cancelTimer(timerId);
-        }
 
         return false;
     }
 
     public void cancelAllTimers(int cic, int dpc) {
         long channelID = this.stack.getCircuitManager().getChannelID(cic, dpc);
-        if (this.cic2Circuit.containsKey(channelID)) {
-            Circuit c = this.cic2Circuit.get(channelID);
+        Circuit c = this.cic2Circuit.get(channelID);
+        if (c != null)
             c.onStop();
-        }
     }
 
     // ---------------------- non interface methods ----------------
 
     public void start() {
-        CircuitManager cm = this.stack.getCircuitManager();
-        long[] channelIDs = cm.getChannelIDs();
         this.cic2Circuit.clear();
-
-        for (long channelID : channelIDs) {
-            Circuit c = new Circuit(cm.getCIC(channelID), cm.getDPC(channelID), this, scheduler);
-            cic2Circuit.put(channelID, c);
-        }
+        this.timerWheel.start();
     }
 
     public void stop() {
         Enumeration<Long> keys = cic2Circuit.keys();
         while (keys.hasMoreElements()) {
             try {
-                cic2Circuit.remove(keys.nextElement()).onStop();
+                Circuit c = cic2Circuit.remove(keys.nextElement());
+                if (c != null)
+                    c.onStop();
             } catch (Exception ex) {
                 ex.printStackTrace();
             }
         }
+        this.timerWheel.stop();
     }
 
     // --------- private methods and class defs.
@@ -218,9 +219,18 @@ public class ISUPProviderImpl implements ISUPProvider {
      * @return
      */
     void receive(ISUPMessage message, int dpc) {
-        Circuit c = getCircuit(message, dpc);
-        if (c != null)
-            c.receive(message);
+        Circuit c;
+        do {
+            c = getCircuit(message, dpc);
+        } while (c != null && !c.receive(message));
+    }
+
+    /**
+     * Removes an idle circuit, invoked by the circuit itself
+     */
+    void releaseCircuit(Circuit c) {
+        long channelID = this.stack.getCircuitManager().getChannelID(c.getCic(), c.getDpc());
+        this.cic2Circuit.remove(channelID, c);
     }
 
     private Circuit getCircuit(ISUPMessage message, int dpc) {
@@ -239,6 +249,12 @@ public class ISUPProviderImpl implements ISUPProvider {
             cic2Circuit.put(channelID, c);
         } else {
             c = this.cic2Circuit.get(channelID);
+            if (c == null) {
+                c = new Circuit(cic, dpc, this, scheduler);
+                Circuit prev = this.cic2Circuit.putIfAbsent(channelID, c);
+                if (prev != null)
+                    c = prev;
+            }
         }
         return c;
     }
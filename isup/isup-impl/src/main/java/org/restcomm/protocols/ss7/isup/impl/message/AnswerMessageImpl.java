@@ -28,9 +28,6 @@
  */
 package org.restcomm.protocols.ss7.isup.impl.message;
 
-import java.util.Map;
-import java.util.Set;
-
 import org.restcomm.protocols.ss7.isup.ISUPParameterFactory;
 import org.restcomm.protocols.ss7.isup.ParameterException;
 import org.restcomm.protocols.ss7.isup.impl.message.parameter.AbstractISUPParameter;
@@ -104,11 +101,8 @@ class AnswerMessageImpl extends ISUPMessageImpl implements AnswerMessage {
     static final int _INDEX_O_RedirectStatus = 24;
     static final int _INDEX_O_EndOfOptionalParameters = 25;
 
-    AnswerMessageImpl(Set<Integer> mandatoryCodes, Set<Integer> mandatoryVariableCodes, Set<Integer> optionalCodes,
-            Map<Integer, Integer> mandatoryCode2Index, Map<Integer, Integer> mandatoryVariableCode2Index,
-            Map<Integer, Integer> optionalCode2Index) {
-        super(mandatoryCodes, mandatoryVariableCodes, optionalCodes, mandatoryCode2Index, mandatoryVariableCode2Index,
-                optionalCode2Index);
+    AnswerMessageImpl(MessageLayout layout) {
+        super(layout);
 
         super.f_Parameters.put(_INDEX_F_MessageType, this.getMessageType());
         super.o_Parameters.put(_INDEX_O_EndOfOptionalParameters, _END_OF_OPTIONAL_PARAMETERS);
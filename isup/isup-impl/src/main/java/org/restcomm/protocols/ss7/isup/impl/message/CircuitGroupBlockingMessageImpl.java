@@ -28,9 +28,6 @@
  */
 package org.restcomm.protocols.ss7.isup.impl.message;
 
-import java.util.Map;
-import java.util.Set;
-
 import org.restcomm.protocols.ss7.isup.ISUPParameterFactory;
 import org.restcomm.protocols.ss7.isup.ParameterException;
 import org.restcomm.protocols.ss7.isup.impl.message.parameter.AbstractISUPParameter;
@@ -57,11 +54,8 @@ public class CircuitGroupBlockingMessageImpl extends ISUPMessageImpl implements
 
     static final int _INDEX_V_RangeAndStatus = 0;
 
-    CircuitGroupBlockingMessageImpl(Set<Integer> mandatoryCodes, Set<Integer> mandatoryVariableCodes,
-            Set<Integer> optionalCodes, Map<Integer, Integer> mandatoryCode2Index,
-            Map<Integer, Integer> mandatoryVariableCode2Index, Map<Integer, Integer> optionalCode2Index) {
-        super(mandatoryCodes, mandatoryVariableCodes, optionalCodes, mandatoryCode2Index, mandatoryVariableCode2Index,
-                optionalCode2Index);
+    CircuitGroupBlockingMessageImpl(MessageLayout layout) {
+        super(layout);
 
         super.f_Parameters.put(_INDEX_F_MessageType, this.getMessageType());
 
@@ -61,9 +61,6 @@ import org.restcomm.protocols.ss7.isup.message.parameter.UserToUserIndicators;
 import org.restcomm.protocols.ss7.isup.message.parameter.UserToUserInformation;
 import org.restcomm.protocols.ss7.isup.message.parameter.accessTransport.AccessTransport;
 
-import java.util.Map;
-import java.util.Set;
-
 /**
  * Start time:23:58:48 2009-09-06<br>
  * Project: mobicents-isup-stack<br>
@@ -103,11 +100,8 @@ public class ConnectMessageImpl extends ISUPMessageImpl implements ConnectMessag
     static final int _INDEX_O_RedirectStatus = 22;
     static final int _INDEX_O_EndOfOptionalParameters = 23;
 
-    ConnectMessageImpl(Set<Integer> mandatoryCodes, Set<Integer> mandatoryVariableCodes, Set<Integer> optionalCodes,
-            Map<Integer, Integer> mandatoryCode2Index, Map<Integer, Integer> mandatoryVariableCode2Index,
-            Map<Integer, Integer> optionalCode2Index) {
-        super(mandatoryCodes, mandatoryVariableCodes, optionalCodes, mandatoryCode2Index, mandatoryVariableCode2Index,
-                optionalCode2Index);
+    ConnectMessageImpl(MessageLayout layout) {
+        super(layout);
 
         super.f_Parameters.put(_INDEX_F_MessageType, this.getMessageType());
         super.o_Parameters.put(_INDEX_O_EndOfOptionalParameters, _END_OF_OPTIONAL_PARAMETERS);
@@ -28,9 +28,6 @@
  */
 package org.restcomm.protocols.ss7.isup.impl.message;
 
-import java.util.Map;
-import java.util.Set;
-
 import org.restcomm.protocols.ss7.isup.impl.message.parameter.MessageTypeImpl;
 import org.restcomm.protocols.ss7.isup.message.FacilityRequestMessage;
 import org.restcomm.protocols.ss7.isup.message.parameter.MessageName;
@@ -46,11 +43,8 @@ public class FacilityRequestMessageImpl extends AbstractFacilityMessageImpl impl
 
     public static final MessageType _MESSAGE_TYPE = new MessageTypeImpl(MessageName.FacilityRequest);
 
-    FacilityRequestMessageImpl(Set<Integer> mandatoryCodes, Set<Integer> mandatoryVariableCodes, Set<Integer> optionalCodes,
-            Map<Integer, Integer> mandatoryCode2Index, Map<Integer, Integer> mandatoryVariableCode2Index,
-            Map<Integer, Integer> optionalCode2Index) {
-        super(mandatoryCodes, mandatoryVariableCodes, optionalCodes, mandatoryCode2Index, mandatoryVariableCode2Index,
-                optionalCode2Index);
+    FacilityRequestMessageImpl(MessageLayout layout) {
+        super(layout);
     }
 
     @Override
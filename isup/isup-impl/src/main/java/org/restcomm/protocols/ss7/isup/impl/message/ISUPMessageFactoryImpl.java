@@ -204,6 +204,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         Map<Integer, Integer> mandatoryVariableCodeToIndex;
         Map<Integer, Integer> optionalCodeToIndex;
 
+        MessageLayout layout;
     }
 
     private ISUPParameterFactory parameterFactory;
@@ -391,6 +392,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         ACM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         ACM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         ACM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        ACM_HOLDER.layout = new MessageLayout(ACM_HOLDER.mandatoryCodeToIndex, ACM_HOLDER.mandatoryVariableCodeToIndex,
+                ACM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -470,6 +473,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         ANM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         ANM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         ANM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        ANM_HOLDER.layout = new MessageLayout(ANM_HOLDER.mandatoryCodeToIndex, ANM_HOLDER.mandatoryVariableCodeToIndex,
+                ANM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -497,6 +502,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         APT_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         APT_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         APT_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        APT_HOLDER.layout = new MessageLayout(APT_HOLDER.mandatoryCodeToIndex, APT_HOLDER.mandatoryVariableCodeToIndex,
+                APT_HOLDER.optionalCodeToIndex);
 
 
         _APT_HOLDER=APT_HOLDER;
@@ -515,6 +522,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         BLO_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         BLO_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         BLO_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        BLO_HOLDER.layout = new MessageLayout(BLO_HOLDER.mandatoryCodeToIndex, BLO_HOLDER.mandatoryVariableCodeToIndex,
+                BLO_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -533,6 +542,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         BLA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         BLA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         BLA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        BLA_HOLDER.layout = new MessageLayout(BLA_HOLDER.mandatoryCodeToIndex, BLA_HOLDER.mandatoryVariableCodeToIndex,
+                BLA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -629,6 +640,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CPG_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CPG_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CPG_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CPG_HOLDER.layout = new MessageLayout(CPG_HOLDER.mandatoryCodeToIndex, CPG_HOLDER.mandatoryVariableCodeToIndex,
+                CPG_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -656,6 +669,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CGB_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CGB_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CGB_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CGB_HOLDER.layout = new MessageLayout(CGB_HOLDER.mandatoryCodeToIndex, CGB_HOLDER.mandatoryVariableCodeToIndex,
+                CGB_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -683,6 +698,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CGBA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CGBA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CGBA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CGBA_HOLDER.layout = new MessageLayout(CGBA_HOLDER.mandatoryCodeToIndex, CGBA_HOLDER.mandatoryVariableCodeToIndex,
+                CGBA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -705,6 +722,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CQM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CQM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CQM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CQM_HOLDER.layout = new MessageLayout(CQM_HOLDER.mandatoryCodeToIndex, CQM_HOLDER.mandatoryVariableCodeToIndex,
+                CQM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -732,6 +751,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CQR_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CQR_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CQR_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CQR_HOLDER.layout = new MessageLayout(CQR_HOLDER.mandatoryCodeToIndex, CQR_HOLDER.mandatoryVariableCodeToIndex,
+                CQR_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -754,6 +775,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         GRS_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         GRS_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         GRS_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        GRS_HOLDER.layout = new MessageLayout(GRS_HOLDER.mandatoryCodeToIndex, GRS_HOLDER.mandatoryVariableCodeToIndex,
+                GRS_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -777,6 +800,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         GRA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         GRA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         GRA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        GRA_HOLDER.layout = new MessageLayout(GRA_HOLDER.mandatoryCodeToIndex, GRA_HOLDER.mandatoryVariableCodeToIndex,
+                GRA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -804,6 +829,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CGU_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CGU_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CGU_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CGU_HOLDER.layout = new MessageLayout(CGU_HOLDER.mandatoryCodeToIndex, CGU_HOLDER.mandatoryVariableCodeToIndex,
+                CGU_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -831,6 +858,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CGUA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CGUA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CGUA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CGUA_HOLDER.layout = new MessageLayout(CGUA_HOLDER.mandatoryCodeToIndex, CGUA_HOLDER.mandatoryVariableCodeToIndex,
+                CGUA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -857,6 +886,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CNF_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CNF_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CNF_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CNF_HOLDER.layout = new MessageLayout(CNF_HOLDER.mandatoryCodeToIndex, CNF_HOLDER.mandatoryVariableCodeToIndex,
+                CNF_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -936,6 +967,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CON_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CON_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CON_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CON_HOLDER.layout = new MessageLayout(CON_HOLDER.mandatoryCodeToIndex, CON_HOLDER.mandatoryVariableCodeToIndex,
+                CON_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -958,6 +991,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         COT_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         COT_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         COT_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        COT_HOLDER.layout = new MessageLayout(COT_HOLDER.mandatoryCodeToIndex, COT_HOLDER.mandatoryVariableCodeToIndex,
+                COT_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -977,6 +1012,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         CCR_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         CCR_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         CCR_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        CCR_HOLDER.layout = new MessageLayout(CCR_HOLDER.mandatoryCodeToIndex, CCR_HOLDER.mandatoryVariableCodeToIndex,
+                CCR_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1024,6 +1061,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         FAC_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         FAC_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         FAC_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        FAC_HOLDER.layout = new MessageLayout(FAC_HOLDER.mandatoryCodeToIndex, FAC_HOLDER.mandatoryVariableCodeToIndex,
+                FAC_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1056,6 +1095,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         FAA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         FAA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         FAA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        FAA_HOLDER.layout = new MessageLayout(FAA_HOLDER.mandatoryCodeToIndex, FAA_HOLDER.mandatoryVariableCodeToIndex,
+                FAA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1084,6 +1125,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         FRJ_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         FRJ_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         FRJ_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        FRJ_HOLDER.layout = new MessageLayout(FRJ_HOLDER.mandatoryCodeToIndex, FRJ_HOLDER.mandatoryVariableCodeToIndex,
+                FRJ_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1116,6 +1159,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         FAR_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         FAR_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         FAR_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        FAR_HOLDER.layout = new MessageLayout(FAR_HOLDER.mandatoryCodeToIndex, FAR_HOLDER.mandatoryVariableCodeToIndex,
+                FAR_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1139,6 +1184,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         FOT_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         FOT_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         FOT_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        FOT_HOLDER.layout = new MessageLayout(FOT_HOLDER.mandatoryCodeToIndex, FOT_HOLDER.mandatoryVariableCodeToIndex,
+                FOT_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1166,6 +1213,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         IDR_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         IDR_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         IDR_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        IDR_HOLDER.layout = new MessageLayout(IDR_HOLDER.mandatoryCodeToIndex, IDR_HOLDER.mandatoryVariableCodeToIndex,
+                IDR_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1201,6 +1250,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         IRS_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         IRS_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         IRS_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        IRS_HOLDER.layout = new MessageLayout(IRS_HOLDER.mandatoryCodeToIndex, IRS_HOLDER.mandatoryVariableCodeToIndex,
+                IRS_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1234,6 +1285,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         INR_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         INR_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         INR_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        INR_HOLDER.layout = new MessageLayout(INR_HOLDER.mandatoryCodeToIndex, INR_HOLDER.mandatoryVariableCodeToIndex,
+                INR_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1273,6 +1326,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         INF_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         INF_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         INF_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        INF_HOLDER.layout = new MessageLayout(INF_HOLDER.mandatoryCodeToIndex, INF_HOLDER.mandatoryVariableCodeToIndex,
+                INF_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1450,6 +1505,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         IAM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         IAM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         IAM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        IAM_HOLDER.layout = new MessageLayout(IAM_HOLDER.mandatoryCodeToIndex, IAM_HOLDER.mandatoryVariableCodeToIndex,
+                IAM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1469,6 +1526,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         LPA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         LPA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         LPA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        LPA_HOLDER.layout = new MessageLayout(LPA_HOLDER.mandatoryCodeToIndex, LPA_HOLDER.mandatoryVariableCodeToIndex,
+                LPA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1498,6 +1557,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         LPP_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         LPP_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         LPP_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        LPP_HOLDER.layout = new MessageLayout(LPP_HOLDER.mandatoryCodeToIndex, LPP_HOLDER.mandatoryVariableCodeToIndex,
+                LPP_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1526,6 +1587,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         NRM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         NRM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         NRM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        NRM_HOLDER.layout = new MessageLayout(NRM_HOLDER.mandatoryCodeToIndex, NRM_HOLDER.mandatoryVariableCodeToIndex,
+                NRM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1543,6 +1606,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         OLM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         OLM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         OLM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        OLM_HOLDER.layout = new MessageLayout(OLM_HOLDER.mandatoryCodeToIndex, OLM_HOLDER.mandatoryVariableCodeToIndex,
+                OLM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1575,6 +1640,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         PRI_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         PRI_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         PRI_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        PRI_HOLDER.layout = new MessageLayout(PRI_HOLDER.mandatoryCodeToIndex, PRI_HOLDER.mandatoryVariableCodeToIndex,
+                PRI_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1631,6 +1698,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         REL_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         REL_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         REL_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        REL_HOLDER.layout = new MessageLayout(REL_HOLDER.mandatoryCodeToIndex, REL_HOLDER.mandatoryVariableCodeToIndex,
+                REL_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1653,6 +1722,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         RLC_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         RLC_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         RLC_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        RLC_HOLDER.layout = new MessageLayout(RLC_HOLDER.mandatoryCodeToIndex, RLC_HOLDER.mandatoryVariableCodeToIndex,
+                RLC_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1672,6 +1743,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         RSC_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         RSC_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         RSC_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        RSC_HOLDER.layout = new MessageLayout(RSC_HOLDER.mandatoryCodeToIndex, RSC_HOLDER.mandatoryVariableCodeToIndex,
+                RSC_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1695,6 +1768,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         RES_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         RES_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         RES_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        RES_HOLDER.layout = new MessageLayout(RES_HOLDER.mandatoryCodeToIndex, RES_HOLDER.mandatoryVariableCodeToIndex,
+                RES_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1728,6 +1803,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         SGM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         SGM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         SGM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        SGM_HOLDER.layout = new MessageLayout(SGM_HOLDER.mandatoryCodeToIndex, SGM_HOLDER.mandatoryVariableCodeToIndex,
+                SGM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1751,6 +1828,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         SAM_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         SAM_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         SAM_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        SAM_HOLDER.layout = new MessageLayout(SAM_HOLDER.mandatoryCodeToIndex, SAM_HOLDER.mandatoryVariableCodeToIndex,
+                SAM_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1775,6 +1854,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         SDN_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         SDN_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         SDN_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        SDN_HOLDER.layout = new MessageLayout(SDN_HOLDER.mandatoryCodeToIndex, SDN_HOLDER.mandatoryVariableCodeToIndex,
+                SDN_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1797,6 +1878,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         SUS_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         SUS_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         SUS_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        SUS_HOLDER.layout = new MessageLayout(SUS_HOLDER.mandatoryCodeToIndex, SUS_HOLDER.mandatoryVariableCodeToIndex,
+                SUS_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1815,6 +1898,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         UBL_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         UBL_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         UBL_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        UBL_HOLDER.layout = new MessageLayout(UBL_HOLDER.mandatoryCodeToIndex, UBL_HOLDER.mandatoryVariableCodeToIndex,
+                UBL_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1833,6 +1918,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         UBA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         UBA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         UBA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        UBA_HOLDER.layout = new MessageLayout(UBA_HOLDER.mandatoryCodeToIndex, UBA_HOLDER.mandatoryVariableCodeToIndex,
+                UBA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1851,6 +1938,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         UCIC_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         UCIC_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         UCIC_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        UCIC_HOLDER.layout = new MessageLayout(UCIC_HOLDER.mandatoryCodeToIndex, UCIC_HOLDER.mandatoryVariableCodeToIndex,
+                UCIC_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1873,6 +1962,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         UPA_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         UPA_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         UPA_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        UPA_HOLDER.layout = new MessageLayout(UPA_HOLDER.mandatoryCodeToIndex, UPA_HOLDER.mandatoryVariableCodeToIndex,
+                UPA_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1895,6 +1986,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         UPT_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         UPT_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         UPT_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        UPT_HOLDER.layout = new MessageLayout(UPT_HOLDER.mandatoryCodeToIndex, UPT_HOLDER.mandatoryVariableCodeToIndex,
+                UPT_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1920,6 +2013,8 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
         U2UI_HOLDER.mandatoryCodeToIndex = Collections.unmodifiableMap(mandatoryCodeToIndex);
         U2UI_HOLDER.mandatoryVariableCodeToIndex = Collections.unmodifiableMap(mandatoryVariableCodeToIndex);
         U2UI_HOLDER.optionalCodeToIndex = Collections.unmodifiableMap(optionalCodeToIndex);
+        U2UI_HOLDER.layout = new MessageLayout(U2UI_HOLDER.mandatoryCodeToIndex, U2UI_HOLDER.mandatoryVariableCodeToIndex,
+                U2UI_HOLDER.optionalCodeToIndex);
 
         mandatoryCodes = new HashSet<Integer>();
         mandatoryVariableCodes = new HashSet<Integer>();
@@ -1944,9 +2039,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public AddressCompleteMessage createACM() {
 
-        AddressCompleteMessageImpl acm = new AddressCompleteMessageImpl(_ACM_HOLDER.mandatoryCodes,
-                _ACM_HOLDER.mandatoryVariableCodes, _ACM_HOLDER.optionalCodes, _ACM_HOLDER.mandatoryCodeToIndex,
-                _ACM_HOLDER.mandatoryVariableCodeToIndex, _ACM_HOLDER.optionalCodeToIndex);
+        AddressCompleteMessageImpl acm = new AddressCompleteMessageImpl(_ACM_HOLDER.layout);
 
         return acm;
     }
@@ -1972,9 +2065,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public AnswerMessage createANM() {
 
-        AnswerMessageImpl acm = new AnswerMessageImpl(_ANM_HOLDER.mandatoryCodes, _ANM_HOLDER.mandatoryVariableCodes,
-                _ANM_HOLDER.optionalCodes, _ANM_HOLDER.mandatoryCodeToIndex, _ANM_HOLDER.mandatoryVariableCodeToIndex,
-                _ANM_HOLDER.optionalCodeToIndex);
+        AnswerMessageImpl acm = new AnswerMessageImpl(_ANM_HOLDER.layout);
 
         return acm;
     }
@@ -2000,9 +2091,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public ApplicationTransportMessage createAPT() {
-        ApplicationTransportMessageImpl apt = new ApplicationTransportMessageImpl(_APT_HOLDER.mandatoryCodes, _APT_HOLDER.mandatoryVariableCodes,
-                _APT_HOLDER.optionalCodes, _APT_HOLDER.mandatoryCodeToIndex, _APT_HOLDER.mandatoryVariableCodeToIndex,
-                _APT_HOLDER.optionalCodeToIndex);
+        ApplicationTransportMessageImpl apt = new ApplicationTransportMessageImpl(_APT_HOLDER.layout);
 
         return apt;
     }
@@ -2027,9 +2116,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public BlockingAckMessage createBLA() {
 
-        BlockingAckMessageImpl bla = new BlockingAckMessageImpl(_BLA_HOLDER.mandatoryCodes, _BLA_HOLDER.mandatoryVariableCodes,
-                _BLA_HOLDER.optionalCodes, _BLA_HOLDER.mandatoryCodeToIndex, _BLA_HOLDER.mandatoryVariableCodeToIndex,
-                _BLA_HOLDER.optionalCodeToIndex);
+        BlockingAckMessageImpl bla = new BlockingAckMessageImpl(_BLA_HOLDER.layout);
 
         return bla;
     }
@@ -2055,9 +2142,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public BlockingMessage createBLO() {
-        BlockingMessageImpl blo = new BlockingMessageImpl(_BLO_HOLDER.mandatoryCodes, _BLO_HOLDER.mandatoryVariableCodes,
-                _BLO_HOLDER.optionalCodes, _BLO_HOLDER.mandatoryCodeToIndex, _BLO_HOLDER.mandatoryVariableCodeToIndex,
-                _BLO_HOLDER.optionalCodeToIndex);
+        BlockingMessageImpl blo = new BlockingMessageImpl(_BLO_HOLDER.layout);
         return blo;
     }
 
@@ -2081,9 +2166,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public ContinuityCheckRequestMessage createCCR() {
-        ContinuityCheckRequestMessageImpl ccr = new ContinuityCheckRequestMessageImpl(_CCR_HOLDER.mandatoryCodes,
-                _CCR_HOLDER.mandatoryVariableCodes, _CCR_HOLDER.optionalCodes, _CCR_HOLDER.mandatoryCodeToIndex,
-                _CCR_HOLDER.mandatoryVariableCodeToIndex, _CCR_HOLDER.optionalCodeToIndex);
+        ContinuityCheckRequestMessageImpl ccr = new ContinuityCheckRequestMessageImpl(_CCR_HOLDER.layout);
         return ccr;
     }
 
@@ -2107,9 +2190,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public CircuitGroupBlockingMessage createCGB() {
-        CircuitGroupBlockingMessage cgb = new CircuitGroupBlockingMessageImpl(_CGB_HOLDER.mandatoryCodes,
-                _CGB_HOLDER.mandatoryVariableCodes, _CGB_HOLDER.optionalCodes, _CGB_HOLDER.mandatoryCodeToIndex,
-                _CGB_HOLDER.mandatoryVariableCodeToIndex, _CGB_HOLDER.optionalCodeToIndex);
+        CircuitGroupBlockingMessage cgb = new CircuitGroupBlockingMessageImpl(_CGB_HOLDER.layout);
         return cgb;
     }
 
@@ -2133,9 +2214,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public CircuitGroupBlockingAckMessage createCGBA() {
 
-        CircuitGroupBlockingAckMessageImpl cgba = new CircuitGroupBlockingAckMessageImpl(_CGBA_HOLDER.mandatoryCodes,
-                _CGBA_HOLDER.mandatoryVariableCodes, _CGBA_HOLDER.optionalCodes, _CGBA_HOLDER.mandatoryCodeToIndex,
-                _CGBA_HOLDER.mandatoryVariableCodeToIndex, _CGBA_HOLDER.optionalCodeToIndex);
+        CircuitGroupBlockingAckMessageImpl cgba = new CircuitGroupBlockingAckMessageImpl(_CGBA_HOLDER.layout);
 
         return cgba;
     }
@@ -2161,9 +2240,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public CircuitGroupUnblockingMessage createCGU() {
-        CircuitGroupUnblockingMessage msg = new CircuitGroupUnblockingMessageImpl(_CGU_HOLDER.mandatoryCodes,
-                _CGU_HOLDER.mandatoryVariableCodes, _CGU_HOLDER.optionalCodes, _CGU_HOLDER.mandatoryCodeToIndex,
-                _CGU_HOLDER.mandatoryVariableCodeToIndex, _CGU_HOLDER.optionalCodeToIndex);
+        CircuitGroupUnblockingMessage msg = new CircuitGroupUnblockingMessageImpl(_CGU_HOLDER.layout);
 
         return msg;
     }
@@ -2188,9 +2265,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public CircuitGroupUnblockingAckMessage createCGUA() {
 
-        CircuitGroupUnblockingAckMessage msg = new CircuitGroupUnblockingAckMessageImpl(_CGUA_HOLDER.mandatoryCodes,
-                _CGUA_HOLDER.mandatoryVariableCodes, _CGUA_HOLDER.optionalCodes, _CGUA_HOLDER.mandatoryCodeToIndex,
-                _CGUA_HOLDER.mandatoryVariableCodeToIndex, _CGUA_HOLDER.optionalCodeToIndex);
+        CircuitGroupUnblockingAckMessage msg = new CircuitGroupUnblockingAckMessageImpl(_CGUA_HOLDER.layout);
 
         return msg;
     }
@@ -2242,9 +2317,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public ConfusionMessage createCNF() {
-        ConfusionMessage msg = new ConfusionMessageImpl(_CNF_HOLDER.mandatoryCodes, _CNF_HOLDER.mandatoryVariableCodes,
-                _CNF_HOLDER.optionalCodes, _CNF_HOLDER.mandatoryCodeToIndex, _CNF_HOLDER.mandatoryVariableCodeToIndex,
-                _CNF_HOLDER.optionalCodeToIndex);
+        ConfusionMessage msg = new ConfusionMessageImpl(_CNF_HOLDER.layout);
         return msg;
     }
 
@@ -2485,9 +2558,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public ConnectMessage createCON() {
 
-        ConnectMessage msg = new ConnectMessageImpl(_CON_HOLDER.mandatoryCodes, _CON_HOLDER.mandatoryVariableCodes,
-                _CON_HOLDER.optionalCodes, _CON_HOLDER.mandatoryCodeToIndex, _CON_HOLDER.mandatoryVariableCodeToIndex,
-                _CON_HOLDER.optionalCodeToIndex);
+        ConnectMessage msg = new ConnectMessageImpl(_CON_HOLDER.layout);
         return msg;
     }
 
@@ -2512,9 +2583,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public ContinuityMessage createCOT() {
 
-        ContinuityMessage msg = new ContinuityMessageImpl(_COT_HOLDER.mandatoryCodes, _COT_HOLDER.mandatoryVariableCodes,
-                _COT_HOLDER.optionalCodes, _COT_HOLDER.mandatoryCodeToIndex, _COT_HOLDER.mandatoryVariableCodeToIndex,
-                _COT_HOLDER.optionalCodeToIndex);
+        ContinuityMessage msg = new ContinuityMessageImpl(_COT_HOLDER.layout);
 
         return msg;
     }
@@ -2540,9 +2609,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public CallProgressMessage createCPG() {
-        CallProgressMessage msg = new CallProgressMessageImpl(_CPG_HOLDER.mandatoryCodes, _CPG_HOLDER.mandatoryVariableCodes,
-                _CPG_HOLDER.optionalCodes, _CPG_HOLDER.mandatoryCodeToIndex, _CPG_HOLDER.mandatoryVariableCodeToIndex,
-                _CPG_HOLDER.optionalCodeToIndex);
+        CallProgressMessage msg = new CallProgressMessageImpl(_CPG_HOLDER.layout);
         return msg;
     }
 
@@ -2566,9 +2633,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public CircuitGroupQueryMessage createCQM() {
-        CircuitGroupQueryMessage msg = new CircuitGroupQueryMessageImpl(_CQM_HOLDER.mandatoryCodes,
-                _CQM_HOLDER.mandatoryVariableCodes, _CQM_HOLDER.optionalCodes, _CQM_HOLDER.mandatoryCodeToIndex,
-                _CQM_HOLDER.mandatoryVariableCodeToIndex, _CQM_HOLDER.optionalCodeToIndex);
+        CircuitGroupQueryMessage msg = new CircuitGroupQueryMessageImpl(_CQM_HOLDER.layout);
         return msg;
     }
 
@@ -2591,9 +2656,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      * @see org.restcomm.protocols.ss7.isup.ISUPMessageFactory#createCQR(int cic)
      */
     public CircuitGroupQueryResponseMessage createCQR() {
-        CircuitGroupQueryResponseMessage msg = new CircuitGroupQueryResponseMessageImpl(_CQR_HOLDER.mandatoryCodes,
-                _CQR_HOLDER.mandatoryVariableCodes, _CQR_HOLDER.optionalCodes, _CQR_HOLDER.mandatoryCodeToIndex,
-                _CQR_HOLDER.mandatoryVariableCodeToIndex, _CQR_HOLDER.optionalCodeToIndex);
+        CircuitGroupQueryResponseMessage msg = new CircuitGroupQueryResponseMessageImpl(_CQR_HOLDER.layout);
 
         return msg;
     }
@@ -2618,9 +2681,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      * @see org.restcomm.protocols.ss7.isup.ISUPMessageFactory#createFAA(int cic)
      */
     public FacilityAcceptedMessage createFAA() {
-        FacilityAcceptedMessage msg = new FacilityAcceptedMessageImpl(_FAA_HOLDER.mandatoryCodes,
-                _FAA_HOLDER.mandatoryVariableCodes, _FAA_HOLDER.optionalCodes, _FAA_HOLDER.mandatoryCodeToIndex,
-                _FAA_HOLDER.mandatoryVariableCodeToIndex, _FAA_HOLDER.optionalCodeToIndex);
+        FacilityAcceptedMessage msg = new FacilityAcceptedMessageImpl(_FAA_HOLDER.layout);
 
         return msg;
     }
@@ -2646,9 +2707,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public FacilityMessage createFAC() {
-        FacilityMessage msg = new FacilityMessageImpl(_FAC_HOLDER.mandatoryCodes,
-                _FAC_HOLDER.mandatoryVariableCodes, _FAC_HOLDER.optionalCodes, _FAC_HOLDER.mandatoryCodeToIndex,
-                _FAC_HOLDER.mandatoryVariableCodeToIndex, _FAC_HOLDER.optionalCodeToIndex);
+        FacilityMessage msg = new FacilityMessageImpl(_FAC_HOLDER.layout);
 
         return msg;
     }
@@ -2673,9 +2732,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public FacilityRequestMessage createFAR() {
-        FacilityRequestMessage msg = new FacilityRequestMessageImpl(_FAR_HOLDER.mandatoryCodes,
-                _FAR_HOLDER.mandatoryVariableCodes, _FAR_HOLDER.optionalCodes, _FAR_HOLDER.mandatoryCodeToIndex,
-                _FAR_HOLDER.mandatoryVariableCodeToIndex, _FAR_HOLDER.optionalCodeToIndex);
+        FacilityRequestMessage msg = new FacilityRequestMessageImpl(_FAR_HOLDER.layout);
 
         return msg;
     }
@@ -2700,9 +2757,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public ForwardTransferMessage createFOT() {
-        ForwardTransferMessage msg = new ForwardTransferMessageImpl(_FOT_HOLDER.mandatoryCodes,
-                _FOT_HOLDER.mandatoryVariableCodes, _FOT_HOLDER.optionalCodes, _FOT_HOLDER.mandatoryCodeToIndex,
-                _FOT_HOLDER.mandatoryVariableCodeToIndex, _FOT_HOLDER.optionalCodeToIndex);
+        ForwardTransferMessage msg = new ForwardTransferMessageImpl(_FOT_HOLDER.layout);
 
         return msg;
     }
@@ -2727,9 +2782,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public FacilityRejectedMessage createFRJ() {
-        FacilityRejectedMessage msg = new FacilityRejectedMessageImpl(_FRJ_HOLDER.mandatoryCodes,
-                _FRJ_HOLDER.mandatoryVariableCodes, _FRJ_HOLDER.optionalCodes, _FRJ_HOLDER.mandatoryCodeToIndex,
-                _FRJ_HOLDER.mandatoryVariableCodeToIndex, _FRJ_HOLDER.optionalCodeToIndex);
+        FacilityRejectedMessage msg = new FacilityRejectedMessageImpl(_FRJ_HOLDER.layout);
 
         return msg;
     }
@@ -2753,9 +2806,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      * @see org.restcomm.protocols.ss7.isup.ISUPMessageFactory#createGRA(int cic)
      */
     public CircuitGroupResetAckMessage createGRA() {
-        CircuitGroupResetAckMessage msg = new CircuitGroupResetAckMessageImpl(_GRA_HOLDER.mandatoryCodes,
-                _GRA_HOLDER.mandatoryVariableCodes, _GRA_HOLDER.optionalCodes, _GRA_HOLDER.mandatoryCodeToIndex,
-                _GRA_HOLDER.mandatoryVariableCodeToIndex, _GRA_HOLDER.optionalCodeToIndex);
+        CircuitGroupResetAckMessage msg = new CircuitGroupResetAckMessageImpl(_GRA_HOLDER.layout);
 
         return msg;
     }
@@ -2781,9 +2832,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public CircuitGroupResetMessage createGRS() {
-        CircuitGroupResetMessage msg = new CircuitGroupResetMessageImpl(_GRS_HOLDER.mandatoryCodes,
-                _GRS_HOLDER.mandatoryVariableCodes, _GRS_HOLDER.optionalCodes, _GRS_HOLDER.mandatoryCodeToIndex,
-                _GRS_HOLDER.mandatoryVariableCodeToIndex, _GRS_HOLDER.optionalCodeToIndex);
+        CircuitGroupResetMessage msg = new CircuitGroupResetMessageImpl(_GRS_HOLDER.layout);
         return msg;
     }
 
@@ -2807,9 +2856,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public InitialAddressMessage createIAM() {
-        InitialAddressMessage msg = new InitialAddressMessageImpl(_IAM_HOLDER.mandatoryCodes,
-                _IAM_HOLDER.mandatoryVariableCodes, _IAM_HOLDER.optionalCodes, _IAM_HOLDER.mandatoryCodeToIndex,
-                _IAM_HOLDER.mandatoryVariableCodeToIndex, _IAM_HOLDER.optionalCodeToIndex);
+        InitialAddressMessage msg = new InitialAddressMessageImpl(_IAM_HOLDER.layout);
         return msg;
     }
 
@@ -2833,9 +2880,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public IdentificationRequestMessage createIDR() {
-        IdentificationRequestMessage msg = new IdentificationRequestMessageImpl(_IDR_HOLDER.mandatoryCodes,
-                _IDR_HOLDER.mandatoryVariableCodes, _IDR_HOLDER.optionalCodes, _IDR_HOLDER.mandatoryCodeToIndex,
-                _IDR_HOLDER.mandatoryVariableCodeToIndex, _IDR_HOLDER.optionalCodeToIndex);
+        IdentificationRequestMessage msg = new IdentificationRequestMessageImpl(_IDR_HOLDER.layout);
         return msg;
     }
 
@@ -2858,9 +2903,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      * @see org.restcomm.protocols.ss7.isup.ISUPMessageFactory#createINF(int cic)
      */
     public InformationMessage createINF() {
-        InformationMessage msg = new InformationMessageImpl(_INF_HOLDER.mandatoryCodes, _INF_HOLDER.mandatoryVariableCodes,
-                _INF_HOLDER.optionalCodes, _INF_HOLDER.mandatoryCodeToIndex, _INF_HOLDER.mandatoryVariableCodeToIndex,
-                _INF_HOLDER.optionalCodeToIndex);
+        InformationMessage msg = new InformationMessageImpl(_INF_HOLDER.layout);
         return msg;
     }
 
@@ -2885,9 +2928,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public InformationRequestMessage createINR() {
-        InformationRequestMessage msg = new InformationRequestMessageImpl(_INR_HOLDER.mandatoryCodes,
-                _INR_HOLDER.mandatoryVariableCodes, _INR_HOLDER.optionalCodes, _INR_HOLDER.mandatoryCodeToIndex,
-                _INR_HOLDER.mandatoryVariableCodeToIndex, _INR_HOLDER.optionalCodeToIndex);
+        InformationRequestMessage msg = new InformationRequestMessageImpl(_INR_HOLDER.layout);
         return msg;
     }
 
@@ -2910,9 +2951,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      * @see org.restcomm.protocols.ss7.isup.ISUPMessageFactory#createIRS(int cic)
      */
     public IdentificationResponseMessage createIRS() {
-        IdentificationResponseMessage msg = new IdentificationResponseMessageImpl(_IRS_HOLDER.mandatoryCodes,
-                _IRS_HOLDER.mandatoryVariableCodes, _IRS_HOLDER.optionalCodes, _IRS_HOLDER.mandatoryCodeToIndex,
-                _IRS_HOLDER.mandatoryVariableCodeToIndex, _IRS_HOLDER.optionalCodeToIndex);
+        IdentificationResponseMessage msg = new IdentificationResponseMessageImpl(_IRS_HOLDER.layout);
         return msg;
     }
 
@@ -2937,9 +2976,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public LoopbackAckMessage createLPA() {
 
-        LoopbackAckMessage msg = new LoopbackAckMessageImpl(_LPA_HOLDER.mandatoryCodes, _LPA_HOLDER.mandatoryVariableCodes,
-                _LPA_HOLDER.optionalCodes, _LPA_HOLDER.mandatoryCodeToIndex, _LPA_HOLDER.mandatoryVariableCodeToIndex,
-                _LPA_HOLDER.optionalCodeToIndex);
+        LoopbackAckMessage msg = new LoopbackAckMessageImpl(_LPA_HOLDER.layout);
 
         return msg;
     }
@@ -2965,9 +3002,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public LoopPreventionMessage createLPP() {
-        LoopPreventionMessage msg = new LoopPreventionMessageImpl(_LPP_HOLDER.mandatoryCodes, _LPP_HOLDER.mandatoryVariableCodes,
-                _LPP_HOLDER.optionalCodes, _LPP_HOLDER.mandatoryCodeToIndex, _LPP_HOLDER.mandatoryVariableCodeToIndex,
-                _LPP_HOLDER.optionalCodeToIndex);
+        LoopPreventionMessage msg = new LoopPreventionMessageImpl(_LPP_HOLDER.layout);
 
         return msg;
     }
@@ -2992,9 +3027,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public NetworkResourceManagementMessage createNRM() {
-        NetworkResourceManagementMessage msg = new NetworkResourceManagementMessageImpl(_NRM_HOLDER.mandatoryCodes, _NRM_HOLDER.mandatoryVariableCodes,
-                _NRM_HOLDER.optionalCodes, _NRM_HOLDER.mandatoryCodeToIndex, _NRM_HOLDER.mandatoryVariableCodeToIndex,
-                _NRM_HOLDER.optionalCodeToIndex);
+        NetworkResourceManagementMessage msg = new NetworkResourceManagementMessageImpl(_NRM_HOLDER.layout);
 
         return msg;
     }
@@ -3019,9 +3052,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public OverloadMessage createOLM() {
-        OverloadMessage msg = new OverloadMessageImpl(_OLM_HOLDER.mandatoryCodes, _OLM_HOLDER.mandatoryVariableCodes,
-                _OLM_HOLDER.optionalCodes, _OLM_HOLDER.mandatoryCodeToIndex, _OLM_HOLDER.mandatoryVariableCodeToIndex,
-                _OLM_HOLDER.optionalCodeToIndex);
+        OverloadMessage msg = new OverloadMessageImpl(_OLM_HOLDER.layout);
         return msg;
     }
 
@@ -3068,9 +3099,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public PreReleaseInformationMessage createPRI() {
-        PreReleaseInformationMessage msg = new PreReleaseInformationMessageImpl(_PRI_HOLDER.mandatoryCodes, _PRI_HOLDER.mandatoryVariableCodes,
-                _PRI_HOLDER.optionalCodes, _PRI_HOLDER.mandatoryCodeToIndex, _PRI_HOLDER.mandatoryVariableCodeToIndex,
-                _PRI_HOLDER.optionalCodeToIndex);
+        PreReleaseInformationMessage msg = new PreReleaseInformationMessageImpl(_PRI_HOLDER.layout);
         return msg;
     }
 
@@ -3094,9 +3123,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public ReleaseMessage createREL() {
-        ReleaseMessage msg = new ReleaseMessageImpl(_REL_HOLDER.mandatoryCodes, _REL_HOLDER.mandatoryVariableCodes,
-                _REL_HOLDER.optionalCodes, _REL_HOLDER.mandatoryCodeToIndex, _REL_HOLDER.mandatoryVariableCodeToIndex,
-                _REL_HOLDER.optionalCodeToIndex);
+        ReleaseMessage msg = new ReleaseMessageImpl(_REL_HOLDER.layout);
         return msg;
     }
 
@@ -3120,9 +3147,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public ResumeMessage createRES() {
-        ResumeMessage msg = new ResumeMessageImpl(_RES_HOLDER.mandatoryCodes, _RES_HOLDER.mandatoryVariableCodes,
-                _RES_HOLDER.optionalCodes, _RES_HOLDER.mandatoryCodeToIndex, _RES_HOLDER.mandatoryVariableCodeToIndex,
-                _RES_HOLDER.optionalCodeToIndex);
+        ResumeMessage msg = new ResumeMessageImpl(_RES_HOLDER.layout);
         return msg;
     }
 
@@ -3146,9 +3171,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     public ReleaseCompleteMessage createRLC() {
 
-        ReleaseCompleteMessage msg = new ReleaseCompleteMessageImpl(_RLC_HOLDER.mandatoryCodes,
-                _RLC_HOLDER.mandatoryVariableCodes, _RLC_HOLDER.optionalCodes, _RLC_HOLDER.mandatoryCodeToIndex,
-                _RLC_HOLDER.mandatoryVariableCodeToIndex, _RLC_HOLDER.optionalCodeToIndex);
+        ReleaseCompleteMessage msg = new ReleaseCompleteMessageImpl(_RLC_HOLDER.layout);
 
         return msg;
     }
@@ -3174,9 +3197,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public ResetCircuitMessage createRSC() {
-        ResetCircuitMessage msg = new ResetCircuitMessageImpl(_RSC_HOLDER.mandatoryCodes, _RSC_HOLDER.mandatoryVariableCodes,
-                _RSC_HOLDER.optionalCodes, _RSC_HOLDER.mandatoryCodeToIndex, _RSC_HOLDER.mandatoryVariableCodeToIndex,
-                _RSC_HOLDER.optionalCodeToIndex);
+        ResetCircuitMessage msg = new ResetCircuitMessageImpl(_RSC_HOLDER.layout);
         return msg;
     }
 
@@ -3200,9 +3221,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public SubsequentAddressMessage createSAM() {
-        SubsequentAddressMessage msg = new SubsequentAddressMessageImpl(_SAM_HOLDER.mandatoryCodes,
-                _SAM_HOLDER.mandatoryVariableCodes, _SAM_HOLDER.optionalCodes, _SAM_HOLDER.mandatoryCodeToIndex,
-                _SAM_HOLDER.mandatoryVariableCodeToIndex, _SAM_HOLDER.optionalCodeToIndex);
+        SubsequentAddressMessage msg = new SubsequentAddressMessageImpl(_SAM_HOLDER.layout);
         return msg;
     }
 
@@ -3226,9 +3245,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public SubsequentDirectoryNumberMessage createSDN() {
-        SubsequentDirectoryNumberMessage msg = new SubsequentDirectoryNumberMessageImpl(_SDN_HOLDER.mandatoryCodes,
-                _SDN_HOLDER.mandatoryVariableCodes, _SDN_HOLDER.optionalCodes, _SDN_HOLDER.mandatoryCodeToIndex,
-                _SDN_HOLDER.mandatoryVariableCodeToIndex, _SDN_HOLDER.optionalCodeToIndex);
+        SubsequentDirectoryNumberMessage msg = new SubsequentDirectoryNumberMessageImpl(_SDN_HOLDER.layout);
         return msg;
     }
 
@@ -3252,9 +3269,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public SegmentationMessage createSGM() {
-        SegmentationMessage msg = new SegmentationMessageImpl(_SGM_HOLDER.mandatoryCodes,
-                _SGM_HOLDER.mandatoryVariableCodes, _SGM_HOLDER.optionalCodes, _SGM_HOLDER.mandatoryCodeToIndex,
-                _SGM_HOLDER.mandatoryVariableCodeToIndex, _SGM_HOLDER.optionalCodeToIndex);
+        SegmentationMessage msg = new SegmentationMessageImpl(_SGM_HOLDER.layout);
         return msg;
     }
 
@@ -3278,9 +3293,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public SuspendMessage createSUS() {
-        SuspendMessage msg = new SuspendMessageImpl(_SUS_HOLDER.mandatoryCodes, _SUS_HOLDER.mandatoryVariableCodes,
-                _SUS_HOLDER.optionalCodes, _SUS_HOLDER.mandatoryCodeToIndex, _SUS_HOLDER.mandatoryVariableCodeToIndex,
-                _SUS_HOLDER.optionalCodeToIndex);
+        SuspendMessage msg = new SuspendMessageImpl(_SUS_HOLDER.layout);
 
         return msg;
     }
@@ -3304,9 +3317,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      * @see org.restcomm.protocols.ss7.isup.ISUPMessageFactory#createUBA(int cic)
      */
     public UnblockingAckMessage createUBA() {
-        UnblockingAckMessage msg = new UnblockingAckMessageImpl(_UBA_HOLDER.mandatoryCodes, _UBA_HOLDER.mandatoryVariableCodes,
-                _UBA_HOLDER.optionalCodes, _UBA_HOLDER.mandatoryCodeToIndex, _UBA_HOLDER.mandatoryVariableCodeToIndex,
-                _UBA_HOLDER.optionalCodeToIndex);
+        UnblockingAckMessage msg = new UnblockingAckMessageImpl(_UBA_HOLDER.layout);
 
         return msg;
     }
@@ -3332,9 +3343,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public UnblockingMessage createUBL() {
-        UnblockingMessage msg = new UnblockingMessageImpl(_UBL_HOLDER.mandatoryCodes, _UBL_HOLDER.mandatoryVariableCodes,
-                _UBL_HOLDER.optionalCodes, _UBL_HOLDER.mandatoryCodeToIndex, _UBL_HOLDER.mandatoryVariableCodeToIndex,
-                _UBL_HOLDER.optionalCodeToIndex);
+        UnblockingMessage msg = new UnblockingMessageImpl(_UBL_HOLDER.layout);
         return msg;
     }
 
@@ -3358,9 +3367,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public UnequippedCICMessage createUCIC() {
-        UnequippedCICMessage msg = new UnequippedCICMessageImpl(_UCIC_HOLDER.mandatoryCodes,
-                _UCIC_HOLDER.mandatoryVariableCodes, _UCIC_HOLDER.optionalCodes, _UCIC_HOLDER.mandatoryCodeToIndex,
-                _UCIC_HOLDER.mandatoryVariableCodeToIndex, _UCIC_HOLDER.optionalCodeToIndex);
+        UnequippedCICMessage msg = new UnequippedCICMessageImpl(_UCIC_HOLDER.layout);
         return msg;
     }
 
@@ -3384,9 +3391,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public UserPartAvailableMessage createUPA() {
-        UserPartAvailableMessage msg = new UserPartAvailableMessageImpl(_UPA_HOLDER.mandatoryCodes,
-                _UPA_HOLDER.mandatoryVariableCodes, _UPA_HOLDER.optionalCodes, _UPA_HOLDER.mandatoryCodeToIndex,
-                _UPA_HOLDER.mandatoryVariableCodeToIndex, _UPA_HOLDER.optionalCodeToIndex);
+        UserPartAvailableMessage msg = new UserPartAvailableMessageImpl(_UPA_HOLDER.layout);
         return msg;
     }
 
@@ -3410,9 +3415,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public UserPartTestMessage createUPT() {
-        UserPartTestMessage msg = new UserPartTestMessageImpl(_UPT_HOLDER.mandatoryCodes,
-                _UPT_HOLDER.mandatoryVariableCodes, _UPT_HOLDER.optionalCodes, _UPT_HOLDER.mandatoryCodeToIndex,
-                _UPT_HOLDER.mandatoryVariableCodeToIndex, _UPT_HOLDER.optionalCodeToIndex);
+        UserPartTestMessage msg = new UserPartTestMessageImpl(_UPT_HOLDER.layout);
         return msg;
     }
 
@@ -3436,9 +3439,7 @@ public class ISUPMessageFactoryImpl implements ISUPMessageFactory {
      */
     @Override
     public UserToUserInformationMessage createUSR() {
-        UserToUserInformationMessage msg = new UserToUserInformationMessageImpl(_U2U_HOLDER.mandatoryCodes,
-                _U2U_HOLDER.mandatoryVariableCodes, _U2U_HOLDER.optionalCodes, _U2U_HOLDER.mandatoryCodeToIndex,
-                _U2U_HOLDER.mandatoryVariableCodeToIndex, _U2U_HOLDER.optionalCodeToIndex);
+        UserToUserInformationMessage msg = new UserToUserInformationMessageImpl(_U2U_HOLDER.layout);
         return msg;
     }
 
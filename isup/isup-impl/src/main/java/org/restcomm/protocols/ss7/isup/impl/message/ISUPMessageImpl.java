@@ -23,10 +23,7 @@
 package org.restcomm.protocols.ss7.isup.impl.message;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
+import java.util.Arrays;
 
 import org.restcomm.protocols.ss7.isup.ISUPMessageFactory;
 import org.restcomm.protocols.ss7.isup.ISUPParameterFactory;
@@ -53,62 +50,59 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
      */
     protected static final EndOfOptionalParametersImpl _END_OF_OPTIONAL_PARAMETERS = new EndOfOptionalParametersImpl();
 
+    /**
+     * Size of the per thread encoding buffer. An ISUP message is carried in one MSU, so it is far shorter.
+     */
+    protected static final int MAX_MESSAGE_LENGTH = 4096;
+
+    private static final ThreadLocal<byte[]> encodeBuffer = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[MAX_MESSAGE_LENGTH];
+        }
+    };
+
     // protected static final Logger logger = Logger.getLogger(ISUPMessageImpl.class);
 
-    // TODO: change everything below into [], for such small size of arrays, its faster to even search through them.
     /**
      * F = mandatory fixed length parameter;<br>
      * for type F parameters: the length, in octets, of the parameter content;
      */
-    protected Map<Integer, ISUPParameter> f_Parameters;
+    protected ParameterSlots f_Parameters;
     /**
      * V = mandatory variable length parameter;<br>
      * for type V parameters: the length, in octets, of the length indicator and of the parameter content. The minimum and the
      * maximum length are indicated;
      */
-    protected Map<Integer, ISUPParameter> v_Parameters;
+    protected ParameterSlots v_Parameters;
     /**
      * O = optional parameter of fixed or variable length; for type O parameters: the length, in octets, of the parameter name,
      * length indicator and parameter content. For variable length parameters the minimum and maximum length is indicated.
      */
-    protected Map<Integer, ISUPParameter> o_Parameters;
+    protected ParameterSlots o_Parameters;
 
-    // magic
-    protected Set<Integer> mandatoryCodes;
-    protected Set<Integer> mandatoryVariableCodes;
-    protected Set<Integer> optionalCodes;
-
-    protected Map<Integer, Integer> mandatoryCodeToIndex;
-    protected Map<Integer, Integer> mandatoryVariableCodeToIndex;
-    protected Map<Integer, Integer> optionalCodeToIndex;
+    /**
+     * parameter code to part and slot index, shared by all messages of this type
+     */
+    protected MessageLayout layout;
 
     protected CircuitIdentificationCode cic;
     protected int sls;
 
-    public ISUPMessageImpl(Set<Integer> mandatoryCodes, Set<Integer> mandatoryVariableCodes, Set<Integer> optionalCodes,
-            Map<Integer, Integer> mandatoryCode2Index, Map<Integer, Integer> mandatoryVariableCode2Index,
-            Map<Integer, Integer> optionalCode2Index) {
+    public ISUPMessageImpl(MessageLayout layout) {
         super();
 
-        this.f_Parameters = new TreeMap<Integer, ISUPParameter>();
-        this.v_Parameters = new TreeMap<Integer, ISUPParameter>();
-        this.o_Parameters = new TreeMap<Integer, ISUPParameter>();
-
-        this.mandatoryCodes = mandatoryCodes;
-        this.mandatoryVariableCodes = mandatoryVariableCodes;
-        this.optionalCodes = optionalCodes;
-
-        this.mandatoryCodeToIndex = mandatoryCode2Index;
-        this.mandatoryVariableCodeToIndex = mandatoryVariableCode2Index;
-        this.optionalCodeToIndex = optionalCode2Index;
-
+        this.layout = layout;
+        this.f_Parameters = new ParameterSlots(layout.getFSlotCount());
+        this.v_Parameters = new ParameterSlots(layout.getVSlotCount());
+        this.o_Parameters = new ParameterSlots(layout.getOSlotCount());
     }
 
     /**
      *
      */
     public ISUPMessageImpl() {
-        // TODO Auto-generated constructor stub
+        this(MessageLayout.EMPTY);
     }
 
     @Override
@@ -145,29 +139,47 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
     // CODE SECTION //
     // ////////////////
     public byte[] encode() throws ParameterException {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        // akward :)
-        this.encode(bos);
-        return bos.toByteArray();
+        byte[] buf = encodeBuffer.get();
+        int len = this.encode(buf, 0);
+        return Arrays.copyOf(buf, len);
     }
 
     public int encode(ByteArrayOutputStream bos) throws ParameterException {
+        byte[] buf = encodeBuffer.get();
+        int len = this.encode(buf, 0);
+        bos.write(buf, 0, len);
+        return bos.size();
+    }
 
-        // bos.write(this.circuitIdentificationCode);
-
-        final boolean optionalPresent = this.o_Parameters.size() > 1;
-        this.encodeMandatoryParameters(f_Parameters, bos);
-        this.encodeMandatoryVariableParameters(v_Parameters, bos, optionalPresent);
-        if (optionalPresent) {
-            this.encodeOptionalParameters(o_Parameters, bos);
+    /**
+     * Encodes the message into the buffer in one pass: pointers of the mandatory variable part are reserved and filled in
+     * once the parameter they point to is written.
+     *
+     * @param buf - output buffer
+     * @param offset - position of the first octet (CIC) in the buffer
+     * @return number of bytes encoded
+     * @throws ParameterException if a parameter is not set or does not fit into the buffer
+     */
+    public int encode(byte[] buf, int offset) throws ParameterException {
+        try {
+            final boolean optionalPresent = this.o_Parameters.size() > 1;
+            int pos = this.encodeMandatoryParameters(this.f_Parameters, buf, offset);
+            pos = this.encodeMandatoryVariableParameters(this.v_Parameters, buf, pos, optionalPresent);
+            if (optionalPresent) {
+                pos = this.encodeOptionalParameters(this.o_Parameters, buf, pos);
+            }
+            return pos - offset;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new ParameterException("Encoded message does not fit into the buffer of " + (buf.length - offset)
+                    + " octets", e);
         }
-
-        return bos.size();
     }
 
     // NOTE: those methods are more or less generic.
-    protected void encodeMandatoryParameters(Map<Integer, ISUPParameter> parameters, ByteArrayOutputStream bos)
-            throws ParameterException {
+    /**
+     * @return position in buf after the last encoded octet
+     */
+    protected int encodeMandatoryParameters(ParameterSlots parameters, byte[] buf, int pos) throws ParameterException {
         // 1.5 Mandatory fixed part
         // Those parameters that are mandatory and of fixed length for a
         // particular message type will be
@@ -180,133 +192,96 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
             // this will be changed to different exception
             throw new ParameterException("CIC is not set!");
         }
-        ((AbstractISUPParameter) this.cic).encode(bos);
-        for (ISUPParameter p : parameters.values()) {
-            ((AbstractISUPParameter) p).encode(bos);
+        pos += ((AbstractISUPParameter) this.cic).encode(buf, pos);
+        for (int index = 0; index < parameters.length(); index++) {
+            ISUPParameter p = parameters.get(index);
+            if (p != null)
+                pos += ((AbstractISUPParameter) p).encode(buf, pos);
         }
+        return pos;
     }
 
     /**
      * takes care of endoding parameters - poniters and actual parameters.
      *
      * @param parameters - list of parameters
-     * @param bos - output
+     * @param buf - output
+     * @param pos - position of the first pointer in buf
      * @param isOptionalPartPresent - if <b>true</b> this will encode pointer to point for start of optional part, otherwise it
      *        will encode this octet as zeros
+     * @return position in buf after the last encoded octet
      * @throws ParameterException
      */
-    protected void encodeMandatoryVariableParameters(Map<Integer, ISUPParameter> parameters, ByteArrayOutputStream bos,
+    protected int encodeMandatoryVariableParameters(ParameterSlots parameters, byte[] buf, int pos,
             boolean isOptionalPartPresent) throws ParameterException {
-        try {
-            byte[] pointers = null;
-            // complicated
-            if (!mandatoryVariablePartPossible()) {
-                // we ommit pointer to this part, go straight for optional pointer.
-                if (optionalPartIsPossible()) {
-                    if (isOptionalPartPresent) {
-                        pointers = new byte[] { 0x01 };
-                    } else {
-                        // zeros
-                        pointers = new byte[] { 0x00 };
-                    }
-                    bos.write(pointers);
-                } else {
-                    // do nothing?
-                }
-
-            } else {
-                if (optionalPartIsPossible()) {
-                    pointers = new byte[parameters.size() + 1];
-                } else {
-                    pointers = new byte[parameters.size()];
-                }
-                ByteArrayOutputStream parametersBodyBOS = new ByteArrayOutputStream();
-                byte lastParameterLength = 0;
-                byte currentParameterLength = 0;
-                for (int index = 0; index < parameters.size(); index++) {
-                    AbstractISUPParameter p = (AbstractISUPParameter) parameters.get(index);
-
-                    byte[] body = p.encode();
-                    currentParameterLength = (byte) body.length;
-                    if (body.length > 255) {
-                        // FIXME: is this check valid?
-                        throw new ParameterException("Length of body must not be greater than one octet - 255 ");
-                    }
-                    if (index == 0) {
-                        lastParameterLength = currentParameterLength;
-
-                        // This creates pointer to first mandatory variable param,
-                        // check on optional is required, since if its not defined
-                        // by message, pointer is omited.
-                        pointers[index] = (byte) (parameters.size() + (optionalPartIsPossible() ? 1 : 0));
-                    } else {
-
-                        pointers[index] = (byte) (pointers[index - 1] + lastParameterLength);
-                        lastParameterLength = currentParameterLength;
-                    }
-
-                    parametersBodyBOS.write(currentParameterLength);
-                    parametersBodyBOS.write(body);
-                }
+        final boolean optionalPossible = optionalPartIsPossible();
+        if (!mandatoryVariablePartPossible()) {
+            // we ommit pointer to this part, go straight for optional pointer.
+            if (optionalPossible) {
+                buf[pos++] = (byte) (isOptionalPartPresent ? 0x01 : 0x00);
+            }
+            return pos;
+        }
 
-                // we ommit pointer to this part, go straight for optional pointer.
-                if (optionalPartIsPossible()) {
-                    if (isOptionalPartPresent) {
-                        pointers[pointers.length - 1] = (byte) (pointers[pointers.length - 2] + lastParameterLength);
-                    } else {
-                        // zeros
-                        // pointers=new byte[]{0x00};
-                    }
-                } else {
-                    // do nothing?
-                }
+        // a pointer is the offset from the pointer octet to the length octet of its parameter
+        final int count = parameters.size();
+        final int pointersPos = pos;
+        pos += count + (optionalPossible ? 1 : 0);
+        for (int index = 0; index < count; index++) {
+            AbstractISUPParameter p = (AbstractISUPParameter) parameters.get(index);
+            if (p == null) {
+                throw new ParameterException("Mandatory variable parameter with index " + index + " is not set");
+            }
 
-                bos.write(pointers);
-                bos.write(parametersBodyBOS.toByteArray());
+            buf[pointersPos + index] = (byte) (pos - (pointersPos + index));
+            int length = p.encode(buf, pos + 1);
+            if (length > 255) {
+                // FIXME: is this check valid?
+                throw new ParameterException("Length of body must not be greater than one octet - 255 ");
             }
-        } catch (ParameterException pe) {
-            throw pe;
-        } catch (Exception e) {
-            throw new ParameterException(e);
+            buf[pos] = (byte) length;
+            pos += 1 + length;
         }
+
+        if (optionalPossible) {
+            int pointerPos = pointersPos + count;
+            buf[pointerPos] = (byte) (isOptionalPartPresent ? pos - pointerPos : 0);
+        }
+        return pos;
     }
 
     /**
      * This method must be called ONLY in case there are optional params. This implies ISUPMessage.o_Parameters.size()>1 !!!
      *
      * @param parameters
-     * @param bos
+     * @param buf
+     * @param pos
+     * @return position in buf after the last encoded octet
      * @throws ParameterException
      */
-    protected void encodeOptionalParameters(Map<Integer, ISUPParameter> parameters, ByteArrayOutputStream bos)
-            throws ParameterException {
+    protected int encodeOptionalParameters(ParameterSlots parameters, byte[] buf, int pos) throws ParameterException {
 
         // NOTE: parameters MUST have as last endOfOptionalParametersParameter+1
         // param
-        for (ISUPParameter p : parameters.values()) {
-
+        for (int index = 0; index < parameters.length(); index++) {
+            ISUPParameter p = parameters.get(index);
             if (p == null)
                 continue;
 
-            byte[] b = ((AbstractISUPParameter) p).encode();
-            // System.err.println("ENCODE O: "+p.getCode()+"---> "+Utils.toHex(b));
-            // FIXME: this can be slow, maybe we shoudl remove that, and code
-            // this explicitly?
-            if (b.length > 255) {
-                throw new ParameterException("Parameter length is over 255: " + p);
+            if (p instanceof EndOfOptionalParametersImpl) {
+                pos += ((AbstractISUPParameter) p).encode(buf, pos);
+                continue;
             }
-            if (!(p instanceof EndOfOptionalParametersImpl)) {
-                bos.write(p.getCode());
 
-                bos.write(b.length);
-            }
-            try {
-                bos.write(b);
-            } catch (IOException e) {
-                throw new ParameterException("Failed to encode optional parameters.", e);
+            int length = ((AbstractISUPParameter) p).encode(buf, pos + 2);
+            if (length > 255) {
+                throw new ParameterException("Parameter length is over 255: " + p);
             }
+            buf[pos] = (byte) p.getCode();
+            buf[pos + 1] = (byte) length;
+            pos += 2 + length;
         }
-
+        return pos;
     }
 
     public int decode(byte[] b, ISUPMessageFactory messageFactory,ISUPParameterFactory parameterFactory) throws ParameterException {
@@ -494,20 +469,9 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
             throw new IllegalArgumentException("Argument must not be null");
         }
         int paramCode = param.getCode();
-        if (this.mandatoryCodes.contains(paramCode)) {
-            int index = this.mandatoryCodeToIndex.get(paramCode);
-            this.f_Parameters.put(index, (AbstractISUPParameter) param);
-            return;
-        }
-
-        if (this.mandatoryVariableCodes.contains(paramCode)) {
-            int index = this.mandatoryVariableCodeToIndex.get(paramCode);
-            this.v_Parameters.put(index, (AbstractISUPParameter) param);
-            return;
-        }
-        if (this.optionalCodes.contains(paramCode)) {
-            int index = this.optionalCodeToIndex.get(paramCode);
-            this.o_Parameters.put(index, (AbstractISUPParameter) param);
+        ParameterSlots slots = this.getParameterSlots(paramCode);
+        if (slots != null) {
+            slots.put(this.layout.getIndex(paramCode), (AbstractISUPParameter) param);
             return;
         }
 
@@ -516,19 +480,9 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
     }
 
     public ISUPParameter getParameter(int parameterCode) throws ParameterException {
-
-        if (this.mandatoryCodes.contains(parameterCode)) {
-            int index = this.mandatoryCodeToIndex.get(parameterCode);
-            return this.f_Parameters.get(index);
-        }
-
-        if (this.mandatoryVariableCodes.contains(parameterCode)) {
-            int index = this.mandatoryVariableCodeToIndex.get(parameterCode);
-            return this.v_Parameters.get(index);
-        }
-        if (this.optionalCodes.contains(parameterCode)) {
-            int index = this.optionalCodeToIndex.get(parameterCode);
-            return this.o_Parameters.get(index);
+        ParameterSlots slots = this.getParameterSlots(parameterCode);
+        if (slots != null) {
+            return slots.get(this.layout.getIndex(parameterCode));
         }
 
         throw new ParameterException("Parameter with code: " + parameterCode
@@ -536,23 +490,29 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
     }
 
     public void removeParameter(int parameterCode) throws ParameterException {
-        if (this.mandatoryCodes.contains(parameterCode)) {
-            int index = this.mandatoryCodeToIndex.get(parameterCode);
-            this.f_Parameters.remove(index);
+        ParameterSlots slots = this.getParameterSlots(parameterCode);
+        if (slots != null) {
+            slots.remove(this.layout.getIndex(parameterCode));
+            return;
         }
 
-        if (this.mandatoryVariableCodes.contains(parameterCode)) {
-            int index = this.mandatoryVariableCodeToIndex.get(parameterCode);
-            this.v_Parameters.remove(index);
-        }
-        if (this.optionalCodes.contains(parameterCode)) {
-            int index = this.optionalCodeToIndex.get(parameterCode);
-            this.o_Parameters.remove(index);
-        }
         throw new ParameterException("Parameter with code: " + parameterCode
                 + " is not defined in any type: mandatory, mandatory variable or optional");
     }
 
+    private ParameterSlots getParameterSlots(int parameterCode) {
+        switch (this.layout.getPart(parameterCode)) {
+            case MessageLayout.PART_F:
+                return this.f_Parameters;
+            case MessageLayout.PART_V:
+                return this.v_Parameters;
+            case MessageLayout.PART_O:
+                return this.o_Parameters;
+            default:
+                return null;
+        }
+    }
+
     public String toString() {
         StringBuilder sb = new StringBuilder();
         sb.append("ISUPMessage [\n===");
@@ -561,8 +521,9 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
         sb.append(this.getMessageType().getCode());
         sb.append("\nF: [");
         int i1 = 0;
-        for (ISUPParameter p : this.f_Parameters.values()) {
-            if (!(p instanceof MessageTypeImpl)) {
+        for (int index = 0; index < this.f_Parameters.length(); index++) {
+            ISUPParameter p = this.f_Parameters.get(index);
+            if (p != null && !(p instanceof MessageTypeImpl)) {
                 if (i1 == 0)
                     i1 = 1;
                 else
@@ -573,7 +534,10 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
         }
         sb.append("]\nV: [");
         i1 = 0;
-        for (ISUPParameter p : this.v_Parameters.values()) {
+        for (int index = 0; index < this.v_Parameters.length(); index++) {
+            ISUPParameter p = this.v_Parameters.get(index);
+            if (p == null)
+                continue;
             if (i1 == 0)
                 i1 = 1;
             else
@@ -583,8 +547,9 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
         }
         sb.append("]\nO: [");
         i1 = 0;
-        for (ISUPParameter p : this.o_Parameters.values()) {
-            if (!(p instanceof EndOfOptionalParametersImpl)) {
+        for (int index = 0; index < this.o_Parameters.length(); index++) {
+            ISUPParameter p = this.o_Parameters.get(index);
+            if (p != null && !(p instanceof EndOfOptionalParametersImpl)) {
                 if (i1 == 0)
                     i1 = 1;
                 else
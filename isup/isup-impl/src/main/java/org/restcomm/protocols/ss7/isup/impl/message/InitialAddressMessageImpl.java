@@ -32,8 +32,6 @@ package org.restcomm.protocols.ss7.isup.impl.message;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 import org.restcomm.protocols.ss7.isup.ISUPParameterFactory;
 import org.restcomm.protocols.ss7.isup.ParameterException;
@@ -190,11 +188,8 @@ public class InitialAddressMessageImpl extends ISUPMessageImpl implements Initia
 
     }
 
-    InitialAddressMessageImpl(Set<Integer> mandatoryCodes, Set<Integer> mandatoryVariableCodes, Set<Integer> optionalCodes,
-            Map<Integer, Integer> mandatoryCode2Index, Map<Integer, Integer> mandatoryVariableCode2Index,
-            Map<Integer, Integer> optionalCode2Index) {
-        super(mandatoryCodes, mandatoryVariableCodes, optionalCodes, mandatoryCode2Index, mandatoryVariableCode2Index,
-                optionalCode2Index);
+    InitialAddressMessageImpl(MessageLayout layout) {
+        super(layout);
 
         super.f_Parameters.put(_INDEX_F_MessageType, this.getMessageType());
         super.o_Parameters.put(_INDEX_O_EndOfOptionalParameters, _END_OF_OPTIONAL_PARAMETERS);
@@ -600,7 +595,7 @@ public class InitialAddressMessageImpl extends ISUPMessageImpl implements Initia
      */
 
     public boolean hasAllMandatoryParameters() {
-        if (!super.f_Parameters.keySet().containsAll(mandatoryParam) || super.f_Parameters.values().contains(null)) {
+        if (!super.f_Parameters.containsAll(mandatoryParam)) {
             return false;
         }
         if (!super.v_Parameters.containsKey(_INDEX_V_CalledPartyNumber)
@@ -0,0 +1,134 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.isup.impl.message;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Parameter layout of one ISUP message type. It maps a parameter code to the message part (F, V or O) and to the slot index
+ * within that part. One instance is created per message type by {@link ISUPMessageFactoryImpl} and shared by all messages of
+ * that type.
+ *
+ */
+public class MessageLayout {
+
+    public static final int PART_NONE = 0;
+    public static final int PART_F = 1;
+    public static final int PART_V = 2;
+    public static final int PART_O = 3;
+
+    public static final MessageLayout EMPTY = new MessageLayout(Collections.<Integer, Integer> emptyMap(),
+            Collections.<Integer, Integer> emptyMap(), Collections.<Integer, Integer> emptyMap());
+
+    private final byte[] parts = new byte[256];
+    private final byte[] indexes = new byte[256];
+
+    // codes out of the octet range (placeholders of parameters without an assigned code), searched linearly
+    private int[] otherCodes = new int[0];
+    private int[] otherSlots = new int[0];
+
+    private final int fSlotCount;
+    private final int vSlotCount;
+    private final int oSlotCount;
+
+    public MessageLayout(Map<Integer, Integer> mandatoryCodeToIndex, Map<Integer, Integer> mandatoryVariableCodeToIndex,
+            Map<Integer, Integer> optionalCodeToIndex) {
+        // reverse order: a code that is defined in several parts is resolved as F, then V, then O
+        this.oSlotCount = this.fill(optionalCodeToIndex, PART_O);
+        this.vSlotCount = this.fill(mandatoryVariableCodeToIndex, PART_V);
+        this.fSlotCount = this.fill(mandatoryCodeToIndex, PART_F);
+    }
+
+    private int fill(Map<Integer, Integer> codeToIndex, int part) {
+        int maxIndex = -1;
+        for (Map.Entry<Integer, Integer> e : codeToIndex.entrySet()) {
+            int code = e.getKey();
+            int index = e.getValue();
+            if (index < 0 || index > 255)
+                throw new IllegalArgumentException("Parameter index must be in range 0-255, code=" + code + ", index=" + index);
+            if (code >= 0 && code <= 255) {
+                this.parts[code] = (byte) part;
+                this.indexes[code] = (byte) index;
+            } else {
+                this.putOther(code, (part << 8) | index);
+            }
+            if (index > maxIndex)
+                maxIndex = index;
+        }
+        // one more slot for the message type or end of optional parameters
+        return maxIndex + 2;
+    }
+
+    private void putOther(int code, int slot) {
+        int i1 = this.findOther(code);
+        if (i1 < 0) {
+            i1 = this.otherCodes.length;
+            this.otherCodes = Arrays.copyOf(this.otherCodes, i1 + 1);
+            this.otherSlots = Arrays.copyOf(this.otherSlots, i1 + 1);
+            this.otherCodes[i1] = code;
+        }
+        this.otherSlots[i1] = slot;
+    }
+
+    private int findOther(int code) {
+        for (int i1 = 0; i1 < this.otherCodes.length; i1++) {
+            if (this.otherCodes[i1] == code)
+                return i1;
+        }
+        return -1;
+    }
+
+    /**
+     * @return one of PART_F, PART_V, PART_O or PART_NONE if the parameter is not defined for the message type
+     */
+    public int getPart(int parameterCode) {
+        if (parameterCode < 0 || parameterCode > 255) {
+            int i1 = this.findOther(parameterCode);
+            return i1 < 0 ? PART_NONE : this.otherSlots[i1] >> 8;
+        }
+        return this.parts[parameterCode];
+    }
+
+    public int getIndex(int parameterCode) {
+        if (parameterCode < 0 || parameterCode > 255) {
+            int i1 = this.findOther(parameterCode);
+            return i1 < 0 ? -1 : this.otherSlots[i1] & 0xFF;
+        }
+        return this.indexes[parameterCode] & 0xFF;
+    }
+
+    public int getFSlotCount() {
+        return this.fSlotCount;
+    }
+
+    public int getVSlotCount() {
+        return this.vSlotCount;
+    }
+
+    public int getOSlotCount() {
+        return this.oSlotCount;
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.isup.impl.message;
+
+import java.util.Collection;
+
+import org.restcomm.protocols.ss7.isup.message.parameter.ISUPParameter;
+
+/**
+ * Parameters of one part (F, V or O) of an ISUP message. A parameter is stored in the slot given by its index within the
+ * part, so slots are iterated in the order parameters are encoded. An empty slot holds null.
+ *
+ */
+public class ParameterSlots {
+
+    private ISUPParameter[] slots;
+    private int size;
+
+    public ParameterSlots(int capacity) {
+        this.slots = new ISUPParameter[capacity];
+    }
+
+    public ISUPParameter get(int index) {
+        if (index < 0 || index >= this.slots.length)
+            return null;
+        return this.slots[index];
+    }
+
+    /**
+     * Sets the parameter into the slot. Putting null clears the slot.
+     *
+     * @return the previous parameter of the slot
+     */
+    public ISUPParameter put(int index, ISUPParameter parameter) {
+        if (index >= this.slots.length) {
+            if (parameter == null)
+                return null;
+            ISUPParameter[] newSlots = new ISUPParameter[index + 1];
+            System.arraycopy(this.slots, 0, newSlots, 0, this.slots.length);
+            this.slots = newSlots;
+        }
+        ISUPParameter old = this.slots[index];
+        this.slots[index] = parameter;
+        if (old == null && parameter != null)
+            this.size++;
+        else if (old != null && parameter == null)
+            this.size--;
+        return old;
+    }
+
+    public ISUPParameter remove(int index) {
+        return this.put(index, null);
+    }
+
+    public boolean containsKey(int index) {
+        return this.get(index) != null;
+    }
+
+    public boolean containsAll(Collection<Integer> indexes) {
+        for (Integer index : indexes) {
+            if (this.get(index) == null)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of slots that hold a parameter
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of slots, the last slot index plus one
+     */
+    public int length() {
+        return this.slots.length;
+    }
+
+}
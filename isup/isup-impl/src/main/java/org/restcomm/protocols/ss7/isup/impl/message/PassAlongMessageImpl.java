@@ -28,8 +28,6 @@
  */
 package org.restcomm.protocols.ss7.isup.impl.message;
 
-import java.io.ByteArrayOutputStream;
-
 import org.restcomm.protocols.ss7.isup.ISUPMessageFactory;
 import org.restcomm.protocols.ss7.isup.ISUPParameterFactory;
 import org.restcomm.protocols.ss7.isup.ParameterException;
@@ -79,17 +77,22 @@ public class PassAlongMessageImpl extends ISUPMessageImpl implements PassAlongMe
     }
 
     @Override
-    public int encode(ByteArrayOutputStream bos) throws ParameterException {
-        if(this.embedded!=null){
+    public int encode(byte[] buf, int offset) throws ParameterException {
+        if(this.embedded==null){
             throw new ParameterException("No embedded message");
         }
 
-        //encode CIC and message type
-        this.encodeMandatoryParameters(f_Parameters, bos);
+        // the embedded message is encoded first, it may use the same buffer
         final byte[] embeddedBody = ((AbstractISUPMessage)this.embedded).encode();
+        //encode CIC and message type
+        int pos = this.encodeMandatoryParameters(f_Parameters, buf, offset);
         // 2 - for CIC
-        bos.write(embeddedBody, 2, embeddedBody.length - 2);
-        return bos.size();
+        try {
+            System.arraycopy(embeddedBody, 2, buf, pos, embeddedBody.length - 2);
+        } catch (IndexOutOfBoundsException e) {
+            throw new ParameterException("Encoded message does not fit into the buffer", e);
+        }
+        return pos + embeddedBody.length - 2 - offset;
     }
 
     @Override
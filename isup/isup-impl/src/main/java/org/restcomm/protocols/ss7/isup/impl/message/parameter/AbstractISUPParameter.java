@@ -49,6 +49,17 @@ public abstract class AbstractISUPParameter implements ISUPParameter,Encodable {
         }
         return b.length;
     }
+
+    /**
+     * Encodes the parameter body into the buffer.
+     *
+     * @return number of bytes encoded
+     */
+    public int encode(byte[] buf, int offset) throws ParameterException {
+        byte[] b = encode();
+        System.arraycopy(b, 0, buf, offset, b.length);
+        return b.length;
+    }
 //
 //    /**
 //     * Decodes this element from passed byte[] array. This array must contain only element data. however in case of constructor
@@ -88,4 +88,10 @@ public class CircuitIdentificationCodeImpl extends AbstractISUPParameter impleme
         return b;
     }
 
+    public int encode(byte[] buf, int offset) throws ParameterException {
+        buf[offset] = (byte) this.cic;
+        buf[offset + 1] = (byte) ((this.cic >> 8) & 0x0F);
+        return 2;
+    }
+
 }
@@ -74,6 +74,11 @@ public class EndOfOptionalParametersImpl extends AbstractISUPParameter implement
         return 1;
     }
 
+    public int encode(byte[] buf, int offset) throws ParameterException {
+        buf[offset] = 0;
+        return 1;
+    }
+
     public int getCode() {
 
         return _PARAMETER_CODE;
@@ -79,6 +79,11 @@ public class MessageTypeImpl extends AbstractISUPParameter implements MessageTyp
         return 1;
     }
 
+    public int encode(byte[] buf, int offset) throws ParameterException {
+        buf[offset] = (byte) this.messageName.getCode();
+        return 1;
+    }
+
     public int getCode() {
 
         return messageName.getCode();
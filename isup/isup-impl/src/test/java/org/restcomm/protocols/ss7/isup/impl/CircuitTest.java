@@ -0,0 +1,230 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.isup.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restcomm.protocols.ss7.isup.ISUPTimeoutEvent;
+import org.restcomm.protocols.ss7.isup.message.AddressCompleteMessage;
+import org.restcomm.protocols.ss7.isup.message.ISUPMessage;
+import org.restcomm.protocols.ss7.isup.message.InitialAddressMessage;
+import org.restcomm.protocols.ss7.isup.message.ReleaseMessage;
+import org.restcomm.protocols.ss7.isup.message.parameter.CalledPartyNumber;
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
+import org.restcomm.protocols.ss7.mtp.Mtp3UserPartBaseImpl;
+import org.restcomm.protocols.ss7.scheduler.DefaultClock;
+import org.restcomm.protocols.ss7.scheduler.Scheduler;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for creating of circuits on their first message and releasing of them when they are idle again
+ *
+ */
+public class CircuitTest {
+
+    private static final int DPC = 1;
+
+    private Scheduler scheduler;
+    private ISUPStackImpl stack;
+    private ISUPProviderImpl provider;
+    private TestMtp3UserPart userPart;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        this.scheduler = new Scheduler();
+        this.scheduler.setClock(new DefaultClock());
+        this.scheduler.start();
+
+        this.userPart = new TestMtp3UserPart();
+        this.userPart.start();
+        this.stack = new ISUPStackImpl(this.scheduler, 2, 2);
+        this.provider = (ISUPProviderImpl) this.stack.getIsupProvider();
+        this.stack.setMtp3UserPart(this.userPart);
+        CircuitManagerImpl cm = new CircuitManagerImpl();
+        cm.addCircuit(1, DPC);
+        cm.addCircuit(2, DPC);
+        this.stack.setCircuitManager(cm);
+        this.stack.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        this.stack.stop();
+        this.scheduler.stop();
+    }
+
+    @Test(groups = { "functional" })
+    public void testReleaseAfterTimerStopped() throws Exception {
+        // IAM starts T7
+        this.provider.sendMessage(createIAM(1), DPC);
+        waitForSent(1);
+        Circuit c = getCircuit(1);
+        assertNotNull(c);
+        assertFalse(c.isReleased());
+
+        // ACM stops T7, the circuit is idle
+        this.provider.receive(createACM(1), DPC);
+        waitForRelease(1);
+        assertTrue(c.isReleased());
+    }
+
+    @Test(groups = { "functional" })
+    public void testReleaseWithoutTimers() throws Exception {
+        this.provider.sendMessage(createACM(2), DPC);
+        waitForSent(1);
+        waitForRelease(2);
+        assertEquals(this.provider.cic2Circuit.size(), 0);
+    }
+
+    @Test(groups = { "functional" })
+    public void testReleaseByCancelTimer() throws Exception {
+        this.provider.sendMessage(createIAM(1), DPC);
+        this.provider.sendMessage(createIAM(2), DPC);
+        waitForSent(2);
+        Circuit c1 = getCircuit(1);
+        assertNotNull(c1);
+
+        assertTrue(this.provider.cancelTimer(1, DPC, ISUPTimeoutEvent.T7));
+        assertNull(getCircuit(1));
+        assertTrue(c1.isReleased());
+        assertFalse(this.provider.cancelTimer(1, DPC, ISUPTimeoutEvent.T7));
+        // other circuits are not affected
+        assertNotNull(getCircuit(2));
+
+        this.provider.cancelAllTimers(2, DPC);
+        assertNull(getCircuit(2));
+    }
+
+    @Test(groups = { "functional" })
+    public void testReleasedCircuitIsReplaced() throws Exception {
+        this.provider.sendMessage(createIAM(1), DPC);
+        waitForSent(1);
+        Circuit c1 = getCircuit(1);
+        this.provider.cancelTimer(1, DPC, ISUPTimeoutEvent.T7);
+
+        // a released circuit refuses messages
+        assertFalse(c1.send(createIAM(1)));
+        assertFalse(c1.receive(createACM(1)));
+        assertEquals(this.userPart.sent.get(), 1);
+
+        // the provider creates a new circuit for the next message
+        this.provider.sendMessage(createIAM(1), DPC);
+        waitForSent(2);
+        Circuit c2 = getCircuit(1);
+        assertNotNull(c2);
+        assertTrue(c1 != c2);
+        assertFalse(c2.isReleased());
+    }
+
+    @Test(groups = { "functional" })
+    public void testNoReleaseWhileSending() throws Exception {
+        this.provider.sendMessage(createIAM(1), DPC);
+        waitForSent(1);
+        Circuit c = getCircuit(1);
+
+        // the sender of the REL waits for the circuit lock, T7 is cancelled meanwhile
+        c.lock.lock();
+        try {
+            this.provider.sendMessage(createREL(1), DPC);
+            Thread.sleep(200);
+            assertTrue(this.provider.cancelTimer(1, DPC, ISUPTimeoutEvent.T7));
+            assertFalse(c.isReleased());
+        } finally {
+            c.lock.unlock();
+        }
+
+        // T1 and T5 of the REL run on the live circuit
+        waitForSent(2);
+        assertTrue(getCircuit(1) == c);
+        assertFalse(c.isReleased());
+        assertTrue(this.provider.cancelTimer(1, DPC, ISUPTimeoutEvent.T1));
+        assertFalse(c.isReleased());
+        assertTrue(this.provider.cancelTimer(1, DPC, ISUPTimeoutEvent.T5));
+        assertTrue(c.isReleased());
+        assertNull(getCircuit(1));
+    }
+
+    private Circuit getCircuit(int cic) {
+        return this.provider.cic2Circuit.get(this.stack.getCircuitManager().getChannelID(cic, DPC));
+    }
+
+    private void waitForSent(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && this.userPart.sent.get() < count; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(this.userPart.sent.get(), count);
+    }
+
+    private void waitForRelease(int cic) throws InterruptedException {
+        for (int i = 0; i < 500 && getCircuit(cic) != null; i++) {
+            Thread.sleep(10);
+        }
+        assertNull(getCircuit(cic));
+    }
+
+    private InitialAddressMessage createIAM(int cic) {
+        InitialAddressMessage msg = this.provider.getMessageFactory().createIAM(cic);
+        msg.setNatureOfConnectionIndicators(this.provider.getParameterFactory().createNatureOfConnectionIndicators());
+        msg.setForwardCallIndicators(this.provider.getParameterFactory().createForwardCallIndicators());
+        msg.setCallingPartCategory(this.provider.getParameterFactory().createCallingPartyCategory());
+        msg.setTransmissionMediumRequirement(this.provider.getParameterFactory().createTransmissionMediumRequirement());
+        CalledPartyNumber cpn = this.provider.getParameterFactory().createCalledPartyNumber();
+        cpn.setAddress("14614577");
+        msg.setCalledPartyNumber(cpn);
+        return msg;
+    }
+
+    private ISUPMessage createREL(int cic) {
+        ReleaseMessage msg = this.provider.getMessageFactory().createREL(cic);
+        msg.setCauseIndicators(this.provider.getParameterFactory().createCauseIndicators());
+        return msg;
+    }
+
+    private ISUPMessage createACM(int cic) {
+        AddressCompleteMessage msg = this.provider.getMessageFactory().createACM(cic);
+        msg.setBackwardCallIndicators(this.provider.getParameterFactory().createBackwardCallIndicators());
+        return msg;
+    }
+
+    private static class TestMtp3UserPart extends Mtp3UserPartBaseImpl {
+        private final AtomicInteger sent = new AtomicInteger();
+
+        TestMtp3UserPart() {
+            super(null, null);
+        }
+
+        @Override
+        public void sendMessage(Mtp3TransferPrimitive mtpMsg) throws IOException {
+            this.sent.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.isup.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.restcomm.protocols.ss7.isup.ISUPTimeoutEvent;
+import org.restcomm.protocols.ss7.scheduler.Scheduler;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for the timing wheel of ISUP circuit timers. Ticks are driven by the test instead of the scheduler heartbeat.
+ *
+ */
+public class CircuitTimerWheelTest {
+
+    private Scheduler scheduler;
+    private CircuitTimerWheel wheel;
+    private List<CircuitTimerWheel.Entry> fired;
+
+    @BeforeMethod
+    public void setUp() {
+        this.scheduler = new Scheduler();
+        this.wheel = new CircuitTimerWheel(this.scheduler);
+        this.fired = new ArrayList<CircuitTimerWheel.Entry>();
+    }
+
+    @Test(groups = { "functional" })
+    public void testExpiry() {
+        TestCircuit c = new TestCircuit(1);
+        CircuitTimerWheel.Entry e = this.wheel.schedule(c, ISUPTimeoutEvent.T7, 250);
+        assertEquals(this.wheel.size(), 1);
+
+        // 250 ms is rounded up to 3 ticks
+        tick(2);
+        assertEquals(this.fired.size(), 0);
+        tick(1);
+        assertEquals(this.fired.size(), 1);
+        assertTrue(this.fired.get(0) == e);
+        assertEquals(this.wheel.size(), 0);
+
+        tick(600);
+        assertEquals(this.fired.size(), 1);
+    }
+
+    @Test(groups = { "functional" })
+    public void testMinimalDelay() {
+        this.wheel.schedule(new TestCircuit(1), ISUPTimeoutEvent.T1, 0);
+        tick(1);
+        assertEquals(this.fired.size(), 1);
+    }
+
+    @Test(groups = { "functional" })
+    public void testCancel() {
+        TestCircuit c = new TestCircuit(1);
+        CircuitTimerWheel.Entry e1 = this.wheel.schedule(c, ISUPTimeoutEvent.T12, 200);
+        CircuitTimerWheel.Entry e2 = this.wheel.schedule(c, ISUPTimeoutEvent.T13, 200);
+        CircuitTimerWheel.Entry e3 = this.wheel.schedule(c, ISUPTimeoutEvent.T1, 200);
+        assertEquals(this.wheel.size(), 3);
+
+        // head, middle and tail of the slot list
+        this.wheel.cancel(e3);
+        this.wheel.cancel(e1);
+        assertEquals(this.wheel.size(), 1);
+        // cancelling twice is ignored
+        this.wheel.cancel(e1);
+        assertEquals(this.wheel.size(), 1);
+
+        tick(2);
+        assertEquals(this.fired.size(), 1);
+        assertTrue(this.fired.get(0) == e2);
+
+        // cancelling of an expired timer is ignored
+        this.wheel.cancel(e2);
+        assertEquals(this.wheel.size(), 0);
+    }
+
+    @Test(groups = { "functional" })
+    public void testOrderOfSameTick() {
+        TestCircuit c = new TestCircuit(1);
+        CircuitTimerWheel.Entry e1 = this.wheel.schedule(c, ISUPTimeoutEvent.T13, 500);
+        CircuitTimerWheel.Entry e2 = this.wheel.schedule(c, ISUPTimeoutEvent.T12, 500);
+        CircuitTimerWheel.Entry e3 = this.wheel.schedule(new TestCircuit(2), ISUPTimeoutEvent.T12, 500);
+
+        tick(5);
+        assertEquals(this.fired.size(), 3);
+        assertTrue(this.fired.get(0) == e1);
+        assertTrue(this.fired.get(1) == e2);
+        assertTrue(this.fired.get(2) == e3);
+    }
+
+    @Test(groups = { "functional" })
+    public void testLongerThanWheel() {
+        // T5 default is 6 minutes, far more than the 512 slots of the wheel
+        long delay = ISUPTimeoutEvent.T5_DEFAULT;
+        long ticks = delay / CircuitTimerWheel.TICK_DURATION;
+        CircuitTimerWheel.Entry e = this.wheel.schedule(new TestCircuit(1), ISUPTimeoutEvent.T5, delay);
+        CircuitTimerWheel.Entry shortOne = this.wheel.schedule(new TestCircuit(2), ISUPTimeoutEvent.T1, 1000);
+
+        tick(10);
+        assertEquals(this.fired.size(), 1);
+        assertTrue(this.fired.get(0) == shortOne);
+
+        // the slot of the long timer is passed several times before its deadline
+        tick(ticks - 11);
+        assertEquals(this.fired.size(), 1);
+        assertEquals(this.wheel.size(), 1);
+        tick(1);
+        assertEquals(this.fired.size(), 2);
+        assertTrue(this.fired.get(1) == e);
+    }
+
+    @Test(groups = { "functional" })
+    public void testStop() {
+        this.wheel.schedule(new TestCircuit(1), ISUPTimeoutEvent.T7, 100);
+        this.wheel.schedule(new TestCircuit(2), ISUPTimeoutEvent.T7, 1000);
+        this.wheel.stop();
+        assertEquals(this.wheel.size(), 0);
+
+        tick(20);
+        assertEquals(this.fired.size(), 0);
+    }
+
+    private void tick(long count) {
+        for (long i = 0; i < count; i++) {
+            this.wheel.onTick();
+        }
+    }
+
+    private class TestCircuit extends Circuit {
+
+        TestCircuit(int cic) {
+            super(cic, 1, null, scheduler);
+        }
+
+        @Override
+        void onTimer(CircuitTimerWheel.Entry entry) {
+            fired.add(entry);
+        }
+    }
+}
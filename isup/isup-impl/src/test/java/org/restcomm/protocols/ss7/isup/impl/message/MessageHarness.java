@@ -33,12 +33,14 @@ package org.restcomm.protocols.ss7.isup.impl.message;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.lang.reflect.Array;
 import java.util.Arrays;
 
 import org.restcomm.protocols.ss7.isup.ISUPMessageFactory;
 import org.restcomm.protocols.ss7.isup.ISUPParameterFactory;
+import org.restcomm.protocols.ss7.isup.ParameterException;
 import org.restcomm.protocols.ss7.isup.impl.message.AbstractISUPMessage;
 import org.restcomm.protocols.ss7.isup.impl.message.ISUPMessageFactoryImpl;
 import org.restcomm.protocols.ss7.isup.impl.message.parameter.ISUPParameterFactoryImpl;
@@ -196,6 +198,28 @@ public abstract class MessageHarness {
 
     }
 
+    @Test(groups = { "functional.encode", "message" })
+    public void testEncodeToBuffer() throws Exception {
+
+        final byte[] defaultBody = getDefaultBody();
+        final ISUPMessageImpl msg = (ISUPMessageImpl) getDefaultMessage();
+        msg.decode(defaultBody, messageFactory, parameterFactory);
+
+        final byte[] buf = new byte[defaultBody.length + 5];
+        Arrays.fill(buf, (byte) 0xFF);
+        final int len = msg.encode(buf, 3);
+        assertEquals(len, defaultBody.length);
+        assertEquals(Arrays.copyOfRange(buf, 3, 3 + len), defaultBody);
+        assertEquals(buf[2], (byte) 0xFF);
+        assertEquals(buf[3 + len], (byte) 0xFF);
+
+        try {
+            msg.encode(new byte[defaultBody.length - 1], 0);
+            fail("Must be ParameterException");
+        } catch (ParameterException e) {
+        }
+    }
+
     protected long getDefaultCIC() {
         return 0xB0C;
     }
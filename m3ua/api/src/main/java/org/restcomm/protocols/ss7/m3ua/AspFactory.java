@@ -48,4 +48,14 @@ public interface AspFactory {
     ASPIdentifier getAspid();
 
     boolean isHeartBeatEnabled();
+
+    /**
+     * @return the maximum time in microseconds an outgoing DATA message waits for a batch, 0 if batching is disabled
+     */
+    int getWriteBatchDelay();
+
+    /**
+     * @return the batch size in bytes that forces a write of outgoing DATA messages
+     */
+    int getWriteBatchSize();
 }
@@ -214,6 +214,17 @@ public interface M3UAManagement {
     AspFactory createAspFactory(String aspName, String associationName, long aspid, boolean isHeartBeatEnabled)
             throws Exception;
 
+    /**
+     * Sets coalescing of outgoing DATA messages of the {@link AspFactory} into one transport write. Is applied only for TCP
+     * associations, an SCTP association sends every message separately.
+     *
+     * @param aspName name of the AspFactory
+     * @param writeBatchDelay the maximum time in microseconds a DATA message waits for a batch, 0 disables batching
+     * @param writeBatchSize the batch size in bytes that forces a write, 0 means the default size
+     * @throws Exception
+     */
+    void setAspFactoryWriteBatch(String aspName, int writeBatchDelay, int writeBatchSize) throws Exception;
+
     /**
      * Destroys the {@link AspFactory} that matches the passed aspName. All the ASP within this AspFactory should be DOWN and
      * un-assigned from As
@@ -42,6 +42,7 @@ import org.restcomm.protocols.ss7.m3ua.IPSPType;
 import org.restcomm.protocols.ss7.m3ua.State;
 import org.restcomm.protocols.ss7.m3ua.impl.fsm.FSM;
 import org.restcomm.protocols.ss7.m3ua.impl.message.MessageFactoryImpl;
+import org.restcomm.protocols.ss7.m3ua.impl.message.transfer.PayloadDataImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.oam.M3UAOAMMessages;
 import org.restcomm.protocols.ss7.m3ua.impl.parameter.NetworkAppearanceImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
@@ -630,6 +631,12 @@ public class AsImpl implements XMLSerializable, As {
             case ACTIVE:
                 boolean aspFound = false;
 
+                // the user data buffer is passed to the transport when writing, so the data for the listener is taken before
+                byte[] listenerData = null;
+                if (aspTrafficListener != null) {
+                    listenerData = message.getData().getData();
+                }
+
                 // TODO : Algo to select correct ASP
 
                 int aspIndex = (sls & this.aspSlsMask);
@@ -657,7 +664,7 @@ public class AsImpl implements XMLSerializable, As {
 
                             if (aspTrafficListener != null) {
                                 try {
-                                    aspTrafficListener.onAspMessage(aspTemp.getName(), message.getData().getData());
+                                    aspTrafficListener.onAspMessage(aspTemp.getName(), listenerData);
                                 } catch (Exception e) {
                                     logger.error(String.format(
                                             "Error while calling aspTrafficListener=%s onAspMessage method for Asp=%s",
@@ -677,7 +684,7 @@ public class AsImpl implements XMLSerializable, As {
 
                         if (aspTrafficListener != null) {
                             try {
-                                aspTrafficListener.onAspMessage(aspCong.getName(), message.getData().getData());
+                                aspTrafficListener.onAspMessage(aspCong.getName(), listenerData);
                             } catch (Exception e) {
                                 logger.error(String.format(
                                         "Error while calling aspTrafficListener=%s onAspMessage method for Asp=%s",
@@ -690,6 +697,7 @@ public class AsImpl implements XMLSerializable, As {
                 if (!aspFound) {
                     // This should never happen.
                     logger.error(String.format("Tx : no ACTIVE Asp for message=%s", message));
+                    ((PayloadDataImpl) message).releaseDataBuf();
                 }
 
                 break;
@@ -701,6 +709,7 @@ public class AsImpl implements XMLSerializable, As {
                 this.penQueue.add(message);
                 break;
             default:
+                ((PayloadDataImpl) message).releaseDataBuf();
                 throw new IOException(String.format("As name=%s is not ACTIVE", this.name));
         }
     }
@@ -712,7 +721,10 @@ public class AsImpl implements XMLSerializable, As {
                         this.penQueue.size(), this.name));
             }
         }
-        this.penQueue.clear();
+        PayloadData payload = null;
+        while ((payload = this.penQueue.poll()) != null) {
+            ((PayloadDataImpl) payload).releaseDataBuf();
+        }
     }
 
     protected void sendPendingPayloadData(AspImpl aspImpl) {
@@ -52,6 +52,7 @@ import org.restcomm.protocols.ss7.m3ua.impl.fsm.FSM;
 import org.restcomm.protocols.ss7.m3ua.impl.fsm.UnknownTransitionException;
 import org.restcomm.protocols.ss7.m3ua.impl.message.M3UAMessageImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.message.MessageFactoryImpl;
+import org.restcomm.protocols.ss7.m3ua.impl.message.transfer.PayloadDataImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.oam.M3UAOAMMessages;
 import org.restcomm.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
 import org.restcomm.protocols.ss7.m3ua.message.M3UAMessage;
@@ -102,6 +103,10 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
     private static final String MAX_SEQUENCE_NUMBER = "maxseqnumber";
     private static final String ASP_ID = "aspid";
     private static final String HEART_BEAT = "heartbeat";
+    private static final String WRITE_BATCH_DELAY = "writeBatchDelay";
+    private static final String WRITE_BATCH_SIZE = "writeBatchSize";
+
+    protected static final int DEFAULT_WRITE_BATCH_SIZE = 16384;
 
     protected String name;
 
@@ -148,6 +153,11 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
     protected HeartBeatTimer heartBeatTimer = null;
     private boolean isHeartBeatEnabled = false;
 
+    // DATA message coalescing for TCP associations, disabled if writeBatchDelay is 0
+    private int writeBatchDelay = 0;
+    private int writeBatchSize = DEFAULT_WRITE_BATCH_SIZE;
+    private volatile WriteBatcher writeBatcher;
+
     private FastMap<Integer, AtomicInteger> congDpcList = new FastMap<Integer, AtomicInteger>().shared();
 
     public AspFactoryImpl() {
@@ -183,6 +193,65 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
         return isHeartBeatEnabled;
     }
 
+    public int getWriteBatchDelay() {
+        return writeBatchDelay;
+    }
+
+    public int getWriteBatchSize() {
+        return writeBatchSize;
+    }
+
+    /**
+     * Sets DATA message coalescing parameters. Takes effect at once if the association is up.
+     *
+     * @param writeBatchDelay the maximum time in microseconds a DATA message waits for a batch, 0 disables batching
+     * @param writeBatchSize the batch size in bytes that forces a write
+     */
+    protected void setWriteBatch(int writeBatchDelay, int writeBatchSize) {
+        this.writeBatchDelay = writeBatchDelay;
+        this.writeBatchSize = writeBatchSize > 0 ? writeBatchSize : DEFAULT_WRITE_BATCH_SIZE;
+
+        if (this.association != null && this.association.isConnected()) {
+            this.createWriteBatcher();
+        }
+    }
+
+    private synchronized void createWriteBatcher() {
+        WriteBatcher newBatcher = null;
+        if (this.writeBatchDelay > 0 && this.association.getIpChannelType() == IpChannelType.TCP) {
+            ByteBufAllocator allocator = null;
+            try {
+                allocator = this.association.getByteBufAllocator();
+            } catch (Exception e) {
+                // Unpooled buffers are used then
+            }
+            newBatcher = new WriteBatcher(this, allocator, this.m3UAManagementImpl.getWriteBatchTimer(),
+                    this.writeBatchDelay, this.writeBatchSize);
+        }
+
+        // the old batcher is flushed and detached before the new one is visible to senders, so the pending messages
+        // are written before any message of the new batcher
+        WriteBatcher oldBatcher = this.writeBatcher;
+        if (oldBatcher != null) {
+            try {
+                oldBatcher.detach();
+            } catch (Throwable e) {
+                logger.error(String.format("Error while trying to flush PayloadData for AspFactory=%s", this.name), e);
+            }
+        }
+        this.writeBatcher = newBatcher;
+    }
+
+    private void flushWriteBatcher(WriteBatcher batcher) {
+        if (batcher != null) {
+            try {
+                batcher.flush();
+            } catch (Throwable e) {
+                logger.error(String.format("Error while trying to flush PayloadData for AspFactory=%s", this.name), e);
+            }
+        }
+    }
+
     public void setM3UAManagement(M3UAManagementImpl m3uaManagement) {
         this.m3UAManagementImpl = m3uaManagement;
         this.transferMessageHandler.setM3UAManagement(m3uaManagement);
@@ -203,6 +272,8 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
         if (this.association == null)
             return;
 
+        this.flushWriteBatcher(this.writeBatcher);
+
         if (this.isHeartBeatEnabled()) {
             this.heartBeatTimer.cancel();
         }
@@ -557,44 +628,58 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
 
     protected void write(M3UAMessage message) {
         try {
-            ByteBufAllocator byteBufAllocator = this.association.getByteBufAllocator();
-            ByteBuf byteBuf;
-            if (byteBufAllocator != null) {
-                byteBuf = byteBufAllocator.buffer();
-            } else {
-                byteBuf = Unpooled.buffer();
+            ByteBuf byteBuf = null;
+            if (message instanceof PayloadDataImpl) {
+                // the user data buffer has a headroom for M3UA header - the message is encoded in place
+                byteBuf = ((PayloadDataImpl) message).encodeInPlace();
             }
 
-            ((M3UAMessageImpl) message).encode(byteBuf);
+            if (byteBuf == null) {
+                ByteBufAllocator byteBufAllocator = this.association.getByteBufAllocator();
+                if (byteBufAllocator != null) {
+                    byteBuf = byteBufAllocator.buffer();
+                } else {
+                    byteBuf = Unpooled.buffer();
+                }
 
-            org.mobicents.protocols.api.PayloadData payloadData = null;
+                boolean encoded = false;
+                try {
+                    ((M3UAMessageImpl) message).encode(byteBuf);
+                    encoded = true;
+                } finally {
+                    if (message instanceof PayloadDataImpl) {
+                        ((PayloadDataImpl) message).releaseDataBuf();
+                    }
+                    // a failed encoding must not keep the pooled buffer
+                    if (!encoded)
+                        byteBuf.release();
+                }
+            }
 
             if(m3UAManagementImpl.getStatisticsEnabled()) {
                 updateTxStatistic(message);
             }
 
-            if (this.m3UAManagementImpl.isSctpLibNettySupport()) {
-                switch (message.getMessageClass()) {
-                    case MessageClass.ASP_STATE_MAINTENANCE:
-                    case MessageClass.MANAGEMENT:
-                    case MessageClass.ROUTING_KEY_MANAGEMENT:
-                        payloadData = new org.mobicents.protocols.api.PayloadData(byteBuf.readableBytes(), byteBuf, true, true,
-                                SCTP_PAYLOAD_PROT_ID_M3UA, 0);
-                        break;
-                    case MessageClass.TRANSFER_MESSAGES:
-                        PayloadData payload = (PayloadData) message;
-                        int seqControl = payload.getData().getSLS();
-                        payloadData = new org.mobicents.protocols.api.PayloadData(byteBuf.readableBytes(), byteBuf, true,
-                                false, SCTP_PAYLOAD_PROT_ID_M3UA, this.slsTable[seqControl]);
-                        break;
-                    default:
-                        payloadData = new org.mobicents.protocols.api.PayloadData(byteBuf.readableBytes(), byteBuf, true, true,
-                                SCTP_PAYLOAD_PROT_ID_M3UA, 0);
-                        break;
-                }
+            // DATA messages are sent ordered on the SLS stream, others unordered on stream 0
+            boolean unordered = true;
+            int streamNumber = 0;
+            if (message.getMessageClass() == MessageClass.TRANSFER_MESSAGES) {
+                PayloadData payload = (PayloadData) message;
+                unordered = false;
+                streamNumber = this.slsTable[payload.getData().getSLS()];
+            }
 
-                this.association.send(payloadData);
+            WriteBatcher batcher = this.writeBatcher;
+            if (batcher == null) {
+                this.send(byteBuf, unordered, streamNumber);
+            } else if (message.getMessageClass() == MessageClass.TRANSFER_MESSAGES) {
+                batcher.add(byteBuf);
+            } else {
+                // management messages force the pending DATA messages out before them
+                batcher.flushAndSend(byteBuf, unordered, streamNumber);
+            }
 
+            if (this.m3UAManagementImpl.isSctpLibNettySupport()) {
                 // congestion control - we will send MTP-PAUSE every 8 messages
                 int congLevel = this.association.getCongestionLevel();
                 if (message instanceof PayloadData) {
@@ -605,37 +690,30 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
                         sendCongestionEndInfoToMtp3Users(congLevel, payloadData2.getData().getDpc());
                     }
                 }
-            } else {
-                byte[] bf = new byte[byteBuf.readableBytes()];
-                byteBuf.readBytes(bf);
-                synchronized (txBuffer) {
-                    switch (message.getMessageClass()) {
-                        case MessageClass.ASP_STATE_MAINTENANCE:
-                        case MessageClass.MANAGEMENT:
-                        case MessageClass.ROUTING_KEY_MANAGEMENT:
-                            payloadData = new org.mobicents.protocols.api.PayloadData(byteBuf.readableBytes(), bf, true, true,
-                                    SCTP_PAYLOAD_PROT_ID_M3UA, 0);
-                            break;
-                        case MessageClass.TRANSFER_MESSAGES:
-                            PayloadData payload = (PayloadData) message;
-                            int seqControl = payload.getData().getSLS();
-                            payloadData = new org.mobicents.protocols.api.PayloadData(byteBuf.readableBytes(), bf, true, false,
-                                    SCTP_PAYLOAD_PROT_ID_M3UA, this.slsTable[seqControl]);
-                            break;
-                        default:
-                            payloadData = new org.mobicents.protocols.api.PayloadData(byteBuf.readableBytes(), bf, true, true,
-                                    SCTP_PAYLOAD_PROT_ID_M3UA, 0);
-                            break;
-                    }
-
-                    this.association.send(payloadData);
-                }
             }
         } catch (Throwable e) {
             logger.error(String.format("Error while trying to send PayloadData to SCTP layer. M3UAMessage=%s", message), e);
         }
     }
 
+    /**
+     * Passes encoded M3UA message(s) to the association. The buffer is released after it.
+     */
+    protected void send(ByteBuf byteBuf, boolean unordered, int streamNumber) throws Exception {
+        if (this.m3UAManagementImpl.isSctpLibNettySupport()) {
+            this.association.send(new org.mobicents.protocols.api.PayloadData(byteBuf.readableBytes(), byteBuf, true,
+                    unordered, SCTP_PAYLOAD_PROT_ID_M3UA, streamNumber));
+        } else {
+            byte[] bf = new byte[byteBuf.readableBytes()];
+            byteBuf.getBytes(byteBuf.readerIndex(), bf);
+            byteBuf.release();
+            synchronized (txBuffer) {
+                this.association.send(new org.mobicents.protocols.api.PayloadData(bf.length, bf, true, unordered,
+                        SCTP_PAYLOAD_PROT_ID_M3UA, streamNumber));
+            }
+        }
+    }
+
     private void sendCongestionInfoToMtp3Users(int congLevel, int dpc) {
         AtomicInteger ai = congDpcList.get(dpc);
         if (ai == null) {
@@ -712,6 +790,12 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
 
     private void handleCommDown() {
 
+        WriteBatcher batcher = this.writeBatcher;
+        if (batcher != null) {
+            this.writeBatcher = null;
+            batcher.discard();
+        }
+
         if (this.isHeartBeatEnabled()) {
             this.heartBeatTimer.cancel();
         }
@@ -761,6 +845,8 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
 
     private void handleCommUp() {
 
+        this.createWriteBatcher();
+
         if (this.isHeartBeatEnabled()) {
             this.heartBeatTimer.start();
             this.heartBeatTimer.reset();
@@ -813,6 +899,8 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
             aspFactoryImpl.aspid = aspFactoryImpl.parameterFactory.createASPIdentifier(aspIdTemp);
 
             aspFactoryImpl.isHeartBeatEnabled = xml.getAttribute(HEART_BEAT, false);
+            aspFactoryImpl.writeBatchDelay = xml.getAttribute(WRITE_BATCH_DELAY, 0);
+            aspFactoryImpl.writeBatchSize = xml.getAttribute(WRITE_BATCH_SIZE, DEFAULT_WRITE_BATCH_SIZE);
         }
 
         @Override
@@ -823,6 +911,8 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
             xml.setAttribute(MAX_SEQUENCE_NUMBER, aspFactoryImpl.maxSequenceNumber);
             xml.setAttribute(ASP_ID, aspFactoryImpl.aspid.getAspId());
             xml.setAttribute(HEART_BEAT, aspFactoryImpl.isHeartBeatEnabled);
+            xml.setAttribute(WRITE_BATCH_DELAY, aspFactoryImpl.writeBatchDelay);
+            xml.setAttribute(WRITE_BATCH_SIZE, aspFactoryImpl.writeBatchSize);
         }
     };
 
@@ -959,6 +1049,8 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
     public void show(StringBuffer sb) {
         sb.append(M3UAOAMMessages.SHOW_ASP_NAME).append(this.name).append(M3UAOAMMessages.SHOW_ASPID)
                 .append(this.aspid.getAspId()).append(M3UAOAMMessages.SHOW_HEARTBEAT_ENABLED).append(this.isHeartBeatEnabled())
+                .append(M3UAOAMMessages.SHOW_WRITE_BATCH_DELAY).append(this.writeBatchDelay)
+                .append(M3UAOAMMessages.SHOW_WRITE_BATCH_SIZE).append(this.writeBatchSize)
                 .append(M3UAOAMMessages.SHOW_SCTP_ASSOC).append(this.associationName).append(M3UAOAMMessages.SHOW_STARTED)
                 .append(this.started);
 
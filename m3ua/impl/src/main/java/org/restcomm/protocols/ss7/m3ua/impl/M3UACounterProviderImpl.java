@@ -7,6 +7,7 @@ import org.apache.log4j.Logger;
 import org.restcomm.protocols.ss7.m3ua.M3UACounterProvider;
 import org.restcomm.protocols.ss7.statistics.StatDataCollectionImpl;
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
+import org.restcomm.protocols.ss7.statistics.api.StatCounterCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
 import org.restcomm.protocols.ss7.statistics.api.StatResult;
@@ -20,6 +21,10 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
     private StatDataCollection statDataCollection = new StatDataCollectionImpl();
     private M3UAManagementImpl m3uaManagementImpl;
 
+    // collectors that are updated for each message are kept to skip the lookup by a counter name
+    private StatCounterCollection packetsPerAssTxCollector;
+    private StatCounterCollection packetsPerAssRxCollector;
+
     private static String PACKETS_PER_ASS_TX = "packetsPerAssTx";
     private static String ASP_UP_PER_ASS_TX = "aspUpPerAssTx";
     private static String ASP_UP_ACK_PER_ASS_TX = "aspUpAckPerAssTx";
@@ -64,7 +69,7 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
 
         this.m3uaManagementImpl = m3uaManagementImpl;
 
-        this.statDataCollection.registerStatCounterCollector(PACKETS_PER_ASS_TX, StatDataCollectorType.StringLongMap);
+        this.packetsPerAssTxCollector = this.statDataCollection.registerStatCounterCollector(PACKETS_PER_ASS_TX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(ASP_UP_PER_ASS_TX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(ASP_UP_ACK_PER_ASS_TX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(ASP_DOWN_PER_ASS_TX, StatDataCollectorType.StringLongMap);
@@ -84,7 +89,7 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
         this.statDataCollection.registerStatCounterCollector(BEAT_PER_ASS_TX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(BEAT_ACK_PER_ASS_TX, StatDataCollectorType.StringLongMap);
 
-        this.statDataCollection.registerStatCounterCollector(PACKETS_PER_ASS_RX, StatDataCollectorType.StringLongMap);
+        this.packetsPerAssRxCollector = this.statDataCollection.registerStatCounterCollector(PACKETS_PER_ASS_RX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(ASP_UP_PER_ASS_RX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(ASP_UP_ACK_PER_ASS_RX, StatDataCollectorType.StringLongMap);
         this.statDataCollection.registerStatCounterCollector(ASP_DOWN_PER_ASS_RX, StatDataCollectorType.StringLongMap);
@@ -112,14 +117,14 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
 
     public Map<String, LongValue> getPacketsPerAssTx(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(PACKETS_PER_ASS_TX, compainName);
-        this.statDataCollection.updateData(PACKETS_PER_ASS_TX, m3uaManagementImpl.getAspfactories().size());
+        this.packetsPerAssTxCollector.updateData(m3uaManagementImpl.getAspfactories().size());
         if (res != null)
             return res.getStringLongValue();
         else
             return null;
     }
     public void updatePacketsPerAssTx(String assName) {
-        this.statDataCollection.updateData(PACKETS_PER_ASS_TX, assName);
+        this.packetsPerAssTxCollector.updateData(assName);
     }
     public Map<String, LongValue> getAspUpPerAssTx(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(ASP_UP_PER_ASS_TX, compainName);
@@ -321,14 +326,14 @@ public class M3UACounterProviderImpl implements M3UACounterProvider{
     }
     public Map<String, LongValue> getPacketsPerAssRx(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(PACKETS_PER_ASS_RX, compainName);
-        this.statDataCollection.updateData(PACKETS_PER_ASS_RX, m3uaManagementImpl.getAspfactories().size());
+        this.packetsPerAssRxCollector.updateData(m3uaManagementImpl.getAspfactories().size());
         if (res != null)
             return res.getStringLongValue();
         else
             return null;
     }
     public void updatePacketsPerAssRx(String assName) {
-        this.statDataCollection.updateData(PACKETS_PER_ASS_RX, assName);
+        this.packetsPerAssRxCollector.updateData(assName);
     }
     public Map<String, LongValue> getAspUpPerAssRx(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(ASP_UP_PER_ASS_RX, compainName);
@@ -22,13 +22,16 @@
 
 package org.restcomm.protocols.ss7.m3ua.impl;
 
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -47,6 +50,7 @@ import javolution.xml.stream.XMLStreamException;
 
 import org.apache.log4j.Logger;
 import org.mobicents.protocols.api.Association;
+import org.mobicents.protocols.api.IpChannelType;
 import org.mobicents.protocols.api.Management;
 import org.restcomm.protocols.ss7.m3ua.As;
 import org.restcomm.protocols.ss7.m3ua.Asp;
@@ -75,7 +79,10 @@ import org.restcomm.protocols.ss7.mtp.Mtp3PausePrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3ResumePrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3StatusPrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitiveFactory;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPartBaseImpl;
+import org.restcomm.protocols.ss7.mtp.RingDeliveryExecutor;
 import org.restcomm.protocols.ss7.mtp.RoutingLabelFormat;
 import org.restcomm.protocols.ss7.m3ua.M3UAManagement;
 import org.restcomm.protocols.ss7.m3ua.M3UAManagementEventListener;
@@ -100,12 +107,21 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
     private static final String USER_DIR_KEY = "user.dir";
     private static final String PERSIST_FILE_NAME = "m3ua1.xml";
 
+    // configuration journal record type, key is dpc:opc:si:asName, value is traffic mode
+    private static final String RECORD_ROUTE = "route";
+
     protected static final M3UAXMLBinding binding = new M3UAXMLBinding();
     private static final String TAB_INDENT = "\t";
     private static final String CLASS_ATTRIBUTE = "type";
 
     protected static final int MAX_SEQUENCE_NUMBER = 256;
 
+    // space that MTP3 users reserve in a user data buffer for M3UA DATA message encoding: common header (8), Network
+    // Appearance (8), Routing Context (4 + 4 per context) and Protocol Data header (16) before the data, padding (up to 3)
+    // and Correlation ID (8) after it
+    protected static final int DATA_HEADROOM = 64;
+    protected static final int DATA_TAILROOM = 12;
+
     protected FastList<As> appServers = new FastList<As>();
     protected FastList<AspFactory> aspfactories = new FastList<AspFactory>();
 
@@ -113,6 +129,9 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
     protected M3UACounterProviderImpl m3uaCounterProvider;
 
     private final TextBuilder persistFile = TextBuilder.newInstance();
+    // routes are journaled, other changes are persisted by the journal writer thread
+    private ConfigJournal configJournal;
+    private boolean replayingJournal;
 
     private final String name;
 
@@ -125,6 +144,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
     protected boolean sctpLibNettySupport = false;
 
     protected ScheduledExecutorService fsmTicker;
+    private ScheduledExecutorService writeBatchTimer;
 
     protected int maxAsForRoute = 2;
 
@@ -189,6 +209,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
     public void setPersistDir(String persistDir) {
         this.persistDir = persistDir;
         this.persistFile.clear();
+        this.configJournal = null;
     }
 
     public int getMaxAsForRoute() {
@@ -223,7 +244,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
         this.timeBetweenHeartbeat = timeBetweenHeartbeat;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -233,7 +254,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
         super.setUseLsbForLinksetSelection(useLsbForLinksetSelection);
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -252,6 +273,22 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         super.setDeliveryMessageThreadCount(deliveryMessageThreadCount);
     }
 
+    @Override
+    public void setDeliveryRingSize(int deliveryRingSize) throws Exception {
+        if (this.isStarted)
+            throw new Exception("DeliveryRingSize parameter can be updated only when M3UA stack is NOT running");
+
+        super.setDeliveryRingSize(deliveryRingSize);
+    }
+
+    @Override
+    public void setDeliveryWaitStrategy(RingDeliveryExecutor.WaitStrategy deliveryWaitStrategy) throws Exception {
+        if (this.isStarted)
+            throw new Exception("DeliveryWaitStrategy parameter can be updated only when M3UA stack is NOT running");
+
+        super.setDeliveryWaitStrategy(deliveryWaitStrategy);
+    }
+
     @Override
     public String getRoutingLabelFormatStr() {
         return super.getRoutingLabelFormat().toString();
@@ -271,6 +308,12 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         return sctpLibNettySupport;
     }
 
+    @Override
+    protected Mtp3TransferPrimitiveFactory createMtp3TransferPrimitiveFactory(RoutingLabelFormat routingLabelFormat) {
+        return new Mtp3TransferPrimitiveFactory(routingLabelFormat, PooledByteBufAllocator.DEFAULT, DATA_HEADROOM,
+                DATA_TAILROOM);
+    }
+
     public void start() throws Exception {
 
         if (this.transportManagement == null) {
@@ -340,6 +383,12 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         super.stop();
 
         fsmTicker.shutdown();
+        synchronized (this) {
+            if (this.writeBatchTimer != null) {
+                this.writeBatchTimer.shutdown();
+                this.writeBatchTimer = null;
+            }
+        }
     }
 
     @Override
@@ -448,7 +497,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
         appServers.add(as);
 
-        this.store();
+        this.storeLater();
 
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
@@ -494,7 +543,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
         appServers.remove(as);
 
-        this.store();
+        this.storeLater();
 
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
@@ -608,7 +657,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
         aspfactories.add(factory);
 
-        this.store();
+        this.storeLater();
 
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
@@ -623,6 +672,35 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         return factory;
     }
 
+    public void setAspFactoryWriteBatch(String aspName, int writeBatchDelay, int writeBatchSize) throws Exception {
+        AspFactoryImpl aspFactroy = this.getAspFactory(aspName);
+        if (aspFactroy == null) {
+            throw new Exception(String.format(M3UAOAMMessages.NO_ASP_FOUND, aspName));
+        }
+        if (writeBatchDelay < 0 || writeBatchSize < 0) {
+            throw new Exception("writeBatchDelay and writeBatchSize must not be negative");
+        }
+
+        if (writeBatchDelay > 0 && aspFactroy.getAssociation().getIpChannelType() != IpChannelType.TCP) {
+            logger.warn(String.format("Write batching is set for AspFactory=%s but is applied only for TCP associations",
+                    aspName));
+        }
+        aspFactroy.setWriteBatch(writeBatchDelay, writeBatchSize);
+
+        this.storeLater();
+    }
+
+    /**
+     * @return the timer that flushes DATA message batches of AspFactories. Created when the first batch is used.
+     */
+    protected synchronized ScheduledExecutorService getWriteBatchTimer() {
+        if (this.writeBatchTimer == null) {
+            this.writeBatchTimer = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("M3UA-WriteBatch-"
+                    + this.name, true));
+        }
+        return this.writeBatchTimer;
+    }
+
     public AspFactoryImpl destroyAspFactory(String aspName) throws Exception {
         AspFactoryImpl aspFactroy = this.getAspFactory(aspName);
         if (aspFactroy == null) {
@@ -634,7 +712,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         }
         aspFactroy.unsetAssociation();
         this.aspfactories.remove(aspFactroy);
-        this.store();
+        this.storeLater();
 
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
@@ -728,7 +806,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         m3uaScheduler.execute(aspPeerFSM);
         asImpl.addAppServerProcess(aspImpl);
 
-        this.store();
+        this.storeLater();
 
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
@@ -753,7 +831,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
         AspImpl aspImpl = asImpl.removeAppServerProcess(aspName);
         aspImpl.getAspFactory().destroyAsp(aspImpl);
-        this.store();
+        this.storeLater();
 
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
@@ -790,7 +868,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         }
 
         aspFactoryImpl.start();
-        this.store();
+        this.storeLater();
 
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
@@ -829,7 +907,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         aspFactoryImpl.stop();
 
         if (needStore)
-            this.store();
+            this.storeLater();
 
         // TODO : Should calling
         // m3uaManagementEventListener.onAspFactoryStopped() be before actual
@@ -997,30 +1075,114 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
      * Persist
      */
     public void store() {
+        this.getConfigJournal().store();
+    }
 
-        // TODO : Should we keep reference to Objects rather than recreating
-        // everytime?
-        try {
+    /**
+     * Waits until journaled changes are written by the journal writer thread
+     */
+    public void flush() {
+        if (this.configJournal != null)
+            this.configJournal.flush();
+    }
+
+    /**
+     * Persists the configuration in the background, used after changes of settings, AS and ASP
+     */
+    private void storeLater() {
+        if (this.configJournal != null)
+            this.configJournal.storeLater();
+        else
+            this.store();
+    }
+
+    private ConfigJournal getConfigJournal() {
+        if (this.configJournal == null) {
             this.preparePersistFile();
-            XMLObjectWriter writer = XMLObjectWriter.newInstance(new FileOutputStream(persistFile.toString()));
-            writer.setBinding(binding);
-            // Enables cross-references.
-            // writer.setReferenceResolver(new XMLReferenceResolver());
-            writer.setIndentation(TAB_INDENT);
+            this.configJournal = new ConfigJournal(persistFile.toString(), new ConfigJournal.SnapshotWriter() {
+                public void writeSnapshot(OutputStream out) throws Exception {
+                    M3UAManagementImpl.this.writeConfiguration(out);
+                }
+            });
+        }
+        return this.configJournal;
+    }
+
+    private void writeConfiguration(OutputStream out) throws XMLStreamException {
+        XMLObjectWriter writer = XMLObjectWriter.newInstance(out);
+        writer.setBinding(binding);
+        // Enables cross-references.
+        // writer.setReferenceResolver(new XMLReferenceResolver());
+        writer.setIndentation(TAB_INDENT);
 
-            writer.write(this.timeBetweenHeartbeat, HEART_BEAT_TIME_PROP, Integer.class);
-            writer.write(this.statisticsEnabled, STATISTICS_ENABLED, Boolean.class);
-            writer.write(this.routingKeyManagementEnabled, ROUTING_KEY_MANAGEMENT_ENABLED, Boolean.class);
-            writer.write(this.isUseLsbForLinksetSelection(), USE_LSB_FOR_LINKSET_SELECTION, Boolean.class);
+        writer.write(this.timeBetweenHeartbeat, HEART_BEAT_TIME_PROP, Integer.class);
+        writer.write(this.statisticsEnabled, STATISTICS_ENABLED, Boolean.class);
+        writer.write(this.routingKeyManagementEnabled, ROUTING_KEY_MANAGEMENT_ENABLED, Boolean.class);
+        writer.write(this.isUseLsbForLinksetSelection(), USE_LSB_FOR_LINKSET_SELECTION, Boolean.class);
 
-            writer.write(aspfactories, ASP_FACTORY_LIST, FastList.class);
-            writer.write(appServers, AS_LIST, FastList.class);
-            writer.write(this.routeManagement.route, DPC_VS_AS_LIST, RouteMap.class);
+        writer.write(aspfactories, ASP_FACTORY_LIST, FastList.class);
+        writer.write(appServers, AS_LIST, FastList.class);
+        writer.write(this.routeManagement.route, DPC_VS_AS_LIST, RouteMap.class);
 
-            writer.close();
-        } catch (Exception e) {
-            logger.error("Error while persisting the Rule state in file", e);
+        writer.close();
+    }
+
+    private static String routeRecordKey(int dpc, int opc, int si, String asName) {
+        return new StringBuilder().append(dpc).append(':').append(opc).append(':').append(si).append(':').append(asName)
+                .toString();
+    }
+
+    protected void journalAddRoute(int dpc, int opc, int si, String asName, int traffmode) {
+        if (this.replayingJournal)
+            return;
+        if (this.configJournal != null)
+            this.configJournal.put(RECORD_ROUTE, routeRecordKey(dpc, opc, si, asName), String.valueOf(traffmode));
+        else
+            this.store();
+    }
+
+    protected void journalRemoveRoute(int dpc, int opc, int si, String asName) {
+        if (this.replayingJournal)
+            return;
+        if (this.configJournal != null)
+            this.configJournal.remove(RECORD_ROUTE, routeRecordKey(dpc, opc, si, asName));
+        else
+            this.store();
+    }
+
+    private void replayJournal() throws IOException {
+        this.replayingJournal = true;
+        int cnt;
+        try {
+            cnt = this.getConfigJournal().replay(new ConfigJournal.RecordHandler() {
+                public void put(String type, String key, String value) throws Exception {
+                    String[] keys = parseRouteRecordKey(type, key);
+                    routeManagement.addRoute(Integer.parseInt(keys[0]), Integer.parseInt(keys[1]), Integer.parseInt(keys[2]),
+                            keys[3], Integer.parseInt(value));
+                }
+
+                public void remove(String type, String key) throws Exception {
+                    String[] keys = parseRouteRecordKey(type, key);
+                    routeManagement.removeRoute(Integer.parseInt(keys[0]), Integer.parseInt(keys[1]),
+                            Integer.parseInt(keys[2]), keys[3]);
+                }
+            });
+        } finally {
+            this.replayingJournal = false;
         }
+
+        // replayed records are moved into the snapshot
+        if (cnt > 0)
+            this.store();
+    }
+
+    private static String[] parseRouteRecordKey(String type, String key) throws Exception {
+        if (!RECORD_ROUTE.equals(type))
+            throw new Exception("Unknown record type " + type);
+        String[] keys = key.split(":", 4);
+        if (keys.length != 4)
+            throw new Exception("Bad route record key " + key);
+        return keys;
     }
 
     /**
@@ -1038,6 +1200,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
             if (f.exists()) {
                 // we have V2 config
                 loadVer2(persistFile.toString());
+                this.replayJournal();
             } else {
                 String s1 = persistFile.toString().replace("1.xml", ".xml");
                 f = new File(s1);
@@ -1169,15 +1332,24 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
     @Override
     public void sendMessage(Mtp3TransferPrimitive mtp3TransferPrimitive) throws IOException {
-        ProtocolData data = this.parameterFactory.createProtocolData(mtp3TransferPrimitive.getOpc(),
-                mtp3TransferPrimitive.getDpc(), mtp3TransferPrimitive.getSi(), mtp3TransferPrimitive.getNi(),
-                mtp3TransferPrimitive.getMp(), mtp3TransferPrimitive.getSls(), mtp3TransferPrimitive.getData());
+        ProtocolData data;
+        if (mtp3TransferPrimitive.getDataBuf() != null) {
+            // the data buffer is passed down to the transport, M3UA header will be encoded into its headroom
+            data = ((ParameterFactoryImpl) this.parameterFactory).createProtocolData(mtp3TransferPrimitive.getOpc(),
+                    mtp3TransferPrimitive.getDpc(), mtp3TransferPrimitive.getSi(), mtp3TransferPrimitive.getNi(),
+                    mtp3TransferPrimitive.getMp(), mtp3TransferPrimitive.getSls(), mtp3TransferPrimitive.getDataBuf());
+        } else {
+            data = this.parameterFactory.createProtocolData(mtp3TransferPrimitive.getOpc(), mtp3TransferPrimitive.getDpc(),
+                    mtp3TransferPrimitive.getSi(), mtp3TransferPrimitive.getNi(), mtp3TransferPrimitive.getMp(),
+                    mtp3TransferPrimitive.getSls(), mtp3TransferPrimitive.getData());
+        }
 
         PayloadData payload = (PayloadData) messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES, MessageType.PAYLOAD);
         payload.setData(data);
 
         AsImpl asImpl = this.routeManagement.getAsForRoute(data.getDpc(), data.getOpc(), data.getSI(), data.getSLS());
         if (asImpl == null) {
+            mtp3TransferPrimitive.releaseDataBuf();
             logger.error(String.format("Tx : No AS found for routing message %s", payload));
             throw new IOException(String.format("Tx : No AS found for routing message %s", payload));
         }
@@ -1195,7 +1367,7 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
         statisticsEnabled = val;
 
-        this.store();
+        this.storeLater();
 
     }
 
@@ -76,6 +76,12 @@ public class M3UARouteManagement {
      */
     protected RouteMap<String, RouteAsImpl> route = new RouteMap<String, RouteAsImpl>();
 
+    /**
+     * compiled copy of route keys that is used for routing of outgoing MSU's. It is rebuilt whenever a key is added to or
+     * removed from route
+     */
+    private volatile RouteIndex routeIndex = RouteIndex.EMPTY;
+
     /**
      * Persists DPC vs As's serving this DPC. Used for notifying M3UA-user of MTP3 primitive PAUSE, RESUME.
      */
@@ -177,6 +183,17 @@ public class M3UARouteManagement {
                 logger.error(String.format("Error while adding key=%s to As list=%s", key, Arrays.toString(asList)));
             }
         }
+
+        this.rebuildRouteIndex();
+    }
+
+    private void rebuildRouteIndex() {
+        try {
+            this.routeIndex = RouteIndex.build(this.route, KEY_SEPARATOR);
+        } catch (Exception ex) {
+            logger.error("Error while building of route index, routing of outgoing messages is disabled", ex);
+            this.routeIndex = RouteIndex.EMPTY;
+        }
     }
 
     /**
@@ -206,18 +223,25 @@ public class M3UARouteManagement {
                 .toString();
 
         RouteAsImpl asArray = route.get(key);
+        boolean newKey = false;
 
         if (asArray == null) {
             asArray = new RouteAsImpl();
             asArray.setTrafficModeType(new TrafficModeTypeImpl(traffmode));
             route.put(key, asArray);
             asArray.setM3uaManagement(this.m3uaManagement);
+            newKey = true;
         }
 
         asArray.addRoute(dpc, opc, si, asImpl, traffmode);
+        this.m3uaManagement.journalAddRoute(dpc, opc, si, asName, traffmode);
 
         this.addAsToDPC(dpc, asImpl);
 
+        if (newKey) {
+            this.rebuildRouteIndex();
+        }
+
     }
 
     /**
@@ -259,9 +283,10 @@ public class M3UARouteManagement {
         //Final check to remove RouteAs
         if(!asArray.hasAs()){
             route.remove(key);
+            this.rebuildRouteIndex();
         }
 
-        this.m3uaManagement.store();
+        this.m3uaManagement.journalRemoveRoute(dpc, opc, si, asName);
     }
 
     /**
@@ -283,21 +308,14 @@ public class M3UARouteManagement {
     protected AsImpl getAsForRoute(int dpc, int opc, int si, int sls) {
         // TODO : Loadsharing needs to be implemented
 
-        String key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(si))
-                .toString();
-        RouteAsImpl routeAs = route.get(key);
+        RouteIndex index = this.routeIndex;
+        RouteAsImpl routeAs = index.get(dpc, opc, si);
 
         if (routeAs == null) {
-            key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(WILDCARD))
-                    .toString();
-
-            routeAs = route.get(key);
+            routeAs = index.get(dpc, opc, WILDCARD);
 
             if (routeAs == null) {
-                key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(WILDCARD).append(KEY_SEPARATOR)
-                        .append(WILDCARD)).toString();
-
-                routeAs = route.get(key);
+                routeAs = index.get(dpc, WILDCARD, WILDCARD);
             }
         }
 
@@ -369,5 +387,6 @@ public class M3UARouteManagement {
     public void removeAllResourses() throws Exception {
         this.route.clear();
         this.routeTable.clear();
+        this.routeIndex = RouteIndex.EMPTY;
     }
 }
@@ -95,7 +95,6 @@ public class RouteAsImpl implements XMLSerializable, RouteAs {
         for (int count = 0; count < asArray.length; count++) {
             if (asArray[count] == null) {
                 asArray[count] = asImpl;
-                this.m3uaManagement.store();
                 return;
             }
         }
@@ -0,0 +1,112 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * Immutable index of configured routes that is used at the send path instead of the string keyed {@link RouteMap}.
+ * </p>
+ * <p>
+ * The DPC, OPC and SI of a route are packed into one primitive long key, routes are stored in an open addressing table with
+ * linear probing. A lookup does not allocate and does not lock. {@link M3UARouteManagement} builds a new index every time
+ * when the route configuration is changed.
+ * </p>
+ *
+ */
+final class RouteIndex {
+
+    static final RouteIndex EMPTY = new RouteIndex(new long[1], new RouteAsImpl[1]);
+
+    private static final long HASH_SEED = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final RouteAsImpl[] values;
+    private final int mask;
+
+    private RouteIndex(long[] keys, RouteAsImpl[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+    }
+
+    /**
+     * Packs DPC (24 bits), OPC (24 bits or wildcard -1) and SI (4 bits or wildcard -1) into one key
+     */
+    static long key(int dpc, int opc, int si) {
+        return ((long) (dpc & 0xFFFFFF) << 30) | ((long) ((opc + 1) & 0x1FFFFFF) << 5) | ((si + 1) & 0x1F);
+    }
+
+    private static int slot(long key, int mask) {
+        return (int) ((key * HASH_SEED) >>> 32) & mask;
+    }
+
+    /**
+     * Builds an index from the route map whose keys have "dpc:opc:si" format
+     */
+    static RouteIndex build(Map<String, RouteAsImpl> route, String keySeparator) {
+        int capacity = 2;
+        while (capacity < route.size() * 2) {
+            capacity <<= 1;
+        }
+        long[] keys = new long[capacity];
+        RouteAsImpl[] values = new RouteAsImpl[capacity];
+        int mask = capacity - 1;
+
+        for (Map.Entry<String, RouteAsImpl> e : route.entrySet()) {
+            String[] parts = e.getKey().split(keySeparator);
+            long key = key(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+            int idx = slot(key, mask);
+            while (values[idx] != null && keys[idx] != key) {
+                idx = (idx + 1) & mask;
+            }
+            keys[idx] = key;
+            values[idx] = e.getValue();
+        }
+
+        return new RouteIndex(keys, values);
+    }
+
+    RouteAsImpl get(int dpc, int opc, int si) {
+        long key = key(dpc, opc, si);
+        int idx = slot(key, this.mask);
+        while (true) {
+            RouteAsImpl value = this.values[idx];
+            if (value == null)
+                return null;
+            if (this.keys[idx] == key)
+                return value;
+            idx = (idx + 1) & this.mask;
+        }
+    }
+
+    int size() {
+        int cnt = 0;
+        for (RouteAsImpl value : this.values) {
+            if (value != null)
+                cnt++;
+        }
+        return cnt;
+    }
+
+}
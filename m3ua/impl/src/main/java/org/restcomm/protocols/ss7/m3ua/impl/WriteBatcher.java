@@ -0,0 +1,142 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Coalesces encoded DATA messages of an AspFactory into one transport write. A batch is written when it reaches
+ * maxBytes, when maxDelay microseconds have passed since its first message was added, or before any other message is
+ * written. Messages are written in the order they were added, so per-SLS ordering is kept.
+ *
+ * Used for TCP associations only: an SCTP association sends every PayloadData as a separate SCTP message.
+ *
+ */
+public class WriteBatcher implements Runnable {
+
+    private static final Logger logger = Logger.getLogger(WriteBatcher.class);
+
+    // limits the count of buffers that are gathered into one write
+    private static final int MAX_COMPONENTS = 64;
+
+    private final AspFactoryImpl aspFactoryImpl;
+    private final ByteBufAllocator allocator;
+    private final ScheduledExecutorService timer;
+    private final long maxDelay;
+    private final int maxBytes;
+
+    private CompositeByteBuf batch;
+    private boolean flushScheduled;
+    // the AspFactory does not use this batcher anymore, messages that still come are written at once
+    private boolean detached;
+
+    public WriteBatcher(AspFactoryImpl aspFactoryImpl, ByteBufAllocator allocator, ScheduledExecutorService timer,
+            long maxDelay, int maxBytes) {
+        this.aspFactoryImpl = aspFactoryImpl;
+        this.allocator = allocator;
+        this.timer = timer;
+        this.maxDelay = maxDelay;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Adds an encoded DATA message to the current batch. The batch takes over the buffer.
+     */
+    public synchronized void add(ByteBuf buf) throws Exception {
+        if (this.detached) {
+            this.aspFactoryImpl.send(buf, false, 0);
+            return;
+        }
+
+        if (this.batch == null) {
+            this.batch = this.allocator != null ? this.allocator.compositeBuffer(MAX_COMPONENTS) : Unpooled
+                    .compositeBuffer(MAX_COMPONENTS);
+        }
+        int len = buf.readableBytes();
+        this.batch.addComponent(buf);
+        this.batch.writerIndex(this.batch.writerIndex() + len);
+
+        if (this.batch.readableBytes() >= this.maxBytes || this.batch.numComponents() >= MAX_COMPONENTS) {
+            this.flush();
+        } else if (!this.flushScheduled) {
+            this.flushScheduled = true;
+            this.timer.schedule(this, this.maxDelay, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    /**
+     * Writes the current batch (if any) and then the given message
+     */
+    public synchronized void flushAndSend(ByteBuf buf, boolean unordered, int streamNumber) throws Exception {
+        this.flush();
+        this.aspFactoryImpl.send(buf, unordered, streamNumber);
+    }
+
+    public synchronized void flush() throws Exception {
+        if (this.batch != null) {
+            CompositeByteBuf buf = this.batch;
+            this.batch = null;
+            this.aspFactoryImpl.send(buf, false, 0);
+        }
+    }
+
+    /**
+     * Writes the current batch and stops batching. Called before the AspFactory replaces this batcher, so messages added
+     * by senders that still hold this batcher can not be left behind in it.
+     */
+    public synchronized void detach() throws Exception {
+        this.detached = true;
+        this.flush();
+    }
+
+    /**
+     * Drops the current batch (the association is down)
+     */
+    public synchronized void discard() {
+        this.detached = true;
+        if (this.batch != null) {
+            CompositeByteBuf buf = this.batch;
+            this.batch = null;
+            buf.release();
+        }
+    }
+
+    @Override
+    public synchronized void run() {
+        this.flushScheduled = false;
+        try {
+            this.flush();
+        } catch (Throwable e) {
+            logger.error(String.format("Error while trying to send a batch of PayloadData to the transport for AspFactory=%s",
+                    this.aspFactoryImpl.getName()), e);
+        }
+    }
+}
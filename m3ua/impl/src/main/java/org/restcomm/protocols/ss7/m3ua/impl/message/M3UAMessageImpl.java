@@ -41,14 +41,16 @@ public abstract class M3UAMessageImpl implements M3UAMessage {
     private int messageType;
 
     private String message;
-    protected FastMap<Short, Parameter> parameters = new FastMap<Short, Parameter>();
+    protected FastMap<Short, Parameter> parameters;
 
-    private ParameterFactoryImpl factory = new ParameterFactoryImpl();
+    // ParameterFactoryImpl holds no state, so one instance is shared by all messages
+    protected static final ParameterFactoryImpl factory = new ParameterFactoryImpl();
 
     int initialPosition = 0;
 
     public M3UAMessageImpl(String message) {
         this.message = message;
+        this.parameters = new FastMap<Short, Parameter>();
     }
 
     protected M3UAMessageImpl(int messageClass, int messageType, String message) {
@@ -57,6 +59,15 @@ public abstract class M3UAMessageImpl implements M3UAMessage {
         this.messageType = messageType;
     }
 
+    /**
+     * Constructor for messages that keep their parameters in own fields instead of the generic parameter map. Such messages
+     * must override {@link #decode(ByteBuf)}, {@link #encodeParams(ByteBuf)} and {@link #toString()}.
+     */
+    protected M3UAMessageImpl(int messageClass, int messageType) {
+        this.messageClass = messageClass;
+        this.messageType = messageType;
+    }
+
     protected abstract void encodeParams(ByteBuf buffer);
 
     public void encode(ByteBuf byteBuf) {
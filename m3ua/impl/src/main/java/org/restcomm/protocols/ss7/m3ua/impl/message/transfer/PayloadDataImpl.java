@@ -25,7 +25,6 @@ package org.restcomm.protocols.ss7.m3ua.impl.message.transfer;
 import io.netty.buffer.ByteBuf;
 
 import org.restcomm.protocols.ss7.m3ua.impl.message.M3UAMessageImpl;
-import org.restcomm.protocols.ss7.m3ua.impl.parameter.CorrelationIdImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.parameter.ParameterImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.parameter.ProtocolDataImpl;
 import org.restcomm.protocols.ss7.m3ua.message.MessageClass;
@@ -38,71 +37,202 @@ import org.restcomm.protocols.ss7.m3ua.parameter.ProtocolData;
 import org.restcomm.protocols.ss7.m3ua.parameter.RoutingContext;
 
 /**
+ * DATA message. Parameters are kept in fields instead of the generic parameter map and the message is decoded straight from
+ * the received buffer: fixed-size parameters are read by offset and the MTP3 user data is copied once into the Protocol
+ * Data parameter.
+ *
  * @author amit bhayani
  * @author kulikov
  */
 public class PayloadDataImpl extends M3UAMessageImpl implements PayloadData {
 
+    private NetworkAppearance networkAppearance;
+    private RoutingContext routingContext;
+    private ProtocolData data;
+    private CorrelationId correlationId;
+
     public PayloadDataImpl() {
-        super(MessageClass.TRANSFER_MESSAGES, MessageType.PAYLOAD, MessageType.S_PAYLOAD);
+        super(MessageClass.TRANSFER_MESSAGES, MessageType.PAYLOAD);
     }
 
     public NetworkAppearance getNetworkAppearance() {
-        return (NetworkAppearance) parameters.get(Parameter.Network_Appearance);
+        return networkAppearance;
     }
 
     public void setNetworkAppearance(NetworkAppearance p) {
         if (p != null) {
-            parameters.put(Parameter.Network_Appearance, p);
+            this.networkAppearance = p;
         }
     }
 
     public RoutingContext getRoutingContext() {
-        return (RoutingContext) parameters.get(Parameter.Routing_Context);
+        return routingContext;
     }
 
     public void setRoutingContext(RoutingContext p) {
         if (p != null) {
-            parameters.put(Parameter.Routing_Context, p);
+            this.routingContext = p;
         }
     }
 
     public ProtocolData getData() {
-        return (ProtocolDataImpl) parameters.get(Parameter.Protocol_Data);
+        return data;
     }
 
     public void setData(ProtocolData p) {
-        parameters.put(Parameter.Protocol_Data, p);
+        this.data = p;
     }
 
     public CorrelationId getCorrelationId() {
-        return (CorrelationIdImpl) parameters.get(Parameter.Correlation_ID);
+        return correlationId;
     }
 
     public void setCorrelationId(CorrelationId corrId) {
         if (corrId != null) {
-            parameters.put(Parameter.Correlation_ID, corrId);
+            this.correlationId = corrId;
         }
     }
 
+    @Override
+    protected void decode(ByteBuf buf) {
+        int pos = buf.readerIndex();
+        int end = buf.writerIndex();
+        while (end - pos >= 4) {
+            short tag = buf.getShort(pos);
+            int len = buf.getUnsignedShort(pos + 2);
+            if (len < 4 || end - pos < len)
+                break;
+            int valuePos = pos + 4;
+            int valueLen = len - 4;
+
+            switch (tag) {
+                case Parameter.Network_Appearance:
+                    if (valueLen >= 4)
+                        this.networkAppearance = factory.createNetworkAppearance(buf.getUnsignedInt(valuePos));
+                    break;
+                case Parameter.Routing_Context:
+                    long[] rcs = new long[valueLen / 4];
+                    for (int i1 = 0; i1 < rcs.length; i1++) {
+                        rcs[i1] = buf.getUnsignedInt(valuePos + i1 * 4);
+                    }
+                    this.routingContext = factory.createRoutingContext(rcs);
+                    break;
+                case Parameter.Protocol_Data:
+                    if (valueLen >= 12) {
+                        byte[] userData = new byte[valueLen - 12];
+                        buf.getBytes(valuePos + 12, userData);
+                        this.data = factory.createProtocolData(buf.getInt(valuePos), buf.getInt(valuePos + 4),
+                                buf.getUnsignedByte(valuePos + 8), buf.getUnsignedByte(valuePos + 9),
+                                buf.getUnsignedByte(valuePos + 10), buf.getUnsignedByte(valuePos + 11), userData);
+                    }
+                    break;
+                case Parameter.Correlation_ID:
+                    if (valueLen >= 4)
+                        this.correlationId = factory.createCorrelationId(buf.getUnsignedInt(valuePos));
+                    break;
+            }
+
+            // the Parameter Length does not include padding octets
+            pos += (len + 3) & ~3;
+        }
+        buf.readerIndex(Math.min(pos, end));
+    }
+
     @Override
     public String toString() {
-        return "TransferMessage: " + parameters;
+        StringBuilder sb = new StringBuilder();
+        sb.append("TransferMessage: {");
+        if (networkAppearance != null)
+            sb.append(networkAppearance).append(", ");
+        if (routingContext != null)
+            sb.append(routingContext).append(", ");
+        if (data != null)
+            sb.append(data).append(", ");
+        if (correlationId != null)
+            sb.append(correlationId).append(", ");
+        sb.append("}");
+        return sb.toString();
+    }
+
+    /**
+     * Encodes the message around the user data buffer of the Protocol Data parameter (if the user data has been supplied
+     * in a buffer). The M3UA header and the parameters that precede the user data are written into the buffer headroom,
+     * the padding and Correlation ID are appended after the user data, so the user data is not copied. The buffer is
+     * detached from the message.
+     *
+     * @return the buffer that contains the encoded message or null if the message has no data buffer or the buffer
+     *         headroom is too small (encode(ByteBuf) must be used then)
+     */
+    public ByteBuf encodeInPlace() {
+        ProtocolDataImpl protocolData = (ProtocolDataImpl) this.data;
+        if (protocolData == null || protocolData.getDataBuf() == null)
+            return null;
+        ParameterImpl networkAppearance = (ParameterImpl) this.networkAppearance;
+        ParameterImpl routingContext = (ParameterImpl) this.routingContext;
+        ParameterImpl correlationId = (ParameterImpl) this.correlationId;
+
+        // common header + Protocol Data tag, length and routing label
+        int headerLen = 8 + 16;
+        if (networkAppearance != null)
+            headerLen += networkAppearance.getEncodedLength();
+        if (routingContext != null)
+            headerLen += routingContext.getEncodedLength();
+
+        ByteBuf buf = protocolData.getDataBuf();
+        if (buf.readerIndex() < headerLen)
+            return null;
+
+        int dataLen = buf.readableBytes();
+        int padding = (4 - dataLen % 4) & 3;
+        int messageLen = headerLen + dataLen + padding;
+        if (correlationId != null)
+            messageLen += correlationId.getEncodedLength();
+        int start = buf.readerIndex() - headerLen;
+
+        ByteBuf header = buf.slice(start, headerLen);
+        header.writerIndex(0);
+        header.writeByte(1);
+        header.writeByte(0);
+        header.writeByte(this.getMessageClass());
+        header.writeByte(this.getMessageType());
+        header.writeInt(messageLen);
+        if (networkAppearance != null)
+            networkAppearance.write(header);
+        if (routingContext != null)
+            routingContext.write(header);
+        protocolData.writeHeader(header);
+
+        buf.writeZero(padding);
+        if (correlationId != null)
+            correlationId.write(buf);
+        buf.readerIndex(start);
+
+        protocolData.detachDataBuf();
+        return buf;
+    }
+
+    /**
+     * Releases the user data buffer of the Protocol Data parameter if it has not been passed to the transport
+     */
+    public void releaseDataBuf() {
+        ProtocolDataImpl protocolData = (ProtocolDataImpl) this.data;
+        if (protocolData != null)
+            protocolData.releaseDataBuf();
     }
 
     @Override
     protected void encodeParams(ByteBuf buf) {
-        if (parameters.containsKey(Parameter.Network_Appearance)) {
-            ((ParameterImpl) parameters.get(Parameter.Network_Appearance)).write(buf);
+        if (networkAppearance != null) {
+            ((ParameterImpl) networkAppearance).write(buf);
         }
-        if (parameters.containsKey(Parameter.Routing_Context)) {
-            ((ParameterImpl) parameters.get(Parameter.Routing_Context)).write(buf);
+        if (routingContext != null) {
+            ((ParameterImpl) routingContext).write(buf);
         }
-        if (parameters.containsKey(Parameter.Protocol_Data)) {
-            ((ParameterImpl) parameters.get(Parameter.Protocol_Data)).write(buf);
+        if (data != null) {
+            ((ParameterImpl) data).write(buf);
         }
-        if (parameters.containsKey(Parameter.Correlation_ID)) {
-            ((ParameterImpl) parameters.get(Parameter.Correlation_ID)).write(buf);
+        if (correlationId != null) {
+            ((ParameterImpl) correlationId).write(buf);
         }
     }
 }
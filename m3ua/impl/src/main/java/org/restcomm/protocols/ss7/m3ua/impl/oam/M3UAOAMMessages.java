@@ -142,6 +142,10 @@ public interface M3UAOAMMessages {
 
     String SHOW_HEARTBEAT_ENABLED = " heartbeat=";
 
+    String SHOW_WRITE_BATCH_DELAY = " writebatchdelay=";
+
+    String SHOW_WRITE_BATCH_SIZE = " writebatchsize=";
+
     String SHOW_STARTED = " started=";
 
     String SHOW_FUNCTIONALITY = " functionality=";
@@ -450,7 +450,7 @@ public class M3UAShellExecutor implements ShellExecutor {
                 return M3UAOAMMessages.INVALID_COMMAND;
             } else if (args[1].equals("asp")) {
 
-                if (args.length < 3 || args.length > 11) {
+                if (args.length < 3 || args.length > 15) {
                     return M3UAOAMMessages.INVALID_COMMAND;
                 }
 
@@ -460,7 +460,8 @@ public class M3UAShellExecutor implements ShellExecutor {
                 if (raspCmd == null) {
                     return M3UAOAMMessages.INVALID_COMMAND;
                 } else if (raspCmd.equals("create")) {
-                    // m3ua asp create <asp-name> <sctp-association> aspid <aspid> heartbeat <true|false> stackname <stack-name>
+                    // m3ua asp create <asp-name> <sctp-association> aspid <aspid> heartbeat <true|false>
+                    // writebatchdelay <microseconds> writebatchsize <bytes> stackname <stack-name>
 
                     // Create new ASP
                     if (args.length < 5) {
@@ -477,6 +478,8 @@ public class M3UAShellExecutor implements ShellExecutor {
                     AspFactory factory = null;
                     long aspid = -1;
                     boolean isHeartBeatEnabled = false;
+                    int writeBatchDelay = 0;
+                    int writeBatchSize = 0;
 
                     if (args.length > 5) {
                         int count = 5;
@@ -491,6 +494,10 @@ public class M3UAShellExecutor implements ShellExecutor {
                                 aspid = Long.parseLong(args[count++]);
                             } else if (key.equals("heartbeat")) {
                                 isHeartBeatEnabled = Boolean.parseBoolean(args[count++]);
+                            } else if (key.equals("writebatchdelay")) {
+                                writeBatchDelay = Integer.parseInt(args[count++]);
+                            } else if (key.equals("writebatchsize")) {
+                                writeBatchSize = Integer.parseInt(args[count++]);
                             } else if (key.equals("stackname")) {
                                 String m3uaStackName = args[count++];
 
@@ -514,6 +521,9 @@ public class M3UAShellExecutor implements ShellExecutor {
                     } else {
                         factory = this.m3uaManagement.createAspFactory(aspname, assocName, aspid, isHeartBeatEnabled);
                     }
+                    if (writeBatchDelay > 0) {
+                        this.m3uaManagement.setAspFactoryWriteBatch(aspname, writeBatchDelay, writeBatchSize);
+                    }
                     return String.format(M3UAOAMMessages.CREATE_ASP_SUCESSFULL, factory.getName(),
                             this.m3uaManagement.getName());
                 } else if (raspCmd.equals("destroy")) {
@@ -21,6 +21,8 @@
  */
 package org.restcomm.protocols.ss7.m3ua.impl.parameter;
 
+import io.netty.buffer.ByteBuf;
+
 import org.restcomm.protocols.ss7.m3ua.parameter.ASPIdentifier;
 import org.restcomm.protocols.ss7.m3ua.parameter.AffectedPointCode;
 import org.restcomm.protocols.ss7.m3ua.parameter.ConcernedDPC;
@@ -58,6 +60,10 @@ public class ParameterFactoryImpl implements ParameterFactory {
         return new ProtocolDataImpl(opc, dpc, si, ni, mp, sls, data);
     }
 
+    public ProtocolData createProtocolData(int opc, int dpc, int si, int ni, int mp, int sls, ByteBuf dataBuf) {
+        return new ProtocolDataImpl(opc, dpc, si, ni, mp, sls, dataBuf);
+    }
+
     public ProtocolData createProtocolData(byte[] payloadData) {
         ProtocolDataImpl p = new ProtocolDataImpl(payloadData);
         return p;
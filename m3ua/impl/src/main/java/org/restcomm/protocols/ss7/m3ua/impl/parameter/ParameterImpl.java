@@ -41,6 +41,13 @@ public abstract class ParameterImpl implements Parameter {
 
     protected abstract byte[] getValue();
 
+    /**
+     * @return the encoded parameter length including tag, length and padding octets
+     */
+    public int getEncodedLength() {
+        return (getValue().length + 4 + 3) & ~3;
+    }
+
     // public void encode(OutputStream out) throws IOException {
     // // obtain encoded value
     // byte[] value = getValue();
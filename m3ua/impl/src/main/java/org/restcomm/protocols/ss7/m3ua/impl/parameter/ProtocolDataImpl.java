@@ -21,6 +21,8 @@
  */
 package org.restcomm.protocols.ss7.m3ua.impl.parameter;
 
+import io.netty.buffer.ByteBuf;
+
 import org.restcomm.protocols.ss7.m3ua.parameter.ProtocolData;
 
 /**
@@ -38,6 +40,8 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
     private int mp;
     private int sls;
     private byte[] data;
+    // the user data in a buffer with a headroom (see Mtp3TransferPrimitive.getDataBuf())
+    private ByteBuf dataBuf;
 
     protected ProtocolDataImpl() {
         this.tag = ParameterImpl.Protocol_Data;
@@ -52,7 +56,11 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
         this.mp = mp;
         this.sls = sls;
         this.data = data;
-        encode();
+    }
+
+    protected ProtocolDataImpl(int opc, int dpc, int si, int ni, int mp, int sls, ByteBuf dataBuf) {
+        this(opc, dpc, si, ni, mp, sls, (byte[]) null);
+        this.dataBuf = dataBuf;
     }
 
     /**
@@ -130,11 +138,80 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
     }
 
     public byte[] getData() {
+        if (this.data == null && this.dataBuf != null) {
+            byte[] res = new byte[this.dataBuf.readableBytes()];
+            this.dataBuf.getBytes(this.dataBuf.readerIndex(), res);
+            this.data = res;
+        }
         return data;
     }
 
+    public ByteBuf getDataBuf() {
+        return dataBuf;
+    }
+
+    public int getDataLength() {
+        if (this.dataBuf != null)
+            return this.dataBuf.readableBytes();
+        if (this.data != null)
+            return this.data.length;
+        return 0;
+    }
+
+    /**
+     * Releases the data buffer. Is invoked when the buffer has not been passed to the transport (the message was encoded
+     * into another buffer or dropped).
+     */
+    public void releaseDataBuf() {
+        if (this.dataBuf != null) {
+            ByteBuf buf = this.dataBuf;
+            this.dataBuf = null;
+            buf.release();
+        }
+    }
+
+    /**
+     * Detaches the data buffer after it has been passed to the transport. The user data is not available after it if it
+     * has not been fetched by getData() before.
+     */
+    public void detachDataBuf() {
+        this.dataBuf = null;
+    }
+
+    /**
+     * Writes the parameter header: tag, length and routing label fields that precede the user data
+     */
+    public void writeHeader(ByteBuf buf) {
+        this.length = (short) (this.getDataLength() + 16);
+        buf.writeShort(this.tag);
+        buf.writeShort(this.length);
+
+        buf.writeInt(opc);
+        buf.writeInt(dpc);
+        buf.writeByte(si);
+        buf.writeByte(ni);
+        buf.writeByte(mp);
+        buf.writeByte(sls);
+    }
+
+    @Override
+    public void write(ByteBuf buf) {
+        this.writeHeader(buf);
+
+        if (this.dataBuf != null)
+            buf.writeBytes(this.dataBuf, this.dataBuf.readerIndex(), this.dataBuf.readableBytes());
+        else
+            buf.writeBytes(this.data);
+
+        int remainder = (4 - length % 4);
+        if (remainder < 4)
+            buf.writeZero(remainder);
+    }
+
     @Override
     protected byte[] getValue() {
+        // the user data must be available as a byte array here
+        this.getData();
         return this.encode();
     }
 
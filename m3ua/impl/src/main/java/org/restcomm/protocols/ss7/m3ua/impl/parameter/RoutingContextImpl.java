@@ -72,7 +72,6 @@ public class RoutingContextImpl extends ParameterImpl implements RoutingContext,
     protected RoutingContextImpl(long[] routingcontexts) {
         this.tag = Parameter.Routing_Context;
         rcs = routingcontexts;
-        encode();
     }
 
     private void encode() {
@@ -96,6 +95,9 @@ public class RoutingContextImpl extends ParameterImpl implements RoutingContext,
 
     @Override
     protected byte[] getValue() {
+        // the value is encoded at the first encoding of the parameter
+        if (value == null)
+            encode();
         return value;
     }
 
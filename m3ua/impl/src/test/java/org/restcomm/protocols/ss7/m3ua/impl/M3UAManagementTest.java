@@ -24,6 +24,8 @@ package org.restcomm.protocols.ss7.m3ua.impl;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 import io.netty.buffer.ByteBufAllocator;
 
 import java.io.BufferedWriter;
@@ -56,6 +58,7 @@ import org.restcomm.protocols.ss7.m3ua.impl.M3UAManagementImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
 import org.restcomm.protocols.ss7.m3ua.parameter.NetworkAppearance;
 import org.restcomm.protocols.ss7.m3ua.parameter.RoutingContext;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -159,6 +162,58 @@ public class M3UAManagementTest {
 
     }
 
+    @Test
+    public void testJournalReplay() throws Exception {
+
+        this.m3uaMgmt.createAs("AS1", Functionality.AS, ExchangeType.SE, null, factory.createRoutingContext(new long[] { 1 }),
+                null, 1, null);
+        this.m3uaMgmt.createAs("AS2", Functionality.AS, ExchangeType.SE, null, factory.createRoutingContext(new long[] { 2 }),
+                null, 1, null);
+        this.m3uaMgmt.addRoute(123, 1, 1, "AS1");
+        this.m3uaMgmt.addRoute(124, -1, -1, "AS1");
+        this.m3uaMgmt.store();
+        this.m3uaMgmt.flush();
+
+        // routes changes are in the journal only
+        this.m3uaMgmt.removeRoute(124, -1, -1, "AS1");
+        this.m3uaMgmt.addRoute(125, -1, -1, "AS2");
+        this.m3uaMgmt.removeRoute(123, 1, 1, "AS1");
+        this.m3uaMgmt.addRoute(123, 1, 1, "AS2");
+        this.m3uaMgmt.flush();
+        String persistDir = this.m3uaMgmt.getPersistDir();
+        if (persistDir == null)
+            persistDir = System.getProperty("m3ua.persist.dir", System.getProperty("user.dir"));
+        File journalFile = new File(persistDir + File.separator + "M3UAManagementTest_m3ua1.xml" + ConfigJournal.JOURNAL_SUFFIX);
+        assertTrue(journalFile.length() > 0);
+
+        M3UAManagementImpl m3uaMgmt1 = new M3UAManagementImpl("M3UAManagementTest", null, null);
+        m3uaMgmt1.setPersistDir(Util.getTmpTestDir());
+        m3uaMgmt1.setTransportManagement(this.transportManagement);
+        m3uaMgmt1.start();
+
+        assertEquals(m3uaMgmt1.getAppServers().size(), 2);
+        Map<String, RouteAs> route = m3uaMgmt1.getRoute();
+        assertEquals(route.size(), 2);
+        assertNull(route.get("124:-1:-1"));
+        assertEquals(route.get("125:-1:-1").getAsArray()[0].getName(), "AS2");
+        As[] asList = route.get("123:1:1").getAsArray();
+        assertEquals(asList[0].getName(), "AS2");
+        assertNull(asList[1]);
+
+        // replayed routes refer to the loaded AS instances
+        for (As as : m3uaMgmt1.getAppServers()) {
+            if (as.getName().equals("AS2"))
+                assertEquals(asList[0], as);
+        }
+
+        // replayed records are moved into the snapshot
+        m3uaMgmt1.flush();
+        assertEquals(journalFile.length(), 0);
+
+        m3uaMgmt1.removeAllResourses();
+        m3uaMgmt1.stop();
+    }
+
     @Test
     public void testSerializationFromOldVerToNewVers() throws Exception {
         // Prepare path for file
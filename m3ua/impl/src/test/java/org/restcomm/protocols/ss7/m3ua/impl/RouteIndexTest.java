@@ -0,0 +1,83 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import javolution.util.FastMap;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for RouteIndex key packing and lookup
+ *
+ */
+public class RouteIndexTest {
+
+    @Test
+    public void testGet() throws Exception {
+        FastMap<String, RouteAsImpl> route = new FastMap<String, RouteAsImpl>();
+        RouteAsImpl r1 = new RouteAsImpl();
+        RouteAsImpl r2 = new RouteAsImpl();
+        RouteAsImpl r3 = new RouteAsImpl();
+        route.put("123:1:3", r1);
+        route.put("123:1:-1", r2);
+        route.put("123:-1:-1", r3);
+
+        RouteIndex index = RouteIndex.build(route, ":");
+        assertEquals(index.size(), 3);
+        assertSame(index.get(123, 1, 3), r1);
+        assertSame(index.get(123, 1, -1), r2);
+        assertSame(index.get(123, -1, -1), r3);
+        assertNull(index.get(123, 1, 4));
+        assertNull(index.get(123, 2, -1));
+        assertNull(index.get(124, -1, -1));
+        assertNull(index.get(0, -1, -1));
+
+        assertNull(RouteIndex.EMPTY.get(123, 1, 3));
+
+        // extreme values must not collide
+        assertEquals(RouteIndex.key(0xFFFFFF, -1, -1) == RouteIndex.key(0xFFFFFF, 0xFFFFFF, 15), false);
+        assertEquals(RouteIndex.key(0, 0, -1) == RouteIndex.key(0, -1, 15), false);
+    }
+
+    @Test
+    public void testManyRoutes() throws Exception {
+        FastMap<String, RouteAsImpl> route = new FastMap<String, RouteAsImpl>();
+        RouteAsImpl[] routes = new RouteAsImpl[10000];
+        for (int i1 = 0; i1 < routes.length; i1++) {
+            routes[i1] = new RouteAsImpl();
+            route.put((i1 + 1) + ":" + (i1 % 3 == 0 ? -1 : i1 * 7) + ":" + (i1 % 2 == 0 ? -1 : 3), routes[i1]);
+        }
+
+        RouteIndex index = RouteIndex.build(route, ":");
+        assertEquals(index.size(), routes.length);
+        for (int i1 = 0; i1 < routes.length; i1++) {
+            assertSame(index.get(i1 + 1, (i1 % 3 == 0 ? -1 : i1 * 7), (i1 % 2 == 0 ? -1 : 3)), routes[i1]);
+        }
+        assertNull(index.get(routes.length + 1, -1, -1));
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import static org.testng.Assert.assertEquals;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for coalescing of DATA messages by WriteBatcher
+ *
+ */
+public class WriteBatcherTest {
+
+    private ScheduledExecutorService timer;
+    private AspFactoryImplProxy aspFactory;
+
+    @BeforeMethod
+    public void setUp() {
+        this.timer = Executors.newSingleThreadScheduledExecutor();
+        this.aspFactory = new AspFactoryImplProxy();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        this.timer.shutdown();
+    }
+
+    @Test
+    public void testFlushBeforeManagementMessage() throws Exception {
+        WriteBatcher batcher = new WriteBatcher(aspFactory, null, timer, 10000000, 1000);
+
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 1, 2 }));
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 3 }));
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 4, 5, 6 }));
+        assertEquals(aspFactory.sent.size(), 0);
+
+        batcher.flushAndSend(Unpooled.wrappedBuffer(new byte[] { 10 }), true, 0);
+        assertEquals(aspFactory.sent.size(), 2);
+        assertEquals(aspFactory.sent.get(0), new byte[] { 1, 2, 3, 4, 5, 6 });
+        assertEquals(aspFactory.sent.get(1), new byte[] { 10 });
+        assertEquals(aspFactory.unordered.get(0).booleanValue(), false);
+        assertEquals(aspFactory.unordered.get(1).booleanValue(), true);
+
+        // nothing is pending
+        batcher.flush();
+        assertEquals(aspFactory.sent.size(), 2);
+    }
+
+    @Test
+    public void testSizeAndDelay() throws Exception {
+        WriteBatcher batcher = new WriteBatcher(aspFactory, null, timer, 300000, 8);
+
+        // the byte budget is reached by the third message
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 }));
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 4, 5, 6 }));
+        assertEquals(aspFactory.sent.size(), 0);
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 7, 8, 9 }));
+        assertEquals(aspFactory.sent.size(), 1);
+        assertEquals(aspFactory.sent.get(0), new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9 });
+
+        // the rest is written by the timer
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 11 }));
+        Thread.sleep(1000);
+        assertEquals(aspFactory.sent.size(), 2);
+        assertEquals(aspFactory.sent.get(1), new byte[] { 11 });
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        WriteBatcher batcher = new WriteBatcher(aspFactory, null, timer, 10000000, 1000);
+
+        ByteBuf buf = Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 });
+        batcher.add(buf);
+        batcher.discard();
+        assertEquals(buf.refCnt(), 0);
+        batcher.flush();
+        assertEquals(aspFactory.sent.size(), 0);
+    }
+
+    @Test
+    public void testDetach() throws Exception {
+        WriteBatcher batcher = new WriteBatcher(aspFactory, null, timer, 10000000, 1000);
+
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 1, 2 }));
+        batcher.detach();
+        assertEquals(aspFactory.sent.size(), 1);
+        assertEquals(aspFactory.sent.get(0), new byte[] { 1, 2 });
+
+        // a sender that still holds the replaced batcher writes at once
+        batcher.add(Unpooled.wrappedBuffer(new byte[] { 3 }));
+        assertEquals(aspFactory.sent.size(), 2);
+        assertEquals(aspFactory.sent.get(1), new byte[] { 3 });
+        batcher.flush();
+        assertEquals(aspFactory.sent.size(), 2);
+    }
+
+    class AspFactoryImplProxy extends AspFactoryImpl {
+
+        List<byte[]> sent = new ArrayList<byte[]>();
+        List<Boolean> unordered = new ArrayList<Boolean>();
+
+        @Override
+        protected void send(ByteBuf byteBuf, boolean unordered, int streamNumber) throws Exception {
+            byte[] data = new byte[byteBuf.readableBytes()];
+            byteBuf.readBytes(data);
+            byteBuf.release();
+            this.sent.add(data);
+            this.unordered.add(unordered);
+        }
+    }
+}
@@ -24,6 +24,7 @@ package org.restcomm.protocols.ss7.m3ua.impl.message;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
@@ -76,6 +77,7 @@ import org.restcomm.protocols.ss7.m3ua.parameter.InfoString;
 import org.restcomm.protocols.ss7.m3ua.parameter.LocalRKIdentifier;
 import org.restcomm.protocols.ss7.m3ua.parameter.NetworkAppearance;
 import org.restcomm.protocols.ss7.m3ua.parameter.OPCList;
+import org.restcomm.protocols.ss7.m3ua.parameter.ProtocolData;
 import org.restcomm.protocols.ss7.m3ua.parameter.RegistrationResult;
 import org.restcomm.protocols.ss7.m3ua.parameter.RegistrationStatus;
 import org.restcomm.protocols.ss7.m3ua.parameter.RoutingContext;
@@ -170,6 +172,118 @@ public class MessageTest {
         assertEquals(payload, p2.getData());
     }
 
+    @Test
+    public void testPayloadData_InPlace() throws IOException {
+        for (int len = 4; len < 8; len++) {
+            byte[] payload = new byte[len];
+            for (int i1 = 0; i1 < len; i1++) {
+                payload[i1] = (byte) (i1 + 1);
+            }
+
+            // regular encoding
+            PayloadDataImpl msg = (PayloadDataImpl) messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES,
+                    MessageType.PAYLOAD);
+            msg.setNetworkAppearance(parmFactory.createNetworkAppearance(102));
+            msg.setRoutingContext(parmFactory.createRoutingContext(new long[] { 100, 101 }));
+            msg.setData(parmFactory.createProtocolData(1408, 14150, 3, 1, 0, 5, payload));
+            msg.setCorrelationId(parmFactory.createCorrelationId(12345));
+            ByteBuf byteBuf = Unpooled.buffer();
+            msg.encode(byteBuf);
+            byte[] expected = new byte[byteBuf.readableBytes()];
+            byteBuf.readBytes(expected);
+
+            // encoding into the headroom of the user data buffer
+            ByteBuf dataBuf = Unpooled.buffer(64 + len + 12);
+            dataBuf.writerIndex(64);
+            dataBuf.readerIndex(64);
+            dataBuf.writeBytes(payload);
+            PayloadDataImpl msg2 = (PayloadDataImpl) messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES,
+                    MessageType.PAYLOAD);
+            msg2.setNetworkAppearance(parmFactory.createNetworkAppearance(102));
+            msg2.setRoutingContext(parmFactory.createRoutingContext(new long[] { 100, 101 }));
+            msg2.setData(parmFactory.createProtocolData(1408, 14150, 3, 1, 0, 5, dataBuf));
+            msg2.setCorrelationId(parmFactory.createCorrelationId(12345));
+            ByteBuf byteBuf2 = msg2.encodeInPlace();
+            assertTrue(byteBuf2 == dataBuf);
+            byte[] res = new byte[byteBuf2.readableBytes()];
+            byteBuf2.readBytes(res);
+            assertEquals(res, expected);
+
+            PayloadDataImpl msg3 = (PayloadDataImpl) messageFactory.createMessage(Unpooled.wrappedBuffer(res));
+            assertEquals(msg3.getData().getData(), payload);
+            assertEquals(msg3.getData().getSLS(), 5);
+            assertEquals(msg3.getCorrelationId().getCorrelationId(), 12345);
+        }
+
+        // too small headroom - the message must be encoded by encode(ByteBuf)
+        ByteBuf dataBuf = Unpooled.buffer();
+        dataBuf.writeBytes(new byte[] { 1, 2, 3 });
+        PayloadDataImpl msg = (PayloadDataImpl) messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES,
+                MessageType.PAYLOAD);
+        ProtocolDataImpl p1 = (ProtocolDataImpl) parmFactory.createProtocolData(1408, 14150, 3, 1, 0, 5, dataBuf);
+        msg.setData(p1);
+        assertNull(msg.encodeInPlace());
+        ByteBuf byteBuf = Unpooled.buffer();
+        msg.encode(byteBuf);
+        PayloadDataImpl msg3 = (PayloadDataImpl) messageFactory.createMessage(byteBuf);
+        assertEquals(msg3.getData().getData(), new byte[] { 1, 2, 3 });
+    }
+
+    @Test
+    public void testPayloadData_Decode() throws IOException {
+        PayloadDataImpl msg = (PayloadDataImpl) messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES,
+                MessageType.PAYLOAD);
+        msg.setNetworkAppearance(parmFactory.createNetworkAppearance(0xFFFFFFF0L));
+        msg.setRoutingContext(parmFactory.createRoutingContext(new long[] { 100 }));
+        msg.setData(parmFactory.createProtocolData(0x00FFFFFF, 14150, 3, 2, 1, 200, new byte[] { 1, 2, 3, 4, 5, 6, 7 }));
+        msg.setCorrelationId(parmFactory.createCorrelationId(12345));
+        ByteBuf encoded = Unpooled.buffer();
+        msg.encode(encoded);
+        byte[] msgData = new byte[encoded.readableBytes()];
+        encoded.readBytes(msgData);
+
+        // an unknown parameter before the Protocol Data and two messages in one buffer
+        byte[] withUnknown = new byte[msgData.length + 8];
+        System.arraycopy(msgData, 0, withUnknown, 0, 24);
+        System.arraycopy(new byte[] { 0x7F, 0x01, 0x00, 0x07, 1, 2, 3, 0 }, 0, withUnknown, 24, 8);
+        System.arraycopy(msgData, 24, withUnknown, 32, msgData.length - 24);
+        withUnknown[7] += 8;
+        ByteBuf byteBuf = Unpooled.buffer();
+        byteBuf.writeBytes(withUnknown);
+        byteBuf.writeBytes(msgData);
+
+        for (int i1 = 0; i1 < 2; i1++) {
+            PayloadDataImpl msg1 = (PayloadDataImpl) messageFactory.createMessage(byteBuf);
+            assertEquals(msg1.getNetworkAppearance().getNetApp(), 0xFFFFFFF0L);
+            assertEquals(msg1.getRoutingContext().getRoutingContexts(), new long[] { 100 });
+            assertEquals(msg1.getCorrelationId().getCorrelationId(), 12345);
+            ProtocolData p2 = msg1.getData();
+            assertEquals(p2.getOpc(), 0x00FFFFFF);
+            assertEquals(p2.getDpc(), 14150);
+            assertEquals(p2.getSI(), 3);
+            assertEquals(p2.getNI(), 2);
+            assertEquals(p2.getMP(), 1);
+            assertEquals(p2.getSLS(), 200);
+            assertEquals(p2.getData(), new byte[] { 1, 2, 3, 4, 5, 6, 7 });
+        }
+        assertEquals(byteBuf.readableBytes(), 0);
+
+        // re-encoding of a decoded message
+        byteBuf = Unpooled.buffer();
+        ((PayloadDataImpl) messageFactory.createMessage(Unpooled.wrappedBuffer(msgData))).encode(byteBuf);
+        byte[] res = new byte[byteBuf.readableBytes()];
+        byteBuf.readBytes(res);
+        assertEquals(res, msgData);
+
+        // the Protocol Data parameter is cut off
+        byte[] truncated = Arrays.copyOf(msgData, msgData.length - 12);
+        truncated[7] -= 12;
+        PayloadDataImpl msg2 = (PayloadDataImpl) messageFactory.createMessage(Unpooled.wrappedBuffer(truncated));
+        assertNotNull(msg2.getRoutingContext());
+        assertNull(msg2.getData());
+        assertNull(msg2.getCorrelationId());
+    }
+
     @Test
     public void testDestinationUnavailable() throws IOException {
         ByteBuf byteBuf = Unpooled.buffer();
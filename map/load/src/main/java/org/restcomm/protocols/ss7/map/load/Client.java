@@ -182,6 +182,9 @@ public class Client extends TestHarness {
 
         // Step 2 : Create ASP
         this.clientM3UAMgmt.createAspFactory("ASP1", CLIENT_ASSOCIATION_NAME);
+        if (WRITE_BATCH_DELAY > 0) {
+            this.clientM3UAMgmt.setAspFactoryWriteBatch("ASP1", WRITE_BATCH_DELAY, WRITE_BATCH_SIZE);
+        }
 
         // Step3 : Assign ASP to AS
         Asp asp = this.clientM3UAMgmt.assignAspToAs("AS1", "ASP1");
@@ -401,6 +404,18 @@ public class Client extends TestHarness {
 
         System.out.println("ROUTING_INDICATOR=" + TestHarness.ROUTING_INDICATOR);
 
+        if (args.length >= 19) {
+            TestHarness.WRITE_BATCH_DELAY = Integer.parseInt(args[18]);
+        }
+
+        System.out.println("WRITE_BATCH_DELAY=" + TestHarness.WRITE_BATCH_DELAY);
+
+        if (args.length >= 20) {
+            TestHarness.WRITE_BATCH_SIZE = Integer.parseInt(args[19]);
+        }
+
+        System.out.println("WRITE_BATCH_SIZE=" + TestHarness.WRITE_BATCH_SIZE);
+
         // logger.info("Number of calls to be completed = " + noOfCalls +
         // " Number of concurrent calls to be maintained = " +
         // noOfConcurrentCalls);
@@ -164,6 +164,9 @@ public class Server extends TestHarness {
 
         // Step 2 : Create ASP
         AspFactory aspFactor = this.serverM3UAMgmt.createAspFactory("RASP1", SERVER_ASSOCIATION_NAME);
+        if (WRITE_BATCH_DELAY > 0) {
+            this.serverM3UAMgmt.setAspFactoryWriteBatch("RASP1", WRITE_BATCH_DELAY, WRITE_BATCH_SIZE);
+        }
 
         // Step3 : Assign ASP to AS
         Asp asp = this.serverM3UAMgmt.assignAspToAs("RAS1", "RASP1");
@@ -587,6 +590,16 @@ public class Server extends TestHarness {
         }
         System.out.println("DELIVERY_TRANSFER_MESSAGE_THREAD_COUNT="+TestHarness.DELIVERY_TRANSFER_MESSAGE_THREAD_COUNT);
 
+        if (args.length >= 13) {
+            TestHarness.WRITE_BATCH_DELAY = Integer.parseInt(args[12]);
+        }
+        System.out.println("WRITE_BATCH_DELAY=" + TestHarness.WRITE_BATCH_DELAY);
+
+        if (args.length >= 14) {
+            TestHarness.WRITE_BATCH_SIZE = Integer.parseInt(args[13]);
+        }
+        System.out.println("WRITE_BATCH_SIZE=" + TestHarness.WRITE_BATCH_SIZE);
+
         final Server server = new Server();
         try {
             server.initializeStack(ipChannelType);
@@ -77,6 +77,10 @@ public abstract class TestHarness implements MAPDialogListener, MAPServiceSupple
 
     protected static int RAMP_UP_PERIOD = -100;
 
+    // M3UA DATA message coalescing for TCP associations (microseconds / bytes), 0 disables it
+    protected static int WRITE_BATCH_DELAY = 0;
+    protected static int WRITE_BATCH_SIZE = 0;
+
     protected final String SERVER_ASSOCIATION_NAME = "serverAsscoiation";
     protected final String CLIENT_ASSOCIATION_NAME = "clientAsscoiation";
 
@@ -0,0 +1,114 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import java.util.Random;
+
+/**
+ * Open-loop arrival process: it gives intervals between scenario starts that do not depend on how fast the tested system
+ * answers.
+ *
+ */
+public abstract class ArrivalProcess {
+
+    public static final String CONSTANT = "constant";
+    public static final String POISSON = "poisson";
+
+    protected final double ratePerSecond;
+
+    protected ArrivalProcess(double ratePerSecond) {
+        if (ratePerSecond <= 0)
+            throw new IllegalArgumentException("rate must be positive: " + ratePerSecond);
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    /**
+     * @param name {@link #CONSTANT} or {@link #POISSON}
+     * @param ratePerSecond mean count of arrivals per second
+     * @param seed random seed for the Poisson process
+     */
+    public static ArrivalProcess create(String name, double ratePerSecond, long seed) {
+        if (CONSTANT.equalsIgnoreCase(name))
+            return new Constant(ratePerSecond);
+        if (POISSON.equalsIgnoreCase(name))
+            return new Poisson(ratePerSecond, seed);
+        throw new IllegalArgumentException("Unknown arrival process: " + name + ", expected " + CONSTANT + " or " + POISSON);
+    }
+
+    public double getRatePerSecond() {
+        return this.ratePerSecond;
+    }
+
+    /**
+     * @return nanoseconds between the previous arrival and the next one
+     */
+    public abstract long nextIntervalNanos();
+
+    /**
+     * Arrivals with a fixed interval.
+     */
+    public static class Constant extends ArrivalProcess {
+        private final long intervalNanos;
+
+        public Constant(double ratePerSecond) {
+            super(ratePerSecond);
+            this.intervalNanos = Math.max(1, Math.round(1000000000 / ratePerSecond));
+        }
+
+        @Override
+        public long nextIntervalNanos() {
+            return this.intervalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return CONSTANT + "(" + this.ratePerSecond + "/s)";
+        }
+    }
+
+    /**
+     * Poisson arrivals: intervals are exponentially distributed with the mean of 1 / rate.
+     */
+    public static class Poisson extends ArrivalProcess {
+        private final Random random;
+        private final double meanIntervalNanos;
+
+        public Poisson(double ratePerSecond, long seed) {
+            super(ratePerSecond);
+            this.random = new Random(seed);
+            this.meanIntervalNanos = 1000000000 / ratePerSecond;
+        }
+
+        @Override
+        public long nextIntervalNanos() {
+            // 1 - nextDouble() is in (0, 1] so the logarithm is finite
+            return Math.max(1, Math.round(-Math.log(1 - this.random.nextDouble()) * this.meanIntervalNanos));
+        }
+
+        @Override
+        public String toString() {
+            return POISSON + "(" + this.ratePerSecond + "/s)";
+        }
+    }
+
+}
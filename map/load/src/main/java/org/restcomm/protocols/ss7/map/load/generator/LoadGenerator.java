@@ -0,0 +1,254 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Open-loop load generator. Scenario starts are scheduled by an {@link ArrivalProcess} independently of responses, worker
+ * threads share the configured rate. If a worker falls behind the schedule it starts late scenarios at once and their
+ * latency is still counted from the intended start time (see {@link LoadStatistics}).
+ *
+ * Usage: LoadGenerator &lt;scenario file or class path resource&gt; [key=value ...]
+ *
+ */
+public class LoadGenerator {
+
+    private static final Logger logger = Logger.getLogger(LoadGenerator.class);
+
+    // a worker parks until the next start is closer than this and then yields
+    private static final long SPIN_THRESHOLD_NANOS = 200000;
+    private static final long OUTSTANDING_PARK_NANOS = 100000;
+
+    private final Scenario scenario;
+    private final LoadStatistics statistics;
+
+    private LoadStack clientStack;
+    private LoadStack serverStack;
+    private ScenarioClient client;
+    private ScenarioServer server;
+
+    private volatile boolean stopped;
+
+    public LoadGenerator(Scenario scenario) {
+        this.scenario = scenario;
+        this.statistics = new LoadStatistics(scenario.getSteps());
+    }
+
+    public void start() throws Exception {
+        String role = this.scenario.getRole();
+        if (!Scenario.ROLE_CLIENT.equals(role))
+            this.serverStack = new LoadStack("LoadServer", this.scenario, true);
+        if (!Scenario.ROLE_SERVER.equals(role))
+            this.clientStack = new LoadStack("LoadClient", this.scenario, false);
+
+        if (Scenario.TRANSPORT_LOCAL.equals(this.scenario.getTransport())) {
+            LocalMtp3UserPart serverMtp3 = new LocalMtp3UserPart("LoadServer");
+            LocalMtp3UserPart clientMtp3 = new LocalMtp3UserPart("LoadClient");
+            serverMtp3.setPeer(clientMtp3);
+            clientMtp3.setPeer(serverMtp3);
+            this.serverStack.start(serverMtp3);
+            this.clientStack.start(clientMtp3);
+        } else {
+            if (this.serverStack != null)
+                this.serverStack.startM3ua();
+            if (this.clientStack != null)
+                this.clientStack.startM3ua();
+        }
+
+        if (this.serverStack != null) {
+            this.server = new ScenarioServer(this.serverStack);
+            this.serverStack.addListener(this.server);
+            this.serverStack.startAsp();
+        }
+        if (this.clientStack != null) {
+            this.client = new ScenarioClient(this.clientStack, this.scenario, this.statistics);
+            this.clientStack.addListener(this.client);
+            this.clientStack.startAsp();
+        }
+    }
+
+    /**
+     * Runs the load: warm-up, the measured period and then waits for outstanding scenarios.
+     *
+     * @return the report of the measured period
+     */
+    public LoadReport run() throws InterruptedException {
+        if (this.client == null)
+            throw new IllegalStateException("The load generator is started without the client role");
+
+        Thread.sleep(this.scenario.getStartDelay() * 1000L);
+        logger.info("Starting load: " + this.scenario);
+
+        int workerCount = this.scenario.getWorkers();
+        double workerRate = this.scenario.getRate() / workerCount;
+        long startNanos = System.nanoTime();
+        long measureStartNanos = startNanos + this.scenario.getWarmup() * 1000000000L;
+        long endNanos = measureStartNanos + this.scenario.getDuration() * 1000000000L;
+        // constant arrivals of workers are shifted so that together they keep the same interval
+        long shiftNanos = Math.round(1000000000 / this.scenario.getRate());
+
+        ScheduledExecutorService progressExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory(
+                "LoadGenerator-Progress"));
+        progressExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                logger.info(String.format("started=%d, completed=%d, failed=%d, outstanding=%d", statistics.getStarted(),
+                        statistics.getCompleted(), statistics.getFailed(), statistics.getOutstanding()));
+            }
+        }, this.scenario.getReportPeriod(), this.scenario.getReportPeriod(), TimeUnit.SECONDS);
+
+        Thread[] workers = new Thread[workerCount];
+        DefaultThreadFactory threadFactory = new DefaultThreadFactory("LoadGenerator-Worker");
+        for (int i1 = 0; i1 < workerCount; i1++) {
+            ArrivalProcess arrivalProcess = ArrivalProcess.create(this.scenario.getArrival(), workerRate,
+                    this.scenario.getSeed() + i1);
+            long firstStartNanos = startNanos
+                    + (arrivalProcess instanceof ArrivalProcess.Constant ? i1 * shiftNanos : arrivalProcess
+                            .nextIntervalNanos());
+            workers[i1] = threadFactory.newThread(new Worker(arrivalProcess, firstStartNanos, measureStartNanos, endNanos));
+            workers[i1].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        long drainEndNanos = System.nanoTime() + this.scenario.getDrainTimeout() * 1000000000L;
+        while (this.statistics.getOutstanding() > 0 && System.nanoTime() - drainEndNanos < 0) {
+            Thread.sleep(10);
+        }
+        progressExecutor.shutdown();
+        if (this.statistics.getOutstanding() > 0)
+            logger.warn("Scenarios are still outstanding after the drain timeout: " + this.statistics.getOutstanding());
+
+        return new LoadReport(this.scenario, this.statistics, endNanos - measureStartNanos);
+    }
+
+    public void stop() {
+        this.stopped = true;
+        if (this.server != null)
+            logger.info("Server answered=" + this.server.getAnswered() + ", failed=" + this.server.getFailed());
+        if (this.clientStack != null)
+            this.clientStack.stop();
+        if (this.serverStack != null)
+            this.serverStack.stop();
+    }
+
+    public LoadStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    private static void waitUntil(long timeNanos) {
+        while (true) {
+            long delay = timeNanos - System.nanoTime();
+            if (delay <= 0)
+                return;
+            if (delay > SPIN_THRESHOLD_NANOS)
+                LockSupport.parkNanos(delay - SPIN_THRESHOLD_NANOS);
+            else
+                Thread.yield();
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final ArrivalProcess arrivalProcess;
+        private final long firstStartNanos;
+        private final long measureStartNanos;
+        private final long endNanos;
+
+        Worker(ArrivalProcess arrivalProcess, long firstStartNanos, long measureStartNanos, long endNanos) {
+            this.arrivalProcess = arrivalProcess;
+            this.firstStartNanos = firstStartNanos;
+            this.measureStartNanos = measureStartNanos;
+            this.endNanos = endNanos;
+        }
+
+        @Override
+        public void run() {
+            long next = this.firstStartNanos;
+            while (!stopped && next - this.endNanos < 0) {
+                waitUntil(next);
+
+                // the latency is counted from the intended start time, so waiting here is not lost
+                while (!stopped && statistics.getOutstanding() >= scenario.getMaxOutstanding()) {
+                    LockSupport.parkNanos(OUTSTANDING_PARK_NANOS);
+                }
+
+                client.startScenario(next, next - this.measureStartNanos >= 0);
+                next += this.arrivalProcess.nextIntervalNanos();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: LoadGenerator <scenario file or class path resource> [key=value ...]");
+            System.exit(1);
+        }
+
+        LoadGenerator generator = null;
+        int exitCode = 0;
+        try {
+            Scenario scenario = Scenario.load(args[0], Arrays.copyOfRange(args, 1, args.length));
+            generator = new LoadGenerator(scenario);
+            generator.start();
+
+            if (Scenario.ROLE_SERVER.equals(scenario.getRole())) {
+                logger.info("Load generator server is started: " + scenario);
+                final LoadGenerator serverGenerator = generator;
+                final CountDownLatch stopLatch = new CountDownLatch(1);
+                Runtime.getRuntime().addShutdownHook(new Thread() {
+                    public void run() {
+                        serverGenerator.stop();
+                        stopLatch.countDown();
+                    }
+                });
+                stopLatch.await();
+                return;
+            }
+
+            LoadReport report = generator.run();
+            logger.info(report);
+            report.writeCsv(scenario.getReportCsv());
+            report.writeJson(scenario.getReportJson());
+            logger.info("Reports are written into " + scenario.getReportCsv() + " and " + scenario.getReportJson());
+        } catch (Exception e) {
+            logger.error("Load generator failed", e);
+            exitCode = 1;
+        } finally {
+            if (generator != null)
+                generator.stop();
+        }
+        System.exit(exitCode);
+    }
+
+}
@@ -0,0 +1,747 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import org.restcomm.protocols.ss7.cap.api.CAPDialog;
+import org.restcomm.protocols.ss7.cap.api.CAPDialogListener;
+import org.restcomm.protocols.ss7.cap.api.CAPMessage;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPGeneralAbortReason;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPGprsReferenceNumber;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPNoticeProblemDiagnostic;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPUserAbortReason;
+import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorMessage;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ActivityTestRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ActivityTestResponse;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ApplyChargingReportRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ApplyChargingRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.AssistRequestInstructionsRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPServiceCircuitSwitchedCallListener;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CallGapRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CallInformationReportRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CallInformationRequestRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CancelRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CollectInformationRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ConnectRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ConnectToResourceRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ContinueRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ContinueWithArgumentRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.DisconnectForwardConnectionRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.DisconnectForwardConnectionWithArgumentRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.DisconnectLegRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.DisconnectLegResponse;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.EstablishTemporaryConnectionRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.EventReportBCSMRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.FurnishChargingInformationRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.InitialDPRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.InitiateCallAttemptRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.InitiateCallAttemptResponse;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.MoveLegRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.MoveLegResponse;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.PlayAnnouncementRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.PromptAndCollectUserInformationRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.PromptAndCollectUserInformationResponse;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ReleaseCallRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.RequestReportBCSMEventRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ResetTimerRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.SendChargingInformationRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.SpecializedResourceReportRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.SplitLegRequest;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.SplitLegResponse;
+import org.restcomm.protocols.ss7.map.api.MAPDialog;
+import org.restcomm.protocols.ss7.map.api.MAPDialogListener;
+import org.restcomm.protocols.ss7.map.api.MAPMessage;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPAbortProviderReason;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPAbortSource;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPNoticeProblemDiagnostic;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPRefuseReason;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPUserAbortChoice;
+import org.restcomm.protocols.ss7.map.api.errors.MAPErrorMessage;
+import org.restcomm.protocols.ss7.map.api.primitives.AddressString;
+import org.restcomm.protocols.ss7.map.api.primitives.MAPExtensionContainer;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.IstCommandRequest;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.IstCommandResponse;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.MAPServiceCallHandlingListener;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.ProvideRoamingNumberRequest;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.ProvideRoamingNumberResponse;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.SendRoutingInformationRequest;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.SendRoutingInformationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.MAPServiceMobilityListener;
+import org.restcomm.protocols.ss7.map.api.service.mobility.authentication.AuthenticationFailureReportRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.authentication.AuthenticationFailureReportResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.authentication.SendAuthenticationInfoRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.authentication.SendAuthenticationInfoResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.faultRecovery.ForwardCheckSSIndicationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.faultRecovery.ResetRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.faultRecovery.RestoreDataRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.faultRecovery.RestoreDataResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.imei.CheckImeiRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.imei.CheckImeiResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.CancelLocationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.CancelLocationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.PurgeMSRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.PurgeMSResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.SendIdentificationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.SendIdentificationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.UpdateGprsLocationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.UpdateGprsLocationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.UpdateLocationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.locationManagement.UpdateLocationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.oam.ActivateTraceModeRequest_Mobility;
+import org.restcomm.protocols.ss7.map.api.service.mobility.oam.ActivateTraceModeResponse_Mobility;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.AnyTimeInterrogationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.AnyTimeInterrogationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.AnyTimeSubscriptionInterrogationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.AnyTimeSubscriptionInterrogationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.ProvideSubscriberInfoRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.ProvideSubscriberInfoResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.DeleteSubscriberDataRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.DeleteSubscriberDataResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.InsertSubscriberDataRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.InsertSubscriberDataResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.AlertServiceCentreRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.AlertServiceCentreResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.ForwardShortMessageRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.ForwardShortMessageResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.InformServiceCentreRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.MAPServiceSmsListener;
+import org.restcomm.protocols.ss7.map.api.service.sms.MoForwardShortMessageRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.MoForwardShortMessageResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.MtForwardShortMessageRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.MtForwardShortMessageResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.NoteSubscriberPresentRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.ReadyForSMRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.ReadyForSMResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.ReportSMDeliveryStatusRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.ReportSMDeliveryStatusResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.SendRoutingInfoForSMRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.SendRoutingInfoForSMResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.ActivateSSRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.ActivateSSResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.DeactivateSSRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.DeactivateSSResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.EraseSSRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.EraseSSResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.GetPasswordRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.GetPasswordResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.InterrogateSSRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.InterrogateSSResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.MAPServiceSupplementaryListener;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.ProcessUnstructuredSSRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.ProcessUnstructuredSSResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.RegisterPasswordRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.RegisterPasswordResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.RegisterSSRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.RegisterSSResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.UnstructuredSSNotifyRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.UnstructuredSSNotifyResponse;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.UnstructuredSSRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.UnstructuredSSResponse;
+import org.restcomm.protocols.ss7.tcap.asn.ApplicationContextName;
+import org.restcomm.protocols.ss7.tcap.asn.comp.PAbortCauseType;
+import org.restcomm.protocols.ss7.tcap.asn.comp.Problem;
+
+/**
+ * Empty implementation of MAP and CAP listeners used by the load generator, the client and the server override only the
+ * callbacks of operations they run.
+ *
+ */
+public abstract class LoadListenerAdapter implements MAPDialogListener, MAPServiceSmsListener, MAPServiceMobilityListener,
+        MAPServiceCallHandlingListener, MAPServiceSupplementaryListener, CAPDialogListener,
+        CAPServiceCircuitSwitchedCallListener {
+
+    // MAPDialogListener
+
+    @Override
+    public void onDialogDelimiter(MAPDialog mapDialog) {
+    }
+
+    @Override
+    public void onDialogRequest(MAPDialog mapDialog, AddressString destReference, AddressString origReference,
+            MAPExtensionContainer extensionContainer) {
+    }
+
+    @Override
+    public void onDialogRequestEricsson(MAPDialog mapDialog, AddressString destReference, AddressString origReference,
+            AddressString eriMsisdn, AddressString eriVlrNo) {
+    }
+
+    @Override
+    public void onDialogAccept(MAPDialog mapDialog, MAPExtensionContainer extensionContainer) {
+    }
+
+    @Override
+    public void onDialogReject(MAPDialog mapDialog, MAPRefuseReason refuseReason,
+            ApplicationContextName alternativeApplicationContext, MAPExtensionContainer extensionContainer) {
+    }
+
+    @Override
+    public void onDialogUserAbort(MAPDialog mapDialog, MAPUserAbortChoice userReason,
+            MAPExtensionContainer extensionContainer) {
+    }
+
+    @Override
+    public void onDialogProviderAbort(MAPDialog mapDialog, MAPAbortProviderReason abortProviderReason,
+            MAPAbortSource abortSource, MAPExtensionContainer extensionContainer) {
+    }
+
+    @Override
+    public void onDialogClose(MAPDialog mapDialog) {
+    }
+
+    @Override
+    public void onDialogNotice(MAPDialog mapDialog, MAPNoticeProblemDiagnostic noticeProblemDiagnostic) {
+    }
+
+    @Override
+    public void onDialogRelease(MAPDialog mapDialog) {
+    }
+
+    @Override
+    public void onDialogTimeout(MAPDialog mapDialog) {
+    }
+
+    // MAPServiceListener
+
+    @Override
+    public void onErrorComponent(MAPDialog mapDialog, Long invokeId, MAPErrorMessage mapErrorMessage) {
+    }
+
+    @Override
+    public void onRejectComponent(MAPDialog mapDialog, Long invokeId, Problem problem, boolean isLocalOriginated) {
+    }
+
+    @Override
+    public void onInvokeTimeout(MAPDialog mapDialog, Long invokeId) {
+    }
+
+    @Override
+    public void onMAPMessage(MAPMessage mapMessage) {
+    }
+
+    // MAPServiceSmsListener
+
+    @Override
+    public void onForwardShortMessageRequest(ForwardShortMessageRequest forwSmInd) {
+    }
+
+    @Override
+    public void onForwardShortMessageResponse(ForwardShortMessageResponse forwSmRespInd) {
+    }
+
+    @Override
+    public void onMoForwardShortMessageRequest(MoForwardShortMessageRequest moForwSmInd) {
+    }
+
+    @Override
+    public void onMoForwardShortMessageResponse(MoForwardShortMessageResponse moForwSmRespInd) {
+    }
+
+    @Override
+    public void onMtForwardShortMessageRequest(MtForwardShortMessageRequest mtForwSmInd) {
+    }
+
+    @Override
+    public void onMtForwardShortMessageResponse(MtForwardShortMessageResponse mtForwSmRespInd) {
+    }
+
+    @Override
+    public void onSendRoutingInfoForSMRequest(SendRoutingInfoForSMRequest sendRoutingInfoForSMInd) {
+    }
+
+    @Override
+    public void onSendRoutingInfoForSMResponse(SendRoutingInfoForSMResponse sendRoutingInfoForSMRespInd) {
+    }
+
+    @Override
+    public void onReportSMDeliveryStatusRequest(ReportSMDeliveryStatusRequest reportSMDeliveryStatusInd) {
+    }
+
+    @Override
+    public void onReportSMDeliveryStatusResponse(ReportSMDeliveryStatusResponse reportSMDeliveryStatusRespInd) {
+    }
+
+    @Override
+    public void onInformServiceCentreRequest(InformServiceCentreRequest informServiceCentreInd) {
+    }
+
+    @Override
+    public void onAlertServiceCentreRequest(AlertServiceCentreRequest alertServiceCentreInd) {
+    }
+
+    @Override
+    public void onAlertServiceCentreResponse(AlertServiceCentreResponse alertServiceCentreInd) {
+    }
+
+    @Override
+    public void onReadyForSMRequest(ReadyForSMRequest request) {
+    }
+
+    @Override
+    public void onReadyForSMResponse(ReadyForSMResponse response) {
+    }
+
+    @Override
+    public void onNoteSubscriberPresentRequest(NoteSubscriberPresentRequest request) {
+    }
+
+    // MAPServiceMobilityListener
+
+    @Override
+    public void onUpdateLocationRequest(UpdateLocationRequest ind) {
+    }
+
+    @Override
+    public void onUpdateLocationResponse(UpdateLocationResponse ind) {
+    }
+
+    @Override
+    public void onCancelLocationRequest(CancelLocationRequest request) {
+    }
+
+    @Override
+    public void onCancelLocationResponse(CancelLocationResponse response) {
+    }
+
+    @Override
+    public void onSendIdentificationRequest(SendIdentificationRequest request) {
+    }
+
+    @Override
+    public void onSendIdentificationResponse(SendIdentificationResponse response) {
+    }
+
+    @Override
+    public void onUpdateGprsLocationRequest(UpdateGprsLocationRequest request) {
+    }
+
+    @Override
+    public void onUpdateGprsLocationResponse(UpdateGprsLocationResponse response) {
+    }
+
+    @Override
+    public void onPurgeMSRequest(PurgeMSRequest request) {
+    }
+
+    @Override
+    public void onPurgeMSResponse(PurgeMSResponse response) {
+    }
+
+    @Override
+    public void onSendAuthenticationInfoRequest(SendAuthenticationInfoRequest ind) {
+    }
+
+    @Override
+    public void onSendAuthenticationInfoResponse(SendAuthenticationInfoResponse ind) {
+    }
+
+    @Override
+    public void onAuthenticationFailureReportRequest(AuthenticationFailureReportRequest ind) {
+    }
+
+    @Override
+    public void onAuthenticationFailureReportResponse(AuthenticationFailureReportResponse ind) {
+    }
+
+    @Override
+    public void onResetRequest(ResetRequest ind) {
+    }
+
+    @Override
+    public void onForwardCheckSSIndicationRequest(ForwardCheckSSIndicationRequest ind) {
+    }
+
+    @Override
+    public void onRestoreDataRequest(RestoreDataRequest ind) {
+    }
+
+    @Override
+    public void onRestoreDataResponse(RestoreDataResponse ind) {
+    }
+
+    @Override
+    public void onAnyTimeInterrogationRequest(AnyTimeInterrogationRequest request) {
+    }
+
+    @Override
+    public void onAnyTimeInterrogationResponse(AnyTimeInterrogationResponse response) {
+    }
+
+    @Override
+    public void onAnyTimeSubscriptionInterrogationRequest(AnyTimeSubscriptionInterrogationRequest request) {
+    }
+
+    @Override
+    public void onAnyTimeSubscriptionInterrogationResponse(AnyTimeSubscriptionInterrogationResponse response) {
+    }
+
+    @Override
+    public void onProvideSubscriberInfoRequest(ProvideSubscriberInfoRequest request) {
+    }
+
+    @Override
+    public void onProvideSubscriberInfoResponse(ProvideSubscriberInfoResponse response) {
+    }
+
+    @Override
+    public void onInsertSubscriberDataRequest(InsertSubscriberDataRequest request) {
+    }
+
+    @Override
+    public void onInsertSubscriberDataResponse(InsertSubscriberDataResponse request) {
+    }
+
+    @Override
+    public void onDeleteSubscriberDataRequest(DeleteSubscriberDataRequest request) {
+    }
+
+    @Override
+    public void onDeleteSubscriberDataResponse(DeleteSubscriberDataResponse request) {
+    }
+
+    @Override
+    public void onCheckImeiRequest(CheckImeiRequest request) {
+    }
+
+    @Override
+    public void onCheckImeiResponse(CheckImeiResponse response) {
+    }
+
+    @Override
+    public void onActivateTraceModeRequest_Mobility(ActivateTraceModeRequest_Mobility ind) {
+    }
+
+    @Override
+    public void onActivateTraceModeResponse_Mobility(ActivateTraceModeResponse_Mobility ind) {
+    }
+
+    // MAPServiceCallHandlingListener
+
+    @Override
+    public void onSendRoutingInformationRequest(SendRoutingInformationRequest request) {
+    }
+
+    @Override
+    public void onSendRoutingInformationResponse(SendRoutingInformationResponse response) {
+    }
+
+    @Override
+    public void onProvideRoamingNumberRequest(ProvideRoamingNumberRequest request) {
+    }
+
+    @Override
+    public void onProvideRoamingNumberResponse(ProvideRoamingNumberResponse response) {
+    }
+
+    @Override
+    public void onIstCommandRequest(IstCommandRequest request) {
+    }
+
+    @Override
+    public void onIstCommandResponse(IstCommandResponse response) {
+    }
+
+    // MAPServiceSupplementaryListener
+
+    @Override
+    public void onRegisterSSRequest(RegisterSSRequest request) {
+    }
+
+    @Override
+    public void onRegisterSSResponse(RegisterSSResponse response) {
+    }
+
+    @Override
+    public void onEraseSSRequest(EraseSSRequest request) {
+    }
+
+    @Override
+    public void onEraseSSResponse(EraseSSResponse response) {
+    }
+
+    @Override
+    public void onActivateSSRequest(ActivateSSRequest request) {
+    }
+
+    @Override
+    public void onActivateSSResponse(ActivateSSResponse response) {
+    }
+
+    @Override
+    public void onDeactivateSSRequest(DeactivateSSRequest request) {
+    }
+
+    @Override
+    public void onDeactivateSSResponse(DeactivateSSResponse response) {
+    }
+
+    @Override
+    public void onInterrogateSSRequest(InterrogateSSRequest request) {
+    }
+
+    @Override
+    public void onInterrogateSSResponse(InterrogateSSResponse response) {
+    }
+
+    @Override
+    public void onGetPasswordRequest(GetPasswordRequest request) {
+    }
+
+    @Override
+    public void onGetPasswordResponse(GetPasswordResponse response) {
+    }
+
+    @Override
+    public void onRegisterPasswordRequest(RegisterPasswordRequest request) {
+    }
+
+    @Override
+    public void onRegisterPasswordResponse(RegisterPasswordResponse response) {
+    }
+
+    @Override
+    public void onProcessUnstructuredSSRequest(ProcessUnstructuredSSRequest procUnstrReqInd) {
+    }
+
+    @Override
+    public void onProcessUnstructuredSSResponse(ProcessUnstructuredSSResponse procUnstrResInd) {
+    }
+
+    @Override
+    public void onUnstructuredSSRequest(UnstructuredSSRequest unstrReqInd) {
+    }
+
+    @Override
+    public void onUnstructuredSSResponse(UnstructuredSSResponse unstrResInd) {
+    }
+
+    @Override
+    public void onUnstructuredSSNotifyRequest(UnstructuredSSNotifyRequest unstrNotifyInd) {
+    }
+
+    @Override
+    public void onUnstructuredSSNotifyResponse(UnstructuredSSNotifyResponse unstrNotifyInd) {
+    }
+
+    // CAPDialogListener
+
+    @Override
+    public void onDialogDelimiter(CAPDialog capDialog) {
+    }
+
+    @Override
+    public void onDialogRequest(CAPDialog capDialog, CAPGprsReferenceNumber capGprsReferenceNumber) {
+    }
+
+    @Override
+    public void onDialogAccept(CAPDialog capDialog, CAPGprsReferenceNumber capGprsReferenceNumber) {
+    }
+
+    @Override
+    public void onDialogUserAbort(CAPDialog capDialog, CAPGeneralAbortReason generalReason, CAPUserAbortReason userReason) {
+    }
+
+    @Override
+    public void onDialogProviderAbort(CAPDialog capDialog, PAbortCauseType abortCause) {
+    }
+
+    @Override
+    public void onDialogClose(CAPDialog capDialog) {
+    }
+
+    @Override
+    public void onDialogRelease(CAPDialog capDialog) {
+    }
+
+    @Override
+    public void onDialogTimeout(CAPDialog capDialog) {
+    }
+
+    @Override
+    public void onDialogNotice(CAPDialog capDialog, CAPNoticeProblemDiagnostic noticeProblemDiagnostic) {
+    }
+
+    // CAPServiceListener
+
+    @Override
+    public void onErrorComponent(CAPDialog capDialog, Long invokeId, CAPErrorMessage capErrorMessage) {
+    }
+
+    @Override
+    public void onRejectComponent(CAPDialog capDialog, Long invokeId, Problem problem, boolean isLocalOriginated) {
+    }
+
+    @Override
+    public void onInvokeTimeout(CAPDialog capDialog, Long invokeId) {
+    }
+
+    @Override
+    public void onCAPMessage(CAPMessage capMessage) {
+    }
+
+    // CAPServiceCircuitSwitchedCallListener
+
+    @Override
+    public void onInitialDPRequest(InitialDPRequest ind) {
+    }
+
+    @Override
+    public void onRequestReportBCSMEventRequest(RequestReportBCSMEventRequest ind) {
+    }
+
+    @Override
+    public void onApplyChargingRequest(ApplyChargingRequest ind) {
+    }
+
+    @Override
+    public void onEventReportBCSMRequest(EventReportBCSMRequest ind) {
+    }
+
+    @Override
+    public void onContinueRequest(ContinueRequest ind) {
+    }
+
+    @Override
+    public void onContinueWithArgumentRequest(ContinueWithArgumentRequest ind) {
+    }
+
+    @Override
+    public void onApplyChargingReportRequest(ApplyChargingReportRequest ind) {
+    }
+
+    @Override
+    public void onReleaseCallRequest(ReleaseCallRequest ind) {
+    }
+
+    @Override
+    public void onConnectRequest(ConnectRequest ind) {
+    }
+
+    @Override
+    public void onCallInformationRequestRequest(CallInformationRequestRequest ind) {
+    }
+
+    @Override
+    public void onCallInformationReportRequest(CallInformationReportRequest ind) {
+    }
+
+    @Override
+    public void onActivityTestRequest(ActivityTestRequest ind) {
+    }
+
+    @Override
+    public void onActivityTestResponse(ActivityTestResponse ind) {
+    }
+
+    @Override
+    public void onAssistRequestInstructionsRequest(AssistRequestInstructionsRequest ind) {
+    }
+
+    @Override
+    public void onEstablishTemporaryConnectionRequest(EstablishTemporaryConnectionRequest ind) {
+    }
+
+    @Override
+    public void onDisconnectForwardConnectionRequest(DisconnectForwardConnectionRequest ind) {
+    }
+
+    @Override
+    public void onDisconnectLegRequest(DisconnectLegRequest ind) {
+    }
+
+    @Override
+    public void onDisconnectLegResponse(DisconnectLegResponse ind) {
+    }
+
+    @Override
+    public void onDisconnectForwardConnectionWithArgumentRequest(DisconnectForwardConnectionWithArgumentRequest ind) {
+    }
+
+    @Override
+    public void onConnectToResourceRequest(ConnectToResourceRequest ind) {
+    }
+
+    @Override
+    public void onResetTimerRequest(ResetTimerRequest ind) {
+    }
+
+    @Override
+    public void onFurnishChargingInformationRequest(FurnishChargingInformationRequest ind) {
+    }
+
+    @Override
+    public void onSendChargingInformationRequest(SendChargingInformationRequest ind) {
+    }
+
+    @Override
+    public void onSpecializedResourceReportRequest(SpecializedResourceReportRequest ind) {
+    }
+
+    @Override
+    public void onPlayAnnouncementRequest(PlayAnnouncementRequest ind) {
+    }
+
+    @Override
+    public void onPromptAndCollectUserInformationRequest(PromptAndCollectUserInformationRequest ind) {
+    }
+
+    @Override
+    public void onPromptAndCollectUserInformationResponse(PromptAndCollectUserInformationResponse ind) {
+    }
+
+    @Override
+    public void onCancelRequest(CancelRequest ind) {
+    }
+
+    @Override
+    public void onInitiateCallAttemptRequest(InitiateCallAttemptRequest initiateCallAttemptRequest) {
+    }
+
+    @Override
+    public void onInitiateCallAttemptResponse(InitiateCallAttemptResponse initiateCallAttemptResponse) {
+    }
+
+    @Override
+    public void onMoveLegRequest(MoveLegRequest ind) {
+    }
+
+    @Override
+    public void onMoveLegResponse(MoveLegResponse ind) {
+    }
+
+    @Override
+    public void onCollectInformationRequest(CollectInformationRequest ind) {
+    }
+
+    @Override
+    public void onSplitLegRequest(SplitLegRequest ind) {
+    }
+
+    @Override
+    public void onSplitLegResponse(SplitLegResponse ind) {
+    }
+
+    @Override
+    public void onCallGapRequest(CallGapRequest ind) {
+    }
+
+}
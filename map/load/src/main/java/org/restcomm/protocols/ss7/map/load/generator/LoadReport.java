@@ -0,0 +1,198 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import java.io.FileNotFoundException;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
+
+/**
+ * Percentile report of a load run in CSV and JSON formats. Latency values are in microseconds.
+ *
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = new double[] { 50, 90, 99, 99.9, 99.99 };
+    private static final String[] PERCENTILE_NAMES = new String[] { "p50", "p90", "p99", "p99.9", "p99.99" };
+
+    private final Scenario scenario;
+    private final LoadStatistics statistics;
+    private final double measuredSeconds;
+    private final List<Row> rows = new ArrayList<Row>();
+
+    /**
+     * @param measuredNanos the length of the measured period
+     */
+    public LoadReport(Scenario scenario, LoadStatistics statistics, long measuredNanos) {
+        this.scenario = scenario;
+        this.statistics = statistics;
+        this.measuredSeconds = measuredNanos / 1000000000.0;
+
+        List<StepType> steps = statistics.getSteps();
+        for (int i1 = 0; i1 < steps.size(); i1++) {
+            this.rows.add(new Row("step" + (i1 + 1) + "-" + steps.get(i1), statistics.getStepHistogram(i1), statistics
+                    .getStepFailures(i1)));
+        }
+        this.rows.add(new Row("scenario", statistics.getScenarioHistogram(), statistics.getMeasuredFailed()));
+        this.rows.add(new Row("startLag", statistics.getStartLagHistogram(), 0));
+    }
+
+    public double getThroughput() {
+        return this.measuredSeconds > 0 ? this.statistics.getMeasuredCompleted() / this.measuredSeconds : 0;
+    }
+
+    public void writeCsv(String fileName) throws FileNotFoundException, UnsupportedEncodingException {
+        PrintWriter writer = new PrintWriter(fileName, "UTF-8");
+        try {
+            StringBuilder sb = new StringBuilder();
+            sb.append("name,count,failures,throughput,min,mean");
+            for (String name : PERCENTILE_NAMES) {
+                sb.append(',').append(name);
+            }
+            sb.append(",max");
+            writer.println(sb);
+
+            for (Row row : this.rows) {
+                sb.setLength(0);
+                sb.append(row.name).append(',').append(row.histogram.getCount()).append(',').append(row.failures)
+                        .append(',').append(format(this.rate(row.histogram.getCount()))).append(',')
+                        .append(row.histogram.getMin()).append(',').append(format(row.histogram.getMean()));
+                for (double percentile : PERCENTILES) {
+                    sb.append(',').append(row.histogram.getValueAtPercentile(percentile));
+                }
+                sb.append(',').append(row.histogram.getMax());
+                writer.println(sb);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    public void writeJson(String fileName) throws FileNotFoundException, UnsupportedEncodingException {
+        PrintWriter writer = new PrintWriter(fileName, "UTF-8");
+        try {
+            writer.print(this.toJson());
+        } finally {
+            writer.close();
+        }
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"scenario\": ").append(quote(this.scenario.getName())).append(",\n");
+        sb.append("  \"steps\": [");
+        List<StepType> steps = this.scenario.getSteps();
+        for (int i1 = 0; i1 < steps.size(); i1++) {
+            if (i1 > 0)
+                sb.append(", ");
+            sb.append(quote(steps.get(i1).toString()));
+        }
+        sb.append("],\n");
+        sb.append("  \"arrival\": ").append(quote(this.scenario.getArrival())).append(",\n");
+        sb.append("  \"rate\": ").append(format(this.scenario.getRate())).append(",\n");
+        sb.append("  \"workers\": ").append(this.scenario.getWorkers()).append(",\n");
+        sb.append("  \"transport\": ").append(quote(this.scenario.getTransport())).append(",\n");
+        sb.append("  \"measuredSeconds\": ").append(format(this.measuredSeconds)).append(",\n");
+        sb.append("  \"started\": ").append(this.statistics.getMeasuredStarted()).append(",\n");
+        sb.append("  \"completed\": ").append(this.statistics.getMeasuredCompleted()).append(",\n");
+        sb.append("  \"failed\": ").append(this.statistics.getMeasuredFailed()).append(",\n");
+        sb.append("  \"throughput\": ").append(format(this.getThroughput())).append(",\n");
+        sb.append("  \"latencyUnit\": \"us\",\n");
+        sb.append("  \"latencies\": [\n");
+        for (int i1 = 0; i1 < this.rows.size(); i1++) {
+            Row row = this.rows.get(i1);
+            sb.append("    { \"name\": ").append(quote(row.name));
+            sb.append(", \"count\": ").append(row.histogram.getCount());
+            sb.append(", \"failures\": ").append(row.failures);
+            sb.append(", \"min\": ").append(row.histogram.getMin());
+            sb.append(", \"mean\": ").append(format(row.histogram.getMean()));
+            for (int i2 = 0; i2 < PERCENTILES.length; i2++) {
+                sb.append(", ").append(quote(PERCENTILE_NAMES[i2])).append(": ")
+                        .append(row.histogram.getValueAtPercentile(PERCENTILES[i2]));
+            }
+            sb.append(", \"max\": ").append(row.histogram.getMax()).append(" }");
+            sb.append(i1 < this.rows.size() - 1 ? ",\n" : "\n");
+        }
+        sb.append("  ]\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "Scenario %s: started=%d, completed=%d, failed=%d, throughput=%.1f/s, latency us:",
+                this.scenario.getName(), this.statistics.getMeasuredStarted(), this.statistics.getMeasuredCompleted(),
+                this.statistics.getMeasuredFailed(), this.getThroughput()));
+        for (Row row : this.rows) {
+            sb.append(String.format(Locale.ROOT, "\n  %-20s count=%d failures=%d mean=%.1f p50=%d p99=%d p99.9=%d max=%d",
+                    row.name, row.histogram.getCount(), row.failures, row.histogram.getMean(),
+                    row.histogram.getValueAtPercentile(50), row.histogram.getValueAtPercentile(99),
+                    row.histogram.getValueAtPercentile(99.9), row.histogram.getMax()));
+        }
+        return sb.toString();
+    }
+
+    private double rate(long count) {
+        return this.measuredSeconds > 0 ? count / this.measuredSeconds : 0;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        sb.append('"');
+        for (int i1 = 0; i1 < value.length(); i1++) {
+            char c = value.charAt(i1);
+            if (c == '"' || c == '\\')
+                sb.append('\\').append(c);
+            else if (c < 0x20)
+                sb.append(String.format("\\u%04x", (int) c));
+            else
+                sb.append(c);
+        }
+        sb.append('"');
+        return sb.toString();
+    }
+
+    private static class Row {
+        private final String name;
+        private final StatHistogram histogram;
+        private final long failures;
+
+        Row(String name, StatHistogram histogram, long failures) {
+            this.name = name;
+            this.histogram = histogram;
+            this.failures = failures;
+        }
+    }
+
+}
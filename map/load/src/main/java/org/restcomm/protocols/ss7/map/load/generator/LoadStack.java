@@ -0,0 +1,260 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import org.apache.log4j.Logger;
+import org.mobicents.protocols.api.IpChannelType;
+import org.mobicents.protocols.sctp.netty.NettySctpManagementImpl;
+import org.restcomm.protocols.ss7.cap.CAPStackImpl;
+import org.restcomm.protocols.ss7.cap.api.CAPProvider;
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.m3ua.ExchangeType;
+import org.restcomm.protocols.ss7.m3ua.Functionality;
+import org.restcomm.protocols.ss7.m3ua.IPSPType;
+import org.restcomm.protocols.ss7.m3ua.impl.M3UAManagementImpl;
+import org.restcomm.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
+import org.restcomm.protocols.ss7.m3ua.parameter.NetworkAppearance;
+import org.restcomm.protocols.ss7.m3ua.parameter.RoutingContext;
+import org.restcomm.protocols.ss7.m3ua.parameter.TrafficModeType;
+import org.restcomm.protocols.ss7.map.MAPStackImpl;
+import org.restcomm.protocols.ss7.map.api.MAPProvider;
+import org.restcomm.protocols.ss7.mtp.Mtp3UserPartBaseImpl;
+import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.protocols.ss7.tcap.TCAPStackImpl;
+
+/**
+ * One side of the load test bed: SCCP, a TCAP stack for MAP and another one for CAP (with own SSNs) on top of either an
+ * in-JVM MTP3 transport or M3UA over loopback SCTP/TCP.
+ *
+ */
+public class LoadStack {
+
+    private static final Logger logger = Logger.getLogger(LoadStack.class);
+
+    private static final int MAX_DIALOGS = 500000;
+    private static final int DIALOG_IDLE_TIMEOUT = 60000;
+
+    private static final String SERVER_NAME = "loadServer";
+    private static final String CLIENT_ASSOCIATION_NAME = "loadClientAssociation";
+    private static final String SERVER_ASSOCIATION_NAME = "loadServerAssociation";
+    private static final String AS_NAME = "loadAs";
+    private static final String ASP_NAME = "loadAsp";
+
+    private final String name;
+    private final Scenario scenario;
+    private final boolean serverSide;
+    private final int localSpc;
+    private final int remoteSpc;
+
+    private NettySctpManagementImpl sctpManagement;
+    private M3UAManagementImpl m3uaManagement;
+    private Mtp3UserPartBaseImpl mtp3UserPart;
+    private SccpStackImpl sccpStack;
+    private TCAPStackImpl mapTcapStack;
+    private TCAPStackImpl capTcapStack;
+    private MAPStackImpl mapStack;
+    private CAPStackImpl capStack;
+
+    public LoadStack(String name, Scenario scenario, boolean serverSide) {
+        this.name = name;
+        this.scenario = scenario;
+        this.serverSide = serverSide;
+        this.localSpc = serverSide ? scenario.getServerSpc() : scenario.getClientSpc();
+        this.remoteSpc = serverSide ? scenario.getClientSpc() : scenario.getServerSpc();
+    }
+
+    /**
+     * Starts the stack on top of the in-JVM MTP3 transport.
+     */
+    public void start(LocalMtp3UserPart localMtp3UserPart) throws Exception {
+        localMtp3UserPart.setDeliveryMessageThreadCount(this.scenario.getDeliveryThreads());
+        localMtp3UserPart.start();
+        this.mtp3UserPart = localMtp3UserPart;
+
+        this.startUpperLayers();
+    }
+
+    /**
+     * Starts the stack on top of M3UA over SCTP or TCP. The server side listens on serverIp:serverPort, the client side
+     * connects to it when {@link #startAsp()} is invoked.
+     */
+    public void startM3ua() throws Exception {
+        IpChannelType ipChannelType = "tcp".equalsIgnoreCase(this.scenario.getChannelType()) ? IpChannelType.TCP
+                : IpChannelType.SCTP;
+
+        this.sctpManagement = new NettySctpManagementImpl(this.name);
+        this.sctpManagement.start();
+        this.sctpManagement.setConnectDelay(10000);
+        this.sctpManagement.removeAllResourses();
+
+        String associationName;
+        if (this.serverSide) {
+            associationName = SERVER_ASSOCIATION_NAME;
+            this.sctpManagement.addServer(SERVER_NAME, this.scenario.getServerIp(), this.scenario.getServerPort(),
+                    ipChannelType, null);
+            this.sctpManagement.addServerAssociation(this.scenario.getClientIp(), this.scenario.getClientPort(), SERVER_NAME,
+                    associationName, ipChannelType);
+            this.sctpManagement.startServer(SERVER_NAME);
+        } else {
+            associationName = CLIENT_ASSOCIATION_NAME;
+            this.sctpManagement.addAssociation(this.scenario.getClientIp(), this.scenario.getClientPort(),
+                    this.scenario.getServerIp(), this.scenario.getServerPort(), associationName, ipChannelType, null);
+        }
+
+        this.m3uaManagement = new M3UAManagementImpl(this.name, null, null);
+        this.m3uaManagement.setTransportManagement(this.sctpManagement);
+        this.m3uaManagement.setDeliveryMessageThreadCount(this.scenario.getDeliveryThreads());
+        this.m3uaManagement.start();
+        this.m3uaManagement.removeAllResourses();
+
+        ParameterFactoryImpl factory = new ParameterFactoryImpl();
+        RoutingContext rc = factory.createRoutingContext(new long[] { 101L });
+        TrafficModeType trafficModeType = factory.createTrafficModeType(TrafficModeType.Loadshare);
+        NetworkAppearance na = factory.createNetworkAppearance(102L);
+        this.m3uaManagement.createAs(AS_NAME, this.serverSide ? Functionality.SGW : Functionality.IPSP, ExchangeType.SE,
+                IPSPType.CLIENT, rc, trafficModeType, 1, na);
+        this.m3uaManagement.createAspFactory(ASP_NAME, associationName);
+        this.m3uaManagement.assignAspToAs(AS_NAME, ASP_NAME);
+        this.m3uaManagement.addRoute(this.remoteSpc, -1, -1, AS_NAME);
+        this.mtp3UserPart = this.m3uaManagement;
+
+        this.startUpperLayers();
+    }
+
+    /**
+     * Starts the M3UA ASP, it does nothing for the in-JVM transport.
+     */
+    public void startAsp() throws Exception {
+        if (this.m3uaManagement != null)
+            this.m3uaManagement.startAsp(ASP_NAME);
+    }
+
+    private void startUpperLayers() throws Exception {
+        this.sccpStack = new SccpStackImpl(this.name + "Sccp", null);
+        this.sccpStack.setMtp3UserPart(1, this.mtp3UserPart);
+        this.sccpStack.start();
+        this.sccpStack.removeAllResourses();
+
+        this.sccpStack.getSccpResource().addRemoteSpc(0, this.remoteSpc, 0, 0);
+        this.sccpStack.getSccpResource().addRemoteSsn(0, this.remoteSpc, this.scenario.getMapSsn(), 0, false);
+        this.sccpStack.getSccpResource().addRemoteSsn(1, this.remoteSpc, this.scenario.getCapSsn(), 0, false);
+        this.sccpStack.getRouter().addMtp3ServiceAccessPoint(1, 1, this.localSpc, this.scenario.getNetworkIndicator(), 0,
+                null);
+        this.sccpStack.getRouter().addMtp3Destination(1, 1, this.remoteSpc, this.remoteSpc, 0, 255, 255);
+
+        this.mapTcapStack = this.createTcapStack(this.name + "MapTcap", this.scenario.getMapSsn());
+        this.mapStack = new MAPStackImpl(this.name + "Map", this.mapTcapStack.getProvider());
+        MAPProvider mapProvider = this.mapStack.getMAPProvider();
+        mapProvider.getMAPServiceSms().acivate();
+        mapProvider.getMAPServiceMobility().acivate();
+        mapProvider.getMAPServiceCallHandling().acivate();
+        mapProvider.getMAPServiceSupplementary().acivate();
+        this.mapStack.start();
+
+        this.capTcapStack = this.createTcapStack(this.name + "CapTcap", this.scenario.getCapSsn());
+        this.capStack = new CAPStackImpl(this.name + "Cap", this.capTcapStack.getProvider());
+        this.capStack.getCAPProvider().getCAPServiceCircuitSwitchedCall().acivate();
+        this.capStack.start();
+
+        logger.info(String.format("%s: started, localSpc=%d, remoteSpc=%d, mtp3=%s", this.name, this.localSpc,
+                this.remoteSpc, this.mtp3UserPart.getClass().getSimpleName()));
+    }
+
+    /**
+     * Registers the listener for dialogs and for all services the load generator uses.
+     */
+    public void addListener(LoadListenerAdapter listener) {
+        MAPProvider mapProvider = this.mapStack.getMAPProvider();
+        mapProvider.addMAPDialogListener(listener);
+        mapProvider.getMAPServiceSms().addMAPServiceListener(listener);
+        mapProvider.getMAPServiceMobility().addMAPServiceListener(listener);
+        mapProvider.getMAPServiceCallHandling().addMAPServiceListener(listener);
+        mapProvider.getMAPServiceSupplementary().addMAPServiceListener(listener);
+
+        CAPProvider capProvider = this.capStack.getCAPProvider();
+        capProvider.addCAPDialogListener(listener);
+        capProvider.getCAPServiceCircuitSwitchedCall().addCAPServiceListener(listener);
+    }
+
+    private TCAPStackImpl createTcapStack(String stackName, int ssn) throws Exception {
+        TCAPStackImpl tcapStack = new TCAPStackImpl(stackName, this.sccpStack.getSccpProvider(), ssn);
+        tcapStack.start();
+        tcapStack.setDialogIdleTimeout(DIALOG_IDLE_TIMEOUT);
+        tcapStack.setInvokeTimeout(this.scenario.getInvokeTimeout());
+        tcapStack.setMaxDialogs(MAX_DIALOGS);
+        return tcapStack;
+    }
+
+    public void stop() {
+        try {
+            if (this.capStack != null)
+                this.capStack.stop();
+            if (this.mapStack != null)
+                this.mapStack.stop();
+            if (this.capTcapStack != null)
+                this.capTcapStack.stop();
+            if (this.mapTcapStack != null)
+                this.mapTcapStack.stop();
+            if (this.sccpStack != null)
+                this.sccpStack.stop();
+            if (this.m3uaManagement != null) {
+                this.m3uaManagement.stopAsp(ASP_NAME);
+                this.m3uaManagement.stop();
+            } else if (this.mtp3UserPart != null) {
+                this.mtp3UserPart.stop();
+            }
+            if (this.sctpManagement != null)
+                this.sctpManagement.stop();
+        } catch (Exception e) {
+            logger.error(this.name + ": exception while stopping the stack", e);
+        }
+    }
+
+    public SccpAddress getLocalAddress(boolean cap) {
+        return this.createAddress(this.localSpc, cap);
+    }
+
+    public SccpAddress getRemoteAddress(boolean cap) {
+        return this.createAddress(this.remoteSpc, cap);
+    }
+
+    private SccpAddress createAddress(int spc, boolean cap) {
+        return this.sccpStack.getSccpProvider().getParameterFactory().createSccpAddress(
+                RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, spc,
+                cap ? this.scenario.getCapSsn() : this.scenario.getMapSsn());
+    }
+
+    public MAPProvider getMAPProvider() {
+        return this.mapStack.getMAPProvider();
+    }
+
+    public CAPProvider getCAPProvider() {
+        return this.capStack.getCAPProvider();
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+}
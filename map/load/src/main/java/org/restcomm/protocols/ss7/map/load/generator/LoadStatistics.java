@@ -0,0 +1,154 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.restcomm.protocols.ss7.statistics.LatencyHistogram;
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
+
+/**
+ * Counters and latency histograms of a load run. Latencies are recorded in microseconds.
+ *
+ * The latency of the first step of a scenario and of the whole scenario is counted from the intended start time given by
+ * the arrival process, not from the moment the request was really sent. So when the generator or the tested stack falls
+ * behind, the waiting time is a part of the recorded latency and the results are not distorted by coordinated omission.
+ * Next steps start when the previous one completes, they have no intended start time other than that. "startLag" is the
+ * time from the intended start to the sending of the first request, it shows how much the generator itself lagged behind
+ * the schedule.
+ *
+ */
+public class LoadStatistics {
+
+    private final List<StepType> steps;
+    private final LatencyHistogram[] stepHistograms;
+    private final LatencyHistogram scenarioHistogram;
+    private final LatencyHistogram startLagHistogram;
+    private final AtomicLongArray stepFailures;
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong measuredStarted = new AtomicLong();
+    private final AtomicLong measuredCompleted = new AtomicLong();
+    private final AtomicLong measuredFailed = new AtomicLong();
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    public LoadStatistics(List<StepType> steps) {
+        this.steps = steps;
+        this.stepHistograms = new LatencyHistogram[steps.size()];
+        for (int i1 = 0; i1 < this.stepHistograms.length; i1++) {
+            this.stepHistograms[i1] = new LatencyHistogram();
+        }
+        this.scenarioHistogram = new LatencyHistogram();
+        this.startLagHistogram = new LatencyHistogram();
+        this.stepFailures = new AtomicLongArray(steps.size());
+    }
+
+    public void scenarioStarted(boolean measured, long lagNanos) {
+        this.started.incrementAndGet();
+        this.outstanding.incrementAndGet();
+        if (measured) {
+            this.measuredStarted.incrementAndGet();
+            this.startLagHistogram.recordValue(lagNanos / 1000);
+        }
+    }
+
+    public void stepCompleted(int stepIndex, boolean measured, long latencyNanos) {
+        if (measured)
+            this.stepHistograms[stepIndex].recordValue(latencyNanos / 1000);
+    }
+
+    public void stepFailed(int stepIndex, boolean measured) {
+        if (measured)
+            this.stepFailures.incrementAndGet(stepIndex);
+    }
+
+    public void scenarioCompleted(boolean measured, long latencyNanos) {
+        this.completed.incrementAndGet();
+        this.outstanding.decrementAndGet();
+        if (measured) {
+            this.measuredCompleted.incrementAndGet();
+            this.scenarioHistogram.recordValue(latencyNanos / 1000);
+        }
+    }
+
+    public void scenarioFailed(boolean measured) {
+        this.failed.incrementAndGet();
+        this.outstanding.decrementAndGet();
+        if (measured)
+            this.measuredFailed.incrementAndGet();
+    }
+
+    public List<StepType> getSteps() {
+        return steps;
+    }
+
+    public StatHistogram getStepHistogram(int stepIndex) {
+        return this.stepHistograms[stepIndex].snapshot();
+    }
+
+    public long getStepFailures(int stepIndex) {
+        return this.stepFailures.get(stepIndex);
+    }
+
+    public StatHistogram getScenarioHistogram() {
+        return scenarioHistogram.snapshot();
+    }
+
+    public StatHistogram getStartLagHistogram() {
+        return startLagHistogram.snapshot();
+    }
+
+    public long getStarted() {
+        return started.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getMeasuredStarted() {
+        return measuredStarted.get();
+    }
+
+    public long getMeasuredCompleted() {
+        return measuredCompleted.get();
+    }
+
+    public long getMeasuredFailed() {
+        return measuredFailed.get();
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import java.io.IOException;
+
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
+import org.restcomm.protocols.ss7.mtp.Mtp3UserPartBaseImpl;
+
+/**
+ * In-JVM MTP3 transport: messages that are sent by one part are delivered to the SCCP layer of the peer part through the
+ * regular MTP3 delivery threads, the user data length limit is the same as for M3UA. It lets the load generator to run client and server stacks in one JVM without M3UA and
+ * SCTP.
+ *
+ */
+public class LocalMtp3UserPart extends Mtp3UserPartBaseImpl {
+
+    private LocalMtp3UserPart peer;
+
+    public LocalMtp3UserPart(String productName) {
+        super(productName, null);
+    }
+
+    public void setPeer(LocalMtp3UserPart peer) {
+        this.peer = peer;
+    }
+
+    @Override
+    public void sendMessage(Mtp3TransferPrimitive msg) throws IOException {
+        LocalMtp3UserPart part = this.peer;
+        if (part == null)
+            throw new IOException("Local MTP3 transport has no peer");
+        part.sendTransferMessageToLocalUser(msg, msg.getSls());
+    }
+
+}
@@ -0,0 +1,354 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Declarative load scenario. A scenario is an ordered list of steps (see {@link StepType}) that are run one after another
+ * for every scenario start, plus the parameters of the load and of the test bed. It is read from a properties file:
+ *
+ * <pre>
+ * name=sms-mt
+ * steps=SRI_SM,MT_FSM
+ * arrival=poisson
+ * rate=500
+ * duration=60
+ * warmup=10
+ * workers=2
+ * transport=local
+ * report.csv=sms-mt.csv
+ * report.json=sms-mt.json
+ * </pre>
+ *
+ * Every value can be overridden from the command line by a "key=value" argument.
+ *
+ */
+public class Scenario {
+
+    public static final String TRANSPORT_LOCAL = "local";
+    public static final String TRANSPORT_M3UA = "m3ua";
+
+    public static final String ROLE_BOTH = "both";
+    public static final String ROLE_CLIENT = "client";
+    public static final String ROLE_SERVER = "server";
+
+    private final Properties properties;
+
+    private final String name;
+    private final List<StepType> steps;
+    private final String arrival;
+    private final double rate;
+    private final int duration;
+    private final int warmup;
+    private final int drainTimeout;
+    private final int workers;
+    private final int maxOutstanding;
+    private final long seed;
+
+    private final String transport;
+    private final String role;
+    private final String channelType;
+    private final String clientIp;
+    private final int clientPort;
+    private final String serverIp;
+    private final int serverPort;
+    private final int clientSpc;
+    private final int serverSpc;
+    private final int networkIndicator;
+    private final int mapSsn;
+    private final int capSsn;
+    private final int deliveryThreads;
+    private final int invokeTimeout;
+    private final int startDelay;
+
+    private final String reportCsv;
+    private final String reportJson;
+    private final int reportPeriod;
+
+    public Scenario(Properties properties) {
+        this.properties = properties;
+
+        this.name = this.getString("name", "scenario");
+        String stepList = this.getString("steps", null);
+        if (stepList == null || stepList.trim().length() == 0)
+            throw new IllegalArgumentException("Scenario " + this.name + " has no steps");
+        List<StepType> list = new ArrayList<StepType>();
+        for (String step : stepList.split(",")) {
+            if (step.trim().length() > 0)
+                list.add(StepType.getInstance(step));
+        }
+        this.steps = Collections.unmodifiableList(list);
+
+        this.arrival = this.getString("arrival", ArrivalProcess.POISSON);
+        this.rate = this.getDouble("rate", 100);
+        this.duration = this.getInt("duration", 60);
+        this.warmup = this.getInt("warmup", 10);
+        this.drainTimeout = this.getInt("drainTimeout", 30);
+        this.workers = this.getInt("workers", 1);
+        this.maxOutstanding = this.getInt("maxOutstanding", 100000);
+        this.seed = Long.parseLong(this.getString("seed", Long.toString(System.nanoTime())));
+
+        this.transport = this.getString("transport", TRANSPORT_LOCAL);
+        this.role = this.getString("role", ROLE_BOTH);
+        this.channelType = this.getString("channelType", "sctp");
+        this.clientIp = this.getString("clientIp", "127.0.0.1");
+        this.clientPort = this.getInt("clientPort", 8011);
+        this.serverIp = this.getString("serverIp", "127.0.0.1");
+        this.serverPort = this.getInt("serverPort", 8012);
+        this.clientSpc = this.getInt("clientSpc", 1);
+        this.serverSpc = this.getInt("serverSpc", 2);
+        this.networkIndicator = this.getInt("ni", 2);
+        this.mapSsn = this.getInt("mapSsn", 8);
+        this.capSsn = this.getInt("capSsn", 146);
+        this.deliveryThreads = this.getInt("deliveryThreads", Runtime.getRuntime().availableProcessors() * 2);
+        this.invokeTimeout = this.getInt("invokeTimeout", 30000);
+        // M3UA needs time to bring the association and the ASP up
+        this.startDelay = this.getInt("startDelay", TRANSPORT_M3UA.equals(this.transport) ? 10 : 1);
+
+        this.reportCsv = this.getString("report.csv", this.name + ".csv");
+        this.reportJson = this.getString("report.json", this.name + ".json");
+        this.reportPeriod = this.getInt("report.period", 5);
+
+        if (this.workers <= 0)
+            throw new IllegalArgumentException("workers must be positive: " + this.workers);
+        if (this.duration <= 0)
+            throw new IllegalArgumentException("duration must be positive: " + this.duration);
+        if (!TRANSPORT_LOCAL.equals(this.transport) && !TRANSPORT_M3UA.equals(this.transport))
+            throw new IllegalArgumentException("Unknown transport: " + this.transport + ", expected " + TRANSPORT_LOCAL + " or "
+                    + TRANSPORT_M3UA);
+        if (!ROLE_BOTH.equals(this.role) && !ROLE_CLIENT.equals(this.role) && !ROLE_SERVER.equals(this.role))
+            throw new IllegalArgumentException("Unknown role: " + this.role);
+        if (TRANSPORT_LOCAL.equals(this.transport) && !ROLE_BOTH.equals(this.role))
+            throw new IllegalArgumentException("The local transport runs both client and server in one JVM, role must be "
+                    + ROLE_BOTH);
+        // checks the arrival process name
+        ArrivalProcess.create(this.arrival, this.rate, 0);
+    }
+
+    /**
+     * Reads a scenario from a file or, if there is no such file, from a class path resource.
+     *
+     * @param location file name or resource name
+     * @param overrides "key=value" pairs that replace values from the file
+     */
+    public static Scenario load(String location, String[] overrides) throws IOException {
+        Properties properties = new Properties();
+        InputStream is;
+        File file = new File(location);
+        if (file.exists()) {
+            is = new FileInputStream(file);
+        } else {
+            String resource = location.startsWith("/") ? location : "/" + location;
+            is = Scenario.class.getResourceAsStream(resource);
+            if (is == null)
+                throw new IOException("Scenario is not found: " + location);
+        }
+        try {
+            properties.load(is);
+        } finally {
+            is.close();
+        }
+
+        if (overrides != null) {
+            for (String s : overrides) {
+                int i1 = s.indexOf('=');
+                if (i1 <= 0)
+                    throw new IllegalArgumentException("Expected key=value but found: " + s);
+                properties.setProperty(s.substring(0, i1).trim(), s.substring(i1 + 1).trim());
+            }
+        }
+        return new Scenario(properties);
+    }
+
+    private String getString(String key, String defaultValue) {
+        String value = this.properties.getProperty(key);
+        return value != null ? value.trim() : defaultValue;
+    }
+
+    private int getInt(String key, int defaultValue) {
+        String value = this.properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private double getDouble(String key, double defaultValue) {
+        String value = this.properties.getProperty(key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<StepType> getSteps() {
+        return steps;
+    }
+
+    public boolean hasCapSteps() {
+        for (StepType step : this.steps) {
+            if (step.isCap())
+                return true;
+        }
+        return false;
+    }
+
+    public String getArrival() {
+        return arrival;
+    }
+
+    /**
+     * @return scenario starts per second
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return seconds of the measured load
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return seconds of the load before the measurement starts
+     */
+    public int getWarmup() {
+        return warmup;
+    }
+
+    /**
+     * @return seconds to wait for outstanding scenarios after the last start
+     */
+    public int getDrainTimeout() {
+        return drainTimeout;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public int getMaxOutstanding() {
+        return maxOutstanding;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getTransport() {
+        return transport;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public String getChannelType() {
+        return channelType;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    public int getClientPort() {
+        return clientPort;
+    }
+
+    public String getServerIp() {
+        return serverIp;
+    }
+
+    public int getServerPort() {
+        return serverPort;
+    }
+
+    public int getClientSpc() {
+        return clientSpc;
+    }
+
+    public int getServerSpc() {
+        return serverSpc;
+    }
+
+    public int getNetworkIndicator() {
+        return networkIndicator;
+    }
+
+    public int getMapSsn() {
+        return mapSsn;
+    }
+
+    public int getCapSsn() {
+        return capSsn;
+    }
+
+    public int getDeliveryThreads() {
+        return deliveryThreads;
+    }
+
+    /**
+     * @return milliseconds
+     */
+    public int getInvokeTimeout() {
+        return invokeTimeout;
+    }
+
+    /**
+     * @return seconds between the start of stacks and the start of the load
+     */
+    public int getStartDelay() {
+        return startDelay;
+    }
+
+    public String getReportCsv() {
+        return reportCsv;
+    }
+
+    public String getReportJson() {
+        return reportJson;
+    }
+
+    /**
+     * @return seconds between progress log lines
+     */
+    public int getReportPeriod() {
+        return reportPeriod;
+    }
+
+    @Override
+    public String toString() {
+        return "Scenario [name=" + name + ", steps=" + steps + ", arrival=" + arrival + ", rate=" + rate + ", duration="
+                + duration + ", warmup=" + warmup + ", workers=" + workers + ", maxOutstanding=" + maxOutstanding
+                + ", transport=" + transport + ", role=" + role + "]";
+    }
+
+}
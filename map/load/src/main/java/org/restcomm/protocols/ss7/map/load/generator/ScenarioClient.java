@@ -0,0 +1,468 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.cap.api.CAPApplicationContext;
+import org.restcomm.protocols.ss7.cap.api.CAPDialog;
+import org.restcomm.protocols.ss7.cap.api.CAPException;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPGeneralAbortReason;
+import org.restcomm.protocols.ss7.cap.api.dialog.CAPUserAbortReason;
+import org.restcomm.protocols.ss7.cap.api.errors.CAPErrorMessage;
+import org.restcomm.protocols.ss7.cap.api.primitives.EventTypeBCSM;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPDialogCircuitSwitchedCall;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.ContinueRequest;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContextName;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContextVersion;
+import org.restcomm.protocols.ss7.map.api.MAPDialog;
+import org.restcomm.protocols.ss7.map.api.MAPException;
+import org.restcomm.protocols.ss7.map.api.MAPParameterFactory;
+import org.restcomm.protocols.ss7.map.api.MAPProvider;
+import org.restcomm.protocols.ss7.map.api.datacoding.CBSDataCodingScheme;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPAbortProviderReason;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPAbortSource;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPRefuseReason;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPUserAbortChoice;
+import org.restcomm.protocols.ss7.map.api.errors.MAPErrorMessage;
+import org.restcomm.protocols.ss7.map.api.primitives.AddressNature;
+import org.restcomm.protocols.ss7.map.api.primitives.AddressString;
+import org.restcomm.protocols.ss7.map.api.primitives.IMSI;
+import org.restcomm.protocols.ss7.map.api.primitives.ISDNAddressString;
+import org.restcomm.protocols.ss7.map.api.primitives.MAPExtensionContainer;
+import org.restcomm.protocols.ss7.map.api.primitives.NumberingPlan;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.MAPDialogCallHandling;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.SendRoutingInformationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.MAPDialogMobility;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.AnyTimeInterrogationResponse;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.RequestedInfo;
+import org.restcomm.protocols.ss7.map.api.service.sms.MAPDialogSms;
+import org.restcomm.protocols.ss7.map.api.service.sms.MoForwardShortMessageResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.MtForwardShortMessageResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.SendRoutingInfoForSMResponse;
+import org.restcomm.protocols.ss7.map.api.service.sms.SmsSignalInfo;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.MAPDialogSupplementary;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.ProcessUnstructuredSSResponse;
+import org.restcomm.protocols.ss7.map.datacoding.CBSDataCodingSchemeImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.protocols.ss7.tcap.asn.ApplicationContextName;
+import org.restcomm.protocols.ss7.tcap.asn.comp.PAbortCauseType;
+import org.restcomm.protocols.ss7.tcap.asn.comp.Problem;
+
+/**
+ * Client side of the load generator: runs scenario steps one after another, every step is a new dialog. A step is
+ * completed by the response to its request and failed by an error, a reject, a timeout or an abort.
+ *
+ */
+public class ScenarioClient extends LoadListenerAdapter {
+
+    private static final Logger logger = Logger.getLogger(ScenarioClient.class);
+
+    private static final int SERVICE_KEY = 1;
+    private static final String MSISDN_PREFIX = "7912";
+    private static final String IMSI_PREFIX = "25001";
+
+    private final LoadStack stack;
+    private final LoadStatistics statistics;
+    private final List<StepType> steps;
+
+    private final MAPApplicationContext sriContext;
+    private final MAPApplicationContext sriSmContext;
+    private final MAPApplicationContext moFsmContext;
+    private final MAPApplicationContext mtFsmContext;
+    private final MAPApplicationContext atiContext;
+    private final MAPApplicationContext ussdContext;
+
+    private final SccpAddress localMapAddress;
+    private final SccpAddress remoteMapAddress;
+    private final SccpAddress localCapAddress;
+    private final SccpAddress remoteCapAddress;
+    private final AddressString serviceCentreAddress;
+    private final ISDNAddressString gsmScfAddress;
+    private final SmsSignalInfo smsSignalInfo;
+    private final CBSDataCodingScheme ussdDataCodingScheme = new CBSDataCodingSchemeImpl(0x0f);
+    private final RequestedInfo requestedInfo;
+
+    private final AtomicLong subscriberSequence = new AtomicLong();
+
+    public ScenarioClient(LoadStack stack, Scenario scenario, LoadStatistics statistics) {
+        this.stack = stack;
+        this.statistics = statistics;
+        this.steps = scenario.getSteps();
+
+        this.sriContext = MAPApplicationContext.getInstance(MAPApplicationContextName.locationInfoRetrievalContext,
+                MAPApplicationContextVersion.version2);
+        this.sriSmContext = MAPApplicationContext.getInstance(MAPApplicationContextName.shortMsgGatewayContext,
+                MAPApplicationContextVersion.version3);
+        this.moFsmContext = MAPApplicationContext.getInstance(MAPApplicationContextName.shortMsgMORelayContext,
+                MAPApplicationContextVersion.version3);
+        this.mtFsmContext = MAPApplicationContext.getInstance(MAPApplicationContextName.shortMsgMTRelayContext,
+                MAPApplicationContextVersion.version3);
+        this.atiContext = MAPApplicationContext.getInstance(MAPApplicationContextName.anyTimeEnquiryContext,
+                MAPApplicationContextVersion.version3);
+        this.ussdContext = MAPApplicationContext.getInstance(MAPApplicationContextName.networkUnstructuredSsContext,
+                MAPApplicationContextVersion.version2);
+
+        this.localMapAddress = stack.getLocalAddress(false);
+        this.remoteMapAddress = stack.getRemoteAddress(false);
+        this.localCapAddress = stack.getLocalAddress(true);
+        this.remoteCapAddress = stack.getRemoteAddress(true);
+
+        MAPParameterFactory factory = stack.getMAPProvider().getMAPParameterFactory();
+        this.serviceCentreAddress = factory.createAddressString(AddressNature.international_number, NumberingPlan.ISDN,
+                "79001234567");
+        this.gsmScfAddress = factory.createISDNAddressString(AddressNature.international_number, NumberingPlan.ISDN,
+                "79007654321");
+        // the TPDU content is not parsed by the server
+        this.smsSignalInfo = factory.createSmsSignalInfo(new byte[] { 0x11, 0x00, 0x0b, (byte) 0x91, (byte) 0x97, 0x21, 0x43,
+                0x65, (byte) 0x87, (byte) 0xf9, 0x00, 0x00, (byte) 0xaa, 0x05, (byte) 0xe8, 0x32, (byte) 0x9b, (byte) 0xfd,
+                0x06 }, null);
+        this.requestedInfo = factory.createRequestedInfo(true, true, null, false, null, false, false, false);
+    }
+
+    /**
+     * Starts a new scenario instance.
+     *
+     * @param intendedStartNanos the start time given by the arrival process (System.nanoTime())
+     * @param measured false for the warm-up period
+     */
+    public void startScenario(long intendedStartNanos, boolean measured) {
+        long now = System.nanoTime();
+        this.statistics.scenarioStarted(measured, now - intendedStartNanos);
+        Session session = new Session(intendedStartNanos, measured, this.subscriberSequence.incrementAndGet());
+        this.runStep(session, 0, intendedStartNanos);
+    }
+
+    private void runStep(Session session, int stepIndex, long startNanos) {
+        StepRun run = new StepRun(session, stepIndex, startNanos);
+        try {
+            this.sendRequest(run, this.steps.get(stepIndex));
+        } catch (Exception e) {
+            logger.error("Exception while sending a request of step " + stepIndex + " " + this.steps.get(stepIndex), e);
+            this.completeStep(run, false);
+        }
+    }
+
+    private void sendRequest(StepRun run, StepType step) throws MAPException, CAPException {
+        MAPProvider mapProvider = this.stack.getMAPProvider();
+        MAPParameterFactory factory = mapProvider.getMAPParameterFactory();
+        ISDNAddressString msisdn = factory.createISDNAddressString(AddressNature.international_number, NumberingPlan.ISDN,
+                run.session.getMsisdn());
+        IMSI imsi = factory.createIMSI(run.session.getImsi());
+
+        switch (step) {
+            case SRI: {
+                MAPDialogCallHandling dialog = mapProvider.getMAPServiceCallHandling().createNewDialog(this.sriContext,
+                        this.localMapAddress, null, this.remoteMapAddress, null);
+                dialog.setUserObject(run);
+                dialog.addSendRoutingInformationRequest(msisdn, null, null, null);
+                this.send(dialog);
+            }
+                break;
+
+            case SRI_SM: {
+                MAPDialogSms dialog = mapProvider.getMAPServiceSms().createNewDialog(this.sriSmContext, this.localMapAddress,
+                        null, this.remoteMapAddress, null);
+                dialog.setUserObject(run);
+                dialog.addSendRoutingInfoForSMRequest(msisdn, true, this.serviceCentreAddress, null, false, null, null, null,
+                        false, null, false, false, null, null);
+                this.send(dialog);
+            }
+                break;
+
+            case MO_FSM: {
+                MAPDialogSms dialog = mapProvider.getMAPServiceSms().createNewDialog(this.moFsmContext, this.localMapAddress,
+                        null, this.remoteMapAddress, null);
+                dialog.setUserObject(run);
+                dialog.addMoForwardShortMessageRequest(factory.createSM_RP_DA(this.serviceCentreAddress),
+                        factory.createSM_RP_OA_Msisdn(msisdn), this.smsSignalInfo, null, imsi);
+                this.send(dialog);
+            }
+                break;
+
+            case MT_FSM: {
+                MAPDialogSms dialog = mapProvider.getMAPServiceSms().createNewDialog(this.mtFsmContext, this.localMapAddress,
+                        null, this.remoteMapAddress, null);
+                dialog.setUserObject(run);
+                dialog.addMtForwardShortMessageRequest(factory.createSM_RP_DA(imsi),
+                        factory.createSM_RP_OA_ServiceCentreAddressOA(this.serviceCentreAddress), this.smsSignalInfo, false,
+                        null);
+                this.send(dialog);
+            }
+                break;
+
+            case ATI: {
+                MAPDialogMobility dialog = mapProvider.getMAPServiceMobility().createNewDialog(this.atiContext,
+                        this.localMapAddress, null, this.remoteMapAddress, null);
+                dialog.setUserObject(run);
+                dialog.addAnyTimeInterrogationRequest(factory.createSubscriberIdentity(msisdn), this.requestedInfo,
+                        this.gsmScfAddress, null);
+                this.send(dialog);
+            }
+                break;
+
+            case USSD: {
+                MAPDialogSupplementary dialog = mapProvider.getMAPServiceSupplementary().createNewDialog(this.ussdContext,
+                        this.localMapAddress, null, this.remoteMapAddress, null);
+                dialog.setUserObject(run);
+                dialog.addProcessUnstructuredSSRequest(this.ussdDataCodingScheme,
+                        factory.createUSSDString("*100#", this.ussdDataCodingScheme, null), null, msisdn);
+                this.send(dialog);
+            }
+                break;
+
+            case CAP_IDP: {
+                CAPDialogCircuitSwitchedCall dialog = this.stack.getCAPProvider().getCAPServiceCircuitSwitchedCall()
+                        .createNewDialog(CAPApplicationContext.CapV2_gsmSSF_to_gsmSCF, this.localCapAddress,
+                                this.remoteCapAddress);
+                dialog.setUserObject(run);
+                dialog.addInitialDPRequest(SERVICE_KEY, null, null, null, null, null, null, null, null, null, null, null,
+                        EventTypeBCSM.collectedInfo, null, null, null, null, null, null, null, false, imsi, null, null, null,
+                        null, null, null, null, false, null);
+                try {
+                    dialog.send();
+                } catch (CAPException e) {
+                    dialog.release();
+                    throw e;
+                }
+            }
+                break;
+        }
+    }
+
+    private void send(MAPDialog dialog) throws MAPException {
+        try {
+            dialog.send();
+        } catch (MAPException e) {
+            dialog.release();
+            throw e;
+        }
+    }
+
+    private void completeStep(StepRun run, boolean success) {
+        if (!run.done.compareAndSet(false, true))
+            return;
+
+        Session session = run.session;
+        long now = System.nanoTime();
+        if (success) {
+            this.statistics.stepCompleted(run.stepIndex, session.isMeasured(), now - run.startNanos);
+            if (run.stepIndex + 1 < this.steps.size()) {
+                this.runStep(session, run.stepIndex + 1, now);
+            } else {
+                this.statistics.scenarioCompleted(session.isMeasured(), now - session.getIntendedStartNanos());
+            }
+        } else {
+            this.statistics.stepFailed(run.stepIndex, session.isMeasured());
+            this.statistics.scenarioFailed(session.isMeasured());
+        }
+    }
+
+    private void completeStep(MAPDialog dialog, boolean success) {
+        Object userObject = dialog.getUserObject();
+        if (userObject instanceof StepRun)
+            this.completeStep((StepRun) userObject, success);
+    }
+
+    private void completeStep(CAPDialog dialog, boolean success) {
+        Object userObject = dialog.getUserObject();
+        if (userObject instanceof StepRun)
+            this.completeStep((StepRun) userObject, success);
+    }
+
+    // responses
+
+    @Override
+    public void onSendRoutingInformationResponse(SendRoutingInformationResponse response) {
+        this.completeStep(response.getMAPDialog(), true);
+    }
+
+    @Override
+    public void onSendRoutingInfoForSMResponse(SendRoutingInfoForSMResponse sendRoutingInfoForSMRespInd) {
+        this.completeStep(sendRoutingInfoForSMRespInd.getMAPDialog(), true);
+    }
+
+    @Override
+    public void onMoForwardShortMessageResponse(MoForwardShortMessageResponse moForwSmRespInd) {
+        this.completeStep(moForwSmRespInd.getMAPDialog(), true);
+    }
+
+    @Override
+    public void onMtForwardShortMessageResponse(MtForwardShortMessageResponse mtForwSmRespInd) {
+        this.completeStep(mtForwSmRespInd.getMAPDialog(), true);
+    }
+
+    @Override
+    public void onAnyTimeInterrogationResponse(AnyTimeInterrogationResponse response) {
+        this.completeStep(response.getMAPDialog(), true);
+    }
+
+    @Override
+    public void onProcessUnstructuredSSResponse(ProcessUnstructuredSSResponse procUnstrResInd) {
+        this.completeStep(procUnstrResInd.getMAPDialog(), true);
+    }
+
+    @Override
+    public void onContinueRequest(ContinueRequest ind) {
+        this.completeStep(ind.getCAPDialog(), true);
+    }
+
+    // MAP failures
+
+    @Override
+    public void onErrorComponent(MAPDialog mapDialog, Long invokeId, MAPErrorMessage mapErrorMessage) {
+        this.completeStep(mapDialog, false);
+    }
+
+    @Override
+    public void onRejectComponent(MAPDialog mapDialog, Long invokeId, Problem problem, boolean isLocalOriginated) {
+        this.completeStep(mapDialog, false);
+    }
+
+    @Override
+    public void onInvokeTimeout(MAPDialog mapDialog, Long invokeId) {
+        this.completeStep(mapDialog, false);
+    }
+
+    @Override
+    public void onDialogReject(MAPDialog mapDialog, MAPRefuseReason refuseReason,
+            ApplicationContextName alternativeApplicationContext, MAPExtensionContainer extensionContainer) {
+        this.completeStep(mapDialog, false);
+    }
+
+    @Override
+    public void onDialogUserAbort(MAPDialog mapDialog, MAPUserAbortChoice userReason,
+            MAPExtensionContainer extensionContainer) {
+        this.completeStep(mapDialog, false);
+    }
+
+    @Override
+    public void onDialogProviderAbort(MAPDialog mapDialog, MAPAbortProviderReason abortProviderReason,
+            MAPAbortSource abortSource, MAPExtensionContainer extensionContainer) {
+        this.completeStep(mapDialog, false);
+    }
+
+    @Override
+    public void onDialogTimeout(MAPDialog mapDialog) {
+        this.completeStep(mapDialog, false);
+    }
+
+    @Override
+    public void onDialogRelease(MAPDialog mapDialog) {
+        // released without a response
+        this.completeStep(mapDialog, false);
+    }
+
+    // CAP failures
+
+    @Override
+    public void onErrorComponent(CAPDialog capDialog, Long invokeId, CAPErrorMessage capErrorMessage) {
+        this.completeStep(capDialog, false);
+    }
+
+    @Override
+    public void onRejectComponent(CAPDialog capDialog, Long invokeId, Problem problem, boolean isLocalOriginated) {
+        this.completeStep(capDialog, false);
+    }
+
+    @Override
+    public void onInvokeTimeout(CAPDialog capDialog, Long invokeId) {
+        this.completeStep(capDialog, false);
+    }
+
+    @Override
+    public void onDialogUserAbort(CAPDialog capDialog, CAPGeneralAbortReason generalReason, CAPUserAbortReason userReason) {
+        this.completeStep(capDialog, false);
+    }
+
+    @Override
+    public void onDialogProviderAbort(CAPDialog capDialog, PAbortCauseType abortCause) {
+        this.completeStep(capDialog, false);
+    }
+
+    @Override
+    public void onDialogTimeout(CAPDialog capDialog) {
+        this.completeStep(capDialog, false);
+    }
+
+    @Override
+    public void onDialogRelease(CAPDialog capDialog) {
+        // released without a response
+        this.completeStep(capDialog, false);
+    }
+
+    /**
+     * One scenario instance.
+     */
+    private static class Session {
+        private final long intendedStartNanos;
+        private final boolean measured;
+        private final String msisdn;
+        private final String imsi;
+
+        Session(long intendedStartNanos, boolean measured, long subscriber) {
+            this.intendedStartNanos = intendedStartNanos;
+            this.measured = measured;
+            String digits = Long.toString(1000000 + subscriber % 1000000).substring(1);
+            this.msisdn = MSISDN_PREFIX + digits;
+            this.imsi = IMSI_PREFIX + "0000" + digits;
+        }
+
+        long getIntendedStartNanos() {
+            return intendedStartNanos;
+        }
+
+        boolean isMeasured() {
+            return measured;
+        }
+
+        String getMsisdn() {
+            return msisdn;
+        }
+
+        String getImsi() {
+            return imsi;
+        }
+    }
+
+    /**
+     * One step of a scenario instance, it is the user object of the step dialog.
+     */
+    private static class StepRun {
+        private final Session session;
+        private final int stepIndex;
+        private final long startNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        StepRun(Session session, int stepIndex, long startNanos) {
+            this.session = session;
+            this.stepIndex = stepIndex;
+            this.startNanos = startNanos;
+        }
+    }
+
+}
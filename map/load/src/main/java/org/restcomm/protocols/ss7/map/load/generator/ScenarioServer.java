@@ -0,0 +1,188 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.cap.api.CAPException;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.CAPDialogCircuitSwitchedCall;
+import org.restcomm.protocols.ss7.cap.api.service.circuitSwitchedCall.InitialDPRequest;
+import org.restcomm.protocols.ss7.map.api.MAPDialog;
+import org.restcomm.protocols.ss7.map.api.MAPException;
+import org.restcomm.protocols.ss7.map.api.MAPParameterFactory;
+import org.restcomm.protocols.ss7.map.api.datacoding.CBSDataCodingScheme;
+import org.restcomm.protocols.ss7.map.api.primitives.AddressNature;
+import org.restcomm.protocols.ss7.map.api.primitives.IMSI;
+import org.restcomm.protocols.ss7.map.api.primitives.NumberingPlan;
+import org.restcomm.protocols.ss7.map.api.primitives.USSDString;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.MAPDialogCallHandling;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.RoutingInfo;
+import org.restcomm.protocols.ss7.map.api.service.callhandling.SendRoutingInformationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.MAPDialogMobility;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.AnyTimeInterrogationRequest;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.SubscriberInfo;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberInformation.SubscriberStateChoice;
+import org.restcomm.protocols.ss7.map.api.service.sms.LocationInfoWithLMSI;
+import org.restcomm.protocols.ss7.map.api.service.sms.MAPDialogSms;
+import org.restcomm.protocols.ss7.map.api.service.sms.MoForwardShortMessageRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.MtForwardShortMessageRequest;
+import org.restcomm.protocols.ss7.map.api.service.sms.SendRoutingInfoForSMRequest;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.MAPDialogSupplementary;
+import org.restcomm.protocols.ss7.map.api.service.supplementary.ProcessUnstructuredSSRequest;
+import org.restcomm.protocols.ss7.map.datacoding.CBSDataCodingSchemeImpl;
+
+/**
+ * Server side of the load generator: answers every supported request with a successful response in TC-END (InitialDP is
+ * answered with Continue). Responses carry fixed content.
+ *
+ */
+public class ScenarioServer extends LoadListenerAdapter {
+
+    private static final Logger logger = Logger.getLogger(ScenarioServer.class);
+
+    private final IMSI imsi;
+    private final RoutingInfo routingInfo;
+    private final LocationInfoWithLMSI locationInfoWithLMSI;
+    private final SubscriberInfo subscriberInfo;
+    private final CBSDataCodingScheme ussdDataCodingScheme = new CBSDataCodingSchemeImpl(0x0f);
+    private final USSDString ussdString;
+
+    private final AtomicLong answered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public ScenarioServer(LoadStack stack) throws MAPException {
+        MAPParameterFactory factory = stack.getMAPProvider().getMAPParameterFactory();
+        this.imsi = factory.createIMSI("250010000123456");
+        this.routingInfo = factory.createRoutingInfo(factory.createISDNAddressString(AddressNature.international_number,
+                NumberingPlan.ISDN, "79009000001"));
+        this.locationInfoWithLMSI = factory.createLocationInfoWithLMSI(factory.createISDNAddressString(
+                AddressNature.international_number, NumberingPlan.ISDN, "79009000002"), null, null, false, null);
+        this.subscriberInfo = factory.createSubscriberInfo(null,
+                factory.createSubscriberState(SubscriberStateChoice.assumedIdle, null), null, null, null, null, null, null,
+                null);
+        this.ussdString = factory.createUSSDString("Your balance is 100", this.ussdDataCodingScheme, null);
+    }
+
+    public long getAnswered() {
+        return this.answered.get();
+    }
+
+    public long getFailed() {
+        return this.failed.get();
+    }
+
+    private void close(MAPDialog dialog) throws MAPException {
+        dialog.close(false);
+        this.answered.incrementAndGet();
+    }
+
+    private void error(MAPDialog dialog, String operation, MAPException e) {
+        this.failed.incrementAndGet();
+        logger.error("Exception while answering " + operation, e);
+        dialog.release();
+    }
+
+    @Override
+    public void onSendRoutingInformationRequest(SendRoutingInformationRequest request) {
+        MAPDialogCallHandling dialog = request.getMAPDialog();
+        try {
+            dialog.addSendRoutingInformationResponse(request.getInvokeId(), this.imsi, null, this.routingInfo);
+            this.close(dialog);
+        } catch (MAPException e) {
+            this.error(dialog, "SendRoutingInformation", e);
+        }
+    }
+
+    @Override
+    public void onSendRoutingInfoForSMRequest(SendRoutingInfoForSMRequest sendRoutingInfoForSMInd) {
+        MAPDialogSms dialog = sendRoutingInfoForSMInd.getMAPDialog();
+        try {
+            dialog.addSendRoutingInfoForSMResponse(sendRoutingInfoForSMInd.getInvokeId(), this.imsi,
+                    this.locationInfoWithLMSI, null, null, null);
+            this.close(dialog);
+        } catch (MAPException e) {
+            this.error(dialog, "SendRoutingInfoForSM", e);
+        }
+    }
+
+    @Override
+    public void onMoForwardShortMessageRequest(MoForwardShortMessageRequest moForwSmInd) {
+        MAPDialogSms dialog = moForwSmInd.getMAPDialog();
+        try {
+            dialog.addMoForwardShortMessageResponse(moForwSmInd.getInvokeId(), null, null);
+            this.close(dialog);
+        } catch (MAPException e) {
+            this.error(dialog, "MoForwardShortMessage", e);
+        }
+    }
+
+    @Override
+    public void onMtForwardShortMessageRequest(MtForwardShortMessageRequest mtForwSmInd) {
+        MAPDialogSms dialog = mtForwSmInd.getMAPDialog();
+        try {
+            dialog.addMtForwardShortMessageResponse(mtForwSmInd.getInvokeId(), null, null);
+            this.close(dialog);
+        } catch (MAPException e) {
+            this.error(dialog, "MtForwardShortMessage", e);
+        }
+    }
+
+    @Override
+    public void onAnyTimeInterrogationRequest(AnyTimeInterrogationRequest request) {
+        MAPDialogMobility dialog = request.getMAPDialog();
+        try {
+            dialog.addAnyTimeInterrogationResponse(request.getInvokeId(), this.subscriberInfo, null);
+            this.close(dialog);
+        } catch (MAPException e) {
+            this.error(dialog, "AnyTimeInterrogation", e);
+        }
+    }
+
+    @Override
+    public void onProcessUnstructuredSSRequest(ProcessUnstructuredSSRequest procUnstrReqInd) {
+        MAPDialogSupplementary dialog = procUnstrReqInd.getMAPDialog();
+        try {
+            dialog.addProcessUnstructuredSSResponse(procUnstrReqInd.getInvokeId(), this.ussdDataCodingScheme,
+                    this.ussdString);
+            this.close(dialog);
+        } catch (MAPException e) {
+            this.error(dialog, "ProcessUnstructuredSS", e);
+        }
+    }
+
+    @Override
+    public void onInitialDPRequest(InitialDPRequest ind) {
+        CAPDialogCircuitSwitchedCall dialog = ind.getCAPDialog();
+        try {
+            dialog.addContinueRequest();
+            dialog.close(false);
+            this.answered.incrementAndGet();
+        } catch (CAPException e) {
+            this.failed.incrementAndGet();
+            logger.error("Exception while answering InitialDP", e);
+            dialog.release();
+        }
+    }
+
+}
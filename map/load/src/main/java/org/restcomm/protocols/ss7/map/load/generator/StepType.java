@@ -0,0 +1,80 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+/**
+ * Operations that a scenario step can run. Every step is one TCAP dialog: the client sends TC-BEGIN with the request and
+ * the server answers with TC-END.
+ *
+ */
+public enum StepType {
+
+    /**
+     * MAP SendRoutingInformation (call handling)
+     */
+    SRI(false),
+    /**
+     * MAP SendRoutingInfoForSM
+     */
+    SRI_SM(false),
+    /**
+     * MAP MO-ForwardShortMessage (MO-SMS)
+     */
+    MO_FSM(false),
+    /**
+     * MAP MT-ForwardShortMessage (MT-SMS)
+     */
+    MT_FSM(false),
+    /**
+     * MAP AnyTimeInterrogation
+     */
+    ATI(false),
+    /**
+     * MAP ProcessUnstructuredSS-Request (USSD)
+     */
+    USSD(false),
+    /**
+     * CAP InitialDP answered with Continue
+     */
+    CAP_IDP(true);
+
+    private final boolean cap;
+
+    private StepType(boolean cap) {
+        this.cap = cap;
+    }
+
+    public boolean isCap() {
+        return this.cap;
+    }
+
+    public static StepType getInstance(String name) {
+        String value = name.trim().toUpperCase().replace('-', '_');
+        for (StepType type : values()) {
+            if (type.name().equals(value))
+                return type;
+        }
+        throw new IllegalArgumentException("Unknown scenario step: " + name);
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for constant and Poisson arrival processes
+ *
+ */
+public class ArrivalProcessTest {
+
+    @Test(groups = { "functional" })
+    public void testCreate() {
+        assertTrue(ArrivalProcess.create("constant", 10, 0) instanceof ArrivalProcess.Constant);
+        assertTrue(ArrivalProcess.create("POISSON", 10, 0) instanceof ArrivalProcess.Poisson);
+        assertEquals(ArrivalProcess.create("poisson", 250, 0).getRatePerSecond(), 250.0);
+
+        try {
+            ArrivalProcess.create("uniform", 10, 0);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            ArrivalProcess.create("constant", 0, 0);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test(groups = { "functional" })
+    public void testConstant() {
+        ArrivalProcess process = new ArrivalProcess.Constant(400);
+        for (int i1 = 0; i1 < 1000; i1++) {
+            assertEquals(process.nextIntervalNanos(), 2500000);
+        }
+
+        // very high rates still give a positive interval
+        assertEquals(new ArrivalProcess.Constant(1e12).nextIntervalNanos(), 1);
+    }
+
+    @Test(groups = { "functional" })
+    public void testPoisson() {
+        int count = 200000;
+        double rate = 1000;
+        ArrivalProcess process = new ArrivalProcess.Poisson(rate, 12345);
+
+        double sum = 0;
+        double sumSquares = 0;
+        int belowMean = 0;
+        for (int i1 = 0; i1 < count; i1++) {
+            long interval = process.nextIntervalNanos();
+            assertTrue(interval >= 1);
+            sum += interval;
+            sumSquares += (double) interval * interval;
+            if (interval < 1000000)
+                belowMean++;
+        }
+
+        // exponential intervals: mean = standard deviation = 1 / rate, P(interval < mean) = 1 - 1/e
+        double mean = sum / count;
+        double deviation = Math.sqrt(sumSquares / count - mean * mean);
+        assertEquals(mean, 1000000, 10000);
+        assertEquals(deviation, 1000000, 20000);
+        assertEquals((double) belowMean / count, 1 - Math.exp(-1), 0.005);
+    }
+
+    @Test(groups = { "functional" })
+    public void testPoissonSeed() {
+        ArrivalProcess process1 = new ArrivalProcess.Poisson(100, 7);
+        ArrivalProcess process2 = new ArrivalProcess.Poisson(100, 7);
+        ArrivalProcess process3 = new ArrivalProcess.Poisson(100, 8);
+        boolean differs = false;
+        for (int i1 = 0; i1 < 100; i1++) {
+            long interval = process1.nextIntervalNanos();
+            assertEquals(process2.nextIntervalNanos(), interval);
+            if (process3.nextIntervalNanos() != interval)
+                differs = true;
+        }
+        assertTrue(differs);
+    }
+
+}
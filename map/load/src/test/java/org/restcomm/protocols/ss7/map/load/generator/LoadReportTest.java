@@ -0,0 +1,153 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for CSV and JSON load reports
+ *
+ */
+public class LoadReportTest {
+
+    private Scenario scenario;
+    private LoadStatistics statistics;
+
+    @BeforeMethod
+    public void setUp() {
+        Properties properties = new Properties();
+        properties.setProperty("name", "sms \"mt\"");
+        properties.setProperty("steps", "SRI_SM,MT_FSM");
+        properties.setProperty("arrival", "constant");
+        properties.setProperty("rate", "50");
+        properties.setProperty("workers", "2");
+        properties.setProperty("seed", "1");
+        this.scenario = new Scenario(properties);
+
+        this.statistics = new LoadStatistics(this.scenario.getSteps());
+        for (int i1 = 1; i1 <= 10; i1++) {
+            this.statistics.scenarioStarted(true, 0);
+            this.statistics.stepCompleted(0, true, i1 * 1000);
+            if (i1 == 10) {
+                this.statistics.stepFailed(1, true);
+                this.statistics.scenarioFailed(true);
+            } else {
+                this.statistics.stepCompleted(1, true, 2 * i1 * 1000);
+                this.statistics.scenarioCompleted(true, 3 * i1 * 1000);
+            }
+        }
+    }
+
+    private static List<String> readLines(File file) throws Exception {
+        List<String> res = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                res.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return res;
+    }
+
+    @Test(groups = { "functional" })
+    public void testCsv() throws Exception {
+        LoadReport report = new LoadReport(this.scenario, this.statistics, 2000000000L);
+        assertEquals(report.getThroughput(), 4.5, 0.0001);
+
+        File file = File.createTempFile("LoadReportTest", ".csv");
+        try {
+            report.writeCsv(file.getPath());
+            List<String> lines = readLines(file);
+
+            assertEquals(lines.size(), 5);
+            assertEquals(lines.get(0), "name,count,failures,throughput,min,mean,p50,p90,p99,p99.9,p99.99,max");
+            assertEquals(lines.get(1), "step1-SRI_SM,10,0,5.00,1,5.50,5,9,10,10,10,10");
+            assertEquals(lines.get(2), "step2-MT_FSM,9,1,4.50,2,10.00,10,18,18,18,18,18");
+            assertEquals(lines.get(3), "scenario,9,1,4.50,3,15.00,15,27,27,27,27,27");
+            assertEquals(lines.get(4), "startLag,10,0,5.00,0,0.00,0,0,0,0,0,0");
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(groups = { "functional" })
+    public void testJson() throws Exception {
+        LoadReport report = new LoadReport(this.scenario, this.statistics, 2000000000L);
+
+        File file = File.createTempFile("LoadReportTest", ".json");
+        try {
+            report.writeJson(file.getPath());
+            List<String> lines = readLines(file);
+
+            assertEquals(lines.get(0), "{");
+            assertEquals(lines.get(1), "  \"scenario\": \"sms \\\"mt\\\"\",");
+            assertEquals(lines.get(2), "  \"steps\": [\"SRI_SM\", \"MT_FSM\"],");
+            assertEquals(lines.get(3), "  \"arrival\": \"constant\",");
+            assertEquals(lines.get(4), "  \"rate\": 50.00,");
+            assertEquals(lines.get(5), "  \"workers\": 2,");
+            assertEquals(lines.get(6), "  \"transport\": \"local\",");
+            assertEquals(lines.get(7), "  \"measuredSeconds\": 2.00,");
+            assertEquals(lines.get(8), "  \"started\": 10,");
+            assertEquals(lines.get(9), "  \"completed\": 9,");
+            assertEquals(lines.get(10), "  \"failed\": 1,");
+            assertEquals(lines.get(11), "  \"throughput\": 4.50,");
+            assertEquals(lines.get(12), "  \"latencyUnit\": \"us\",");
+            assertEquals(lines.get(13), "  \"latencies\": [");
+            assertEquals(lines.get(14), "    { \"name\": \"step1-SRI_SM\", \"count\": 10, \"failures\": 0, \"min\": 1, \"mean\": 5.50, "
+                    + "\"p50\": 5, \"p90\": 9, \"p99\": 10, \"p99.9\": 10, \"p99.99\": 10, \"max\": 10 },");
+            assertEquals(lines.get(16), "    { \"name\": \"scenario\", \"count\": 9, \"failures\": 1, \"min\": 3, \"mean\": 15.00, "
+                    + "\"p50\": 15, \"p90\": 27, \"p99\": 27, \"p99.9\": 27, \"p99.99\": 27, \"max\": 27 },");
+            assertTrue(lines.get(17).startsWith("    { \"name\": \"startLag\""));
+            assertTrue(lines.get(17).endsWith(" }"));
+            assertEquals(lines.get(18), "  ]");
+            assertEquals(lines.get(19), "}");
+            assertEquals(lines.size(), 20);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(groups = { "functional" })
+    public void testToString() {
+        LoadReport report = new LoadReport(this.scenario, this.statistics, 2000000000L);
+        String s = report.toString();
+        assertTrue(s.startsWith("Scenario sms \"mt\": started=10, completed=9, failed=1, throughput=4.5/s, latency us:"), s);
+        assertTrue(s.contains("scenario             count=9 failures=1 mean=15.0 p50=15 p99=27 p99.9=27 max=27"), s);
+    }
+
+}
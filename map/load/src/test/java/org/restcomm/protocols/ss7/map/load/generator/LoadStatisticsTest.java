@@ -0,0 +1,171 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.load.generator;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
+import org.testng.annotations.Test;
+
+/**
+ * Test for LoadStatistics counters, percentiles and coordinated omission accounting
+ *
+ */
+public class LoadStatisticsTest {
+
+    private static final long MILLI = 1000000;
+
+    private static void assertNear(long value, long expected) {
+        // the histogram keeps values with the precision of 1/32
+        assertTrue(value >= expected && value <= expected + expected / 32, "value=" + value + ", expected=" + expected);
+    }
+
+    @Test(groups = { "functional" })
+    public void testValueAtPercentile() {
+        LoadStatistics statistics = new LoadStatistics(Arrays.asList(StepType.SRI));
+
+        StatHistogram histogram = statistics.getStepHistogram(0);
+        assertEquals(histogram.getCount(), 0);
+        assertEquals(histogram.getValueAtPercentile(50), 0);
+        assertEquals(histogram.getMax(), 0);
+
+        // 1 .. 10000 microseconds in a shuffled order
+        for (int i1 = 0; i1 < 10000; i1++) {
+            long value = (i1 * 7919L) % 10000 + 1;
+            statistics.stepCompleted(0, true, value * 1000);
+        }
+
+        histogram = statistics.getStepHistogram(0);
+        assertEquals(histogram.getCount(), 10000);
+        assertEquals(histogram.getMin(), 1);
+        assertEquals(histogram.getMean(), 5000.5, 0.001);
+        assertNear(histogram.getValueAtPercentile(0), 1);
+        assertNear(histogram.getValueAtPercentile(1), 100);
+        assertNear(histogram.getValueAtPercentile(50), 5000);
+        assertNear(histogram.getValueAtPercentile(90), 9000);
+        assertNear(histogram.getValueAtPercentile(99.9), 9990);
+        assertNear(histogram.getValueAtPercentile(100), 10000);
+        assertEquals(histogram.getValueAtPercentile(100), histogram.getMax());
+
+        // percentiles out of the range are clamped
+        assertEquals(histogram.getValueAtPercentile(-5), histogram.getValueAtPercentile(0));
+        assertEquals(histogram.getValueAtPercentile(150), histogram.getValueAtPercentile(100));
+
+        // small values are exact
+        statistics = new LoadStatistics(Arrays.asList(StepType.SRI));
+        for (int i1 = 0; i1 < 20; i1++) {
+            statistics.stepCompleted(0, true, (i1 % 4 + 1) * 1000);
+        }
+        histogram = statistics.getStepHistogram(0);
+        assertEquals(histogram.getValueAtPercentile(25), 1);
+        assertEquals(histogram.getValueAtPercentile(50), 2);
+        assertEquals(histogram.getValueAtPercentile(75), 3);
+        assertEquals(histogram.getValueAtPercentile(76), 4);
+    }
+
+    @Test(groups = { "functional" })
+    public void testCounters() {
+        LoadStatistics statistics = new LoadStatistics(Arrays.asList(StepType.SRI_SM, StepType.MT_FSM));
+
+        // warm-up scenario is counted but not measured
+        statistics.scenarioStarted(false, 0);
+        statistics.stepCompleted(0, false, 5 * MILLI);
+        statistics.stepCompleted(1, false, 5 * MILLI);
+        statistics.scenarioCompleted(false, 10 * MILLI);
+
+        statistics.scenarioStarted(true, 0);
+        statistics.stepCompleted(0, true, 1 * MILLI);
+        statistics.stepCompleted(1, true, 2 * MILLI);
+        statistics.scenarioCompleted(true, 3 * MILLI);
+
+        statistics.scenarioStarted(true, 0);
+        statistics.stepCompleted(0, true, 1 * MILLI);
+        statistics.stepFailed(1, true);
+        statistics.scenarioFailed(true);
+
+        statistics.scenarioStarted(true, 0);
+
+        assertEquals(statistics.getStarted(), 4);
+        assertEquals(statistics.getCompleted(), 2);
+        assertEquals(statistics.getFailed(), 1);
+        assertEquals(statistics.getOutstanding(), 1);
+        assertEquals(statistics.getMeasuredStarted(), 3);
+        assertEquals(statistics.getMeasuredCompleted(), 1);
+        assertEquals(statistics.getMeasuredFailed(), 1);
+
+        assertEquals(statistics.getStepHistogram(0).getCount(), 2);
+        assertEquals(statistics.getStepHistogram(1).getCount(), 1);
+        assertEquals(statistics.getStepFailures(0), 0);
+        assertEquals(statistics.getStepFailures(1), 1);
+        assertEquals(statistics.getScenarioHistogram().getCount(), 1);
+        assertNear(statistics.getScenarioHistogram().getMax(), 3000);
+        assertEquals(statistics.getStartLagHistogram().getCount(), 3);
+    }
+
+    /**
+     * Constant arrivals of 1000/s with 100 us service time. The generator is blocked for 200 ms in the middle of the run.
+     * Latencies are counted from the intended start, so scenarios that should have been started during the stall report
+     * the waiting time. A closed loop measurement would see 100 us for every scenario.
+     */
+    @Test(groups = { "functional" })
+    public void testCoordinatedOmission() {
+        LoadStatistics statistics = new LoadStatistics(Arrays.asList(StepType.SRI));
+        ArrivalProcess arrivalProcess = new ArrivalProcess.Constant(1000);
+        long serviceNanos = 100000;
+        long stallStart = 500 * MILLI;
+        long stallEnd = 700 * MILLI;
+
+        long intended = 0;
+        for (int i1 = 0; i1 < 1000; i1++) {
+            long sent = intended >= stallStart && intended < stallEnd ? stallEnd : intended;
+            long done = sent + serviceNanos;
+
+            statistics.scenarioStarted(true, sent - intended);
+            // the first step is counted from the intended start too
+            statistics.stepCompleted(0, true, done - intended);
+            statistics.scenarioCompleted(true, done - intended);
+
+            intended += arrivalProcess.nextIntervalNanos();
+        }
+
+        StatHistogram scenario = statistics.getScenarioHistogram();
+        assertEquals(scenario.getCount(), 1000);
+        assertNear(scenario.getValueAtPercentile(50), 100);
+        assertNear(scenario.getValueAtPercentile(80), 100);
+        // 200 stalled scenarios waited from 200 ms down to 1 ms
+        assertTrue(scenario.getValueAtPercentile(90) >= 99000 && scenario.getValueAtPercentile(90) <= 105000, ""
+                + scenario.getValueAtPercentile(90));
+        assertNear(scenario.getMax(), 200100);
+        assertEquals(scenario.getMean(), (800 * 100 + 200 * 100 + 1000 * (200 * 201 / 2)) / 1000.0, 0.001);
+
+        assertEquals(statistics.getStepHistogram(0).getValueAtPercentile(90), scenario.getValueAtPercentile(90));
+
+        StatHistogram startLag = statistics.getStartLagHistogram();
+        assertEquals(startLag.getValueAtPercentile(80), 0);
+        assertNear(startLag.getMax(), 200000);
+    }
+
+}
@@ -47,4 +47,12 @@ public interface MAPMessage extends Serializable {
 
     boolean isReturnResultNotLast();
 
+    /**
+     * The encoded parameter of a received message (the content of the component parameter SEQUENCE) as it has come from
+     * the peer. Relays and STP like applications can forward it with MAPDialog.sendInvokeComponent() without decoding
+     * and encoding the message. Is available for received InsertSubscriberDataRequest, SendRoutingInfoForSMRequest and
+     * MtForwardShortMessageRequest, null for other messages.
+     */
+    byte[] getEncodedParameterData();
+
 }
@@ -0,0 +1,98 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.restcomm.ss7.management.console.impl;
+
+import org.restcomm.ss7.management.console.CommandContext;
+import org.restcomm.ss7.management.console.CommandHandlerWithHelp;
+import org.restcomm.ss7.management.console.Tree;
+import org.restcomm.ss7.management.console.Tree.Node;
+
+/**
+ * Shell commands of the MAP layer
+ *
+ */
+public class MapCommandHandler extends CommandHandlerWithHelp {
+
+    static final Tree commandTree = new Tree("map");
+    static {
+        Node parent = commandTree.getTopNode();
+
+        Node set = parent.addChild("set");
+        set.addChild("shorttimer");
+        set.addChild("mediumtimer");
+        set.addChild("longtimer");
+        set.addChild("lazyparameterdecoding");
+        set.addChild("acnversioncacheenabled");
+        set.addChild("acnversioncachettl");
+        set.addChild("acnversioncachemaxsize");
+        set.addChild("acnversioncachegtprefixlength");
+
+        Node get = parent.addChild("get");
+        get.addChild("shorttimer");
+        get.addChild("mediumtimer");
+        get.addChild("longtimer");
+        get.addChild("lazyparameterdecoding");
+        get.addChild("acnversioncacheenabled");
+        get.addChild("acnversioncachettl");
+        get.addChild("acnversioncachemaxsize");
+        get.addChild("acnversioncachegtprefixlength");
+
+        Node acncache = parent.addChild("acncache");
+        acncache.addChild("show");
+        acncache.addChild("clear");
+
+    };
+
+    public MapCommandHandler() {
+        super(commandTree, CONNECT_MANDATORY_FLAG);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.ss7.management.console.CommandHandler#isValid(java.lang .String)
+     */
+    @Override
+    public void handle(CommandContext ctx, String commandLine) {
+        if (commandLine.contains("--help")) {
+            this.printHelp(commandLine, ctx);
+            return;
+        }
+        ctx.sendMessage(commandLine);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.ss7.management.console.CommandHandler#isAvailable(org.mobicents
+     * .ss7.management.console.CommandContext)
+     */
+    @Override
+    public boolean isAvailable(CommandContext ctx) {
+        if (!ctx.isControllerConnected()) {
+            ctx.printLine("The command is not available in the current context. Please connnect first");
+            return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,317 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContextName;
+import org.restcomm.protocols.ss7.map.api.MAPApplicationContextVersion;
+import org.restcomm.protocols.ss7.map.api.dialog.MAPDialogState;
+import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.restcomm.protocols.ss7.tcap.asn.ApplicationContextName;
+
+/**
+ * Per-peer cache of the highest MAP application context version that a peer supports.
+ *
+ * When a peer refuses a dialog with "ApplicationContextNotSupported" (or with a potential version incompatibility) the
+ * cache stores the version the peer is expected to accept for the application context name and the peer. The peer is
+ * identified by a prefix of the GlobalTitle digits of the remote address or, if the remote address has no GlobalTitle, by
+ * its SPC. New outgoing dialogs towards the peer are created with the stored version instead of the requested one, so
+ * they do not need an extra TC-BEGIN / TC-ABORT round trip. Entries expire after the configured time to live so a peer
+ * that has been upgraded is tried with the higher version again.
+ *
+ * The cache is disabled by default and is configured by {@link MAPStackConfigurationManagement}.
+ */
+public class AcnVersionCache {
+
+    private static final Logger logger = Logger.getLogger(AcnVersionCache.class);
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    private final MAPStackConfigurationManagement mapCfg;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong downgrades = new AtomicLong();
+    private final AtomicLong learned = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public AcnVersionCache(MAPStackConfigurationManagement mapCfg) {
+        this.mapCfg = mapCfg;
+    }
+
+    /**
+     * Applies the cached version to a new outgoing dialog. If the peer is known to support only a lower version of the
+     * dialog application context the dialog application context is replaced with the lower version.
+     */
+    protected void onDialogCreated(MAPDialogImpl dialog) {
+        if (!this.mapCfg.isAcnVersionCacheEnabled())
+            return;
+
+        MAPApplicationContext appCntx = dialog.getApplicationContext();
+        if (appCntx == null)
+            return;
+        Key key = this.createKey(appCntx.getApplicationContextName(), dialog.getTcapDialog().getRemoteAddress());
+        if (key == null)
+            return;
+        dialog.setAcnVersionCacheKey(key);
+
+        this.lookups.incrementAndGet();
+        Entry entry = this.entries.get(key);
+        if (entry == null)
+            return;
+        if (entry.isExpired(System.currentTimeMillis())) {
+            if (this.entries.remove(key, entry))
+                this.evicted.incrementAndGet();
+            return;
+        }
+
+        int version = appCntx.getApplicationContextVersion().getVersion();
+        if (entry.version < version) {
+            MAPApplicationContext newAppCntx = MAPApplicationContext.getInstance(appCntx.getApplicationContextName(),
+                    MAPApplicationContextVersion.getInstance(entry.version));
+            if (newAppCntx != null) {
+                dialog.appCntx = newAppCntx;
+                this.downgrades.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * A peer has refused a dialog with "ApplicationContextNotSupported". The alternative application context name that the
+     * peer has sent is stored if it has a lower version, otherwise the version below the refused one is stored.
+     */
+    protected void onApplicationContextNotSupported(MAPDialogImpl dialog, ApplicationContextName alternativeApplicationContext) {
+        Key key = dialog.getAcnVersionCacheKey();
+        if (key == null || dialog.getState() != MAPDialogState.INITIAL_SENT)
+            return;
+
+        int refusedVersion = dialog.getApplicationContext().getApplicationContextVersion().getVersion();
+        int version = refusedVersion - 1;
+        if (alternativeApplicationContext != null && alternativeApplicationContext.getOid() != null) {
+            MAPApplicationContext alt = MAPApplicationContext.getInstance(alternativeApplicationContext.getOid());
+            if (alt != null && alt.getApplicationContextName() == key.acn) {
+                int altVersion = alt.getApplicationContextVersion().getVersion();
+                if (altVersion < refusedVersion)
+                    version = altVersion;
+            }
+        }
+        this.learn(key, version);
+    }
+
+    /**
+     * A peer has refused a dialog with a potential version incompatibility: it does not support the dialogue portion so
+     * only version 1 can be used.
+     */
+    protected void onVersionIncompatibility(MAPDialogImpl dialog) {
+        Key key = dialog.getAcnVersionCacheKey();
+        if (key == null || dialog.getState() != MAPDialogState.INITIAL_SENT)
+            return;
+        this.learn(key, 1);
+    }
+
+    private void learn(Key key, int version) {
+        if (version < 1 || !MAPApplicationContext.availableApplicationContextVersion(key.acn, version))
+            return;
+
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(version, now + this.mapCfg.getAcnVersionCacheTtl());
+        while (true) {
+            Entry prev = this.entries.get(key);
+            if (prev == null) {
+                if (this.entries.size() >= this.mapCfg.getAcnVersionCacheMaxSize() && !this.makeRoom(now))
+                    return;
+                if (this.entries.putIfAbsent(key, entry) == null)
+                    break;
+            } else if (prev.version <= version && !prev.isExpired(now)) {
+                // a lower version has been already learned for the peer
+                return;
+            } else if (this.entries.replace(key, prev, entry)) {
+                break;
+            }
+        }
+
+        this.learned.incrementAndGet();
+        if (logger.isDebugEnabled())
+            logger.debug("MAP application context version " + version + " is learned for " + key);
+    }
+
+    private boolean makeRoom(long now) {
+        int maxSize = this.mapCfg.getAcnVersionCacheMaxSize();
+        if (maxSize <= 0)
+            return false;
+
+        for (Iterator<Map.Entry<Key, Entry>> it = this.entries.entrySet().iterator(); it.hasNext();) {
+            if (it.next().getValue().isExpired(now)) {
+                it.remove();
+                this.evicted.incrementAndGet();
+            }
+        }
+        // still full: the entry that expires first is dropped
+        while (this.entries.size() >= maxSize) {
+            Map.Entry<Key, Entry> oldest = null;
+            for (Map.Entry<Key, Entry> e : this.entries.entrySet()) {
+                if (oldest == null || e.getValue().expiryTime < oldest.getValue().expiryTime)
+                    oldest = e;
+            }
+            if (oldest == null)
+                break;
+            if (this.entries.remove(oldest.getKey(), oldest.getValue()))
+                this.evicted.incrementAndGet();
+        }
+        return true;
+    }
+
+    private Key createKey(MAPApplicationContextName acn, SccpAddress remoteAddress) {
+        if (acn == null || remoteAddress == null)
+            return null;
+
+        GlobalTitle gt = remoteAddress.getGlobalTitle();
+        if (gt != null && gt.getDigits() != null && gt.getDigits().length() > 0) {
+            String digits = gt.getDigits();
+            int prefixLength = this.mapCfg.getAcnVersionCacheGtPrefixLength();
+            if (prefixLength > 0 && digits.length() > prefixLength)
+                digits = digits.substring(0, prefixLength);
+            return new Key(acn, digits, 0);
+        }
+        if (remoteAddress.getAddressIndicator().isPCPresent())
+            return new Key(acn, null, remoteAddress.getSignalingPointCode());
+        return null;
+    }
+
+    /**
+     * Removes all learned versions
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the number of outgoing dialogs that have been checked in the cache
+     */
+    public long getLookupCount() {
+        return this.lookups.get();
+    }
+
+    /**
+     * @return the number of outgoing dialogs that have been created with a lower version than requested
+     */
+    public long getDowngradeCount() {
+        return this.downgrades.get();
+    }
+
+    /**
+     * @return the number of versions learned from refused dialogs
+     */
+    public long getLearnedCount() {
+        return this.learned.get();
+    }
+
+    /**
+     * @return the number of entries that have been dropped because of expiry or the cache size limit
+     */
+    public long getEvictedCount() {
+        return this.evicted.get();
+    }
+
+    /**
+     * Returns the current entries as lines "peer acn version=x expiresIn=y ms"
+     */
+    public List<String> getEntries() {
+        long now = System.currentTimeMillis();
+        List<String> res = new ArrayList<String>();
+        for (Map.Entry<Key, Entry> e : this.entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (entry.isExpired(now))
+                continue;
+            res.add(e.getKey() + " version=" + entry.version + " expiresIn=" + (entry.expiryTime - now) + " ms");
+        }
+        return res;
+    }
+
+    private static class Entry {
+        final int version;
+        final long expiryTime;
+
+        Entry(int version, long expiryTime) {
+            this.version = version;
+            this.expiryTime = expiryTime;
+        }
+
+        boolean isExpired(long now) {
+            return now >= this.expiryTime;
+        }
+    }
+
+    /**
+     * A peer (GlobalTitle digits prefix or SPC) and an application context name
+     */
+    protected static class Key {
+        final MAPApplicationContextName acn;
+        final String gtPrefix;
+        final int spc;
+
+        Key(MAPApplicationContextName acn, String gtPrefix, int spc) {
+            this.acn = acn;
+            this.gtPrefix = gtPrefix;
+            this.spc = spc;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key x = (Key) obj;
+            return this.acn == x.acn && this.spc == x.spc
+                    && (this.gtPrefix == null ? x.gtPrefix == null : this.gtPrefix.equals(x.gtPrefix));
+        }
+
+        @Override
+        public int hashCode() {
+            int h = this.acn.hashCode();
+            h = h * 31 + (this.gtPrefix == null ? 0 : this.gtPrefix.hashCode());
+            h = h * 31 + this.spc;
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            if (this.gtPrefix != null)
+                return "gt=" + this.gtPrefix + " " + this.acn;
+            else
+                return "spc=" + this.spc + " " + this.acn;
+        }
+    }
+}
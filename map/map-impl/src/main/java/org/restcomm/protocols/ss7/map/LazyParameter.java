@@ -0,0 +1,135 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.mobicents.protocols.asn.AsnException;
+import org.mobicents.protocols.asn.AsnInputStream;
+
+/**
+ * The encoded parameter of a received MAP message that is decoded on demand.
+ *
+ * When a parameter is wrapped only the tags and the lengths of its top level elements are read. An element is decoded
+ * by the message when one of the fields that it carries is accessed the first time, the element is not decoded again
+ * after this.
+ */
+public class LazyParameter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] data;
+    private int count;
+    private int[] starts = new int[8];
+    private int[] tags = new int[8];
+    private int[] tagClasses = new int[8];
+    private boolean[] decoded = new boolean[8];
+
+    /**
+     * @param data the content of the parameter SEQUENCE (Parameter.getData())
+     */
+    public LazyParameter(byte[] data) throws IOException, AsnException {
+        this.data = data;
+
+        AsnInputStream ais = new AsnInputStream(data);
+        while (ais.available() > 0) {
+            int start = ais.position();
+            int tag = ais.readTag();
+            if (this.count == this.starts.length)
+                this.grow();
+            this.starts[this.count] = start;
+            this.tags[this.count] = tag;
+            this.tagClasses[this.count] = ais.getTagClass();
+            this.count++;
+            ais.advanceElement();
+        }
+    }
+
+    private void grow() {
+        int newLength = this.starts.length * 2;
+        int[] newStarts = new int[newLength];
+        int[] newTags = new int[newLength];
+        int[] newTagClasses = new int[newLength];
+        boolean[] newDecoded = new boolean[newLength];
+        System.arraycopy(this.starts, 0, newStarts, 0, this.count);
+        System.arraycopy(this.tags, 0, newTags, 0, this.count);
+        System.arraycopy(this.tagClasses, 0, newTagClasses, 0, this.count);
+        System.arraycopy(this.decoded, 0, newDecoded, 0, this.count);
+        this.starts = newStarts;
+        this.tags = newTags;
+        this.tagClasses = newTagClasses;
+        this.decoded = newDecoded;
+    }
+
+    public byte[] getData() {
+        return this.data;
+    }
+
+    /**
+     * @return the count of the top level elements
+     */
+    public int size() {
+        return this.count;
+    }
+
+    public int getTag(int index) {
+        return this.tags[index];
+    }
+
+    public int getTagClass(int index) {
+        return this.tagClasses[index];
+    }
+
+    /**
+     * @return the index of the first element that has the tagClass and the tag starting from the index from or -1 if
+     *         there is no such element
+     */
+    public int indexOf(int tagClass, int tag, int from) {
+        for (int i1 = from; i1 < this.count; i1++) {
+            if (this.tags[i1] == tag && this.tagClasses[i1] == tagClass)
+                return i1;
+        }
+        return -1;
+    }
+
+    public boolean isDecoded(int index) {
+        return this.decoded[index];
+    }
+
+    public void setDecoded(int index) {
+        this.decoded[index] = true;
+    }
+
+    /**
+     * @return the stream that is positioned just after the tag of the element so the tag data (getTagClass(),
+     *         isTagPrimitive()) is already read
+     */
+    public AsnInputStream openElement(int index) throws IOException {
+        AsnInputStream ais = new AsnInputStream(this.data);
+        ais.position(this.starts[index]);
+        ais.readTag();
+        return ais;
+    }
+
+}
@@ -92,6 +92,7 @@ public abstract class MAPDialogImpl implements MAPDialog {
     protected MessageType tcapMessageType;
     protected DelayedAreaState delayedAreaState;
     private final MAPStackConfigurationManagement mapCfg;
+    private AcnVersionCache.Key acnVersionCacheKey;
 
     protected MAPDialogImpl(MAPApplicationContext appCntx, Dialog tcapDialog, MAPProviderImpl mapProviderImpl,
             MAPServiceBase mapService, AddressString origReference, AddressString destReference) {
@@ -438,6 +439,14 @@ public abstract class MAPDialogImpl implements MAPDialog {
         return appCntx;
     }
 
+    protected AcnVersionCache.Key getAcnVersionCacheKey() {
+        return acnVersionCacheKey;
+    }
+
+    protected void setAcnVersionCacheKey(AcnVersionCache.Key acnVersionCacheKey) {
+        this.acnVersionCacheKey = acnVersionCacheKey;
+    }
+
     public MAPDialogState getState() {
         return state;
     }
@@ -26,7 +26,6 @@ import java.io.IOException;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javolution.util.FastList;
 import javolution.util.FastMap;
@@ -141,8 +140,8 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
 
     private transient Collection<MAPDialogListener> dialogListeners = new FastList<MAPDialogListener>().shared();
 
-//    protected transient FastMap<Long, MAPDialogImpl> dialogs = new FastMap<Long, MAPDialogImpl>().shared();
-    protected transient ConcurrentHashMap<Long, MAPDialogImpl> dialogs = new ConcurrentHashMap<Long, MAPDialogImpl>();
+    // MAP dialogs are not stored in a separate map, every MAPDialogImpl is attached to its TCAP Dialog
+    // (Dialog.setUpperDialog()) and is found by the TCAP Dialog
 
 //    /**
 //     * Congestion sources name list. Congestion is where this collection is not empty
@@ -165,6 +164,9 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
     private final transient MAPServiceSms mapServiceSms = new MAPServiceSmsImpl(this);
     private final transient MAPServiceLsm mapServiceLsm = new MAPServiceLsmImpl(this);
 
+    private final transient AcnVersionCache acnVersionCache = new AcnVersionCache(
+            MAPStackConfigurationManagement.getInstance());
+
     /**
      * public common methods
      */
@@ -215,6 +217,10 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         return this.mapServiceLsm;
     }
 
+    public AcnVersionCache getAcnVersionCache() {
+        return this.acnVersionCache;
+    }
+
     public void addMAPDialogListener(MAPDialogListener mapDialogListener) {
         this.dialogListeners.add(mapDialogListener);
     }
@@ -236,9 +242,10 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
     }
 
     public MAPDialog getMAPDialog(Long dialogId) {
-        //synchronized (this.dialogs) {
-            return this.dialogs.get(dialogId);
-        //}
+        Dialog tcapDialog = this.tcapProvider.getDialogById(dialogId);
+        if (tcapDialog == null)
+            return null;
+        return (MAPDialog) tcapDialog.getUpperDialog();
     }
 
     public void start() {
@@ -247,8 +254,6 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
 
     public void stop() {
         this.tcapProvider.removeTCListener(this);
-
-        this.dialogs.clear();
     }
 
     /**
@@ -256,15 +261,13 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
      */
 
     protected void addDialog(MAPDialogImpl dialog) {
-        //synchronized (this.dialogs) {
-            this.dialogs.put(dialog.getLocalDialogId(), dialog);
-        //}
+        dialog.getTcapDialog().setUpperDialog(dialog);
     }
 
-    protected MAPDialogImpl removeDialog(Long dialogId) {
-        //synchronized (this.dialogs) {
-            return this.dialogs.remove(dialogId);
-        //}
+    protected MAPDialogImpl removeDialog(Dialog tcapDialog) {
+        MAPDialogImpl mapDialogImpl = (MAPDialogImpl) tcapDialog.getUpperDialog();
+        tcapDialog.setUpperDialog(null);
+        return mapDialogImpl;
     }
 
 //    public void onCongestionFinish(String congName) {
@@ -694,7 +697,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             mapDialogImpl = (MAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            mapDialogImpl = (MAPDialogImpl) this.getMAPDialog(tcapDialog.getLocalDialogId());
+            mapDialogImpl = (MAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (mapDialogImpl == null) {
@@ -913,7 +916,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             mapDialogImpl = (MAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            mapDialogImpl = (MAPDialogImpl) this.getMAPDialog(tcapDialog.getLocalDialogId());
+            mapDialogImpl = (MAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (mapDialogImpl == null) {
@@ -1122,7 +1125,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
 
     public void onInvokeTimeout(Invoke invoke) {
 
-        MAPDialogImpl mapDialogImpl = (MAPDialogImpl) this.getMAPDialog(((InvokeImpl) invoke).getDialog().getLocalDialogId());
+        MAPDialogImpl mapDialogImpl = (MAPDialogImpl) ((InvokeImpl) invoke).getDialog().getUpperDialog();
 
         if (mapDialogImpl != null) {
             try {
@@ -1147,7 +1150,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
 
     public void onDialogTimeout(Dialog tcapDialog) {
 
-        MAPDialogImpl mapDialogImpl = (MAPDialogImpl) this.getMAPDialog(tcapDialog.getLocalDialogId());
+        MAPDialogImpl mapDialogImpl = (MAPDialogImpl) tcapDialog.getUpperDialog();
 
         if (mapDialogImpl != null) {
             try {
@@ -1164,7 +1167,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
 
     public void onDialogReleased(Dialog tcapDialog) {
 
-        MAPDialogImpl mapDialogImpl = this.removeDialog(tcapDialog.getLocalDialogId());
+        MAPDialogImpl mapDialogImpl = this.removeDialog(tcapDialog);
 
         if (mapDialogImpl != null) {
             try {
@@ -1184,7 +1187,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             mapDialogImpl = (MAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            mapDialogImpl = (MAPDialogImpl) this.getMAPDialog(tcapDialog.getLocalDialogId());
+            mapDialogImpl = (MAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (mapDialogImpl == null) {
@@ -1237,17 +1240,19 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
                     break;
             }
 
-            if (abortProviderReason == MAPAbortProviderReason.VersionIncompatibility)
+            if (abortProviderReason == MAPAbortProviderReason.VersionIncompatibility) {
                 // On receipt of a TC-P-ABORT indication primitive in the
                 // "Dialogue Initiated" state with a P-abort parameter
                 // indicating "Incorrect Transaction Portion", the MAP PM shall
                 // issue a MAP-OPEN confirm primitive with
                 // the result parameter indicating "Dialogue Refused" and the
                 // refuse reason parameter indicating "Potential Version Incompatibility"."
+                this.acnVersionCache.onVersionIncompatibility(mapDialogImpl);
                 this.deliverDialogReject(mapDialogImpl, MAPRefuseReason.PotentialVersionIncompatibility, null, null);
-            else if (abortProviderReason == MAPAbortProviderReason.VersionIncompatibilityTcap)
+            } else if (abortProviderReason == MAPAbortProviderReason.VersionIncompatibilityTcap) {
+                this.acnVersionCache.onVersionIncompatibility(mapDialogImpl);
                 this.deliverDialogReject(mapDialogImpl, MAPRefuseReason.PotentialVersionIncompatibilityTcap, null, null);
-            else
+            } else
                 this.deliverDialogProviderAbort(mapDialogImpl, abortProviderReason, abortSource, null);
 
             mapDialogImpl.setState(MAPDialogState.EXPUNGED);
@@ -1267,7 +1272,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         if (this.getTCAPProvider().getPreviewMode()) {
             mapDialogImpl = (MAPDialogImpl) (((DialogImpl) tcapDialog).getPrevewDialogData().getUpperDialog());
         } else {
-            mapDialogImpl = (MAPDialogImpl) this.getMAPDialog(tcapDialog.getLocalDialogId());
+            mapDialogImpl = (MAPDialogImpl) tcapDialog.getUpperDialog();
         }
 
         if (mapDialogImpl == null) {
@@ -1395,6 +1400,8 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
                     // ACN_Not_Supported
                     if (resultSourceDiagnostic.getDialogServiceUserType() == DialogServiceUserType.AcnNotSupported) {
                         if (mapDialogImpl.getState() == MAPDialogState.INITIAL_SENT) {
+                            this.acnVersionCache.onApplicationContextNotSupported(mapDialogImpl,
+                                    tcUserAbortIndication.getApplicationContextName());
                             this.deliverDialogReject(mapDialogImpl, MAPRefuseReason.ApplicationContextNotSupported,
                                     tcUserAbortIndication.getApplicationContextName(), extensionContainer);
 
@@ -1406,6 +1413,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
                     } else if (resultSourceDiagnostic.getDialogServiceProviderType() == DialogServiceProviderType.NoCommonDialogPortion) {
                         if (mapDialogImpl.getState() == MAPDialogState.INITIAL_SENT) {
                             // NoCommonDialogPortion
+                            this.acnVersionCache.onVersionIncompatibility(mapDialogImpl);
                             this.deliverDialogReject(mapDialogImpl, MAPRefuseReason.PotentialVersionIncompatibilityTcap, null, null);
 
                             mapDialogImpl.setState(MAPDialogState.EXPUNGED);
@@ -1673,7 +1681,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
             return;
         }
 
-        MAPDialogImpl mapDialogImpl = (MAPDialogImpl) this.getMAPDialog(tcapDialog.getLocalDialogId());
+        MAPDialogImpl mapDialogImpl = (MAPDialogImpl) tcapDialog.getUpperDialog();
 
         if (mapDialogImpl == null) {
             loger.error("MAP Dialog not found for Dialog Id " + tcapDialog.getLocalDialogId());
@@ -91,11 +91,13 @@ public abstract class MAPServiceBaseImpl implements MAPServiceBase {
             Long invokeId, Long linkedId, Invoke linkedInvoke) throws MAPParsingComponentException;
 
     /**
-     * Adding MAP Dialog into MAPProviderImpl.dialogs Used when creating a new outgoing MAP Dialog
+     * Registers a new outgoing MAP Dialog. The dialog is attached to its TCAP Dialog, MAPProviderImpl keeps no separate
+     * dialog collection
      *
      * @param dialog
      */
     protected void putMAPDialogIntoCollection(MAPDialogImpl dialog) {
+        this.mapProviderImpl.getAcnVersionCache().onDialogCreated(dialog);
         this.mapProviderImpl.addDialog((MAPDialogImpl) dialog);
     }
 
@@ -23,6 +23,11 @@ public class MAPStackConfigurationManagement {
     private static final String SHORT_TIMER_VALUE = "shorttimervalue";
     private static final String MEDIUM_TIMER_VALUE = "mediumtimervalue";
     private static final String LONG_TIMER_VALUE = "longtimervalue";
+    private static final String LAZY_PARAMETER_DECODING = "lazyparameterdecoding";
+    private static final String ACN_VERSION_CACHE_ENABLED = "acnversioncacheenabled";
+    private static final String ACN_VERSION_CACHE_TTL = "acnversioncachettl";
+    private static final String ACN_VERSION_CACHE_MAX_SIZE = "acnversioncachemaxsize";
+    private static final String ACN_VERSION_CACHE_GT_PREFIX_LENGTH = "acnversioncachegtprefixlength";
 
     private static final XMLBinding binding = new XMLBinding();
     private static MAPStackConfigurationManagement instance = new MAPStackConfigurationManagement();
@@ -34,6 +39,11 @@ public class MAPStackConfigurationManagement {
     private int shortTimer = 10000;
     private int mediumTimer = 30000;
     private int longTimer = 600000;
+    private boolean lazyParameterDecoding = false;
+    private boolean acnVersionCacheEnabled = false;
+    private int acnVersionCacheTtl = 3600000;
+    private int acnVersionCacheMaxSize = 10000;
+    private int acnVersionCacheGtPrefixLength = 0;
 
     private MAPStackConfigurationManagement() {
     }
@@ -73,6 +83,11 @@ public class MAPStackConfigurationManagement {
             writer.write(this.shortTimer, SHORT_TIMER_VALUE, Integer.class);
             writer.write(this.mediumTimer, MEDIUM_TIMER_VALUE, Integer.class);
             writer.write(this.longTimer, LONG_TIMER_VALUE, Integer.class);
+            writer.write(this.lazyParameterDecoding, LAZY_PARAMETER_DECODING, Boolean.class);
+            writer.write(this.acnVersionCacheEnabled, ACN_VERSION_CACHE_ENABLED, Boolean.class);
+            writer.write(this.acnVersionCacheTtl, ACN_VERSION_CACHE_TTL, Integer.class);
+            writer.write(this.acnVersionCacheMaxSize, ACN_VERSION_CACHE_MAX_SIZE, Integer.class);
+            writer.write(this.acnVersionCacheGtPrefixLength, ACN_VERSION_CACHE_GT_PREFIX_LENGTH, Integer.class);
 
             writer.close();
         } catch (Exception e) {
@@ -111,6 +126,26 @@ public class MAPStackConfigurationManagement {
         if (val != null)
             this.longTimer = val;
 
+        Boolean valB = reader.read(LAZY_PARAMETER_DECODING, Boolean.class);
+        if (valB != null)
+            this.lazyParameterDecoding = valB;
+
+        valB = reader.read(ACN_VERSION_CACHE_ENABLED, Boolean.class);
+        if (valB != null)
+            this.acnVersionCacheEnabled = valB;
+
+        val = reader.read(ACN_VERSION_CACHE_TTL, Integer.class);
+        if (val != null)
+            this.acnVersionCacheTtl = val;
+
+        val = reader.read(ACN_VERSION_CACHE_MAX_SIZE, Integer.class);
+        if (val != null)
+            this.acnVersionCacheMaxSize = val;
+
+        val = reader.read(ACN_VERSION_CACHE_GT_PREFIX_LENGTH, Integer.class);
+        if (val != null)
+            this.acnVersionCacheGtPrefixLength = val;
+
         reader.close();
     }
 
@@ -130,6 +165,44 @@ public class MAPStackConfigurationManagement {
         return longTimer;
     }
 
+    /**
+     * If true InsertSubscriberDataRequest, SendRoutingInfoForSMRequest and MtForwardShortMessageRequest are delivered
+     * without decoding of their parameters, each parameter element is decoded when it is accessed the first time
+     */
+    public boolean isLazyParameterDecoding() {
+        return lazyParameterDecoding;
+    }
+
+    /**
+     * If true the highest MAP application context version supported by peers is learned from refused dialogs and new
+     * outgoing dialogs are created with this version (see {@link AcnVersionCache})
+     */
+    public boolean isAcnVersionCacheEnabled() {
+        return acnVersionCacheEnabled;
+    }
+
+    /**
+     * Time to live (milliseconds) of a learned application context version
+     */
+    public int getAcnVersionCacheTtl() {
+        return acnVersionCacheTtl;
+    }
+
+    /**
+     * Maximum count of peer / application context entries in the application context version cache
+     */
+    public int getAcnVersionCacheMaxSize() {
+        return acnVersionCacheMaxSize;
+    }
+
+    /**
+     * Count of leading GlobalTitle digits that identifies a peer in the application context version cache. 0 means all
+     * digits.
+     */
+    public int getAcnVersionCacheGtPrefixLength() {
+        return acnVersionCacheGtPrefixLength;
+    }
+
     public void setShortTimer(int shortTimer) {
         this.shortTimer = shortTimer;
         this.store();
@@ -144,4 +217,29 @@ public class MAPStackConfigurationManagement {
         this.longTimer = longTimer;
         this.store();
     }
+
+    public void setLazyParameterDecoding(boolean lazyParameterDecoding) {
+        this.lazyParameterDecoding = lazyParameterDecoding;
+        this.store();
+    }
+
+    public void setAcnVersionCacheEnabled(boolean acnVersionCacheEnabled) {
+        this.acnVersionCacheEnabled = acnVersionCacheEnabled;
+        this.store();
+    }
+
+    public void setAcnVersionCacheTtl(int acnVersionCacheTtl) {
+        this.acnVersionCacheTtl = acnVersionCacheTtl;
+        this.store();
+    }
+
+    public void setAcnVersionCacheMaxSize(int acnVersionCacheMaxSize) {
+        this.acnVersionCacheMaxSize = acnVersionCacheMaxSize;
+        this.store();
+    }
+
+    public void setAcnVersionCacheGtPrefixLength(int acnVersionCacheGtPrefixLength) {
+        this.acnVersionCacheGtPrefixLength = acnVersionCacheGtPrefixLength;
+        this.store();
+    }
 }
@@ -22,11 +22,17 @@
 
 package org.restcomm.protocols.ss7.map;
 
+import java.io.IOException;
+
 import javolution.xml.XMLFormat;
 import javolution.xml.stream.XMLStreamException;
 
+import org.mobicents.protocols.asn.AsnException;
+import org.mobicents.protocols.asn.AsnInputStream;
 import org.restcomm.protocols.ss7.map.api.MAPDialog;
 import org.restcomm.protocols.ss7.map.api.MAPMessage;
+import org.restcomm.protocols.ss7.map.api.MAPParsingComponentException;
+import org.restcomm.protocols.ss7.map.api.MAPParsingComponentExceptionReason;
 
 /**
  *
@@ -42,6 +48,8 @@ public abstract class MessageImpl implements MAPMessage {
     private long invokeId;
     private MAPDialog mapDialog;
     private boolean returnResultNotLast = false;
+    private byte[] encodedParameterData;
+    private LazyParameter lazyParameter;
 
     public long getInvokeId() {
         return this.invokeId;
@@ -67,6 +75,131 @@ public abstract class MessageImpl implements MAPMessage {
         this.returnResultNotLast = returnResultNotLast;
     }
 
+    public byte[] getEncodedParameterData() {
+        return this.encodedParameterData;
+    }
+
+    public void setEncodedParameterData(byte[] encodedParameterData) {
+        this.encodedParameterData = encodedParameterData;
+    }
+
+    /**
+     * Takes the encoded parameter of a received message (the content of the parameter SEQUENCE) without decoding it. Only
+     * the framing of the top level elements is checked here (and the count of mandatory elements by
+     * {@link #checkLazyParameter(LazyParameter)}), elements are decoded when their fields are accessed. Errors in the
+     * element content are reported then by an IllegalStateException.
+     */
+    public void decodeDataLazy(byte[] data) throws MAPParsingComponentException {
+        LazyParameter lp;
+        try {
+            lp = new LazyParameter(data);
+        } catch (IOException e) {
+            throw new MAPParsingComponentException("IOException when decoding " + this.getMessageType() + ": " + e.getMessage(),
+                    e, MAPParsingComponentExceptionReason.MistypedParameter);
+        } catch (AsnException e) {
+            throw new MAPParsingComponentException("AsnException when decoding " + this.getMessageType() + ": "
+                    + e.getMessage(), e, MAPParsingComponentExceptionReason.MistypedParameter);
+        }
+        this.checkLazyParameter(lp);
+
+        this.encodedParameterData = data;
+        this.lazyParameter = lp;
+    }
+
+    /**
+     * Checks the scanned parameter of a message that is decoded lazily. Messages that support lazy decoding override it
+     * together with {@link #decodeElement(AsnInputStream, int, int)}.
+     */
+    protected void checkLazyParameter(LazyParameter lp) throws MAPParsingComponentException {
+        throw new MAPParsingComponentException("Lazy parameter decoding is not supported for " + this.getMessageType(),
+                MAPParsingComponentExceptionReason.MistypedParameter);
+    }
+
+    /**
+     * Decodes a top level element of the message parameter. The stream is positioned after the element tag.
+     *
+     * @param num the index of the element in the parameter
+     */
+    protected void decodeElement(AsnInputStream ais, int tag, int num) throws MAPParsingComponentException, IOException,
+            AsnException {
+        ais.advanceElement();
+    }
+
+    protected LazyParameter getLazyParameter() {
+        return this.lazyParameter;
+    }
+
+    /**
+     * Decodes all not yet decoded elements with the tagClass and the tag if the message is decoded lazily
+     */
+    protected void decodeLazy(int tagClass, int tag) {
+        LazyParameter lp = this.lazyParameter;
+        if (lp == null)
+            return;
+
+        synchronized (lp) {
+            for (int i1 = lp.indexOf(tagClass, tag, 0); i1 >= 0; i1 = lp.indexOf(tagClass, tag, i1 + 1)) {
+                this.decodeLazyElement(lp, i1);
+            }
+        }
+    }
+
+    /**
+     * Decodes the element with the index if the message is decoded lazily
+     */
+    protected void decodeLazyAt(int index) {
+        LazyParameter lp = this.lazyParameter;
+        if (lp == null)
+            return;
+
+        synchronized (lp) {
+            if (index < lp.size())
+                this.decodeLazyElement(lp, index);
+        }
+    }
+
+    /**
+     * Decodes all not yet decoded elements if the message is decoded lazily
+     *
+     * @param ignoreErrors if true elements that can not be decoded are skipped (for toString())
+     */
+    protected void decodeLazyAll(boolean ignoreErrors) {
+        LazyParameter lp = this.lazyParameter;
+        if (lp == null)
+            return;
+
+        synchronized (lp) {
+            for (int i1 = 0; i1 < lp.size(); i1++) {
+                try {
+                    this.decodeLazyElement(lp, i1);
+                } catch (IllegalStateException e) {
+                    if (!ignoreErrors)
+                        throw e;
+                }
+            }
+        }
+    }
+
+    private void decodeLazyElement(LazyParameter lp, int index) {
+        if (lp.isDecoded(index))
+            return;
+
+        try {
+            AsnInputStream ais = lp.openElement(index);
+            this.decodeElement(ais, lp.getTag(index), index);
+            lp.setDecoded(index);
+        } catch (MAPParsingComponentException e) {
+            throw new IllegalStateException("Error while decoding element " + index + " of " + this.getMessageType() + ": "
+                    + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalStateException("IOException when decoding element " + index + " of " + this.getMessageType()
+                    + ": " + e.getMessage(), e);
+        } catch (AsnException e) {
+            throw new IllegalStateException("AsnException when decoding element " + index + " of " + this.getMessageType()
+                    + ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * XML Serialization/Deserialization
      */
@@ -26,6 +26,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.nio.charset.CharsetEncoder;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 
 import org.restcomm.protocols.ss7.map.api.datacoding.NationalLanguageIdentifier;
 
@@ -59,6 +60,12 @@ public class GSMCharset extends Charset {
     protected int[] mainTable;
     protected int[] extensionTable;
 
+    // reverse char->septet tables for mainTable and extensionTable, see lookupFor()
+    protected char[][] mainLookup;
+    protected char[][] extensionLookup;
+
+    private static final IdentityHashMap<int[], char[][]> lookupCache = new IdentityHashMap<int[], char[][]>();
+
     public GSMCharset(String canonicalName, String[] aliases) {
         this(canonicalName, aliases, BYTE_TO_CHAR_DefaultAlphabet, BYTE_TO_CHAR_DefaultAlphabetExtentionTable);
     }
@@ -68,6 +75,7 @@ public class GSMCharset extends Charset {
 
         this.mainTable = mainTable;
         this.extensionTable = extentionTable;
+        this.initLookups();
     }
 
     public GSMCharset(String canonicalName, String[] aliases,
@@ -101,6 +109,52 @@ public class GSMCharset extends Charset {
                     this.extensionTable = BYTE_TO_CHAR_DefaultAlphabetExtentionTable;
                     break;
             }
+        this.initLookups();
+    }
+
+    private void initLookups() {
+        this.mainLookup = this.mainTable != null ? lookupFor(this.mainTable) : null;
+        this.extensionLookup = this.extensionTable != null ? lookupFor(this.extensionTable) : null;
+    }
+
+    /**
+     * Returns the reverse (char -> septet) table for a character table. The table is split into 256 pages of 256 chars
+     * and only pages that contain characters of the character table are allocated. A page entry contains (septet + 1), 0
+     * means that the char is absent in the character table. Reverse tables are built once per character table and are
+     * shared by all charsets.
+     */
+    protected static char[][] lookupFor(int[] table) {
+        synchronized (lookupCache) {
+            char[][] res = lookupCache.get(table);
+            if (res == null) {
+                res = new char[256][];
+                for (int i1 = 0; i1 < table.length && i1 < 128; i1++) {
+                    int c = table[i1];
+                    // 0 marks unused positions, if a char is present several times the lowest septet is used
+                    if (c <= 0 || c > 0xFFFF)
+                        continue;
+                    char[] page = res[c >>> 8];
+                    if (page == null) {
+                        page = new char[256];
+                        res[c >>> 8] = page;
+                    }
+                    if (page[c & 0xFF] == 0)
+                        page[c & 0xFF] = (char) (i1 + 1);
+                }
+                lookupCache.put(table, res);
+            }
+            return res;
+        }
+    }
+
+    /**
+     * @return the septet of the char or -1 if the char is absent in the reverse table
+     */
+    protected static int septetOf(char[][] lookup, char c) {
+        char[] page = lookup[c >>> 8];
+        if (page == null)
+            return -1;
+        return page[c & 0xFF] - 1;
     }
 
     @Override
@@ -125,7 +179,11 @@ public class GSMCharset extends Charset {
      * @return
      */
     public boolean checkAllCharsCanBeEncoded(String data) {
-        return checkAllCharsCanBeEncoded(data, this.mainTable, this.extensionTable);
+        if (data == null)
+            return true;
+        if (this.mainLookup == null)
+            return false;
+        return checkAllCharsCanBeEncoded(data, this.mainLookup, this.extensionLookup);
     }
 
     /**
@@ -141,25 +199,14 @@ public class GSMCharset extends Charset {
         if (mainTable == null)
             return false;
 
+        return checkAllCharsCanBeEncoded(data, lookupFor(mainTable), extentionTable != null ? lookupFor(extentionTable) : null);
+    }
+
+    private static boolean checkAllCharsCanBeEncoded(String data, char[][] mainLookup, char[][] extentionLookup) {
         for (int i1 = 0; i1 < data.length(); i1++) {
             char c = data.charAt(i1);
 
-            boolean found = false;
-            for (int i = 0; i < mainTable.length; i++) {
-                if (mainTable[i] == c) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found && extentionTable != null) {
-                for (int i = 0; i < extentionTable.length; i++) {
-                    if (c != 0 && extentionTable[i] == c) {
-                        found = true;
-                        break;
-                    }
-                }
-            }
-            if (!found)
+            if (septetOf(mainLookup, c) < 0 && (extentionLookup == null || septetOf(extentionLookup, c) < 0))
                 return false;
         }
 
@@ -175,7 +222,9 @@ public class GSMCharset extends Charset {
      * @return
      */
     public int checkEncodedDataLengthInChars(String data) {
-        return checkEncodedDataLengthInChars(data, this.mainTable, this.extensionTable);
+        if (data == null || this.mainLookup == null)
+            return 0;
+        return countSeptets(data, this.mainLookup, this.extensionLookup);
     }
 
     /**
@@ -193,28 +242,17 @@ public class GSMCharset extends Charset {
         if (mainTable == null)
             return 0;
 
+        return countSeptets(data, lookupFor(mainTable), extentionTable != null ? lookupFor(extentionTable) : null);
+    }
+
+    private static int countSeptets(String data, char[][] mainLookup, char[][] extentionLookup) {
         int cnt = 0;
         for (int i1 = 0; i1 < data.length(); i1++) {
             char c = data.charAt(i1);
 
-            boolean found = false;
-            for (int i = 0; i < mainTable.length; i++) {
-                if (mainTable[i] == c) {
-                    found = true;
-                    cnt++;
-                    break;
-                }
-            }
-            if (!found && extentionTable != null) {
-                for (int i = 0; i < extentionTable.length; i++) {
-                    if (c != 0 && extentionTable[i] == c) {
-                        found = true;
-                        cnt += 2;
-                        break;
-                    }
-                }
-            }
-            if (!found)
+            if (septetOf(mainLookup, c) < 0 && extentionLookup != null && septetOf(extentionLookup, c) >= 0)
+                cnt += 2;
+            else
                 cnt++;
         }
 
@@ -243,6 +281,134 @@ public class GSMCharset extends Charset {
         return septCnt;
     }
 
+    /**
+     * Encodes a text in one pass without creating of a CharsetEncoder and of intermediate buffers. The result is the same
+     * as {@link GSMCharsetEncoder} produces: chars that are absent in both tables are encoded as a space, the leading
+     * buffer and the encoding style are taken from encodingData and the septet count can be read by
+     * {@link GSMCharsetEncodingData#getTotalSeptetCount()} after encoding.
+     *
+     * @param encodingData encoding data (if ==null the 7-bit SMS style without leading buffer is used)
+     */
+    public byte[] encodeSeptets(String data, GSMCharsetEncodingData encodingData) {
+        if (data == null)
+            data = "";
+        byte[] leadingBuffer = null;
+        Gsm7EncodingStyle encodingStyle = null;
+        if (encodingData != null) {
+            leadingBuffer = encodingData.leadingBuffer;
+            encodingStyle = encodingData.encodingStyle;
+            encodingData.totalSeptetCount = 0;
+            encodingData.leadingBufferIsEncoded = false;
+        }
+        int len = data.length();
+        if (len == 0) {
+            // CharsetEncoder does not invoke encodeLoop() for an empty text, so a leading buffer is not encoded too
+            return new byte[0];
+        }
+        int leadingLen = 0;
+        if (leadingBuffer != null) {
+            leadingLen = leadingBuffer.length;
+            encodingData.leadingBufferIsEncoded = true;
+        }
+        int septetCnt = countSeptets(data, this.mainLookup, this.extensionLookup);
+
+        if (encodingStyle == Gsm7EncodingStyle.bit8_smpp_style) {
+            byte[] res = new byte[leadingLen + septetCnt];
+            if (leadingLen > 0)
+                System.arraycopy(leadingBuffer, 0, res, 0, leadingLen);
+            int pos = leadingLen;
+            for (int i1 = 0; i1 < len; i1++) {
+                int septet = this.encodeChar(data.charAt(i1));
+                if (septet > 0x7F) {
+                    res[pos++] = ESCAPE;
+                    septet &= 0x7F;
+                }
+                res[pos++] = (byte) septet;
+            }
+            return res;
+        }
+
+        // septets that are occupied by the leading buffer together with the fill bits
+        int leadingSeptetCnt = (leadingLen * 8 + 6) / 7;
+        int totalSeptetCnt = leadingSeptetCnt + septetCnt;
+        if (encodingData != null)
+            encodingData.totalSeptetCount = totalSeptetCnt;
+        boolean ussdStyle = encodingStyle == Gsm7EncodingStyle.bit7_ussd_style;
+        // USSD: adding extra <CR> if the last symbol is <CR> and no padding
+        boolean extraCr = ussdStyle && totalSeptetCnt % 8 == 0 && len > 0 && data.charAt(len - 1) == '\r';
+        byte[] res = new byte[(totalSeptetCnt * 7 + 7) / 8 + (extraCr ? 1 : 0)];
+        if (leadingLen > 0)
+            System.arraycopy(leadingBuffer, 0, res, 0, leadingLen);
+
+        int pos = leadingLen;
+        long acc = 0;
+        int accBits = leadingSeptetCnt * 7 - leadingLen * 8;
+        for (int i1 = 0; i1 < len; i1++) {
+            int septet = this.encodeChar(data.charAt(i1));
+            if (septet > 0x7F) {
+                acc |= (long) ESCAPE << accBits;
+                accBits += 7;
+                septet &= 0x7F;
+                if (accBits >= 56) {
+                    put7Octets(res, pos, acc);
+                    pos += 7;
+                    acc >>>= 56;
+                    accBits -= 56;
+                }
+            }
+            acc |= (long) septet << accBits;
+            accBits += 7;
+
+            // 8 septets are collected - writing 7 octets at once
+            if (accBits >= 56) {
+                put7Octets(res, pos, acc);
+                pos += 7;
+                acc >>>= 56;
+                accBits -= 56;
+            }
+        }
+
+        // USSD: replace 7-bit pad with <CR>
+        if (ussdStyle && totalSeptetCnt % 8 == 7)
+            acc |= 0x0DL << accBits;
+        while (accBits > 0) {
+            res[pos++] = (byte) acc;
+            acc >>>= 8;
+            accBits -= 8;
+        }
+        if (extraCr)
+            res[pos] = 0x0D;
+
+        return res;
+    }
+
+    private static void put7Octets(byte[] res, int pos, long acc) {
+        res[pos] = (byte) acc;
+        res[pos + 1] = (byte) (acc >>> 8);
+        res[pos + 2] = (byte) (acc >>> 16);
+        res[pos + 3] = (byte) (acc >>> 24);
+        res[pos + 4] = (byte) (acc >>> 32);
+        res[pos + 5] = (byte) (acc >>> 40);
+        res[pos + 6] = (byte) (acc >>> 48);
+    }
+
+    /**
+     * @return the septet of the char in the main table, (0x80 | septet) if the char is in the extension table (ESCAPE
+     *         must be encoded before it) or a space if the char can not be encoded
+     */
+    protected int encodeChar(char c) {
+        int septet = septetOf(this.mainLookup, c);
+        if (septet >= 0)
+            return septet;
+        if (this.extensionLookup != null) {
+            septet = septetOf(this.extensionLookup, c);
+            if (septet >= 0)
+                return 0x80 | septet;
+        }
+        // found no suitable symbol - encode a space char
+        return 0x20;
+    }
+
     /**
      * Slicing of a data String into substrings that fits to characters / septets count in charCount parameter.
      *
@@ -250,7 +416,9 @@ public class GSMCharset extends Charset {
      * @return
      */
     public String[] sliceString(String data, int charCount) {
-        return sliceString(data, charCount, this.mainTable, this.extensionTable);
+        if (data == null || this.mainLookup == null)
+            return null;
+        return sliceString(data, charCount, this.mainLookup, this.extensionLookup);
     }
 
     /**
@@ -266,50 +434,32 @@ public class GSMCharset extends Charset {
         if (mainTable == null)
             return null;
 
+        return sliceString(data, charCount, lookupFor(mainTable), extentionTable != null ? lookupFor(extentionTable) : null);
+    }
+
+    private static String[] sliceString(String data, int charCount, char[][] mainLookup, char[][] extentionLookup) {
         ArrayList<String> res = new ArrayList<String>();
         StringBuilder sb = new StringBuilder();
         int chCnt = 0;
         for (int i1 = 0; i1 < data.length(); i1++) {
             char c = data.charAt(i1);
 
-            boolean found = false;
-            for (int i = 0; i < mainTable.length; i++) {
-                if (mainTable[i] == c) {
-                    found = true;
-                    chCnt++;
-                    if (chCnt > charCount) {
-                        chCnt = 1;
-                        res.add(sb.toString());
-                        sb = new StringBuilder();
-                    }
-                    sb.append(c);
-                    break;
-                }
-            }
-            if (!found && extentionTable != null) {
-                for (int i = 0; i < extentionTable.length; i++) {
-                    if (extentionTable[i] == c) {
-                        found = true;
-                        chCnt += 2;
-                        if (chCnt > charCount) {
-                            chCnt = 2;
-                            res.add(sb.toString());
-                            sb = new StringBuilder();
-                        }
-                        sb.append(c);
-                        break;
-                    }
+            if (septetOf(mainLookup, c) < 0 && extentionLookup != null && septetOf(extentionLookup, c) >= 0) {
+                chCnt += 2;
+                if (chCnt > charCount) {
+                    chCnt = 2;
+                    res.add(sb.toString());
+                    sb = new StringBuilder();
                 }
-            }
-            if (!found) {
+            } else {
                 chCnt++;
                 if (chCnt > charCount) {
                     chCnt = 1;
                     res.add(sb.toString());
                     sb = new StringBuilder();
                 }
-                sb.append(c);
             }
+            sb.append(c);
         }
 
         res.add(sb.toString());
@@ -36,11 +36,10 @@ import java.nio.charset.CoderResult;
  */
 public class GSMCharsetDecoder extends CharsetDecoder {
 
-    private byte[] mask = new byte[] { 0x7F, 0x3F, 0x1F, 0x0F, 0x07, 0x03, 0x01 };
-
-    private int bitpos = 0;
+    // bits of read octets that are not decoded yet, the first bit is the lowest one
+    private int acc;
+    private int accBits;
     private int decodedBytes = 0;
-    private byte leftOver;
     private GSMCharset cs;
     private boolean escape;
     private GSMCharsetDecodingData encodingData;
@@ -64,9 +63,9 @@ public class GSMCharsetDecoder extends CharsetDecoder {
 
     @Override
     protected void implReset() {
-        bitpos = 0;
+        acc = 0;
+        accBits = 0;
         decodedBytes = 0;
-        leftOver = 0;
         escape = false;
     }
 
@@ -79,80 +78,62 @@ public class GSMCharsetDecoder extends CharsetDecoder {
     @Override
     protected CoderResult decodeLoop(ByteBuffer in, CharBuffer out) {
 
+        if (this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit8_smpp_style) {
+            while (in.hasRemaining()) {
+                if (!out.hasRemaining()) {
+                    return CoderResult.OVERFLOW;
+                }
+                putChar(in.get(), out);
+            }
+            return CoderResult.UNDERFLOW;
+        }
+
+        boolean ussdStyle = this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit7_ussd_style;
         while (in.hasRemaining()) {
 
-            // If CharBuffer doesnt have anything remaining, lets send OVERFLOW.
+            // If CharBuffer does not have enough space for septets of one more octet, lets send OVERFLOW.
             // But ideally this should never happen as size of out is calculated
             // using the available bytes in in parameter
-            if (!out.hasRemaining()) {
+            if (out.remaining() < 2) {
                 return CoderResult.OVERFLOW;
             }
 
-            // Read the first byte
-            byte data = in.get();
-
-            if (this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit8_smpp_style) {
-                putChar(data, out);
-            } else {
-                // take back-up of byte
-                byte tempData = data;
-
-                // System.out.println("data = "+ Integer.toBinaryString(data));
-
-                // the rest of bits that we don't need now but for next iteration
-                byte tempCurrHol = (byte) ((data & 0xFF) >>> (7 - bitpos));
-
-                // System.out.println("Current = "+
-                // Integer.toBinaryString(current));
-
-                // The bits that will be consumed for formation of current char
-                data = (byte) (data & mask[bitpos]);
-
-                if (bitpos != 0) {
-                    // we don't have enough bits to form char, we need to use the
-                    // bits
-                    // from previous iteration
+            if (accBits == 0 && in.remaining() >= 7 && out.remaining() >= 8) {
+                // 7 octets contain exactly 8 septets - unpacking them at once
+                long data = (in.get() & 0xFFL) | (in.get() & 0xFFL) << 8 | (in.get() & 0xFFL) << 16 | (in.get() & 0xFFL) << 24
+                        | (in.get() & 0xFFL) << 32 | (in.get() & 0xFFL) << 40 | (in.get() & 0xFFL) << 48;
+                for (int i1 = 0; i1 < 7; i1++) {
+                    putChar((int) (data >>> (i1 * 7)) & 0x7F, out);
+                }
+                int lastSeptet = (int) (data >>> 49);
+                if (ussdStyle && lastSeptet == '\r' && !in.hasRemaining()) {
+                    // case when found '\r' at the byte border if USSD style: skip final '\r' char
+                } else
+                    putChar(lastSeptet, out);
+                continue;
+            }
 
-                    // Move the curent bits read to left and append the previous
-                    // bits
-                    data = (byte) (data << bitpos);
-                    data = (byte) (data | leftOver);
+            // Read the next byte
+            acc |= (in.get() & 0xFF) << accBits;
+            accBits += 8;
 
-                    // We have 7 bits now to form char
-                    putChar(data, out);
+            while (accBits >= 7) {
+                int data = acc & 0x7F;
+                acc >>>= 7;
+                accBits -= 7;
 
-                    // This means we not only used previous 6 bits and 1 bit from
-                    // current byte to form char, but now we also have 7 bits left
-                    // over from current byte and hence we can get another char
-                    if (bitpos == 6) {
-                        data = (byte) (((tempData & 0xFE)) >>> 1);
-
-                        if (this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit7_ussd_style
-                                && data == '\r' && !in.hasRemaining()) {
-                            // case when found '\r' at the byte border if USSD style: skip final '\r' char
-                        } else
-                            putChar(data, out);
-                    }
-                } else {
-                    // For this iteration we have all 7 bits to form the char
-                    // from byte that we read
+                // accBits == 0 here means that 7 octets have been consumed and this is the 8th septet of them
+                if (ussdStyle && accBits == 0 && data == '\r' && !in.hasRemaining()) {
+                    // case when found '\r' at the byte border if USSD style: skip final '\r' char
+                } else
                     putChar(data, out);
-                }
-
-                // assign the left over bits
-                leftOver = tempCurrHol;
-
-                bitpos++;
-                if (bitpos == 7) {
-                    bitpos = 0;
-                }
             }
         }
 
         return CoderResult.UNDERFLOW;
     }
 
-    private void putChar(byte data, CharBuffer out) {
+    private void putChar(int data, CharBuffer out) {
 
         this.decodedBytes++;
         if (this.encodingData != null) {
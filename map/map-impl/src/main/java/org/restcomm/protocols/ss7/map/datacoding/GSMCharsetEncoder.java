@@ -27,7 +27,6 @@ import java.nio.CharBuffer;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.CoderResult;
-import java.util.BitSet;
 
 /**
  *
@@ -37,18 +36,12 @@ import java.util.BitSet;
  */
 public class GSMCharsetEncoder extends CharsetEncoder {
 
-    private int bitpos = 0;
-    private int carryOver;
+    // septets that are not written yet, the first septet is in the lowest bits
+    private long acc;
+    private int accBits;
     private GSMCharset cs;
     private GSMCharsetEncodingData encodingData;
 
-    // The mask to check if corresponding bit in read byte is 1 or 0 and hence
-    // store it i BitSet accordingly
-    byte[] mask = new byte[] { 0x01, 0x02, 0x04, 0x08, 0x10, 0x20, 0x40 };
-
-    // BitSet to hold the bits of passed char to be encoded
-    BitSet bitSet = new BitSet();
-
     static final byte ESCAPE = 0x1B;
 
     protected GSMCharsetEncoder(Charset cs, float averageBytesPerChar, float maxBytesPerChar) {
@@ -67,9 +60,8 @@ public class GSMCharsetEncoder extends CharsetEncoder {
 
     @Override
     protected void implReset() {
-        bitpos = 0;
-        carryOver = 0;
-        bitSet.clear();
+        acc = 0;
+        accBits = 0;
 
         if (encodingData != null) {
             encodingData.totalSeptetCount = 0;
@@ -89,21 +81,19 @@ public class GSMCharsetEncoder extends CharsetEncoder {
         return CoderResult.UNDERFLOW;
     }
 
-    byte rawData = 0;
-
     @Override
     protected CoderResult encodeLoop(CharBuffer in, ByteBuffer out) {
 
+        boolean smppStyle = this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit8_smpp_style;
         if (this.encodingData != null && this.encodingData.leadingBuffer != null && !this.encodingData.leadingBufferIsEncoded) {
             if (out.limit() - out.position() >= this.encodingData.leadingBuffer.length) {
-                if (this.encodingData.encodingStyle != Gsm7EncodingStyle.bit8_smpp_style) {
+                if (!smppStyle) {
                     int septetCount = (this.encodingData.leadingBuffer.length * 8 + 6) / 7;
-                    bitpos = septetCount % 8;
+                    // fill bits up to the septet boundary
+                    accBits = septetCount * 7 - this.encodingData.leadingBuffer.length * 8;
                     this.encodingData.totalSeptetCount = septetCount;
                 }
-                for (int ind = 0; ind < this.encodingData.leadingBuffer.length; ind++) {
-                    out.put(this.encodingData.leadingBuffer[ind]);
-                }
+                out.put(this.encodingData.leadingBuffer);
                 this.encodingData.leadingBufferIsEncoded = true;
             } else {
                 // not enough size in the target buffer - return CoderResult.OVERFLOW for out buffer encreasing
@@ -113,7 +103,9 @@ public class GSMCharsetEncoder extends CharsetEncoder {
 
         char lastChar = ' ';
         while (in.hasRemaining()) {
-            if (out.limit() - out.position() < 3) {
+            // up to 7 octets can be written for a char and up to 8 octets when the last char has been processed, we must not
+            // return OVERFLOW after the last char because encodeLoop() is not invoked again when the input is empty
+            if (out.limit() - out.position() < 15) {
                 // not enough size in the target buffer - return CoderResult.OVERFLOW for out buffer encreasing
                 return CoderResult.OVERFLOW;
             }
@@ -122,49 +114,32 @@ public class GSMCharsetEncoder extends CharsetEncoder {
             char c = in.get();
             lastChar = c;
 
-            boolean found = false;
-            // searching a char in the main character table
-            for (int i = 0; i < this.cs.mainTable.length; i++) {
-                if (this.cs.mainTable[i] == c) {
-                    found = true;
-                    this.putByte(i, out);
-                    break;
-                }
-            }
-
-            // searching a char in the extension character table
-            if (!found && this.cs.extensionTable != null) {
-                for (int i = 0; i < this.cs.mainTable.length; i++) {
-                    if (c != 0 && this.cs.extensionTable[i] == c) {
-                        found = true;
-                        this.putByte(GSMCharsetEncoder.ESCAPE, out);
-                        this.putByte(i, out);
-                        break;
-                    }
-                }
-            }
-
-            if (!found) {
-                // found no suitable symbol - encode a space char
-                this.putByte(0x20, out);
+            int septet = this.cs.encodeChar(c);
+            if (septet > 0x7F) {
+                // a char from the extension character table
+                this.putSeptet(GSMCharsetEncoder.ESCAPE, out, smppStyle);
+                septet &= 0x7F;
             }
+            this.putSeptet(septet, out, smppStyle);
         }
 
-        if (out.limit() - out.position() < 1) {
+        if (out.limit() - out.position() < (accBits + 7) / 8 + 1) {
             // not enough size in the target buffer - return CoderResult.OVERFLOW for out buffer encreasing
             return CoderResult.OVERFLOW;
         }
 
-        if (this.encodingData == null || this.encodingData.encodingStyle != Gsm7EncodingStyle.bit8_smpp_style) {
-            if (bitpos != 0) {
+        if (!smppStyle) {
+            if (accBits % 8 != 0) {
                 // USSD: replace 7-bit pad with <CR>
                 if (this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit7_ussd_style
-                        && bitpos == 7)
-                    carryOver |= 0x1A;
+                        && accBits % 8 == 1)
+                    acc |= 0x0DL << accBits;
 
-                // writing a carryOver data
-                out.put((byte) carryOver);
+                // writing the rest of data
+                this.writePendingSeptets(out);
             } else {
+                this.writePendingSeptets(out);
+
                 // USSD: adding extra <CR> if the last symbol is <CR> and no padding
                 if (this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit7_ussd_style
                         && lastChar == '\r')
@@ -175,26 +150,38 @@ public class GSMCharsetEncoder extends CharsetEncoder {
         return CoderResult.UNDERFLOW;
     }
 
-    private void putByte(int data, ByteBuffer out) {
-        if (this.encodingData != null && this.encodingData.encodingStyle == Gsm7EncodingStyle.bit8_smpp_style) {
+    private void putSeptet(int data, ByteBuffer out, boolean smppStyle) {
+        if (smppStyle) {
             out.put((byte) data);
         } else {
-
-            if (bitpos == 0) {
-                carryOver = data;
-            } else {
-                int i1 = data << (8 - bitpos);
-                out.put((byte) (i1 | carryOver));
-                carryOver = data >>> bitpos;
-            }
-
-            bitpos++;
-            if (bitpos == 8) {
-                bitpos = 0;
+            acc |= (long) data << accBits;
+            accBits += 7;
+
+            // 8 septets are collected - writing 7 octets at once
+            if (accBits >= 56) {
+                out.put((byte) acc);
+                out.put((byte) (acc >>> 8));
+                out.put((byte) (acc >>> 16));
+                out.put((byte) (acc >>> 24));
+                out.put((byte) (acc >>> 32));
+                out.put((byte) (acc >>> 40));
+                out.put((byte) (acc >>> 48));
+                acc >>>= 56;
+                accBits -= 56;
             }
 
             if (this.encodingData != null)
                 this.encodingData.totalSeptetCount++;
         }
     }
+
+    private void writePendingSeptets(ByteBuffer out) {
+        while (accBits > 0) {
+            out.put((byte) acc);
+            acc >>>= 8;
+            accBits -= 8;
+        }
+        acc = 0;
+        accBits = 0;
+    }
 }
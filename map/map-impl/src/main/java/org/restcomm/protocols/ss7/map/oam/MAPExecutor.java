@@ -0,0 +1,303 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.oam;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import javolution.util.FastMap;
+
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.map.AcnVersionCache;
+import org.restcomm.protocols.ss7.map.MAPProviderImpl;
+import org.restcomm.protocols.ss7.map.MAPStackConfigurationManagement;
+import org.restcomm.protocols.ss7.map.MAPStackImpl;
+import org.restcomm.ss7.management.console.ShellExecutor;
+
+/**
+ * Shell commands of the MAP layer:
+ *
+ * map set &lt;param-name&gt; &lt;value&gt;
+ *
+ * map get [&lt;param-name&gt;]
+ *
+ * map acncache show [stackname &lt;stack-name&gt;]
+ *
+ * map acncache clear [stackname &lt;stack-name&gt;]
+ *
+ */
+public class MAPExecutor implements ShellExecutor {
+
+    private static final Logger logger = Logger.getLogger(MAPExecutor.class);
+
+    private FastMap<String, MAPStackImpl> mapStacks = new FastMap<String, MAPStackImpl>();
+
+    private MAPStackImpl mapStack = null;
+
+    public Map<String, MAPStackImpl> getMapStacks() {
+        return mapStacks;
+    }
+
+    public void setMapStacks(Map<String, MAPStackImpl> mapStacksTemp) {
+        if (mapStacksTemp != null) {
+            synchronized (this) {
+                FastMap<String, MAPStackImpl> newMapStacks = new FastMap<String, MAPStackImpl>();
+                newMapStacks.putAll(mapStacksTemp);
+                this.mapStacks = newMapStacks;
+            }
+        }
+    }
+
+    private void setDefaultValue() {
+        if (this.mapStack == null) {
+            Map.Entry<String, MAPStackImpl> mapStacksTmp = this.mapStacks.entrySet().iterator().next();
+            this.mapStack = mapStacksTmp.getValue();
+        }
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.ss7.management.console.ShellExecutor#execute(java.lang.String[])
+     */
+    @Override
+    public String execute(String[] options) {
+
+        if (this.mapStacks == null || this.mapStacks.size() == 0) {
+            logger.warn("MAPStackImpl not set. Command will not be executed ");
+            return MAPOAMMessage.SERVER_ERROR;
+        }
+
+        // Atleast 1 option is passed?
+        if (options == null || options.length < 2) {
+            return MAPOAMMessage.INVALID_COMMAND;
+        }
+
+        String firstOption = options[1];
+
+        if (firstOption == null) {
+            return MAPOAMMessage.INVALID_COMMAND;
+        }
+
+        try {
+            if (firstOption.equals("set")) {
+                return this.manageSet(options);
+            } else if (firstOption.equals("get")) {
+                return this.manageGet(options);
+            } else if (firstOption.equals("acncache")) {
+                return this.manageAcnCache(options);
+            }
+        } catch (Throwable t) {
+            logger.error(String.format("Error while executing comand %s", Arrays.toString(options)), t);
+            return t.getMessage();
+        }
+
+        return MAPOAMMessage.INVALID_COMMAND;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.restcomm.ss7.management.console.ShellExecutor#handles(java.lang.String)
+     */
+    @Override
+    public boolean handles(String command) {
+        return command.startsWith("map");
+    }
+
+    /**
+     * Command is map set <param-name> <value>
+     *
+     * @param options
+     * @return
+     * @throws Exception
+     */
+    private String manageSet(String[] options) throws Exception {
+        if (options.length != 4) {
+            return MAPOAMMessage.INVALID_COMMAND;
+        }
+
+        MAPStackConfigurationManagement mapCfg = MAPStackConfigurationManagement.getInstance();
+        String parName = options[2].toLowerCase();
+
+        if (parName.equals("shorttimer")) {
+            mapCfg.setShortTimer(Integer.parseInt(options[3]));
+        } else if (parName.equals("mediumtimer")) {
+            mapCfg.setMediumTimer(Integer.parseInt(options[3]));
+        } else if (parName.equals("longtimer")) {
+            mapCfg.setLongTimer(Integer.parseInt(options[3]));
+        } else if (parName.equals("lazyparameterdecoding")) {
+            mapCfg.setLazyParameterDecoding(Boolean.parseBoolean(options[3]));
+        } else if (parName.equals("acnversioncacheenabled")) {
+            mapCfg.setAcnVersionCacheEnabled(Boolean.parseBoolean(options[3]));
+        } else if (parName.equals("acnversioncachettl")) {
+            mapCfg.setAcnVersionCacheTtl(Integer.parseInt(options[3]));
+        } else if (parName.equals("acnversioncachemaxsize")) {
+            mapCfg.setAcnVersionCacheMaxSize(Integer.parseInt(options[3]));
+        } else if (parName.equals("acnversioncachegtprefixlength")) {
+            mapCfg.setAcnVersionCacheGtPrefixLength(Integer.parseInt(options[3]));
+        } else {
+            return MAPOAMMessage.INVALID_COMMAND;
+        }
+
+        return MAPOAMMessage.PARAMETER_SUCCESSFULLY_SET;
+    }
+
+    /**
+     * Command is map get [<param-name>]
+     *
+     * @param options
+     * @return
+     * @throws Exception
+     */
+    private String manageGet(String[] options) throws Exception {
+        MAPStackConfigurationManagement mapCfg = MAPStackConfigurationManagement.getInstance();
+
+        if (options.length == 3) {
+            String parName = options[2].toLowerCase();
+            StringBuilder sb = new StringBuilder();
+            sb.append(options[2]);
+            sb.append(" = ");
+            if (parName.equals("shorttimer")) {
+                sb.append(mapCfg.getShortTimer());
+            } else if (parName.equals("mediumtimer")) {
+                sb.append(mapCfg.getMediumTimer());
+            } else if (parName.equals("longtimer")) {
+                sb.append(mapCfg.getLongTimer());
+            } else if (parName.equals("lazyparameterdecoding")) {
+                sb.append(mapCfg.isLazyParameterDecoding());
+            } else if (parName.equals("acnversioncacheenabled")) {
+                sb.append(mapCfg.isAcnVersionCacheEnabled());
+            } else if (parName.equals("acnversioncachettl")) {
+                sb.append(mapCfg.getAcnVersionCacheTtl());
+            } else if (parName.equals("acnversioncachemaxsize")) {
+                sb.append(mapCfg.getAcnVersionCacheMaxSize());
+            } else if (parName.equals("acnversioncachegtprefixlength")) {
+                sb.append(mapCfg.getAcnVersionCacheGtPrefixLength());
+            } else {
+                return MAPOAMMessage.INVALID_COMMAND;
+            }
+            return sb.toString();
+        } else if (options.length == 2) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("shorttimer = ");
+            sb.append(mapCfg.getShortTimer());
+            sb.append("\n");
+
+            sb.append("mediumtimer = ");
+            sb.append(mapCfg.getMediumTimer());
+            sb.append("\n");
+
+            sb.append("longtimer = ");
+            sb.append(mapCfg.getLongTimer());
+            sb.append("\n");
+
+            sb.append("lazyparameterdecoding = ");
+            sb.append(mapCfg.isLazyParameterDecoding());
+            sb.append("\n");
+
+            sb.append("acnversioncacheenabled = ");
+            sb.append(mapCfg.isAcnVersionCacheEnabled());
+            sb.append("\n");
+
+            sb.append("acnversioncachettl = ");
+            sb.append(mapCfg.getAcnVersionCacheTtl());
+            sb.append("\n");
+
+            sb.append("acnversioncachemaxsize = ");
+            sb.append(mapCfg.getAcnVersionCacheMaxSize());
+            sb.append("\n");
+
+            sb.append("acnversioncachegtprefixlength = ");
+            sb.append(mapCfg.getAcnVersionCacheGtPrefixLength());
+            sb.append("\n");
+
+            return sb.toString();
+        } else {
+            return MAPOAMMessage.INVALID_COMMAND;
+        }
+    }
+
+    /**
+     * Command is map acncache <show | clear> stackname <stack-name>
+     *
+     * @param options
+     * @return
+     * @throws Exception
+     */
+    private String manageAcnCache(String[] options) throws Exception {
+        if (options.length < 3) {
+            return MAPOAMMessage.INVALID_COMMAND;
+        }
+
+        int count = 3;
+        while (count < options.length) {
+            String key = options[count++];
+            if (key.equals("stackname") && count < options.length) {
+                String mapStackName = options[count++];
+                MAPStackImpl mapStackImpl = this.mapStacks.get(mapStackName);
+                if (mapStackImpl == null) {
+                    return String.format(MAPOAMMessage.NO_MAP_STACK_CONFIGURED, mapStackName);
+                }
+                this.mapStack = mapStackImpl;
+            } else {
+                return MAPOAMMessage.INVALID_COMMAND;
+            }
+        }
+
+        this.setDefaultValue();
+        AcnVersionCache cache = ((MAPProviderImpl) this.mapStack.getMAPProvider()).getAcnVersionCache();
+
+        String command = options[2].toLowerCase();
+        if (command.equals("clear")) {
+            cache.clear();
+            return String.format(MAPOAMMessage.ACN_VERSION_CACHE_CLEARED, this.mapStack.getName());
+        } else if (command.equals("show")) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Application context version cache for ");
+            sb.append(this.mapStack.getName());
+            sb.append("\n");
+            sb.append("*******************\n");
+            sb.append("size = ");
+            sb.append(cache.size());
+            sb.append("\nlookups = ");
+            sb.append(cache.getLookupCount());
+            sb.append("\ndowngrades = ");
+            sb.append(cache.getDowngradeCount());
+            sb.append("\nlearned = ");
+            sb.append(cache.getLearnedCount());
+            sb.append("\nevicted = ");
+            sb.append(cache.getEvictedCount());
+            sb.append("\n");
+            for (String entry : cache.getEntries()) {
+                sb.append(entry);
+                sb.append("\n");
+            }
+            sb.append("*******************");
+            return sb.toString();
+        } else {
+            return MAPOAMMessage.INVALID_COMMAND;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.oam;
+
+/**
+ * Shell messages of the MAP layer
+ *
+ */
+public interface MAPOAMMessage {
+
+    String INVALID_COMMAND = "Invalid Command";
+
+    String SERVER_ERROR = "Server Error";
+
+    String PARAMETER_SUCCESSFULLY_SET = "Parameter has been successfully set";
+
+    String NO_MAP_STACK_CONFIGURED = "No MAP stack configured for name %s";
+
+    String ACN_VERSION_CACHE_CLEARED = "Application context version cache has been cleared for stack=%s";
+}
@@ -37,6 +37,7 @@ import org.restcomm.protocols.ss7.map.api.MAPParsingComponentExceptionReason;
 import org.restcomm.protocols.ss7.map.api.primitives.AddressNature;
 import org.restcomm.protocols.ss7.map.api.primitives.AddressString;
 import org.restcomm.protocols.ss7.map.api.primitives.NumberingPlan;
+import org.restcomm.protocols.ss7.utils.DigitString;
 
 /**
  *
@@ -59,6 +60,8 @@ public class AddressStringImpl implements AddressString, MAPAsnPrimitive {
     protected AddressNature addressNature;
     protected NumberingPlan numberingPlan;
     protected String address;
+    // a decoded address keeps its digits packed, address is filled at the first getAddress() invoking
+    protected DigitString digits;
 
     private boolean isExtension;
 
@@ -81,7 +84,28 @@ public class AddressStringImpl implements AddressString, MAPAsnPrimitive {
     }
 
     public String getAddress() {
-        return this.address;
+        String res = this.address;
+        if (res == null && this.digits != null) {
+            res = this.digits.toString();
+            this.address = res;
+        }
+        return res;
+    }
+
+    /**
+     * @return the packed digits if the address has been decoded, null otherwise
+     */
+    public DigitString getDigitString() {
+        return this.digits;
+    }
+
+    /**
+     * @return the count of address digits or -1 if the address is not defined
+     */
+    protected int getAddressLength() {
+        if (this.digits != null)
+            return this.digits.length();
+        return this.address == null ? -1 : this.address.length();
     }
 
     public AddressNature getAddressNature() {
@@ -157,7 +181,8 @@ public class AddressStringImpl implements AddressString, MAPAsnPrimitive {
 
         this.numberingPlan = NumberingPlan.getInstance(numbPlanInd);
 
-        this.address = TbcdString.decodeString(ansIS, length - 1);
+        this.digits = TbcdString.decodeDigitString(ansIS, length - 1);
+        this.address = null;
     }
 
     public void encodeAll(AsnOutputStream asnOs) throws MAPException {
@@ -179,13 +204,14 @@ public class AddressStringImpl implements AddressString, MAPAsnPrimitive {
 
     protected void _testLengthEncode() throws MAPException {
 
-        if (this.address.length() > 38)
+        if (this.getAddressLength() > 38)
             throw new MAPException("Error when encoding AddressString: address length must not exceed 38 digits");
     }
 
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
-        if (this.addressNature == null || this.numberingPlan == null || this.address == null)
+        if (this.addressNature == null || this.numberingPlan == null
+                || (this.address == null && this.digits == null))
             throw new MAPException("Error when encoding AddressString: addressNature, numberingPlan or address is empty");
 
         this._testLengthEncode();
@@ -204,20 +230,32 @@ public class AddressStringImpl implements AddressString, MAPAsnPrimitive {
 
         asnOs.write(nature);
 
-        TbcdString.encodeString(asnOs, this.address);
+        if (this.digits != null) {
+            try {
+                this.digits.writeTo(asnOs);
+            } catch (IOException e) {
+                throw new MAPException("Error when encoding AddressString: " + e.getMessage(), e);
+            }
+        } else {
+            TbcdString.encodeString(asnOs, this.address);
+        }
     }
 
     @Override
     public String toString() {
         return "AddressString[AddressNature=" + this.addressNature.toString() + ", NumberingPlan="
-                + this.numberingPlan.toString() + ", Address=" + this.address + "]";
+                + this.numberingPlan.toString() + ", Address=" + this.getAddress() + "]";
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((address == null) ? 0 : address.hashCode());
+        // DigitString.hashCode() is equal to the hash code of its String
+        if (digits != null)
+            result = prime * result + digits.hashCode();
+        else
+            result = prime * result + ((address == null) ? 0 : address.hashCode());
         result = prime * result + ((addressNature == null) ? 0 : addressNature.hashCode());
         result = prime * result + ((numberingPlan == null) ? 0 : numberingPlan.hashCode());
         return result;
@@ -232,11 +270,18 @@ public class AddressStringImpl implements AddressString, MAPAsnPrimitive {
         if (getClass() != obj.getClass())
             return false;
         AddressStringImpl other = (AddressStringImpl) obj;
-        if (address == null) {
-            if (other.address != null)
+        if (digits != null && other.digits != null) {
+            if (!digits.equals(other.digits))
                 return false;
-        } else if (!address.equals(other.address))
-            return false;
+        } else {
+            String address = this.getAddress();
+            String otherAddress = other.getAddress();
+            if (address == null) {
+                if (otherAddress != null)
+                    return false;
+            } else if (!address.equals(otherAddress))
+                return false;
+        }
         if (addressNature != other.addressNature)
             return false;
         if (numberingPlan != other.numberingPlan)
@@ -269,7 +314,7 @@ public class AddressStringImpl implements AddressString, MAPAsnPrimitive {
         public void write(AddressStringImpl addressStringImpl, javolution.xml.XMLFormat.OutputElement xml)
                 throws XMLStreamException {
 
-            xml.setAttribute(NUMBER, addressStringImpl.address);
+            xml.setAttribute(NUMBER, addressStringImpl.getAddress());
             xml.setAttribute(NAI, addressStringImpl.addressNature.toString());
             xml.setAttribute(NPI, addressStringImpl.numberingPlan.toString());
         }
@@ -53,14 +53,14 @@ public class FTNAddressStringImpl extends AddressStringImpl implements FTNAddres
     @Override
     protected void _testLengthEncode() throws MAPException {
 
-        if (this.address == null && this.address.length() > 28)
+        if (this.getAddressLength() > 28)
             throw new MAPException("Error when encoding FTNAddressString: address length must not exceed 28 digits");
     }
 
     @Override
     public String toString() {
         return "FTNAddressString[AddressNature=" + this.addressNature.toString() + ", NumberingPlan="
-                + this.numberingPlan.toString() + ", Address=" + this.address + "]";
+                + this.numberingPlan.toString() + ", Address=" + this.getAddress() + "]";
     }
 
 }
@@ -51,12 +51,12 @@ public class IMEIImpl extends TbcdString implements IMEI {
     }
 
     public String getIMEI() {
-        return this.data;
+        return this.getDataString();
     }
 
     @Override
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
-        if (this.data == null)
+        if (this.data == null && this.digits == null)
             throw new MAPException("Error while encoding the IMEI: IMEI must not be null");
 
         super.encodeData(asnOs);
@@ -75,7 +75,7 @@ public class IMEIImpl extends TbcdString implements IMEI {
         @Override
         public void write(IMEIImpl imei, javolution.xml.XMLFormat.OutputElement xml) throws XMLStreamException {
 
-            xml.setAttribute(DATA, imei.data);
+            xml.setAttribute(DATA, imei.getIMEI());
         }
     };
 }
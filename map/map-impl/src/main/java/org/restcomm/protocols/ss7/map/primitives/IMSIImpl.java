@@ -45,7 +45,7 @@ public class IMSIImpl extends TbcdString implements IMSI {
     }
 
     public String getData() {
-        return this.data;
+        return this.getDataString();
     }
 
     /**
@@ -60,7 +60,7 @@ public class IMSIImpl extends TbcdString implements IMSI {
 
         @Override
         public void write(IMSIImpl imsi, javolution.xml.XMLFormat.OutputElement xml) throws XMLStreamException {
-            xml.setAttribute(NUMBER, imsi.data);
+            xml.setAttribute(NUMBER, imsi.getData());
         }
     };
 }
@@ -60,14 +60,14 @@ public class ISDNAddressStringImpl extends AddressStringImpl implements ISDNAddr
     @Override
     protected void _testLengthEncode() throws MAPException {
 
-        if (this.address == null && this.address.length() > 16)
+        if (this.getAddressLength() > 16)
             throw new MAPException("Error when encoding ISDNAddressString: address length must not exceed 16 digits");
     }
 
     @Override
     public String toString() {
         return "ISDNAddressString[AddressNature=" + this.addressNature + ", NumberingPlan=" + this.numberingPlan + ", Address="
-                + this.address + "]";
+                + this.getAddress() + "]";
     }
 
     /**
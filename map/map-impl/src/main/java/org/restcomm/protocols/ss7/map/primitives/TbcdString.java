@@ -33,6 +33,7 @@ import org.mobicents.protocols.asn.Tag;
 import org.restcomm.protocols.ss7.map.api.MAPException;
 import org.restcomm.protocols.ss7.map.api.MAPParsingComponentException;
 import org.restcomm.protocols.ss7.map.api.MAPParsingComponentExceptionReason;
+import org.restcomm.protocols.ss7.utils.DigitString;
 
 /**
  *
@@ -46,6 +47,8 @@ public abstract class TbcdString implements MAPAsnPrimitive {
     protected static int DIGIT_2_MASK = 0xF0;
 
     protected String data;
+    // a decoded string keeps its digits packed, data is filled at the first getDataString() invoking
+    protected DigitString digits;
 
     protected int minLength;
     protected int maxLength;
@@ -109,7 +112,8 @@ public abstract class TbcdString implements MAPAsnPrimitive {
                     MAPParsingComponentExceptionReason.MistypedParameter);
 
         try {
-            this.data = decodeString(ansIS, length);
+            this.digits = decodeDigitString(ansIS, length);
+            this.data = null;
         } catch (IOException e) {
             throw new MAPParsingComponentException("IOException when decoding " + _PrimitiveName + ": " + e.getMessage(), e,
                     MAPParsingComponentExceptionReason.MistypedParameter);
@@ -135,12 +139,45 @@ public abstract class TbcdString implements MAPAsnPrimitive {
 
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
+        if (this.digits != null) {
+            try {
+                this.digits.writeTo(asnOs);
+            } catch (IOException e) {
+                throw new MAPException("Error when encoding TbcdString: " + e.getMessage(), e);
+            }
+            return;
+        }
         if (this.data == null)
             throw new MAPException("Error while encoding the " + _PrimitiveName + ": data is not defined");
 
         encodeString(asnOs, this.data);
     }
 
+    protected String getDataString() {
+        String res = this.data;
+        if (res == null && this.digits != null) {
+            res = this.digits.toString();
+            this.data = res;
+        }
+        return res;
+    }
+
+    /**
+     * @return the packed digits if the string has been decoded, null otherwise
+     */
+    public DigitString getDigitString() {
+        return this.digits;
+    }
+
+    /**
+     * @return the count of digits or -1 if data is not defined
+     */
+    protected int getDataLength() {
+        if (this.digits != null)
+            return this.digits.length();
+        return this.data == null ? -1 : this.data.length();
+    }
+
     public static String decodeString(InputStream ansIS, int length) throws IOException, MAPParsingComponentException {
         StringBuilder s = new StringBuilder();
         for (int i1 = 0; i1 < length; i1++) {
@@ -164,6 +201,17 @@ public abstract class TbcdString implements MAPAsnPrimitive {
         return s.toString();
     }
 
+    /**
+     * Reads length octets and keeps them as packed digits, fillers are skipped like decodeString() does
+     */
+    public static DigitString decodeDigitString(InputStream ansIS, int length) throws IOException {
+        byte[] buf = new byte[length];
+        for (int i1 = 0; i1 < length; i1++) {
+            buf[i1] = (byte) ansIS.read();
+        }
+        return DigitString.decodeTbcd(buf, 0, length);
+    }
+
     public static void encodeString(OutputStream asnOs, String data) throws MAPException {
         char[] chars = data.toCharArray();
         for (int i = 0; i < chars.length; i = i + 2) {
@@ -276,14 +324,18 @@ public abstract class TbcdString implements MAPAsnPrimitive {
 
     @Override
     public String toString() {
-        return _PrimitiveName + " [" + this.data + "]";
+        return _PrimitiveName + " [" + this.getDataString() + "]";
     }
 
     @Override
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((data == null) ? 0 : data.hashCode());
+        // DigitString.hashCode() is equal to the hash code of its String
+        if (digits != null)
+            result = prime * result + digits.hashCode();
+        else
+            result = prime * result + ((data == null) ? 0 : data.hashCode());
         return result;
     }
 
@@ -296,10 +348,14 @@ public abstract class TbcdString implements MAPAsnPrimitive {
         if (getClass() != obj.getClass())
             return false;
         TbcdString other = (TbcdString) obj;
+        if (digits != null && other.digits != null)
+            return digits.equals(other.digits);
+        String data = this.getDataString();
+        String otherData = other.getDataString();
         if (data == null) {
-            if (other.data != null)
+            if (otherData != null)
                 return false;
-        } else if (!data.equals(other.data))
+        } else if (!data.equals(otherData))
             return false;
         return true;
     }
@@ -46,16 +46,13 @@ public class TbcdStringWithFiller extends TbcdString {
 
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
-        if (this.data == null)
-            throw new MAPException("Error while encoding the " + _PrimitiveName + ": data is not defined");
-
-        encodeString(asnOs, this.data);
+        super.encodeData(asnOs);
         this.encodeFiller(asnOs);
     }
 
     public void encodeFiller(OutputStream asnOs) throws MAPException {
 
-        for (int i = data.length() + 1; i < this.maxLength * 2; i = i + 2) {
+        for (int i = this.getDataLength() + 1; i < this.maxLength * 2; i = i + 2) {
             try {
                 asnOs.write(DIGIT_MASK);
             } catch (IOException e) {
@@ -24,7 +24,7 @@ public class RouteingNumberImpl extends TbcdString implements RouteingNumber {
     }
 
     public String getRouteingNumber() {
-        return data;
+        return this.getDataString();
     }
 
     /**
@@ -39,7 +39,7 @@ public class RouteingNumberImpl extends TbcdString implements RouteingNumber {
 
         @Override
         public void write(RouteingNumberImpl routeingNumber, javolution.xml.XMLFormat.OutputElement xml) throws XMLStreamException {
-            xml.setAttribute(NUMBER, routeingNumber.data);
+            xml.setAttribute(NUMBER, routeingNumber.getRouteingNumber());
         }
     };
 }
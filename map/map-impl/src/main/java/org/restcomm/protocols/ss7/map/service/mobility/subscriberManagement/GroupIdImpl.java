@@ -41,7 +41,7 @@ public class GroupIdImpl extends TbcdStringWithFiller implements GroupId {
 
     @Override
     public String getGroupId() {
-        return this.data;
+        return this.getDataString();
     }
 
 }
@@ -29,6 +29,7 @@ import org.mobicents.protocols.asn.AsnException;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.restcomm.protocols.ss7.map.LazyParameter;
 import org.restcomm.protocols.ss7.map.api.MAPException;
 import org.restcomm.protocols.ss7.map.api.MAPMessageType;
 import org.restcomm.protocols.ss7.map.api.MAPOperationCode;
@@ -269,191 +270,229 @@ public class InsertSubscriberDataRequestImpl extends MobilityMessageImpl impleme
 
     @Override
     public IMSI getImsi() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_imsi);
         return this.imsi;
     }
 
     @Override
     public ISDNAddressString getMsisdn() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_msisdn);
         return this.msisdn;
     }
 
     @Override
     public Category getCategory() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_category);
         return this.category;
     }
 
     @Override
     public SubscriberStatus getSubscriberStatus() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_subscriberStatus);
         return this.subscriberStatus;
     }
 
     @Override
     public ArrayList<ExtBearerServiceCode> getBearerServiceList() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_bearerServiceList);
         return this.bearerServiceList;
     }
 
     @Override
     public ArrayList<ExtTeleserviceCode> getTeleserviceList() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_teleserviceList);
         return this.teleserviceList;
     }
 
     @Override
     public ArrayList<ExtSSInfo> getProvisionedSS() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_provisionedSS);
         return this.provisionedSS;
     }
 
     @Override
     public ODBData getODBData() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_odb_Data);
         return this.odbData;
     }
 
     @Override
     public boolean getRoamingRestrictionDueToUnsupportedFeature() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_roamingRestrictionDueToUnsupportedFeature);
         return this.roamingRestrictionDueToUnsupportedFeature;
     }
 
     @Override
     public ArrayList<ZoneCode> getRegionalSubscriptionData() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_regionalSubscriptionData);
         return this.regionalSubscriptionData;
     }
 
     @Override
     public ArrayList<VoiceBroadcastData> getVbsSubscriptionData() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_vbsSubscriptionData);
         return this.vbsSubscriptionData;
     }
 
     @Override
     public ArrayList<VoiceGroupCallData> getVgcsSubscriptionData() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_vgcsSubscriptionData);
         return this.vgcsSubscriptionData;
     }
 
     @Override
     public VlrCamelSubscriptionInfo getVlrCamelSubscriptionInfo() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_vlrCamelSubscriptionInfo);
         return this.vlrCamelSubscriptionInfo;
     }
 
     @Override
     public MAPExtensionContainer getExtensionContainer() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_extContainer);
         return this.extensionContainer;
     }
 
     @Override
     public NAEAPreferredCI getNAEAPreferredCI() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_naea_PreferredCI);
         return this.naeaPreferredCI;
     }
 
     @Override
     public GPRSSubscriptionData getGPRSSubscriptionData() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_gprsSubscriptionData);
         return this.gprsSubscriptionData;
     }
 
     @Override
     public boolean getRoamingRestrictedInSgsnDueToUnsupportedFeature() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_roamingRestrictedInSgsnDueToUnsupportedFeature);
         return this.roamingRestrictedInSgsnDueToUnsupportedFeature;
     }
 
     @Override
     public NetworkAccessMode getNetworkAccessMode() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_networkAccessMode);
         return this.networkAccessMode;
     }
 
     @Override
     public LSAInformation getLSAInformation() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_lsaInformation);
         return this.lsaInformation;
     }
 
     @Override
     public boolean getLmuIndicator() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_lmu_Indicator);
         return this.lmuIndicator;
     }
 
     @Override
     public LCSInformation getLCSInformation() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_lcsInformation);
         return this.lcsInformation;
     }
 
     @Override
     public Integer getIstAlertTimer() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_istAlertTimer);
         return this.istAlertTimer;
     }
 
     @Override
     public AgeIndicator getSuperChargerSupportedInHLR() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_superChargerSupportedInHLR);
         return this.superChargerSupportedInHLR;
     }
 
     @Override
     public MCSSInfo getMcSsInfo() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_mc_SS_Info);
         return this.mcSsInfo;
     }
 
     @Override
     public CSAllocationRetentionPriority getCSAllocationRetentionPriority() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_cs_AllocationRetentionPriority);
         return this.csAllocationRetentionPriority;
     }
 
     @Override
     public SGSNCAMELSubscriptionInfo getSgsnCamelSubscriptionInfo() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_sgsn_CAMEL_SubscriptionInfo);
         return this.sgsnCamelSubscriptionInfo;
     }
 
     @Override
     public ChargingCharacteristics getChargingCharacteristics() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_chargingCharacteristics);
         return this.chargingCharacteristics;
     }
 
     @Override
     public AccessRestrictionData getAccessRestrictionData() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_accessRestrictionData);
         return this.accessRestrictionData;
     }
 
     @Override
     public Boolean getIcsIndicator() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_ics_Indicator);
         return this.icsIndicator;
     }
 
     @Override
     public EPSSubscriptionData getEpsSubscriptionData() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_eps_SubscriptionData);
         return this.epsSubscriptionData;
     }
 
     @Override
     public ArrayList<CSGSubscriptionData> getCsgSubscriptionDataList() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_csg_SubscriptionDataList);
         return this.csgSubscriptionDataList;
     }
 
     @Override
     public boolean getUeReachabilityRequestIndicator() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_ue_ReachabilityRequestIndicator);
         return this.ueReachabilityRequestIndicator;
     }
 
     @Override
     public ISDNAddressString getSgsnNumber() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_sgsn_Number);
         return this.sgsnNumber;
     }
 
     @Override
     public DiameterIdentity getMmeName() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_mme_Name);
         return this.mmeName;
     }
 
     @Override
     public Long getSubscribedPeriodicRAUTAUtimer() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_subscribedPeriodicRAUTAUtimer);
         return this.subscribedPeriodicRAUTAUtimer;
     }
 
     @Override
     public boolean getVplmnLIPAAllowed() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_vplmnLIPAAllowed);
         return this.vplmnLIPAAllowed;
     }
 
     @Override
     public Boolean getMdtUserConsent() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_mdtUserConsent);
         return this.mdtUserConsent;
     }
 
     @Override
     public Long getSubscribedPeriodicLAUtimer() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_subscribedPeriodicLAUtimer);
         return this.subscribedPeriodicLAUtimer;
     }
 
@@ -499,9 +538,6 @@ public class InsertSubscriberDataRequestImpl extends MobilityMessageImpl impleme
     }
 
     private void _decode(AsnInputStream ansIS, int length) throws MAPParsingComponentException, IOException, AsnException {
-        ExtBearerServiceCode bearerItem = null;
-        ExtTeleserviceCode teleserviceItem = null;
-        ExtSSInfo serviceItem = null;
         this.imsi = null;
         this.msisdn = null;
         this.category = null;
@@ -551,482 +587,502 @@ public class InsertSubscriberDataRequestImpl extends MobilityMessageImpl impleme
 
             int tag = ais.readTag();
 
-            switch (ais.getTagClass()) {
-                case Tag.CLASS_CONTEXT_SPECIFIC:
-                    switch (tag) {
-                        case _TAG_imsi:
-                            if (!ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".imsi: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.imsi = new IMSIImpl();
-                            ((IMSIImpl) this.imsi).decodeAll(ais);
-                            break;
-                        case _TAG_msisdn:
-                            if (!ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".msisdn: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.msisdn = new ISDNAddressStringImpl();
-                            ((ISDNAddressStringImpl) this.msisdn).decodeAll(ais);
-                            break;
-                        case _TAG_category:
-                            if (!ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".category: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.category = new CategoryImpl();
-                            ((CategoryImpl) this.category).decodeAll(ais);
-                            break;
-                        case _TAG_subscriberStatus:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".subscriberStatus: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.subscriberStatus = SubscriberStatus.getInstance((int) ais.readInteger());
-                            break;
-                        case _TAG_bearerServiceList:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".bearerServiceList: Parameter is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-
-                            AsnInputStream ais2 = ais.readSequenceStream();
-                            this.bearerServiceList = new ArrayList<ExtBearerServiceCode>();
-                            while (true) {
-                                if (ais2.available() == 0)
-                                    break;
-
-                                int tag2 = ais2.readTag();
-                                if (tag2 != Tag.STRING_OCTET || ais2.getTagClass() != Tag.CLASS_UNIVERSAL
-                                        || !ais2.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ": bad bearerServiceCode element tag or tagClass or is not primitive ",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-
-                                bearerItem = new ExtBearerServiceCodeImpl();
-                                ((ExtBearerServiceCodeImpl) bearerItem).decodeAll(ais2);
-                                this.bearerServiceList.add(bearerItem);
-                            }
-                            if (this.bearerServiceList.size() < 1 || this.bearerServiceList.size() > 50) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter bearerServiceList size must be from 1 to 50, found: "
-                                        + this.bearerServiceList.size(), MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_teleserviceList:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".teleserviceList: Parameter is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-
-                            AsnInputStream ais3 = ais.readSequenceStream();
-                            this.teleserviceList = new ArrayList<ExtTeleserviceCode>();
-                            while (true) {
-                                if (ais3.available() == 0)
-                                    break;
-
-                                int tag3 = ais3.readTag();
-                                if (tag3 != Tag.STRING_OCTET || ais3.getTagClass() != Tag.CLASS_UNIVERSAL
-                                        || !ais3.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ": bad teleserviceCode tag or tagClass or is not primitive ",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-
-                                teleserviceItem = new ExtTeleserviceCodeImpl();
-                                ((ExtTeleserviceCodeImpl) teleserviceItem).decodeAll(ais3);
-                                this.teleserviceList.add(teleserviceItem);
-                            }
-                            if (this.teleserviceList.size() < 1 || this.teleserviceList.size() > 20) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter teleserviceList size must be from 1 to 20, found: "
-                                        + this.teleserviceList.size(), MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_provisionedSS:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".provisionedSS: Parameter is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-
-                            AsnInputStream ais4 = ais.readSequenceStream();
-                            this.provisionedSS = new ArrayList<ExtSSInfo>();
-                            while (true) {
-                                if (ais4.available() == 0)
-                                    break;
-
-                                ais4.readTag();
-
-                                serviceItem = new ExtSSInfoImpl();
-                                ((ExtSSInfoImpl) serviceItem).decodeAll(ais4);
-                                this.provisionedSS.add(serviceItem);
-                            }
-                            if (this.provisionedSS.size() < 1 || this.provisionedSS.size() > 30) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter provisionedSS size must be from 1 to 30, found: "
-                                        + this.provisionedSS.size(), MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_odb_Data:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".odbData: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.odbData = new ODBDataImpl();
-                            ((ODBDataImpl) this.odbData).decodeAll(ais);
-                            break;
-                        case _TAG_roamingRestrictionDueToUnsupportedFeature:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".roamingRestrictionDueToUnsupportedFeature: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.roamingRestrictionDueToUnsupportedFeature = true;
-                            break;
-                        case _TAG_regionalSubscriptionData:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".regionalSubscriptionData: Parameter is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
+            this.decodeElement(ais, tag, num);
 
-                            ais4 = ais.readSequenceStream();
-                            this.regionalSubscriptionData = new ArrayList<ZoneCode>();
-                            while (true) {
-                                if (ais4.available() == 0)
-                                    break;
-
-                                int tag4 = ais4.readTag();
-                                if (tag4 != Tag.STRING_OCTET || ais4.getTagClass() != Tag.CLASS_UNIVERSAL
-                                        || !ais4.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ": bad regionalSubscriptionData tag or tagClass or is not primitive ",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-
-                                ZoneCode zoneCode = new ZoneCodeImpl();
-                                ((ZoneCodeImpl) zoneCode).decodeAll(ais4);
-                                this.regionalSubscriptionData.add(zoneCode);
-                            }
-                            if (this.regionalSubscriptionData.size() < 1 || this.regionalSubscriptionData.size() > 10) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter regionalSubscriptionData size must be from 1 to 10, found: "
-                                        + this.regionalSubscriptionData.size(),
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_vbsSubscriptionData:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".vbsSubscriptionData: Parameter is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-
-                            ais4 = ais.readSequenceStream();
-                            this.vbsSubscriptionData = new ArrayList<VoiceBroadcastData>();
-                            while (true) {
-                                if (ais4.available() == 0)
-                                    break;
-
-                                int tag4 = ais4.readTag();
-                                if (tag4 != Tag.SEQUENCE || ais4.getTagClass() != Tag.CLASS_UNIVERSAL || ais4.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ": bad vbsSubscriptionData element tag or tagClass or is primitive ",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                VoiceBroadcastData voiceBroadcastData = new VoiceBroadcastDataImpl();
-                                ((VoiceBroadcastDataImpl) voiceBroadcastData).decodeAll(ais4);
-                                this.vbsSubscriptionData.add(voiceBroadcastData);
-                            }
-                            if (this.vbsSubscriptionData.size() < 1 || this.vbsSubscriptionData.size() > 50) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter vbsSubscriptionData size must be from 1 to 50, found: "
-                                        + this.vbsSubscriptionData.size(), MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_vgcsSubscriptionData:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".vgcsSubscriptionData: Parameter is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
+            num++;
+        }
 
-                            ais4 = ais.readSequenceStream();
-                            this.vgcsSubscriptionData = new ArrayList<VoiceGroupCallData>();
-                            while (true) {
-                                if (ais4.available() == 0)
-                                    break;
-
-                                int tag4 = ais4.readTag();
-                                if (tag4 != Tag.SEQUENCE || ais4.getTagClass() != Tag.CLASS_UNIVERSAL || ais4.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ": bad vgcsSubscriptionData element tag or tagClass or is primitive ",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-
-                                VoiceGroupCallData voiceGroupCallData = new VoiceGroupCallDataImpl();
-                                ((VoiceGroupCallDataImpl) voiceGroupCallData).decodeAll(ais4);
-                                vgcsSubscriptionData.add(voiceGroupCallData);
-                            }
-                            if (this.vgcsSubscriptionData.size() < 1 || this.vgcsSubscriptionData.size() > 50) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter vgcsSubscriptionData size must be from 1 to 50, found: "
-                                        + this.vgcsSubscriptionData.size(),
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_vlrCamelSubscriptionInfo:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".vlrCamelSubscriptionInfo: Parameter vlrCamelSubscriptionInfo is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
+        if (num == 0)
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Needs at least 1 parameter, found " + num, MAPParsingComponentExceptionReason.MistypedParameter);
+    }
 
-                            this.vlrCamelSubscriptionInfo = new VlrCamelSubscriptionInfoImpl();
-                            ((VlrCamelSubscriptionInfoImpl) this.vlrCamelSubscriptionInfo).decodeAll(ais);
-                            break;
-                        case _TAG_extContainer:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".extensionContainer: Parameter extensionContainer is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.extensionContainer = new MAPExtensionContainerImpl();
-                            ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
-                            break;
-                        case _TAG_naea_PreferredCI:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".naea_PreferredCI: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
+    @Override
+    protected void checkLazyParameter(LazyParameter lp) throws MAPParsingComponentException {
+        if (lp.size() < 1)
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Needs at least 1 parameter, found " + lp.size(),
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+    }
 
-                            this.naeaPreferredCI = new NAEAPreferredCIImpl();
-                            ((NAEAPreferredCIImpl) this.naeaPreferredCI).decodeAll(ais);
-                            break;
-                        case _TAG_gprsSubscriptionData:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".gprsSubscriptionData: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.gprsSubscriptionData = new GPRSSubscriptionDataImpl();
-                            ((GPRSSubscriptionDataImpl) this.gprsSubscriptionData).decodeAll(ais);
-                            break;
-                        case _TAG_roamingRestrictedInSgsnDueToUnsupportedFeature:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".roamingRestrictedInSgsnDueToUnsupportedFeature: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.roamingRestrictedInSgsnDueToUnsupportedFeature = true;
-                            break;
-                        case _TAG_networkAccessMode:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".networkAccessMode: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.networkAccessMode = NetworkAccessMode.getInstance((int) ais.readInteger());
-                            break;
-                        case _TAG_lsaInformation:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".lsaInformation: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+    @Override
+    protected void decodeElement(AsnInputStream ais, int tag, int num) throws MAPParsingComponentException, IOException,
+            AsnException {
 
-                            this.lsaInformation = new LSAInformationImpl();
-                            ((LSAInformationImpl) this.lsaInformation).decodeAll(ais);
-                            break;
-                        case _TAG_lmu_Indicator:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".lmu_Indicator: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.lmuIndicator = true;
-                            break;
-                        case _TAG_lcsInformation:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".lcsInformation: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+        ExtBearerServiceCode bearerItem = null;
+        ExtTeleserviceCode teleserviceItem = null;
+        ExtSSInfo serviceItem = null;
 
-                            this.lcsInformation = new LCSInformationImpl();
-                            ((LCSInformationImpl) this.lcsInformation).decodeAll(ais);
-                            break;
-                        case _TAG_istAlertTimer:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".istAlertTimer: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.istAlertTimer = (int) ais.readInteger();
-                            if (this.istAlertTimer < 15 || this.istAlertTimer > 255) {
+        switch (ais.getTagClass()) {
+            case Tag.CLASS_CONTEXT_SPECIFIC:
+                switch (tag) {
+                    case _TAG_imsi:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".imsi: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.imsi = new IMSIImpl();
+                        ((IMSIImpl) this.imsi).decodeAll(ais);
+                        break;
+                    case _TAG_msisdn:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".msisdn: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.msisdn = new ISDNAddressStringImpl();
+                        ((ISDNAddressStringImpl) this.msisdn).decodeAll(ais);
+                        break;
+                    case _TAG_category:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".category: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.category = new CategoryImpl();
+                        ((CategoryImpl) this.category).decodeAll(ais);
+                        break;
+                    case _TAG_subscriberStatus:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".subscriberStatus: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.subscriberStatus = SubscriberStatus.getInstance((int) ais.readInteger());
+                        break;
+                    case _TAG_bearerServiceList:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".bearerServiceList: Parameter is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        AsnInputStream ais2 = ais.readSequenceStream();
+                        this.bearerServiceList = new ArrayList<ExtBearerServiceCode>();
+                        while (true) {
+                            if (ais2.available() == 0)
+                                break;
+
+                            int tag2 = ais2.readTag();
+                            if (tag2 != Tag.STRING_OCTET || ais2.getTagClass() != Tag.CLASS_UNIVERSAL
+                                    || !ais2.isTagPrimitive())
                                 throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter istAlertTimer must be from 15 to 255, parsed: " + this.istAlertTimer,
+                                        + ": bad bearerServiceCode element tag or tagClass or is not primitive ",
                                         MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_superChargerSupportedInHLR:
-                            if (!ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".lcsInformation: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.superChargerSupportedInHLR = new AgeIndicatorImpl();
-                            ((AgeIndicatorImpl) this.superChargerSupportedInHLR).decodeAll(ais);
-                            break;
-                        case _TAG_mc_SS_Info:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".mcSsInfo: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
 
-                            this.mcSsInfo = new MCSSInfoImpl();
-                            ((MCSSInfoImpl) this.mcSsInfo).decodeAll(ais);
-                            break;
-                        case _TAG_cs_AllocationRetentionPriority:
-                            if (!ais.isTagPrimitive())
+                            bearerItem = new ExtBearerServiceCodeImpl();
+                            ((ExtBearerServiceCodeImpl) bearerItem).decodeAll(ais2);
+                            this.bearerServiceList.add(bearerItem);
+                        }
+                        if (this.bearerServiceList.size() < 1 || this.bearerServiceList.size() > 50) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter bearerServiceList size must be from 1 to 50, found: "
+                                    + this.bearerServiceList.size(), MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_teleserviceList:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".teleserviceList: Parameter is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        AsnInputStream ais3 = ais.readSequenceStream();
+                        this.teleserviceList = new ArrayList<ExtTeleserviceCode>();
+                        while (true) {
+                            if (ais3.available() == 0)
+                                break;
+
+                            int tag3 = ais3.readTag();
+                            if (tag3 != Tag.STRING_OCTET || ais3.getTagClass() != Tag.CLASS_UNIVERSAL
+                                    || !ais3.isTagPrimitive())
                                 throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".csAllocationRetentionPriority: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.csAllocationRetentionPriority = new CSAllocationRetentionPriorityImpl();
-                            ((CSAllocationRetentionPriorityImpl) this.csAllocationRetentionPriority).decodeAll(ais);
-                            break;
-                        case _TAG_sgsn_CAMEL_SubscriptionInfo:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".sgsnCamelSubscriptionInfo: is primitive",
+                                        + ": bad teleserviceCode tag or tagClass or is not primitive ",
                                         MAPParsingComponentExceptionReason.MistypedParameter);
 
-                            this.sgsnCamelSubscriptionInfo = new SGSNCAMELSubscriptionInfoImpl();
-                            ((SGSNCAMELSubscriptionInfoImpl) this.sgsnCamelSubscriptionInfo).decodeAll(ais);
-                            break;
-                        case _TAG_chargingCharacteristics:
-                            if (!ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".chargingCharacteristics: bad tag or tag class or not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.chargingCharacteristics = new ChargingCharacteristicsImpl();
-                            ((ChargingCharacteristicsImpl) this.chargingCharacteristics).decodeAll(ais);
-                            break;
-                        case _TAG_accessRestrictionData:
-                            if (!ais.isTagPrimitive())
+                            teleserviceItem = new ExtTeleserviceCodeImpl();
+                            ((ExtTeleserviceCodeImpl) teleserviceItem).decodeAll(ais3);
+                            this.teleserviceList.add(teleserviceItem);
+                        }
+                        if (this.teleserviceList.size() < 1 || this.teleserviceList.size() > 20) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter teleserviceList size must be from 1 to 20, found: "
+                                    + this.teleserviceList.size(), MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_provisionedSS:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".provisionedSS: Parameter is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        AsnInputStream ais4 = ais.readSequenceStream();
+                        this.provisionedSS = new ArrayList<ExtSSInfo>();
+                        while (true) {
+                            if (ais4.available() == 0)
+                                break;
+
+                            ais4.readTag();
+
+                            serviceItem = new ExtSSInfoImpl();
+                            ((ExtSSInfoImpl) serviceItem).decodeAll(ais4);
+                            this.provisionedSS.add(serviceItem);
+                        }
+                        if (this.provisionedSS.size() < 1 || this.provisionedSS.size() > 30) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter provisionedSS size must be from 1 to 30, found: "
+                                    + this.provisionedSS.size(), MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_odb_Data:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".odbData: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.odbData = new ODBDataImpl();
+                        ((ODBDataImpl) this.odbData).decodeAll(ais);
+                        break;
+                    case _TAG_roamingRestrictionDueToUnsupportedFeature:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".roamingRestrictionDueToUnsupportedFeature: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.roamingRestrictionDueToUnsupportedFeature = true;
+                        break;
+                    case _TAG_regionalSubscriptionData:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".regionalSubscriptionData: Parameter is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        ais4 = ais.readSequenceStream();
+                        this.regionalSubscriptionData = new ArrayList<ZoneCode>();
+                        while (true) {
+                            if (ais4.available() == 0)
+                                break;
+
+                            int tag4 = ais4.readTag();
+                            if (tag4 != Tag.STRING_OCTET || ais4.getTagClass() != Tag.CLASS_UNIVERSAL
+                                    || !ais4.isTagPrimitive())
                                 throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".accessRestrictionData: bad tag or tag class or not primitive",
+                                        + ": bad regionalSubscriptionData tag or tagClass or is not primitive ",
                                         MAPParsingComponentExceptionReason.MistypedParameter);
 
-                            this.accessRestrictionData = new AccessRestrictionDataImpl();
-                            ((AccessRestrictionDataImpl) this.accessRestrictionData).decodeAll(ais);
-                            break;
-                        case _TAG_ics_Indicator:
-                            if (!ais.isTagPrimitive()) {
+                            ZoneCode zoneCode = new ZoneCodeImpl();
+                            ((ZoneCodeImpl) zoneCode).decodeAll(ais4);
+                            this.regionalSubscriptionData.add(zoneCode);
+                        }
+                        if (this.regionalSubscriptionData.size() < 1 || this.regionalSubscriptionData.size() > 10) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter regionalSubscriptionData size must be from 1 to 10, found: "
+                                    + this.regionalSubscriptionData.size(),
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_vbsSubscriptionData:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".vbsSubscriptionData: Parameter is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        ais4 = ais.readSequenceStream();
+                        this.vbsSubscriptionData = new ArrayList<VoiceBroadcastData>();
+                        while (true) {
+                            if (ais4.available() == 0)
+                                break;
+
+                            int tag4 = ais4.readTag();
+                            if (tag4 != Tag.SEQUENCE || ais4.getTagClass() != Tag.CLASS_UNIVERSAL || ais4.isTagPrimitive())
                                 throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".icsIndicator: is not primitive",
+                                        + ": bad vbsSubscriptionData element tag or tagClass or is primitive ",
                                         MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.icsIndicator = ais.readBoolean();
-                            break;
-                        case _TAG_eps_SubscriptionData:
-                            if (ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".epsSubscriptionData: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-
-                            this.epsSubscriptionData = new EPSSubscriptionDataImpl();
-                            ((EPSSubscriptionDataImpl) this.epsSubscriptionData).decodeAll(ais);
-                            break;
-                        case _TAG_csg_SubscriptionDataList:
-                            if (ais.isTagPrimitive())
+                            VoiceBroadcastData voiceBroadcastData = new VoiceBroadcastDataImpl();
+                            ((VoiceBroadcastDataImpl) voiceBroadcastData).decodeAll(ais4);
+                            this.vbsSubscriptionData.add(voiceBroadcastData);
+                        }
+                        if (this.vbsSubscriptionData.size() < 1 || this.vbsSubscriptionData.size() > 50) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter vbsSubscriptionData size must be from 1 to 50, found: "
+                                    + this.vbsSubscriptionData.size(), MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_vgcsSubscriptionData:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".vgcsSubscriptionData: Parameter is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        ais4 = ais.readSequenceStream();
+                        this.vgcsSubscriptionData = new ArrayList<VoiceGroupCallData>();
+                        while (true) {
+                            if (ais4.available() == 0)
+                                break;
+
+                            int tag4 = ais4.readTag();
+                            if (tag4 != Tag.SEQUENCE || ais4.getTagClass() != Tag.CLASS_UNIVERSAL || ais4.isTagPrimitive())
                                 throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".csg_SubscriptionDataList: Parameter is primitive",
+                                        + ": bad vgcsSubscriptionData element tag or tagClass or is primitive ",
                                         MAPParsingComponentExceptionReason.MistypedParameter);
 
-                            ais4 = ais.readSequenceStream();
-                            this.csgSubscriptionDataList = new ArrayList<CSGSubscriptionData>();
-                            while (true) {
-                                if (ais4.available() == 0)
-                                    break;
-
-                                int tag4 = ais4.readTag();
-                                if (tag4 != Tag.SEQUENCE || ais4.getTagClass() != Tag.CLASS_UNIVERSAL || ais4.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ": bad csgSubscriptionDataList element tag or tagClass or is primitive ",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-
-                                CSGSubscriptionData csgSubscriptionData = new CSGSubscriptionDataImpl();
-                                ((CSGSubscriptionDataImpl) csgSubscriptionData).decodeAll(ais4);
-                                csgSubscriptionDataList.add(csgSubscriptionData);
-                            }
-                            if (this.csgSubscriptionDataList.size() < 1 || this.csgSubscriptionDataList.size() > 50) {
+                            VoiceGroupCallData voiceGroupCallData = new VoiceGroupCallDataImpl();
+                            ((VoiceGroupCallDataImpl) voiceGroupCallData).decodeAll(ais4);
+                            vgcsSubscriptionData.add(voiceGroupCallData);
+                        }
+                        if (this.vgcsSubscriptionData.size() < 1 || this.vgcsSubscriptionData.size() > 50) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter vgcsSubscriptionData size must be from 1 to 50, found: "
+                                    + this.vgcsSubscriptionData.size(),
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_vlrCamelSubscriptionInfo:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".vlrCamelSubscriptionInfo: Parameter vlrCamelSubscriptionInfo is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.vlrCamelSubscriptionInfo = new VlrCamelSubscriptionInfoImpl();
+                        ((VlrCamelSubscriptionInfoImpl) this.vlrCamelSubscriptionInfo).decodeAll(ais);
+                        break;
+                    case _TAG_extContainer:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".extensionContainer: Parameter extensionContainer is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.extensionContainer = new MAPExtensionContainerImpl();
+                        ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
+                        break;
+                    case _TAG_naea_PreferredCI:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".naea_PreferredCI: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.naeaPreferredCI = new NAEAPreferredCIImpl();
+                        ((NAEAPreferredCIImpl) this.naeaPreferredCI).decodeAll(ais);
+                        break;
+                    case _TAG_gprsSubscriptionData:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".gprsSubscriptionData: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.gprsSubscriptionData = new GPRSSubscriptionDataImpl();
+                        ((GPRSSubscriptionDataImpl) this.gprsSubscriptionData).decodeAll(ais);
+                        break;
+                    case _TAG_roamingRestrictedInSgsnDueToUnsupportedFeature:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".roamingRestrictedInSgsnDueToUnsupportedFeature: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.roamingRestrictedInSgsnDueToUnsupportedFeature = true;
+                        break;
+                    case _TAG_networkAccessMode:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".networkAccessMode: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.networkAccessMode = NetworkAccessMode.getInstance((int) ais.readInteger());
+                        break;
+                    case _TAG_lsaInformation:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".lsaInformation: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.lsaInformation = new LSAInformationImpl();
+                        ((LSAInformationImpl) this.lsaInformation).decodeAll(ais);
+                        break;
+                    case _TAG_lmu_Indicator:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".lmu_Indicator: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.lmuIndicator = true;
+                        break;
+                    case _TAG_lcsInformation:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".lcsInformation: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.lcsInformation = new LCSInformationImpl();
+                        ((LCSInformationImpl) this.lcsInformation).decodeAll(ais);
+                        break;
+                    case _TAG_istAlertTimer:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".istAlertTimer: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.istAlertTimer = (int) ais.readInteger();
+                        if (this.istAlertTimer < 15 || this.istAlertTimer > 255) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter istAlertTimer must be from 15 to 255, parsed: " + this.istAlertTimer,
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_superChargerSupportedInHLR:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".lcsInformation: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.superChargerSupportedInHLR = new AgeIndicatorImpl();
+                        ((AgeIndicatorImpl) this.superChargerSupportedInHLR).decodeAll(ais);
+                        break;
+                    case _TAG_mc_SS_Info:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".mcSsInfo: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.mcSsInfo = new MCSSInfoImpl();
+                        ((MCSSInfoImpl) this.mcSsInfo).decodeAll(ais);
+                        break;
+                    case _TAG_cs_AllocationRetentionPriority:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".csAllocationRetentionPriority: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.csAllocationRetentionPriority = new CSAllocationRetentionPriorityImpl();
+                        ((CSAllocationRetentionPriorityImpl) this.csAllocationRetentionPriority).decodeAll(ais);
+                        break;
+                    case _TAG_sgsn_CAMEL_SubscriptionInfo:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".sgsnCamelSubscriptionInfo: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.sgsnCamelSubscriptionInfo = new SGSNCAMELSubscriptionInfoImpl();
+                        ((SGSNCAMELSubscriptionInfoImpl) this.sgsnCamelSubscriptionInfo).decodeAll(ais);
+                        break;
+                    case _TAG_chargingCharacteristics:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".chargingCharacteristics: bad tag or tag class or not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.chargingCharacteristics = new ChargingCharacteristicsImpl();
+                        ((ChargingCharacteristicsImpl) this.chargingCharacteristics).decodeAll(ais);
+                        break;
+                    case _TAG_accessRestrictionData:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".accessRestrictionData: bad tag or tag class or not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.accessRestrictionData = new AccessRestrictionDataImpl();
+                        ((AccessRestrictionDataImpl) this.accessRestrictionData).decodeAll(ais);
+                        break;
+                    case _TAG_ics_Indicator:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".icsIndicator: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.icsIndicator = ais.readBoolean();
+                        break;
+                    case _TAG_eps_SubscriptionData:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".epsSubscriptionData: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        this.epsSubscriptionData = new EPSSubscriptionDataImpl();
+                        ((EPSSubscriptionDataImpl) this.epsSubscriptionData).decodeAll(ais);
+                        break;
+                    case _TAG_csg_SubscriptionDataList:
+                        if (ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".csg_SubscriptionDataList: Parameter is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+
+                        ais4 = ais.readSequenceStream();
+                        this.csgSubscriptionDataList = new ArrayList<CSGSubscriptionData>();
+                        while (true) {
+                            if (ais4.available() == 0)
+                                break;
+
+                            int tag4 = ais4.readTag();
+                            if (tag4 != Tag.SEQUENCE || ais4.getTagClass() != Tag.CLASS_UNIVERSAL || ais4.isTagPrimitive())
                                 throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ": Parameter csgSubscriptionDataList size must be from 1 to 50, found: "
-                                        + this.csgSubscriptionDataList.size(),
+                                        + ": bad csgSubscriptionDataList element tag or tagClass or is primitive ",
                                         MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            break;
-                        case _TAG_ue_ReachabilityRequestIndicator:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".ue_ReachabilityRequestIndicator: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.ueReachabilityRequestIndicator = true;
-                            break;
-                        case _TAG_sgsn_Number:
-                            if (!ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".sgsnNumber: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.sgsnNumber = new ISDNAddressStringImpl();
-                            ((ISDNAddressStringImpl) this.sgsnNumber).decodeAll(ais);
-                            break;
-                        case _TAG_mme_Name:
-                            if (!ais.isTagPrimitive())
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".mmeName: bad tag or tag class or not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            this.mmeName = new DiameterIdentityImpl();
-                            ((DiameterIdentityImpl) this.mmeName).decodeAll(ais);
-                            break;
-                        case _TAG_subscribedPeriodicRAUTAUtimer:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".subscribedPeriodicRAUTAUtimer: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.subscribedPeriodicRAUTAUtimer = ais.readInteger();
-                            break;
-                        case _TAG_vplmnLIPAAllowed:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".vplmnLIPAAllowed: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.vplmnLIPAAllowed = true;
-                            break;
-                        case _TAG_mdtUserConsent:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".mdtUserConsent: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.mdtUserConsent = ais.readBoolean();
-                            break;
-                        case _TAG_subscribedPeriodicLAUtimer:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".subscribedPeriodicLAUtimer: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.subscribedPeriodicLAUtimer = ais.readInteger();
-                            break;
 
-                        default:
-                            ais.advanceElement();
-                            break;
-                    }
-                    break;
-
-                default:
-                    ais.advanceElement();
-                    break;
-            }
+                            CSGSubscriptionData csgSubscriptionData = new CSGSubscriptionDataImpl();
+                            ((CSGSubscriptionDataImpl) csgSubscriptionData).decodeAll(ais4);
+                            csgSubscriptionDataList.add(csgSubscriptionData);
+                        }
+                        if (this.csgSubscriptionDataList.size() < 1 || this.csgSubscriptionDataList.size() > 50) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ": Parameter csgSubscriptionDataList size must be from 1 to 50, found: "
+                                    + this.csgSubscriptionDataList.size(),
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        break;
+                    case _TAG_ue_ReachabilityRequestIndicator:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".ue_ReachabilityRequestIndicator: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.ueReachabilityRequestIndicator = true;
+                        break;
+                    case _TAG_sgsn_Number:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".sgsnNumber: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.sgsnNumber = new ISDNAddressStringImpl();
+                        ((ISDNAddressStringImpl) this.sgsnNumber).decodeAll(ais);
+                        break;
+                    case _TAG_mme_Name:
+                        if (!ais.isTagPrimitive())
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".mmeName: bad tag or tag class or not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        this.mmeName = new DiameterIdentityImpl();
+                        ((DiameterIdentityImpl) this.mmeName).decodeAll(ais);
+                        break;
+                    case _TAG_subscribedPeriodicRAUTAUtimer:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".subscribedPeriodicRAUTAUtimer: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.subscribedPeriodicRAUTAUtimer = ais.readInteger();
+                        break;
+                    case _TAG_vplmnLIPAAllowed:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".vplmnLIPAAllowed: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.vplmnLIPAAllowed = true;
+                        break;
+                    case _TAG_mdtUserConsent:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".mdtUserConsent: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.mdtUserConsent = ais.readBoolean();
+                        break;
+                    case _TAG_subscribedPeriodicLAUtimer:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".subscribedPeriodicLAUtimer: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.subscribedPeriodicLAUtimer = ais.readInteger();
+                        break;
+
+                    default:
+                        ais.advanceElement();
+                        break;
+                }
+                break;
 
-            num++;
+            default:
+                ais.advanceElement();
+                break;
         }
 
-        if (num == 0)
-            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                    + ": Needs at least 1 parameter, found " + num, MAPParsingComponentExceptionReason.MistypedParameter);
     }
 
     @Override
@@ -1049,6 +1105,12 @@ public class InsertSubscriberDataRequestImpl extends MobilityMessageImpl impleme
     @Override
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
+        if (this.getLazyParameter() != null) {
+            // the received parameter has not been changed and is sent as it is
+            asnOs.write(this.getLazyParameter().getData());
+            return;
+        }
+
         if (this.bearerServiceList != null && (this.bearerServiceList.size() < 1 || this.bearerServiceList.size() > 50))
             throw new MAPException("bearerServiceList size must be from 1 to 50, found: " + this.bearerServiceList.size());
 
@@ -1392,6 +1454,8 @@ public class InsertSubscriberDataRequestImpl extends MobilityMessageImpl impleme
 
     @Override
     public String toString() {
+        this.decodeLazyAll(true);
+
         StringBuilder sb = new StringBuilder();
         sb.append(_PrimitiveName);
         sb.append(" [");
@@ -40,6 +40,6 @@ public class LongGroupIdImpl extends TbcdStringWithFiller implements LongGroupId
 
     @Override
     public String getLongGroupId() {
-        return this.data;
+        return this.getDataString();
     }
 }
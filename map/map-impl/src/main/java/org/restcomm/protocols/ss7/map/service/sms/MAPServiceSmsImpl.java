@@ -28,6 +28,7 @@ import org.mobicents.protocols.asn.Tag;
 import org.restcomm.protocols.ss7.map.MAPDialogImpl;
 import org.restcomm.protocols.ss7.map.MAPProviderImpl;
 import org.restcomm.protocols.ss7.map.MAPServiceBaseImpl;
+import org.restcomm.protocols.ss7.map.MAPStackConfigurationManagement;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContextName;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContextVersion;
@@ -429,9 +430,14 @@ public class MAPServiceSmsImpl extends MAPServiceBaseImpl implements MAPServiceS
                             + parameter.getTag(), MAPParsingComponentExceptionReason.MistypedParameter);
 
         byte[] buf = parameter.getData();
-        AsnInputStream ais = new AsnInputStream(buf);
         MtForwardShortMessageRequestImpl ind = new MtForwardShortMessageRequestImpl();
-        ind.decodeData(ais, buf.length);
+        if (MAPStackConfigurationManagement.getInstance().isLazyParameterDecoding()) {
+            ind.decodeDataLazy(buf);
+        } else {
+            AsnInputStream ais = new AsnInputStream(buf);
+            ind.decodeData(ais, buf.length);
+            ind.setEncodedParameterData(buf);
+        }
 
         ind.setInvokeId(invokeId);
         ind.setMAPDialog(mapDialogImpl);
@@ -490,9 +496,14 @@ public class MAPServiceSmsImpl extends MAPServiceBaseImpl implements MAPServiceS
                             + parameter.getTag(), MAPParsingComponentExceptionReason.MistypedParameter);
 
         byte[] buf = parameter.getData();
-        AsnInputStream ais = new AsnInputStream(buf);
         SendRoutingInfoForSMRequestImpl ind = new SendRoutingInfoForSMRequestImpl();
-        ind.decodeData(ais, buf.length);
+        if (MAPStackConfigurationManagement.getInstance().isLazyParameterDecoding()) {
+            ind.decodeDataLazy(buf);
+        } else {
+            AsnInputStream ais = new AsnInputStream(buf);
+            ind.decodeData(ais, buf.length);
+            ind.setEncodedParameterData(buf);
+        }
 
         ind.setInvokeId(invokeId);
         ind.setMAPDialog(mapDialogImpl);
@@ -28,6 +28,7 @@ import org.mobicents.protocols.asn.AsnException;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.restcomm.protocols.ss7.map.LazyParameter;
 import org.restcomm.protocols.ss7.map.api.MAPException;
 import org.restcomm.protocols.ss7.map.api.MAPMessageType;
 import org.restcomm.protocols.ss7.map.api.MAPOperationCode;
@@ -76,22 +77,27 @@ public class MtForwardShortMessageRequestImpl extends SmsMessageImpl implements
     }
 
     public SM_RP_DA getSM_RP_DA() {
+        this.decodeLazyAt(0);
         return this.sM_RP_DA;
     }
 
     public SM_RP_OA getSM_RP_OA() {
+        this.decodeLazyAt(1);
         return this.sM_RP_OA;
     }
 
     public SmsSignalInfo getSM_RP_UI() {
+        this.decodeLazyAt(2);
         return this.sM_RP_UI;
     }
 
     public boolean getMoreMessagesToSend() {
+        this.decodeLazy(Tag.CLASS_UNIVERSAL, Tag.NULL);
         return this.moreMessagesToSend;
     }
 
     public MAPExtensionContainer getExtensionContainer() {
+        this.decodeLazy(Tag.CLASS_UNIVERSAL, Tag.SEQUENCE);
         return this.extensionContainer;
     }
 
@@ -150,72 +156,88 @@ public class MtForwardShortMessageRequestImpl extends SmsMessageImpl implements
 
             int tag = ais.readTag();
 
-            switch (num) {
-                case 0:
-                    // SM_RP_DA
-                    if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive())
-                        throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ": Parameter 0 bad tag class or not primitive",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.sM_RP_DA = new SM_RP_DAImpl();
-                    ((SM_RP_DAImpl) this.sM_RP_DA).decodeAll(ais);
-                    break;
+            this.decodeElement(ais, tag, num);
 
-                case 1:
-                    // SM_RP_OA
-                    if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive())
-                        throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ": Parameter 1 bad tag class or not primitive",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.sM_RP_OA = new SM_RP_OAImpl();
-                    ((SM_RP_OAImpl) this.sM_RP_OA).decodeAll(ais);
-                    break;
+            num++;
+        }
+
+        if (num < 3)
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Needs at least 3 mandatory parameters, found " + num,
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+    }
 
-                case 2:
-                    // sm-RP-UI
-                    if (ais.getTagClass() != Tag.CLASS_UNIVERSAL || !ais.isTagPrimitive())
+    @Override
+    protected void checkLazyParameter(LazyParameter lp) throws MAPParsingComponentException {
+        if (lp.size() < 3)
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Needs at least 3 mandatory parameters, found " + lp.size(),
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+    }
+
+    @Override
+    protected void decodeElement(AsnInputStream ais, int tag, int num) throws MAPParsingComponentException, IOException,
+            AsnException {
+
+        switch (num) {
+            case 0:
+                // SM_RP_DA
+                if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive())
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ": Parameter 0 bad tag class or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.sM_RP_DA = new SM_RP_DAImpl();
+                ((SM_RP_DAImpl) this.sM_RP_DA).decodeAll(ais);
+                break;
+
+            case 1:
+                // SM_RP_OA
+                if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive())
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ": Parameter 1 bad tag class or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.sM_RP_OA = new SM_RP_OAImpl();
+                ((SM_RP_OAImpl) this.sM_RP_OA).decodeAll(ais);
+                break;
+
+            case 2:
+                // sm-RP-UI
+                if (ais.getTagClass() != Tag.CLASS_UNIVERSAL || !ais.isTagPrimitive())
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ": Parameter 2 bad tag class or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                if (tag != Tag.STRING_OCTET)
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ": Parameter 2 tag must be STRING_OCTET, found: " + tag,
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.sM_RP_UI = new SmsSignalInfoImpl();
+                this.sM_RP_UI.decodeAll(ais);
+                break;
+
+            default:
+                if (tag == Tag.SEQUENCE && ais.getTagClass() == Tag.CLASS_UNIVERSAL) {
+
+                    if (ais.isTagPrimitive())
                         throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ": Parameter 2 bad tag class or not primitive",
+                                + ": Parameter extensionContainer is primitive",
                                 MAPParsingComponentExceptionReason.MistypedParameter);
-                    if (tag != Tag.STRING_OCTET)
+                    this.extensionContainer = new MAPExtensionContainerImpl();
+                    ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
+                } else if (tag == Tag.NULL && ais.getTagClass() == Tag.CLASS_UNIVERSAL) {
+
+                    if (!ais.isTagPrimitive())
                         throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ": Parameter 2 tag must be STRING_OCTET, found: " + tag,
+                                + ": Parameter moreMessagesToSend is not primitive",
                                 MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.sM_RP_UI = new SmsSignalInfoImpl();
-                    this.sM_RP_UI.decodeAll(ais);
-                    break;
-
-                default:
-                    if (tag == Tag.SEQUENCE && ais.getTagClass() == Tag.CLASS_UNIVERSAL) {
-
-                        if (ais.isTagPrimitive())
-                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                    + ": Parameter extensionContainer is primitive",
-                                    MAPParsingComponentExceptionReason.MistypedParameter);
-                        this.extensionContainer = new MAPExtensionContainerImpl();
-                        ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
-                    } else if (tag == Tag.NULL && ais.getTagClass() == Tag.CLASS_UNIVERSAL) {
-
-                        if (!ais.isTagPrimitive())
-                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                    + ": Parameter moreMessagesToSend is not primitive",
-                                    MAPParsingComponentExceptionReason.MistypedParameter);
-                        ais.readNull();
-                        this.moreMessagesToSend = true;
-                    } else {
-
-                        ais.advanceElement();
-                    }
-                    break;
-            }
+                    ais.readNull();
+                    this.moreMessagesToSend = true;
+                } else {
 
-            num++;
+                    ais.advanceElement();
+                }
+                break;
         }
 
-        if (num < 3)
-            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                    + ": Needs at least 3 mandatory parameters, found " + num,
-                    MAPParsingComponentExceptionReason.MistypedParameter);
     }
 
     public void encodeAll(AsnOutputStream asnOs) throws MAPException {
@@ -237,6 +259,12 @@ public class MtForwardShortMessageRequestImpl extends SmsMessageImpl implements
 
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
+        if (this.getLazyParameter() != null) {
+            // the received parameter has not been changed and is sent as it is
+            asnOs.write(this.getLazyParameter().getData());
+            return;
+        }
+
         if (this.sM_RP_DA == null || this.sM_RP_OA == null || this.sM_RP_UI == null)
             throw new MAPException("sm_RP_DA,sm_RP_OA and sm_RP_UI must not be null");
 
@@ -258,6 +286,8 @@ public class MtForwardShortMessageRequestImpl extends SmsMessageImpl implements
 
     @Override
     public String toString() {
+        this.decodeLazyAll(true);
+
         StringBuilder sb = new StringBuilder();
         sb.append(_PrimitiveName);
         sb.append(" [");
@@ -26,6 +26,7 @@ import org.mobicents.protocols.asn.AsnException;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.restcomm.protocols.ss7.map.LazyParameter;
 import org.restcomm.protocols.ss7.map.api.MAPException;
 import org.restcomm.protocols.ss7.map.api.MAPMessageType;
 import org.restcomm.protocols.ss7.map.api.MAPOperationCode;
@@ -121,58 +122,72 @@ public class SendRoutingInfoForSMRequestImpl extends SmsMessageImpl implements S
     }
 
     public ISDNAddressString getMsisdn() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_msisdn);
         return this.msisdn;
     }
 
     public boolean getSm_RP_PRI() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_sm_RP_PRI);
         return this.sm_RP_PRI;
     }
 
     public AddressString getServiceCentreAddress() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_serviceCentreAddress);
         return this.serviceCentreAddress;
     }
 
     public MAPExtensionContainer getExtensionContainer() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_extensionContainer);
         return this.extensionContainer;
     }
 
     public boolean getGprsSupportIndicator() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_gprsSupportIndicator);
         return this.gprsSupportIndicator;
     }
 
     public SM_RP_MTI getSM_RP_MTI() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_sm_RP_MTI);
         return this.sM_RP_MTI;
     }
 
     public SM_RP_SMEA getSM_RP_SMEA() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_sm_RP_SMEA);
         return this.sM_RP_SMEA;
     }
 
     public TeleserviceCode getTeleservice() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_teleservice);
         return this.teleservice;
     }
 
     public boolean getIpSmGwGuidanceIndicator() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_ipSmGwGuidanceIndicator);
         return ipSmGwGuidanceIndicator;
     }
 
     public boolean getT4TriggerIndicator() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_t4TriggerIndicator);
         return t4TriggerIndicator;
     }
 
     public boolean getSingleAttemptDelivery() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_singleAttemptDelivery);
         return singleAttemptDelivery;
     }
 
     public IMSI getImsi() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_imsi);
         return imsi;
     }
 
     public SMDeliveryNotIntended getSmDeliveryNotIntended() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_smDeliveryNotIntended);
         return smDeliveryNotIntended;
     }
 
     public CorrelationID getCorrelationID() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_correlationId);
         return correlationID;
     }
 
@@ -240,151 +255,7 @@ public class SendRoutingInfoForSMRequestImpl extends SmsMessageImpl implements S
 
             int tag = ais.readTag();
 
-            switch (num) {
-                case 0:
-                    // msisdn
-                    if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive() || tag != _TAG_msisdn)
-                        throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ".msisdn: Parameter 0 bad tag or tag class or not primitive",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.msisdn = new ISDNAddressStringImpl();
-                    ((ISDNAddressStringImpl) this.msisdn).decodeAll(ais);
-                    break;
-
-                case 1:
-                    // sm-RP-PRI
-                    if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive() || tag != _TAG_sm_RP_PRI)
-                        throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ".sm-RP-PRI: Parameter 1 bad tag class or tag or not primitive",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.sm_RP_PRI = ais.readBoolean();
-                    break;
-
-                case 2:
-                    // serviceCentreAddress
-                    if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive()
-                            || tag != _TAG_serviceCentreAddress)
-                        throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ".serviceCentreAddress: Parameter 2 bad tag class or tag or not primitive",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.serviceCentreAddress = new ISDNAddressStringImpl();
-                    ((AddressStringImpl) this.serviceCentreAddress).decodeAll(ais);
-                    break;
-
-                default:
-                    if (ais.getTagClass() == Tag.CLASS_CONTEXT_SPECIFIC) {
-
-                        switch (tag) {
-                            case _TAG_extensionContainer:
-                                if (ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".extensionContainer: Parameter extensionContainer is primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.extensionContainer = new MAPExtensionContainerImpl();
-                                ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
-                                break;
-
-                            case _TAG_gprsSupportIndicator:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".gprsSupportIndicator: Parameter gprsSupportIndicator is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.gprsSupportIndicator = true;
-                                break;
-
-                            case _TAG_sm_RP_MTI:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".sM_RP_MTI: Parameter sM_RP_MTI is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                int i1 = (int) ais.readInteger();
-                                this.sM_RP_MTI = SM_RP_MTI.getInstance(i1);
-                                break;
-
-                            case _TAG_sm_RP_SMEA:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".sM_RP_SMEA: Parameter sM_RP_SMEA is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.sM_RP_SMEA = new SM_RP_SMEAImpl();
-                                this.sM_RP_SMEA.decodeAll(ais);
-                                break;
-
-                            case _TAG_teleservice:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + "._TAG_teleservice: Parameter _TAG_teleservice is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.teleservice = new TeleserviceCodeImpl();
-                                ((TeleserviceCodeImpl) this.teleservice).decodeAll(ais);
-                                break;
-
-                            case _TAG_smDeliveryNotIntended:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".smDeliveryNotIntended: Parameter smDeliveryNotIntended is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                int i2 = (int) ais.readInteger();
-                                this.smDeliveryNotIntended = SMDeliveryNotIntended.getInstance(i2);
-                                break;
-
-                            case _TAG_ipSmGwGuidanceIndicator:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".ipSmGwGuidanceIndicator: Parameter ipSmGwGuidanceIndicator is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.ipSmGwGuidanceIndicator = true;
-                                break;
-
-                            case _TAG_imsi:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".imsi: Parameter imsi is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.imsi = new IMSIImpl();
-                                ((IMSIImpl) this.imsi).decodeAll(ais);
-                                break;
-
-                            case _TAG_t4TriggerIndicator:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".t4TriggerIndicator: Parameter t4TriggerIndicator is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.t4TriggerIndicator = true;
-                                break;
-
-                            case _TAG_singleAttemptDelivery:
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".singleAttemptDelivery: Parameter singleAttemptDelivery is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.singleAttemptDelivery = true;
-                                break;
-
-                            case _TAG_correlationId:
-                                if (ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".correlationID: Parameter correlationID is primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.correlationID = new CorrelationIDImpl();
-                                ((CorrelationIDImpl) this.correlationID).decodeAll(ais);
-                                break;
-
-                            default:
-                                ais.advanceElement();
-                                break;
-                        }
-
-                    } else {
-
-                        ais.advanceElement();
-                    }
-                    break;
-            }
+            this.decodeElement(ais, tag, num);
 
             num++;
         }
@@ -395,6 +266,166 @@ public class SendRoutingInfoForSMRequestImpl extends SmsMessageImpl implements S
                     MAPParsingComponentExceptionReason.MistypedParameter);
     }
 
+    @Override
+    protected void checkLazyParameter(LazyParameter lp) throws MAPParsingComponentException {
+        if (lp.size() < 3)
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Needs at least 3 mandatory parameters, found " + lp.size(),
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+    }
+
+    @Override
+    protected void decodeElement(AsnInputStream ais, int tag, int num) throws MAPParsingComponentException, IOException,
+            AsnException {
+
+        switch (num) {
+            case 0:
+                // msisdn
+                if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive() || tag != _TAG_msisdn)
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ".msisdn: Parameter 0 bad tag or tag class or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.msisdn = new ISDNAddressStringImpl();
+                ((ISDNAddressStringImpl) this.msisdn).decodeAll(ais);
+                break;
+
+            case 1:
+                // sm-RP-PRI
+                if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive() || tag != _TAG_sm_RP_PRI)
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ".sm-RP-PRI: Parameter 1 bad tag class or tag or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.sm_RP_PRI = ais.readBoolean();
+                break;
+
+            case 2:
+                // serviceCentreAddress
+                if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive()
+                        || tag != _TAG_serviceCentreAddress)
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ".serviceCentreAddress: Parameter 2 bad tag class or tag or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.serviceCentreAddress = new ISDNAddressStringImpl();
+                ((AddressStringImpl) this.serviceCentreAddress).decodeAll(ais);
+                break;
+
+            default:
+                if (ais.getTagClass() == Tag.CLASS_CONTEXT_SPECIFIC) {
+
+                    switch (tag) {
+                        case _TAG_extensionContainer:
+                            if (ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".extensionContainer: Parameter extensionContainer is primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.extensionContainer = new MAPExtensionContainerImpl();
+                            ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
+                            break;
+
+                        case _TAG_gprsSupportIndicator:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".gprsSupportIndicator: Parameter gprsSupportIndicator is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.gprsSupportIndicator = true;
+                            break;
+
+                        case _TAG_sm_RP_MTI:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".sM_RP_MTI: Parameter sM_RP_MTI is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            int i1 = (int) ais.readInteger();
+                            this.sM_RP_MTI = SM_RP_MTI.getInstance(i1);
+                            break;
+
+                        case _TAG_sm_RP_SMEA:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".sM_RP_SMEA: Parameter sM_RP_SMEA is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.sM_RP_SMEA = new SM_RP_SMEAImpl();
+                            this.sM_RP_SMEA.decodeAll(ais);
+                            break;
+
+                        case _TAG_teleservice:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + "._TAG_teleservice: Parameter _TAG_teleservice is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.teleservice = new TeleserviceCodeImpl();
+                            ((TeleserviceCodeImpl) this.teleservice).decodeAll(ais);
+                            break;
+
+                        case _TAG_smDeliveryNotIntended:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".smDeliveryNotIntended: Parameter smDeliveryNotIntended is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            int i2 = (int) ais.readInteger();
+                            this.smDeliveryNotIntended = SMDeliveryNotIntended.getInstance(i2);
+                            break;
+
+                        case _TAG_ipSmGwGuidanceIndicator:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".ipSmGwGuidanceIndicator: Parameter ipSmGwGuidanceIndicator is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.ipSmGwGuidanceIndicator = true;
+                            break;
+
+                        case _TAG_imsi:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".imsi: Parameter imsi is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.imsi = new IMSIImpl();
+                            ((IMSIImpl) this.imsi).decodeAll(ais);
+                            break;
+
+                        case _TAG_t4TriggerIndicator:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".t4TriggerIndicator: Parameter t4TriggerIndicator is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.t4TriggerIndicator = true;
+                            break;
+
+                        case _TAG_singleAttemptDelivery:
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".singleAttemptDelivery: Parameter singleAttemptDelivery is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.singleAttemptDelivery = true;
+                            break;
+
+                        case _TAG_correlationId:
+                            if (ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".correlationID: Parameter correlationID is primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.correlationID = new CorrelationIDImpl();
+                            ((CorrelationIDImpl) this.correlationID).decodeAll(ais);
+                            break;
+
+                        default:
+                            ais.advanceElement();
+                            break;
+                    }
+
+                } else {
+
+                    ais.advanceElement();
+                }
+                break;
+        }
+
+    }
+
     public void encodeAll(AsnOutputStream asnOs) throws MAPException {
 
         this.encodeAll(asnOs, Tag.CLASS_UNIVERSAL, Tag.SEQUENCE);
@@ -414,6 +445,12 @@ public class SendRoutingInfoForSMRequestImpl extends SmsMessageImpl implements S
 
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
+        if (this.getLazyParameter() != null) {
+            // the received parameter has not been changed and is sent as it is
+            asnOs.write(this.getLazyParameter().getData());
+            return;
+        }
+
         if (msisdn == null || serviceCentreAddress == null)
             throw new MAPException("msisdn, sm_RP_PRI and serviceCentreAddress must not be null");
 
@@ -457,6 +494,8 @@ public class SendRoutingInfoForSMRequestImpl extends SmsMessageImpl implements S
 
     @Override
     public String toString() {
+        this.decodeLazyAll(true);
+
         StringBuilder sb = new StringBuilder();
         sb.append("SendRoutingInfoForSMRequest [");
 
@@ -36,7 +36,6 @@ import org.restcomm.protocols.ss7.map.api.smstpdu.UserDataHeader;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharset;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetDecoder;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetDecodingData;
-import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetEncoder;
 import org.restcomm.protocols.ss7.map.datacoding.GSMCharsetEncodingData;
 import org.restcomm.protocols.ss7.map.datacoding.Gsm7EncodingStyle;
 
@@ -139,6 +138,7 @@ public class UserDataImpl implements UserData {
             // TODO: implement the case with compressed message
             throw new MAPException("Error encoding a text in Sms UserData: compressed message is not supported yet");
         } else {
+            ByteBuffer bb;
             switch (this.dataCodingScheme.getCharacterSet()) {
                 case GSM7:
                     // selecting a Charset for encoding
@@ -161,22 +161,11 @@ public class UserDataImpl implements UserData {
 //                                nationalLanguageSingleShiftIdentifier);
 //                    }
 
+                    // packing septets directly into the result array without a CharsetEncoder
                     GSMCharset cSet = obtainGsmCharacterSet(this.decodedUserDataHeader);
-                    GSMCharsetEncoder encoder = (GSMCharsetEncoder) cSet.newEncoder();
-                    encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, buf2));
-                    ByteBuffer bb = null;
-                    try {
-                        bb = encoder.encode(CharBuffer.wrap(this.decodedMessage));
-                    } catch (Exception e) {
-                        // This can not occur
-                    }
-                    this.encodedUserDataLength = encoder.getGSMCharsetEncodingData().getTotalSeptetCount();
-                    if (bb != null) {
-                        this.encodedData = new byte[bb.limit()];
-                        bb.get(this.encodedData);
-                    } else {
-                        this.encodedData = new byte[0];
-                    }
+                    GSMCharsetEncodingData encodingData = new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, buf2);
+                    this.encodedData = cSet.encodeSeptets(this.decodedMessage, encodingData);
+                    this.encodedUserDataLength = encodingData.getTotalSeptetCount();
                     break;
 
                 case GSM8:
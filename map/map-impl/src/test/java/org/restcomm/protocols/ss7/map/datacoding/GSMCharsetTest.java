@@ -163,6 +163,12 @@ public class GSMCharsetTest {
 
         assertEquals(encodedData, data);
         assertEquals(totalSeptetCount, len);
+
+        // encoding without CharsetEncoder must give the same result
+        GSMCharsetEncodingData encodingData = new GSMCharsetEncodingData(gsm7EncodingStyle, bufUDH);
+        data = cs.encodeSeptets(decodedString, encodingData);
+        assertEquals(encodedData, data);
+        assertEquals(totalSeptetCount, encodingData.getTotalSeptetCount());
     }
 
     private void doTestDecode(String decodedString, byte[] encodedData, Gsm7EncodingStyle gsm7EncodingStyle, int totalSeptetCount,
@@ -362,6 +368,45 @@ public class GSMCharsetTest {
 
     }
 
+    @Test(groups = { "datacoding" })
+    public void testEncodeSeptets() throws Exception {
+        // extension table chars at every position of 7-octet groups, with and without a leading buffer
+        StringBuilder sb = new StringBuilder();
+        for (int i1 = 0; i1 < 40; i1++) {
+            sb.append("Hello {world} ");
+            sb.append((char) ('a' + i1 % 26));
+            sb.append(i1 % 3 == 0 ? "\u20AC" : "[x]");
+        }
+        String msg = sb.toString();
+        GSMCharset cs = new GSMCharset("GSM", new String[] {});
+        byte[][] udhs = new byte[][] { null, new byte[] { 5, 0, 3, 1, 2, 1 }, new byte[] { 1, 2, 3 } };
+
+        for (Gsm7EncodingStyle style : Gsm7EncodingStyle.values()) {
+            for (byte[] udh : udhs) {
+                for (int len = 0; len < msg.length(); len += 7) {
+                    String s = msg.substring(0, len);
+                    GSMCharsetEncoder encoder = (GSMCharsetEncoder) cs.newEncoder();
+                    encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(style, udh));
+                    ByteBuffer bb = encoder.encode(CharBuffer.wrap(s));
+                    byte[] data = new byte[bb.limit()];
+                    bb.get(data);
+
+                    GSMCharsetEncodingData encodingData = new GSMCharsetEncodingData(style, udh);
+                    assertEquals(cs.encodeSeptets(s, encodingData), data);
+                    assertEquals(encodingData.getTotalSeptetCount(), encoder.getGSMCharsetEncodingData().getTotalSeptetCount());
+
+                    if (udh == null) {
+                        GSMCharsetDecoder decoder = (GSMCharsetDecoder) cs.newDecoder();
+                        decoder.setGSMCharsetDecodingData(new GSMCharsetDecodingData(style,
+                                style == Gsm7EncodingStyle.bit7_sms_style ? encodingData.getTotalSeptetCount() : Integer.MAX_VALUE,
+                                0));
+                        assertEquals(decoder.decode(ByteBuffer.wrap(data)).toString(), s);
+                    }
+                }
+            }
+        }
+    }
+
     @Test(groups = { "datacoding" })
     public void testCheckZeroCharacter() throws Exception {
         byte[] encodedDataAscii = new byte[] { 97, 0, '[', 98 };
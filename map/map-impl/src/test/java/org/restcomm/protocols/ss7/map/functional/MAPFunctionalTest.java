@@ -28,8 +28,10 @@ import org.apache.log4j.PropertyConfigurator;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.BitSetStrictLength;
 import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.map.AcnVersionCache;
 import org.restcomm.protocols.ss7.map.MAPDialogImpl;
 import org.restcomm.protocols.ss7.map.MAPProviderImpl;
+import org.restcomm.protocols.ss7.map.MAPStackConfigurationManagement;
 import org.restcomm.protocols.ss7.map.MAPStackImpl;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContext;
 import org.restcomm.protocols.ss7.map.api.MAPApplicationContextName;
@@ -1241,6 +1243,84 @@ public class MAPFunctionalTest extends SccpHarness {
 
     }
 
+    /**
+     * The version refused by a peer is learned by the application context version cache, next dialogs towards the peer
+     * are created with a lower version
+     *
+     * TC-BEGIN + alertServiceCentre V2 TC-ABORT + DialogReject+ACNNotSupported
+     */
+    @Test(groups = { "functional.flow", "dialog" })
+    public void testAcnVersionCache() throws Exception {
+
+        MAPStackConfigurationManagement.getInstance().setAcnVersionCacheEnabled(true);
+        try {
+            Client client = new Client(stack1, this, peer1Address, peer2Address) {
+
+                @Override
+                public void onDialogReject(MAPDialog mapDialog, MAPRefuseReason refuseReason,
+                        ApplicationContextName alternativeApplicationContext, MAPExtensionContainer extensionContainer) {
+                    super.onDialogReject(mapDialog, refuseReason, alternativeApplicationContext, extensionContainer);
+
+                    assertEquals(refuseReason, MAPRefuseReason.ApplicationContextNotSupported);
+                }
+            };
+
+            Server server = new Server(this.stack2, this, peer2Address, peer1Address) {
+
+            };
+
+            long stamp = System.currentTimeMillis();
+            int count = 0;
+            // Client side events
+            List<TestEvent> clientExpectedEvents = new ArrayList<TestEvent>();
+            TestEvent te = TestEvent.createSentEvent(EventType.AlertServiceCentreIndication, null, count++, stamp);
+            clientExpectedEvents.add(te);
+
+            te = TestEvent.createReceivedEvent(EventType.DialogReject, null, count++, stamp);
+            clientExpectedEvents.add(te);
+
+            te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, count++, stamp);
+            clientExpectedEvents.add(te);
+
+            count = 0;
+            // Server side events
+            List<TestEvent> serverExpectedEvents = new ArrayList<TestEvent>();
+
+            server.mapProvider.getMAPServiceSms().deactivate();
+
+            client.sendAlertServiceCentreRequestV2();
+            waitForEnd();
+            client.compareEvents(clientExpectedEvents);
+            server.compareEvents(serverExpectedEvents);
+
+            AcnVersionCache cache = ((MAPProviderImpl) this.stack1.getMAPProvider()).getAcnVersionCache();
+            assertEquals(cache.size(), 1);
+            assertEquals(cache.getLearnedCount(), 1);
+
+            MAPApplicationContext appCnt = MAPApplicationContext.getInstance(MAPApplicationContextName.shortMsgAlertContext,
+                    MAPApplicationContextVersion.version2);
+            MAPDialogSms dlg = this.stack1.getMAPProvider().getMAPServiceSms()
+                    .createNewDialog(appCnt, peer1Address, null, peer2Address, null);
+            assertEquals(dlg.getApplicationContext().getApplicationContextVersion(), MAPApplicationContextVersion.version1);
+            assertEquals(cache.getDowngradeCount(), 1);
+            dlg.release();
+
+            // another peer is not affected
+            dlg = this.stack1.getMAPProvider().getMAPServiceSms().createNewDialog(appCnt, peer1Address, null, peer1Address,
+                    null);
+            assertEquals(dlg.getApplicationContext().getApplicationContextVersion(), MAPApplicationContextVersion.version2);
+            dlg.release();
+
+            cache.clear();
+            dlg = this.stack1.getMAPProvider().getMAPServiceSms().createNewDialog(appCnt, peer1Address, null, peer2Address,
+                    null);
+            assertEquals(dlg.getApplicationContext().getApplicationContextVersion(), MAPApplicationContextVersion.version2);
+            dlg.release();
+        } finally {
+            MAPStackConfigurationManagement.getInstance().setAcnVersionCacheEnabled(false);
+        }
+    }
+
     /**
      * Rejecting a dialog because of service is inactive - MAP V1
      *
@@ -1755,6 +1755,37 @@ public class InsertSubscriberDataRequestTest {
 
     }
 
+    @Test(groups = { "functional.decode", "service.mobility.subscriberManagement" })
+    public void testDecodeLazy() throws Exception {
+        byte[][] datas = new byte[][] { this.getData(), this.getData1() };
+        long[] versions = new long[] { 3, 2 };
+        for (int i1 = 0; i1 < datas.length; i1++) {
+            byte[] data = datas[i1];
+            AsnInputStream asn = new AsnInputStream(data);
+            asn.readTag();
+            InsertSubscriberDataRequestImpl prim = new InsertSubscriberDataRequestImpl(versions[i1]);
+            prim.decodeAll(asn);
+
+            asn = new AsnInputStream(data);
+            asn.readTag();
+            int length = asn.readLength();
+            byte[] paramData = Arrays.copyOfRange(data, asn.position(), asn.position() + length);
+            InsertSubscriberDataRequestImpl lazyPrim = new InsertSubscriberDataRequestImpl(versions[i1]);
+            lazyPrim.decodeDataLazy(paramData);
+            assertTrue(Arrays.equals(lazyPrim.getEncodedParameterData(), paramData));
+
+            assertEquals(lazyPrim.getImsi().getData(), prim.getImsi().getData());
+            assertEquals(lazyPrim.getMsisdn().getAddress(), prim.getMsisdn().getAddress());
+            assertEquals(lazyPrim.getCategory().getData(), prim.getCategory().getData());
+            assertEquals(lazyPrim.toString(), prim.toString());
+
+            // the received parameter is encoded as it is
+            AsnOutputStream asnOS = new AsnOutputStream();
+            lazyPrim.encodeAll(asnOS);
+            assertTrue(Arrays.equals(asnOS.toByteArray(), data));
+        }
+    }
+
     @Test(groups = { "functional.encode", "service.mobility.subscriberManagement" })
     public void testEncode() throws Exception {
 
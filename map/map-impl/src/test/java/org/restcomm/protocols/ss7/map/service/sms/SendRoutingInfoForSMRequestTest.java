@@ -25,6 +25,7 @@ package org.restcomm.protocols.ss7.map.service.sms;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.restcomm.protocols.ss7.map.api.MAPParsingComponentException;
 import org.restcomm.protocols.ss7.map.api.primitives.AddressNature;
 import org.restcomm.protocols.ss7.map.api.primitives.AddressString;
 import org.restcomm.protocols.ss7.map.api.primitives.IMSI;
@@ -47,8 +48,10 @@ import java.util.Arrays;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 /**
  *
@@ -333,4 +336,54 @@ public class SendRoutingInfoForSMRequestTest {
         rawData = getEncodedData4();
         assertTrue(Arrays.equals(rawData, encodedData));
     }
+
+    @Test(groups = { "functional.decode", "service.sms" })
+    public void testDecodeLazy() throws Exception {
+
+        byte[][] datas = new byte[][] { getEncodedDataSimple(), getEncodedDataComplex(), getEncodedDataFull(), getEncodedData1(),
+                getEncodedData2(), getEncodedData3(), getEncodedData4() };
+        for (byte[] rawData : datas) {
+            AsnInputStream asn = new AsnInputStream(rawData);
+            asn.readTag();
+            SendRoutingInfoForSMRequestImpl ind = new SendRoutingInfoForSMRequestImpl();
+            ind.decodeAll(asn);
+
+            asn = new AsnInputStream(rawData);
+            asn.readTag();
+            int length = asn.readLength();
+            byte[] paramData = Arrays.copyOfRange(rawData, asn.position(), asn.position() + length);
+            SendRoutingInfoForSMRequestImpl lazyInd = new SendRoutingInfoForSMRequestImpl();
+            lazyInd.decodeDataLazy(paramData);
+
+            assertEquals(lazyInd.getMsisdn().getAddress(), ind.getMsisdn().getAddress());
+            assertEquals(lazyInd.getSm_RP_PRI(), ind.getSm_RP_PRI());
+            assertEquals(lazyInd.getGprsSupportIndicator(), ind.getGprsSupportIndicator());
+            assertEquals(lazyInd.getSM_RP_MTI(), ind.getSM_RP_MTI());
+            assertEquals(lazyInd.toString(), ind.toString());
+
+            AsnOutputStream asnOS = new AsnOutputStream();
+            lazyInd.encodeAll(asnOS);
+            assertTrue(Arrays.equals(asnOS.toByteArray(), rawData));
+        }
+
+        // a broken element is reported only when it is accessed
+        byte[] paramData = Arrays.copyOfRange(getEncodedDataComplex(), 2, 32);
+        paramData[0] = (byte) 0xA0;
+        SendRoutingInfoForSMRequestImpl lazyInd = new SendRoutingInfoForSMRequestImpl();
+        lazyInd.decodeDataLazy(paramData);
+        assertFalse(lazyInd.getSm_RP_PRI());
+        assertNotNull(lazyInd.getServiceCentreAddress());
+        try {
+            lazyInd.getMsisdn();
+            fail("Must be exception");
+        } catch (IllegalStateException e) {
+        }
+
+        // the mandatory element count is checked when the message is received
+        try {
+            lazyInd.decodeDataLazy(Arrays.copyOfRange(getEncodedDataSimple(), 2, 14));
+            fail("Must be exception");
+        } catch (MAPParsingComponentException e) {
+        }
+    }
 }
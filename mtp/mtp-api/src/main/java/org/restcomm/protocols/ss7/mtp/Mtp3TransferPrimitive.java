@@ -22,6 +22,8 @@
 
 package org.restcomm.protocols.ss7.mtp;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * @author sergey vetyutnev
  * @author amit bhayani
@@ -35,7 +37,10 @@ public class Mtp3TransferPrimitive {
     protected final int opc;
     protected final int dpc;
     protected final int sls;
-    protected final byte[] data;
+    protected byte[] data;
+    // MTP3 user data kept in a (pooled) buffer - the readable bytes are the user data, the space before the reader index
+    // is a headroom where a lower layer may encode its headers
+    protected ByteBuf dataBuf;
 
     private final RoutingLabelFormat pointCodeFormat;
 
@@ -52,6 +57,13 @@ public class Mtp3TransferPrimitive {
         this.pointCodeFormat = pointCodeFormat;
     }
 
+    protected Mtp3TransferPrimitive(int si, int ni, int mp, int opc, int dpc, int sls, ByteBuf dataBuf,
+            RoutingLabelFormat pointCodeFormat) {
+        this(si, ni, mp, opc, dpc, sls, (byte[]) null, pointCodeFormat);
+
+        this.dataBuf = dataBuf;
+    }
+
     public int getSi() {
         return this.si;
     }
@@ -76,19 +88,56 @@ public class Mtp3TransferPrimitive {
         return this.sls;
     }
 
+    /**
+     * Returns the MTP3 user data. If the primitive has been created with a data buffer the data is copied from the buffer
+     * at the first invoking
+     */
     public byte[] getData() {
+        if (this.data == null && this.dataBuf != null) {
+            byte[] res = new byte[this.dataBuf.readableBytes()];
+            this.dataBuf.getBytes(this.dataBuf.readerIndex(), res);
+            this.data = res;
+        }
         return this.data;
     }
 
+    /**
+     * Returns the buffer with the MTP3 user data or null if the primitive has been created with a byte array. Mtp3UserPart
+     * that sends the primitive takes over the buffer: it must either pass it to the transport or release it.
+     */
+    public ByteBuf getDataBuf() {
+        return this.dataBuf;
+    }
+
+    public int getDataLength() {
+        if (this.dataBuf != null)
+            return this.dataBuf.readableBytes();
+        if (this.data != null)
+            return this.data.length;
+        return 0;
+    }
+
+    /**
+     * Releases the data buffer if the primitive has one (when the primitive is dropped without sending)
+     */
+    public void releaseDataBuf() {
+        if (this.dataBuf != null) {
+            ByteBuf buf = this.dataBuf;
+            this.dataBuf = null;
+            buf.release();
+        }
+    }
+
     public byte[] encodeMtp3() {
 
         byte[] res = null;
         int ssi = 0;
+        byte[] data = this.getData();
 
         switch (this.pointCodeFormat) {
             case ITU:
 
-                res = new byte[this.data.length + 5];
+                res = new byte[data.length + 5];
 
                 // sio
                 ssi = (this.ni & 0x03) << 2 | (this.mp & 0x03);
@@ -101,12 +150,12 @@ public class Mtp3TransferPrimitive {
                 res[4] = (byte) (((this.opc >> 10) & 0x0F) | ((this.sls & 0x0F) << 4));
 
                 // msu data
-                System.arraycopy(this.data, 0, res, 5, this.data.length);
+                System.arraycopy(data, 0, res, 5, data.length);
 
                 break;
 
             case ANSI_Sls8Bit:
-                res = new byte[this.data.length + 8];
+                res = new byte[data.length + 8];
 
                 // sio
                 ssi = (this.ni & 0x03) << 2 | (this.mp & 0x03);
@@ -123,12 +172,12 @@ public class Mtp3TransferPrimitive {
                 res[7] = (byte) this.sls;
 
                 // msu data
-                System.arraycopy(this.data, 0, res, 8, this.data.length);
+                System.arraycopy(data, 0, res, 8, data.length);
 
                 break;
 
             case ANSI_Sls5Bit:
-                res = new byte[this.data.length + 8];
+                res = new byte[data.length + 8];
 
                 // sio
                 ssi = (this.ni & 0x03) << 2 | (this.mp & 0x03);
@@ -145,7 +194,7 @@ public class Mtp3TransferPrimitive {
                 res[7] = (byte) (this.sls & 0x1F);
 
                 // msu data
-                System.arraycopy(this.data, 0, res, 8, this.data.length);
+                System.arraycopy(data, 0, res, 8, data.length);
 
                 break;
 
@@ -168,9 +217,9 @@ public class Mtp3TransferPrimitive {
         sb.append(", SLS=");
         sb.append(this.sls);
 
-        if (this.data != null) {
+        if (this.data != null || this.dataBuf != null) {
             sb.append(", MsgLen=");
-            sb.append(this.data.length);
+            sb.append(this.getDataLength());
         }
 
         sb.append(", NI=");
@@ -21,6 +21,9 @@
  */
 package org.restcomm.protocols.ss7.mtp;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
 /**
  *
  * @author amit bhayani
@@ -30,8 +33,57 @@ public class Mtp3TransferPrimitiveFactory {
 
     private final RoutingLabelFormat pointCodeFormat;
 
+    private final ByteBufAllocator byteBufAllocator;
+    private final int dataHeadroom;
+    private final int dataTailroom;
+
     public Mtp3TransferPrimitiveFactory(RoutingLabelFormat pointCodeFormat) {
+        this(pointCodeFormat, null, 0, 0);
+    }
+
+    /**
+     * Creates a factory for a Mtp3UserPart that accepts MTP3 user data in buffers
+     *
+     * @param pointCodeFormat
+     * @param byteBufAllocator allocator for data buffers
+     * @param dataHeadroom the count of bytes that MTP3 users must reserve in a data buffer before the user data
+     * @param dataTailroom the count of bytes that MTP3 users must reserve in a data buffer after the user data
+     */
+    public Mtp3TransferPrimitiveFactory(RoutingLabelFormat pointCodeFormat, ByteBufAllocator byteBufAllocator,
+            int dataHeadroom, int dataTailroom) {
         this.pointCodeFormat = pointCodeFormat;
+        this.byteBufAllocator = byteBufAllocator;
+        this.dataHeadroom = dataHeadroom;
+        this.dataTailroom = dataTailroom;
+    }
+
+    /**
+     * @return an allocator for MTP3 user data buffers or null if the Mtp3UserPart expects the user data as byte arrays
+     */
+    public ByteBufAllocator getByteBufAllocator() {
+        return byteBufAllocator;
+    }
+
+    public int getDataHeadroom() {
+        return dataHeadroom;
+    }
+
+    public int getDataTailroom() {
+        return dataTailroom;
+    }
+
+    /**
+     * Allocates a buffer for MTP3 user data of the given length. The reader and writer indexes are set after the headroom.
+     * Returns null if the Mtp3UserPart does not support data buffers.
+     */
+    public ByteBuf allocateDataBuf(int dataLength) {
+        if (this.byteBufAllocator == null)
+            return null;
+
+        ByteBuf buf = this.byteBufAllocator.buffer(this.dataHeadroom + dataLength + this.dataTailroom);
+        buf.writerIndex(this.dataHeadroom);
+        buf.readerIndex(this.dataHeadroom);
+        return buf;
     }
 
     public Mtp3TransferPrimitive createMtp3TransferPrimitive(int si, int ni, int mp, int opc, int dpc, int sls, byte[] data) {
@@ -40,6 +92,16 @@ public class Mtp3TransferPrimitiveFactory {
         return mtp3TransferPrimitive;
     }
 
+    /**
+     * Creates a primitive that carries MTP3 user data in a buffer (allocated by {@link #allocateDataBuf(int)}). The
+     * ownership of the buffer passes to the primitive.
+     */
+    public Mtp3TransferPrimitive createMtp3TransferPrimitive(int si, int ni, int mp, int opc, int dpc, int sls, ByteBuf data) {
+        Mtp3TransferPrimitive mtp3TransferPrimitive = new Mtp3TransferPrimitive(si, ni, mp, opc, dpc, sls, data,
+                this.pointCodeFormat);
+        return mtp3TransferPrimitive;
+    }
+
     public Mtp3TransferPrimitive createMtp3TransferPrimitive(byte[] msg) {
         Mtp3TransferPrimitive mtp3TransferPrimitive = null;
 
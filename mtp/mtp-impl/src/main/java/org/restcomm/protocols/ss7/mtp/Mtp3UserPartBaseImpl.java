@@ -60,6 +60,9 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
     // Mtp3UserPartListener's
     // For single thread model this value should be equal 1
     protected int deliveryTransferMessageThreadCount = Runtime.getRuntime().availableProcessors() * 2;
+    // If > 0 Mtp3TransferMessage's are delivered via RingDeliveryExecutor with rings of this size instead of executors
+    protected int deliveryRingSize = 0;
+    protected RingDeliveryExecutor.WaitStrategy deliveryWaitStrategy = RingDeliveryExecutor.WaitStrategy.PARK;
     // RoutingLabeFormat option
     private RoutingLabelFormat routingLabelFormat = RoutingLabelFormat.ITU;
     // If set to true, lowest bit of SLS is used for loadbalancing between Linkset else highest bit of SLS is used.
@@ -70,6 +73,8 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
     private CopyOnWriteArrayList<Mtp3UserPartListener> userListeners = new CopyOnWriteArrayList<Mtp3UserPartListener>();
     // a thread pool for delivering Mtp3TransferMessage messages
     private ExecutorService[] msgDeliveryExecutors;
+    // ring based delivery engine for Mtp3TransferMessage messages (used instead of msgDeliveryExecutors if configured)
+    private RingDeliveryExecutor<Mtp3TransferPrimitive, Object> msgDeliveryRing;
     // a thread for delivering PAUSE, RESUME and STATUS messages
     private ScheduledExecutorService msgDeliveryExecutorSystem;
     private int[] slsTable = null;
@@ -102,6 +107,29 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
             this.deliveryTransferMessageThreadCount = deliveryMessageThreadCount;
     }
 
+    public int getDeliveryRingSize() {
+        return this.deliveryRingSize;
+    }
+
+    /**
+     * Sets the slot count of a delivery ring per delivery thread. 0 means that classic executors are used for delivering of
+     * Mtp3TransferMessage messages.
+     */
+    public void setDeliveryRingSize(int deliveryRingSize) throws Exception {
+        if (deliveryRingSize == 0
+                || (deliveryRingSize >= RingDeliveryExecutor.MIN_RING_SIZE && deliveryRingSize <= RingDeliveryExecutor.MAX_RING_SIZE))
+            this.deliveryRingSize = deliveryRingSize;
+    }
+
+    public RingDeliveryExecutor.WaitStrategy getDeliveryWaitStrategy() {
+        return this.deliveryWaitStrategy;
+    }
+
+    public void setDeliveryWaitStrategy(RingDeliveryExecutor.WaitStrategy deliveryWaitStrategy) throws Exception {
+        if (deliveryWaitStrategy != null)
+            this.deliveryWaitStrategy = deliveryWaitStrategy;
+    }
+
     @Override
     public void addMtp3UserPartListener(Mtp3UserPartListener listener) {
         this.userListeners.add(listener);
@@ -166,6 +194,14 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
         return executorCongestionMonitor;
     }
 
+    /**
+     * Creates Mtp3TransferPrimitiveFactory when starting. Mtp3UserPart implementations that accept MTP3 user data in
+     * buffers override it to supply the buffer allocator and header sizes.
+     */
+    protected Mtp3TransferPrimitiveFactory createMtp3TransferPrimitiveFactory(RoutingLabelFormat routingLabelFormat) {
+        return new Mtp3TransferPrimitiveFactory(routingLabelFormat);
+    }
+
     public void start() throws Exception {
         // lic dep 2
         ss7ExtInterface.startMtpSs7Ext(this.productName);
@@ -200,19 +236,29 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
 
         this.slsTable = new int[maxSls];
 
-        this.mtp3TransferPrimitiveFactory = new Mtp3TransferPrimitiveFactory(this.routingLabelFormat);
+        this.mtp3TransferPrimitiveFactory = this.createMtp3TransferPrimitiveFactory(this.routingLabelFormat);
 
         this.createSLSTable(this.deliveryTransferMessageThreadCount);
 
-        this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
-        for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
-            this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1, new DefaultThreadFactory("Mtp3-DeliveryExecutor-"
-                    + i));
+        if (this.deliveryRingSize > 0) {
+            this.msgDeliveryRing = new RingDeliveryExecutor<Mtp3TransferPrimitive, Object>("Mtp3-DeliveryExecutor-",
+                    this.deliveryTransferMessageThreadCount, this.deliveryRingSize, this.deliveryWaitStrategy,
+                    new MsgTransferRingHandler());
+            this.msgDeliveryRing.start();
+        } else {
+            this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
+            for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
+                this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1, new DefaultThreadFactory(
+                        "Mtp3-DeliveryExecutor-" + i));
+            }
         }
         this.msgDeliveryExecutorSystem = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory(
                 "Mtp3-DeliveryExecutorSystem"));
 
-        this.executorCongestionMonitor = new ExecutorCongestionMonitorImpl(productName, msgDeliveryExecutors);
+        if (this.msgDeliveryRing != null)
+            this.executorCongestionMonitor = new ExecutorCongestionMonitorImpl(productName, msgDeliveryRing);
+        else
+            this.executorCongestionMonitor = new ExecutorCongestionMonitorImpl(productName, msgDeliveryExecutors);
 
         this.isStarted = true;
 
@@ -226,8 +272,15 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
 
         this.isStarted = false;
 
-        for (ExecutorService es : this.msgDeliveryExecutors) {
-            es.shutdown();
+        if (this.msgDeliveryRing != null) {
+            this.msgDeliveryRing.stop();
+            this.msgDeliveryRing = null;
+        }
+        if (this.msgDeliveryExecutors != null) {
+            for (ExecutorService es : this.msgDeliveryExecutors) {
+                es.shutdown();
+            }
+            this.msgDeliveryExecutors = null;
         }
         this.msgDeliveryExecutorSystem.shutdown();
         this.executorCongestionMonitor = null;
@@ -250,10 +303,16 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
      */
     protected void sendTransferMessageToLocalUser(Mtp3TransferPrimitive msg, int seqControl) {
         if (this.isStarted) {
-            MsgTransferDeliveryHandler hdl = new MsgTransferDeliveryHandler(msg);
-
             seqControl = seqControl & slsFilter;
-            this.msgDeliveryExecutors[this.slsTable[seqControl]].execute(hdl);
+            RingDeliveryExecutor<Mtp3TransferPrimitive, Object> ring = this.msgDeliveryRing;
+            if (ring != null) {
+                if (!ring.execute(this.slsTable[seqControl], msg, null))
+                    logger.error(String.format(
+                            "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is stopping. Message will be dropped", msg));
+            } else {
+                MsgTransferDeliveryHandler hdl = new MsgTransferDeliveryHandler(msg);
+                this.msgDeliveryExecutors[this.slsTable[seqControl]].execute(hdl);
+            }
         } else {
             logger.error(String.format(
                     "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is not started. Message will be dropped", msg));
@@ -320,18 +379,29 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
 
         @Override
         public void run() {
-            if (isStarted) {
-                try {
-                    for (Mtp3UserPartListener lsn : userListeners) {
-                        lsn.onMtp3TransferMessage(this.msg);
-                    }
-                } catch (Throwable e) {
-                    logger.error("Exception while delivering a system messages to the MTP3-user: " + e.getMessage(), e);
+            deliverTransferMessage(this.msg);
+        }
+    }
+
+    private class MsgTransferRingHandler implements RingDeliveryExecutor.Handler<Mtp3TransferPrimitive, Object> {
+        @Override
+        public void onDelivery(Mtp3TransferPrimitive msg, Object context) {
+            deliverTransferMessage(msg);
+        }
+    }
+
+    private void deliverTransferMessage(Mtp3TransferPrimitive msg) {
+        if (isStarted) {
+            try {
+                for (Mtp3UserPartListener lsn : userListeners) {
+                    lsn.onMtp3TransferMessage(msg);
                 }
-            } else {
-                logger.error(String.format(
-                        "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is not started. Message will be dropped", msg));
+            } catch (Throwable e) {
+                logger.error("Exception while delivering a system messages to the MTP3-user: " + e.getMessage(), e);
             }
+        } else {
+            logger.error(String.format(
+                    "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is not started. Message will be dropped", msg));
         }
     }
 
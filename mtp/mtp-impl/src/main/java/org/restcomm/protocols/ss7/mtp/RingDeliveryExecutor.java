@@ -0,0 +1,367 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+import org.restcomm.ss7.congestion.ExecutorQueueMeter;
+
+/**
+ * Message delivery engine that is an alternative to a set of single thread executors. Every delivery stream has a
+ * pre-allocated ring buffer and one thread that drains it in batches and passes messages to the {@link Handler}. Any
+ * thread may publish into a ring, messages published by one thread into one stream are delivered in the publishing order
+ * (so per-SLS ordering is kept if SLS values are mapped to streams). No objects are created per message.
+ *
+ * When a ring is full a publishing thread waits until the delivery thread frees a slot. If a handler publishes a message
+ * into its own full ring the message is put into the overflow queue of the ring to avoid a deadlock, it is delivered after
+ * the messages that are already in the ring.
+ *
+ * Every ring measures how long messages wait before delivering, so it can be used as an {@link ExecutorQueueMeter} for
+ * congestion monitoring.
+ *
+ */
+public class RingDeliveryExecutor<M, C> implements ExecutorQueueMeter {
+
+    private static final Logger logger = Logger.getLogger(RingDeliveryExecutor.class);
+
+    public static final int MIN_RING_SIZE = 16;
+    public static final int MAX_RING_SIZE = 1 << 20;
+
+    private static final int MAX_BATCH_SIZE = 64;
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long CONSUMER_PARK_NANOS = 1000000;
+    private static final long PRODUCER_PARK_NANOS = 10000;
+
+    /**
+     * How a delivery thread waits for new messages. BUSY_SPIN gives the lowest latency but keeps a CPU core busy per
+     * stream, YIELD spins giving up the core to other threads, PARK spins for a short time and then parks until a message
+     * is published.
+     */
+    public enum WaitStrategy {
+        BUSY_SPIN, YIELD, PARK;
+    }
+
+    public interface Handler<M, C> {
+        void onDelivery(M msg, C context);
+    }
+
+    private final String name;
+    private final WaitStrategy waitStrategy;
+    private final Handler<M, C> handler;
+    private final Ring[] rings;
+
+    private volatile boolean running;
+
+    /**
+     * @param name thread name prefix
+     * @param streamCount the count of delivery streams (threads)
+     * @param ringSize the count of slots in a ring of every stream, it is rounded up to a power of two
+     * @param waitStrategy
+     * @param handler
+     */
+    public RingDeliveryExecutor(String name, int streamCount, int ringSize, WaitStrategy waitStrategy, Handler<M, C> handler) {
+        if (streamCount <= 0)
+            throw new IllegalArgumentException("streamCount must be positive: " + streamCount);
+        if (ringSize > MAX_RING_SIZE)
+            throw new IllegalArgumentException("ringSize must not be greater than " + MAX_RING_SIZE + ": " + ringSize);
+
+        this.name = name;
+        this.waitStrategy = waitStrategy != null ? waitStrategy : WaitStrategy.PARK;
+        this.handler = handler;
+
+        int capacity = MIN_RING_SIZE;
+        while (capacity < ringSize) {
+            capacity <<= 1;
+        }
+        this.rings = new Ring[streamCount];
+        for (int i1 = 0; i1 < streamCount; i1++) {
+            this.rings[i1] = new Ring(capacity);
+        }
+    }
+
+    public int getStreamCount() {
+        return this.rings.length;
+    }
+
+    public int getRingSize() {
+        return this.rings[0].capacity;
+    }
+
+    public WaitStrategy getWaitStrategy() {
+        return this.waitStrategy;
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    public void start() {
+        if (this.running)
+            return;
+
+        this.running = true;
+        for (int i1 = 0; i1 < this.rings.length; i1++) {
+            final Ring ring = this.rings[i1];
+            Thread thread = new DefaultThreadFactory(this.name + i1).newThread(new Runnable() {
+                @Override
+                public void run() {
+                    consume(ring);
+                }
+            });
+            ring.thread = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Stops delivery threads. Messages that are still in rings are dropped.
+     */
+    public void stop() {
+        if (!this.running)
+            return;
+
+        this.running = false;
+        for (Ring ring : this.rings) {
+            Thread thread = ring.thread;
+            if (thread != null)
+                LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Puts a message into a ring of the stream.
+     *
+     * @return false if the executor is not running and the message has been dropped
+     */
+    public boolean execute(int stream, M msg, C context) {
+        Ring ring = this.rings[stream];
+        boolean own = Thread.currentThread() == ring.thread;
+        int tries = 0;
+        while (this.running) {
+            // once the overflow queue is used the own messages follow the spilled ones
+            if (own && !ring.overflow.isEmpty()) {
+                ring.spill(msg, context);
+                return true;
+            }
+
+            if (ring.offer(msg, context))
+                return true;
+
+            if (own) {
+                // a handler publishes into its own full ring - nobody else can free a slot
+                ring.spill(msg, context);
+                return true;
+            }
+
+            if (tries < SPIN_TRIES) {
+                tries++;
+            } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+                tries++;
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        long res = 0;
+        for (Ring ring : this.rings) {
+            res += ring.claimed.get() - ring.consumed + ring.spilled;
+        }
+        return (int) res;
+    }
+
+    @Override
+    public double getMaxQueueDelay() {
+        long now = System.nanoTime();
+        long maxWait = 0;
+        for (Ring ring : this.rings) {
+            long wait = ring.maxWait.getAndSet(0);
+            if (maxWait < wait)
+                maxWait = wait;
+            wait = ring.oldestWait(now);
+            if (maxWait < wait)
+                maxWait = wait;
+        }
+        return (double) maxWait / 1000000000;
+    }
+
+    private void deliver(M msg, C context) {
+        try {
+            this.handler.onDelivery(msg, context);
+        } catch (Throwable e) {
+            logger.error("Exception while delivering a message in " + this.name + ": " + e.getMessage(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void consume(Ring ring) {
+        long next = ring.consumed;
+        int idle = 0;
+        while (this.running) {
+            // spilled messages are delivered once all messages that were in the ring before them are delivered
+            Spilled spilled = ring.overflow.peek();
+            if (spilled != null && spilled.seq <= next) {
+                ring.overflow.poll();
+                ring.spilled--;
+                deliver((M) spilled.msg, (C) spilled.context);
+                continue;
+            }
+
+            if (ring.published.get((int) next & ring.mask) != next + 1) {
+                idle = this.waitForMessage(ring, next, idle);
+                continue;
+            }
+            idle = 0;
+
+            long end = next + 1;
+            while (end - next < MAX_BATCH_SIZE && ring.published.get((int) end & ring.mask) == end + 1) {
+                end++;
+            }
+
+            // the first message of a batch is the oldest one
+            long wait = System.nanoTime() - ring.enqueueTimes[(int) next & ring.mask];
+            if (wait > ring.maxWait.get())
+                ring.maxWait.set(wait);
+
+            for (long seq = next; seq < end; seq++) {
+                int idx = (int) seq & ring.mask;
+                M msg = (M) ring.messages[idx];
+                C context = (C) ring.contexts[idx];
+                ring.messages[idx] = null;
+                ring.contexts[idx] = null;
+                deliver(msg, context);
+            }
+            next = end;
+            ring.consumed = next;
+        }
+    }
+
+    private int waitForMessage(Ring ring, long next, int idle) {
+        switch (this.waitStrategy) {
+            case BUSY_SPIN:
+                return idle;
+            case YIELD:
+                Thread.yield();
+                return idle;
+            default:
+                if (idle < SPIN_TRIES)
+                    return idle + 1;
+                ring.parked = true;
+                if (this.running && ring.published.get((int) next & ring.mask) != next + 1)
+                    LockSupport.parkNanos(this, CONSUMER_PARK_NANOS);
+                ring.parked = false;
+                return idle;
+        }
+    }
+
+    private static final class Spilled {
+        private final Object msg;
+        private final Object context;
+        // the ring sequence that was next to claim when the message was spilled
+        private final long seq;
+
+        Spilled(Object msg, Object context, long seq) {
+            this.msg = msg;
+            this.context = context;
+            this.seq = seq;
+        }
+    }
+
+    private static final class Ring {
+        private final int capacity;
+        private final int mask;
+        private final Object[] messages;
+        private final Object[] contexts;
+        private final long[] enqueueTimes;
+        // a slot contains sequence+1 when a message with the sequence has been published into it
+        private final AtomicLongArray published;
+        // the next sequence to be claimed by a publisher
+        private final AtomicLong claimed = new AtomicLong(0);
+        // the next sequence to be delivered, only the delivery thread updates it
+        private volatile long consumed;
+        private volatile boolean parked;
+        private final AtomicLong maxWait = new AtomicLong(0);
+        private volatile Thread thread;
+        // messages the delivery thread has published into its own full ring, only the delivery thread uses it
+        private final ArrayDeque<Spilled> overflow = new ArrayDeque<Spilled>();
+        private volatile int spilled;
+
+        Ring(int capacity) {
+            this.capacity = capacity;
+            this.mask = capacity - 1;
+            this.messages = new Object[capacity];
+            this.contexts = new Object[capacity];
+            this.enqueueTimes = new long[capacity];
+            this.published = new AtomicLongArray(capacity);
+        }
+
+        boolean offer(Object msg, Object context) {
+            long seq;
+            do {
+                seq = this.claimed.get();
+                if (seq - this.consumed >= this.capacity)
+                    return false;
+            } while (!this.claimed.compareAndSet(seq, seq + 1));
+
+            int idx = (int) seq & this.mask;
+            this.messages[idx] = msg;
+            this.contexts[idx] = context;
+            this.enqueueTimes[idx] = System.nanoTime();
+            // volatile write is needed here so the parked flag below is not read before the slot is published
+            this.published.set(idx, seq + 1);
+
+            if (this.parked) {
+                Thread t = this.thread;
+                if (t != null)
+                    LockSupport.unpark(t);
+            }
+            return true;
+        }
+
+        void spill(Object msg, Object context) {
+            this.overflow.offer(new Spilled(msg, context, this.claimed.get()));
+            this.spilled++;
+        }
+
+        long oldestWait(long now) {
+            long seq = this.consumed;
+            int idx = (int) seq & this.mask;
+            if (this.published.get(idx) != seq + 1)
+                return 0;
+            long wait = now - this.enqueueTimes[idx];
+            return wait > 0 ? wait : 0;
+        }
+    }
+
+}
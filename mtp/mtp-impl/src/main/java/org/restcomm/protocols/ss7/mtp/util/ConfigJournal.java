@@ -0,0 +1,499 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp.util;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javolution.xml.XMLBinding;
+import javolution.xml.XMLObjectReader;
+import javolution.xml.XMLObjectWriter;
+import javolution.xml.stream.XMLStreamException;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Incremental persistence of a configuration: a snapshot file (in the format of the configuration owner, for example the
+ * existing XML configuration file) and an append-only journal of changes made after the snapshot was written.
+ *
+ * A configuration owner appends a record for every changed entity ({@link #put(String, String, String)},
+ * {@link #remove(String, String)}) instead of rewriting the whole configuration. Records are written in batches by a
+ * background thread. When the journal has collected compactThreshold records the snapshot is written again and the
+ * journal is truncated. Changes that are not journaled are persisted by a new snapshot: {@link #storeLater()} writes it
+ * in the background, {@link #store()} writes it before returning.
+ *
+ * A snapshot is captured under the monitor of the journal by the thread that requests it (or appends the record that
+ * triggers a compaction), only the file writing is done in the background. An owner appends a record after the change
+ * has been applied and its SnapshotWriter must not take locks the owner holds while appending records.
+ *
+ * At startup the owner loads the snapshot as before and then applies the journal by {@link #replay(RecordHandler)}.
+ * Records are replayed in the order they were appended, "put" and "remove" records must be idempotent.
+ *
+ * Journal line format: "P\ttype\tkey\tvalue" or "R\ttype\tkey", tab, line feed and backslash are escaped.
+ */
+public class ConfigJournal {
+
+    private static final Logger logger = Logger.getLogger(ConfigJournal.class);
+
+    public static final String JOURNAL_SUFFIX = ".journal";
+    public static final int DEFAULT_COMPACT_THRESHOLD = 5000;
+
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String OLD_SUFFIX = ".old";
+    private static final long BATCH_DELAY = 20;
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final char OP_PUT = 'P';
+    private static final char OP_REMOVE = 'R';
+
+    private static ScheduledExecutorService writerExecutor;
+
+    public interface SnapshotWriter {
+        /**
+         * Writes the whole configuration into out
+         */
+        void writeSnapshot(OutputStream out) throws Exception;
+    }
+
+    public interface RecordHandler {
+        void put(String type, String key, String value) throws Exception;
+
+        void remove(String type, String key) throws Exception;
+    }
+
+    private final File snapshotFile;
+    private final File tmpFile;
+    private final File journalFile;
+    private final File oldJournalFile;
+    private final SnapshotWriter snapshotWriter;
+    private int compactThreshold = DEFAULT_COMPACT_THRESHOLD;
+
+    // guarded by this
+    private byte[] pendingSnapshot;
+    private final StringBuilder pendingRecords = new StringBuilder();
+    private int journalRecords;
+    private boolean scheduled;
+
+    // serializes file operations
+    private final Object ioLock = new Object();
+
+    private final Runnable drainTask = new Runnable() {
+        public void run() {
+            drain();
+        }
+    };
+
+    public ConfigJournal(String snapshotFile, SnapshotWriter snapshotWriter) {
+        this.snapshotFile = new File(snapshotFile);
+        this.tmpFile = new File(snapshotFile + TMP_SUFFIX);
+        this.journalFile = new File(snapshotFile + JOURNAL_SUFFIX);
+        this.oldJournalFile = new File(snapshotFile + JOURNAL_SUFFIX + OLD_SUFFIX);
+        this.snapshotWriter = snapshotWriter;
+    }
+
+    private static synchronized ScheduledExecutorService getWriterExecutor() {
+        if (writerExecutor == null) {
+            writerExecutor = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory("ConfigJournal", true));
+        }
+        return writerExecutor;
+    }
+
+    public File getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public File getJournalFile() {
+        return journalFile;
+    }
+
+    public int getCompactThreshold() {
+        return compactThreshold;
+    }
+
+    /**
+     * Sets the count of journal records after which the snapshot is written again
+     */
+    public void setCompactThreshold(int compactThreshold) {
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * @return the count of records appended after the last snapshot
+     */
+    public synchronized int getJournalRecords() {
+        return journalRecords;
+    }
+
+    /**
+     * Journals adding or updating of an entity
+     */
+    public void put(String type, String key, String value) {
+        this.append(OP_PUT, type, key, value);
+    }
+
+    /**
+     * Journals removing of an entity
+     */
+    public void remove(String type, String key) {
+        this.append(OP_REMOVE, type, key, null);
+    }
+
+    private void append(char op, String type, String key, String value) {
+        synchronized (this) {
+            pendingRecords.append(op).append('\t');
+            escape(pendingRecords, type);
+            pendingRecords.append('\t');
+            escape(pendingRecords, key);
+            if (value != null) {
+                pendingRecords.append('\t');
+                escape(pendingRecords, value);
+            }
+            pendingRecords.append('\n');
+
+            journalRecords++;
+            if (journalRecords >= compactThreshold)
+                this.capture();
+            this.schedule();
+        }
+    }
+
+    /**
+     * Captures a new snapshot that replaces the journal and writes it before returning
+     */
+    public void store() {
+        synchronized (this) {
+            if (!this.capture())
+                return;
+        }
+        this.drain();
+    }
+
+    /**
+     * Captures a new snapshot that replaces the journal, files are written by the background thread
+     */
+    public synchronized void storeLater() {
+        if (this.capture())
+            this.schedule();
+    }
+
+    // guarded by this
+    private boolean capture() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            this.snapshotWriter.writeSnapshot(out);
+            // all pending records are already in the snapshot
+            pendingSnapshot = out.toByteArray();
+            pendingRecords.setLength(0);
+            journalRecords = 0;
+            return true;
+        } catch (Exception e) {
+            logger.error(String.format("Error while capturing the configuration snapshot for %s", snapshotFile), e);
+            return false;
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            getWriterExecutor().schedule(drainTask, BATCH_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Waits until all records and snapshots requested before are written
+     */
+    public void flush() {
+        Future<?> f = getWriterExecutor().submit(drainTask);
+        try {
+            f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error(String.format("Error while flushing the configuration journal for %s", snapshotFile), e);
+        }
+    }
+
+    private void drain() {
+        synchronized (ioLock) {
+            byte[] snapshot;
+            String records;
+            synchronized (this) {
+                snapshot = pendingSnapshot;
+                pendingSnapshot = null;
+                records = pendingRecords.length() > 0 ? pendingRecords.toString() : null;
+                pendingRecords.setLength(0);
+                scheduled = false;
+            }
+
+            try {
+                if (snapshot != null)
+                    this.writeSnapshotFile(snapshot);
+                if (records != null)
+                    this.appendJournalFile(records.getBytes(UTF8));
+            } catch (IOException e) {
+                logger.error(String.format("Error while persisting the configuration into %s", snapshotFile), e);
+            }
+        }
+    }
+
+    private void writeSnapshotFile(byte[] data) throws IOException {
+        FileOutputStream out = new FileOutputStream(tmpFile);
+        try {
+            out.write(data);
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+
+        // the journal is kept until the new snapshot replaces the old one, see recover()
+        if (journalFile.exists())
+            move(journalFile, oldJournalFile);
+        move(tmpFile, snapshotFile);
+        oldJournalFile.delete();
+    }
+
+    private void appendJournalFile(byte[] data) throws IOException {
+        FileOutputStream out = new FileOutputStream(journalFile, true);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void move(File from, File to) throws IOException {
+        try {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(from.toPath(), to.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Brings files to a consistent state after a failure in the middle of writing of a snapshot or a journal record
+     */
+    private void recover() throws IOException {
+        if (oldJournalFile.exists()) {
+            if (tmpFile.exists()) {
+                // the old snapshot has not been replaced, its journal is still needed
+                truncateIncompleteRecord(oldJournalFile);
+                if (journalFile.exists()) {
+                    InputStream in = new FileInputStream(journalFile);
+                    OutputStream out = new FileOutputStream(oldJournalFile, true);
+                    try {
+                        byte[] buf = new byte[8192];
+                        int n;
+                        while ((n = in.read(buf)) > 0) {
+                            out.write(buf, 0, n);
+                        }
+                    } finally {
+                        in.close();
+                        out.close();
+                    }
+                }
+                move(oldJournalFile, journalFile);
+            } else {
+                oldJournalFile.delete();
+            }
+        }
+        tmpFile.delete();
+
+        // records appended later must not be glued to a partly written last record
+        if (journalFile.exists())
+            truncateIncompleteRecord(journalFile);
+    }
+
+    /**
+     * Cuts the file after its last line feed
+     */
+    private static void truncateIncompleteRecord(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            long len = raf.length();
+            long pos = len;
+            byte[] buf = new byte[8192];
+            while (pos > 0) {
+                int n = (int) Math.min(buf.length, pos);
+                raf.seek(pos - n);
+                raf.readFully(buf, 0, n);
+                int i1 = n - 1;
+                while (i1 >= 0 && buf[i1] != '\n') {
+                    i1--;
+                }
+                if (i1 >= 0) {
+                    pos = pos - n + i1 + 1;
+                    break;
+                }
+                pos -= n;
+            }
+            if (pos < len) {
+                logger.warn(String.format("Dropped a partly written record of the configuration journal %s", file));
+                raf.setLength(pos);
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Applies journal records to the loaded snapshot. Records that can not be parsed or applied are logged and skipped, a
+     * partly written last record is removed from the journal.
+     *
+     * @return the count of replayed records
+     */
+    public int replay(RecordHandler handler) throws IOException {
+        int cnt = 0;
+        synchronized (ioLock) {
+            this.recover();
+            if (journalFile.exists()) {
+                BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), UTF8));
+                try {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        if (line.length() == 0)
+                            continue;
+                        String[] fields = line.split("\t", -1);
+                        try {
+                            if (line.charAt(0) == OP_PUT && fields.length == 4) {
+                                handler.put(unescape(fields[1]), unescape(fields[2]), unescape(fields[3]));
+                            } else if (line.charAt(0) == OP_REMOVE && fields.length == 3) {
+                                handler.remove(unescape(fields[1]), unescape(fields[2]));
+                            } else {
+                                logger.warn(String.format("Bad record in the configuration journal %s: %s", journalFile, line));
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            logger.warn(String.format("Failed to apply a record of the configuration journal %s: %s",
+                                    journalFile, line), e);
+                        }
+                        cnt++;
+                    }
+                } finally {
+                    br.close();
+                }
+            }
+        }
+
+        synchronized (this) {
+            journalRecords += cnt;
+        }
+        if (cnt > 0)
+            logger.info(String.format("Replayed %d records of the configuration journal %s", cnt, journalFile));
+        return cnt;
+    }
+
+    private static void escape(StringBuilder sb, String s) {
+        for (int i1 = 0; i1 < s.length(); i1++) {
+            char c = s.charAt(i1);
+            switch (c) {
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0)
+            return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i1 = 0; i1 < s.length(); i1++) {
+            char c = s.charAt(i1);
+            if (c == '\\' && i1 + 1 < s.length()) {
+                char c2 = s.charAt(++i1);
+                switch (c2) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(c2);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Serializes one configuration entity into a journal record value
+     */
+    public static <T> String toXml(T obj, String name, Class<T> cls, XMLBinding binding) throws XMLStreamException {
+        StringWriter sw = new StringWriter();
+        XMLObjectWriter writer = XMLObjectWriter.newInstance(sw);
+        writer.setBinding(binding);
+        writer.write(obj, name, cls);
+        writer.close();
+        return sw.toString();
+    }
+
+    /**
+     * Deserializes one configuration entity from a journal record value
+     */
+    public static <T> T fromXml(String xml, String name, Class<T> cls, XMLBinding binding) throws XMLStreamException {
+        XMLObjectReader reader = XMLObjectReader.newInstance(new StringReader(xml));
+        reader.setBinding(binding);
+        T res = reader.read(name, cls);
+        reader.close();
+        return res;
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * Test for RingDeliveryExecutor ordering and backpressure
+ *
+ */
+public class RingDeliveryExecutorTest {
+
+    @Test(groups = { "functional" })
+    public void testOrdering() throws Exception {
+        testOrdering(RingDeliveryExecutor.WaitStrategy.PARK);
+        testOrdering(RingDeliveryExecutor.WaitStrategy.YIELD);
+        testOrdering(RingDeliveryExecutor.WaitStrategy.BUSY_SPIN);
+    }
+
+    private void testOrdering(RingDeliveryExecutor.WaitStrategy waitStrategy) throws Exception {
+        final int producerCount = 4;
+        final int streamCount = 2;
+        final int perProducer = 20000;
+        final int[][] lastReceived = new int[producerCount][streamCount];
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch received = new CountDownLatch(producerCount * perProducer);
+
+        // a message is {producer, stream, sequence}, the context is the delivery stream
+        RingDeliveryExecutor.Handler<int[], Integer> handler = new RingDeliveryExecutor.Handler<int[], Integer>() {
+            @Override
+            public void onDelivery(int[] msg, Integer context) {
+                if (msg[1] != context || lastReceived[msg[0]][msg[1]] != msg[2] - 1)
+                    errors.incrementAndGet();
+                lastReceived[msg[0]][msg[1]] = msg[2];
+                received.countDown();
+            }
+        };
+        // small rings so that producers have to wait for free slots
+        final RingDeliveryExecutor<int[], Integer> executor = new RingDeliveryExecutor<int[], Integer>("Test-", streamCount,
+                16, waitStrategy, handler);
+        assertEquals(executor.getRingSize(), 16);
+        executor.start();
+
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int i1 = 0; i1 < producerCount; i1++) {
+            final int producer = i1;
+            new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        int[] seq = new int[streamCount];
+                        for (int i2 = 0; i2 < perProducer; i2++) {
+                            int stream = i2 % streamCount;
+                            executor.execute(stream, new int[] { producer, stream, ++seq[stream] }, stream);
+                        }
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+
+        assertTrue(received.await(30, TimeUnit.SECONDS));
+        assertEquals(errors.get(), 0);
+        // the delivery thread moves the consumed position after the whole batch has been delivered
+        for (int i1 = 0; i1 < 100 && executor.getQueueDepth() != 0; i1++) {
+            Thread.sleep(10);
+        }
+        assertEquals(executor.getQueueDepth(), 0);
+        assertTrue(executor.getMaxQueueDelay() >= 0);
+
+        executor.stop();
+        assertFalse(executor.execute(0, new int[] { 0, 0, 0 }, 0));
+    }
+
+    @Test(groups = { "functional" })
+    public void testReentrantDelivery() throws Exception {
+        final List<Integer> delivered = new ArrayList<Integer>();
+        final CountDownLatch done = new CountDownLatch(1);
+        final RingDeliveryExecutor<Integer, Object>[] holder = new RingDeliveryExecutor[1];
+
+        RingDeliveryExecutor.Handler<Integer, Object> handler = new RingDeliveryExecutor.Handler<Integer, Object>() {
+            @Override
+            public void onDelivery(Integer msg, Object context) {
+                delivered.add(msg);
+                if (msg == 0) {
+                    // the ring overflows while the delivery thread publishes into it
+                    for (int i1 = 1; i1 <= 100; i1++) {
+                        holder[0].execute(0, i1, null);
+                    }
+                }
+                if (delivered.size() == 101)
+                    done.countDown();
+            }
+        };
+        holder[0] = new RingDeliveryExecutor<Integer, Object>("Test-", 1, 16, RingDeliveryExecutor.WaitStrategy.PARK, handler);
+        holder[0].start();
+
+        holder[0].execute(0, 0, null);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        holder[0].stop();
+
+        // messages that did not fit into the ring are delivered after the ones in it
+        for (int i1 = 0; i1 <= 100; i1++) {
+            assertEquals(delivered.get(i1), Integer.valueOf(i1));
+        }
+    }
+
+}
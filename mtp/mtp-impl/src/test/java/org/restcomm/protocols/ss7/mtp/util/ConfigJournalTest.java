@@ -0,0 +1,150 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.mtp.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for ConfigJournal batching, compaction and replay
+ *
+ */
+public class ConfigJournalTest {
+
+    private File snapshotFile;
+    private Map<String, String> config;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        snapshotFile = File.createTempFile("ConfigJournalTest", ".xml");
+        snapshotFile.delete();
+        new File(snapshotFile + ConfigJournal.JOURNAL_SUFFIX).delete();
+        config = new TreeMap<String, String>();
+    }
+
+    private ConfigJournal createJournal() {
+        return new ConfigJournal(snapshotFile.toString(), new ConfigJournal.SnapshotWriter() {
+            public void writeSnapshot(OutputStream out) throws Exception {
+                out.write(config.toString().getBytes("UTF-8"));
+            }
+        });
+    }
+
+    private Map<String, String> replay(ConfigJournal journal) throws Exception {
+        final Map<String, String> res = new TreeMap<String, String>();
+        journal.replay(new ConfigJournal.RecordHandler() {
+            public void put(String type, String key, String value) {
+                res.put(type + "/" + key, value);
+            }
+
+            public void remove(String type, String key) {
+                res.remove(type + "/" + key);
+            }
+        });
+        return res;
+    }
+
+    @Test(groups = { "functional" })
+    public void testJournalReplay() throws Exception {
+        ConfigJournal journal = createJournal();
+        journal.store();
+        assertEquals(new String(Files.readAllBytes(snapshotFile.toPath()), "UTF-8"), "{}");
+
+        journal.put("sap", "1", "<value a=\"1\"/>");
+        journal.put("sap", "2", "tab\tline\nbackslash\\");
+        journal.put("sap", "3", "3");
+        journal.remove("sap", "1");
+        journal.flush();
+        assertEquals(journal.getJournalRecords(), 4);
+
+        Map<String, String> res = replay(createJournal());
+        assertEquals(res.size(), 2);
+        assertEquals(res.get("sap/2"), "tab\tline\nbackslash\\");
+        assertEquals(res.get("sap/3"), "3");
+
+        // a partly written last record is skipped and removed, records appended later are replayed
+        OutputStream out = new FileOutputStream(journal.getJournalFile(), true);
+        out.write("P\tsap".getBytes("UTF-8"));
+        out.close();
+        journal = createJournal();
+        assertEquals(replay(journal).size(), 2);
+        journal.put("sap", "4", "4");
+        journal.flush();
+        res = replay(createJournal());
+        assertEquals(res.size(), 3);
+        assertEquals(res.get("sap/4"), "4");
+    }
+
+    @Test(groups = { "functional" })
+    public void testCompaction() throws Exception {
+        ConfigJournal journal = createJournal();
+        journal.setCompactThreshold(10);
+        for (int i1 = 0; i1 < 25; i1++) {
+            config.put("k" + i1, "v");
+            journal.put("k", String.valueOf(i1), "v");
+        }
+        journal.flush();
+
+        // two compactions, the last 5 records are kept in the journal
+        assertEquals(journal.getJournalRecords(), 5);
+        assertEquals(replay(createJournal()).size(), 5);
+        assertTrue(new String(Files.readAllBytes(snapshotFile.toPath()), "UTF-8").contains("k19=v"));
+
+        journal.store();
+        assertFalse(journal.getJournalFile().exists());
+        assertEquals(replay(createJournal()).size(), 0);
+    }
+
+    @Test(groups = { "functional" })
+    public void testRecovery() throws Exception {
+        ConfigJournal journal = createJournal();
+        journal.store();
+        journal.put("k", "1", "v1");
+        journal.flush();
+
+        // a snapshot writing was interrupted before the old snapshot was replaced
+        File journalFile = journal.getJournalFile();
+        File oldJournalFile = new File(journalFile + ".old");
+        File tmpFile = new File(snapshotFile + ".tmp");
+        assertTrue(journalFile.renameTo(oldJournalFile));
+        Files.write(tmpFile.toPath(), "{k=v1, k2=v2}".getBytes("UTF-8"));
+        Files.write(journalFile.toPath(), "P\tk\t2\tv2\n".getBytes("UTF-8"));
+
+        Map<String, String> res = replay(createJournal());
+        assertEquals(res.size(), 2);
+        assertFalse(tmpFile.exists());
+        assertFalse(oldJournalFile.exists());
+    }
+
+}
@@ -0,0 +1,290 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Immutable digit string that is kept in its packed semi-octet form (two digits per byte, the first digit in the low
+ * nibble). Decoded address digits can be encoded again by copying the packed bytes, compared and hashed without
+ * building a String. The String representation is created at the first {@link #toString()} invoking.
+ *
+ * Two alphabets are supported: TBCD (digits 0-9, *, #, a, b, c, the nibble 0xF is a filler) as used by MAP / CAP
+ * address strings and BCD (hex digits, the filler of an odd digit string is 0) as used by SCCP global titles.
+ */
+public final class DigitString implements CharSequence, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final char[] TBCD_DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', '*', '#', 'a', 'b', 'c',
+            0 };
+    private static final char[] BCD_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static final int TBCD_FILLER = 0x0F;
+    private static final int BCD_FILLER = 0x00;
+
+    private final byte[] packed;
+    private final int length;
+    private final boolean tbcd;
+
+    private transient String text;
+    private transient int hash;
+
+    private DigitString(byte[] packed, int length, boolean tbcd) {
+        this.packed = packed;
+        this.length = length;
+        this.tbcd = tbcd;
+    }
+
+    /**
+     * Creates a TBCD digit string from len bytes of buf starting with pos. Filler nibbles (0xF) are skipped like
+     * TbcdString decoding does.
+     */
+    public static DigitString decodeTbcd(byte[] buf, int pos, int len) {
+        // the common case: no fillers except the last high nibble of an odd digit string
+        boolean fast = true;
+        for (int i1 = 0; i1 < len; i1++) {
+            int b = buf[pos + i1];
+            if ((b & 0x0F) == TBCD_FILLER || ((b & 0xF0) == 0xF0 && i1 != len - 1)) {
+                fast = false;
+                break;
+            }
+        }
+        if (fast) {
+            int cnt = len * 2;
+            if (len > 0 && (buf[pos + len - 1] & 0xF0) == 0xF0)
+                cnt--;
+            return new DigitString(Arrays.copyOfRange(buf, pos, pos + len), cnt, true);
+        }
+
+        // fillers in the middle: compacting digits
+        byte[] res = new byte[len];
+        int cnt = 0;
+        for (int i1 = 0; i1 < len * 2; i1++) {
+            int b = buf[pos + i1 / 2];
+            int d = (i1 % 2 == 0) ? (b & 0x0F) : ((b >> 4) & 0x0F);
+            if (d == TBCD_FILLER)
+                continue;
+            if (cnt % 2 == 0)
+                res[cnt / 2] = (byte) d;
+            else
+                res[cnt / 2] |= (byte) (d << 4);
+            cnt++;
+        }
+        return new DigitString(finish(res, cnt, TBCD_FILLER), cnt, true);
+    }
+
+    /**
+     * Creates a BCD digit string from len bytes of buf starting with pos. If odd is true the high nibble of the last
+     * byte is a filler and is not a digit.
+     */
+    public static DigitString decodeBcd(byte[] buf, int pos, int len, boolean odd) {
+        int cnt = len * 2;
+        if (odd && cnt > 0)
+            cnt--;
+        return new DigitString(finish(Arrays.copyOfRange(buf, pos, pos + len), cnt, BCD_FILLER), cnt, false);
+    }
+
+    /**
+     * Creates a TBCD digit string from its text representation.
+     *
+     * @throws IllegalArgumentException if digits contains a char that is not 0-9, *, #, a, b, c
+     */
+    public static DigitString valueOfTbcd(CharSequence digits) {
+        int cnt = digits.length();
+        byte[] res = new byte[(cnt + 1) / 2];
+        for (int i1 = 0; i1 < cnt; i1++) {
+            int d = tbcdDigit(digits.charAt(i1));
+            if (i1 % 2 == 0)
+                res[i1 / 2] = (byte) d;
+            else
+                res[i1 / 2] |= (byte) (d << 4);
+        }
+        return new DigitString(finish(res, cnt, TBCD_FILLER), cnt, true);
+    }
+
+    private static int tbcdDigit(char c) {
+        switch (c) {
+            case '*':
+                return 10;
+            case '#':
+                return 11;
+            case 'a':
+            case 'A':
+                return 12;
+            case 'b':
+            case 'B':
+                return 13;
+            case 'c':
+            case 'C':
+                return 14;
+            default:
+                if (c >= '0' && c <= '9')
+                    return c - '0';
+                throw new IllegalArgumentException(
+                        "char should be between 0 - 9, *, #, a, b, c for Telephony Binary Coded Decimal String. Received " + c);
+        }
+    }
+
+    private static byte[] finish(byte[] res, int cnt, int filler) {
+        int packedLen = (cnt + 1) / 2;
+        if (res.length != packedLen)
+            res = Arrays.copyOf(res, packedLen);
+        if (cnt % 2 != 0)
+            res[packedLen - 1] = (byte) ((res[packedLen - 1] & 0x0F) | (filler << 4));
+        return res;
+    }
+
+    /**
+     * @return true for TBCD digit strings, false for BCD ones
+     */
+    public boolean isTbcd() {
+        return this.tbcd;
+    }
+
+    @Override
+    public int length() {
+        return this.length;
+    }
+
+    /**
+     * @return the nibble value of the digit at the index
+     */
+    public int digitAt(int index) {
+        if (index < 0 || index >= this.length)
+            throw new IndexOutOfBoundsException("index=" + index + ", length=" + this.length);
+        int b = this.packed[index >> 1];
+        return (index & 1) == 0 ? (b & 0x0F) : ((b >> 4) & 0x0F);
+    }
+
+    @Override
+    public char charAt(int index) {
+        int d = this.digitAt(index);
+        return this.tbcd ? TBCD_DIGITS[d] : BCD_DIGITS[d];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return this.toString().subSequence(start, end);
+    }
+
+    /**
+     * @return the count of bytes the packed digits take
+     */
+    public int getPackedLength() {
+        return this.packed.length;
+    }
+
+    /**
+     * Writes the packed digits (with the filler nibble for an odd count of digits)
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(this.packed);
+    }
+
+    /**
+     * Copies the packed digits into buf starting with offset
+     *
+     * @return the position after the last written byte
+     */
+    public int copyTo(byte[] buf, int offset) {
+        System.arraycopy(this.packed, 0, buf, offset, this.packed.length);
+        return offset + this.packed.length;
+    }
+
+    public byte[] toByteArray() {
+        return this.packed.clone();
+    }
+
+    public boolean startsWith(CharSequence prefix) {
+        int cnt = prefix.length();
+        if (cnt > this.length)
+            return false;
+        if (prefix instanceof DigitString && ((DigitString) prefix).tbcd == this.tbcd) {
+            DigitString other = (DigitString) prefix;
+            int full = cnt >> 1;
+            for (int i1 = 0; i1 < full; i1++) {
+                if (this.packed[i1] != other.packed[i1])
+                    return false;
+            }
+            return (cnt & 1) == 0 || (this.packed[full] & 0x0F) == (other.packed[full] & 0x0F);
+        }
+        for (int i1 = 0; i1 < cnt; i1++) {
+            if (this.charAt(i1) != prefix.charAt(i1))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the text representation of this digit string is equal to cs
+     */
+    public boolean contentEquals(CharSequence cs) {
+        return cs.length() == this.length && this.startsWith(cs);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof DigitString))
+            return false;
+        DigitString other = (DigitString) obj;
+        if (this.tbcd == other.tbcd)
+            return this.length == other.length && Arrays.equals(this.packed, other.packed);
+        return this.contentEquals(other);
+    }
+
+    /**
+     * The hash code is equal to the hash code of the text representation
+     */
+    @Override
+    public int hashCode() {
+        int h = this.hash;
+        if (h == 0 && this.length > 0) {
+            for (int i1 = 0; i1 < this.length; i1++) {
+                h = 31 * h + this.charAt(i1);
+            }
+            this.hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        String res = this.text;
+        if (res == null) {
+            char[] chars = new char[this.length];
+            for (int i1 = 0; i1 < this.length; i1++) {
+                chars[i1] = this.charAt(i1);
+            }
+            res = new String(chars);
+            this.text = res;
+        }
+        return res;
+    }
+
+}
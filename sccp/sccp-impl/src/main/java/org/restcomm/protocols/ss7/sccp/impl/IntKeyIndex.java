@@ -0,0 +1,92 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl;
+
+/**
+ * Immutable open addressing table with primitive int keys. Used as a secondary index over SCCP resources (remote SPCs,
+ * remote subsystems) so that per message lookups do not walk the configured resources. A new instance is built after
+ * every configuration change and published by replacing the reference.
+ *
+ * If the same key is offered several times the first value is kept, this is the same result as walking the source map
+ * in its iteration order and returning the first match.
+ */
+class IntKeyIndex<V> {
+
+    private static final int HASH_SEED = 0x9E3779B9;
+
+    private final int[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int shift;
+    private int size;
+
+    IntKeyIndex(int expectedSize) {
+        int cap = 2;
+        while (cap < expectedSize * 2 && cap < (1 << 30)) {
+            cap <<= 1;
+        }
+        this.keys = new int[cap];
+        this.values = new Object[cap];
+        this.mask = cap - 1;
+        this.shift = 32 - Integer.numberOfTrailingZeros(cap);
+    }
+
+    private int slotFor(int key) {
+        return ((key * HASH_SEED) >>> this.shift) & this.mask;
+    }
+
+    /**
+     * Only for building an index before it is published.
+     *
+     * @return false if the key is already present (the value is not replaced)
+     */
+    boolean putIfAbsent(int key, V value) {
+        int idx = this.slotFor(key);
+        while (this.values[idx] != null) {
+            if (this.keys[idx] == key)
+                return false;
+            idx = (idx + 1) & this.mask;
+        }
+        this.keys[idx] = key;
+        this.values[idx] = value;
+        this.size++;
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int idx = this.slotFor(key);
+        Object val;
+        while ((val = this.values[idx]) != null) {
+            if (this.keys[idx] == key)
+                return (V) val;
+            idx = (idx + 1) & this.mask;
+        }
+        return null;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+}
@@ -0,0 +1,379 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.sccp.impl.message.SccpSegmentableMessageImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SegmentationImpl;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * Reassembly store for segmented connectionless messages (XUDT, XUDTS, LUDT, LUDTS).
+ *
+ * Reassemblies are kept in a concurrent map keyed by (OPC, segmentation local reference, calling party address). Every
+ * reassembly owns the state counter with the number of awaited segments: a next segment claims the reassembly by CAS of
+ * the counter, appends its data into a pre-sized buffer taken from a pool and releases the counter with the new value.
+ * So segments are inserted without locking, a segment that comes while the previous one is being appended waits for it
+ * and a segment that does not match the expected order fails the reassembly.
+ *
+ * Reassembly timers are served by one timing wheel that is driven by a single periodic task (tick = 100 ms). New
+ * reassemblies are passed to the wheel via a lock-free queue, completed ones are not removed from the wheel but are
+ * skipped when their slot expires.
+ */
+public class ReassemblyCache {
+
+    static final long TICK_DURATION = 100;
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    // covers 16 XUDT segments and the default maxDataMessage
+    static final int POOLED_BUFFER_SIZE = 4096;
+    private static final int MAX_POOLED_BUFFERS = 256;
+
+    // reassembly states, non-negative values are the number of awaited segments
+    private static final int WRITING = -1;
+    private static final int DONE = -2;
+
+    private static final Logger logger = Logger.getLogger(ReassemblyCache.class);
+
+    private final FailureListener listener;
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<Entry>();
+    private final ConcurrentLinkedQueue<byte[]> bufferPool = new ConcurrentLinkedQueue<byte[]>();
+    private final AtomicInteger pooledBuffers = new AtomicInteger();
+
+    // the wheel is accessed by the tick task only
+    private final Entry[] wheel = new Entry[WHEEL_SIZE];
+    private long currentTick;
+    private ScheduledFuture<?> tickTask;
+
+    public ReassemblyCache(FailureListener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void start(ScheduledExecutorService executor) {
+        this.stop();
+        this.tickTask = executor.scheduleAtFixedRate(new Runnable() {
+            public void run() {
+                try {
+                    onTick();
+                } catch (Throwable e) {
+                    logger.error("Exception while processing of SCCP reassembly timers", e);
+                }
+            }
+        }, TICK_DURATION, TICK_DURATION, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (this.tickTask != null) {
+            this.tickTask.cancel(false);
+            this.tickTask = null;
+        }
+        for (Entry entry : this.entries.values()) {
+            entry.finish();
+        }
+        this.entries.clear();
+        this.pending.clear();
+        synchronized (this.wheel) {
+            Arrays.fill(this.wheel, null);
+        }
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Starts a reassembly for the first segment of a message. A not finished reassembly with the same key is dropped.
+     *
+     * @param timeout reassembly timer in milliseconds
+     */
+    public void addFirstSegment(SccpSegmentableMessageImpl msg, SegmentationImpl segm, long timeout) {
+        msg.setReceivedFirstSegment();
+        int remainingSegments = segm.getRemainingSegments();
+        byte[] data = msg.getData();
+
+        Entry entry = new Entry(new Key(msg.getIncomingOpc(), segm.getSegmentationLocalRef(), msg.getCallingPartyAddress()),
+                msg, remainingSegments);
+        entry.buffer = this.allocateBuffer(data.length * (remainingSegments + 1));
+        System.arraycopy(data, 0, entry.buffer, 0, data.length);
+        entry.length = data.length;
+        long ticks = (timeout + TICK_DURATION - 1) / TICK_DURATION;
+        entry.ticks = ticks < 1 ? 1 : ticks;
+
+        Entry old = this.entries.put(entry.key, entry);
+        if (old != null)
+            old.finish();
+        this.pending.offer(entry);
+    }
+
+    /**
+     * Adds a non-first segment to its reassembly.
+     *
+     * @return the reassembled message if it was the last segment, null if more segments are awaited or the segment has
+     *         been dropped
+     */
+    public SccpSegmentableMessageImpl addNextSegment(SccpSegmentableMessageImpl msg, SegmentationImpl segm) {
+        Key key = new Key(msg.getIncomingOpc(), segm.getSegmentationLocalRef(), msg.getCallingPartyAddress());
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            // previous segments cache is not found - discard a segment
+            if (logger.isEnabledFor(Level.WARN)) {
+                logger.warn(String
+                        .format("Reassembly function failure: received a non first segment without the first segement having recieved. SccpMessageSegment=%s",
+                                msg));
+            }
+            return null;
+        }
+
+        int remainingSegments = segm.getRemainingSegments();
+        int expected = remainingSegments + 1;
+        int state;
+        while ((state = entry.state) != expected || !entry.claim(expected)) {
+            if (state == WRITING || state == expected) {
+                // the previous segment is still being appended by another thread or the CAS has been lost to it
+                Thread.yield();
+                continue;
+            }
+
+            int prev = entry.finish();
+            if (prev == DONE)
+                // the reassembly has just been completed or expired
+                return null;
+
+            // segments bad order
+            this.entries.remove(key, entry);
+            SccpSegmentableMessageImpl first = entry.first;
+            this.release(entry, prev);
+            if (logger.isEnabledFor(Level.WARN)) {
+                logger.warn(String
+                        .format("Reassembly function failure: when receiving a next segment message order is missing. SccpMessageSegment=%s",
+                                msg));
+            }
+            this.listener.onReassemblyFailure(first);
+            return null;
+        }
+
+        byte[] data = msg.getData();
+        if (entry.length + data.length > entry.buffer.length) {
+            byte[] buf = new byte[Math.max(entry.length + data.length, entry.buffer.length * 2)];
+            System.arraycopy(entry.buffer, 0, buf, 0, entry.length);
+            this.recycleBuffer(entry.buffer);
+            entry.buffer = buf;
+        }
+        System.arraycopy(data, 0, entry.buffer, entry.length, data.length);
+        entry.length += data.length;
+
+        if (remainingSegments > 0) {
+            // if the reassembly was cancelled meanwhile it will not be touched any more
+            entry.release(remainingSegments);
+            return null;
+        }
+
+        // last segment
+        if (!entry.complete())
+            return null;
+        this.entries.remove(key, entry);
+        SccpSegmentableMessageImpl first = entry.first;
+        first.setReceivedLastSegment(Arrays.copyOf(entry.buffer, entry.length));
+        this.recycleBuffer(entry.buffer);
+        entry.buffer = null;
+        entry.first = null;
+        return first;
+    }
+
+    private void onTick() {
+        synchronized (this.wheel) {
+            long tick = ++this.currentTick;
+
+            Entry entry;
+            while ((entry = this.pending.poll()) != null) {
+                entry.deadline = tick + entry.ticks;
+                int idx = (int) (entry.deadline & WHEEL_MASK);
+                entry.next = this.wheel[idx];
+                this.wheel[idx] = entry;
+            }
+
+            int idx = (int) (tick & WHEEL_MASK);
+            entry = this.wheel[idx];
+            this.wheel[idx] = null;
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = null;
+                if (entry.deadline > tick) {
+                    // next round of the wheel
+                    entry.next = this.wheel[idx];
+                    this.wheel[idx] = entry;
+                } else {
+                    this.expire(entry);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    private void expire(Entry entry) {
+        int prev = entry.finish();
+        if (prev == DONE)
+            return;
+
+        this.entries.remove(entry.key, entry);
+        SccpSegmentableMessageImpl msg = entry.first;
+        this.release(entry, prev);
+
+        msg.cancelSegmentation();
+        try {
+            this.listener.onReassemblyFailure(msg);
+        } catch (Exception e) {
+            logger.warn("IOException when sending an error message", e);
+        }
+    }
+
+    private void release(Entry entry, int prevState) {
+        // a thread that is appending a segment still uses the buffer
+        if (prevState != WRITING) {
+            this.recycleBuffer(entry.buffer);
+            entry.buffer = null;
+        }
+        entry.first = null;
+    }
+
+    private byte[] allocateBuffer(int size) {
+        if (size <= POOLED_BUFFER_SIZE) {
+            byte[] buf = this.bufferPool.poll();
+            if (buf != null) {
+                this.pooledBuffers.decrementAndGet();
+                return buf;
+            }
+            return new byte[POOLED_BUFFER_SIZE];
+        }
+        return new byte[size];
+    }
+
+    private void recycleBuffer(byte[] buf) {
+        if (buf == null || buf.length != POOLED_BUFFER_SIZE)
+            return;
+        if (this.pooledBuffers.incrementAndGet() <= MAX_POOLED_BUFFERS)
+            this.bufferPool.offer(buf);
+        else
+            this.pooledBuffers.decrementAndGet();
+    }
+
+    /**
+     * Is invoked when a reassembly has failed because of a timeout or a bad order of segments
+     */
+    public interface FailureListener {
+        void onReassemblyFailure(SccpSegmentableMessageImpl firstSegment);
+    }
+
+    private static final class Key {
+        private final int opc;
+        private final int segmentationLocalRef;
+        private final SccpAddress callingPartyAddress;
+        private final int hash;
+
+        Key(int opc, int segmentationLocalRef, SccpAddress callingPartyAddress) {
+            this.opc = opc;
+            this.segmentationLocalRef = segmentationLocalRef;
+            this.callingPartyAddress = callingPartyAddress;
+
+            // SccpAddressImpl.hashCode() depends on the address indicator that is not compared by equals()
+            int h = opc * 31 + segmentationLocalRef;
+            if (callingPartyAddress != null)
+                h = (h * 31 + callingPartyAddress.getSignalingPointCode()) * 31 + callingPartyAddress.getSubsystemNumber();
+            this.hash = h ^ (h >>> 16);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key x = (Key) obj;
+            if (this.hash != x.hash || this.opc != x.opc || this.segmentationLocalRef != x.segmentationLocalRef)
+                return false;
+            if (this.callingPartyAddress == null || x.callingPartyAddress == null)
+                return false;
+            return this.callingPartyAddress.equals(x.callingPartyAddress);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+    private static final class Entry {
+        private static final AtomicIntegerFieldUpdater<Entry> STATE = AtomicIntegerFieldUpdater.newUpdater(Entry.class,
+                "state");
+
+        final Key key;
+        SccpSegmentableMessageImpl first;
+        volatile int state;
+
+        // accessed by the thread that has claimed the state
+        byte[] buffer;
+        int length;
+
+        // accessed by the tick task only
+        long ticks;
+        long deadline;
+        Entry next;
+
+        Entry(Key key, SccpSegmentableMessageImpl first, int remainingSegments) {
+            this.key = key;
+            this.first = first;
+            this.state = remainingSegments;
+        }
+
+        boolean claim(int expected) {
+            return expected > 0 && STATE.compareAndSet(this, expected, WRITING);
+        }
+
+        void release(int remainingSegments) {
+            STATE.compareAndSet(this, WRITING, remainingSegments);
+        }
+
+        boolean complete() {
+            return STATE.compareAndSet(this, WRITING, DONE);
+        }
+
+        /**
+         * @return the previous state
+         */
+        int finish() {
+            return STATE.getAndSet(this, DONE);
+        }
+    }
+}
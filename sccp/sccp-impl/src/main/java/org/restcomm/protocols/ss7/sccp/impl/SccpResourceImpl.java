@@ -26,9 +26,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
@@ -41,6 +41,7 @@ import javolution.xml.XMLObjectWriter;
 import javolution.xml.stream.XMLStreamException;
 
 import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
 import org.restcomm.protocols.ss7.sccp.ConcernedSignalingPointCode;
 import org.restcomm.protocols.ss7.sccp.RemoteSignalingPointCode;
 import org.restcomm.protocols.ss7.sccp.RemoteSubSystem;
@@ -57,10 +58,15 @@ public class SccpResourceImpl implements SccpResource {
     protected RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode> remoteSpcs = new RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode>();
     protected ConcernedSignalingPointCodeMap<Integer, ConcernedSignalingPointCode> concernedSpcs = new ConcernedSignalingPointCodeMap<Integer, ConcernedSignalingPointCode>();
 
+    // secondary indexes for per message lookups, rebuilt after each change of remoteSpcs / remoteSsns
+    private volatile IntKeyIndex<RemoteSignalingPointCode> remoteSpcsByPc = new IntKeyIndex<RemoteSignalingPointCode>(0);
+    private volatile IntKeyIndex<RemoteSubSystem> remoteSsnsBySpcSsn = new IntKeyIndex<RemoteSubSystem>(0);
+
     private final String name;
     private String persistDir = null;
     protected final boolean rspProhibitedByDefault;
     private final PersistentStorage persistanceStorage = new PersistentStorage();
+    private volatile boolean started;
     private final Ss7ExtSccpDetailedInterface ss7ExtSccpDetailedInterface;
 
     public SccpResourceImpl(String name, Ss7ExtSccpDetailedInterface ss7ExtSccpDetailedInterface) {
@@ -83,34 +89,100 @@ public class SccpResourceImpl implements SccpResource {
 
     public void start() {
         this.persistanceStorage.setPersistDir(this.persistDir, this.name);
+        this.started = true;
         this.load();
 
         logger.info("Started Sccp Resource");
     }
 
     public void stop() {
+        if (!this.started)
+            return;
         this.store();
+        this.flush();
+    }
+
+    /**
+     * Waits until journaled changes are written by the journal writer thread
+     */
+    public void flush() {
+        this.persistanceStorage.flush();
     }
 
     public void load() {
+        this.persistanceStorage.openJournal(new ConfigJournal.SnapshotWriter() {
+            public void writeSnapshot(OutputStream out) throws Exception {
+                persistanceStorage.write(out, remoteSpcs, remoteSsns, concernedSpcs);
+            }
+        });
+
         PersistentStorage.ResourcesSet resources = this.persistanceStorage.load(ss7ExtSccpDetailedInterface);
-        if (resources == null) {
-            return;
+        if (resources != null) {
+            for (RemoteSignalingPointCode rsp : resources.remoteSpcs.values()) {
+                ((RemoteSignalingPointCodeImpl) rsp).setProhibitedState(rspProhibitedByDefault, rspProhibitedByDefault);
+            }
+            synchronized (this) {
+                this.remoteSpcs = resources.remoteSpcs;
+                this.remoteSsns = resources.remoteSsns;
+                this.concernedSpcs = resources.concernedSpcs;
+                this.updateRemoteSpcIndex();
+                this.updateRemoteSsnIndex();
+            }
         }
-        for (RemoteSignalingPointCode rsp : resources.remoteSpcs.values()) {
-            ((RemoteSignalingPointCodeImpl) rsp).setProhibitedState(rspProhibitedByDefault, rspProhibitedByDefault);
+
+        // the journal is applied to the snapshot only, so the snapshot is written if it is absent (an old version file
+        // or a new stack) and replayed records are moved into it
+        if ((resources != null && resources.journalRecords > 0) || !this.persistanceStorage.hasSnapshot())
+            this.store();
+    }
+
+    private static int remoteSsnKey(int spc, int ssn) {
+        return (spc << 8) | (ssn & 0xFF);
+    }
+
+    private void updateRemoteSpcIndex() {
+        RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode> spcs = this.remoteSpcs;
+        IntKeyIndex<RemoteSignalingPointCode> index = new IntKeyIndex<RemoteSignalingPointCode>(spcs.size());
+        for (FastMap.Entry<Integer, RemoteSignalingPointCode> e = spcs.head(), end = spcs.tail(); (e = e.getNext()) != end;) {
+            RemoteSignalingPointCode rspc = e.getValue();
+            index.putIfAbsent(rspc.getRemoteSpc(), rspc);
         }
-        this.remoteSpcs = resources.remoteSpcs;
-        this.remoteSsns = resources.remoteSsns;
-        this.concernedSpcs = resources.concernedSpcs;
+        this.remoteSpcsByPc = index;
     }
 
+    private void updateRemoteSsnIndex() {
+        RemoteSubSystemMap<Integer, RemoteSubSystem> ssns = this.remoteSsns;
+        IntKeyIndex<RemoteSubSystem> index = new IntKeyIndex<RemoteSubSystem>(ssns.size());
+        for (FastMap.Entry<Integer, RemoteSubSystem> e = ssns.head(), end = ssns.tail(); (e = e.getNext()) != end;) {
+            RemoteSubSystem rss = e.getValue();
+            index.putIfAbsent(remoteSsnKey(rss.getRemoteSpc(), rss.getRemoteSsn()), rss);
+        }
+        this.remoteSsnsBySpcSsn = index;
+    }
+
+    /**
+     * Persist
+     *
+     * @throws IllegalStateException if the resource has not been started yet
+     */
     public synchronized void store() {
-        this.persistanceStorage.store(remoteSpcs, remoteSsns, concernedSpcs);
+        if (!this.started)
+            throw new IllegalStateException(String.format(SccpOAMMessage.CONFIG_NOT_LOADED, name));
+        this.persistanceStorage.store();
+    }
+
+    /**
+     * Changes made before {@link #start()} would be overwritten by the loaded configuration and never reach the journal,
+     * so they are refused
+     */
+    private void checkStarted() throws Exception {
+        if (!this.started)
+            throw new Exception(String.format(SccpOAMMessage.CONFIG_NOT_LOADED, name));
     }
 
     public void addRemoteSsn(int remoteSsnid, int remoteSpc, int remoteSsn, int remoteSsnFlag,
                              boolean markProhibitedWhenSpcResuming) throws Exception {
+        this.checkStarted();
 
         if (this.getRemoteSsn(remoteSsnid) != null) {
             throw new Exception(SccpOAMMessage.RSS_ALREADY_EXIST);
@@ -126,12 +198,14 @@ public class SccpResourceImpl implements SccpResource {
             newRemoteSsns.putAll(this.remoteSsns);
             newRemoteSsns.put(remoteSsnid, rsscObj);
             this.remoteSsns = newRemoteSsns;
-            this.store();
+            this.updateRemoteSsnIndex();
+            this.persistanceStorage.put(PersistentStorage.RECORD_RSS, remoteSsnid, rsscObj, RemoteSubSystemImpl.class);
         }
     }
 
     public void modifyRemoteSsn(int remoteSsnid, int remoteSpc, int remoteSsn, int remoteSsnFlag,
                                 boolean markProhibitedWhenSpcResuming) throws Exception {
+        this.checkStarted();
         RemoteSubSystemImpl rsscObj = (RemoteSubSystemImpl) this.remoteSsns.get(remoteSsnid);
         if (rsscObj == null) {
             throw new Exception(String.format(SccpOAMMessage.RSS_DOESNT_EXIST, this.name));
@@ -146,12 +220,14 @@ public class SccpResourceImpl implements SccpResource {
             rsscObj.setRemoteSsnFlag(remoteSsnFlag);
             rsscObj.setMarkProhibitedWhenSpcResuming(markProhibitedWhenSpcResuming);
 
-            this.store();
+            this.updateRemoteSsnIndex();
+            this.persistanceStorage.put(PersistentStorage.RECORD_RSS, remoteSsnid, rsscObj, RemoteSubSystemImpl.class);
         }
     }
 
     public void modifyRemoteSsn(int remoteSsnid, Integer remoteSpc, Integer remoteSsn, Integer remoteSsnFlag,
             Boolean markProhibitedWhenSpcResuming) throws Exception {
+        this.checkStarted();
         RemoteSubSystemImpl rsscObj = (RemoteSubSystemImpl) this.remoteSsns.get(remoteSsnid);
         if (rsscObj == null) {
             throw new Exception(String.format(SccpOAMMessage.RSS_DOESNT_EXIST, this.name));
@@ -167,11 +243,13 @@ public class SccpResourceImpl implements SccpResource {
             if(markProhibitedWhenSpcResuming != null)
                 rsscObj.setMarkProhibitedWhenSpcResuming(markProhibitedWhenSpcResuming);
 
-            this.store();
+            this.updateRemoteSsnIndex();
+            this.persistanceStorage.put(PersistentStorage.RECORD_RSS, remoteSsnid, rsscObj, RemoteSubSystemImpl.class);
         }
     }
 
     public void removeRemoteSsn(int remoteSsnid) throws Exception {
+        this.checkStarted();
 
         if (this.getRemoteSsn(remoteSsnid) == null) {
             throw new Exception(String.format(SccpOAMMessage.RSS_DOESNT_EXIST, this.name));
@@ -182,7 +260,8 @@ public class SccpResourceImpl implements SccpResource {
             newRemoteSsns.putAll(this.remoteSsns);
             newRemoteSsns.remove(remoteSsnid);
             this.remoteSsns = newRemoteSsns;
-            this.store();
+            this.updateRemoteSsnIndex();
+            this.persistanceStorage.remove(PersistentStorage.RECORD_RSS, remoteSsnid);
         }
     }
 
@@ -191,14 +270,12 @@ public class SccpResourceImpl implements SccpResource {
     }
 
     public RemoteSubSystem getRemoteSsn(int spc, int remoteSsn) {
-
-        for (FastMap.Entry<Integer, RemoteSubSystem> e = this.remoteSsns.head(), end = this.remoteSsns.tail(); (e = e.getNext()) != end; ) {
-            RemoteSubSystem remoteSubSystem = e.getValue();
-            if (remoteSubSystem.getRemoteSpc() == spc && remoteSsn == remoteSubSystem.getRemoteSsn()) {
-                return remoteSubSystem;
-            }
-
-        }
+        if (remoteSsn < 0 || remoteSsn > 255)
+            return null;
+        RemoteSubSystem remoteSubSystem = this.remoteSsnsBySpcSsn.get(remoteSsnKey(spc, remoteSsn));
+        // the key keeps only 24 bits of spc
+        if (remoteSubSystem != null && remoteSubSystem.getRemoteSpc() == spc)
+            return remoteSubSystem;
         return null;
     }
 
@@ -209,6 +286,7 @@ public class SccpResourceImpl implements SccpResource {
     }
 
     public void addRemoteSpc(int remoteSpcId, int remoteSpc, int remoteSpcFlag, int mask) throws Exception {
+        this.checkStarted();
 
         if (this.getRemoteSpc(remoteSpcId) != null) {
             throw new Exception(SccpOAMMessage.RSPC_ALREADY_EXIST);
@@ -223,11 +301,13 @@ public class SccpResourceImpl implements SccpResource {
             newRemoteSpcs.putAll(this.remoteSpcs);
             newRemoteSpcs.put(remoteSpcId, rspcObj);
             this.remoteSpcs = newRemoteSpcs;
-            this.store();
+            this.updateRemoteSpcIndex();
+            this.persistanceStorage.put(PersistentStorage.RECORD_RSPC, remoteSpcId, rspcObj, RemoteSignalingPointCodeImpl.class);
         }
     }
 
     public void modifyRemoteSpc(int remoteSpcId, int remoteSpc, int remoteSpcFlag, int mask) throws Exception {
+        this.checkStarted();
         RemoteSignalingPointCodeImpl remoteSignalingPointCode = (RemoteSignalingPointCodeImpl) this.getRemoteSpc(remoteSpcId);
         if (remoteSignalingPointCode == null) {
             throw new Exception(String.format(SccpOAMMessage.RSPC_DOESNT_EXIST, this.name));
@@ -238,11 +318,14 @@ public class SccpResourceImpl implements SccpResource {
             remoteSignalingPointCode.setRemoteSpcFlag(remoteSpcFlag);
             remoteSignalingPointCode.setMask(mask);
 
-            this.store();
+            this.updateRemoteSpcIndex();
+            this.persistanceStorage.put(PersistentStorage.RECORD_RSPC, remoteSpcId, remoteSignalingPointCode,
+                    RemoteSignalingPointCodeImpl.class);
         }
     }
 
     public void modifyRemoteSpc(int remoteSpcId, Integer remoteSpc, Integer remoteSpcFlag, Integer mask) throws Exception {
+        this.checkStarted();
         RemoteSignalingPointCodeImpl remoteSignalingPointCode = (RemoteSignalingPointCodeImpl) this.getRemoteSpc(remoteSpcId);
         if (remoteSignalingPointCode == null) {
             throw new Exception(String.format(SccpOAMMessage.RSPC_DOESNT_EXIST, this.name));
@@ -256,11 +339,14 @@ public class SccpResourceImpl implements SccpResource {
             if(mask != null)
                 remoteSignalingPointCode.setMask(mask);
 
-            this.store();
+            this.updateRemoteSpcIndex();
+            this.persistanceStorage.put(PersistentStorage.RECORD_RSPC, remoteSpcId, remoteSignalingPointCode,
+                    RemoteSignalingPointCodeImpl.class);
         }
     }
 
     public void removeRemoteSpc(int remoteSpcId) throws Exception {
+        this.checkStarted();
         if (this.getRemoteSpc(remoteSpcId) == null) {
             throw new Exception(String.format(SccpOAMMessage.RSPC_DOESNT_EXIST, this.name));
         }
@@ -270,7 +356,8 @@ public class SccpResourceImpl implements SccpResource {
             newRemoteSpcs.putAll(this.remoteSpcs);
             newRemoteSpcs.remove(remoteSpcId);
             this.remoteSpcs = newRemoteSpcs;
-            this.store();
+            this.updateRemoteSpcIndex();
+            this.persistanceStorage.remove(PersistentStorage.RECORD_RSPC, remoteSpcId);
         }
     }
 
@@ -279,15 +366,7 @@ public class SccpResourceImpl implements SccpResource {
     }
 
     public RemoteSignalingPointCode getRemoteSpcByPC(int remotePC) {
-        for (FastMap.Entry<Integer, RemoteSignalingPointCode> e = this.remoteSpcs.head(), end = this.remoteSpcs.tail(); (e = e
-                .getNext()) != end; ) {
-            RemoteSignalingPointCode remoteSignalingPointCode = e.getValue();
-            if (remoteSignalingPointCode.getRemoteSpc() == remotePC) {
-                return remoteSignalingPointCode;
-            }
-
-        }
-        return null;
+        return this.remoteSpcsByPc.get(remotePC);
     }
 
     public Map<Integer, RemoteSignalingPointCode> getRemoteSpcs() {
@@ -297,6 +376,7 @@ public class SccpResourceImpl implements SccpResource {
     }
 
     public void addConcernedSpc(int concernedSpcId, int remoteSpc) throws Exception {
+        this.checkStarted();
 
         if (this.getConcernedSpc(concernedSpcId) != null) {
             throw new Exception(SccpOAMMessage.CS_ALREADY_EXIST);
@@ -309,11 +389,13 @@ public class SccpResourceImpl implements SccpResource {
             newConcernedSpcs.putAll(this.concernedSpcs);
             newConcernedSpcs.put(concernedSpcId, concernedSpc);
             this.concernedSpcs = newConcernedSpcs;
-            this.store();
+            this.persistanceStorage.put(PersistentStorage.RECORD_CSPC, concernedSpcId, concernedSpc,
+                    ConcernedSignalingPointCodeImpl.class);
         }
     }
 
     public void removeConcernedSpc(int concernedSpcId) throws Exception {
+        this.checkStarted();
 
         if (this.getConcernedSpc(concernedSpcId) == null) {
             throw new Exception(String.format(SccpOAMMessage.CS_DOESNT_EXIST, this.name));
@@ -324,11 +406,12 @@ public class SccpResourceImpl implements SccpResource {
             newConcernedSpcs.putAll(this.concernedSpcs);
             newConcernedSpcs.remove(concernedSpcId);
             this.concernedSpcs = newConcernedSpcs;
-            this.store();
+            this.persistanceStorage.remove(PersistentStorage.RECORD_CSPC, concernedSpcId);
         }
     }
 
     public void modifyConcernedSpc(int concernedSpcId, int remoteSpc) throws Exception {
+        this.checkStarted();
         ConcernedSignalingPointCodeImpl concernedSignalingPointCode = (ConcernedSignalingPointCodeImpl) this
                 .getConcernedSpc(concernedSpcId);
 
@@ -338,7 +421,8 @@ public class SccpResourceImpl implements SccpResource {
 
         synchronized (this) {
             concernedSignalingPointCode.setRemoteSpc(remoteSpc);
-            this.store();
+            this.persistanceStorage.put(PersistentStorage.RECORD_CSPC, concernedSpcId, concernedSignalingPointCode,
+                    ConcernedSignalingPointCodeImpl.class);
         }
 
     }
@@ -375,6 +459,8 @@ public class SccpResourceImpl implements SccpResource {
             remoteSsns = new RemoteSubSystemMap<Integer, RemoteSubSystem>();
             remoteSpcs = new RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode>();
             concernedSpcs = new ConcernedSignalingPointCodeMap<Integer, ConcernedSignalingPointCode>();
+            this.updateRemoteSpcIndex();
+            this.updateRemoteSsnIndex();
 
             // We store the cleared state
             this.store();
@@ -393,7 +479,15 @@ public class SccpResourceImpl implements SccpResource {
         private static final String REMOTE_SPC = "remoteSpcs";
         private static final String CONCERNED_SPC = "concernedSpcs";
 
+        // configuration journal record types
+        private static final String RECORD_RSS = "rss";
+        private static final String RECORD_RSPC = "rspc";
+        private static final String RECORD_CSPC = "cspc";
+        private static final String RECORD_VALUE = "value";
+
         private final TextBuilder persistFile = TextBuilder.newInstance();
+        // created by SccpResourceImpl.load(), changes are journaled instead of rewriting the whole configuration file
+        private ConfigJournal journal;
 
         protected static final SccpResourceXMLBinding binding = new SccpResourceXMLBinding();
         private static final String TAB_INDENT = "\t";
@@ -417,31 +511,90 @@ public class SccpResourceImpl implements SccpResource {
             logger.info(String.format("SCCP Resource configuration file path %s", persistFile.toString()));
         }
 
+        private void openJournal(ConfigJournal.SnapshotWriter snapshotWriter) {
+            if (this.journal != null)
+                this.journal.flush();
+            this.journal = new ConfigJournal(persistFile.toString(), snapshotWriter);
+        }
+
+        private <T> void put(String type, int id, T value, Class<T> cls) {
+            // no journal for NonPersistentSccpResourceImpl
+            if (this.journal == null)
+                return;
+            try {
+                this.journal.put(type, String.valueOf(id), ConfigJournal.toXml(value, RECORD_VALUE, cls, binding));
+            } catch (XMLStreamException e) {
+                logger.error(String.format("Error while journaling %s %d, the whole configuration will be stored", type, id), e);
+                this.journal.storeLater();
+            }
+        }
+
+        private void remove(String type, int id) {
+            if (this.journal != null)
+                this.journal.remove(type, String.valueOf(id));
+        }
+
         /**
          * Persist
-         *
-         * @param remoteSpcs
-         * @param remoteSsns
-         * @param concernedSpcs
          */
-        private void store(RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode> remoteSpcs, RemoteSubSystemMap<Integer, RemoteSubSystem> remoteSsns, ConcernedSignalingPointCodeMap<Integer, ConcernedSignalingPointCode> concernedSpcs) {
+        private void store() {
+            if (this.journal != null)
+                this.journal.store();
+        }
+
+        private boolean hasSnapshot() {
+            return new File(persistFile.toString()).exists();
+        }
+
+        private void flush() {
+            if (this.journal != null)
+                this.journal.flush();
+        }
+
+        private void write(OutputStream out, RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode> remoteSpcs,
+                RemoteSubSystemMap<Integer, RemoteSubSystem> remoteSsns,
+                ConcernedSignalingPointCodeMap<Integer, ConcernedSignalingPointCode> concernedSpcs) throws XMLStreamException {
+            XMLObjectWriter writer = XMLObjectWriter.newInstance(out);
+            writer.setBinding(binding);
+            // Enables cross-references.
+            // writer.setReferenceResolver(new XMLReferenceResolver());
+            writer.setIndentation(TAB_INDENT);
+            writer.write(remoteSsns, REMOTE_SSN, RemoteSubSystemMap.class);
+            writer.write(remoteSpcs, REMOTE_SPC, RemoteSignalingPointCodeMap.class);
+            writer.write(concernedSpcs, CONCERNED_SPC, ConcernedSignalingPointCodeMap.class);
+
+            writer.close();
+        }
+
+        private int replayJournal(final ResourcesSet resources) throws IOException {
+            return this.journal.replay(new ConfigJournal.RecordHandler() {
+                public void put(String type, String key, String value) throws Exception {
+                    if (RECORD_RSS.equals(type)) {
+                        resources.remoteSsns.put(Integer.valueOf(key),
+                                ConfigJournal.fromXml(value, RECORD_VALUE, RemoteSubSystemImpl.class, binding));
+                    } else if (RECORD_RSPC.equals(type)) {
+                        resources.remoteSpcs.put(Integer.valueOf(key),
+                                ConfigJournal.fromXml(value, RECORD_VALUE, RemoteSignalingPointCodeImpl.class, binding));
+                    } else if (RECORD_CSPC.equals(type)) {
+                        resources.concernedSpcs.put(Integer.valueOf(key),
+                                ConfigJournal.fromXml(value, RECORD_VALUE, ConcernedSignalingPointCodeImpl.class, binding));
+                    } else {
+                        throw new Exception("Unknown record type " + type);
+                    }
+                }
 
-            // TODO : Should we keep reference to Objects rather than recreating
-            // everytime?
-            try {
-                XMLObjectWriter writer = XMLObjectWriter.newInstance(new FileOutputStream(persistFile.toString()));
-                writer.setBinding(binding);
-                // Enables cross-references.
-                // writer.setReferenceResolver(new XMLReferenceResolver());
-                writer.setIndentation(TAB_INDENT);
-                writer.write(remoteSsns, REMOTE_SSN, RemoteSubSystemMap.class);
-                writer.write(remoteSpcs, REMOTE_SPC, RemoteSignalingPointCodeMap.class);
-                writer.write(concernedSpcs, CONCERNED_SPC, ConcernedSignalingPointCodeMap.class);
-
-                writer.close();
-            } catch (Exception e) {
-                this.logger.error("Error while persisting the Sccp Resource state in file", e);
-            }
+                public void remove(String type, String key) throws Exception {
+                    if (RECORD_RSS.equals(type)) {
+                        resources.remoteSsns.remove(Integer.valueOf(key));
+                    } else if (RECORD_RSPC.equals(type)) {
+                        resources.remoteSpcs.remove(Integer.valueOf(key));
+                    } else if (RECORD_CSPC.equals(type)) {
+                        resources.concernedSpcs.remove(Integer.valueOf(key));
+                    } else {
+                        throw new Exception("Unknown record type " + type);
+                    }
+                }
+            });
         }
 
         /**
@@ -456,6 +609,7 @@ public class SccpResourceImpl implements SccpResource {
                 if (f.exists()) {
                     // we have V3 config
                     resources = loadVer3(persistFile.toString());
+                    resources.journalRecords = this.replayJournal(resources);
                 } else {
                     String s1 = persistFile.toString().replace("2.xml", ".xml");
                     f = new File(s1);
@@ -579,6 +733,7 @@ public class SccpResourceImpl implements SccpResource {
             final RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode> remoteSpcs;
             final RemoteSubSystemMap<Integer, RemoteSubSystem> remoteSsns;
             final ConcernedSignalingPointCodeMap<Integer, ConcernedSignalingPointCode> concernedSpcs;
+            int journalRecords;
 
             public ResourcesSet(RemoteSignalingPointCodeMap<Integer, RemoteSignalingPointCode> remoteSpcs,
                                 RemoteSubSystemMap<Integer, RemoteSubSystem> remoteSsns,
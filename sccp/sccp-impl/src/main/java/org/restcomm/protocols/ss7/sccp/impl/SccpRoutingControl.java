@@ -31,6 +31,7 @@ import org.restcomm.protocols.ss7.mtp.Mtp3;
 import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitiveFactory;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPart;
+import org.restcomm.protocols.ss7.mtp.RingDeliveryExecutor;
 import org.restcomm.protocols.ss7.sccp.LongMessageRule;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
@@ -56,6 +57,7 @@ import org.restcomm.protocols.ss7.sccp.impl.message.SccpConnRscMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.message.SccpConnRsrMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.message.SccpConnSegmentableMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.message.SccpDataMessageImpl;
+import org.restcomm.protocols.ss7.sccp.impl.message.SccpDataNoticeTemplateMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.message.SccpMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.message.SccpNoticeMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.ErrorCauseImpl;
@@ -103,6 +105,7 @@ public class SccpRoutingControl implements SccpRoutingCtxInterface {
 
     private MessageFactoryImpl messageFactory;
     private ConcurrentHashMap<Integer, AtomicInteger> opcSscCounters = new ConcurrentHashMap<Integer, AtomicInteger>();
+    private SccpRingDeliveryHandler deliveryHandler = new SccpRingDeliveryHandler();
 
     public SccpRoutingControl(SccpProviderImpl sccpProviderImpl, SccpStackImpl sccpStackImpl) {
         this.messageFactory = sccpStackImpl.messageFactory;
@@ -349,12 +352,24 @@ public class SccpRoutingControl implements SccpRoutingCtxInterface {
         LongMessageRuleType lmrt = LongMessageRuleType.LONG_MESSAGE_FORBBIDEN;
         if (lmr != null)
             lmrt = lmr.getLongMessageRuleType();
-        EncodingResultData erd = message.encode(sccpStackImpl, lmrt, mup.getMaxUserDataLength(dpc), logger, this.sccpStackImpl.isRemoveSpc(),
-                this.sccpStackImpl.getSccpProtocolVersion());
+        Mtp3TransferPrimitiveFactory factory = mup.getMtp3TransferPrimitiveFactory();
+        EncodingResultData erd;
+        if (message instanceof SccpDataNoticeTemplateMessageImpl) {
+            // connectionless messages are encoded into a data buffer if the Mtp3UserPart supplies them
+            erd = ((SccpDataNoticeTemplateMessageImpl) message).encode(sccpStackImpl, lmrt, mup.getMaxUserDataLength(dpc), logger,
+                    this.sccpStackImpl.isRemoveSpc(), this.sccpStackImpl.getSccpProtocolVersion(), factory);
+        } else {
+            erd = message.encode(sccpStackImpl, lmrt, mup.getMaxUserDataLength(dpc), logger, this.sccpStackImpl.isRemoveSpc(),
+                    this.sccpStackImpl.getSccpProtocolVersion());
+        }
         switch (erd.getEncodingResult()) {
             case Success:
-                Mtp3TransferPrimitiveFactory factory = mup.getMtp3TransferPrimitiveFactory();
-                if (erd.getSolidData() != null) {
+                if (erd.getSolidDataBuf() != null) {
+                    // nonsegmented data in a buffer
+                    Mtp3TransferPrimitive msg = factory.createMtp3TransferPrimitive(Mtp3._SI_SERVICE_SCCP, sap.getNi(), 0,
+                            sap.getOpc(), dpc, sls, erd.getSolidDataBuf());
+                    mup.sendMessage(msg);
+                } else if (erd.getSolidData() != null) {
                     // nonsegmented data
                     Mtp3TransferPrimitive msg = factory.createMtp3TransferPrimitive(Mtp3._SI_SERVICE_SCCP, sap.getNi(), 0,
                             sap.getOpc(), dpc, sls, erd.getSolidData());
@@ -913,12 +928,23 @@ public class SccpRoutingControl implements SccpRoutingCtxInterface {
         } else {
             // we need to make asynch delivering for local user originated messages
             int seqControl = msg.getSls();
-            SccpTransferDeliveryHandler hdl = new SccpTransferDeliveryHandler(msg, listener);
             seqControl = seqControl & this.sccpStackImpl.slsFilter;
-            this.sccpStackImpl.msgDeliveryExecutors[this.sccpStackImpl.slsTable[seqControl]].execute(hdl);
+            RingDeliveryExecutor<SccpMessage, SccpListener> ring = this.sccpStackImpl.msgDeliveryRing;
+            if (ring != null) {
+                if (!ring.execute(this.sccpStackImpl.slsTable[seqControl], msg, listener))
+                    logger.error(String.format(
+                            "Received SccpMessage=%s for local delivery but SccpStack is stopping. Message will be dropped", msg));
+            } else {
+                SccpTransferDeliveryHandler hdl = new SccpTransferDeliveryHandler(msg, listener);
+                this.sccpStackImpl.msgDeliveryExecutors[this.sccpStackImpl.slsTable[seqControl]].execute(hdl);
+            }
         }
     }
 
+    protected RingDeliveryExecutor.Handler<SccpMessage, SccpListener> getDeliveryHandler() {
+        return this.deliveryHandler;
+    }
+
     protected void sendMessageToMtp(SccpAddressedMessageImpl msg) throws Exception {
 
         msg.setOutgoingDpc(msg.getCalledPartyAddress().getSignalingPointCode());
@@ -1194,44 +1220,55 @@ public class SccpRoutingControl implements SccpRoutingCtxInterface {
 
         @Override
         public void run() {
-            if (sccpStackImpl.isStarted()) {
-                try {
-                    if (msg instanceof SccpDataMessage) {
-                        listener.onMessage((SccpDataMessage) msg);
+            deliverLocalMessage(msg, listener);
+        }
+    }
 
-                    } else if (msg instanceof SccpConnMessage) {
+    private class SccpRingDeliveryHandler implements RingDeliveryExecutor.Handler<SccpMessage, SccpListener> {
+        @Override
+        public void onDelivery(SccpMessage msg, SccpListener listener) {
+            deliverLocalMessage(msg, listener);
+        }
+    }
 
-                        LocalReference dln = getDln((SccpConnMessage)msg);
-                        SccpConnectionImpl dconn = sccpStackImpl.getConnection(dln);
-                        if (dconn == null) {
-                            logger.error(String
-                                    .format("Dropping message. Received SCCPMessage=%s for routing but can't find connection by local reference %s in this message",
-                                            msg, dln));
-                            return;
-                        }
-                        int ssn = dconn.getLocalSsn();
+    private void deliverLocalMessage(SccpMessage msg, SccpListener listener) {
+        if (sccpStackImpl.isStarted()) {
+            try {
+                if (msg instanceof SccpDataMessage) {
+                    listener.onMessage((SccpDataMessage) msg);
 
-                        // This message is for local routing
-                        SccpListener connListener = sccpProviderImpl.getSccpListener(ssn);
-                        if (connListener == null) {
-                            if (logger.isEnabledFor(Level.WARN)) {
-                                logger.warn(String.format(
-                                        "Received SccpMessage=%s for routing but the SSN is not available for local routing", msg));
-                            }
-                            sendSccpErrorConn((SccpConnMessage)msg, ReleaseCauseValue.SUBSYSTEM_FAILURE);
-                            return;
+                } else if (msg instanceof SccpConnMessage) {
+
+                    LocalReference dln = getDln((SccpConnMessage)msg);
+                    SccpConnectionImpl dconn = sccpStackImpl.getConnection(dln);
+                    if (dconn == null) {
+                        logger.error(String
+                                .format("Dropping message. Received SCCPMessage=%s for routing but can't find connection by local reference %s in this message",
+                                        msg, dln));
+                        return;
+                    }
+                    int ssn = dconn.getLocalSsn();
+
+                    // This message is for local routing
+                    SccpListener connListener = sccpProviderImpl.getSccpListener(ssn);
+                    if (connListener == null) {
+                        if (logger.isEnabledFor(Level.WARN)) {
+                            logger.warn(String.format(
+                                    "Received SccpMessage=%s for routing but the SSN is not available for local routing", msg));
                         }
-                        processCoMessages((SccpConnMessage)msg, dconn, connListener);
+                        sendSccpErrorConn((SccpConnMessage)msg, ReleaseCauseValue.SUBSYSTEM_FAILURE);
+                        return;
                     }
+                    processCoMessages((SccpConnMessage)msg, dconn, connListener);
+                }
 
 
-                } catch (Exception e) {
-                    logger.error("Exception while delivering a system messages to the SCCP-user: " + e.getMessage(), e);
-                }
-            } else {
-                logger.error(String.format("Received SccpDataMessage=%s but SccpStack is not started. Message will be dropped",
-                        msg));
+            } catch (Exception e) {
+                logger.error("Exception while delivering a system messages to the SCCP-user: " + e.getMessage(), e);
             }
+        } else {
+            logger.error(String.format("Received SccpDataMessage=%s but SccpStack is not started. Message will be dropped",
+                    msg));
         }
     }
 }
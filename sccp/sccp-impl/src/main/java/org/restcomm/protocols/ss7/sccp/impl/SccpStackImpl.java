@@ -22,6 +22,7 @@
 
 package org.restcomm.protocols.ss7.sccp.impl;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.util.concurrent.DefaultThreadFactory;
 import javolution.text.TextBuilder;
 import javolution.util.FastMap;
@@ -42,6 +43,8 @@ import org.restcomm.protocols.ss7.mtp.Mtp3StatusPrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPart;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPartListener;
+import org.restcomm.protocols.ss7.mtp.RingDeliveryExecutor;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
 import org.restcomm.protocols.ss7.sccp.LongMessageRule;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.MaxConnectionCountReached;
@@ -50,6 +53,7 @@ import org.restcomm.protocols.ss7.sccp.RemoteSignalingPointCode;
 import org.restcomm.protocols.ss7.sccp.Router;
 import org.restcomm.protocols.ss7.sccp.SccpCongestionControlAlgo;
 import org.restcomm.protocols.ss7.sccp.SccpConnectionState;
+import org.restcomm.protocols.ss7.sccp.SccpListener;
 import org.restcomm.protocols.ss7.sccp.SccpManagementEventListener;
 import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
 import org.restcomm.protocols.ss7.sccp.SccpProvider;
@@ -64,7 +68,9 @@ import org.restcomm.protocols.ss7.sccp.impl.parameter.LocalReferenceImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SegmentationImpl;
 import org.restcomm.protocols.ss7.sccp.impl.router.RouterImpl;
+import org.restcomm.protocols.ss7.sccp.message.ParseException;
 import org.restcomm.protocols.ss7.sccp.message.SccpConnMessage;
+import org.restcomm.protocols.ss7.sccp.message.SccpMessage;
 import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
 import org.restcomm.protocols.ss7.sccp.parameter.LocalReference;
 import org.restcomm.protocols.ss7.sccp.parameter.ProtocolClass;
@@ -74,20 +80,16 @@ import org.restcomm.protocols.ss7.scheduler.Scheduler;
 import org.restcomm.protocols.ss7.ss7ext.Ss7ExtInterface;
 import org.restcomm.protocols.ss7.ss7ext.Ss7ExtSccpInterface;
 
-import java.io.ByteArrayInputStream;
-import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Date;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 
 import static org.restcomm.protocols.ss7.sccp.impl.message.MessageUtil.calculateLudtFieldsLengthWithoutData;
 import static org.restcomm.protocols.ss7.sccp.impl.message.MessageUtil.calculateUdtFieldsLengthWithoutData;
@@ -207,6 +209,9 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
     // The count of threads that will be used for message delivering to
     // SccpListener's for SCCP user -> SCCP -> SCCP user transit (without MTP part)
     protected int deliveryTransferMessageThreadCount = 4;
+    // If > 0 local messages are delivered via RingDeliveryExecutor with rings of this size instead of executors
+    protected int deliveryRingSize = 0;
+    protected RingDeliveryExecutor.WaitStrategy deliveryWaitStrategy = RingDeliveryExecutor.WaitStrategy.PARK;
     protected int timerExecutorsThreadCount = 10;
 
     private boolean previewMode = false;
@@ -230,10 +235,12 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
     protected FastMap<Integer, Mtp3UserPart> mtp3UserParts = new FastMap<Integer, Mtp3UserPart>();
     protected ScheduledExecutorService timerExecutors;
-    protected FastMap<MessageReassemblyProcess, SccpSegmentableMessageImpl> reassemplyCache = new FastMap<MessageReassemblyProcess, SccpSegmentableMessageImpl>();
+    protected ReassemblyCache reassemblyCache = new ReassemblyCache(new ReassemblyFailureListener());
 
     // executors for delivering messages SCCP user -> SCCP -> SCCP user (for messages that are not from or to MTP part)
     protected ExecutorService[] msgDeliveryExecutors;
+    // ring based delivery engine that is used instead of msgDeliveryExecutors if deliveryRingSize > 0
+    protected RingDeliveryExecutor<SccpMessage, SccpListener> msgDeliveryRing;
     protected int slsFilter = 0x0f;
     protected int[] slsTable = null;
 
@@ -244,6 +251,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
     protected final TextBuilder persistFile = TextBuilder.newInstance();
     protected String persistDir = null;
+    // settings are persisted by the journal writer thread
+    private ConfigJournal configJournal;
 
     protected boolean rspProhibitedByDefault;
 
@@ -368,7 +377,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.removeSpc = removeSpc;
 
-        this.store();
+        this.storeLater();
     }
 
     public void setRespectPc(boolean respectPc) throws Exception {
@@ -377,7 +386,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.respectPc = respectPc;
 
-        this.store();
+        this.storeLater();
     }
 
     public void setCanRelay(boolean canRelay) throws Exception {
@@ -386,7 +395,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.canRelay = canRelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public void setSccpProtocolVersion(SccpProtocolVersion sccpProtocolVersion) throws Exception {
@@ -396,7 +405,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         if (sccpProtocolVersion != null)
             this.sccpProtocolVersion = sccpProtocolVersion;
 
-        this.store();
+        this.storeLater();
     }
 
     public void setPreviewMode(boolean previewMode) throws Exception {
@@ -405,7 +414,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.previewMode = previewMode;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getDeliveryMessageThreadCount() {
@@ -420,6 +429,31 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             this.deliveryTransferMessageThreadCount = deliveryMessageThreadCount;
     }
 
+    public int getDeliveryRingSize() {
+        return this.deliveryRingSize;
+    }
+
+    public void setDeliveryRingSize(int deliveryRingSize) throws Exception {
+        if (this.isStarted())
+            throw new Exception("DeliveryRingSize parameter can be updated only when SCCP stack is NOT running");
+
+        if (deliveryRingSize == 0
+                || (deliveryRingSize >= RingDeliveryExecutor.MIN_RING_SIZE && deliveryRingSize <= RingDeliveryExecutor.MAX_RING_SIZE))
+            this.deliveryRingSize = deliveryRingSize;
+    }
+
+    public RingDeliveryExecutor.WaitStrategy getDeliveryWaitStrategy() {
+        return this.deliveryWaitStrategy;
+    }
+
+    public void setDeliveryWaitStrategy(RingDeliveryExecutor.WaitStrategy deliveryWaitStrategy) throws Exception {
+        if (this.isStarted())
+            throw new Exception("DeliveryWaitStrategy parameter can be updated only when SCCP stack is NOT running");
+
+        if (deliveryWaitStrategy != null)
+            this.deliveryWaitStrategy = deliveryWaitStrategy;
+    }
+
     public int getTimerExecutorsThreadCount() {
         return timerExecutorsThreadCount;
     }
@@ -448,7 +482,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             sstTimerDuration_Min = 10000;
         this.sstTimerDuration_Min = sstTimerDuration_Min;
 
-        this.store();
+        this.storeLater();
     }
 
     public void setSstTimerDuration_Max(int sstTimerDuration_Max) throws Exception {
@@ -462,7 +496,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             sstTimerDuration_Max = 1200000;
         this.sstTimerDuration_Max = sstTimerDuration_Max;
 
-        this.store();
+        this.storeLater();
     }
 
     public void setSstTimerDuration_IncreaseFactor(double sstTimerDuration_IncreaseFactor) throws Exception {
@@ -476,7 +510,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             sstTimerDuration_IncreaseFactor = 4;
         this.sstTimerDuration_IncreaseFactor = sstTimerDuration_IncreaseFactor;
 
-        this.store();
+        this.storeLater();
     }
 
 
@@ -495,7 +529,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         congControl_TIMER_A = value;
 
-        this.store();
+        this.storeLater();
     }
 
 
@@ -514,7 +548,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         congControl_TIMER_D = value;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getCongControlN() {
@@ -524,7 +558,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
     public void setCongControlN(int value) {
         congControl_N = value;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getCongControlM() {
@@ -534,7 +568,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
     public void setCongControlM(int value) {
         congControl_M = value;
 
-        this.store();
+        this.storeLater();
     }
 
     public SccpCongestionControlAlgo getCongControl_Algo() {
@@ -548,7 +582,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         if (value != null)
             congControl_Algo = value;
 
-        this.store();
+        this.storeLater();
     }
 
     public boolean isCongControl_blockingOutgoungSccpMessages() {
@@ -561,7 +595,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         congControl_blockingOutgoungSccpMessages = value;
 
-        this.store();
+        this.storeLater();
     }
 
     public boolean isRemoveSpc() {
@@ -611,7 +645,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             zMarginXudtMessage = 255;
         this.zMarginXudtMessage = zMarginXudtMessage;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getMaxDataMessage() {
@@ -629,7 +663,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             maxDataMessage = 3952;
         this.maxDataMessage = maxDataMessage;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getConnEstTimerDelay() {
@@ -647,7 +681,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             connEstTimerDelay = 120000;
         this.connEstTimerDelay = connEstTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getIasTimerDelay() {
@@ -665,7 +699,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             iasTimerDelay = 600000;
         this.iasTimerDelay = iasTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getIarTimerDelay() {
@@ -685,7 +719,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             iarTimerDelay = 1260000;
         this.iarTimerDelay = iarTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getRelTimerDelay() {
@@ -703,7 +737,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             relTimerDelay = 20000;
         this.relTimerDelay = relTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getRepeatRelTimerDelay() {
@@ -721,7 +755,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             repeatRelTimerDelay = 20000;
         this.repeatRelTimerDelay = repeatRelTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getIntTimerDelay() {
@@ -739,7 +773,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             intTimerDelay = 60000;
         this.intTimerDelay = intTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getGuardTimerDelay() {
@@ -757,7 +791,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             guardTimerDelay = 1500000;
         this.guardTimerDelay = guardTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getResetTimerDelay() {
@@ -775,7 +809,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             resetTimerDelay = 20000;
         this.resetTimerDelay = resetTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getPeriodOfLogging() {
@@ -788,7 +822,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.periodOfLogging = periodOfLogging;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getReassemblyTimerDelay() {
@@ -806,7 +840,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             reassemblyTimerDelay = 20000;
         this.reassemblyTimerDelay = reassemblyTimerDelay;
 
-        this.store();
+        this.storeLater();
     }
 
     public synchronized int newSegmentationLocalRef() {
@@ -850,6 +884,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         }
 
         logger.info(String.format("SCCP Management configuration file path %s", persistFile.toString()));
+        // the journal is created for the new file by the next store()
+        this.configJournal = null;
 
         try {
             this.load();
@@ -882,6 +918,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         logger.info("Starting MSU handler...");
 
         this.timerExecutors = Executors.newScheduledThreadPool(timerExecutorsThreadCount);
+        this.reassemblyCache.start(this.timerExecutors);
 
         // initiating of SCCP delivery executors
         // TODO: we do it for ITU standard, may be we may configure it for other standard's (different SLS count) maxSls and
@@ -890,10 +927,17 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         slsFilter = 0x0f;
         this.slsTable = new int[maxSls];
         this.createSLSTable(maxSls, this.deliveryTransferMessageThreadCount);
-        this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
-        for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
-            this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1, new DefaultThreadFactory(
-                    "SccpTransit-DeliveryExecutor-" + i));
+        if (this.deliveryRingSize > 0) {
+            this.msgDeliveryRing = new RingDeliveryExecutor<SccpMessage, SccpListener>("SccpTransit-DeliveryExecutor-",
+                    this.deliveryTransferMessageThreadCount, this.deliveryRingSize, this.deliveryWaitStrategy,
+                    this.sccpRoutingControl.getDeliveryHandler());
+            this.msgDeliveryRing.start();
+        } else {
+            this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
+            for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
+                this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1, new DefaultThreadFactory(
+                        "SccpTransit-DeliveryExecutor-" + i));
+            }
         }
 
         for (FastMap.Entry<Integer, Mtp3UserPart> e = this.mtp3UserParts.head(), end = this.mtp3UserParts.tail(); (e = e
@@ -931,6 +975,10 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             }
             this.msgDeliveryExecutors = null;
         }
+        if (this.msgDeliveryRing != null) {
+            this.msgDeliveryRing.stop();
+            this.msgDeliveryRing = null;
+        }
 
         for (SccpManagementEventListener lstr : this.sccpProvider.managementEventListeners) {
             try {
@@ -956,10 +1004,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.router.stop();
 
-        synchronized (reassemplyCache) {
-            this.timerExecutors.shutdownNow();
-            reassemplyCache.clear();
-        }
+        this.reassemblyCache.stop();
+        this.timerExecutors.shutdownNow();
 
         this.store();
 
@@ -1318,18 +1364,36 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
                 return;
             }
 
-            // decoding of a message
-            ByteArrayInputStream bais = new ByteArrayInputStream(mtp3Msg.getData());
-            DataInputStream in = new DataInputStream(bais);
-            int mt = in.readUnsignedByte();
-            msg = ((MessageFactoryImpl) sccpProvider.getMessageFactory()).createMessage(mt, mtp3Msg.getOpc(), mtp3Msg.getDpc(), mtp3Msg.getSls(), in,
-                    this.sccpProtocolVersion, 0);
+            // decoding of a message directly from the MTP3 payload
+            byte[] buf;
+            int off;
+            int len;
+            ByteBuf dataBuf = mtp3Msg.getDataBuf();
+            if (dataBuf != null && dataBuf.hasArray()) {
+                buf = dataBuf.array();
+                off = dataBuf.arrayOffset() + dataBuf.readerIndex();
+                len = dataBuf.readableBytes();
+            } else {
+                buf = mtp3Msg.getData();
+                off = 0;
+                len = buf.length;
+            }
+            if (len < 1) {
+                throw new ParseException("Empty SCCP message");
+            }
+            int mt = buf[off] & 0xff;
+            msg = ((MessageFactoryImpl) sccpProvider.getMessageFactory()).createMessage(mt, mtp3Msg.getOpc(), mtp3Msg.getDpc(), mtp3Msg.getSls(),
+                    buf, off + 1, len - 1, this.sccpProtocolVersion, 0);
+            if (msg == null) {
+                return;
+            }
 
             // finding sap and networkId for a message
             dpc = mtp3Msg.getDpc();
             opc = mtp3Msg.getOpc();
             String localGtDigits = null;
-            if (msg instanceof SccpAddressedMessageImpl) {
+            // digits of a decoded GlobalTitle are converted into a String lazily, do it only if some SAP needs them
+            if (msg instanceof SccpAddressedMessageImpl && this.router.isLocalGtDigitsUsed()) {
                 SccpAddressedMessageImpl msgAddr = (SccpAddressedMessageImpl) msg;
                 SccpAddress addr = msgAddr.getCalledPartyAddress();
                 if (addr != null) {
@@ -1370,69 +1434,16 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
                         if (segm.isFirstSegIndication()) {
 
                             // first segment
-                            sgmMsg.setReceivedFirstSegment();
-                            MessageReassemblyProcess msp = new MessageReassemblyProcess(segm.getSegmentationLocalRef(),
-                                    sgmMsg.getCallingPartyAddress());
-                            synchronized (this.reassemplyCache) {
-                                this.reassemplyCache.put(msp, sgmMsg);
-                            }
-                            sgmMsg.setMessageReassemblyProcess(msp);
-                            msp.startTimer();
+                            this.reassemblyCache.addFirstSegment(sgmMsg, segm, this.reassemblyTimerDelay);
                             return;
                         } else {
 
                             // nonfirst segment
-                            MessageReassemblyProcess msp = new MessageReassemblyProcess(segm.getSegmentationLocalRef(),
-                                    sgmMsg.getCallingPartyAddress());
-                            SccpSegmentableMessageImpl sgmMsgFst = null;
-                            synchronized (this.reassemplyCache) {
-                                sgmMsgFst = this.reassemplyCache.get(msp);
-                            }
-                            if (sgmMsgFst == null) {
-                                // previous segments cache is not found -
-                                // discard a segment
-                                if (logger.isEnabledFor(Level.WARN)) {
-                                    logger.warn(String
-                                            .format("Reassembly function failure: received a non first segment without the first segement having recieved. SccpMessageSegment=%s",
-                                                    msg));
-                                }
+                            SccpSegmentableMessageImpl sgmMsgFst = this.reassemblyCache.addNextSegment(sgmMsg, segm);
+                            if (sgmMsgFst == null)
+                                // not last segment or the segment is discarded
                                 return;
-                            }
-                            if (sgmMsgFst.getRemainingSegments() - 1 != segm.getRemainingSegments()) {
-                                // segments bad order
-                                synchronized (this.reassemplyCache) {
-                                    this.reassemplyCache.remove(msp);
-                                    MessageReassemblyProcess mspMain = sgmMsgFst.getMessageReassemblyProcess();
-                                    if (mspMain != null)
-                                        mspMain.stopTimer();
-                                }
-                                if (logger.isEnabledFor(Level.WARN)) {
-                                    logger.warn(String
-                                            .format("Reassembly function failure: when receiving a next segment message order is missing. SccpMessageSegment=%s",
-                                                    msg));
-                                }
-                                this.sccpRoutingControl.sendSccpError(sgmMsgFst, ReturnCauseValue.CANNOT_REASEMBLE, null);
-                                return;
-                            }
-
-                            if (sgmMsgFst.getRemainingSegments() == 1) {
-                                // last segment
-                                synchronized (this.reassemplyCache) {
-                                    MessageReassemblyProcess mspMain = sgmMsgFst.getMessageReassemblyProcess();
-                                    if (mspMain != null)
-                                        mspMain.stopTimer();
-                                    this.reassemplyCache.remove(msp);
-                                }
-                                if (sgmMsgFst.getRemainingSegments() != 1)
-                                    return;
-
-                                sgmMsgFst.setReceivedNextSegment(sgmMsg);
-                                msg = sgmMsgFst;
-                            } else {
-                                // not last segment
-                                sgmMsgFst.setReceivedNextSegment(sgmMsg);
-                                return;
-                            }
+                            msg = sgmMsgFst;
                         }
                     }
                 }
@@ -1469,61 +1480,10 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         }
     }
 
-    public class MessageReassemblyProcess implements Runnable {
-        private int segmentationLocalRef;
-        private SccpAddress callingPartyAddress;
-
-        private Future timer;
-
-        public MessageReassemblyProcess(int segmentationLocalRef, SccpAddress callingPartyAddress) {
-            this.segmentationLocalRef = segmentationLocalRef;
-            this.callingPartyAddress = callingPartyAddress;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null)
-                return false;
-            if (!(obj instanceof MessageReassemblyProcess))
-                return false;
-            MessageReassemblyProcess x = (MessageReassemblyProcess) obj;
-            if (this.segmentationLocalRef != x.segmentationLocalRef)
-                return false;
-
-            if (this.callingPartyAddress == null || x.callingPartyAddress == null)
-                return false;
-
-            return this.callingPartyAddress.equals(x.callingPartyAddress);
-        }
-
-        @Override
-        public int hashCode() {
-            return this.segmentationLocalRef;
-        }
-
-        public void startTimer() {
-            this.timer = timerExecutors.schedule(this, reassemblyTimerDelay, TimeUnit.MILLISECONDS);
-        }
-
-        public void stopTimer() {
-            if (this.timer != null) {
-                this.timer.cancel(false);
-                this.timer = null;
-            }
-        }
-
-        public void run() {
-            SccpSegmentableMessageImpl msg = null;
-            synchronized (reassemplyCache) {
-                msg = reassemplyCache.remove(this);
-                if (msg == null)
-                    return;
-
-                msg.cancelSegmentation();
-            }
-
+    private class ReassemblyFailureListener implements ReassemblyCache.FailureListener {
+        public void onReassemblyFailure(SccpSegmentableMessageImpl firstSegment) {
             try {
-                sccpRoutingControl.sendSccpError(msg, ReturnCauseValue.CANNOT_REASEMBLE, null);
+                sccpRoutingControl.sendSccpError(firstSegment, ReturnCauseValue.CANNOT_REASEMBLE, null);
             } catch (Exception e) {
                 logger.warn("IOException when sending an error message", e);
             }
@@ -1534,54 +1494,71 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
      * Persist
      */
     public void store() {
+        this.getConfigJournal().store();
+    }
 
-        // TODO : Should we keep reference to Objects rather than recreating
-        // everytime?
-        try {
-            XMLObjectWriter writer = XMLObjectWriter.newInstance(new FileOutputStream(persistFile.toString()));
-            writer.setBinding(binding);
-            // Enables cross-references.
-            // writer.setReferenceResolver(new XMLReferenceResolver());
-            writer.setIndentation(TAB_INDENT);
-
-            writer.write(this.zMarginXudtMessage, Z_MARGIN_UDT_MSG, Integer.class);
-
-            writer.write(this.connEstTimerDelay, CONN_EST_TIMER_DELAY, Integer.class);
-            writer.write(this.iasTimerDelay, IAS_TIMER_DELAY, Integer.class);
-            writer.write(this.iarTimerDelay, IAR_TIMER_DELAY, Integer.class);
-            writer.write(this.relTimerDelay, REL_TIMER_DELAY, Integer.class);
-            writer.write(this.repeatRelTimerDelay, REPEAT_REL_TIMER_DELAY, Integer.class);
-            writer.write(this.intTimerDelay, INT_TIMER_DELAY, Integer.class);
-            writer.write(this.guardTimerDelay, GUARD_TIMER_DELAY, Integer.class);
-            writer.write(this.resetTimerDelay, RESET_TIMER_DELAY, Integer.class);
-            writer.write(this.reassemblyTimerDelay, REASSEMBLY_TIMER_DELAY, Integer.class);
-
-            writer.write(this.maxDataMessage, MAX_DATA_MSG, Integer.class);
-            writer.write(this.periodOfLogging, PERIOD_OF_LOG, Integer.class);
-            writer.write(this.removeSpc, REMOVE_SPC, Boolean.class);
-            writer.write(this.respectPc, RESPECT_PC, Boolean.class);
-            writer.write(this.canRelay, CAN_RELAY, Boolean.class);
-            writer.write(this.timerExecutorsThreadCount, TIMER_EXECUTORS_THREAD_COUNT, Integer.class);
-            writer.write(this.previewMode, PREVIEW_MODE, Boolean.class);
-            if (this.sccpProtocolVersion != null)
-                writer.write(this.sccpProtocolVersion.toString(), SCCP_PROTOCOL_VERSION, String.class);
-
-            writer.write(this.congControl_TIMER_A, CONG_CONTROL_TIMER_A, Integer.class);
-            writer.write(this.congControl_TIMER_D, CONG_CONTROL_TIMER_D, Integer.class);
-            if (this.congControl_Algo != null)
-                writer.write(this.congControl_Algo.toString(), CONG_CONTROL_ALGO, String.class);
-            writer.write(this.congControl_blockingOutgoungSccpMessages, CONG_CONTROL_BLOCKING_OUTGOUNG_SCCP_MESSAGES,
-                    Boolean.class);
-
-            writer.write(this.sstTimerDuration_Min, SST_TIMER_DURATION_MIN, Integer.class);
-            writer.write(this.sstTimerDuration_Max, SST_TIMER_DURATION_MAX, Integer.class);
-            writer.write(this.sstTimerDuration_IncreaseFactor, SST_TIMER_DURATION_INCREASE_FACTOR, Double.class);
-
-            writer.close();
-        } catch (Exception e) {
-            this.logger.error(
-                    String.format("Error while persisting the Sccp Resource state in file=%s", persistFile.toString()), e);
+    /**
+     * Persists the configuration in the background, used after a change of a setting
+     */
+    private void storeLater() {
+        if (this.configJournal != null)
+            this.configJournal.storeLater();
+        else
+            this.store();
+    }
+
+    private ConfigJournal getConfigJournal() {
+        if (this.configJournal == null) {
+            this.configJournal = new ConfigJournal(persistFile.toString(), new ConfigJournal.SnapshotWriter() {
+                public void writeSnapshot(OutputStream out) throws Exception {
+                    SccpStackImpl.this.writeConfiguration(out);
+                }
+            });
         }
+        return this.configJournal;
+    }
+
+    private void writeConfiguration(OutputStream out) throws XMLStreamException {
+        XMLObjectWriter writer = XMLObjectWriter.newInstance(out);
+        writer.setBinding(binding);
+        // Enables cross-references.
+        // writer.setReferenceResolver(new XMLReferenceResolver());
+        writer.setIndentation(TAB_INDENT);
+
+        writer.write(this.zMarginXudtMessage, Z_MARGIN_UDT_MSG, Integer.class);
+
+        writer.write(this.connEstTimerDelay, CONN_EST_TIMER_DELAY, Integer.class);
+        writer.write(this.iasTimerDelay, IAS_TIMER_DELAY, Integer.class);
+        writer.write(this.iarTimerDelay, IAR_TIMER_DELAY, Integer.class);
+        writer.write(this.relTimerDelay, REL_TIMER_DELAY, Integer.class);
+        writer.write(this.repeatRelTimerDelay, REPEAT_REL_TIMER_DELAY, Integer.class);
+        writer.write(this.intTimerDelay, INT_TIMER_DELAY, Integer.class);
+        writer.write(this.guardTimerDelay, GUARD_TIMER_DELAY, Integer.class);
+        writer.write(this.resetTimerDelay, RESET_TIMER_DELAY, Integer.class);
+        writer.write(this.reassemblyTimerDelay, REASSEMBLY_TIMER_DELAY, Integer.class);
+
+        writer.write(this.maxDataMessage, MAX_DATA_MSG, Integer.class);
+        writer.write(this.periodOfLogging, PERIOD_OF_LOG, Integer.class);
+        writer.write(this.removeSpc, REMOVE_SPC, Boolean.class);
+        writer.write(this.respectPc, RESPECT_PC, Boolean.class);
+        writer.write(this.canRelay, CAN_RELAY, Boolean.class);
+        writer.write(this.timerExecutorsThreadCount, TIMER_EXECUTORS_THREAD_COUNT, Integer.class);
+        writer.write(this.previewMode, PREVIEW_MODE, Boolean.class);
+        if (this.sccpProtocolVersion != null)
+            writer.write(this.sccpProtocolVersion.toString(), SCCP_PROTOCOL_VERSION, String.class);
+
+        writer.write(this.congControl_TIMER_A, CONG_CONTROL_TIMER_A, Integer.class);
+        writer.write(this.congControl_TIMER_D, CONG_CONTROL_TIMER_D, Integer.class);
+        if (this.congControl_Algo != null)
+            writer.write(this.congControl_Algo.toString(), CONG_CONTROL_ALGO, String.class);
+        writer.write(this.congControl_blockingOutgoungSccpMessages, CONG_CONTROL_BLOCKING_OUTGOUNG_SCCP_MESSAGES,
+                Boolean.class);
+
+        writer.write(this.sstTimerDuration_Min, SST_TIMER_DURATION_MIN, Integer.class);
+        writer.write(this.sstTimerDuration_Max, SST_TIMER_DURATION_MAX, Integer.class);
+        writer.write(this.sstTimerDuration_IncreaseFactor, SST_TIMER_DURATION_INCREASE_FACTOR, Double.class);
+
+        writer.close();
     }
 
     /**
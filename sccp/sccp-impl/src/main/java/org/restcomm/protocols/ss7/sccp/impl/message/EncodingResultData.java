@@ -22,6 +22,8 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.message;
 
+import io.netty.buffer.ByteBuf;
+
 import java.util.ArrayList;
 
 import org.restcomm.protocols.ss7.sccp.parameter.ReturnCauseValue;
@@ -35,6 +37,7 @@ public class EncodingResultData {
 
     private EncodingResult encodingResult;
     private byte[] solidData;
+    private ByteBuf solidDataBuf;
     private ArrayList<byte[]> segementedData;
     private ReturnCauseValue returnCause;
 
@@ -46,6 +49,11 @@ public class EncodingResultData {
         this.returnCause = returnCause;
     }
 
+    public EncodingResultData(EncodingResult encodingResult, ByteBuf solidDataBuf) {
+        this.encodingResult = encodingResult;
+        this.solidDataBuf = solidDataBuf;
+    }
+
     public EncodingResult getEncodingResult() {
         return encodingResult;
     }
@@ -54,6 +62,14 @@ public class EncodingResultData {
         return solidData;
     }
 
+    /**
+     * @return nonsegmented data encoded into a buffer allocated by Mtp3TransferPrimitiveFactory (if the Mtp3UserPart
+     *         supports data buffers)
+     */
+    public ByteBuf getSolidDataBuf() {
+        return solidDataBuf;
+    }
+
     public ArrayList<byte[]> getSegementedData() {
         return segementedData;
     }
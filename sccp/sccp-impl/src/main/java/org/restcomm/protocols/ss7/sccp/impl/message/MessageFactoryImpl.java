@@ -110,6 +110,26 @@ public class MessageFactoryImpl implements MessageFactory {
 
     public SccpMessageImpl createMessage(int type, int opc, int dpc, int sls, InputStream in, final SccpProtocolVersion sccpProtocolVersion, int networkId)
             throws ParseException {
+        SccpMessageImpl msg = this.createEmptyMessage(type, opc, dpc, sls, networkId);
+        if (msg != null) {
+            msg.decode(in, sccpStackImpl.getSccpProvider().getParameterFactory(), sccpProtocolVersion);
+        }
+        return msg;
+    }
+
+    /**
+     * Creates and decodes a message from buf[off, off + len), the message type octet is not included
+     */
+    public SccpMessageImpl createMessage(int type, int opc, int dpc, int sls, byte[] buf, int off, int len,
+            final SccpProtocolVersion sccpProtocolVersion, int networkId) throws ParseException {
+        SccpMessageImpl msg = this.createEmptyMessage(type, opc, dpc, sls, networkId);
+        if (msg != null) {
+            msg.decode(buf, off, len, sccpStackImpl.getSccpProvider().getParameterFactory(), sccpProtocolVersion);
+        }
+        return msg;
+    }
+
+    private SccpMessageImpl createEmptyMessage(int type, int opc, int dpc, int sls, int networkId) {
         SccpMessageImpl msg = null;
         switch (type) {
             case SccpMessage.MESSAGE_TYPE_UDT:
@@ -173,9 +193,7 @@ public class MessageFactoryImpl implements MessageFactory {
                 break;
         }
 
-        if (msg != null) {
-            msg.decode(in, sccpStackImpl.getSccpProvider().getParameterFactory(), sccpProtocolVersion);
-        } else if (logger.isEnabledFor(Level.WARN)) {
+        if (msg == null && logger.isEnabledFor(Level.WARN)) {
             logger.warn("No message implementation for MT: " + type);
         }
         return msg;
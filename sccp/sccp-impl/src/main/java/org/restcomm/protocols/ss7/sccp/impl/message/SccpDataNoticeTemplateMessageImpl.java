@@ -22,13 +22,19 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.message;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitiveFactory;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
@@ -269,6 +275,118 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
         }
     }
 
+    /**
+     * Decodes the message directly from the MTP3 payload array: pointers are resolved against the array, addresses and
+     * optional parameters are decoded in place, only the user data is copied.
+     */
+    @Override
+    public void decode(byte[] buf, int off, int len, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion)
+            throws ParseException {
+        int end = off + len;
+        int pos = off;
+        checkLength(pos, 1, end);
+        this.setSecondParamaterData(buf[pos++] & 0xff, sccpProtocolVersion);
+
+        int pointerCount;
+        boolean longMessage;
+        switch (this.type) {
+            case SccpMessage.MESSAGE_TYPE_UDT:
+            case SccpMessage.MESSAGE_TYPE_UDTS:
+                pointerCount = 3;
+                longMessage = false;
+                break;
+            case SccpMessage.MESSAGE_TYPE_XUDT:
+            case SccpMessage.MESSAGE_TYPE_XUDTS:
+                pointerCount = 4;
+                longMessage = false;
+                break;
+            case SccpMessage.MESSAGE_TYPE_LUDT:
+            case SccpMessage.MESSAGE_TYPE_LUDTS:
+                pointerCount = 4;
+                longMessage = true;
+                break;
+            default:
+                return;
+        }
+
+        if (pointerCount == 4) {
+            checkLength(pos, 1, end);
+            this.hopCounter = new HopCounterImpl(buf[pos++]);
+            if (this.hopCounter.getValue() > HopCounter.COUNT_HIGH || this.hopCounter.getValue() <= HopCounter.COUNT_LOW) {
+                throw new ParseException("Hop Counter must be between 1 and 15, it is: " + this.hopCounter);
+            }
+        }
+
+        int pointerLen = longMessage ? 2 : 1;
+        checkLength(pos, pointerCount * pointerLen, end);
+
+        int cdpPos = pointerTarget(buf, pos, longMessage, end);
+        checkLength(cdpPos, 1, end);
+        int cdpLen = buf[cdpPos] & 0xff;
+        checkLength(cdpPos + 1, cdpLen, end);
+        SccpAddressImpl cdp = new SccpAddressImpl();
+        cdp.decode(buf, cdpPos + 1, cdpLen, factory, sccpProtocolVersion);
+        this.calledParty = cdp;
+
+        int cnpPos = pointerTarget(buf, pos + pointerLen, longMessage, end);
+        checkLength(cnpPos, 1, end);
+        int cnpLen = buf[cnpPos] & 0xff;
+        checkLength(cnpPos + 1, cnpLen, end);
+        SccpAddressImpl cnp = new SccpAddressImpl();
+        cnp.decode(buf, cnpPos + 1, cnpLen, factory, sccpProtocolVersion);
+        this.callingParty = cnp;
+
+        int dataPos = pointerTarget(buf, pos + 2 * pointerLen, longMessage, end);
+        int dataLen;
+        if (longMessage) {
+            checkLength(dataPos, 2, end);
+            dataLen = (buf[dataPos] & 0xff) + ((buf[dataPos + 1] & 0xff) << 8);
+            dataPos += 2;
+        } else {
+            checkLength(dataPos, 1, end);
+            dataLen = buf[dataPos++] & 0xff;
+        }
+        checkLength(dataPos, dataLen, end);
+        this.data = Arrays.copyOfRange(buf, dataPos, dataPos + dataLen);
+
+        if (pointerCount < 4)
+            return;
+        int optPointerPos = pos + 3 * pointerLen;
+        if (buf[optPointerPos] == 0 && (!longMessage || buf[optPointerPos + 1] == 0)) {
+            // we are done
+            return;
+        }
+        int optPos = pointerTarget(buf, optPointerPos, longMessage, end);
+        while (optPos < end) {
+            int paramCode = buf[optPos++] & 0xff;
+            if (paramCode == 0) // EOP
+                break;
+            checkLength(optPos, 1, end);
+            int paramLen = buf[optPos++] & 0xff;
+            checkLength(optPos, paramLen, end);
+            this.decodeOptional(paramCode, Arrays.copyOfRange(buf, optPos, optPos + paramLen), sccpProtocolVersion);
+            optPos += paramLen;
+        }
+    }
+
+    private static int pointerTarget(byte[] buf, int pointerPos, boolean longPointer, int end) throws ParseException {
+        // a pointer value is the offset from the pointer octet (for two octet pointers - from the second octet)
+        int res;
+        if (longPointer) {
+            res = pointerPos + 1 + (buf[pointerPos] & 0xff) + ((buf[pointerPos + 1] & 0xff) << 8);
+        } else {
+            res = pointerPos + (buf[pointerPos] & 0xff);
+        }
+        if (res >= end)
+            throw new ParseException("Not enough data in buffer");
+        return res;
+    }
+
+    private static void checkLength(int pos, int needed, int end) throws ParseException {
+        if (pos + needed > end)
+            throw new ParseException("Not enough data in buffer");
+    }
+
     private void decodeOptional(int code, byte[] buffer, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
 
         switch (code) {
@@ -289,6 +407,18 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
     @Override
     public EncodingResultData encode(SccpStackImpl sccpStackImpl, LongMessageRuleType longMessageRuleType, int maxMtp3UserDataLength, Logger logger,
             boolean removeSPC, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        return this.encode(sccpStackImpl, longMessageRuleType, maxMtp3UserDataLength, logger, removeSPC, sccpProtocolVersion,
+                null);
+    }
+
+    /**
+     * Encodes the message. If mtp3TransferPrimitiveFactory supplies data buffers a nonsegmented message is encoded directly
+     * into a buffer with a headroom for the lower layer headers ({@link EncodingResultData#getSolidDataBuf()}).
+     */
+    public EncodingResultData encode(SccpStackImpl sccpStackImpl, LongMessageRuleType longMessageRuleType, int maxMtp3UserDataLength, Logger logger,
+            boolean removeSPC, SccpProtocolVersion sccpProtocolVersion, Mtp3TransferPrimitiveFactory mtp3TransferPrimitiveFactory)
+            throws ParseException {
+        ByteBuf outBuf = null;
         try {
             byte[] bf = this.getData();
             if (bf == null || bf.length == 0)
@@ -340,7 +470,8 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                     return new EncodingResultData(EncodingResult.ReturnFailure, null, null, ReturnCauseValue.SEG_NOT_SUPPORTED);
                 }
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLen + bf.length);
+                outBuf = allocateDataBuf(mtp3TransferPrimitiveFactory, fieldsLen + bf.length);
+                OutputStream out = createOutputStream(outBuf, fieldsLen + bf.length);
 
                 if (isServiceMessage)
                     this.type = SccpMessage.MESSAGE_TYPE_UDTS;
@@ -367,7 +498,10 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                 out.write((byte) bf.length);
                 out.write(bf);
 
-                return new EncodingResultData(EncodingResult.Success, out.toByteArray(), null, null);
+                EncodingResultData res = createSolidResult(out, outBuf);
+                // the buffer is owned by the caller now
+                outBuf = null;
+                return res;
             } else if (longMessageRuleType == LongMessageRuleType.XUDT_ENABLED) {
 
                 // use XUDT / XUDTS
@@ -392,7 +526,8 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
 
                 if (bf.length <= availLenX && bf.length <= sccpStackImpl.getZMarginXudtMessage()) {
                     // one segment
-                    ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenX + bf.length);
+                    outBuf = allocateDataBuf(mtp3TransferPrimitiveFactory, fieldsLenX + bf.length);
+                    OutputStream out = createOutputStream(outBuf, fieldsLenX + bf.length);
 
                     out.write(this.type);
 
@@ -437,7 +572,10 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                     if (optionalPresent)
                         out.write(0x00);
 
-                    return new EncodingResultData(EncodingResult.Success, out.toByteArray(), null, null);
+                    EncodingResultData res = createSolidResult(out, outBuf);
+                    // the buffer is owned by the caller now
+                    outBuf = null;
+                    return res;
                 } else {
                     // several segments
                     if (bf.length > availLenXSegm * 16) {
@@ -563,7 +701,8 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                     return new EncodingResultData(EncodingResult.ReturnFailure, null, null, ReturnCauseValue.SEG_FAILURE);
                 }
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenL + bf.length);
+                outBuf = allocateDataBuf(mtp3TransferPrimitiveFactory, fieldsLenL + bf.length);
+                OutputStream out = createOutputStream(outBuf, fieldsLenL + bf.length);
 
                 out.write(this.type);
 
@@ -620,13 +759,40 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                 if (optionalPresent)
                     out.write(0x00);
 
-                return new EncodingResultData(EncodingResult.Success, out.toByteArray(), null, null);
+                EncodingResultData res = createSolidResult(out, outBuf);
+                // the buffer is owned by the caller now
+                outBuf = null;
+                return res;
             }
         } catch (IOException e) {
             throw new ParseException(e);
+        } finally {
+            // encoding has failed - the pooled buffer must go back to the pool
+            if (outBuf != null)
+                outBuf.release();
         }
     }
 
+    private static ByteBuf allocateDataBuf(Mtp3TransferPrimitiveFactory mtp3TransferPrimitiveFactory, int len) {
+        if (mtp3TransferPrimitiveFactory == null)
+            return null;
+        return mtp3TransferPrimitiveFactory.allocateDataBuf(len);
+    }
+
+    private static OutputStream createOutputStream(ByteBuf outBuf, int len) {
+        if (outBuf != null)
+            return new ByteBufOutputStream(outBuf);
+        else
+            return new ByteArrayOutputStream(len);
+    }
+
+    private static EncodingResultData createSolidResult(OutputStream out, ByteBuf outBuf) {
+        if (outBuf != null)
+            return new EncodingResultData(EncodingResult.Success, outBuf);
+        else
+            return new EncodingResultData(EncodingResult.Success, ((ByteArrayOutputStream) out).toByteArray(), null, null);
+    }
+
     protected SccpAddress createAddress(byte[] buffer, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
         SccpAddressImpl addressImpl = new SccpAddressImpl();
         addressImpl.decode(buffer, factory, sccpProtocolVersion);
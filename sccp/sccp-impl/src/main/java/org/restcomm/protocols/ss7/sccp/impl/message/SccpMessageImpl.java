@@ -22,6 +22,7 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.message;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 
 import org.apache.log4j.Logger;
@@ -137,6 +138,15 @@ public abstract class SccpMessageImpl implements SccpMessage {
 
     public abstract void decode(InputStream in, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion) throws ParseException;
 
+    /**
+     * Decodes the message body (that follows the message type octet) from buf[off, off + len). Messages that have a
+     * direct array decoder override it, others are decoded via an InputStream.
+     */
+    public void decode(byte[] buf, int off, int len, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion)
+            throws ParseException {
+        this.decode(new ByteArrayInputStream(buf, off, len), factory, sccpProtocolVersion);
+    }
+
     public abstract EncodingResultData encode(SccpStackImpl sccpStackImpl, LongMessageRuleType longMessageRuleType, int maxMtp3UserDataLength, Logger logger,
             boolean removeSPC, SccpProtocolVersion sccpProtocolVersion) throws ParseException;
 
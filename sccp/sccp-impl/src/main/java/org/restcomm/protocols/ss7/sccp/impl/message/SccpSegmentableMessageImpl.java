@@ -22,10 +22,6 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.message;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-
-import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.SegmentationImpl;
 import org.restcomm.protocols.ss7.sccp.parameter.HopCounter;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
@@ -45,9 +41,6 @@ public abstract class SccpSegmentableMessageImpl extends SccpAddressedMessageImp
 
     protected boolean isFullyRecieved;
     protected int remainingSegments;
-    protected ByteArrayOutputStream buffer;
-
-    protected SccpStackImpl.MessageReassemblyProcess mrp;
 
     protected SccpSegmentableMessageImpl(int maxDataLen, int type, int outgoingSls, int localSsn,
             SccpAddress calledParty, SccpAddress callingParty, byte[] data, HopCounter hopCounter) {
@@ -92,39 +85,20 @@ public abstract class SccpSegmentableMessageImpl extends SccpAddressedMessageImp
             return;
 
         this.remainingSegments = this.segmentation.getRemainingSegments();
-        this.buffer = new ByteArrayOutputStream(this.data.length * (this.remainingSegments + 1));
-        try {
-            this.buffer.write(this.data);
-        } catch (IOException e) {
-            // this can not occur
-            e.printStackTrace();
-        }
     }
 
-    public void setReceivedNextSegment(SccpSegmentableMessageImpl nextSegement) {
-        try {
-            this.buffer.write(nextSegement.data);
-        } catch (IOException e) {
-            // this can not occur
-            e.printStackTrace();
-        }
-
-        if (--this.remainingSegments == 0) {
-            this.data = this.buffer.toByteArray();
-            this.isFullyRecieved = true;
-        }
+    /**
+     * Sets the data of all segments when the last segment has been received (segments are collected by
+     * {@link org.restcomm.protocols.ss7.sccp.impl.ReassemblyCache})
+     */
+    public void setReceivedLastSegment(byte[] reassembledData) {
+        this.data = reassembledData;
+        this.remainingSegments = 0;
+        this.isFullyRecieved = true;
     }
 
     public void cancelSegmentation() {
         this.remainingSegments = -1;
         this.isFullyRecieved = false;
     }
-
-    public SccpStackImpl.MessageReassemblyProcess getMessageReassemblyProcess() {
-        return mrp;
-    }
-
-    public void setMessageReassemblyProcess(SccpStackImpl.MessageReassemblyProcess mrp) {
-        this.mrp = mrp;
-    }
 }
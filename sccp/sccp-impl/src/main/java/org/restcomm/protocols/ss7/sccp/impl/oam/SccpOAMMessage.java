@@ -135,4 +135,6 @@ public interface SccpOAMMessage {
     String NO_SCCP_MANAGEMENT_BEAN_FOR_NAME = "No SCCP management bean found for passed name=%s";
 
     String NO_SCCP_EXT_MODULE = "No SCCP external module found name=%s";
+
+    String CONFIG_NOT_LOADED = "Configuration is not loaded on stack=%s, the change can not be persisted before the stack is started";
 }
@@ -23,6 +23,9 @@ package org.restcomm.protocols.ss7.sccp.impl.parameter;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 
 import javolution.xml.XMLSerializable;
 
@@ -31,6 +34,7 @@ import org.restcomm.protocols.ss7.sccp.message.ParseException;
 import org.restcomm.protocols.ss7.sccp.parameter.EncodingScheme;
 import org.restcomm.protocols.ss7.sccp.parameter.GlobalTitle;
 import org.restcomm.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.restcomm.protocols.ss7.utils.DigitString;
 
 /**
  * @author baranowb
@@ -38,6 +42,9 @@ import org.restcomm.protocols.ss7.sccp.parameter.ParameterFactory;
 public abstract class AbstractGlobalTitle extends AbstractParameter implements GlobalTitle, XMLSerializable {
 
     protected String digits;
+    // a decoded global title keeps its digits packed as they were received, they are converted into the String at the
+    // first getDigits() invoking
+    private DigitString packedDigits;
 
     //not codable, just used to encode/decode digits in a common way.
     protected EncodingScheme encodingScheme;
@@ -54,18 +61,98 @@ public abstract class AbstractGlobalTitle extends AbstractParameter implements G
 
     @Override
     public String getDigits() {
-        return this.digits;
+        String res = this.digits;
+        if (res == null && this.packedDigits != null) {
+            res = this.packedDigits.toString();
+            this.digits = res;
+        }
+        return res;
+    }
+
+    /**
+     * @return the packed digits of a decoded global title or null if the global title was not decoded or the encoding
+     *         scheme is not a BCD one
+     */
+    public DigitString getDigitString() {
+        return this.packedDigits;
+    }
+
+    /**
+     * @return the count of digits or -1 if digits are not set
+     */
+    protected int getDigitsLength() {
+        if (this.packedDigits != null)
+            return this.packedDigits.length();
+        return this.digits == null ? -1 : this.digits.length();
+    }
+
+    /**
+     * Decodes the global title from buf[pos, end), the global title takes the rest of the called / calling party address
+     */
+    public abstract void decode(byte[] buf, int pos, int end, ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion)
+            throws ParseException;
+
+    @Override
+    public void decode(final InputStream in, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion)
+            throws ParseException {
+        try {
+            byte[] buf = new byte[in.available()];
+            int len = 0;
+            while (len < buf.length) {
+                int n = in.read(buf, len, buf.length - len);
+                if (n < 0)
+                    break;
+                len += n;
+            }
+            this.decode(buf, 0, len, factory, sccpProtocolVersion);
+        } catch (IOException e) {
+            throw new ParseException(e);
+        }
     }
 
     @Override
     public void decode(byte[] b, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
-        this.decode(new ByteArrayInputStream(b), factory, sccpProtocolVersion);
+        this.decode(b, 0, b.length, factory, sccpProtocolVersion);
+    }
+
+    /**
+     * Decodes the address signal from buf[pos, end) with the encodingScheme that has already been set
+     */
+    protected void decodeDigits(byte[] buf, int pos, int end) throws ParseException {
+        if (this.encodingScheme instanceof DefaultEncodingScheme) {
+            this.digits = null;
+            this.packedDigits = DigitString.decodeBcd(buf, pos, end - pos,
+                    ((DefaultEncodingScheme) this.encodingScheme).isOdd());
+        } else {
+            this.packedDigits = null;
+            this.digits = this.encodingScheme.decode(new ByteArrayInputStream(buf, pos, end - pos));
+        }
+    }
+
+    /**
+     * Encodes the address signal, packed digits of a decoded global title are written as they are
+     */
+    protected void encodeDigits(OutputStream out) throws ParseException {
+        if (this.packedDigits != null) {
+            try {
+                this.packedDigits.writeTo(out);
+            } catch (IOException e) {
+                throw new ParseException(e);
+            }
+        } else {
+            this.encodingScheme.encode(this.digits, out);
+        }
+    }
+
+    protected static void checkLength(int pos, int needed, int end) throws ParseException {
+        if (pos + needed > end)
+            throw new ParseException("Not enough data in buffer for a GlobalTitle");
     }
 
     @Override
     public byte[] encode(final boolean removeSpc, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        this.encodingScheme.encode(digits, baos);
+        this.encodeDigits(baos);
         return baos.toByteArray();
     }
 
@@ -73,7 +160,11 @@ public abstract class AbstractGlobalTitle extends AbstractParameter implements G
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((digits == null) ? 0 : digits.hashCode());
+        // DigitString.hashCode() is equal to the hash code of its String
+        if (this.packedDigits != null)
+            result = prime * result + this.packedDigits.hashCode();
+        else
+            result = prime * result + ((digits == null) ? 0 : digits.hashCode());
         result = prime * result + ((encodingScheme == null) ? 0 : encodingScheme.hashCode());
         return result;
     }
@@ -87,10 +178,18 @@ public abstract class AbstractGlobalTitle extends AbstractParameter implements G
         if (getClass() != obj.getClass())
             return false;
         AbstractGlobalTitle other = (AbstractGlobalTitle) obj;
-        if (digits == null) {
-            if (other.digits != null)
+        if (this.packedDigits != null && other.packedDigits != null) {
+            if (!this.packedDigits.equals(other.packedDigits))
+                return false;
+        } else if (this.packedDigits != null || other.packedDigits != null) {
+            DigitString ds = this.packedDigits != null ? this.packedDigits : other.packedDigits;
+            String s = this.packedDigits != null ? other.digits : this.digits;
+            if (s == null || !ds.contentEquals(s))
+                return false;
+        } else if (digits == null) {
+            if (other.getDigits() != null)
                 return false;
-        } else if (!digits.equals(other.digits))
+        } else if (!digits.equals(other.getDigits()))
             return false;
         if (encodingScheme == null) {
             if (other.encodingScheme != null)
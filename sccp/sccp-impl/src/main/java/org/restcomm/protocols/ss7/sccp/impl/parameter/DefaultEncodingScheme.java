@@ -40,6 +40,8 @@ public class DefaultEncodingScheme implements EncodingScheme, XMLSerializable {
     public static final EncodingScheme INSTANCE = new DefaultEncodingScheme();
     public static final int SCHEMA_CODE = 0;
 
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
     public DefaultEncodingScheme() {
     }
 
@@ -99,25 +101,36 @@ public class DefaultEncodingScheme implements EncodingScheme, XMLSerializable {
     @Override
     public String decode(InputStream is) throws ParseException {
         try {
-            int b;
-            StringBuilder digits = new StringBuilder();
-
-            while (is.available() > 0) {
-                b = is.read() & 0xff;
-
-                digits.append(Integer.toHexString(b & 0x0f));
-                digits.append(Integer.toHexString((b & 0xf0) >> 4));
-            }
-
-            if (isOdd()) {
-                digits.deleteCharAt(digits.length() - 1);
+            byte[] buf = new byte[is.available()];
+            int len = 0;
+            while (len < buf.length) {
+                int n = is.read(buf, len, buf.length - len);
+                if (n < 0)
+                    break;
+                len += n;
             }
-
-            return digits.toString().toLowerCase();
+            return decode(buf, 0, len);
         } catch (IOException e) {
             throw new ParseException(e);
         }
     }
+
+    /**
+     * Decodes digits that fill buf from pos (inclusive) to end (exclusive)
+     */
+    public String decode(byte[] buf, int pos, int end) {
+        int cnt = (end - pos) * 2;
+        if (isOdd() && cnt > 0)
+            cnt--;
+        char[] res = new char[cnt];
+        for (int i1 = 0; i1 < cnt; i1 += 2) {
+            int b = buf[pos++];
+            res[i1] = HEX_DIGITS[b & 0x0f];
+            if (i1 + 1 < cnt)
+                res[i1 + 1] = HEX_DIGITS[(b >> 4) & 0x0f];
+        }
+        return new String(res);
+    }
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -22,7 +22,6 @@
 package org.restcomm.protocols.ss7.sccp.impl.parameter;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 
 import javolution.xml.XMLFormat;
@@ -72,19 +71,16 @@ public class GlobalTitle0001Impl extends AbstractGlobalTitle implements GlobalTi
     }
 
     @Override
-    public void decode(final InputStream in, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
-        try {
-            int b = in.read() & 0xff;
-            this.natureOfAddress = NatureOfAddress.valueOf(b & 0x7f);
-            if((b & 0x80) >0){
-                super.encodingScheme = BCDOddEncodingScheme.INSTANCE;
-            } else {
-                super.encodingScheme = BCDEvenEncodingScheme.INSTANCE;
-            }
-            super.digits = this.encodingScheme.decode(in);
-        } catch (IOException e) {
-            throw new ParseException(e);
+    public void decode(final byte[] buf, int pos, final int end, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        checkLength(pos, 1, end);
+        int b = buf[pos++] & 0xff;
+        this.natureOfAddress = NatureOfAddress.valueOf(b & 0x7f);
+        if((b & 0x80) >0){
+            super.encodingScheme = BCDOddEncodingScheme.INSTANCE;
+        } else {
+            super.encodingScheme = BCDEvenEncodingScheme.INSTANCE;
         }
+        this.decodeDigits(buf, pos, end);
     }
 
     @Override
@@ -94,7 +90,11 @@ public class GlobalTitle0001Impl extends AbstractGlobalTitle implements GlobalTi
                 throw new IllegalStateException();
             }
 
-            boolean odd = (super.digits.length() % 2) != 0;
+            int digitsLength = getDigitsLength();
+            if (digitsLength < 0) {
+                throw new IllegalStateException();
+            }
+            boolean odd = (digitsLength % 2) != 0;
             // encoding first byte
             int b = 0x00;
             if (odd) {
@@ -106,10 +106,7 @@ public class GlobalTitle0001Impl extends AbstractGlobalTitle implements GlobalTi
             out.write((byte) b);
 
             // encode digits
-            if(super.digits == null){
-                throw new IllegalStateException();
-            }
-            this.encodingScheme.encode(digits, out);
+            this.encodeDigits(out);
         } catch (IOException e) {
             throw new ParseException(e);
         }
@@ -139,7 +136,7 @@ public class GlobalTitle0001Impl extends AbstractGlobalTitle implements GlobalTi
 
     @Override
     public String toString() {
-        return "GlobalTitle0001Impl [digits=" + digits + ", natureOfAddress=" + natureOfAddress + ", encodingScheme="
+        return "GlobalTitle0001Impl [digits=" + getDigits() + ", natureOfAddress=" + natureOfAddress + ", encodingScheme="
                 + encodingScheme + "]";
     }
 
@@ -149,7 +146,7 @@ public class GlobalTitle0001Impl extends AbstractGlobalTitle implements GlobalTi
         public void write(GlobalTitle0001Impl ai, OutputElement xml) throws XMLStreamException {
             // xml.setAttribute(GLOBALTITLE_INDICATOR, ai.gti.getValue());
             xml.setAttribute(NATURE_OF_ADDRESS_INDICATOR, ai.natureOfAddress.getValue());
-            xml.setAttribute(DIGITS, ai.digits);
+            xml.setAttribute(DIGITS, ai.getDigits());
         }
 
         public void read(InputElement xml, GlobalTitle0001Impl ai) throws XMLStreamException {
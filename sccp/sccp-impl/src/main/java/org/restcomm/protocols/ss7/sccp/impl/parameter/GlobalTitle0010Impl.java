@@ -22,7 +22,6 @@
 package org.restcomm.protocols.ss7.sccp.impl.parameter;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 
 import javolution.xml.XMLFormat;
@@ -77,24 +76,21 @@ public class GlobalTitle0010Impl extends AbstractGlobalTitle implements GlobalTi
     }
 
     @Override
-    public void decode(final InputStream in,final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
-        try{
-        this.translationType = in.read() & 0xff;
+    public void decode(final byte[] buf, int pos, final int end, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        checkLength(pos, 1, end);
+        this.translationType = buf[pos++] & 0xff;
         super.encodingScheme = getEncodingScheme(translationType);
-        super.digits = this.encodingScheme.decode(in);
-        } catch (IOException e) {
-            throw new ParseException(e);
-        }
+        this.decodeDigits(buf, pos, end);
     }
 
     @Override
     public void encode(final OutputStream out, final boolean removeSpc, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
         try {
             out.write(this.translationType);
-            if(super.digits == null){
+            if (getDigitsLength() < 0){
                 throw new IllegalStateException();
             }
-            this.encodingScheme.encode(digits, out);
+            this.encodeDigits(out);
         } catch (IOException e) {
             throw new ParseException(e);
         }
@@ -124,7 +120,7 @@ public class GlobalTitle0010Impl extends AbstractGlobalTitle implements GlobalTi
 
     @Override
     public String toString() {
-        return "GlobalTitle0010Impl [digits=" + digits + ", translationType=" + translationType + ", encodingScheme="
+        return "GlobalTitle0010Impl [digits=" + getDigits() + ", translationType=" + translationType + ", encodingScheme="
                 + encodingScheme + "]";
     }
 
@@ -132,7 +128,7 @@ public class GlobalTitle0010Impl extends AbstractGlobalTitle implements GlobalTi
 
         public void write(GlobalTitle0010Impl ai, OutputElement xml) throws XMLStreamException {
             xml.setAttribute(TRANSLATION_TYPE, ai.translationType);
-            xml.setAttribute(DIGITS, ai.digits);
+            xml.setAttribute(DIGITS, ai.getDigits());
         }
 
         public void read(InputElement xml, GlobalTitle0010Impl ai) throws XMLStreamException {
@@ -22,7 +22,6 @@
 package org.restcomm.protocols.ss7.sccp.impl.parameter;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 
 import javolution.xml.XMLFormat;
@@ -91,29 +90,26 @@ public class GlobalTitle0011Impl extends AbstractGlobalTitle implements GlobalTi
     }
 
     @Override
-    public void decode(final InputStream in,final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
-        try{
-        this.translationType = in.read() & 0xff;
+    public void decode(final byte[] buf, int pos, final int end, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        checkLength(pos, 2, end);
+        this.translationType = buf[pos++] & 0xff;
 
-        int b = in.read() & 0xff;
+        int b = buf[pos++] & 0xff;
 
         this.encodingScheme = factory.createEncodingScheme((byte) (b & 0x0f));
         this.numberingPlan = NumberingPlan.valueOf((b & 0xf0) >> 4);
-        super.digits = this.encodingScheme.decode(in);
-        } catch (IOException e) {
-            throw new ParseException(e);
-        }
+        this.decodeDigits(buf, pos, end);
     }
 
     @Override
     public void encode(OutputStream out, final boolean removeSpc, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
         try{
-        if(super.digits == null){
+        if (getDigitsLength() < 0){
             throw new IllegalStateException();
         }
         out.write(this.translationType);
         out.write((this.numberingPlan.getValue() << 4) | this.encodingScheme.getSchemeCode());
-        this.encodingScheme.encode(digits, out);
+        this.encodeDigits(out);
         } catch (IOException e) {
             throw new ParseException(e);
         }
@@ -146,7 +142,7 @@ public class GlobalTitle0011Impl extends AbstractGlobalTitle implements GlobalTi
 
     @Override
     public String toString() {
-        return "GlobalTitle0011Impl [digits=" + digits + ",numberingPlan=" + numberingPlan + ", translationType=" + translationType + ", encodingScheme=" + encodingScheme + "]";
+        return "GlobalTitle0011Impl [digits=" + getDigits() + ",numberingPlan=" + numberingPlan + ", translationType=" + translationType + ", encodingScheme=" + encodingScheme + "]";
     }
  // default XML representation.
     protected static final XMLFormat<GlobalTitle0011Impl> XML = new XMLFormat<GlobalTitle0011Impl>(GlobalTitle0011Impl.class) {
@@ -155,7 +151,7 @@ public class GlobalTitle0011Impl extends AbstractGlobalTitle implements GlobalTi
             xml.setAttribute(TRANSLATION_TYPE, ai.translationType);
             xml.setAttribute(ENCODING_SCHEME, ai.encodingScheme.getSchemeCode());
             xml.setAttribute(NUMBERING_PLAN, ai.numberingPlan.getValue());
-            xml.setAttribute(DIGITS, ai.digits);
+            xml.setAttribute(DIGITS, ai.getDigits());
         }
 
         public void read(InputElement xml, GlobalTitle0011Impl ai) throws XMLStreamException {
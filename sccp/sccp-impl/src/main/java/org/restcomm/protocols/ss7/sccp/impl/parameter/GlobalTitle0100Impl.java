@@ -22,7 +22,6 @@
 package org.restcomm.protocols.ss7.sccp.impl.parameter;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 
 import javolution.xml.XMLFormat;
@@ -101,32 +100,29 @@ public class GlobalTitle0100Impl extends AbstractGlobalTitle implements GlobalTi
     }
 
     @Override
-    public void decode(final InputStream in,final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
-        try{
-        this.translationType = in.read() & 0xff;
+    public void decode(final byte[] buf, int pos, final int end, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        checkLength(pos, 3, end);
+        this.translationType = buf[pos++] & 0xff;
 
-        int b = in.read() & 0xff;
+        int b = buf[pos++] & 0xff;
 
         this.encodingScheme = factory.createEncodingScheme((byte) (b & 0x0f));
         this.numberingPlan = NumberingPlan.valueOf((b & 0xf0) >> 4);
-        b = in.read() & 0xff;
+        b = buf[pos++] & 0xff;
         this.natureOfAddress = NatureOfAddress.valueOf(b);
-        super.digits = this.encodingScheme.decode(in);
-        } catch (IOException e) {
-            throw new ParseException(e);
-        }
+        this.decodeDigits(buf, pos, end);
     }
 
     @Override
     public void encode(OutputStream out, final boolean removeSpc, final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
         try{
-        if(super.digits == null){
+        if (getDigitsLength() < 0){
             throw new IllegalStateException();
         }
         out.write(this.translationType);
         out.write((this.numberingPlan.getValue() << 4) | this.encodingScheme.getSchemeCode());
         out.write(this.natureOfAddress.getValue());
-        this.encodingScheme.encode(digits, out);
+        this.encodeDigits(out);
         } catch (IOException e) {
             throw new ParseException(e);
         }
@@ -162,7 +158,7 @@ public class GlobalTitle0100Impl extends AbstractGlobalTitle implements GlobalTi
 
     @Override
     public String toString() {
-        return "GlobalTitle0100Impl [digits=" + digits + ", natureOfAddress=" + natureOfAddress + ", numberingPlan=" + numberingPlan
+        return "GlobalTitle0100Impl [digits=" + getDigits() + ", natureOfAddress=" + natureOfAddress + ", numberingPlan=" + numberingPlan
                 + ", translationType=" + translationType + ", encodingScheme=" + encodingScheme + "]";
     }
 
@@ -174,7 +170,7 @@ public class GlobalTitle0100Impl extends AbstractGlobalTitle implements GlobalTi
             xml.setAttribute(ENCODING_SCHEME, ai.encodingScheme.getSchemeCode());
             xml.setAttribute(NUMBERING_PLAN, ai.numberingPlan.getValue());
             xml.setAttribute(NATURE_OF_ADDRESS_INDICATOR, ai.natureOfAddress.getValue());
-            xml.setAttribute(DIGITS, ai.digits);
+            xml.setAttribute(DIGITS, ai.getDigits());
         }
 
         public void read(InputElement xml, GlobalTitle0100Impl ai) throws XMLStreamException {
@@ -22,7 +22,6 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.parameter;
 
-import java.io.InputStream;
 import java.io.OutputStream;
 
 import javolution.xml.XMLFormat;
@@ -54,30 +53,25 @@ public class NoGlobalTitle extends AbstractGlobalTitle {
     }
 
     @Override
-    public String getDigits() {
-        return super.digits;
-    }
-
-    @Override
-    public void decode(final InputStream in, final ParameterFactory factory, final SccpProtocolVersion sccpProtocolVersion)
-            throws ParseException {
-        this.digits = this.encodingScheme.decode(in);
+    public void decode(final byte[] buf, final int pos, final int end, final ParameterFactory factory,
+            final SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        this.decodeDigits(buf, pos, end);
     }
 
     @Override
     public void encode(OutputStream out, final boolean removeSpc, final SccpProtocolVersion sccpProtocolVersion)
             throws ParseException {
-        if (this.digits == null) {
+        if (getDigitsLength() < 0) {
             throw new IllegalStateException();
         }
-        this.encodingScheme.encode(this.digits, out);
+        this.encodeDigits(out);
     }
 
     // default XML representation.
     protected static final XMLFormat<NoGlobalTitle> XML = new XMLFormat<NoGlobalTitle>(NoGlobalTitle.class) {
 
         public void write(NoGlobalTitle ai, OutputElement xml) throws XMLStreamException {
-            xml.setAttribute(DIGITS, ai.digits);
+            xml.setAttribute(DIGITS, ai.getDigits());
         }
 
         public void read(InputElement xml, NoGlobalTitle ai) throws XMLStreamException {
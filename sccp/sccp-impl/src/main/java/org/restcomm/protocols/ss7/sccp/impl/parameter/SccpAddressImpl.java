@@ -21,7 +21,6 @@
 
 package org.restcomm.protocols.ss7.sccp.impl.parameter;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -266,8 +265,54 @@ public class SccpAddressImpl extends AbstractParameter implements XMLSerializabl
     }
 
     public void decode(final byte[] b, final ParameterFactory factory, SccpProtocolVersion sccpProtocolVersion) throws ParseException {
-        ByteArrayInputStream bin = new ByteArrayInputStream(b);
-        this.decode(bin, factory, sccpProtocolVersion);
+        this.decode(b, 0, b.length, factory, sccpProtocolVersion);
+    }
+
+    /**
+     * Decodes the address directly from buf[off, off + len) (the length octet is not included)
+     */
+    public void decode(final byte[] buf, final int off, final int len, final ParameterFactory factory,
+            SccpProtocolVersion sccpProtocolVersion) throws ParseException {
+        int pos = off;
+        int end = off + len;
+        if (len < 1 || end > buf.length)
+            throw new ParseException("Not enough data in buffer for SccpAddress");
+
+        this.ai = new AddressIndicator(buf[pos++], sccpProtocolVersion);
+
+        if (sccpProtocolVersion == SccpProtocolVersion.ANSI) {
+            if (this.ai.isSSNPresent()) {
+                checkLength(pos, 1, end);
+                this.ssn = buf[pos++] & 0xff;
+            }
+
+            if (this.ai.isPCPresent()) {
+                checkLength(pos, 3, end);
+                this.pc = ((buf[pos + 2] & 0xff) << 16) | ((buf[pos + 1] & 0xff) << 8) | (buf[pos] & 0xff);
+                pos += 3;
+            }
+        } else {
+            if (this.ai.isPCPresent()) {
+                checkLength(pos, 2, end);
+                this.pc = ((buf[pos + 1] & 0x3f) << 8) | (buf[pos] & 0xff);
+                pos += 2;
+            }
+
+            if (this.ai.isSSNPresent()) {
+                checkLength(pos, 1, end);
+                this.ssn = buf[pos++] & 0xff;
+            }
+        }
+
+        if (this.ai.getGlobalTitleIndicator() != GlobalTitleIndicator.NO_GLOBAL_TITLE_INCLUDED) {
+            this.gt = factory.createGlobalTitle(this.ai.getGlobalTitleIndicator());
+            ((AbstractGlobalTitle) this.gt).decode(buf, pos, end, factory, sccpProtocolVersion);
+        }
+    }
+
+    private static void checkLength(int pos, int needed, int end) throws ParseException {
+        if (pos + needed > end)
+            throw new ParseException("Not enough data in buffer for SccpAddress");
     }
 
     @Override
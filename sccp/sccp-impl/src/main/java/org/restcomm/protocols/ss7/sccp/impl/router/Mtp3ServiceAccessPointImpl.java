@@ -159,6 +159,17 @@ public class Mtp3ServiceAccessPointImpl implements Mtp3ServiceAccessPoint, XMLSe
         }
     }
 
+    /**
+     * Puts (or removes if dest is null) a destination without copying of the destination list. Used only while the
+     * configuration is loaded.
+     */
+    void loadMtp3Destination(int destId, Mtp3Destination dest) {
+        if (dest != null)
+            this.dpcList.put(destId, dest);
+        else
+            this.dpcList.remove(destId);
+    }
+
     public boolean matches(int dpc, int sls) {
         for (FastMap.Entry<Integer, Mtp3Destination> e = this.dpcList.head(), end = this.dpcList.tail(); (e = e.getNext()) != end;) {
             if (e.getValue().match(dpc, sls))
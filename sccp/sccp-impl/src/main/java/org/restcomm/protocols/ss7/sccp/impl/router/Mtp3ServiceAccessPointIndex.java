@@ -0,0 +1,298 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javolution.util.FastMap;
+
+import org.restcomm.protocols.ss7.sccp.Mtp3Destination;
+import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+
+/**
+ *
+ * Immutable forwarding index of Mtp3ServiceAccessPoints compiled from the router configuration. DPC ranges of all
+ * Mtp3Destinations are split into non-overlapping intervals, an interval keeps destinations that cover it in the order
+ * of SAPs in the router. A lookup is a binary search of the interval followed by the check of SLS ranges of its
+ * destinations, so results are the same as a walk of all SAPs and the first matching SAP is returned.
+ *
+ * Indexes are built per networkId and per OPC (with and without localGtDigits) for incoming messages. RouterImpl rebuilds
+ * the index after each configuration change and replaces it by a volatile write, lookups do not lock.
+ *
+ */
+public class Mtp3ServiceAccessPointIndex {
+
+    public static final Mtp3ServiceAccessPointIndex EMPTY = new Mtp3ServiceAccessPointIndex(
+            new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>());
+
+    private final DpcIndex all;
+    private final int[] networkIds;
+    private final DpcIndex[] networkIndexes;
+    private final int[] opcs;
+    private final OpcIndex[] opcIndexes;
+    private final boolean localGtDigitsUsed;
+
+    public Mtp3ServiceAccessPointIndex(Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps) {
+        ArrayList<Mtp3ServiceAccessPoint> lst = new ArrayList<Mtp3ServiceAccessPoint>();
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = saps.head(), end = saps.tail(); (e = e.getNext()) != end;) {
+            lst.add(e.getValue());
+        }
+
+        this.all = new DpcIndex(lst);
+
+        TreeMap<Integer, ArrayList<Mtp3ServiceAccessPoint>> byNetworkId = new TreeMap<Integer, ArrayList<Mtp3ServiceAccessPoint>>();
+        TreeMap<Integer, ArrayList<Mtp3ServiceAccessPoint>> byOpc = new TreeMap<Integer, ArrayList<Mtp3ServiceAccessPoint>>();
+        boolean gtDigitsUsed = false;
+        for (Mtp3ServiceAccessPoint sap : lst) {
+            group(byNetworkId, sap.getNetworkId()).add(sap);
+            group(byOpc, sap.getOpc()).add(sap);
+            gtDigitsUsed |= hasGtDigits(sap);
+        }
+        this.localGtDigitsUsed = gtDigitsUsed;
+
+        this.networkIds = new int[byNetworkId.size()];
+        this.networkIndexes = new DpcIndex[byNetworkId.size()];
+        int i1 = 0;
+        for (Map.Entry<Integer, ArrayList<Mtp3ServiceAccessPoint>> e : byNetworkId.entrySet()) {
+            this.networkIds[i1] = e.getKey();
+            this.networkIndexes[i1] = new DpcIndex(e.getValue());
+            i1++;
+        }
+
+        this.opcs = new int[byOpc.size()];
+        this.opcIndexes = new OpcIndex[byOpc.size()];
+        i1 = 0;
+        for (Map.Entry<Integer, ArrayList<Mtp3ServiceAccessPoint>> e : byOpc.entrySet()) {
+            this.opcs[i1] = e.getKey();
+            this.opcIndexes[i1] = new OpcIndex(e.getValue());
+            i1++;
+        }
+    }
+
+    private static ArrayList<Mtp3ServiceAccessPoint> group(TreeMap<Integer, ArrayList<Mtp3ServiceAccessPoint>> map, int key) {
+        ArrayList<Mtp3ServiceAccessPoint> res = map.get(key);
+        if (res == null) {
+            res = new ArrayList<Mtp3ServiceAccessPoint>();
+            map.put(key, res);
+        }
+        return res;
+    }
+
+    private static boolean hasGtDigits(Mtp3ServiceAccessPoint sap) {
+        return sap.getLocalGtDigits() != null && sap.getLocalGtDigits().length() > 0;
+    }
+
+    public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls) {
+        return this.all.find(dpc, sls);
+    }
+
+    public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls, int networkId) {
+        int ind = Arrays.binarySearch(this.networkIds, networkId);
+        if (ind < 0)
+            return null;
+        return this.networkIndexes[ind].find(dpc, sls);
+    }
+
+    public Mtp3ServiceAccessPoint findMtp3ServiceAccessPointForIncMes(int localPC, int remotePC, String localGtDigits) {
+        int ind = Arrays.binarySearch(this.opcs, localPC);
+        if (ind < 0)
+            return null;
+        OpcIndex opcIndex = this.opcIndexes[ind];
+
+        // a first step - sap's with LocalGtDigits
+        if (localGtDigits != null && opcIndex.gtDigitsIndexes != null) {
+            DpcIndex dpcIndex = opcIndex.gtDigitsIndexes.get(localGtDigits);
+            if (dpcIndex != null) {
+                Mtp3ServiceAccessPoint sap = dpcIndex.find(remotePC);
+                if (sap != null)
+                    return sap;
+            }
+        }
+
+        // a second step - sap's without LocalGtDigits
+        return opcIndex.noGtDigitsIndex.find(remotePC);
+    }
+
+    /**
+     * @return true if at least one SAP has localGtDigits, if not findMtp3ServiceAccessPointForIncMes() does not need
+     *         called party digits
+     */
+    public boolean isLocalGtDigitsUsed() {
+        return this.localGtDigitsUsed;
+    }
+
+    public boolean spcIsLocal(int spc) {
+        return Arrays.binarySearch(this.opcs, spc) >= 0;
+    }
+
+    private static class OpcIndex {
+        private final HashMap<String, DpcIndex> gtDigitsIndexes;
+        private final DpcIndex noGtDigitsIndex;
+
+        public OpcIndex(ArrayList<Mtp3ServiceAccessPoint> saps) {
+            HashMap<String, ArrayList<Mtp3ServiceAccessPoint>> byGtDigits = new HashMap<String, ArrayList<Mtp3ServiceAccessPoint>>();
+            ArrayList<Mtp3ServiceAccessPoint> noGtDigits = new ArrayList<Mtp3ServiceAccessPoint>();
+            for (Mtp3ServiceAccessPoint sap : saps) {
+                if (hasGtDigits(sap)) {
+                    ArrayList<Mtp3ServiceAccessPoint> lst = byGtDigits.get(sap.getLocalGtDigits());
+                    if (lst == null) {
+                        lst = new ArrayList<Mtp3ServiceAccessPoint>();
+                        byGtDigits.put(sap.getLocalGtDigits(), lst);
+                    }
+                    lst.add(sap);
+                } else {
+                    noGtDigits.add(sap);
+                }
+            }
+
+            if (byGtDigits.size() > 0) {
+                this.gtDigitsIndexes = new HashMap<String, DpcIndex>();
+                for (Map.Entry<String, ArrayList<Mtp3ServiceAccessPoint>> e : byGtDigits.entrySet()) {
+                    this.gtDigitsIndexes.put(e.getKey(), new DpcIndex(e.getValue()));
+                }
+            } else {
+                this.gtDigitsIndexes = null;
+            }
+            this.noGtDigitsIndex = new DpcIndex(noGtDigits);
+        }
+    }
+
+    /**
+     * DPC intervals of a SAP list. starts[i] is the first DPC of the interval i (the interval lasts up to starts[i + 1] - 1),
+     * destinations[i] are destinations covering the interval in the SAP order or null.
+     */
+    private static class DpcIndex {
+        private final int[] starts;
+        private final Destination[][] destinations;
+
+        public DpcIndex(ArrayList<Mtp3ServiceAccessPoint> saps) {
+            ArrayList<Destination> dests = new ArrayList<Destination>();
+            for (Mtp3ServiceAccessPoint sap : saps) {
+                // the order of destinations inside of a SAP does not matter: any of them selects the SAP
+                for (Mtp3Destination d : sap.getMtp3Destinations().values()) {
+                    if (d.getFirstDpc() <= d.getLastDpc())
+                        dests.add(new Destination(sap, d));
+                }
+            }
+
+            // interval bounds
+            long[] bounds = new long[dests.size() * 2];
+            int cnt = 0;
+            for (Destination d : dests) {
+                bounds[cnt++] = d.firstDpc;
+                bounds[cnt++] = (long) d.lastDpc + 1;
+            }
+            Arrays.sort(bounds, 0, cnt);
+            int uniq = 0;
+            for (int i1 = 0; i1 < cnt; i1++) {
+                if (uniq == 0 || bounds[uniq - 1] != bounds[i1])
+                    bounds[uniq++] = bounds[i1];
+            }
+            // a bound after Integer.MAX_VALUE is not needed: no DPC can be found there
+            if (uniq > 0 && bounds[uniq - 1] > Integer.MAX_VALUE)
+                uniq--;
+
+            this.starts = new int[uniq];
+            for (int i1 = 0; i1 < uniq; i1++) {
+                this.starts[i1] = (int) bounds[i1];
+            }
+
+            ArrayList<ArrayList<Destination>> tmp = new ArrayList<ArrayList<Destination>>(uniq);
+            for (int i1 = 0; i1 < uniq; i1++) {
+                tmp.add(null);
+            }
+            for (Destination d : dests) {
+                for (int i1 = Arrays.binarySearch(this.starts, d.firstDpc); i1 < uniq && this.starts[i1] <= d.lastDpc; i1++) {
+                    ArrayList<Destination> lst = tmp.get(i1);
+                    if (lst == null) {
+                        lst = new ArrayList<Destination>(1);
+                        tmp.set(i1, lst);
+                    }
+                    lst.add(d);
+                }
+            }
+
+            this.destinations = new Destination[uniq][];
+            for (int i1 = 0; i1 < uniq; i1++) {
+                ArrayList<Destination> lst = tmp.get(i1);
+                if (lst != null)
+                    this.destinations[i1] = lst.toArray(new Destination[lst.size()]);
+            }
+        }
+
+        private Destination[] interval(int dpc) {
+            int ind = Arrays.binarySearch(this.starts, dpc);
+            if (ind < 0)
+                ind = -ind - 2;
+            if (ind < 0)
+                return null;
+            return this.destinations[ind];
+        }
+
+        public Mtp3ServiceAccessPoint find(int dpc, int sls) {
+            Destination[] dests = this.interval(dpc);
+            if (dests != null) {
+                for (Destination d : dests) {
+                    if (d.matchSls(sls))
+                        return d.sap;
+                }
+            }
+            return null;
+        }
+
+        public Mtp3ServiceAccessPoint find(int dpc) {
+            Destination[] dests = this.interval(dpc);
+            if (dests != null)
+                return dests[0].sap;
+            return null;
+        }
+    }
+
+    private static class Destination {
+        private final Mtp3ServiceAccessPoint sap;
+        private final int firstDpc;
+        private final int lastDpc;
+        private final int firstSls;
+        private final int lastSls;
+        private final int slsMask;
+
+        public Destination(Mtp3ServiceAccessPoint sap, Mtp3Destination dest) {
+            this.sap = sap;
+            this.firstDpc = dest.getFirstDpc();
+            this.lastDpc = dest.getLastDpc();
+            this.firstSls = dest.getFirstSls();
+            this.lastSls = dest.getLastSls();
+            this.slsMask = dest.getSlsMask();
+        }
+
+        public boolean matchSls(int sls) {
+            sls = (sls & this.slsMask);
+            return sls >= this.firstSls && sls <= this.lastSls;
+        }
+    }
+
+}
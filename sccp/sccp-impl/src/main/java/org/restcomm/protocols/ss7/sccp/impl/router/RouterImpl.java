@@ -30,6 +30,7 @@ import javolution.xml.XMLObjectWriter;
 import javolution.xml.stream.XMLStreamException;
 
 import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
 import org.restcomm.protocols.ss7.sccp.LongMessageRule;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
@@ -41,9 +42,9 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.util.HashMap;
 import java.util.Map;
@@ -181,7 +182,16 @@ public class RouterImpl implements Router {
     private static final String LONG_MESSAGE_RULE = "longMessageRule";
     private static final String MTP3_SERVICE_ACCESS_POINT = "sap";
 
+    // configuration journal record types
+    private static final String RECORD_LMR = "lmr";
+    private static final String RECORD_SAP = "sap";
+    private static final String RECORD_DEST = "dest";
+    private static final String RECORD_VALUE = "value";
+
     private final TextBuilder persistFile = TextBuilder.newInstance();
+    // created by load(), changes are journaled instead of rewriting the whole configuration file
+    private ConfigJournal journal;
+    private volatile boolean started;
 
     protected static final SccpRouterXMLBinding binding = new SccpRouterXMLBinding();
     private static final String TAB_INDENT = "\t";
@@ -191,6 +201,9 @@ public class RouterImpl implements Router {
 
     private LongMessageRuleMap<Integer, LongMessageRule> longMessageRules = new LongMessageRuleMap<Integer, LongMessageRule>();
     private Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+    // compiled from saps, dropped after each change of saps or their destinations and rebuilt by the next lookup, so a bulk
+    // provisioning or a journal replay pays for a single rebuild
+    private volatile Mtp3ServiceAccessPointIndex sapIndex;
 
     private final String name;
     private final SccpStack sccpStack;
@@ -227,13 +240,25 @@ public class RouterImpl implements Router {
 
         logger.info(String.format("SCCP Router configuration file path %s", persistFile.toString()));
 
+        this.started = true;
         this.load();
 
         logger.info("Started SCCP Router");
     }
 
     public void stop() {
+        if (!this.started)
+            return;
         this.store();
+        this.flush();
+    }
+
+    /**
+     * Waits until journaled changes are written by the journal writer thread
+     */
+    public void flush() {
+        if (this.journal != null)
+            this.journal.flush();
     }
 
     public LongMessageRule findLongMessageRule(int dpc) {
@@ -248,50 +273,15 @@ public class RouterImpl implements Router {
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.matches(dpc, sls)) {
-                return sap;
-            }
-        }
-        return null;
+        return this.getSapIndex().findMtp3ServiceAccessPoint(dpc, sls);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls, int networkId) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.matches(dpc, sls)) {
-                if (sap.getNetworkId() == networkId) {
-                    return sap;
-                }
-            }
-        }
-        return null;
+        return this.getSapIndex().findMtp3ServiceAccessPoint(dpc, sls, networkId);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPointForIncMes(int localPC, int remotePC, String localGtDigits) {
-        // a first step - sap's with LocalGtDigits
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getLocalGtDigits() != null && sap.getLocalGtDigits().length() > 0) {
-                if (sap.getOpc() == localPC && sap.matches(remotePC)
-                        && (localGtDigits != null && localGtDigits.equals(sap.getLocalGtDigits()))) {
-                    return sap;
-                }
-            }
-        }
-
-        // a second step - sap's without LocalGtDigits
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getLocalGtDigits() == null || sap.getLocalGtDigits().length() == 0) {
-                if (sap.getOpc() == localPC && sap.matches(remotePC)) {
-                    return sap;
-                }
-            }
-        }
-
-        return null;
+        return this.getSapIndex().findMtp3ServiceAccessPointForIncMes(localPC, remotePC, localGtDigits);
     }
 
     public LongMessageRule getLongMessageRule(int id) {
@@ -304,13 +294,11 @@ public class RouterImpl implements Router {
 
     @Override
     public boolean spcIsLocal(int spc) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getOpc() == spc) {
-                return true;
-            }
-        }
-        return false;
+        return this.getSapIndex().spcIsLocal(spc);
+    }
+
+    public boolean isLocalGtDigitsUsed() {
+        return this.getSapIndex().isLocalGtDigitsUsed();
     }
 
     public Map<Integer, LongMessageRule> getLongMessageRules() {
@@ -326,6 +314,7 @@ public class RouterImpl implements Router {
     }
 
     public void addLongMessageRule(int id, int firstSpc, int lastSpc, LongMessageRuleType ruleType) throws Exception {
+        this.checkStarted();
         if (this.getLongMessageRule(id) != null) {
             throw new Exception(SccpOAMMessage.LMR_ALREADY_EXIST);
         }
@@ -337,11 +326,12 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
-            this.store();
+            this.journalPut(RECORD_LMR, String.valueOf(id), longMessageRule, LongMessageRuleImpl.class);
         }
     }
 
     public void modifyLongMessageRule(int id, int firstSpc, int lastSpc, LongMessageRuleType ruleType) throws Exception {
+        this.checkStarted();
         if (this.getLongMessageRule(id) == null) {
             throw new Exception(String.format(SccpOAMMessage.LMR_DOESNT_EXIST, name));
         }
@@ -353,11 +343,12 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
-            this.store();
+            this.journalPut(RECORD_LMR, String.valueOf(id), longMessageRule, LongMessageRuleImpl.class);
         }
     }
 
     public void modifyLongMessageRule(int id, Integer firstSpc, Integer lastSpc, LongMessageRuleType ruleType) throws Exception {
+        this.checkStarted();
 
         LongMessageRule oldLmr = this.getLongMessageRule(id);
         if (oldLmr == null) {
@@ -378,11 +369,12 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
-            this.store();
+            this.journalPut(RECORD_LMR, String.valueOf(id), longMessageRule, LongMessageRuleImpl.class);
         }
     }
 
     public void removeLongMessageRule(int id) throws Exception {
+        this.checkStarted();
 
         if (this.getLongMessageRule(id) == null) {
             throw new Exception(String.format(SccpOAMMessage.LMR_DOESNT_EXIST, name));
@@ -393,35 +385,44 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.remove(id);
             this.longMessageRules = newLongMessageRule;
-            this.store();
+            this.journalRemove(RECORD_LMR, String.valueOf(id));
         }
     }
 
     public void addMtp3Destination(int sapId, int destId, int firstDpc, int lastDpc, int firstSls, int lastSls, int slsMask)
             throws Exception {
+        this.checkStarted();
         Mtp3ServiceAccessPoint sap = this.getMtp3ServiceAccessPoint(sapId);
         if (sap == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
         }
-        // TODO Synchronize??
-        sap.addMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
-        this.store();
+        synchronized (this) {
+            sap.addMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+            this.invalidateSapIndex();
+            this.journalPut(RECORD_DEST, sapId + ":" + destId, (Mtp3DestinationImpl) sap.getMtp3Destination(destId),
+                    Mtp3DestinationImpl.class);
+        }
     }
 
     public void modifyMtp3Destination(int sapId, int destId, int firstDpc, int lastDpc, int firstSls, int lastSls, int slsMask)
             throws Exception {
+        this.checkStarted();
         Mtp3ServiceAccessPoint sap = this.getMtp3ServiceAccessPoint(sapId);
 
         if (sap == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
         }
-        // TODO Synchronize??
-        sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
-        this.store();
+        synchronized (this) {
+            sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+            this.invalidateSapIndex();
+            this.journalPut(RECORD_DEST, sapId + ":" + destId, (Mtp3DestinationImpl) sap.getMtp3Destination(destId),
+                    Mtp3DestinationImpl.class);
+        }
     }
 
     public void modifyMtp3Destination(int sapId, int destId, Integer firstDpc, Integer lastDpc, Integer firstSls, Integer lastSls, Integer slsMask)
             throws Exception {
+        this.checkStarted();
         Mtp3ServiceAccessPoint sap = this.getMtp3ServiceAccessPoint(sapId);
         if (sap == null)
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
@@ -442,22 +443,31 @@ public class RouterImpl implements Router {
         if(slsMask == null)
             slsMask = dest.getSlsMask();
 
-        sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
-        this.store();
+        synchronized (this) {
+            sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+            this.invalidateSapIndex();
+            this.journalPut(RECORD_DEST, sapId + ":" + destId, (Mtp3DestinationImpl) sap.getMtp3Destination(destId),
+                    Mtp3DestinationImpl.class);
+        }
     }
 
     public void removeMtp3Destination(int sapId, int destId) throws Exception {
+        this.checkStarted();
         Mtp3ServiceAccessPoint sap = this.getMtp3ServiceAccessPoint(sapId);
 
         if (sap == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
         }
 
-        sap.removeMtp3Destination(destId);
-        this.store();
+        synchronized (this) {
+            sap.removeMtp3Destination(destId);
+            this.invalidateSapIndex();
+            this.journalRemove(RECORD_DEST, sapId + ":" + destId);
+        }
     }
 
     public void addMtp3ServiceAccessPoint(int id, int mtp3Id, int opc, int ni, int networkId, String localGtDigits) throws Exception {
+        this.checkStarted();
 
         if (this.getMtp3ServiceAccessPoint(id) != null) {
             throw new Exception(SccpOAMMessage.SAP_ALREADY_EXIST);
@@ -477,11 +487,13 @@ public class RouterImpl implements Router {
             newSap.putAll(this.saps);
             newSap.put(id, sap);
             this.saps = newSap;
-            this.store();
+            this.invalidateSapIndex();
+            this.journalPut(RECORD_SAP, String.valueOf(id), sap, Mtp3ServiceAccessPointImpl.class);
         }
     }
 
     public void modifyMtp3ServiceAccessPoint(int id, int mtp3Id, int opc, int ni, int networkId, String localGtDigits) throws Exception {
+        this.checkStarted();
         if (this.getMtp3ServiceAccessPoint(id) == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
         }
@@ -499,11 +511,13 @@ public class RouterImpl implements Router {
             newSap.putAll(this.saps);
             newSap.put(id, sap);
             this.saps = newSap;
-            this.store();
+            this.invalidateSapIndex();
+            this.journalPut(RECORD_SAP, String.valueOf(id), sap, Mtp3ServiceAccessPointImpl.class);
         }
     }
 
     public void modifyMtp3ServiceAccessPoint(int id, Integer mtp3Id, Integer opc, Integer ni, Integer networkId, String localGtDigits) throws Exception {
+        this.checkStarted();
         Mtp3ServiceAccessPointImpl sap = (Mtp3ServiceAccessPointImpl) this.getMtp3ServiceAccessPoint(id);
         if (sap == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
@@ -534,13 +548,14 @@ public class RouterImpl implements Router {
             newSaps.putAll(this.saps);
             newSaps.put(id, newSap);
             this.saps = newSaps;
-            this.store();
-            this.store();
+            this.invalidateSapIndex();
+            this.journalPut(RECORD_SAP, String.valueOf(id), newSap, Mtp3ServiceAccessPointImpl.class);
         }
     }
 
 
     public void removeMtp3ServiceAccessPoint(int id) throws Exception {
+        this.checkStarted();
 
         if (this.getMtp3ServiceAccessPoint(id) == null) {
             throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
@@ -551,7 +566,8 @@ public class RouterImpl implements Router {
             newSap.putAll(this.saps);
             newSap.remove(id);
             this.saps = newSap;
-            this.store();
+            this.invalidateSapIndex();
+            this.journalRemove(RECORD_SAP, String.valueOf(id));
         }
     }
 
@@ -564,31 +580,127 @@ public class RouterImpl implements Router {
 
             longMessageRules = new LongMessageRuleMap<Integer, LongMessageRule>();
             saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+            this.invalidateSapIndex();
 
             // We store the cleared state
             this.store();
         }
     }
 
+    private void invalidateSapIndex() {
+        this.sapIndex = null;
+    }
+
+    private Mtp3ServiceAccessPointIndex getSapIndex() {
+        Mtp3ServiceAccessPointIndex index = this.sapIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = this.sapIndex;
+                if (index == null) {
+                    index = new Mtp3ServiceAccessPointIndex(this.saps);
+                    this.sapIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    private <T> void journalPut(String type, String key, T value, Class<T> cls) {
+        // no journal for NonPersistentRouterImpl
+        if (this.journal == null)
+            return;
+        try {
+            this.journal.put(type, key, ConfigJournal.toXml(value, RECORD_VALUE, cls, binding));
+        } catch (XMLStreamException e) {
+            logger.error(String.format("Error while journaling %s %s, the whole configuration will be stored", type, key), e);
+            this.journal.storeLater();
+        }
+    }
+
+    private void journalRemove(String type, String key) {
+        if (this.journal != null)
+            this.journal.remove(type, key);
+    }
+
     /**
      * Persist
+     *
+     * @throws IllegalStateException if the router has not been started yet
      */
     public void store() {
+        if (!this.started)
+            throw new IllegalStateException(String.format(SccpOAMMessage.CONFIG_NOT_LOADED, name));
+        if (this.journal != null)
+            this.journal.store();
+    }
 
-        // TODO : Should we keep reference to Objects rather than recreating
-        // everytime?
-        try {
-            XMLObjectWriter writer = XMLObjectWriter.newInstance(new FileOutputStream(persistFile.toString()));
-            writer.setBinding(binding);
-            writer.setIndentation(TAB_INDENT);
+    /**
+     * Changes made before {@link #start()} would be overwritten by the loaded configuration and never reach the journal,
+     * so they are refused
+     */
+    private void checkStarted() throws Exception {
+        if (!this.started)
+            throw new Exception(String.format(SccpOAMMessage.CONFIG_NOT_LOADED, name));
+    }
+
+    private void writeSnapshot(OutputStream out) throws XMLStreamException {
+        XMLObjectWriter writer = XMLObjectWriter.newInstance(out);
+        writer.setBinding(binding);
+        writer.setIndentation(TAB_INDENT);
+
+        writer.write(longMessageRules, LONG_MESSAGE_RULE, LongMessageRuleMap.class);
+        writer.write(saps, MTP3_SERVICE_ACCESS_POINT, Mtp3ServiceAccessPointMap.class);
+
+        writer.close();
+    }
+
+    private void replayJournal() throws IOException {
+        int cnt = this.journal.replay(new ConfigJournal.RecordHandler() {
+            public void put(String type, String key, String value) throws Exception {
+                if (RECORD_LMR.equals(type)) {
+                    longMessageRules.put(Integer.valueOf(key),
+                            ConfigJournal.fromXml(value, RECORD_VALUE, LongMessageRuleImpl.class, binding));
+                } else if (RECORD_SAP.equals(type)) {
+                    Mtp3ServiceAccessPointImpl sap = ConfigJournal.fromXml(value, RECORD_VALUE, Mtp3ServiceAccessPointImpl.class,
+                            binding);
+                    sap.setStackName(name);
+                    saps.put(Integer.valueOf(key), sap);
+                } else if (RECORD_DEST.equals(type)) {
+                    getJournaledSap(key).loadMtp3Destination(getJournaledDestId(key),
+                            ConfigJournal.fromXml(value, RECORD_VALUE, Mtp3DestinationImpl.class, binding));
+                } else {
+                    throw new Exception("Unknown record type " + type);
+                }
+            }
 
-            writer.write(longMessageRules, LONG_MESSAGE_RULE, LongMessageRuleMap.class);
-            writer.write(saps, MTP3_SERVICE_ACCESS_POINT, Mtp3ServiceAccessPointMap.class);
+            public void remove(String type, String key) throws Exception {
+                if (RECORD_LMR.equals(type)) {
+                    longMessageRules.remove(Integer.valueOf(key));
+                } else if (RECORD_SAP.equals(type)) {
+                    saps.remove(Integer.valueOf(key));
+                } else if (RECORD_DEST.equals(type)) {
+                    getJournaledSap(key).loadMtp3Destination(getJournaledDestId(key), null);
+                } else {
+                    throw new Exception("Unknown record type " + type);
+                }
+            }
+        });
 
-            writer.close();
-        } catch (Exception e) {
-            logger.error("Error while persisting the Rule state in file", e);
-        }
+        // replayed records are moved into the snapshot
+        if (cnt > 0)
+            this.store();
+    }
+
+    private Mtp3ServiceAccessPointImpl getJournaledSap(String destKey) throws Exception {
+        Mtp3ServiceAccessPointImpl sap = (Mtp3ServiceAccessPointImpl) this.saps.get(Integer.valueOf(destKey.substring(0,
+                destKey.indexOf(':'))));
+        if (sap == null)
+            throw new Exception(String.format(SccpOAMMessage.SAP_DOESNT_EXIST, name));
+        return sap;
+    }
+
+    private int getJournaledDestId(String destKey) {
+        return Integer.parseInt(destKey.substring(destKey.indexOf(':') + 1));
     }
 
     /**
@@ -597,12 +709,20 @@ public class RouterImpl implements Router {
      * @throws Exception
      */
     public void load() {
+        if (this.journal != null)
+            this.journal.flush();
+        this.journal = new ConfigJournal(persistFile.toString(), new ConfigJournal.SnapshotWriter() {
+            public void writeSnapshot(OutputStream out) throws Exception {
+                RouterImpl.this.writeSnapshot(out);
+            }
+        });
 
         try {
             File f = new File(persistFile.toString());
             if (f.exists()) {
                 // we have V4 config
                 loadVer4(persistFile.toString());
+                this.replayJournal();
             } else {
                 String s1 = persistFile.toString().replace("3.xml", "2.xml");
                 f = new File(s1);
@@ -651,6 +771,8 @@ public class RouterImpl implements Router {
         } catch (IOException e) {
             logger.error(String.format("Failed to load the SS7 configuration file. \n%s", e.getMessage()));
         }
+
+        this.invalidateSapIndex();
     }
 
     private boolean loadVer1(String fn) throws XMLStreamException, IOException {
@@ -106,6 +106,8 @@ public class SccpResourceProhibitedTest {
 
         resource.addConcernedSpc(1, 603);
         resource.addConcernedSpc(2, 604);
+        // changes are journaled in the background
+        resource.flush();
 
         SccpResourceImpl resource1 = new SccpResourceImpl("SccpResourceProhibitedTest", true, new Ss7ExtSccpDetailedInterfaceDefault());
         resource1.setPersistDir(Util.getTmpTestDir());
@@ -22,7 +22,10 @@
 
 package org.restcomm.protocols.ss7.sccp.impl;
 
+import java.io.File;
+
 import org.restcomm.protocols.ss7.Util;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
 import org.restcomm.protocols.ss7.sccp.ConcernedSignalingPointCode;
 import org.restcomm.protocols.ss7.sccp.RemoteSignalingPointCode;
 import org.restcomm.protocols.ss7.sccp.RemoteSubSystem;
@@ -80,6 +83,8 @@ public class SccpResourceTest {
 
         resource.addConcernedSpc(1, 603);
         resource.addConcernedSpc(2, 604);
+        // changes are journaled in the background
+        resource.flush();
 
         SccpResourceImpl resource1 = new SccpResourceImpl("SccpResourceTest", new Ss7ExtSccpDetailedInterfaceDefault());
         resource1.setPersistDir(Util.getTmpTestDir());
@@ -103,6 +108,126 @@ public class SccpResourceTest {
         assertEquals(resource1.getConcernedSpcs().size(), 2);
         ConcernedSignalingPointCode cspc1Temp = resource1.getConcernedSpc(1);
         assertEquals(cspc1Temp.getRemoteSpc(), 603);
+
+        // lookup indexes are rebuilt after loading
+        assertEquals(resource1.getRemoteSpcByPC(6045).getRemoteSpc(), 6045);
+        assertEquals(resource1.getRemoteSsn(6045, 8), resource1.getRemoteSsn(2));
+    }
+
+    @Test(groups = { "sccpresource", "functional" })
+    public void testLookupByPC() throws Exception {
+
+        for (int i1 = 1; i1 <= 500; i1++) {
+            resource.addRemoteSpc(i1, 1000 + i1, 0, 0);
+            resource.addRemoteSsn(i1, 1000 + i1, 8, 0, false);
+        }
+        resource.addRemoteSsn(5000, 1001, 146, 0, false);
+
+        assertEquals(resource.getRemoteSpcByPC(1001), resource.getRemoteSpc(1));
+        assertEquals(resource.getRemoteSpcByPC(1500), resource.getRemoteSpc(500));
+        assertNull(resource.getRemoteSpcByPC(1000));
+        assertEquals(resource.getRemoteSsn(1250, 8), resource.getRemoteSsn(250));
+        assertEquals(resource.getRemoteSsn(1001, 146), resource.getRemoteSsn(5000));
+        assertNull(resource.getRemoteSsn(1002, 146));
+        assertNull(resource.getRemoteSsn(1001, 146 + 256));
+
+        // modification
+        resource.modifyRemoteSpc(1, 7001, 0, 0);
+        assertNull(resource.getRemoteSpcByPC(1001));
+        assertEquals(resource.getRemoteSpcByPC(7001), resource.getRemoteSpc(1));
+        resource.modifyRemoteSsn(5000, 7001, 147, 0, false);
+        assertNull(resource.getRemoteSsn(1001, 146));
+        assertEquals(resource.getRemoteSsn(7001, 147), resource.getRemoteSsn(5000));
+
+        // removal
+        resource.removeRemoteSpc(2);
+        resource.removeRemoteSsn(2);
+        assertNull(resource.getRemoteSpcByPC(1002));
+        assertNull(resource.getRemoteSsn(1002, 8));
+
+        // the first configured entry wins for duplicated point codes
+        resource.addRemoteSpc(1001, 1003, 0, 0);
+        assertEquals(resource.getRemoteSpcByPC(1003), resource.getRemoteSpc(3));
+        resource.removeRemoteSpc(3);
+        assertEquals(resource.getRemoteSpcByPC(1003), resource.getRemoteSpc(1001));
+
+        resource.removeAllResourses();
+        assertNull(resource.getRemoteSpcByPC(1003));
+        assertNull(resource.getRemoteSsn(1003, 8));
+    }
+
+    @Test(groups = { "sccpresource", "functional.encode" })
+    public void testJournalReplay() throws Exception {
+
+        resource.addRemoteSpc(1, 6034, 0, 0);
+        resource.addRemoteSpc(2, 6045, 0, 0);
+        resource.addRemoteSsn(1, 6034, 8, 0, false);
+        resource.addRemoteSsn(2, 6045, 8, 0, false);
+        resource.addConcernedSpc(1, 603);
+        resource.store();
+        resource.flush();
+
+        // these changes are in the journal only
+        resource.modifyRemoteSpc(1, 6035, 0, 0);
+        resource.removeRemoteSpc(2);
+        resource.addRemoteSpc(3, 6056, 0, 0);
+        resource.modifyRemoteSsn(1, 6035, 146, 0, false);
+        resource.removeRemoteSsn(2);
+        resource.modifyConcernedSpc(1, 604);
+        resource.addConcernedSpc(2, 605);
+        resource.flush();
+        File journalFile = new File(Util.getTmpTestDir() + File.separator + "SccpResourceTest_sccpresource2.xml"
+                + ConfigJournal.JOURNAL_SUFFIX);
+        assertTrue(journalFile.length() > 0);
+
+        SccpResourceImpl resource1 = new SccpResourceImpl("SccpResourceTest", new Ss7ExtSccpDetailedInterfaceDefault());
+        resource1.setPersistDir(Util.getTmpTestDir());
+        resource1.start();
+
+        assertEquals(resource1.getRemoteSpcs().size(), 2);
+        assertEquals(resource1.getRemoteSpc(1).getRemoteSpc(), 6035);
+        assertNull(resource1.getRemoteSpc(2));
+        assertEquals(resource1.getRemoteSpc(3).getRemoteSpc(), 6056);
+        assertEquals(resource1.getRemoteSsns().size(), 1);
+        assertEquals(resource1.getRemoteSsn(1).getRemoteSsn(), 146);
+        assertEquals(resource1.getConcernedSpcs().size(), 2);
+        assertEquals(resource1.getConcernedSpc(1).getRemoteSpc(), 604);
+        assertEquals(resource1.getConcernedSpc(2).getRemoteSpc(), 605);
+
+        assertEquals(resource1.getRemoteSpcByPC(6035), resource1.getRemoteSpc(1));
+        assertNull(resource1.getRemoteSpcByPC(6045));
+        assertEquals(resource1.getRemoteSsn(6035, 146), resource1.getRemoteSsn(1));
+
+        // replayed records are moved into the snapshot
+        resource1.flush();
+        assertEquals(journalFile.length(), 0);
+    }
+
+    @Test(groups = { "sccpresource", "functional" })
+    public void testChangeBeforeLoad() throws Exception {
+        SccpResourceImpl resource1 = new SccpResourceImpl("SccpResourceNotLoadedTest", new Ss7ExtSccpDetailedInterfaceDefault());
+
+        try {
+            resource1.addRemoteSpc(1, 6034, 0, 0);
+            fail("A change before load must be refused");
+        } catch (Exception e) {
+        }
+        try {
+            resource1.addConcernedSpc(1, 603);
+            fail("A change before load must be refused");
+        } catch (Exception e) {
+        }
+        assertNull(resource1.getRemoteSpc(1));
+        assertNull(resource1.getConcernedSpc(1));
+
+        try {
+            resource1.store();
+            fail("Store before load must be refused");
+        } catch (IllegalStateException e) {
+        }
+
+        // nothing to persist
+        resource1.stop();
     }
 
 }
@@ -111,6 +111,7 @@ public class SccpStackImplProxy extends SccpStackImpl {
         // layer3exec.execute(new MtpStreamHandler());
 
         this.timerExecutors = Executors.newScheduledThreadPool(1);
+        this.reassemblyCache.start(this.timerExecutors);
 
         for (FastMap.Entry<Integer, Mtp3UserPart> e = this.mtp3UserParts.head(), end = this.mtp3UserParts.tail(); (e = e
                 .getNext()) != end;) {
@@ -136,7 +137,7 @@ public class SccpStackImplProxy extends SccpStackImpl {
     }
 
     public int getReassemplyCacheSize() {
-        return reassemplyCache.size();
+        return reassemblyCache.size();
     }
 
     @Override
@@ -0,0 +1,267 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.message;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.impl.ReassemblyCache;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SegmentationImpl;
+import org.restcomm.protocols.ss7.sccp.message.SccpMessage;
+import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
+import org.testng.annotations.Test;
+
+/**
+ * Test for ReassemblyCache
+ *
+ */
+public class ReassemblyCacheTest {
+
+    private static final int SEGMENT_SIZE = 200;
+
+    private final ConcurrentLinkedQueue<SccpSegmentableMessageImpl> failures = new ConcurrentLinkedQueue<SccpSegmentableMessageImpl>();
+
+    private ReassemblyCache createCache() {
+        this.failures.clear();
+        return new ReassemblyCache(new ReassemblyCache.FailureListener() {
+            public void onReassemblyFailure(SccpSegmentableMessageImpl firstSegment) {
+                failures.add(firstSegment);
+            }
+        });
+    }
+
+    private SccpSegmentableMessageImpl createSegment(int opc, SccpAddress callingAddress, int localRef, int remainingSegments,
+            boolean first, byte[] data) {
+        SccpDataMessageImpl msg = new SccpDataMessageImpl(2560, SccpMessage.MESSAGE_TYPE_XUDT, opc, 1, 0, 0);
+        msg.setCallingPartyAddress(callingAddress);
+        msg.segmentation = new SegmentationImpl(first, true, (byte) remainingSegments, localRef);
+        msg.setData(data);
+        return msg;
+    }
+
+    private static byte[] segmentData(int msgNum, int segmentNum, int len) {
+        byte[] data = new byte[len];
+        for (int i1 = 0; i1 < len; i1++) {
+            data[i1] = (byte) (msgNum * 31 + segmentNum * 7 + i1);
+        }
+        return data;
+    }
+
+    private SccpSegmentableMessageImpl addSegment(ReassemblyCache cache, SccpSegmentableMessageImpl msg) {
+        SegmentationImpl segm = (SegmentationImpl) msg.getSegmentation();
+        if (segm.isFirstSegIndication()) {
+            cache.addFirstSegment(msg, segm, 60000);
+            return null;
+        } else {
+            return cache.addNextSegment(msg, segm);
+        }
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testReassembly() throws Exception {
+        ReassemblyCache cache = this.createCache();
+        SccpAddress a1 = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+        SccpAddress a2 = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 8);
+
+        byte[] d1 = segmentData(1, 0, SEGMENT_SIZE);
+        byte[] d2 = segmentData(1, 1, SEGMENT_SIZE);
+        byte[] d3 = segmentData(1, 2, 10);
+        SccpSegmentableMessageImpl first = this.createSegment(100, a1, 5, 2, true, d1);
+        assertNull(this.addSegment(cache, first));
+        // same local reference from another calling address
+        assertNull(this.addSegment(cache, this.createSegment(100, a2, 5, 1, true, d2)));
+        // same local reference from another OPC
+        assertNull(this.addSegment(cache, this.createSegment(101, a1, 5, 1, true, d2)));
+        assertEquals(cache.size(), 3);
+
+        assertNull(this.addSegment(cache, this.createSegment(100, a1, 5, 1, false, d2)));
+        assertFalse(first.getIsFullyRecieved());
+        SccpSegmentableMessageImpl res = this.addSegment(cache, this.createSegment(100, a1, 5, 0, false, d3));
+        assertSame(res, first);
+        assertTrue(res.getIsFullyRecieved());
+        assertEquals(res.getRemainingSegments(), 0);
+        byte[] expected = new byte[d1.length + d2.length + d3.length];
+        System.arraycopy(d1, 0, expected, 0, d1.length);
+        System.arraycopy(d2, 0, expected, d1.length, d2.length);
+        System.arraycopy(d3, 0, expected, d1.length + d2.length, d3.length);
+        assertTrue(Arrays.equals(res.getData(), expected));
+        assertEquals(cache.size(), 2);
+
+        // a segment without the first one
+        assertNull(this.addSegment(cache, this.createSegment(100, a1, 5, 0, false, d3)));
+        assertEquals(cache.size(), 2);
+
+        // more data than the first segment estimates
+        first = this.createSegment(102, a1, 6, 1, true, d3);
+        assertNull(this.addSegment(cache, first));
+        res = this.addSegment(cache, this.createSegment(102, a1, 6, 0, false, segmentData(2, 1, 5000)));
+        assertSame(res, first);
+        assertEquals(res.getData().length, 5010);
+        assertEquals(this.failures.size(), 0);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testBadOrder() throws Exception {
+        ReassemblyCache cache = this.createCache();
+        SccpAddress a1 = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+
+        SccpSegmentableMessageImpl first = this.createSegment(100, a1, 5, 2, true, segmentData(1, 0, SEGMENT_SIZE));
+        this.addSegment(cache, first);
+        assertNull(this.addSegment(cache, this.createSegment(100, a1, 5, 0, false, segmentData(1, 2, SEGMENT_SIZE))));
+        assertEquals(cache.size(), 0);
+        assertEquals(this.failures.size(), 1);
+        assertSame(this.failures.peek(), first);
+
+        // the rest of segments is discarded
+        assertNull(this.addSegment(cache, this.createSegment(100, a1, 5, 1, false, segmentData(1, 1, SEGMENT_SIZE))));
+        assertEquals(this.failures.size(), 1);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testTimeout() throws Exception {
+        ReassemblyCache cache = this.createCache();
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+        try {
+            cache.start(executor);
+            SccpAddress a1 = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+
+            SccpSegmentableMessageImpl first = this.createSegment(100, a1, 5, 2, true, segmentData(1, 0, SEGMENT_SIZE));
+            SegmentationImpl segm = (SegmentationImpl) first.getSegmentation();
+            cache.addFirstSegment(first, segm, 300);
+            SccpSegmentableMessageImpl first2 = this.createSegment(100, a1, 6, 2, true, segmentData(2, 0, SEGMENT_SIZE));
+            cache.addFirstSegment(first2, (SegmentationImpl) first2.getSegmentation(), 3000);
+            assertEquals(cache.size(), 2);
+
+            Thread.sleep(1000);
+            assertEquals(cache.size(), 1);
+            assertEquals(this.failures.size(), 1);
+            assertSame(this.failures.peek(), first);
+            assertFalse(first.getIsFullyRecieved());
+            assertNull(this.addSegment(cache, this.createSegment(100, a1, 5, 1, false, segmentData(1, 1, SEGMENT_SIZE))));
+
+            // a completed reassembly is not expired
+            assertNull(this.addSegment(cache, this.createSegment(100, a1, 6, 1, false, segmentData(2, 1, SEGMENT_SIZE))));
+            assertNotNull(this.addSegment(cache, this.createSegment(100, a1, 6, 0, false, segmentData(2, 2, SEGMENT_SIZE))));
+            Thread.sleep(3500);
+            assertEquals(this.failures.size(), 1);
+            assertEquals(cache.size(), 0);
+        } finally {
+            cache.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testConcurrentReassembly() throws Exception {
+        final ReassemblyCache cache = this.createCache();
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+        cache.start(executor);
+
+        final int threadCount = 16;
+        final int messageCount = 10000;
+        final int segmentCount = 4;
+        final SccpAddress[] addresses = new SccpAddress[8];
+        for (int i1 = 0; i1 < addresses.length; i1++) {
+            addresses[i1] = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 200 + i1, 8);
+        }
+        final ConcurrentHashMap<SccpSegmentableMessageImpl, Integer> reassembled = new ConcurrentHashMap<SccpSegmentableMessageImpl, Integer>();
+        final AtomicInteger errors = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+
+        try {
+            for (int i1 = 0; i1 < threadCount; i1++) {
+                final int threadNum = i1;
+                new Thread() {
+                    public void run() {
+                        try {
+                            // segments of messages that are served by this thread are interleaved
+                            ArrayList<Integer> msgNums = new ArrayList<Integer>();
+                            for (int i2 = threadNum; i2 < messageCount; i2 += threadCount) {
+                                msgNums.add(i2);
+                            }
+                            start.await();
+                            for (int segmentNum = 0; segmentNum < segmentCount; segmentNum++) {
+                                for (int msgNum : msgNums) {
+                                    // local references are reused by different OPCs and calling addresses
+                                    SccpSegmentableMessageImpl msg = createSegment(msgNum % 3, addresses[msgNum % addresses.length],
+                                            msgNum / 3, segmentCount - 1 - segmentNum, segmentNum == 0,
+                                            segmentData(msgNum, segmentNum, SEGMENT_SIZE - segmentNum));
+                                    SccpSegmentableMessageImpl res = addSegment(cache, msg);
+                                    if (res != null) {
+                                        if (reassembled.put(res, msgNum) != null)
+                                            errors.incrementAndGet();
+                                    } else if (segmentNum == segmentCount - 1) {
+                                        errors.incrementAndGet();
+                                    }
+                                }
+                            }
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                            errors.incrementAndGet();
+                        } finally {
+                            done.countDown();
+                        }
+                    }
+                }.start();
+            }
+            start.countDown();
+            done.await();
+
+            assertEquals(errors.get(), 0);
+            assertEquals(this.failures.size(), 0);
+            assertEquals(cache.size(), 0);
+            assertEquals(reassembled.size(), messageCount);
+            for (Map.Entry<SccpSegmentableMessageImpl, Integer> e : reassembled.entrySet()) {
+                int msgNum = e.getValue();
+                byte[] data = e.getKey().getData();
+                int pos = 0;
+                for (int segmentNum = 0; segmentNum < segmentCount; segmentNum++) {
+                    byte[] segment = segmentData(msgNum, segmentNum, SEGMENT_SIZE - segmentNum);
+                    assertTrue(Arrays.equals(Arrays.copyOfRange(data, pos, pos + segment.length), segment));
+                    pos += segment.length;
+                }
+                assertEquals(data.length, pos);
+            }
+        } finally {
+            cache.stop();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -27,6 +27,10 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.UnpooledByteBufAllocator;
 
 import java.io.ByteArrayInputStream;
 import java.util.Arrays;
@@ -34,6 +38,8 @@ import java.util.Arrays;
 import org.apache.log4j.Logger;
 import org.restcomm.protocols.ss7.Util;
 import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitiveFactory;
+import org.restcomm.protocols.ss7.mtp.RoutingLabelFormat;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
@@ -43,6 +49,7 @@ import org.restcomm.protocols.ss7.sccp.impl.message.MessageFactoryImpl;
 import org.restcomm.protocols.ss7.sccp.impl.message.SccpDataMessageImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.HopCounterImpl;
 import org.restcomm.protocols.ss7.sccp.impl.parameter.ImportanceImpl;
+import org.restcomm.protocols.ss7.sccp.message.ParseException;
 import org.restcomm.protocols.ss7.sccp.message.SccpDataMessage;
 import org.restcomm.protocols.ss7.sccp.parameter.HopCounter;
 import org.restcomm.protocols.ss7.sccp.parameter.Importance;
@@ -392,6 +399,58 @@ public class SccpDataMessageTest {
 
     }
 
+    @Test(groups = { "SccpMessage", "functional.decode" })
+    public void testDecodeFromArray() throws Exception {
+        byte[][] samples = new byte[][] { getDataUdt(), getDataUdt1(), getDataUdt2(), getDataXudt(), getDataXudt1(), getDataXudt2(),
+                getDataXudt3(), getDataLudt1(), getDataLudt2(), getDataLudt3() };
+
+        for (byte[] b : samples) {
+            ByteArrayInputStream in = new ByteArrayInputStream(b);
+            int type = in.read();
+            SccpDataMessageImpl streamDecoded = (SccpDataMessageImpl) messageFactory.createMessage(type, 1, 2, 0, in,
+                    SccpProtocolVersion.ITU, 0);
+
+            // the message is a part of a bigger buffer
+            byte[] buf = new byte[b.length + 10];
+            System.arraycopy(b, 0, buf, 3, b.length);
+            SccpDataMessageImpl arrayDecoded = (SccpDataMessageImpl) messageFactory.createMessage(type, 1, 2, 0, buf, 4,
+                    b.length - 1, SccpProtocolVersion.ITU, 0);
+
+            assertEquals(arrayDecoded.getCalledPartyAddress(), streamDecoded.getCalledPartyAddress());
+            assertEquals(arrayDecoded.getCallingPartyAddress(), streamDecoded.getCallingPartyAddress());
+            assertEquals(arrayDecoded.getProtocolClass().getProtocolClass(), streamDecoded.getProtocolClass().getProtocolClass());
+            assertEquals(arrayDecoded.getProtocolClass().getReturnMessageOnError(), streamDecoded.getProtocolClass()
+                    .getReturnMessageOnError());
+            if (streamDecoded.getHopCounter() == null)
+                assertNull(arrayDecoded.getHopCounter());
+            else
+                assertEquals(arrayDecoded.getHopCounter().getValue(), streamDecoded.getHopCounter().getValue());
+            assertEquals(String.valueOf(arrayDecoded.getSegmentation()), String.valueOf(streamDecoded.getSegmentation()));
+            if (streamDecoded.getImportance() == null)
+                assertNull(arrayDecoded.getImportance());
+            else
+                assertEquals(arrayDecoded.getImportance().getValue(), streamDecoded.getImportance().getValue());
+            assertTrue(Arrays.equals(arrayDecoded.getData(), streamDecoded.getData()));
+        }
+
+        // GT digits
+        byte[] b = getDataXudt();
+        SccpDataMessageImpl msg = (SccpDataMessageImpl) messageFactory.createMessage(b[0] & 0xff, 1, 2, 0, b, 1,
+                b.length - 1, SccpProtocolVersion.ITU, 0);
+        assertEquals(msg.getCalledPartyAddress().getGlobalTitle().getDigits(), "2348030000480");
+        assertEquals(msg.getCallingPartyAddress().getGlobalTitle().getDigits(), "2348030008180");
+
+        // truncated messages
+        b = getDataXudt1();
+        for (int len = 1; len < 26; len++) {
+            try {
+                messageFactory.createMessage(b[0] & 0xff, 1, 2, 0, b, 1, len, SccpProtocolVersion.ITU, 0);
+                fail("ParseException expected for length " + len);
+            } catch (ParseException e) {
+            }
+        }
+    }
+
     @Test(groups = { "SccpMessage", "functional.encode" })
     public void testEncode() throws Exception {
 
@@ -476,4 +535,76 @@ public class SccpDataMessageTest {
         assertTrue(Arrays.equals(res.getSolidData(), getDataLudt3()));
 
     }
+
+    @Test(groups = { "SccpMessage", "functional.encode" })
+    public void testEncodeToBuffer() throws Exception {
+        Mtp3TransferPrimitiveFactory factory = new Mtp3TransferPrimitiveFactory(RoutingLabelFormat.ITU,
+                UnpooledByteBufAllocator.DEFAULT, 64, 12);
+
+        // ---- UDT
+        SccpAddress calledAdd = stack.getSccpProvider().getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 0, 8);
+        SccpAddress callingAdd = stack.getSccpProvider().getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+        SccpDataMessageImpl msg = (SccpDataMessageImpl) messageFactory.createDataMessageClass1(calledAdd, callingAdd,
+                getDataUdtSrc(), 0, 8, false, null, null);
+
+        EncodingResultData res = msg.encode(stack, LongMessageRuleType.LONG_MESSAGE_FORBBIDEN, 272, logger, false,
+                SccpProtocolVersion.ITU, factory);
+        assertEquals(res.getEncodingResult(), EncodingResult.Success);
+        assertNull(res.getSolidData());
+        ByteBuf buf = res.getSolidDataBuf();
+        assertEquals(buf.readerIndex(), 64);
+        assertTrue(Arrays.equals(toBytes(buf), getDataUdt()));
+        buf.release();
+
+        // ---- LUDT param importance (no segm) - long 300 bytes data
+        calledAdd = stack.getSccpProvider().getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 0, 8);
+        callingAdd = stack.getSccpProvider().getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 6);
+        msg = (SccpDataMessageImpl) messageFactory.createDataMessageClass1(calledAdd, callingAdd, getDataLudt3Src(), 5, 1,
+                false, new HopCounterImpl(10), new ImportanceImpl((byte) 7));
+
+        res = msg.encode(stack, LongMessageRuleType.LUDT_ENABLED, 2000, logger, false, SccpProtocolVersion.ITU, factory);
+        assertEquals(res.getEncodingResult(), EncodingResult.Success);
+        buf = res.getSolidDataBuf();
+        assertTrue(Arrays.equals(toBytes(buf), getDataLudt3()));
+        buf.release();
+
+        // ---- no allocator - byte array encoding
+        res = msg.encode(stack, LongMessageRuleType.LUDT_ENABLED, 2000, logger, false, SccpProtocolVersion.ITU,
+                new Mtp3TransferPrimitiveFactory(RoutingLabelFormat.ITU));
+        assertNull(res.getSolidDataBuf());
+        assertTrue(Arrays.equals(res.getSolidData(), getDataLudt3()));
+    }
+
+    @Test(groups = { "SccpMessage", "functional.encode" })
+    public void testEncodeToBufferFailure() throws Exception {
+        // the buffer is too small for the message, so encoding fails after the buffer is allocated
+        final ByteBuf[] allocated = new ByteBuf[1];
+        Mtp3TransferPrimitiveFactory factory = new Mtp3TransferPrimitiveFactory(RoutingLabelFormat.ITU,
+                UnpooledByteBufAllocator.DEFAULT, 64, 12) {
+            @Override
+            public ByteBuf allocateDataBuf(int dataLength) {
+                allocated[0] = UnpooledByteBufAllocator.DEFAULT.buffer(8, 8);
+                return allocated[0];
+            }
+        };
+
+        SccpAddress calledAdd = stack.getSccpProvider().getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 0, 8);
+        SccpAddress callingAdd = stack.getSccpProvider().getParameterFactory().createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+        SccpDataMessageImpl msg = (SccpDataMessageImpl) messageFactory.createDataMessageClass1(calledAdd, callingAdd,
+                getDataUdtSrc(), 0, 8, false, null, null);
+
+        try {
+            msg.encode(stack, LongMessageRuleType.LONG_MESSAGE_FORBBIDEN, 272, logger, false, SccpProtocolVersion.ITU, factory);
+            fail("Encoding must fail");
+        } catch (IndexOutOfBoundsException e) {
+        }
+        assertNotNull(allocated[0]);
+        assertEquals(allocated[0].refCnt(), 0);
+    }
+
+    private byte[] toBytes(ByteBuf buf) {
+        byte[] res = new byte[buf.readableBytes()];
+        buf.getBytes(buf.readerIndex(), res);
+        return res;
+    }
 }
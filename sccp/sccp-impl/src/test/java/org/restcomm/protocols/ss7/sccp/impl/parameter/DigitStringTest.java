@@ -0,0 +1,113 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.parameter;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+
+import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
+import org.restcomm.protocols.ss7.utils.DigitString;
+import org.testng.annotations.Test;
+
+/**
+ * Test for packed digit strings and their use in decoded global titles
+ *
+ */
+public class DigitStringTest {
+
+    @Test(groups = { "parameter", "functional.decode" })
+    public void testTbcd() throws Exception {
+        // odd count of digits, the filler is the last high nibble
+        byte[] buf = new byte[] { 0x33, 0x21, 0x43, 0x65, (byte) 0xF7, 0x44 };
+        DigitString ds = DigitString.decodeTbcd(buf, 1, 4);
+        assertEquals(ds.length(), 7);
+        assertEquals(ds.toString(), "1234567");
+        assertEquals(ds.hashCode(), "1234567".hashCode());
+        assertEquals(ds.toByteArray(), new byte[] { 0x21, 0x43, 0x65, (byte) 0xF7 });
+        assertTrue(ds.startsWith("123"));
+        assertTrue(ds.startsWith(DigitString.valueOfTbcd("123")));
+        assertTrue(ds.startsWith(DigitString.valueOfTbcd("1234")));
+        assertFalse(ds.startsWith("124"));
+        assertFalse(ds.startsWith("12345678"));
+        assertTrue(ds.contentEquals("1234567"));
+        assertEquals(ds, DigitString.valueOfTbcd("1234567"));
+
+        // special digits and fillers in the middle
+        ds = DigitString.decodeTbcd(new byte[] { (byte) 0xBA, (byte) 0xF1, (byte) 0xE2, (byte) 0xFF }, 0, 4);
+        assertEquals(ds.toString(), "*#12c");
+        assertEquals(ds.toByteArray(), new byte[] { (byte) 0xBA, 0x21, (byte) 0xFE });
+        assertEquals(ds, DigitString.valueOfTbcd("*#12C"));
+
+        ds = DigitString.decodeTbcd(new byte[0], 0, 0);
+        assertEquals(ds.toString(), "");
+        assertEquals(ds.getPackedLength(), 0);
+
+        try {
+            DigitString.valueOfTbcd("12x");
+            assertTrue(false, "Must be exception");
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    @Test(groups = { "parameter", "functional.decode" })
+    public void testBcd() throws Exception {
+        byte[] buf = new byte[] { 0x21, 0x43, (byte) 0xF5 };
+        DigitString ds = DigitString.decodeBcd(buf, 0, 3, true);
+        assertEquals(ds.toString(), "12345");
+        // the filler is normalized to 0 like BCD encoding does
+        assertEquals(ds.toByteArray(), new byte[] { 0x21, 0x43, 0x05 });
+
+        DigitString ds2 = DigitString.decodeBcd(buf, 0, 3, false);
+        assertEquals(ds2.toString(), "12345f");
+        assertNotEquals(ds, ds2);
+        assertTrue(ds2.startsWith(ds));
+
+        // the same text in both alphabets
+        assertEquals(DigitString.decodeBcd(new byte[] { 0x21, 0x03 }, 0, 2, true), DigitString.valueOfTbcd("123"));
+    }
+
+    @Test(groups = { "parameter", "functional.encode" })
+    public void testGlobalTitleReencode() throws Exception {
+        ParameterFactoryImpl factory = new ParameterFactoryImpl();
+        byte[] data = new byte[] { (byte) 0x83, 0x21, 0x43, 0x05 };
+
+        GlobalTitle0001Impl gt = new GlobalTitle0001Impl();
+        gt.decode(data, 0, data.length, factory, SccpProtocolVersion.ITU);
+        assertEquals(gt.getDigitString().toString(), "12345");
+
+        ByteArrayOutputStream bout = new ByteArrayOutputStream();
+        gt.encode(bout, false, SccpProtocolVersion.ITU);
+        assertEquals(bout.toByteArray(), data);
+
+        GlobalTitle0001Impl gt2 = new GlobalTitle0001Impl("12345", gt.getNatureOfAddress());
+        assertEquals(gt, gt2);
+        assertEquals(gt2, gt);
+        assertEquals(gt.hashCode(), gt2.hashCode());
+        assertEquals(gt.getDigits(), "12345");
+    }
+
+}
@@ -0,0 +1,186 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import javolution.util.FastMap;
+
+import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+import org.restcomm.protocols.ss7.sccp.impl.Mtp3UserPartImpl;
+import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.testng.annotations.Test;
+
+/**
+ * Mtp3ServiceAccessPointIndex lookups must return the same SAPs as the walk of all SAPs in the router order
+ *
+ */
+public class Mtp3ServiceAccessPointIndexTest {
+
+    @Test
+    public void testLookups() throws Exception {
+        Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+        Mtp3ServiceAccessPointImpl sap1 = new Mtp3ServiceAccessPointImpl(1, 11, 2, "Test", 0, null);
+        sap1.addMtp3Destination(1, 100, 199, 0, 7, 15);
+        Mtp3ServiceAccessPointImpl sap2 = new Mtp3ServiceAccessPointImpl(1, 11, 2, "Test", 0, null);
+        sap2.addMtp3Destination(1, 150, 300, 0, 255, 255);
+        Mtp3ServiceAccessPointImpl sap3 = new Mtp3ServiceAccessPointImpl(1, 12, 2, "Test", 5, "1234");
+        sap3.addMtp3Destination(1, 150, 150, 0, 255, 255);
+        saps.put(1, sap1);
+        saps.put(2, sap2);
+        saps.put(3, sap3);
+
+        Mtp3ServiceAccessPointIndex index = new Mtp3ServiceAccessPointIndex(saps);
+
+        assertNull(index.findMtp3ServiceAccessPoint(99, 0));
+        assertSame(index.findMtp3ServiceAccessPoint(100, 0), sap1);
+        assertSame(index.findMtp3ServiceAccessPoint(120, 7), sap1);
+        assertNull(index.findMtp3ServiceAccessPoint(120, 8));
+        assertSame(index.findMtp3ServiceAccessPoint(120, 16), sap1);
+        assertSame(index.findMtp3ServiceAccessPoint(160, 8), sap2);
+        assertSame(index.findMtp3ServiceAccessPoint(300, 8), sap2);
+        assertNull(index.findMtp3ServiceAccessPoint(301, 0));
+        assertNull(index.findMtp3ServiceAccessPoint(Integer.MAX_VALUE, 0));
+
+        assertSame(index.findMtp3ServiceAccessPoint(150, 8, 5), sap3);
+        assertSame(index.findMtp3ServiceAccessPoint(150, 8, 0), sap2);
+        assertNull(index.findMtp3ServiceAccessPoint(150, 8, 1));
+
+        assertSame(index.findMtp3ServiceAccessPointForIncMes(12, 150, "1234"), sap3);
+        assertNull(index.findMtp3ServiceAccessPointForIncMes(12, 150, "123"));
+        assertNull(index.findMtp3ServiceAccessPointForIncMes(12, 150, null));
+        assertSame(index.findMtp3ServiceAccessPointForIncMes(11, 150, "1234"), sap1);
+        assertSame(index.findMtp3ServiceAccessPointForIncMes(11, 250, null), sap2);
+
+        assertTrue(index.spcIsLocal(11));
+        assertTrue(index.spcIsLocal(12));
+        assertFalse(index.spcIsLocal(13));
+    }
+
+    @Test
+    public void testRandomConfigurations() throws Exception {
+        Random rnd = new Random(1);
+        String[] gtDigits = new String[] { null, "", "111", "222" };
+
+        for (int i1 = 0; i1 < 50; i1++) {
+            Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+            int sapCount = 1 + rnd.nextInt(20);
+            for (int i2 = 0; i2 < sapCount; i2++) {
+                Mtp3ServiceAccessPointImpl sap = new Mtp3ServiceAccessPointImpl(1, 1 + rnd.nextInt(3), 2, "Test", rnd.nextInt(3),
+                        gtDigits[rnd.nextInt(gtDigits.length)]);
+                int destCount = rnd.nextInt(4);
+                for (int i3 = 0; i3 < destCount; i3++) {
+                    int firstDpc = rnd.nextInt(100);
+                    int firstSls = rnd.nextInt(16);
+                    sap.addMtp3Destination(i3, firstDpc, firstDpc + rnd.nextInt(30) - 2, firstSls, firstSls + rnd.nextInt(16),
+                            rnd.nextBoolean() ? 15 : 255);
+                }
+                saps.put(rnd.nextInt(1000), sap);
+            }
+
+            Mtp3ServiceAccessPointIndex index = new Mtp3ServiceAccessPointIndex(saps);
+            for (int dpc = -1; dpc < 140; dpc++) {
+                for (int sls = 0; sls < 32; sls++) {
+                    assertSame(index.findMtp3ServiceAccessPoint(dpc, sls), findLinear(saps, dpc, sls, -1));
+                    for (int networkId = 0; networkId < 3; networkId++) {
+                        assertSame(index.findMtp3ServiceAccessPoint(dpc, sls, networkId), findLinear(saps, dpc, sls, networkId));
+                    }
+                }
+                for (int opc = 0; opc < 5; opc++) {
+                    for (String digits : gtDigits) {
+                        assertSame(index.findMtp3ServiceAccessPointForIncMes(opc, dpc, digits), findForIncMesLinear(saps, opc, dpc, digits));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRouterUpdates() throws Exception {
+        String name = "Mtp3ServiceAccessPointIndexTest";
+        SccpStackImpl sccpStack = new SccpStackImpl(name, null);
+        NonPersistentRouterImpl router = new NonPersistentRouterImpl(name, sccpStack);
+        router.start();
+        sccpStack.setMtp3UserPart(1, new Mtp3UserPartImpl(null));
+
+        router.addMtp3ServiceAccessPoint(1, 1, 11, 2, 0, null);
+        assertNull(router.findMtp3ServiceAccessPoint(100, 0));
+        assertTrue(router.spcIsLocal(11));
+
+        router.addMtp3Destination(1, 1, 100, 110, 0, 255, 255);
+        Mtp3ServiceAccessPoint sap = router.findMtp3ServiceAccessPoint(100, 0);
+        assertEquals(sap.getOpc(), 11);
+
+        router.modifyMtp3Destination(1, 1, 120, 130, 0, 255, 255);
+        assertNull(router.findMtp3ServiceAccessPoint(100, 0));
+        assertSame(router.findMtp3ServiceAccessPoint(125, 0), sap);
+
+        router.modifyMtp3ServiceAccessPoint(1, 1, 12, 2, 0, null);
+        assertFalse(router.spcIsLocal(11));
+        assertTrue(router.spcIsLocal(12));
+        // a new SAP object without destinations
+        assertNull(router.findMtp3ServiceAccessPoint(125, 0));
+
+        router.addMtp3Destination(1, 1, 100, 110, 0, 255, 255);
+        assertEquals(router.findMtp3ServiceAccessPoint(100, 0).getOpc(), 12);
+        router.removeMtp3Destination(1, 1);
+        assertNull(router.findMtp3ServiceAccessPoint(100, 0));
+
+        router.removeMtp3ServiceAccessPoint(1);
+        assertFalse(router.spcIsLocal(12));
+    }
+
+    private Mtp3ServiceAccessPoint findLinear(Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps, int dpc, int sls,
+            int networkId) {
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = saps.head(), end = saps.tail(); (e = e.getNext()) != end;) {
+            Mtp3ServiceAccessPoint sap = e.getValue();
+            if (sap.matches(dpc, sls) && (networkId < 0 || sap.getNetworkId() == networkId))
+                return sap;
+        }
+        return null;
+    }
+
+    private Mtp3ServiceAccessPoint findForIncMesLinear(Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps,
+            int localPC, int remotePC, String localGtDigits) {
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = saps.head(), end = saps.tail(); (e = e.getNext()) != end;) {
+            Mtp3ServiceAccessPoint sap = e.getValue();
+            if (sap.getLocalGtDigits() != null && sap.getLocalGtDigits().length() > 0 && sap.getOpc() == localPC
+                    && sap.matches(remotePC) && sap.getLocalGtDigits().equals(localGtDigits))
+                return sap;
+        }
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = saps.head(), end = saps.tail(); (e = e.getNext()) != end;) {
+            Mtp3ServiceAccessPoint sap = e.getValue();
+            if ((sap.getLocalGtDigits() == null || sap.getLocalGtDigits().length() == 0) && sap.getOpc() == localPC
+                    && sap.matches(remotePC))
+                return sap;
+        }
+        return null;
+    }
+
+}
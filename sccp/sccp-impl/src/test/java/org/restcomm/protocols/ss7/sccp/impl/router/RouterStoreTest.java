@@ -23,12 +23,18 @@
 package org.restcomm.protocols.ss7.sccp.impl.router;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
 
+import org.restcomm.protocols.ss7.Util;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
 import org.restcomm.protocols.ss7.sccp.LongMessageRule;
 import org.restcomm.protocols.ss7.sccp.LongMessageRuleType;
 import org.restcomm.protocols.ss7.sccp.Mtp3Destination;
@@ -94,6 +100,163 @@ public class RouterStoreTest {
         router.start();
         router.removeAllResourses();
 
+        String content = legacyConfig();
+
+        String fn2 = generatePath(name, "2");
+        String fn3 = generatePath(name, "3");
+
+        File f3 = new File(fn3);
+        f3.delete();
+        Files.write(Paths.get(fn2), content.getBytes(), StandardOpenOption.CREATE_NEW);
+
+        router.load();
+
+        Mtp3ServiceAccessPoint sap = router.getMtp3ServiceAccessPoint(1);
+        assertEquals(sap.getOpc(), 11);
+        Mtp3Destination dest = sap.getMtp3Destination(2);
+        assertEquals(dest.getLastDpc(), 102);
+    }
+
+    /**
+     * Test for replaying of the journaled changes over the snapshot by a new router instance
+     */
+    @Test
+    public void testJournalReplay() throws Exception {
+        String name = "RouterJournalTest";
+        SccpStackImpl sccpStack = new SccpStackImpl(name, null);
+        sccpStack.setMtp3UserPart(2, new Mtp3UserPartImpl(null));
+        RouterImpl router = new RouterImpl(name, sccpStack);
+        router.setPersistDir(Util.getTmpTestDir());
+        router.start();
+        router.removeAllResourses();
+
+        router.addMtp3ServiceAccessPoint(1, 2, 11, 3, 4, null);
+        router.addMtp3Destination(1, 1, 101, 102, 0, 15, 255);
+        router.addMtp3Destination(1, 2, 201, 202, 0, 15, 255);
+        router.addLongMessageRule(5, 201, 202, LongMessageRuleType.XUDT_ENABLED);
+        router.store();
+        router.flush();
+
+        // these changes are in the journal only
+        router.modifyMtp3Destination(1, 1, 111, 112, 0, 15, 255);
+        router.removeMtp3Destination(1, 2);
+        router.addMtp3Destination(1, 3, 301, 302, 0, 15, 255);
+        router.addMtp3ServiceAccessPoint(2, 2, 12, 3, 5, null);
+        router.addMtp3Destination(2, 1, 401, 401, 0, 15, 255);
+        router.removeLongMessageRule(5);
+        router.addLongMessageRule(6, 501, 502, LongMessageRuleType.LUDT_ENABLED);
+        router.flush();
+        File journalFile = new File(generateTmpPath(name) + ConfigJournal.JOURNAL_SUFFIX);
+        assertTrue(journalFile.length() > 0);
+
+        RouterImpl router1 = new RouterImpl(name, sccpStack);
+        router1.setPersistDir(Util.getTmpTestDir());
+        router1.start();
+
+        Mtp3ServiceAccessPoint sap1 = router1.getMtp3ServiceAccessPoint(1);
+        assertEquals(sap1.getOpc(), 11);
+        assertEquals(sap1.getMtp3Destinations().size(), 2);
+        assertEquals(sap1.getMtp3Destination(1).getFirstDpc(), 111);
+        assertNull(sap1.getMtp3Destination(2));
+        assertEquals(sap1.getMtp3Destination(3).getLastDpc(), 302);
+        Mtp3ServiceAccessPoint sap2 = router1.getMtp3ServiceAccessPoint(2);
+        assertEquals(sap2.getNetworkId(), 5);
+        assertEquals(sap2.getMtp3Destination(1).getFirstDpc(), 401);
+
+        assertNull(router1.getLongMessageRule(5));
+        assertEquals(router1.getLongMessageRule(6).getLongMessageRuleType(), LongMessageRuleType.LUDT_ENABLED);
+
+        // the lookup index is built from the replayed configuration
+        assertEquals(router1.findMtp3ServiceAccessPoint(111, 0), sap1);
+        assertNull(router1.findMtp3ServiceAccessPoint(201, 0));
+        assertEquals(router1.findMtp3ServiceAccessPoint(401, 0, 5), sap2);
+
+        // replayed records are moved into the snapshot
+        router1.flush();
+        assertEquals(journalFile.length(), 0);
+
+        router1.removeAllResourses();
+        router1.stop();
+    }
+
+    /**
+     * Test for importing of a legacy configuration file followed by journaled changes
+     */
+    @Test
+    public void testLegacyImportAndJournal() throws Exception {
+        String name = "RouterLegacyTest";
+        SccpStackImpl sccpStack = new SccpStackImpl(name, null);
+        sccpStack.setMtp3UserPart(1, new Mtp3UserPartImpl(null));
+
+        File f2 = new File(generateTmpPath(name).replace("3.xml", "2.xml"));
+        File f3 = new File(generateTmpPath(name));
+        f3.delete();
+        new File(f3.getPath() + ConfigJournal.JOURNAL_SUFFIX).delete();
+        f2.delete();
+        Files.write(f2.toPath(), legacyConfig().getBytes(), StandardOpenOption.CREATE_NEW);
+
+        RouterImpl router = new RouterImpl(name, sccpStack);
+        router.setPersistDir(Util.getTmpTestDir());
+        router.start();
+
+        // the legacy file is converted into the current snapshot
+        assertFalse(f2.exists());
+        assertTrue(f3.exists());
+        assertEquals(router.getMtp3ServiceAccessPoint(1).getMtp3Destination(2).getLastDpc(), 102);
+
+        router.addMtp3Destination(1, 3, 301, 302, 0, 255, 255);
+        router.addLongMessageRule(1, 1, 102, LongMessageRuleType.XUDT_ENABLED);
+        router.flush();
+
+        RouterImpl router1 = new RouterImpl(name, sccpStack);
+        router1.setPersistDir(Util.getTmpTestDir());
+        router1.start();
+
+        Mtp3ServiceAccessPoint sap = router1.getMtp3ServiceAccessPoint(1);
+        assertEquals(sap.getOpc(), 11);
+        assertEquals(sap.getMtp3Destination(2).getLastDpc(), 102);
+        assertEquals(sap.getMtp3Destination(3).getLastDpc(), 302);
+        assertEquals(router1.getLongMessageRule(1).getLastSpc(), 102);
+        assertEquals(router1.findMtp3ServiceAccessPoint(301, 0, 11), sap);
+
+        router1.removeAllResourses();
+        router1.stop();
+    }
+
+    /**
+     * Test for refusing of configuration changes before the configuration is loaded
+     */
+    @Test
+    public void testChangeBeforeLoad() throws Exception {
+        String name = "RouterNotLoadedTest";
+        SccpStackImpl sccpStack = new SccpStackImpl(name, null);
+        sccpStack.setMtp3UserPart(1, new Mtp3UserPartImpl(null));
+        RouterImpl router = new RouterImpl(name, sccpStack);
+
+        try {
+            router.addMtp3ServiceAccessPoint(1, 1, 11, 2, 0, null);
+            fail("A change before load must be refused");
+        } catch (Exception e) {
+        }
+        try {
+            router.addLongMessageRule(1, 1, 102, LongMessageRuleType.XUDT_ENABLED);
+            fail("A change before load must be refused");
+        } catch (Exception e) {
+        }
+        assertNull(router.getMtp3ServiceAccessPoint(1));
+        assertNull(router.getLongMessageRule(1));
+
+        try {
+            router.store();
+            fail("Store before load must be refused");
+        } catch (IllegalStateException e) {
+        }
+
+        // nothing to persist
+        router.stop();
+    }
+
+    private static String legacyConfig() {
         StringBuilder sb = new StringBuilder();
         sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\" ?>\n");
         sb.append("<rule>\n");
@@ -123,21 +286,11 @@ public class RouterStoreTest {
         sb.append("        </mtp3DestinationMap>\n");
         sb.append("    </value>\n");
         sb.append("</sap>;\n");
-        String content = sb.toString();
-
-        String fn2 = generatePath(name, "2");
-        String fn3 = generatePath(name, "3");
-
-        File f3 = new File(fn3);
-        f3.delete();
-        Files.write(Paths.get(fn2), content.getBytes(), StandardOpenOption.CREATE_NEW);
-
-        router.load();
+        return sb.toString();
+    }
 
-        Mtp3ServiceAccessPoint sap = router.getMtp3ServiceAccessPoint(1);
-        assertEquals(sap.getOpc(), 11);
-        Mtp3Destination dest = sap.getMtp3Destination(2);
-        assertEquals(dest.getLastDpc(), 102);
+    private String generateTmpPath(String name) {
+        return Util.getTmpTestDir() + File.separator + name + "_sccprouter3.xml";
     }
 
     private String generatePath(String name, String ver) {
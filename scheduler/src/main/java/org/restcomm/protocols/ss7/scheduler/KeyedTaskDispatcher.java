@@ -0,0 +1,141 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.scheduler;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Executes tasks of the {@link SchedulerMode#EventDriven} scheduler.
+ *
+ * Tasks are spread by their ordering key over lanes. A lane is a FIFO queue that is drained by at most one worker at a time,
+ * so tasks with the same key keep the order of submitting. Lanes that have pending tasks are executed by a work stealing
+ * {@link ForkJoinPool} with one worker per core.
+ *
+ */
+class KeyedTaskDispatcher {
+
+    private static final int LANES_PER_WORKER = 16;
+    // max tasks executed by a lane before it gives up its worker
+    private static final int LANE_BATCH = 64;
+
+    private final Logger logger = Logger.getLogger(KeyedTaskDispatcher.class);
+
+    private final Lane[] lanes;
+    private final int laneMask;
+    private final int workers;
+    private ForkJoinPool pool;
+
+    KeyedTaskDispatcher() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    KeyedTaskDispatcher(int workers) {
+        this.workers = workers;
+        int cnt = 1;
+        while (cnt < workers * LANES_PER_WORKER) {
+            cnt <<= 1;
+        }
+        this.lanes = new Lane[cnt];
+        for (int i = 0; i < cnt; i++) {
+            this.lanes[i] = new Lane();
+        }
+        this.laneMask = cnt - 1;
+    }
+
+    public void start() {
+        this.pool = new ForkJoinPool(this.workers, ForkJoinPool.defaultForkJoinWorkerThreadFactory,
+                null, true);
+    }
+
+    public void stop() {
+        ForkJoinPool p = this.pool;
+        if (p == null)
+            return;
+
+        p.shutdown();
+        try {
+            p.awaitTermination(40, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+        }
+        for (Lane lane : this.lanes) {
+            lane.queue.clear();
+            lane.scheduled.set(false);
+        }
+    }
+
+    /**
+     * Queues the task into the lane of its ordering key. A task that is already waiting for execution is not queued
+     * second time.
+     */
+    public void execute(Task task) {
+        if (!task.markPending())
+            return;
+
+        int key = task.getOrderingKey();
+        // spreading of sequential keys
+        key ^= (key >>> 16);
+        Lane lane = this.lanes[(key * 0x9E3779B9) >>> 16 & this.laneMask];
+        lane.queue.offer(task);
+        lane.schedule();
+    }
+
+    private class Lane implements Runnable {
+        private final ConcurrentLinkedQueue<Task> queue = new ConcurrentLinkedQueue<Task>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private void schedule() {
+            if (this.scheduled.compareAndSet(false, true)) {
+                try {
+                    pool.execute(this);
+                } catch (Exception e) {
+                    // the pool is stopped
+                    this.scheduled.set(false);
+                }
+            }
+        }
+
+        public void run() {
+            try {
+                Task t;
+                for (int i = 0; i < LANE_BATCH && (t = this.queue.poll()) != null; i++) {
+                    t.clearPending();
+                    try {
+                        t.run();
+                    } catch (Throwable e) {
+                        logger.error("Exception while executing a task", e);
+                    }
+                }
+            } finally {
+                this.scheduled.set(false);
+            }
+
+            if (!this.queue.isEmpty())
+                this.schedule();
+        }
+    }
+}
@@ -25,6 +25,9 @@ package org.restcomm.protocols.ss7.scheduler;
 import org.apache.log4j.Logger;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -38,6 +41,11 @@ import java.util.concurrent.atomic.AtomicInteger;
  * The actual priority is assigned to task instead of process and can be changed dynamically at runtime using the initial
  * priority level, feedback and other parameters.
  *
+ * In {@link SchedulerMode#EventDriven} mode tasks are not collected into cycles but executed immediately by a pool of one
+ * worker per core. Tasks of the same ordering key ({@link Task#getOrderingKey()}) are executed in the order of submitting,
+ * there is no ordering between tasks of different keys (queue priorities are not used). Heartbeat tasks are executed every
+ * 100 ms as in the cycle mode.
+ *
  *
  * @author oifa.yulian
  */
@@ -83,6 +91,11 @@ public class Scheduler implements SchedulerMBean {
     // CPU bound threads
     private CpuThread cpuThread;
 
+    private final SchedulerMode mode;
+    // EventDriven mode executors
+    private KeyedTaskDispatcher dispatcher;
+    private ScheduledExecutorService heartbeatExecutor;
+
     // flag indicating state of the scheduler
     private boolean isActive;
 
@@ -92,12 +105,28 @@ public class Scheduler implements SchedulerMBean {
      * Creates new instance of scheduler.
      */
     public Scheduler() {
+        this(SchedulerMode.Cycle);
+    }
+
+    /**
+     * Creates new instance of scheduler with the given execution mode.
+     */
+    public Scheduler(SchedulerMode mode) {
+        this.mode = mode;
+
         for (int i = 0; i < taskQueues.length; i++)
             taskQueues[i] = new OrderedTaskQueue();
 
         heartBeatQueue = new OrderedTaskQueue();
 
-        cpuThread = new CpuThread(String.format("Scheduler"));
+        if (mode == SchedulerMode.EventDriven)
+            dispatcher = new KeyedTaskDispatcher();
+        else
+            cpuThread = new CpuThread(String.format("Scheduler"));
+    }
+
+    public SchedulerMode getMode() {
+        return mode;
     }
 
     /**
@@ -125,7 +154,10 @@ public class Scheduler implements SchedulerMBean {
      */
     public void submit(Task task, Integer index) {
         task.activate(false);
-        taskQueues[index].accept(task);
+        if (dispatcher != null)
+            dispatcher.execute(task);
+        else
+            taskQueues[index].accept(task);
     }
 
     /**
@@ -153,7 +185,23 @@ public class Scheduler implements SchedulerMBean {
 
         logger.info("Starting ");
 
-        cpuThread.activate();
+        if (dispatcher != null) {
+            dispatcher.start();
+            heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "Scheduler-Heartbeat");
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+            heartbeatExecutor.scheduleAtFixedRate(new Runnable() {
+                public void run() {
+                    executeHeartbeatQueue();
+                }
+            }, 100, 100, TimeUnit.MILLISECONDS);
+        } else {
+            cpuThread.activate();
+        }
 
         logger.info("Started ");
     }
@@ -166,7 +214,14 @@ public class Scheduler implements SchedulerMBean {
             return;
         }
 
-        cpuThread.shutdown();
+        if (dispatcher != null) {
+            // the EventDriven mode can be started again
+            this.isActive = false;
+            heartbeatExecutor.shutdownNow();
+            dispatcher.stop();
+        } else {
+            cpuThread.shutdown();
+        }
 
         try {
             Thread.sleep(40);
@@ -194,7 +249,17 @@ public class Scheduler implements SchedulerMBean {
     }
 
     public void notifyCompletion() {
-        cpuThread.notifyCompletion();
+        if (cpuThread != null)
+            cpuThread.notifyCompletion();
+    }
+
+    private void executeHeartbeatQueue() {
+        heartBeatQueue.changePool();
+        Task t = heartBeatQueue.poll();
+        while (t != null) {
+            dispatcher.execute(t);
+            t = heartBeatQueue.poll();
+        }
     }
 
     /**
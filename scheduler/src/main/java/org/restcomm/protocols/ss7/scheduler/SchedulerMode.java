@@ -0,0 +1,39 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.scheduler;
+
+/**
+ * Execution mode of {@link Scheduler}.
+ *
+ * <p>
+ * Cycle - tasks are collected into priority queues and executed in fixed 4 ms cycles, queue after queue.
+ * </p>
+ * <p>
+ * EventDriven - tasks are executed immediately after submitting by a pool of one worker per core with work stealing. Tasks
+ * with the same ordering key ({@link Task#getOrderingKey()}) are executed one after another in the order of submitting.
+ * </p>
+ *
+ */
+public enum SchedulerMode {
+    Cycle, EventDriven;
+}
@@ -39,6 +39,8 @@ public abstract class Task implements Runnable {
 
     private AtomicBoolean inQueue0 = new AtomicBoolean(false);
     private AtomicBoolean inQueue1 = new AtomicBoolean(false);
+    // waiting for execution by the EventDriven scheduler
+    private AtomicBoolean pending = new AtomicBoolean(false);
 
     public Task(Scheduler scheduler) {
         this.scheduler = scheduler;
@@ -72,6 +74,25 @@ public abstract class Task implements Runnable {
         return inQueue1.get();
     }
 
+    boolean markPending() {
+        return pending.compareAndSet(false, true);
+    }
+
+    void clearPending() {
+        pending.set(false);
+    }
+
+    /**
+     * Ordering key of this task. Tasks with the same key are executed by the EventDriven scheduler one after another in the
+     * order of submitting. Tasks that must keep order between each other (for example all tasks of one ISUP circuit) should
+     * return the same key.
+     *
+     * @return the ordering key
+     */
+    public int getOrderingKey() {
+        return System.identityHashCode(this);
+    }
+
     /**
      * Current queue of this task.
      *
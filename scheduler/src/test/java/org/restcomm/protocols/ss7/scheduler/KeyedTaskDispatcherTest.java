@@ -0,0 +1,207 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.scheduler;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for {@link KeyedTaskDispatcher}
+ *
+ */
+public class KeyedTaskDispatcherTest {
+
+    private Scheduler scheduler;
+    private KeyedTaskDispatcher dispatcher;
+
+    @BeforeMethod
+    public void setUp() {
+        this.scheduler = new Scheduler(SchedulerMode.EventDriven);
+        // more than one worker even on a single core machine
+        this.dispatcher = new KeyedTaskDispatcher(2);
+        this.dispatcher.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        this.dispatcher.stop();
+    }
+
+    /**
+     * Tasks with the same key are executed in the order of submitting
+     */
+    @Test(groups = { "functional" })
+    public void testOrderOfSameKey() throws Exception {
+        int cnt = 1000;
+        List<Integer> executed = new ArrayList<Integer>();
+        CountDownLatch done = new CountDownLatch(cnt);
+        for (int i = 0; i < cnt; i++) {
+            this.dispatcher.execute(new RecordingTask(this.scheduler, 7, i, executed, done));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        synchronized (executed) {
+            assertEquals(executed.size(), cnt);
+            for (int i = 0; i < cnt; i++) {
+                assertEquals(executed.get(i).intValue(), i);
+            }
+        }
+    }
+
+    /**
+     * A task that is waiting for execution is not queued second time, after execution it can be queued again
+     */
+    @Test(groups = { "functional" })
+    public void testPendingTaskIsNotQueuedTwice() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // occupies the lane of key 1 so the next task stays queued
+        this.dispatcher.execute(new BlockingTask(this.scheduler, 1, started, release));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        List<Integer> executed = new ArrayList<Integer>();
+        CountDownLatch done = new CountDownLatch(1);
+        RecordingTask task = new RecordingTask(this.scheduler, 1, 0, executed, done);
+        this.dispatcher.execute(task);
+        this.dispatcher.execute(task);
+        this.dispatcher.execute(task);
+
+        release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        // a second execution would come right after the first one
+        Thread.sleep(200);
+        synchronized (executed) {
+            assertEquals(executed.size(), 1);
+        }
+
+        done = new CountDownLatch(1);
+        task.done = done;
+        this.dispatcher.execute(task);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        synchronized (executed) {
+            assertEquals(executed.size(), 2);
+        }
+    }
+
+    /**
+     * Tasks with different keys are not serialized: a task of key 1 waits for a task of key 2 which must run at the same
+     * time on another worker
+     */
+    @Test(groups = { "functional" })
+    public void testDifferentKeysInParallel() throws Exception {
+        // keys 1 and 2 are spread into different lanes
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingTask first = new BlockingTask(this.scheduler, 1, started, release);
+        this.dispatcher.execute(first);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        BlockingTask second = new BlockingTask(this.scheduler, 2, secondStarted, new CountDownLatch(0));
+        this.dispatcher.execute(second);
+        assertTrue(secondStarted.await(10, TimeUnit.SECONDS));
+        assertEquals(first.finished.get(), 0);
+
+        release.countDown();
+        assertTrue(first.await());
+    }
+
+    private static class RecordingTask extends Task {
+        private final int key;
+        private final int id;
+        private final List<Integer> executed;
+        private volatile CountDownLatch done;
+
+        RecordingTask(Scheduler scheduler, int key, int id, List<Integer> executed, CountDownLatch done) {
+            super(scheduler);
+            this.key = key;
+            this.id = id;
+            this.executed = executed;
+            this.done = done;
+        }
+
+        public int getOrderingKey() {
+            return key;
+        }
+
+        public int getQueueNumber() {
+            return Scheduler.MANAGEMENT_QUEUE;
+        }
+
+        public long perform() {
+            synchronized (executed) {
+                executed.add(id);
+            }
+            done.countDown();
+            return 0;
+        }
+    }
+
+    private static class BlockingTask extends Task {
+        private final int key;
+        private final CountDownLatch started;
+        private final CountDownLatch release;
+        private final CountDownLatch finishedLatch = new CountDownLatch(1);
+        private final AtomicInteger finished = new AtomicInteger();
+
+        BlockingTask(Scheduler scheduler, int key, CountDownLatch started, CountDownLatch release) {
+            super(scheduler);
+            this.key = key;
+            this.started = started;
+            this.release = release;
+        }
+
+        public int getOrderingKey() {
+            return key;
+        }
+
+        public int getQueueNumber() {
+            return Scheduler.MANAGEMENT_QUEUE;
+        }
+
+        public long perform() {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+            }
+            finished.incrementAndGet();
+            finishedLatch.countDown();
+            return 0;
+        }
+
+        boolean await() throws InterruptedException {
+            return finishedLatch.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
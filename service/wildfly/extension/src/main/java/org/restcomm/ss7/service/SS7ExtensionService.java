@@ -52,8 +52,10 @@ import org.restcomm.protocols.ss7.m3ua.impl.M3UAManagementImpl;
 import org.restcomm.protocols.ss7.m3ua.impl.oam.M3UAShellExecutor;
 import org.restcomm.protocols.ss7.m3ua.impl.oam.SCTPShellExecutor;
 import org.restcomm.protocols.ss7.map.MAPStackImpl;
+import org.restcomm.protocols.ss7.map.oam.MAPExecutor;
 import org.restcomm.protocols.ss7.map.api.MAPStack;
 import org.restcomm.protocols.ss7.mtp.Mtp3UserPart;
+import org.restcomm.protocols.ss7.mtp.RingDeliveryExecutor;
 import org.restcomm.protocols.ss7.mtp.RoutingLabelFormat;
 import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.restcomm.protocols.ss7.sccp.impl.oam.SccpExecutor;
@@ -117,6 +119,7 @@ public class SS7ExtensionService implements SS7ServiceInterface,Service<SS7Servi
     private FastMap<String, TCAPStackImpl> beanTcapStacks = new FastMap<String, TCAPStackImpl>();
     private TCAPExecutor beanTcapExecutor;
     private FastMap<String, MAPStackImpl> beanMapStacks = new FastMap<String, MAPStackImpl>();
+    private MAPExecutor beanMapExecutor;
     private FastMap<String, CAPStackImpl> beanCapStacks = new FastMap<String, CAPStackImpl>();
 
     private FastMap<String, SS7Service> beanSS7Services = new FastMap<String, SS7Service>();
@@ -208,6 +211,7 @@ public class SS7ExtensionService implements SS7ServiceInterface,Service<SS7Servi
                 shellExecutors.add(beanM3uaShellExecutor);
                 shellExecutors.add(beanSctpShellExecutor);
                 shellExecutors.add(beanTcapExecutor);
+                shellExecutors.add(beanMapExecutor);
 
                 String address = getPropertyString("ShellExecutor", "address", "127.0.0.1");
                 int port = getPropertyInt("ShellExecutor", "port", 3435);
@@ -624,6 +628,18 @@ public class SS7ExtensionService implements SS7ServiceInterface,Service<SS7Servi
             }
         }
 
+        // MAPShellExecutor
+        if (beanMapStacks.size() > 0) {
+            beanMapExecutor = new MAPExecutor();
+            try {
+                beanMapExecutor.setMapStacks(beanMapStacks);
+            } catch (Exception e) {
+                throw new StartException("MapExecutor MBean creating is failed: " + e.getMessage(), e);
+            }
+        } else {
+            beanMapExecutor = null;
+        }
+
         // MAPService
         for (ModelNode node : mbeansNode.asList()) {
             for (Property prop : node.asPropertyList()) {
@@ -764,6 +780,12 @@ public class SS7ExtensionService implements SS7ServiceInterface,Service<SS7Servi
                 } else if (pName.equals("deliveryMessageThreadCount")) {
                     int vali = property.getValue().get("value").asInt();
                     m3uaManagement.setDeliveryMessageThreadCount(vali);
+                } else if (pName.equals("deliveryRingSize")) {
+                    int vali = property.getValue().get("value").asInt();
+                    m3uaManagement.setDeliveryRingSize(vali);
+                } else if (pName.equals("deliveryWaitStrategy")) {
+                    String vals = property.getValue().get("value").asString();
+                    m3uaManagement.setDeliveryWaitStrategy(RingDeliveryExecutor.WaitStrategy.valueOf(vals));
                 }
             }
 
@@ -31,6 +31,13 @@ public class LongValue {
 
     private long val;
 
+    public LongValue() {
+    }
+
+    public LongValue(long val) {
+        this.val = val;
+    }
+
     public long getValue() {
         return val;
     }
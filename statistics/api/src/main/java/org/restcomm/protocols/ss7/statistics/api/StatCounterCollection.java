@@ -40,6 +40,12 @@ public interface StatCounterCollection {
 
     StatResult restartAndGet(String campaignName);
 
+    /**
+     * Returns data that are collected for the campaign since its last restart without restarting of the campaign.
+     * Returns null if the campaign does not exist.
+     */
+    StatResult getSnapshot(String campaignName);
+
     void updateData(long newVal);
 
     void updateData(String newVal);
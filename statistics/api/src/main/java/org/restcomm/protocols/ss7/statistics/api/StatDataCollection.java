@@ -43,6 +43,8 @@ public interface StatDataCollection {
 
     StatResult restartAndGet(String counterName, String campaignName);
 
+    StatResult getSnapshot(String counterName, String campaignName);
+
     void updateData(String counterName, long newVal);
 
     void updateData(String counterName, String newVal);
@@ -35,4 +35,9 @@ public interface StatResult {
 
     FastMap<String, LongValue> getStringLongValue();
 
+    /**
+     * @return the latency distribution for HISTOGRAM counters (null for other counters)
+     */
+    StatHistogram getHistogram();
+
 }
@@ -0,0 +1,93 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
+
+/**
+ *
+ * HDR-style histogram of non-negative long values. Values below 32 have own buckets, every larger power of two range is
+ * split into 32 buckets of the same width, so the bucket width is at most 1/32 of the value. Bucket counts are
+ * cumulative (never reset), campaigns keep a copy of counts at their restart and report the difference.
+ *
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    public static final int BUCKET_COUNT = SUB_BUCKET_COUNT * (64 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final StripedCounter sum = new StripedCounter();
+
+    public static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT)
+            return value < 0 ? 0 : (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - SUB_BUCKET_BITS;
+        int mantissa = (int) (value >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return SUB_BUCKET_COUNT + (shift << SUB_BUCKET_BITS) + mantissa;
+    }
+
+    public static long lowestValue(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = (index - SUB_BUCKET_COUNT) >> SUB_BUCKET_BITS;
+        long mantissa = (index - SUB_BUCKET_COUNT) & (SUB_BUCKET_COUNT - 1);
+        return (1L << (shift + SUB_BUCKET_BITS)) | (mantissa << shift);
+    }
+
+    public static long highestValue(int index) {
+        if (index < SUB_BUCKET_COUNT)
+            return index;
+        int shift = (index - SUB_BUCKET_COUNT) >> SUB_BUCKET_BITS;
+        return lowestValue(index) + (1L << shift) - 1;
+    }
+
+    public void recordValue(long value) {
+        this.counts.getAndIncrement(bucketIndex(value));
+        this.sum.add(value < 0 ? 0 : value);
+    }
+
+    /**
+     * @return a copy of bucket counts, the last element is the sum of recorded values
+     */
+    public long[] copyCounts() {
+        long[] res = new long[BUCKET_COUNT + 1];
+        for (int i1 = 0; i1 < BUCKET_COUNT; i1++) {
+            res[i1] = this.counts.get(i1);
+        }
+        res[BUCKET_COUNT] = this.sum.sum();
+        return res;
+    }
+
+    /**
+     * @return all values that have been recorded into the histogram
+     */
+    public StatHistogram snapshot() {
+        return new StatHistogramImpl(this.copyCounts(), new long[BUCKET_COUNT + 1]);
+    }
+
+}
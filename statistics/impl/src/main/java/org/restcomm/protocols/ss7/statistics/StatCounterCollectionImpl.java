@@ -24,8 +24,7 @@ package org.restcomm.protocols.ss7.statistics;
 
 import java.util.ArrayList;
 import java.util.Date;
-
-import javolution.util.FastMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.restcomm.protocols.ss7.statistics.api.StatCounterCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
@@ -33,18 +32,39 @@ import org.restcomm.protocols.ss7.statistics.api.StatResult;
 
 /**
 *
+* Campaigns of a counter. updateData() methods do not lock: campaigns are read from a copy-on-write array (campaigns are
+* added and removed under the collection monitor only by management calls). StringLongMap and HISTOGRAM data are kept
+* once for all campaigns and updated once per call, MIN and MAX campaigns are updated by CAS.
+*
 * @author sergey vetyutnev
 *
 */
 public class StatCounterCollectionImpl implements StatCounterCollection {
 
+    private static final StatDataCollectorAbstractImpl[] EMPTY = new StatDataCollectorAbstractImpl[0];
+
     private String counterName;
     private StatDataCollectorType type;
-    private FastMap<String, StatDataCollectorAbstractImpl> coll = new FastMap<String, StatDataCollectorAbstractImpl>();
+    private ConcurrentHashMap<String, StatDataCollectorAbstractImpl> coll = new ConcurrentHashMap<String, StatDataCollectorAbstractImpl>();
+    private volatile StatDataCollectorAbstractImpl[] campaigns = EMPTY;
+
+    private ConcurrentHashMap<String, StripedCounter> stringCounters;
+    private LatencyHistogram histogram;
 
     public StatCounterCollectionImpl(String counterName, StatDataCollectorType type) {
         this.counterName = counterName;
         this.type = type;
+
+        switch (type) {
+            case StringLongMap:
+                this.stringCounters = new ConcurrentHashMap<String, StripedCounter>();
+                break;
+            case HISTOGRAM:
+                this.histogram = new LatencyHistogram();
+                break;
+            default:
+                break;
+        }
     }
 
     @Override
@@ -52,6 +72,10 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
         return counterName;
     }
 
+    private void updateCampaigns() {
+        this.campaigns = this.coll.values().toArray(EMPTY);
+    }
+
     @Override
     public void clearDeadCampaignes(Date lastTime) {
         synchronized (this) {
@@ -65,13 +89,19 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
             for (String s : toDel) {
                 coll.remove(s);
             }
+            this.updateCampaigns();
         }
     }
 
     @Override
     public StatResult restartAndGet(String campaignName) {
+        StatDataCollectorAbstractImpl sdc = coll.get(campaignName);
+        if (sdc != null) {
+            return sdc.restartAndGet();
+        }
+
         synchronized (this) {
-            StatDataCollectorAbstractImpl sdc = coll.get(campaignName);
+            sdc = coll.get(campaignName);
             if (sdc != null) {
                 return sdc.restartAndGet();
             } else {
@@ -85,23 +115,42 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
                     sdc.reset();
                     break;
                 case StringLongMap:
-                    sdc = new StringLongMap(campaignName);
+                    sdc = new StringLongMap(campaignName, this.stringCounters);
+                    sdc.reset();
+                    break;
+                case HISTOGRAM:
+                    sdc = new StatDataCollectorHistogram(campaignName, this.histogram);
                     sdc.reset();
                     break;
                 }
                 if (sdc != null) {
                     coll.put(campaignName, sdc);
+                    this.updateCampaigns();
                 }
                 return null;
             }
         }
     }
 
+    @Override
+    public StatResult getSnapshot(String campaignName) {
+        StatDataCollectorAbstractImpl sdc = coll.get(campaignName);
+        if (sdc != null)
+            return sdc.getSnapshot();
+        else
+            return null;
+    }
+
     @Override
     public void updateData(long newVal) {
-        synchronized (this) {
-            for (String s : coll.keySet()) {
-                StatDataCollectorAbstractImpl d = coll.get(s);
+        StatDataCollectorAbstractImpl[] cur = this.campaigns;
+        if (cur.length == 0)
+            return;
+
+        if (this.histogram != null) {
+            this.histogram.recordValue(newVal);
+        } else if (this.stringCounters == null) {
+            for (StatDataCollectorAbstractImpl d : cur) {
                 d.updateData(newVal);
             }
         }
@@ -109,12 +158,8 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
 
     @Override
     public void updateData(String newVal) {
-        synchronized (this) {
-            for (String s : coll.keySet()) {
-                StatDataCollectorAbstractImpl d = coll.get(s);
-                d.updateData(newVal);
-            }
+        if (this.stringCounters != null && this.campaigns.length > 0) {
+            StringLongMap.updateData(this.stringCounters, newVal);
         }
     }
-
 }
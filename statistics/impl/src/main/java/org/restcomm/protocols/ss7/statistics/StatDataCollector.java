@@ -43,6 +43,8 @@ public interface StatDataCollector {
 
     StatResult restartAndGet();
 
+    StatResult getSnapshot();
+
     void updateData(long newVal);
 
     void updateData(String newVal);
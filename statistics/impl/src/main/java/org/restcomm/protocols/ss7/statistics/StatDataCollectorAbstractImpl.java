@@ -35,7 +35,7 @@ import org.restcomm.protocols.ss7.statistics.api.StatResult;
 public abstract class StatDataCollectorAbstractImpl implements StatDataCollector {
 
     private String campaignName;
-    protected Date sessionStartTime = new Date();
+    protected volatile Date sessionStartTime = new Date();
 
     public StatDataCollectorAbstractImpl(String campaignName) {
         this.campaignName = campaignName;
@@ -51,6 +51,8 @@ public abstract class StatDataCollectorAbstractImpl implements StatDataCollector
 
     public abstract StatResult restartAndGet();
 
+    public abstract StatResult getSnapshot();
+
     protected abstract void reset();
 
     public abstract void updateData(long newVal);
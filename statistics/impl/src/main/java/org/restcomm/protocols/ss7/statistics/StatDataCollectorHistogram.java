@@ -0,0 +1,113 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.statistics;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javolution.util.FastMap;
+
+import org.restcomm.protocols.ss7.statistics.api.LongValue;
+import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
+import org.restcomm.protocols.ss7.statistics.api.StatResult;
+
+/**
+ *
+ * Latency histogram of a campaign. The LatencyHistogram is shared by all campaigns of a counter collection, a campaign
+ * keeps bucket counts at its restart and reports differences.
+ *
+ */
+public class StatDataCollectorHistogram extends StatDataCollectorAbstractImpl {
+
+    private final LatencyHistogram histogram;
+    private final AtomicReference<long[]> baseline = new AtomicReference<long[]>(new long[LatencyHistogram.BUCKET_COUNT + 1]);
+
+    public StatDataCollectorHistogram(String campaignName, LatencyHistogram histogram) {
+        super(campaignName);
+        this.histogram = histogram;
+    }
+
+    @Override
+    public StatResult restartAndGet() {
+        while (true) {
+            long[] oldCounts = this.baseline.get();
+            long[] newCounts = this.histogram.copyCounts();
+            if (this.baseline.compareAndSet(oldCounts, newCounts)) {
+                this.sessionStartTime = new Date();
+                return new StatResultHistogram(new StatHistogramImpl(newCounts, oldCounts));
+            }
+        }
+    }
+
+    @Override
+    public StatResult getSnapshot() {
+        long[] oldCounts = this.baseline.get();
+        return new StatResultHistogram(new StatHistogramImpl(this.histogram.copyCounts(), oldCounts));
+    }
+
+    @Override
+    protected void reset() {
+        this.baseline.set(this.histogram.copyCounts());
+    }
+
+    @Override
+    public void updateData(long newVal) {
+        this.histogram.recordValue(newVal);
+    }
+
+    @Override
+    public void updateData(String newVal) {
+    }
+
+    @Override
+    public StatDataCollectorType getStatDataCollectorType() {
+        return StatDataCollectorType.HISTOGRAM;
+    }
+
+    public class StatResultHistogram implements StatResult {
+
+        private StatHistogram histogram;
+
+        public StatResultHistogram(StatHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override
+        public long getLongValue() {
+            return this.histogram.getCount();
+        }
+
+        @Override
+        public FastMap<String, LongValue> getStringLongValue() {
+            return null;
+        }
+
+        @Override
+        public StatHistogram getHistogram() {
+            return this.histogram;
+        }
+
+    }
+
+}
@@ -23,10 +23,12 @@
 package org.restcomm.protocols.ss7.statistics;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javolution.util.FastMap;
 
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
 import org.restcomm.protocols.ss7.statistics.api.StatResult;
 
 /**
@@ -36,19 +38,32 @@ import org.restcomm.protocols.ss7.statistics.api.StatResult;
 */
 public abstract class StatDataCollectorLongImpl extends StatDataCollectorAbstractImpl {
 
-    protected long val;
+    protected final AtomicLong val = new AtomicLong();
 
     public StatDataCollectorLongImpl(String campaignName) {
         super(campaignName);
     }
 
+    /**
+     * @return the value that the collector has after a restart
+     */
+    protected abstract long getInitialValue();
+
     public StatResult restartAndGet() {
-        StatResultLong res = new StatResultLong(val);
+        StatResultLong res = new StatResultLong(this.val.getAndSet(this.getInitialValue()));
         this.sessionStartTime = new Date();
-        this.reset();
         return res;
     }
 
+    public StatResult getSnapshot() {
+        return new StatResultLong(this.val.get());
+    }
+
+    @Override
+    protected void reset() {
+        this.val.set(this.getInitialValue());
+    }
+
     public class StatResultLong implements StatResult {
 
         private long val;
@@ -67,5 +82,10 @@ public abstract class StatDataCollectorLongImpl extends StatDataCollectorAbstrac
             return null;
         }
 
+        @Override
+        public StatHistogram getHistogram() {
+            return null;
+        }
+
     }
 }
@@ -36,14 +36,17 @@ public class StatDataCollectorMax extends StatDataCollectorLongImpl {
     }
 
     @Override
-    protected void reset() {
-        val = Long.MIN_VALUE;
+    protected long getInitialValue() {
+        return Long.MIN_VALUE;
     }
 
     @Override
     public void updateData(long newVal) {
-        if (val < newVal)
-            val = newVal;
+        while (true) {
+            long cur = this.val.get();
+            if (cur >= newVal || this.val.compareAndSet(cur, newVal))
+                return;
+        }
     }
 
     @Override
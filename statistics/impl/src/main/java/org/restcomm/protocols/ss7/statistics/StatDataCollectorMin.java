@@ -36,14 +36,17 @@ public class StatDataCollectorMin extends StatDataCollectorLongImpl {
     }
 
     @Override
-    protected void reset() {
-        val = Long.MAX_VALUE;
+    protected long getInitialValue() {
+        return Long.MAX_VALUE;
     }
 
     @Override
     public void updateData(long newVal) {
-        if (val > newVal)
-            val = newVal;
+        while (true) {
+            long cur = this.val.get();
+            if (cur <= newVal || this.val.compareAndSet(cur, newVal))
+                return;
+        }
     }
 
     @Override
@@ -0,0 +1,111 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.statistics;
+
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
+
+/**
+ *
+ * Values that have been recorded into a LatencyHistogram between two copies of its counts
+ *
+ */
+public class StatHistogramImpl implements StatHistogram {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+
+    public StatHistogramImpl(long[] newCounts, long[] oldCounts) {
+        this.counts = new long[LatencyHistogram.BUCKET_COUNT];
+        long cnt = 0;
+        for (int i1 = 0; i1 < LatencyHistogram.BUCKET_COUNT; i1++) {
+            this.counts[i1] = newCounts[i1] - oldCounts[i1];
+            cnt += this.counts[i1];
+        }
+        this.count = cnt;
+        this.sum = newCounts[LatencyHistogram.BUCKET_COUNT] - oldCounts[LatencyHistogram.BUCKET_COUNT];
+    }
+
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public long getMin() {
+        for (int i1 = 0; i1 < this.counts.length; i1++) {
+            if (this.counts[i1] > 0)
+                return LatencyHistogram.lowestValue(i1);
+        }
+        return 0;
+    }
+
+    @Override
+    public long getMax() {
+        for (int i1 = this.counts.length - 1; i1 >= 0; i1--) {
+            if (this.counts[i1] > 0)
+                return LatencyHistogram.highestValue(i1);
+        }
+        return 0;
+    }
+
+    @Override
+    public double getMean() {
+        if (this.count == 0)
+            return 0;
+        return (double) this.sum / this.count;
+    }
+
+    @Override
+    public long getValueAtPercentile(double percentile) {
+        if (this.count == 0)
+            return 0;
+
+        long target = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * this.count);
+        if (target < 1)
+            target = 1;
+        long cnt = 0;
+        for (int i1 = 0; i1 < this.counts.length; i1++) {
+            cnt += this.counts[i1];
+            if (cnt >= target)
+                return LatencyHistogram.highestValue(i1);
+        }
+        return this.getMax();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("StatHistogram [count=").append(this.count);
+        if (this.count > 0) {
+            sb.append(", min=").append(this.getMin());
+            sb.append(", mean=").append(this.getMean());
+            sb.append(", p50=").append(this.getValueAtPercentile(50));
+            sb.append(", p99=").append(this.getValueAtPercentile(99));
+            sb.append(", max=").append(this.getMax());
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+}
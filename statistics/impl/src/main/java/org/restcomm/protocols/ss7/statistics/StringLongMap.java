@@ -22,38 +22,89 @@
 
 package org.restcomm.protocols.ss7.statistics;
 
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
 import javolution.util.FastMap;
 
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
 import org.restcomm.protocols.ss7.statistics.api.StatResult;
 
 /**
 *
+* String -> long counters of a campaign. Counters are cumulative and shared by all campaigns of a counter collection
+* (StatCounterCollectionImpl updates them once for all campaigns), a campaign keeps counter values at its restart and
+* reports differences.
+*
 * @author sergey vetyutnev
 *
 */
 public class StringLongMap extends StatDataCollectorAbstractImpl {
 
-    private FastMap<String, LongValue> data = new FastMap<String, LongValue>();
+    private final ConcurrentHashMap<String, StripedCounter> counters;
+    private final AtomicReference<HashMap<String, Long>> baseline = new AtomicReference<HashMap<String, Long>>(
+            new HashMap<String, Long>());
 
-    public StringLongMap(String campaignName) {
+    public StringLongMap(String campaignName, ConcurrentHashMap<String, StripedCounter> counters) {
         super(campaignName);
+        this.counters = counters;
+    }
+
+    /**
+     * Increments the counter for the name in the shared counters
+     */
+    public static void updateData(ConcurrentHashMap<String, StripedCounter> counters, String name) {
+        StripedCounter counter = counters.get(name);
+        if (counter == null) {
+            counter = new StripedCounter();
+            StripedCounter prev = counters.putIfAbsent(name, counter);
+            if (prev != null)
+                counter = prev;
+        }
+        counter.increment();
+    }
+
+    private HashMap<String, Long> sumAll() {
+        HashMap<String, Long> res = new HashMap<String, Long>(this.counters.size() * 2);
+        for (Map.Entry<String, StripedCounter> e : this.counters.entrySet()) {
+            res.put(e.getKey(), e.getValue().sum());
+        }
+        return res;
+    }
+
+    private static FastMap<String, LongValue> diff(HashMap<String, Long> newData, HashMap<String, Long> oldData) {
+        FastMap<String, LongValue> res = new FastMap<String, LongValue>();
+        for (Map.Entry<String, Long> e : newData.entrySet()) {
+            Long oldVal = oldData.get(e.getKey());
+            long val = e.getValue() - (oldVal != null ? oldVal : 0);
+            if (val > 0)
+                res.put(e.getKey(), new LongValue(val));
+        }
+        return res;
     }
 
     public StatResult restartAndGet() {
-        synchronized (this) {
-            StatResultStringLongMap res = new StatResultStringLongMap(this.data);
-            this.data = new FastMap<String, LongValue>();
-            this.reset();
-            return res;
+        while (true) {
+            HashMap<String, Long> oldData = this.baseline.get();
+            HashMap<String, Long> newData = this.sumAll();
+            if (this.baseline.compareAndSet(oldData, newData)) {
+                this.sessionStartTime = new Date();
+                return new StatResultStringLongMap(diff(newData, oldData));
+            }
         }
     }
 
+    public StatResult getSnapshot() {
+        return new StatResultStringLongMap(diff(this.sumAll(), this.baseline.get()));
+    }
+
     protected void reset() {
-        synchronized (this) {
-            this.data.clear();
-        }
+        this.baseline.set(this.sumAll());
     }
 
     @Override
@@ -62,14 +113,7 @@ public class StringLongMap extends StatDataCollectorAbstractImpl {
 
     @Override
     public void updateData(String name) {
-        synchronized (this) {
-            LongValue val = data.get(name);
-            if (val == null) {
-                val = new LongValue();
-                data.put(name, val);
-            }
-            val.updateValue();
-        }
+        updateData(this.counters, name);
     }
 
     @Override
@@ -95,5 +139,11 @@ public class StringLongMap extends StatDataCollectorAbstractImpl {
             return data;
         }
 
+        @Override
+        public StatHistogram getHistogram() {
+            return null;
+        }
+
     }
+
 }
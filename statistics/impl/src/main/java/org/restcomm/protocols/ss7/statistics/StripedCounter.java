@@ -0,0 +1,78 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *
+ * A long counter that is updated by many threads without contention. The value is spread over cells, a thread updates
+ * the cell that is chosen by its id, the cells are padded to separate cache lines. The counter value is the sum of the
+ * cells.
+ *
+ */
+public class StripedCounter {
+
+    // 16 longs = 128 bytes between used cells
+    private static final int CELL_SHIFT = 4;
+    private static final int MAX_CELLS = 64;
+
+    private static final int CELL_COUNT;
+
+    static {
+        int cnt = 1;
+        int procs = Runtime.getRuntime().availableProcessors();
+        while (cnt < procs && cnt < MAX_CELLS) {
+            cnt <<= 1;
+        }
+        CELL_COUNT = cnt;
+    }
+
+    private final AtomicLongArray cells = new AtomicLongArray(CELL_COUNT << CELL_SHIFT);
+
+    private static int cellIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((h >>> 16) & (CELL_COUNT - 1)) << CELL_SHIFT;
+    }
+
+    public void add(long delta) {
+        this.cells.getAndAdd(cellIndex(), delta);
+    }
+
+    public void increment() {
+        this.cells.getAndIncrement(cellIndex());
+    }
+
+    /**
+     * @return the sum of the cells. Updates that are concurrent with the call may be counted or not.
+     */
+    public long sum() {
+        long res = 0;
+        for (int i1 = 0; i1 < CELL_COUNT; i1++) {
+            res += this.cells.get(i1 << CELL_SHIFT);
+        }
+        return res;
+    }
+
+}
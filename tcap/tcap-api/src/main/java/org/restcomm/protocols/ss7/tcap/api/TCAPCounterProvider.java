@@ -26,6 +26,7 @@ import java.util.Map;
 import java.util.UUID;
 
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
 
 /**
  *
@@ -198,6 +199,11 @@ public interface TCAPCounterProvider {
      */
     long getAllDialogsDuration();
 
+    /**
+     * return a distribution of durations of Dialogs that have been released (in milliseconds)
+     */
+    StatHistogram getDialogsDurationHistogram(String compainName);
+
 
     /**
      * return an outgoing Dialogs count per ApplicationContextNames (in string form)
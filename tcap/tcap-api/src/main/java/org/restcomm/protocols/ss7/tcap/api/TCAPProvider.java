@@ -138,6 +138,14 @@ public interface TCAPProvider extends Serializable {
      */
     int getCurrentDialogsCount();
 
+    /**
+     * Returns an active structured Dialog by its local TransactionId
+     *
+     * @param dialogId local TransactionId
+     * @return the Dialog or null if there is no such active Dialog (or the stack works in the preview mode)
+     */
+    Dialog getDialogById(Long dialogId);
+
     /**
      * Parsing of encoded TCAP message for getting only message type, origination/destination dialogId
      *
@@ -321,6 +321,22 @@ public interface Dialog extends Serializable {
      */
     void setUserObject(Object userObject);
 
+    /**
+     * Getting from the Dialog the dialog of the TC-User layer (for example MAPDialog or CAPDialog) that is served by this
+     * Dialog. This slot is reserved for TC-User stacks, applications must use {@link #getUserObject()}
+     *
+     * @return
+     */
+    Object getUpperDialog();
+
+    /**
+     * Attach to the Dialog the dialog of the TC-User layer. TC-User stacks use it for finding of their dialog for incoming
+     * messages instead of a separate dialog map
+     *
+     * @param upperDialog
+     */
+    void setUpperDialog(Object upperDialog);
+
     /**
      *
      * @return Returns if a dialog works in preview mode
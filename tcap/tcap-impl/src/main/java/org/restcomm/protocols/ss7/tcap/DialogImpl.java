@@ -26,9 +26,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Level;
@@ -102,6 +100,7 @@ import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCEndIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCPAbortIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCUniIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCUserAbortIndicationImpl;
+import org.restcomm.protocols.ss7.tcap.timers.TimerTask;
 
 /**
  * @author baranowb
@@ -117,6 +116,8 @@ public class DialogImpl implements Dialog {
     private static final Logger logger = Logger.getLogger(DialogImpl.class);
 
     private Object userObject;
+    // the dialog of the TC-User layer, it is set before the first message of the dialog is sent or delivered
+    private volatile Object upperDialog;
 
     // lock... ech
     protected ReentrantLock dialogLock = new ReentrantLock();
@@ -139,7 +140,8 @@ public class DialogImpl implements Dialog {
     private int localSsn;
     private int remotePc = -1;
 
-    private Future idleTimerFuture;
+    private IdleTimerTask idleTimerTask;
+    private boolean idleTimerStarted = false;
     private boolean idleTimerActionTaken = false;
     private boolean idleTimerInvoked = false;
     private TRPseudoState state = TRPseudoState.Idle;
@@ -595,7 +597,7 @@ public class DialogImpl implements Dialog {
                 tcbm.setComponent(componentsToSend);
             }
 
-            AsnOutputStream aos = new AsnOutputStream();
+            AsnOutputStream aos = this.provider.getEncodingStream();
             try {
                 tcbm.encode(aos);
                 this.setState(TRPseudoState.InitialSent);
@@ -676,7 +678,7 @@ public class DialogImpl implements Dialog {
                 if (event.getOriginatingAddress() != null && !event.getOriginatingAddress().equals(this.localAddress)) {
                     this.localAddress = event.getOriginatingAddress();
                 }
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.getEncodingStream();
                 try {
                     tcbm.encode(aos);
                     if (this.provider.getStack().getStatisticsEnabled()) {
@@ -709,7 +711,7 @@ public class DialogImpl implements Dialog {
 
                 }
 
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.getEncodingStream();
                 try {
                     tcbm.encode(aos);
                     this.provider.getStack().getCounterProviderImpl().updateTcContinueSentCount(this);
@@ -832,7 +834,7 @@ public class DialogImpl implements Dialog {
                         TRPseudoState.InitialReceived, this.state));
             }
 
-            AsnOutputStream aos = new AsnOutputStream();
+            AsnOutputStream aos = this.provider.getEncodingStream();
             try {
                 tcbm.encode(aos);
                 if (this.provider.getStack().getStatisticsEnabled()) {
@@ -897,7 +899,7 @@ public class DialogImpl implements Dialog {
 
             }
 
-            AsnOutputStream aos = new AsnOutputStream();
+            AsnOutputStream aos = this.provider.getEncodingStream();
             try {
                 msg.encode(aos);
                 if (this.provider.getStack().getStatisticsEnabled()) {
@@ -1003,7 +1005,7 @@ public class DialogImpl implements Dialog {
                 }
 
                 // no components
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.getEncodingStream();
                 try {
                     msg.encode(aos);
                     if (this.provider.getStack().getStatisticsEnabled()) {
@@ -1168,7 +1170,7 @@ public class DialogImpl implements Dialog {
             tcbm.setComponent(componentsToSend);
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.getEncodingStream();
         try {
             tcbm.encode(aos);
         } catch (EncodeException e) {
@@ -1218,7 +1220,7 @@ public class DialogImpl implements Dialog {
             tcbm.setComponent(componentsToSend);
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.getEncodingStream();
         try {
             tcbm.encode(aos);
         } catch (Exception e) {
@@ -1274,7 +1276,7 @@ public class DialogImpl implements Dialog {
             }
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.getEncodingStream();
         try {
             tcbm.encode(aos);
         } catch (Exception e) {
@@ -1314,7 +1316,7 @@ public class DialogImpl implements Dialog {
 
         }
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.provider.getEncodingStream();
         try {
             msg.encode(aos);
         } catch (Exception e) {
@@ -1856,7 +1858,7 @@ public class DialogImpl implements Dialog {
                 msg.setDestinationTransactionId(this.remoteTransactionId);
                 msg.setDialogPortion(dp);
 
-                AsnOutputStream aos = new AsnOutputStream();
+                AsnOutputStream aos = this.provider.getEncodingStream();
                 try {
                     msg.encode(aos);
                     if (this.provider.getStack().getStatisticsEnabled()) {
@@ -2086,13 +2088,17 @@ public class DialogImpl implements Dialog {
 
         try {
             this.dialogLock.lock();
-            if (this.idleTimerFuture != null) {
+            if (this.idleTimerStarted) {
                 throw new IllegalStateException();
             }
 
-            IdleTimerTask t = new IdleTimerTask();
-            t.d = this;
-            this.idleTimerFuture = this.executor.schedule(t, this.idleTaskTimeout, TimeUnit.MILLISECONDS);
+            // the task is created once and then rescheduled by the TimerService
+            if (this.idleTimerTask == null) {
+                this.idleTimerTask = new IdleTimerTask();
+                this.idleTimerTask.d = this;
+            }
+            this.provider.getTimerService().schedule(this.idleTimerTask, this.idleTaskTimeout);
+            this.idleTimerStarted = true;
 
         } finally {
             this.dialogLock.unlock();
@@ -2105,9 +2111,9 @@ public class DialogImpl implements Dialog {
 
         try {
             this.dialogLock.lock();
-            if (this.idleTimerFuture != null) {
-                this.idleTimerFuture.cancel(false);
-                this.idleTimerFuture = null;
+            if (this.idleTimerStarted) {
+                this.provider.getTimerService().cancel(this.idleTimerTask);
+                this.idleTimerStarted = false;
             }
 
         } finally {
@@ -2120,13 +2126,13 @@ public class DialogImpl implements Dialog {
         startIdleTimer();
     }
 
-    private class IdleTimerTask implements Runnable {
+    private class IdleTimerTask extends TimerTask {
         DialogImpl d;
 
         public void run() {
             try {
                 dialogLock.lock();
-                d.idleTimerFuture = null;
+                d.idleTimerStarted = false;
 
                 d.idleTimerActionTaken = false;
                 d.idleTimerInvoked = true;
@@ -2215,6 +2221,14 @@ public class DialogImpl implements Dialog {
         this.userObject = userObject;
     }
 
+    public Object getUpperDialog() {
+        return this.upperDialog;
+    }
+
+    public void setUpperDialog(Object upperDialog) {
+        this.upperDialog = upperDialog;
+    }
+
     public boolean getPreviewMode() {
         return this.previewMode;
     }
@@ -0,0 +1,361 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.restcomm.protocols.ss7.tcap.api.TCAPException;
+
+/**
+ * Local transaction id allocator and long-keyed dialog table.
+ *
+ * Dialogs are spread by their transaction id over a power-of-two number of shards. Every shard is a pre-sized open
+ * addressing table (primitive long keys, linear probing). Lookups never lock, inserts and removals lock only the shard
+ * the id belongs to. Transaction ids are taken from a lock-free ring cursor over the configured dialog id range, so
+ * consecutive allocations land in different shards.
+ *
+ * A dialog is added in two steps: {@link #allocateId(long, long, int)} (or {@link #reserve(long)}) reserves an id and
+ * {@link #publish(long, DialogImpl)} attaches the created dialog to it. Until the dialog is published {@link #get(long)}
+ * returns null for the reserved id.
+ */
+public class DialogTable {
+
+    private static final long FREE = 0;
+    private static final long REMOVED = -1;
+    private static final long HASH_SEED = 0x9E3779B97F4A7C15L;
+    private static final int MIN_SHARD_CAPACITY = 64;
+    private static final int MAX_SHARDS = 256;
+
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int shardShift;
+
+    private final AtomicLong cursor = new AtomicLong(0);
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    public DialogTable(int expectedDialogs) {
+        int cnt = 1;
+        int minShards = Math.min(Runtime.getRuntime().availableProcessors() * 4, MAX_SHARDS);
+        while (cnt < minShards) {
+            cnt <<= 1;
+        }
+        this.shards = new Shard[cnt];
+        this.shardMask = cnt - 1;
+        this.shardShift = Integer.numberOfTrailingZeros(cnt);
+
+        int shardCapacity = capacityFor(expectedDialogs / cnt + 1);
+        for (int i1 = 0; i1 < cnt; i1++) {
+            this.shards[i1] = new Shard(shardCapacity);
+        }
+    }
+
+    private static int capacityFor(int entries) {
+        // load factor is kept at most 0.5
+        int cap = MIN_SHARD_CAPACITY;
+        while (cap < entries * 2 && cap < (1 << 30)) {
+            cap <<= 1;
+        }
+        return cap;
+    }
+
+    private Shard shardFor(long id) {
+        return this.shards[(int) id & this.shardMask];
+    }
+
+    private int slotFor(long id, int mask) {
+        return (int) (((id >>> this.shardShift) * HASH_SEED) >>> 32) & mask;
+    }
+
+    /**
+     * Returns the next id of the ring [rangeStart, rangeEnd] without checking whether it is in use. Used directly by the
+     * preview mode where local ids are not tracked.
+     */
+    public long nextId(long rangeStart, long rangeEnd) {
+        while (true) {
+            long cur = this.cursor.get();
+            long next = cur < rangeStart ? rangeStart : cur + 1;
+            if (next > rangeEnd)
+                next = rangeStart;
+            if (this.cursor.compareAndSet(cur, next))
+                return next;
+        }
+    }
+
+    /**
+     * Moves the ring cursor into a newly configured id range.
+     */
+    public void resetCursor(long rangeStart, long rangeEnd) {
+        long cur = this.cursor.get();
+        if (cur < rangeStart)
+            cur = rangeStart;
+        if (cur >= rangeEnd)
+            cur = rangeEnd - 1;
+        this.cursor.set(cur);
+    }
+
+    /**
+     * Allocates and reserves a free id from the range [rangeStart, rangeEnd].
+     *
+     * @throws TCAPException if the table already holds maxDialogs dialogs
+     */
+    public long allocateId(long rangeStart, long rangeEnd, int maxDialogs) throws TCAPException {
+        if (this.size.get() >= maxDialogs)
+            throw new TCAPException("Current dialog count exceeds its maximum value");
+
+        while (true) {
+            long id = this.nextId(rangeStart, rangeEnd);
+            if (this.reserve(id))
+                return id;
+        }
+    }
+
+    /**
+     * Finds a free id from the range [rangeStart, rangeEnd] without reserving it (for dialogs that are never stored
+     * in the table such as unstructured ones).
+     *
+     * @throws TCAPException if the table already holds maxDialogs dialogs
+     */
+    public long findFreeId(long rangeStart, long rangeEnd, int maxDialogs) throws TCAPException {
+        if (this.size.get() >= maxDialogs)
+            throw new TCAPException("Current dialog count exceeds its maximum value");
+
+        while (true) {
+            long id = this.nextId(rangeStart, rangeEnd);
+            if (!this.contains(id))
+                return id;
+        }
+    }
+
+    /**
+     * Reserves the given id.
+     *
+     * @return false if the id is already reserved or used by a dialog
+     */
+    public boolean reserve(long id) {
+        if (id <= FREE)
+            throw new IllegalArgumentException("Dialog id must be positive: " + id);
+
+        if (this.shardFor(id).insert(id)) {
+            this.size.incrementAndGet();
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Attaches a dialog to an id that has been reserved before.
+     */
+    public void publish(long id, DialogImpl dialog) {
+        if (!this.shardFor(id).publish(id, dialog))
+            throw new IllegalStateException("Dialog id has not been reserved: " + id);
+    }
+
+    public DialogImpl get(long id) {
+        Table t = this.shardFor(id).table;
+        int mask = t.keys.length() - 1;
+        int idx = this.slotFor(id, mask);
+        for (int i1 = 0; i1 <= mask; i1++) {
+            long key = t.keys.get(idx);
+            if (key == FREE)
+                return null;
+            if (key == id) {
+                DialogImpl di = t.values.get(idx);
+                // the slot may have been reused after the value was read
+                if (di != null && di.getLocalDialogId() == id)
+                    return di;
+                return null;
+            }
+            idx = (idx + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the id is reserved or used by a dialog
+     */
+    public boolean contains(long id) {
+        Table t = this.shardFor(id).table;
+        int mask = t.keys.length() - 1;
+        int idx = this.slotFor(id, mask);
+        for (int i1 = 0; i1 <= mask; i1++) {
+            long key = t.keys.get(idx);
+            if (key == FREE)
+                return false;
+            if (key == id)
+                return true;
+            idx = (idx + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Removes the id and the dialog that is attached to it.
+     *
+     * @return the removed dialog or null if no dialog was published for the id
+     */
+    public DialogImpl remove(long id) {
+        Shard shard = this.shardFor(id);
+        synchronized (shard) {
+            Table t = shard.table;
+            int mask = t.keys.length() - 1;
+            int idx = this.slotFor(id, mask);
+            for (int i1 = 0; i1 <= mask; i1++) {
+                long key = t.keys.get(idx);
+                if (key == FREE)
+                    return null;
+                if (key == id) {
+                    DialogImpl di = t.values.get(idx);
+                    t.values.set(idx, null);
+                    t.keys.set(idx, REMOVED);
+                    shard.size--;
+                    shard.removed++;
+                    this.size.decrementAndGet();
+                    return di;
+                }
+                idx = (idx + 1) & mask;
+            }
+            return null;
+        }
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * Grows shards so that the expected number of dialogs can be stored without rehashing.
+     */
+    public void ensureCapacity(int expectedDialogs) {
+        int shardCapacity = capacityFor(expectedDialogs / this.shards.length + 1);
+        for (Shard shard : this.shards) {
+            synchronized (shard) {
+                if (shard.table.keys.length() < shardCapacity)
+                    shard.rehash(shardCapacity);
+            }
+        }
+    }
+
+    public void clear() {
+        for (Shard shard : this.shards) {
+            synchronized (shard) {
+                this.size.addAndGet(-shard.size);
+                shard.table = new Table(shard.table.keys.length());
+                shard.size = 0;
+                shard.removed = 0;
+            }
+        }
+    }
+
+    private static class Table {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<DialogImpl> values;
+
+        Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<DialogImpl>(capacity);
+        }
+    }
+
+    private class Shard {
+        // readers access the table without locking, all modifications are made under the Shard monitor
+        volatile Table table;
+        int size;
+        int removed;
+
+        Shard(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        synchronized boolean insert(long id) {
+            Table t = this.table;
+            int capacity = t.keys.length();
+            if ((this.size + this.removed + 1) * 2 > capacity) {
+                // grow if live entries alone exceed a quarter of the capacity, otherwise only drop REMOVED markers
+                this.rehash((this.size + 1) * 4 > capacity ? capacity << 1 : capacity);
+                t = this.table;
+            }
+
+            int mask = t.keys.length() - 1;
+            int idx = slotFor(id, mask);
+            int firstRemoved = -1;
+            while (true) {
+                long key = t.keys.get(idx);
+                if (key == FREE)
+                    break;
+                if (key == id)
+                    return false;
+                if (key == REMOVED && firstRemoved < 0)
+                    firstRemoved = idx;
+                idx = (idx + 1) & mask;
+            }
+            if (firstRemoved >= 0) {
+                idx = firstRemoved;
+                this.removed--;
+            }
+            t.keys.set(idx, id);
+            this.size++;
+            return true;
+        }
+
+        synchronized boolean publish(long id, DialogImpl dialog) {
+            Table t = this.table;
+            int mask = t.keys.length() - 1;
+            int idx = slotFor(id, mask);
+            for (int i1 = 0; i1 <= mask; i1++) {
+                long key = t.keys.get(idx);
+                if (key == FREE)
+                    return false;
+                if (key == id) {
+                    t.values.set(idx, dialog);
+                    return true;
+                }
+                idx = (idx + 1) & mask;
+            }
+            return false;
+        }
+
+        void rehash(int capacity) {
+            Table oldTable = this.table;
+            Table newTable = new Table(capacity);
+            int mask = capacity - 1;
+            for (int i1 = 0; i1 < oldTable.keys.length(); i1++) {
+                long key = oldTable.keys.get(i1);
+                if (key != FREE && key != REMOVED) {
+                    int idx = slotFor(key, mask);
+                    while (newTable.keys.get(idx) != FREE) {
+                        idx = (idx + 1) & mask;
+                    }
+                    newTable.values.set(idx, oldTable.values.get(i1));
+                    newTable.keys.set(idx, key);
+                }
+            }
+            this.table = newTable;
+            this.removed = 0;
+        }
+    }
+
+}
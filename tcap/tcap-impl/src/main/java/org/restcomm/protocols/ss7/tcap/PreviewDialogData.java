@@ -22,15 +22,13 @@
 
 package org.restcomm.protocols.ss7.tcap;
 
-import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Logger;
 import org.restcomm.protocols.ss7.tcap.api.TCAPStack;
 import org.restcomm.protocols.ss7.tcap.asn.ApplicationContextName;
 import org.restcomm.protocols.ss7.tcap.asn.InvokeImpl;
+import org.restcomm.protocols.ss7.tcap.timers.TimerTask;
 
 /**
  *
@@ -51,8 +49,8 @@ public class PreviewDialogData {
     private PreviewDialogDataKey prevewDialogDataKey2;
 
     private ReentrantLock dialogLock = new ReentrantLock();
-    private Future idleTimerFuture;
-    private ScheduledExecutorService executor;
+    private IdleTimerTask idleTimerTask;
+    private boolean idleTimerStarted = false;
     private TCAPProviderImpl provider;
     private long idleTaskTimeout;
     private Long dialogId;
@@ -62,7 +60,6 @@ public class PreviewDialogData {
         this.dialogId = dialogId;
         TCAPStack stack = provider.getStack();
         this.idleTaskTimeout = stack.getDialogIdleTimeout();
-        this.executor = provider._EXECUTOR;
     }
 
     public ApplicationContextName getLastACN() {
@@ -121,13 +118,16 @@ public class PreviewDialogData {
 
         try {
             this.dialogLock.lock();
-            if (this.idleTimerFuture != null) {
+            if (this.idleTimerStarted) {
                 throw new IllegalStateException();
             }
 
-            IdleTimerTask t = new IdleTimerTask();
-            t.pdd = this;
-            this.idleTimerFuture = this.executor.schedule(t, this.idleTaskTimeout, TimeUnit.MILLISECONDS);
+            if (this.idleTimerTask == null) {
+                this.idleTimerTask = new IdleTimerTask();
+                this.idleTimerTask.pdd = this;
+            }
+            this.provider.getTimerService().schedule(this.idleTimerTask, this.idleTaskTimeout);
+            this.idleTimerStarted = true;
 
         } finally {
             this.dialogLock.unlock();
@@ -137,9 +137,9 @@ public class PreviewDialogData {
     protected void stopIdleTimer() {
         try {
             this.dialogLock.lock();
-            if (this.idleTimerFuture != null) {
-                this.idleTimerFuture.cancel(false);
-                this.idleTimerFuture = null;
+            if (this.idleTimerStarted) {
+                this.provider.getTimerService().cancel(this.idleTimerTask);
+                this.idleTimerStarted = false;
             }
 
         } finally {
@@ -158,12 +158,13 @@ public class PreviewDialogData {
         }
     }
 
-    private class IdleTimerTask implements Runnable {
+    private class IdleTimerTask extends TimerTask {
         PreviewDialogData pdd;
 
         public void run() {
             try {
                 dialogLock.lock();
+                idleTimerStarted = false;
 
 //              Dialog d1 = new DialogImpl(localAddress, remoteAddress, seqControl, provider._EXECUTOR, provider, pdd, sideB);
                 DialogImpl dlg = (DialogImpl)provider.getPreviewDialog(prevewDialogDataKey1, null, null, null, 0);
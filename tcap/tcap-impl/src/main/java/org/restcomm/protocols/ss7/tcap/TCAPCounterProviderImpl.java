@@ -29,7 +29,9 @@ import java.util.concurrent.atomic.AtomicLong;
 import org.restcomm.protocols.ss7.statistics.StatDataCollectionImpl;
 import org.restcomm.protocols.ss7.statistics.api.LongValue;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollection;
+import org.restcomm.protocols.ss7.statistics.api.StatCounterCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
 import org.restcomm.protocols.ss7.statistics.api.StatResult;
 import org.restcomm.protocols.ss7.tcap.api.TCAPCounterEventsListener;
 import org.restcomm.protocols.ss7.tcap.api.TCAPCounterProvider;
@@ -82,6 +84,19 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
 
     private AtomicLong allDialogsDuration = new AtomicLong();
 
+    // collectors that are updated for each message are kept to skip the lookup by a counter name
+    private StatCounterCollection minDialogsCountCollector;
+    private StatCounterCollection maxDialogsCountCollector;
+    private StatCounterCollection outgoingDialogsPerApplicationContextNameCollector;
+    private StatCounterCollection incomingDialogsPerApplicationContextNameCollector;
+    private StatCounterCollection outgoingInvokesPerOperationCodeCollector;
+    private StatCounterCollection incomingInvokesPerOperationCodeCollector;
+    private StatCounterCollection outgoingErrorsPerErrorCodeCollector;
+    private StatCounterCollection incomingErrorsPerErrorCodeCollector;
+    private StatCounterCollection outgoingRejectPerProblemCollector;
+    private StatCounterCollection incomingRejectPerProblemCollector;
+    private StatCounterCollection dialogsDurationCollector;
+
     private static String OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME = "outgoingDialogsPerApplicationContextName";
     private static String INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME = "incomingDialogsPerApplicationContextName";
     private static String OUTGOING_INVOKES_PER_OPERATION_CODE = "outgoingInvokesPerOperationCode";
@@ -91,6 +106,8 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     private static String OUTGOING_REJECT_PER_PROBLEM = "outgoingRejectPerProblem";
     private static String INCOMING_REJECT_PER_PROBLEM = "incomingRejectPerProblem";
 
+    private static String DIALOGS_DURATION = "DialogsDuration";
+
     private static String MIN_DIALOGS_COUNT = "MinDialogsCount";
     private static String MAX_DIALOGS_COUNT = "MaxDialogsCount";
 
@@ -109,17 +126,18 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     public TCAPCounterProviderImpl(TCAPProviderImpl provider) {
         this.provider = provider;
 
-        this.statDataCollection.registerStatCounterCollector(MIN_DIALOGS_COUNT, StatDataCollectorType.MIN);
-        this.statDataCollection.registerStatCounterCollector(MAX_DIALOGS_COUNT, StatDataCollectorType.MAX);
+        this.minDialogsCountCollector = this.statDataCollection.registerStatCounterCollector(MIN_DIALOGS_COUNT, StatDataCollectorType.MIN);
+        this.maxDialogsCountCollector = this.statDataCollection.registerStatCounterCollector(MAX_DIALOGS_COUNT, StatDataCollectorType.MAX);
+        this.dialogsDurationCollector = this.statDataCollection.registerStatCounterCollector(DIALOGS_DURATION, StatDataCollectorType.HISTOGRAM);
 
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
+        this.outgoingDialogsPerApplicationContextNameCollector = this.statDataCollection.registerStatCounterCollector(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
+        this.incomingDialogsPerApplicationContextNameCollector = this.statDataCollection.registerStatCounterCollector(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
+        this.outgoingInvokesPerOperationCodeCollector = this.statDataCollection.registerStatCounterCollector(OUTGOING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
+        this.incomingInvokesPerOperationCodeCollector = this.statDataCollection.registerStatCounterCollector(INCOMING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
+        this.outgoingErrorsPerErrorCodeCollector = this.statDataCollection.registerStatCounterCollector(OUTGOING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
+        this.incomingErrorsPerErrorCodeCollector = this.statDataCollection.registerStatCounterCollector(INCOMING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
+        this.outgoingRejectPerProblemCollector = this.statDataCollection.registerStatCounterCollector(OUTGOING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
+        this.incomingRejectPerProblemCollector = this.statDataCollection.registerStatCounterCollector(INCOMING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
 
         this.statDataCollection.registerStatCounterCollector(MAX_NETWORK_ID_AREAS_NOT_AVAILABLE, StatDataCollectorType.MAX);
         this.statDataCollection.registerStatCounterCollector(MAX_NETWORK_ID_AREAS_CONGLEVEL_1, StatDataCollectorType.MAX);
@@ -489,7 +507,7 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     @Override
     public Long getMinDialogsCount(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(MIN_DIALOGS_COUNT, compainName);
-        this.statDataCollection.updateData(MIN_DIALOGS_COUNT, provider.getCurrentDialogsCount());
+        this.minDialogsCountCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getLongValue();
         else
@@ -497,13 +515,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateMinDialogsCount(long newVal) {
-        this.statDataCollection.updateData(MIN_DIALOGS_COUNT, newVal);
+        this.minDialogsCountCollector.updateData(newVal);
     }
 
     @Override
     public Long getMaxDialogsCount(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(MAX_DIALOGS_COUNT, compainName);
-        this.statDataCollection.updateData(MAX_DIALOGS_COUNT, provider.getCurrentDialogsCount());
+        this.maxDialogsCountCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getLongValue();
         else
@@ -511,7 +529,7 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateMaxDialogsCount(long newVal) {
-        this.statDataCollection.updateData(MAX_DIALOGS_COUNT, newVal);
+        this.maxDialogsCountCollector.updateData(newVal);
     }
 
     @Override
@@ -521,12 +539,22 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
 
     public void updateAllDialogsDuration(long diff) {
         allDialogsDuration.addAndGet(diff);
+        this.dialogsDurationCollector.updateData(diff);
+    }
+
+    @Override
+    public StatHistogram getDialogsDurationHistogram(String compainName) {
+        StatResult res = this.dialogsDurationCollector.restartAndGet(compainName);
+        if (res != null)
+            return res.getHistogram();
+        else
+            return null;
     }
 
     @Override
     public Map<String, LongValue> getOutgoingDialogsPerApplicatioContextName(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, compainName);
-        this.statDataCollection.updateData(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, provider.getCurrentDialogsCount());
+        this.outgoingDialogsPerApplicationContextNameCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -534,13 +562,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingDialogsPerApplicatioContextName(String name) {
-        this.statDataCollection.updateData(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, name);
+        this.outgoingDialogsPerApplicationContextNameCollector.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingDialogsPerApplicatioContextName(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, compainName);
-        this.statDataCollection.updateData(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, provider.getCurrentDialogsCount());
+        this.incomingDialogsPerApplicationContextNameCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -548,13 +576,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingDialogsPerApplicatioContextName(String name) {
-        this.statDataCollection.updateData(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, name);
+        this.incomingDialogsPerApplicationContextNameCollector.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getOutgoingInvokesPerOperationCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_INVOKES_PER_OPERATION_CODE, compainName);
-        this.statDataCollection.updateData(OUTGOING_INVOKES_PER_OPERATION_CODE, provider.getCurrentDialogsCount());
+        this.outgoingInvokesPerOperationCodeCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -562,13 +590,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingInvokesPerOperationCode(String name) {
-        this.statDataCollection.updateData(OUTGOING_INVOKES_PER_OPERATION_CODE, name);
+        this.outgoingInvokesPerOperationCodeCollector.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingInvokesPerOperationCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_INVOKES_PER_OPERATION_CODE, compainName);
-        this.statDataCollection.updateData(INCOMING_INVOKES_PER_OPERATION_CODE, provider.getCurrentDialogsCount());
+        this.incomingInvokesPerOperationCodeCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -576,13 +604,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingInvokesPerOperationCode(String name) {
-        this.statDataCollection.updateData(INCOMING_INVOKES_PER_OPERATION_CODE, name);
+        this.incomingInvokesPerOperationCodeCollector.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getOutgoingErrorsPerErrorCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_ERRORS_PER_ERROR_CODE, compainName);
-        this.statDataCollection.updateData(OUTGOING_ERRORS_PER_ERROR_CODE, provider.getCurrentDialogsCount());
+        this.outgoingErrorsPerErrorCodeCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -590,13 +618,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingErrorsPerErrorCode(String name) {
-        this.statDataCollection.updateData(OUTGOING_ERRORS_PER_ERROR_CODE, name);
+        this.outgoingErrorsPerErrorCodeCollector.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingErrorsPerErrorCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_ERRORS_PER_ERROR_CODE, compainName);
-        this.statDataCollection.updateData(INCOMING_ERRORS_PER_ERROR_CODE, provider.getCurrentDialogsCount());
+        this.incomingErrorsPerErrorCodeCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -604,13 +632,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingErrorsPerErrorCode(String name) {
-        this.statDataCollection.updateData(INCOMING_ERRORS_PER_ERROR_CODE, name);
+        this.incomingErrorsPerErrorCodeCollector.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getOutgoingRejectPerProblem(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_REJECT_PER_PROBLEM, compainName);
-        this.statDataCollection.updateData(OUTGOING_REJECT_PER_PROBLEM, provider.getCurrentDialogsCount());
+        this.outgoingRejectPerProblemCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -618,13 +646,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingRejectPerProblem(String name) {
-        this.statDataCollection.updateData(OUTGOING_REJECT_PER_PROBLEM, name);
+        this.outgoingRejectPerProblemCollector.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingRejectPerProblem(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_REJECT_PER_PROBLEM, compainName);
-        this.statDataCollection.updateData(INCOMING_REJECT_PER_PROBLEM, provider.getCurrentDialogsCount());
+        this.incomingRejectPerProblemCollector.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -632,7 +660,7 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingRejectPerProblem(String name) {
-        this.statDataCollection.updateData(INCOMING_REJECT_PER_PROBLEM, name);
+        this.incomingRejectPerProblemCollector.updateData(name);
     }
 
     @Override
@@ -31,7 +31,6 @@ import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -81,6 +80,7 @@ import org.restcomm.protocols.ss7.tcap.asn.Result;
 import org.restcomm.protocols.ss7.tcap.asn.ResultSourceDiagnostic;
 import org.restcomm.protocols.ss7.tcap.asn.ResultType;
 import org.restcomm.protocols.ss7.tcap.asn.TCAbortMessageImpl;
+import org.restcomm.protocols.ss7.tcap.asn.TCMessageHeader;
 import org.restcomm.protocols.ss7.tcap.asn.TCNoticeIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.asn.TCUnidentifiedMessage;
 import org.restcomm.protocols.ss7.tcap.asn.TcapFactory;
@@ -100,6 +100,9 @@ import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCEndIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCPAbortIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCUniIndicationImpl;
 import org.restcomm.protocols.ss7.tcap.tc.dialog.events.TCUserAbortIndicationImpl;
+import org.restcomm.protocols.ss7.tcap.timers.ExecutorTimerService;
+import org.restcomm.protocols.ss7.tcap.timers.HashedWheelTimerService;
+import org.restcomm.protocols.ss7.tcap.timers.TimerService;
 import org.restcomm.ss7.congestion.ExecutorCongestionMonitor;
 import org.restcomm.ss7.congestion.MemoryCongestionMonitorImpl;
 
@@ -113,8 +116,25 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     private static final Logger logger = Logger.getLogger(TCAPProviderImpl.class); // listenres
 
+    // per-thread streams for encoding of outgoing messages
+    private static final ThreadLocal<AsnOutputStream> encodingStream = new ThreadLocal<AsnOutputStream>() {
+        @Override
+        protected AsnOutputStream initialValue() {
+            return new AsnOutputStream();
+        }
+    };
+    // per-thread state of header-first processing of incoming messages
+    private static final ThreadLocal<IncomingHeader> incomingHeader = new ThreadLocal<IncomingHeader>() {
+        @Override
+        protected IncomingHeader initialValue() {
+            return new IncomingHeader();
+        }
+    };
+
     private transient List<TCListener> tcListeners = new CopyOnWriteArrayList<TCListener>();
     protected transient ScheduledExecutorService _EXECUTOR;
+    // dialog idle timers and invoke timers
+    protected transient TimerService timerService;
     // boundry for Uni directional dialogs :), tx id is always encoded
     // on 4 octets, so this is its max value
     // private static final long _4_OCTETS_LONG_FILL = 4294967295l;
@@ -130,7 +150,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     // explicitly...
 
 //    private transient FastMap<Long, DialogImpl> dialogs = new FastMap <Long, DialogImpl>();
-    private transient ConcurrentHashMap<Long, DialogImpl> dialogs = new ConcurrentHashMap <Long, DialogImpl>();
+//    private transient ConcurrentHashMap<Long, DialogImpl> dialogs = new ConcurrentHashMap <Long, DialogImpl>();
+    private transient DialogTable dialogs = new DialogTable(TCAPStackImpl._MAX_DIALOGS);
 
 //    protected transient FastMap<PrevewDialogDataKey, PrevewDialogData> dialogPreviewList = new FastMap<PrevewDialogDataKey, PrevewDialogData>();
     protected transient ConcurrentHashMap<PreviewDialogDataKey, PreviewDialogData> dialogPreviewList = new ConcurrentHashMap<PreviewDialogDataKey, PreviewDialogData>();
@@ -139,8 +160,6 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     private AtomicInteger seqControl = new AtomicInteger(1);
     private int ssn;
-    private long curDialogId = 0;
-//    private AtomicLong currentDialogId = new AtomicLong(1);
 
     private int cumulativeCongestionLevel = 0;
     private int executorCongestionLevel = 0;
@@ -193,49 +212,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     }
 
-    private boolean checkAvailableTxId(Long id) {
-        if (!this.dialogs.containsKey(id))
-            return true;
-        else
-            return false;
-    }
-
-    private synchronized Long getAvailableTxId() throws TCAPException {
-        if (this.dialogs.size() >= this.stack.getMaxDialogs())
-            throw new TCAPException("Current dialog count exceeds its maximum value");
-
-        while (true) {
-//            Long id;
-//            if (!currentDialogId.compareAndSet(this.stack.getDialogIdRangeEnd(), this.stack.getDialogIdRangeStart() + 1)) {
-//                id = currentDialogId.getAndIncrement();
-//            } else {
-//                id = this.stack.getDialogIdRangeStart();
-//            }
-//            if (checkAvailableTxId(id))
-//                return id;
-
-
-
-            if (this.curDialogId < this.stack.getDialogIdRangeStart())
-                this.curDialogId = this.stack.getDialogIdRangeStart() - 1;
-            if (++this.curDialogId > this.stack.getDialogIdRangeEnd())
-                this.curDialogId = this.stack.getDialogIdRangeStart();
-            Long id = this.curDialogId;
-            if (checkAvailableTxId(id))
-                return id;
-        }
-    }
-
     protected void resetDialogIdValueAfterRangeChange() {
-        if (this.curDialogId < this.stack.getDialogIdRangeStart())
-            this.curDialogId = this.stack.getDialogIdRangeStart();
-        if (this.curDialogId >= this.stack.getDialogIdRangeEnd())
-            this.curDialogId = this.stack.getDialogIdRangeEnd() - 1;
-
-        // if (this.currentDialogId.longValue() < this.stack.getDialogIdRangeStart())
-        // this.currentDialogId.set(this.stack.getDialogIdRangeStart());
-        // if (this.currentDialogId.longValue() >= this.stack.getDialogIdRangeEnd())
-        // this.currentDialogId.set(this.stack.getDialogIdRangeEnd() - 1);
+        this.dialogs.resetCursor(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd());
     }
 
     // get next Seq Control value available
@@ -348,20 +326,27 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             throw new NullPointerException("LocalAddress must not be null");
         }
 
-        // synchronized (this.dialogs) {
+        if (structured) {
+            // the id is reserved in the dialogs table here and the created Dialog is published into it below
+            if (id == null) {
+                id = this.dialogs.allocateId(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd(),
+                        this.stack.getMaxDialogs());
+            } else {
+                if (!this.dialogs.reserve(id)) {
+                    throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
+                }
+            }
 
-        if (id == null) {
-            id = this.getAvailableTxId();
-        } else {
-            if (!checkAvailableTxId(id)) {
-                throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
+            DialogImpl di;
+            try {
+                di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl,
+                        this.stack.getPreviewMode());
+            } catch (RuntimeException e) {
+                this.dialogs.remove(id);
+                throw e;
             }
-        }
-        if (structured) {
-            DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl,
-                    this.stack.getPreviewMode());
 
-            this.dialogs.put(id, di);
+            this.dialogs.publish(id, di);
             if (this.stack.getStatisticsEnabled()) {
                 this.stack.getCounterProviderImpl().updateMinDialogsCount(this.dialogs.size());
                 this.stack.getCounterProviderImpl().updateMaxDialogsCount(this.dialogs.size());
@@ -369,13 +354,20 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
             return di;
         } else {
+            if (id == null) {
+                id = this.dialogs.findFreeId(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd(),
+                        this.stack.getMaxDialogs());
+            } else {
+                if (this.dialogs.contains(id)) {
+                    throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
+                }
+            }
+
             DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl,
                     this.stack.getPreviewMode());
             return di;
         }
 
-        // }
-
     }
 
     private void setSsnToDialog(DialogImpl di, int ssn) {
@@ -391,6 +383,12 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         return this.dialogs.size();
     }
 
+    public Dialog getDialogById(Long dialogId) {
+        if (dialogId == null || this.stack.getPreviewMode())
+            return null;
+        return this.dialogs.get(dialogId);
+    }
+
     public void send(byte[] data, boolean returnMessageOnError, SccpAddress destinationAddress, SccpAddress originatingAddress,
             int seqControl, int networkId, int localSsn, int remotePc) throws IOException {
         if (this.stack.getPreviewMode())
@@ -525,16 +523,13 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
         if (!d.getPreviewMode()) {
 
-            // synchronized (this.dialogs) {
-
-            this.dialogs.remove(did);
+            if (d.isStructured())
+                this.dialogs.remove(did);
             if (this.stack.getStatisticsEnabled()) {
                 this.stack.getCounterProviderImpl().updateMinDialogsCount(this.dialogs.size());
                 this.stack.getCounterProviderImpl().updateMaxDialogsCount(this.dialogs.size());
             }
 
-            // }
-
             this.doRelease(d);
         }
     }
@@ -582,9 +577,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     // ///////////////////////////////////////////
     // Some methods invoked by operation FSM //
     // //////////////////////////////////////////
-    public Future createOperationTimer(Runnable operationTimerTask, long invokeTimeout) {
-
-        return this._EXECUTOR.schedule(operationTimerTask, invokeTimeout, TimeUnit.MILLISECONDS);
+    public TimerService getTimerService() {
+        return this.timerService;
     }
 
     public void operationTimedOut(InvokeImpl tcInvokeRequestImpl) {
@@ -603,6 +597,14 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         logger.info("Starting TCAP Provider");
 
         this._EXECUTOR = Executors.newScheduledThreadPool(4, new DefaultThreadFactory("Tcap-Thread"));
+        this.dialogs.ensureCapacity(this.stack.getMaxDialogs());
+        if (this.stack.getTimerServiceType() == TimerServiceType.HashedWheel) {
+            this.timerService = new HashedWheelTimerService(this._EXECUTOR);
+        } else {
+            this.timerService = new ExecutorTimerService(this._EXECUTOR);
+        }
+        this.timerService.start();
+        logger.info("TCAP timer service: " + this.stack.getTimerServiceType());
 
         this.sccpProvider.registerSccpListener(ssn, this);
         logger.info("Registered SCCP listener with ssn " + ssn);
@@ -628,6 +630,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     void stop() {
         stopNetworkIdStateList();
 
+        this.timerService.stop();
         this._EXECUTOR.shutdown();
         this.sccpProvider.deregisterSccpListener(ssn);
 
@@ -645,6 +648,17 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         this.dialogPreviewList.clear();
     }
 
+    /**
+     * Returns an empty per-thread AsnOutputStream for encoding of an outgoing message. The stream buffer is reused, so the
+     * encoded message must be taken from the stream (toByteArray() or size()) before sending it or encoding another
+     * message.
+     */
+    protected AsnOutputStream getEncodingStream() {
+        AsnOutputStream aos = encodingStream.get();
+        aos.reset();
+        return aos;
+    }
+
     protected void sendProviderAbort(PAbortCauseType pAbortCause, byte[] remoteTransactionId, SccpAddress remoteAddress,
             SccpAddress localAddress, int seqControl, int networkId, int remotePc) {
         if (this.stack.getPreviewMode())
@@ -654,7 +668,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         msg.setDestinationTransactionId(remoteTransactionId);
         msg.setPAbortCause(pAbortCause);
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.getEncodingStream();
         try {
             msg.encode(aos);
             if (this.stack.getStatisticsEnabled()) {
@@ -692,7 +706,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         msg.setDestinationTransactionId(remoteTransactionId);
         msg.setDialogPortion(dp);
 
-        AsnOutputStream aos = new AsnOutputStream();
+        AsnOutputStream aos = this.getEncodingStream();
         try {
             msg.encode(aos);
             if (this.stack.getStatisticsEnabled()) {
@@ -726,6 +740,13 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 return;
             }
 
+            IncomingHeader header = incomingHeader.get();
+            if (this.rejectBeforeDecoding(message, data, tag, header, localAddress, remoteAddress))
+                return;
+            // the dialog that has been found when scanning of the header, it is not looked up second time
+            DialogImpl knownDialog = header.dialog;
+            header.dialog = null;
+
             switch (tag) {
             // continue first, usually we will get more of those. small perf
             // boost
@@ -776,7 +797,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                         di = (DialogImpl) this.getPreviewDialog(ky1, ky2, localAddress, remoteAddress, 0);
                         setSsnToDialog(di, message.getCalledPartyAddress().getSubsystemNumber());
                     } else {
-                        di = this.dialogs.get(dialogId);
+                        di = knownDialog != null ? knownDialog : this.dialogs.get(dialogId);
                     }
                     if (di == null) {
                         logger.warn("TC-CONTINUE: No dialog/transaction for id: " + dialogId);
@@ -893,7 +914,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                         di = (DialogImpl) this.getPreviewDialog(ky, null, localAddress, remoteAddress, 0);
                         setSsnToDialog(di, message.getCalledPartyAddress().getSubsystemNumber());
                     } else {
-                        di = this.dialogs.get(dialogId);
+                        di = knownDialog != null ? knownDialog : this.dialogs.get(dialogId);
                     }
                     if (di == null) {
                         logger.warn("TC-END: No dialog/transaction for id: " + dialogId);
@@ -930,7 +951,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                         di = (DialogImpl) this.getPreviewDialog(ky, null, localAddress, remoteAddress, 0);
                         setSsnToDialog(di, message.getCalledPartyAddress().getSubsystemNumber());
                     } else {
-                        di = this.dialogs.get(dialogId);
+                        di = knownDialog != null ? knownDialog : this.dialogs.get(dialogId);
                     }
                     if (di == null) {
                         logger.warn("TC-ABORT: No dialog/transaction for id: " + dialogId);
@@ -973,6 +994,77 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         }
     }
 
+    /**
+     * Header-first processing of an incoming message: only the transaction portion is scanned and the congestion and
+     * unknown transaction checks are made before the dialog and component portions are decoded. The dialog that is found
+     * for a TC-CONTINUE, TC-END or TC-ABORT message is left in incoming.dialog.
+     *
+     * @return true if the message has been rejected and must not be processed more
+     */
+    private boolean rejectBeforeDecoding(SccpDataMessage message, byte[] data, int tag, IncomingHeader incoming,
+            SccpAddress localAddress, SccpAddress remoteAddress) {
+        incoming.dialog = null;
+        if (this.stack.getPreviewMode())
+            return false;
+        if (tag != TCBeginMessage._TAG && tag != TCContinueMessage._TAG && tag != TCEndMessage._TAG
+                && tag != TCAbortMessage._TAG)
+            return false;
+
+        TCMessageHeader header = incoming.header;
+        if (!header.scan(data)) {
+            // a badly formatted message - full decoding will report it
+            return false;
+        }
+
+        boolean congControl = this.stack.isCongControl_blockingIncomingTcapMessages();
+        if (tag == TCBeginMessage._TAG) {
+            if (congControl && cumulativeCongestionLevel >= 2 && header.hasOriginatingTransactionId()) {
+                // rejecting of new incoming TCAP dialogs
+                this.sendProviderAbort(PAbortCauseType.ResourceLimitation, header.getOriginatingTransactionId(),
+                        remoteAddress, localAddress, message.getSls(), message.getNetworkId(), message.getIncomingOpc());
+                return true;
+            }
+            return false;
+        }
+
+        boolean swapTcapIdBytes = this.stack.getSwapTcapIdBytes();
+        if (!header.isDestinationDialogIdAvailable(swapTcapIdBytes))
+            return false;
+
+        if (tag == TCContinueMessage._TAG) {
+            if (!header.hasOriginatingTransactionId())
+                return false;
+            if (congControl && cumulativeCongestionLevel >= 3) {
+                this.sendProviderAbort(PAbortCauseType.ResourceLimitation, header.getOriginatingTransactionId(),
+                        remoteAddress, localAddress, message.getSls(), message.getNetworkId(), message.getIncomingOpc());
+                return true;
+            }
+        } else {
+            if (congControl && cumulativeCongestionLevel >= 3)
+                return true;
+        }
+
+        long dialogId = header.getDestinationDialogId(swapTcapIdBytes);
+        incoming.dialog = this.dialogs.get(dialogId);
+        if (incoming.dialog != null)
+            return false;
+
+        switch (tag) {
+            case TCContinueMessage._TAG:
+                logger.warn("TC-CONTINUE: No dialog/transaction for id: " + dialogId);
+                this.sendProviderAbort(PAbortCauseType.UnrecognizedTxID, header.getOriginatingTransactionId(), remoteAddress,
+                        localAddress, message.getSls(), message.getNetworkId(), message.getIncomingOpc());
+                break;
+            case TCEndMessage._TAG:
+                logger.warn("TC-END: No dialog/transaction for id: " + dialogId);
+                break;
+            default:
+                logger.warn("TC-ABORT: No dialog/transaction for id: " + dialogId);
+                break;
+        }
+        return true;
+    }
+
     private void unrecognizedPackageType(SccpDataMessage message, SccpAddress localAddress, SccpAddress remoteAddress, AsnInputStream ais, int tag,
             int networkId) throws ParseException {
         if (this.stack.getPreviewMode()) {
@@ -1093,23 +1185,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         // }
     }
 
-    protected synchronized Long getAvailableTxIdPreview() throws TCAPException {
-        while (true) {
-            // Long id;
-            // if (!currentDialogId.compareAndSet(this.stack.getDialogIdRangeEnd(), this.stack.getDialogIdRangeStart() + 1)) {
-            // id = currentDialogId.getAndIncrement();
-            // } else {
-            // id = this.stack.getDialogIdRangeStart();
-            // }
-            // return id;
-
-            if (this.curDialogId < this.stack.getDialogIdRangeStart())
-                this.curDialogId = this.stack.getDialogIdRangeStart() - 1;
-            if (++this.curDialogId > this.stack.getDialogIdRangeEnd())
-                this.curDialogId = this.stack.getDialogIdRangeStart();
-            Long id = this.curDialogId;
-            return id;
-        }
+    protected Long getAvailableTxIdPreview() throws TCAPException {
+        return this.dialogs.nextId(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd());
     }
 
     protected Dialog getPreviewDialog(PreviewDialogDataKey ky1, PreviewDialogDataKey ky2, SccpAddress localAddress,
@@ -1665,4 +1742,9 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
         return sb.toString();
     }
+
+    private static class IncomingHeader {
+        private final TCMessageHeader header = new TCMessageHeader();
+        private DialogImpl dialog;
+    }
 }
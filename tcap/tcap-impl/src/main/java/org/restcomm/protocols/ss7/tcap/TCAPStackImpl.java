@@ -25,7 +25,7 @@ package org.restcomm.protocols.ss7.tcap;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 import javolution.text.TextBuilder;
@@ -36,6 +36,7 @@ import javolution.xml.XMLObjectWriter;
 import javolution.xml.stream.XMLStreamException;
 
 import org.apache.log4j.Logger;
+import org.restcomm.protocols.ss7.mtp.util.ConfigJournal;
 import org.restcomm.protocols.ss7.sccp.SccpProvider;
 import org.restcomm.protocols.ss7.sccp.SccpStack;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
@@ -68,6 +69,7 @@ public class TCAPStackImpl implements TCAPStack {
     private static final String DO_NOT_SEND_PROTOCOL_VERSION = "donotsendprotocolversion";
     private static final String STATISTICS_ENABLED = "statisticsenabled";
     private static final String SLS_RANGE = "slsrange";
+    private static final String TIMER_SERVICE = "timerservice";
 
     private static final String SWAP_TCAP_ID_BYTES = "swaptcapidbytes";
 
@@ -103,6 +105,8 @@ public class TCAPStackImpl implements TCAPStack {
     private final String name;
 
     protected final TextBuilder persistFile = TextBuilder.newInstance();
+    // settings are persisted by the journal writer thread
+    private ConfigJournal configJournal;
 
     protected String persistDir = null;
 
@@ -147,6 +151,9 @@ public class TCAPStackImpl implements TCAPStack {
     // SLS value
     private SlsRangeType slsRange = SlsRangeType.All;
 
+    // implementation of dialog idle and invoke timers
+    private TimerServiceType timerServiceType = TimerServiceType.Executor;
+
     public TCAPStackImpl(String name) {
         super();
         this.name = name;
@@ -196,6 +203,8 @@ public class TCAPStackImpl implements TCAPStack {
             persistFile.append(System.getProperty(TCAP_MANAGEMENT_PERSIST_DIR_KEY, System.getProperty(USER_DIR_KEY))).append(File.separator).append(this.name)
                     .append("_").append(PERSIST_FILE_NAME);
         }
+        // the journal is created for the new file by the next store()
+        this.configJournal = null;
     }
 
     public void start() throws Exception {
@@ -293,7 +302,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         this.dialogTimeout = v;
 
-        this.store();
+        this.storeLater();
     }
 
     /*
@@ -323,7 +332,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         this.invokeTimeout = v;
 
-        this.store();
+        this.storeLater();
     }
 
     /*
@@ -347,7 +356,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         maxDialogs = v;
 
-        this.store();
+        this.storeLater();
     }
 
     public int getMaxDialogs() {
@@ -362,7 +371,7 @@ public class TCAPStackImpl implements TCAPStack {
         dialogIdRangeStart = val;
         tcapProvider.resetDialogIdValueAfterRangeChange();
 
-        this.store();
+        this.storeLater();
     }
 
     public void setDialogIdRangeEnd(long val) throws Exception {
@@ -373,7 +382,7 @@ public class TCAPStackImpl implements TCAPStack {
         dialogIdRangeEnd = val;
         tcapProvider.resetDialogIdValueAfterRangeChange();
 
-        this.store();
+        this.storeLater();
     }
 
     public long getDialogIdRangeStart() {
@@ -450,7 +459,7 @@ public class TCAPStackImpl implements TCAPStack {
             throw new Exception("SlsRange value is invalid");
         }
 
-        this.store();
+        this.storeLater();
     }
 
     public String getSlsRange() {
@@ -461,6 +470,29 @@ public class TCAPStackImpl implements TCAPStack {
         return this.slsRange;
     }
 
+    public void setTimerService(String val) throws Exception {
+        if (this.started)
+            throw new Exception("TimerService parameter can be updated only when TCAP stack is NOT running");
+
+        if (val.equals(TimerServiceType.Executor.toString())) {
+            this.timerServiceType = TimerServiceType.Executor;
+        } else if (val.equals(TimerServiceType.HashedWheel.toString())) {
+            this.timerServiceType = TimerServiceType.HashedWheel;
+        } else {
+            throw new Exception("TimerService value is invalid");
+        }
+
+        this.storeLater();
+    }
+
+    public String getTimerService() {
+        return this.timerServiceType.toString();
+    }
+
+    public TimerServiceType getTimerServiceType() {
+        return this.timerServiceType;
+    }
+
 
     @Override
     public void setDoNotSendProtocolVersion(boolean val) throws Exception {
@@ -469,7 +501,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         doNotSendProtocolVersion = val;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -486,7 +518,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         statisticsEnabled = val;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -516,7 +548,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_blockingIncomingTcapMessages = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -541,7 +573,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_ExecutorDelayThreshold[0] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -551,7 +583,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_ExecutorDelayThreshold[1] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -561,7 +593,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_ExecutorDelayThreshold[2] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -586,7 +618,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_ExecutorBackToNormalDelayThreshold[0] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -596,7 +628,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_ExecutorBackToNormalDelayThreshold[1] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -606,7 +638,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_ExecutorBackToNormalDelayThreshold[2] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -631,7 +663,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_MemoryThreshold[0] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -641,7 +673,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_MemoryThreshold[1] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -651,7 +683,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_MemoryThreshold[2] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -676,7 +708,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_BackToNormalMemoryThreshold[0] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -686,7 +718,7 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_BackToNormalMemoryThreshold[1] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     @Override
@@ -696,79 +728,97 @@ public class TCAPStackImpl implements TCAPStack {
 
         congControl_BackToNormalMemoryThreshold[2] = value;
 
-        this.store();
+        this.storeLater();
     }
 
     /**
      * Persist
      */
     public void store() {
+        this.getConfigJournal().store();
+    }
 
-        // TODO : Should we keep reference to Objects rather than recreating
-        // everytime?
-        try {
-            XMLObjectWriter writer = XMLObjectWriter.newInstance(new FileOutputStream(persistFile.toString()));
+    /**
+     * Persists the configuration in the background, used after a change of a setting
+     */
+    private void storeLater() {
+        if (this.configJournal != null)
+            this.configJournal.storeLater();
+        else
+            this.store();
+    }
+
+    private ConfigJournal getConfigJournal() {
+        if (this.configJournal == null) {
+            this.configJournal = new ConfigJournal(persistFile.toString(), new ConfigJournal.SnapshotWriter() {
+                public void writeSnapshot(OutputStream out) throws Exception {
+                    TCAPStackImpl.this.writeConfiguration(out);
+                }
+            });
+        }
+        return this.configJournal;
+    }
 
-            writer.setBinding(binding);
-            // Enables cross-references.
-            // writer.setReferenceResolver(new XMLReferenceResolver());
-            writer.setIndentation(TAB_INDENT);
+    private void writeConfiguration(OutputStream out) throws XMLStreamException {
+        XMLObjectWriter writer = XMLObjectWriter.newInstance(out);
+        writer.setBinding(binding);
+        // Enables cross-references.
+        // writer.setReferenceResolver(new XMLReferenceResolver());
+        writer.setIndentation(TAB_INDENT);
 
-            writer.write(this.dialogTimeout, DIALOG_IDLE_TIMEOUT, Long.class);
-            writer.write(this.invokeTimeout, INVOKE_TIMEOUT, Long.class);
-            writer.write(this.maxDialogs, MAX_DIALOGS, Integer.class);
-            writer.write(this.dialogIdRangeStart, DIALOG_ID_RANGE_START, Long.class);
-            writer.write(this.dialogIdRangeEnd, DIALOG_ID_RANGE_END, Long.class);
+        writer.write(this.dialogTimeout, DIALOG_IDLE_TIMEOUT, Long.class);
+        writer.write(this.invokeTimeout, INVOKE_TIMEOUT, Long.class);
+        writer.write(this.maxDialogs, MAX_DIALOGS, Integer.class);
+        writer.write(this.dialogIdRangeStart, DIALOG_ID_RANGE_START, Long.class);
+        writer.write(this.dialogIdRangeEnd, DIALOG_ID_RANGE_END, Long.class);
 
 //            writer.write(this.previewMode, PREVIEW_MODE, Boolean.class);
 
-            writer.write(this.doNotSendProtocolVersion, DO_NOT_SEND_PROTOCOL_VERSION, Boolean.class);
+        writer.write(this.doNotSendProtocolVersion, DO_NOT_SEND_PROTOCOL_VERSION, Boolean.class);
 
-            writer.write(this.congControl_blockingIncomingTcapMessages, CONG_CONTROL_BLOCKING_INCOMING_TCAP_MESSAGES,
-                    Boolean.class);
-            if (this.congControl_ExecutorDelayThreshold != null && this.congControl_ExecutorDelayThreshold.length == 3) {
-                writer.write(this.congControl_ExecutorDelayThreshold[0], CONG_CONTROL_EXECUTOR_DELAY_THRESHOLD_1, Double.class);
-                writer.write(this.congControl_ExecutorDelayThreshold[1], CONG_CONTROL_EXECUTOR_DELAY_THRESHOLD_2, Double.class);
-                writer.write(this.congControl_ExecutorDelayThreshold[2], CONG_CONTROL_EXECUTOR_DELAY_THRESHOLD_3, Double.class);
-            }
-            if (this.congControl_ExecutorBackToNormalDelayThreshold != null
-                    && this.congControl_ExecutorBackToNormalDelayThreshold.length == 3) {
-                writer.write(this.congControl_ExecutorBackToNormalDelayThreshold[0],
-                        CONG_CONTROL_EXECUTOR_BACK_TO_NORMAL_DELAY_THRESHOLD_1, Double.class);
-                writer.write(this.congControl_ExecutorBackToNormalDelayThreshold[1],
-                        CONG_CONTROL_EXECUTOR_BACK_TO_NORMAL_DELAY_THRESHOLD_2, Double.class);
-                writer.write(this.congControl_ExecutorBackToNormalDelayThreshold[2],
-                        CONG_CONTROL_EXECUTOR_BACK_TO_NORMAL_DELAY_THRESHOLD_3, Double.class);
-            }
-            if (this.congControl_MemoryThreshold != null && this.congControl_MemoryThreshold.length == 3) {
-                writer.write(this.congControl_MemoryThreshold[0], CONG_CONTROL_MEMORY_THRESHOLD_1, Double.class);
-                writer.write(this.congControl_MemoryThreshold[1], CONG_CONTROL_MEMORY_THRESHOLD_2, Double.class);
-                writer.write(this.congControl_MemoryThreshold[2], CONG_CONTROL_MEMORY_THRESHOLD_3, Double.class);
-            }
-            if (this.congControl_BackToNormalMemoryThreshold != null
-                    && this.congControl_BackToNormalMemoryThreshold.length == 3) {
-                writer.write(this.congControl_BackToNormalMemoryThreshold[0], CONG_CONTROL_BACK_TO_NORMAL_MEMORY_THRESHOLD_1,
-                        Double.class);
-                writer.write(this.congControl_BackToNormalMemoryThreshold[1], CONG_CONTROL_BACK_TO_NORMAL_MEMORY_THRESHOLD_2,
-                        Double.class);
-                writer.write(this.congControl_BackToNormalMemoryThreshold[2], CONG_CONTROL_BACK_TO_NORMAL_MEMORY_THRESHOLD_3,
-                        Double.class);
-            }
+        writer.write(this.congControl_blockingIncomingTcapMessages, CONG_CONTROL_BLOCKING_INCOMING_TCAP_MESSAGES,
+                Boolean.class);
+        if (this.congControl_ExecutorDelayThreshold != null && this.congControl_ExecutorDelayThreshold.length == 3) {
+            writer.write(this.congControl_ExecutorDelayThreshold[0], CONG_CONTROL_EXECUTOR_DELAY_THRESHOLD_1, Double.class);
+            writer.write(this.congControl_ExecutorDelayThreshold[1], CONG_CONTROL_EXECUTOR_DELAY_THRESHOLD_2, Double.class);
+            writer.write(this.congControl_ExecutorDelayThreshold[2], CONG_CONTROL_EXECUTOR_DELAY_THRESHOLD_3, Double.class);
+        }
+        if (this.congControl_ExecutorBackToNormalDelayThreshold != null
+                && this.congControl_ExecutorBackToNormalDelayThreshold.length == 3) {
+            writer.write(this.congControl_ExecutorBackToNormalDelayThreshold[0],
+                    CONG_CONTROL_EXECUTOR_BACK_TO_NORMAL_DELAY_THRESHOLD_1, Double.class);
+            writer.write(this.congControl_ExecutorBackToNormalDelayThreshold[1],
+                    CONG_CONTROL_EXECUTOR_BACK_TO_NORMAL_DELAY_THRESHOLD_2, Double.class);
+            writer.write(this.congControl_ExecutorBackToNormalDelayThreshold[2],
+                    CONG_CONTROL_EXECUTOR_BACK_TO_NORMAL_DELAY_THRESHOLD_3, Double.class);
+        }
+        if (this.congControl_MemoryThreshold != null && this.congControl_MemoryThreshold.length == 3) {
+            writer.write(this.congControl_MemoryThreshold[0], CONG_CONTROL_MEMORY_THRESHOLD_1, Double.class);
+            writer.write(this.congControl_MemoryThreshold[1], CONG_CONTROL_MEMORY_THRESHOLD_2, Double.class);
+            writer.write(this.congControl_MemoryThreshold[2], CONG_CONTROL_MEMORY_THRESHOLD_3, Double.class);
+        }
+        if (this.congControl_BackToNormalMemoryThreshold != null
+                && this.congControl_BackToNormalMemoryThreshold.length == 3) {
+            writer.write(this.congControl_BackToNormalMemoryThreshold[0], CONG_CONTROL_BACK_TO_NORMAL_MEMORY_THRESHOLD_1,
+                    Double.class);
+            writer.write(this.congControl_BackToNormalMemoryThreshold[1], CONG_CONTROL_BACK_TO_NORMAL_MEMORY_THRESHOLD_2,
+                    Double.class);
+            writer.write(this.congControl_BackToNormalMemoryThreshold[2], CONG_CONTROL_BACK_TO_NORMAL_MEMORY_THRESHOLD_3,
+                    Double.class);
+        }
 
-            writer.write(this.statisticsEnabled, STATISTICS_ENABLED, Boolean.class);
+        writer.write(this.statisticsEnabled, STATISTICS_ENABLED, Boolean.class);
 
-            writer.write(this.slsRange.toString(), SLS_RANGE, String.class);
+        writer.write(this.slsRange.toString(), SLS_RANGE, String.class);
 
-            writer.write(this.statisticsEnabled, STATISTICS_ENABLED, Boolean.class);
+        writer.write(this.timerServiceType.toString(), TIMER_SERVICE, String.class);
 
-            writer.write(this.isSwapTcapIdBytes, SWAP_TCAP_ID_BYTES, Boolean.class);
+        writer.write(this.statisticsEnabled, STATISTICS_ENABLED, Boolean.class);
 
+        writer.write(this.isSwapTcapIdBytes, SWAP_TCAP_ID_BYTES, Boolean.class);
 
-            writer.close();
-        } catch (Exception e) {
-            this.logger.error(
-                    String.format("Error while persisting the TCAP Resource state in file=%s", persistFile.toString()), e);
-        }
+
+        writer.close();
     }
 
     /**
@@ -858,6 +908,10 @@ public class TCAPStackImpl implements TCAPStack {
             if (vals != null)
                 this.slsRange = Enum.valueOf(SlsRangeType.class, vals);
 
+            vals = reader.read(TIMER_SERVICE, String.class);
+            if (vals != null)
+                this.timerServiceType = Enum.valueOf(TimerServiceType.class, vals);
+
             volb = reader.read(STATISTICS_ENABLED, Boolean.class);
             if (volb != null)
                 this.statisticsEnabled = volb;
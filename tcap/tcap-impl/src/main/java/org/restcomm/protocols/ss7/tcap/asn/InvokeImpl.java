@@ -23,7 +23,6 @@
 package org.restcomm.protocols.ss7.tcap.asn;
 
 import java.io.IOException;
-import java.util.concurrent.Future;
 
 import org.mobicents.protocols.asn.AsnException;
 import org.mobicents.protocols.asn.AsnInputStream;
@@ -39,6 +38,7 @@ import org.restcomm.protocols.ss7.tcap.asn.comp.GeneralProblemType;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Invoke;
 import org.restcomm.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.restcomm.protocols.ss7.tcap.asn.comp.Parameter;
+import org.restcomm.protocols.ss7.tcap.timers.TimerTask;
 
 /**
  * @author baranowb
@@ -52,7 +52,7 @@ public class InvokeImpl implements Invoke {
     private InvokeClass invokeClass = InvokeClass.Class1;
     private long invokeTimeout = TCAPStackImpl._EMPTY_INVOKE_TIMEOUT;
     private OperationState state = OperationState.Idle;
-    private Future timerFuture;
+    private boolean timerStarted;
     private OperationTimerTask operationTimerTask = new OperationTimerTask(this);
     private TCAPProviderImpl provider;
     private DialogImpl dialog;
@@ -387,16 +387,20 @@ public class InvokeImpl implements Invoke {
         if (this.dialog == null || this.dialog.getPreviewMode())
             return;
 
-        this.stopTimer();
-        if (this.invokeTimeout > 0)
-            this.timerFuture = this.provider.createOperationTimer(this.operationTimerTask, this.invokeTimeout);
+        if (this.invokeTimeout > 0) {
+            // TimerService reschedules the task if it is already started
+            this.provider.getTimerService().schedule(this.operationTimerTask, this.invokeTimeout);
+            this.timerStarted = true;
+        } else {
+            this.stopTimer();
+        }
     }
 
     public synchronized void stopTimer() {
 
-        if (this.timerFuture != null) {
-            this.timerFuture.cancel(false);
-            this.timerFuture = null;
+        if (this.timerStarted) {
+            this.provider.getTimerService().cancel(this.operationTimerTask);
+            this.timerStarted = false;
         }
 
     }
@@ -417,7 +421,7 @@ public class InvokeImpl implements Invoke {
         }
     }
 
-    private class OperationTimerTask implements Runnable {
+    private class OperationTimerTask extends TimerTask {
         InvokeImpl invoke;
 
         OperationTimerTask(InvokeImpl invoke) {
@@ -430,7 +434,7 @@ public class InvokeImpl implements Invoke {
                 dialog.getDialogLock().lock();
 
                 // op failed, we must delete it from dialog and notify!
-                timerFuture = null;
+                timerStarted = false;
                 setState(OperationState.Idle);
                 // TC-L-CANCEL
                 ((DialogImpl) invoke.dialog).operationTimedOut(invoke);
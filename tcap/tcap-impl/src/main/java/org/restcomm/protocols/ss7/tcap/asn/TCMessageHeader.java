@@ -0,0 +1,223 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.asn;
+
+/**
+ * Minimal scanner of a TCAP message header. It finds the message type, the transaction ids and offsets of the dialog and
+ * the component portions without decoding of the message, so a message for an unknown transaction or a message that is
+ * rejected because of congestion can be processed without parsing of its dialog and component portions.
+ *
+ * Only the outer message tag and the transaction portion are checked, a message that is successfully scanned still may
+ * fail when it is fully decoded.
+ *
+ */
+public class TCMessageHeader {
+
+    private static final int TAG_CLASS_APPLICATION_CONSTRUCTED = 0x60;
+    private static final int TAG_OTX = 0x48;
+    private static final int TAG_DTX = 0x49;
+    private static final int TAG_P_ABORT_CAUSE = 0x4A;
+    private static final int TAG_DIALOG_PORTION = 0x6B;
+    private static final int TAG_COMPONENT_PORTION = 0x6C;
+
+    private static final int MAX_TRANSACTION_ID_LENGTH = 4;
+
+    private byte[] data;
+    private int messageTag = -1;
+    private int otidOffset = -1;
+    private int otidLength;
+    private int dtidOffset = -1;
+    private int dtidLength;
+    private int dialogPortionOffset = -1;
+    private int componentPortionOffset = -1;
+
+    // position and end of the last read tag-length
+    private int pos;
+    private int contentLength;
+
+    /**
+     * Scans a message header.
+     *
+     * @return false if data does not start with a well formed TCAP message header
+     */
+    public boolean scan(byte[] data) {
+        this.data = data;
+        this.messageTag = -1;
+        this.otidOffset = -1;
+        this.dtidOffset = -1;
+        this.dialogPortionOffset = -1;
+        this.componentPortionOffset = -1;
+        this.pos = 0;
+
+        if (data == null || data.length < 2)
+            return false;
+        int tag = data[0] & 0xFF;
+        if ((tag & 0xE0) != TAG_CLASS_APPLICATION_CONSTRUCTED || (tag & 0x1F) == 0x1F)
+            return false;
+        this.pos = 1;
+        if (!this.readLength())
+            return false;
+        int end = this.contentLength < 0 ? data.length : this.pos + this.contentLength;
+        if (end > data.length)
+            return false;
+        this.messageTag = tag & 0x1F;
+
+        while (this.pos < end) {
+            int offset = this.pos;
+            tag = data[this.pos++] & 0xFF;
+            if (tag == 0 && this.pos < end && data[this.pos] == 0)
+                break; // end-of-contents of an indefinite length message
+            if (this.pos >= end || !this.readLength())
+                return false;
+
+            switch (tag) {
+                case TAG_OTX:
+                    if (this.otidOffset >= 0 || this.contentLength <= 0 || this.contentLength > MAX_TRANSACTION_ID_LENGTH)
+                        return false;
+                    this.otidOffset = this.pos;
+                    this.otidLength = this.contentLength;
+                    break;
+                case TAG_DTX:
+                    if (this.dtidOffset >= 0 || this.contentLength <= 0 || this.contentLength > MAX_TRANSACTION_ID_LENGTH)
+                        return false;
+                    this.dtidOffset = this.pos;
+                    this.dtidLength = this.contentLength;
+                    break;
+                case TAG_DIALOG_PORTION:
+                    this.dialogPortionOffset = offset;
+                    break;
+                case TAG_COMPONENT_PORTION:
+                    // the component portion is the last one - nothing to scan more
+                    this.componentPortionOffset = offset;
+                    return true;
+                case TAG_P_ABORT_CAUSE:
+                    break;
+                default:
+                    return false;
+            }
+
+            if (this.contentLength < 0) {
+                // indefinite length of a constructed portion - we do not go inside it
+                return true;
+            }
+            this.pos += this.contentLength;
+            if (this.pos > end)
+                return false;
+        }
+        return true;
+    }
+
+    private boolean readLength() {
+        int b = this.data[this.pos++] & 0xFF;
+        if (b < 0x80) {
+            this.contentLength = b;
+            return true;
+        }
+        if (b == 0x80) {
+            this.contentLength = -1;
+            return true;
+        }
+        int cnt = b & 0x7F;
+        if (cnt > 3 || this.pos + cnt > this.data.length)
+            return false;
+        int len = 0;
+        for (int i1 = 0; i1 < cnt; i1++) {
+            len = (len << 8) | (this.data[this.pos++] & 0xFF);
+        }
+        this.contentLength = len;
+        return true;
+    }
+
+    /**
+     * @return the application tag of the message (TCBeginMessage._TAG, TCContinueMessage._TAG, ...) or -1 if the header has
+     *         not been scanned
+     */
+    public int getMessageTag() {
+        return messageTag;
+    }
+
+    public boolean hasOriginatingTransactionId() {
+        return this.otidOffset >= 0;
+    }
+
+    public boolean hasDestinationTransactionId() {
+        return this.dtidOffset >= 0;
+    }
+
+    public byte[] getOriginatingTransactionId() {
+        if (this.otidOffset < 0)
+            return null;
+        byte[] res = new byte[this.otidLength];
+        System.arraycopy(this.data, this.otidOffset, res, 0, this.otidLength);
+        return res;
+    }
+
+    public byte[] getDestinationTransactionId() {
+        if (this.dtidOffset < 0)
+            return null;
+        byte[] res = new byte[this.dtidLength];
+        System.arraycopy(this.data, this.dtidOffset, res, 0, this.dtidLength);
+        return res;
+    }
+
+    /**
+     * @return true if the destination transaction id is present and can be converted into a local dialog id by
+     *         {@link #getDestinationDialogId(boolean)}
+     */
+    public boolean isDestinationDialogIdAvailable(boolean swapBytes) {
+        return this.dtidOffset >= 0 && (swapBytes || this.dtidLength == MAX_TRANSACTION_ID_LENGTH);
+    }
+
+    /**
+     * Converts the destination transaction id into a local dialog id in the same way as
+     * {@link Utils#decodeTransactionId(byte[], boolean)} does.
+     */
+    public long getDestinationDialogId(boolean swapBytes) {
+        long res = 0;
+        if (swapBytes) {
+            for (int i1 = 0; i1 < this.dtidLength; i1++) {
+                res = (res << 8) | (this.data[this.dtidOffset + i1] & 0xFF);
+            }
+        } else {
+            for (int i1 = MAX_TRANSACTION_ID_LENGTH - 1; i1 >= 0; i1--) {
+                res = (res << 8) | (this.data[this.dtidOffset + i1] & 0xFF);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return the offset of the dialog portion tag or -1 if the dialog portion is absent or has not been reached
+     */
+    public int getDialogPortionOffset() {
+        return dialogPortionOffset;
+    }
+
+    /**
+     * @return the offset of the component portion tag or -1 if the component portion is absent or has not been reached
+     */
+    public int getComponentPortionOffset() {
+        return componentPortionOffset;
+    }
+
+}
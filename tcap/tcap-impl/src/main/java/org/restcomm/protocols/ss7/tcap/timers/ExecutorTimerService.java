@@ -0,0 +1,65 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.timers;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimerService that schedules every task at a ScheduledExecutorService
+ *
+ */
+public class ExecutorTimerService implements TimerService {
+
+    private final ScheduledExecutorService executor;
+
+    public ExecutorTimerService(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void schedule(TimerTask task, long delay) {
+        this.cancel(task);
+        task.future = this.executor.schedule(task, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean cancel(TimerTask task) {
+        Future<?> future = task.future;
+        if (future != null) {
+            task.future = null;
+            return future.cancel(false);
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.timers;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Hierarchical hashed wheel TimerService.
+ *
+ * Tasks are kept in intrusive doubly linked lists in the buckets of two wheel levels: the first level has one bucket
+ * per tick and the second level one bucket per revolution of the first level. Tasks of a second level bucket are
+ * cascaded into the first level when their revolution starts. Schedule, reschedule and cancel are O(1) and do not
+ * allocate. To spread the contention tasks are distributed over several independent wheels, each guarded by its own
+ * monitor. A single ticker thread advances all wheels and hands expired tasks over to the executor so timer handlers
+ * run at the same threads as with the ExecutorTimerService.
+ *
+ */
+public class HashedWheelTimerService implements TimerService {
+
+    private static final Logger logger = Logger.getLogger(HashedWheelTimerService.class);
+
+    public static final long DEFAULT_TICK_DURATION = 10;
+    public static final int DEFAULT_WHEEL_COUNT = 16;
+
+    private static final int LEVEL_BITS = 9;
+    private static final int LEVEL_SIZE = 1 << LEVEL_BITS;
+    private static final int LEVEL_MASK = LEVEL_SIZE - 1;
+
+    private final Executor executor;
+    private final long tickNanos;
+    private final Wheel[] wheels;
+    private final int wheelMask;
+
+    private volatile long startTime;
+    private volatile boolean running;
+    private Thread ticker;
+
+    /**
+     * @param executor executor where expired tasks are run
+     * @param tickDuration tick duration in milliseconds
+     * @param wheelCount count of independent wheels, rounded up to a power of two
+     */
+    public HashedWheelTimerService(Executor executor, long tickDuration, int wheelCount) {
+        if (tickDuration <= 0)
+            throw new IllegalArgumentException("TickDuration must be greater than zero");
+
+        this.executor = executor;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+
+        int cnt = 1;
+        while (cnt < wheelCount) {
+            cnt <<= 1;
+        }
+        this.wheels = new Wheel[cnt];
+        this.wheelMask = cnt - 1;
+        for (int i1 = 0; i1 < cnt; i1++) {
+            this.wheels[i1] = new Wheel();
+        }
+    }
+
+    public HashedWheelTimerService(Executor executor) {
+        this(executor, DEFAULT_TICK_DURATION, DEFAULT_WHEEL_COUNT);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.running)
+            return;
+
+        this.startTime = System.nanoTime();
+        this.running = true;
+        this.ticker = new DefaultThreadFactory("Tcap-Timer").newThread(new Ticker());
+        this.ticker.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!this.running)
+            return;
+
+        this.running = false;
+        this.ticker.interrupt();
+        try {
+            this.ticker.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.ticker = null;
+
+        for (Wheel wheel : this.wheels) {
+            wheel.clear();
+        }
+    }
+
+    @Override
+    public void schedule(TimerTask task, long delay) {
+        // the deadline is rounded up so that a task never expires earlier than requested
+        long deadline = (System.nanoTime() - this.startTime + TimeUnit.MILLISECONDS.toNanos(delay) + this.tickNanos - 1)
+                / this.tickNanos;
+
+        Wheel wheel = task.wheel;
+        if (wheel == null) {
+            wheel = this.wheels[System.identityHashCode(task) & this.wheelMask];
+        }
+        synchronized (wheel) {
+            if (task.wheel == null) {
+                task.wheel = wheel;
+                task.firing = new Firing(task);
+            }
+            if (task.level >= 0)
+                wheel.unlink(task);
+            task.generation++;
+            task.deadline = deadline > wheel.currentTick ? deadline : wheel.currentTick + 1;
+            wheel.link(task);
+        }
+    }
+
+    @Override
+    public boolean cancel(TimerTask task) {
+        Wheel wheel = task.wheel;
+        if (wheel == null)
+            return false;
+
+        synchronized (wheel) {
+            task.generation++;
+            if (task.level >= 0) {
+                wheel.unlink(task);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    class Wheel {
+        // current tick, modified only by the ticker thread
+        long currentTick;
+        final TimerTask[][] levels = new TimerTask[2][LEVEL_SIZE];
+
+        void link(TimerTask task) {
+            long delta = task.deadline - this.currentTick;
+            int level;
+            int slot;
+            if (delta < LEVEL_SIZE) {
+                level = 0;
+                slot = (int) task.deadline & LEVEL_MASK;
+            } else {
+                long rev = task.deadline >>> LEVEL_BITS;
+                long curRev = this.currentTick >>> LEVEL_BITS;
+                if (rev - curRev >= LEVEL_SIZE) {
+                    // further than the wheel covers - the task will be cascaded again until it fits
+                    rev = curRev + LEVEL_SIZE - 1;
+                }
+                level = 1;
+                slot = (int) rev & LEVEL_MASK;
+            }
+
+            TimerTask head = this.levels[level][slot];
+            task.level = level;
+            task.slot = slot;
+            task.prev = null;
+            task.next = head;
+            if (head != null)
+                head.prev = task;
+            this.levels[level][slot] = task;
+        }
+
+        void unlink(TimerTask task) {
+            if (task.prev != null)
+                task.prev.next = task.next;
+            else
+                this.levels[task.level][task.slot] = task.next;
+            if (task.next != null)
+                task.next.prev = task.prev;
+            task.prev = null;
+            task.next = null;
+            task.level = -1;
+        }
+
+        synchronized void advance(long tick, ArrayList<TimerTask> expired) {
+            this.currentTick = tick;
+
+            if ((tick & LEVEL_MASK) == 0) {
+                // a new revolution of the first level: cascading of the second level bucket
+                int slot = (int) (tick >>> LEVEL_BITS) & LEVEL_MASK;
+                TimerTask task = this.levels[1][slot];
+                this.levels[1][slot] = null;
+                while (task != null) {
+                    TimerTask next = task.next;
+                    this.link(task);
+                    task = next;
+                }
+            }
+
+            int slot = (int) tick & LEVEL_MASK;
+            TimerTask task = this.levels[0][slot];
+            while (task != null) {
+                TimerTask next = task.next;
+                if (task.deadline <= tick) {
+                    this.unlink(task);
+                    task.firingGeneration = task.generation;
+                    expired.add(task);
+                }
+                task = next;
+            }
+        }
+
+        synchronized void clear() {
+            for (TimerTask[] level : this.levels) {
+                for (int i1 = 0; i1 < LEVEL_SIZE; i1++) {
+                    TimerTask task = level[i1];
+                    while (task != null) {
+                        TimerTask next = task.next;
+                        task.generation++;
+                        task.prev = null;
+                        task.next = null;
+                        task.level = -1;
+                        task = next;
+                    }
+                    level[i1] = null;
+                }
+            }
+        }
+    }
+
+    static class Firing implements Runnable {
+        private final TimerTask task;
+
+        Firing(TimerTask task) {
+            this.task = task;
+        }
+
+        public void run() {
+            synchronized (this.task.wheel) {
+                // the task has been rescheduled or cancelled after it had expired
+                if (this.task.firingGeneration != this.task.generation)
+                    return;
+                this.task.firingGeneration = -1;
+            }
+            this.task.run();
+        }
+    }
+
+    private class Ticker implements Runnable {
+        public void run() {
+            ArrayList<TimerTask> expired = new ArrayList<TimerTask>();
+            long tick = 0;
+
+            while (running) {
+                long sleepNanos = startTime + (tick + 1) * tickNanos - System.nanoTime();
+                if (sleepNanos > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                }
+                tick++;
+
+                for (Wheel wheel : wheels) {
+                    wheel.advance(tick, expired);
+                }
+
+                for (int i1 = 0; i1 < expired.size(); i1++) {
+                    try {
+                        executor.execute(expired.get(i1).firing);
+                    } catch (RejectedExecutionException e) {
+                        if (running)
+                            logger.error("Rejected execution of an expired timer task", e);
+                    }
+                }
+                expired.clear();
+            }
+        }
+    }
+
+}
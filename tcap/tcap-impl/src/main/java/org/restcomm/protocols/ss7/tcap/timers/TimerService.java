@@ -0,0 +1,54 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.timers;
+
+/**
+ * Timer service for TCAP dialog idle timers and invoke timers.
+ *
+ * A {@link TimerTask} instance is created once by its owner (a Dialog or an Invoke) and is rescheduled any number of
+ * times, so implementations can keep their bookkeeping inside the task and avoid allocation on restart.
+ *
+ */
+public interface TimerService {
+
+    void start();
+
+    void stop();
+
+    /**
+     * Schedules the task to be run after the delay. If the task is already scheduled it is rescheduled.
+     *
+     * @param task
+     * @param delay delay in milliseconds
+     */
+    void schedule(TimerTask task, long delay);
+
+    /**
+     * Cancels the task if it is scheduled.
+     *
+     * @param task
+     * @return true if the task was scheduled and has been cancelled
+     */
+    boolean cancel(TimerTask task);
+
+}
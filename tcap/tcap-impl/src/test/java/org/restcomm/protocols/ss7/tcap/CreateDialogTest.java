@@ -117,6 +117,31 @@ public class CreateDialogTest {
         assertEquals((long) dlg4.getLocalDialogId(), 3L);
     }
 
+    @Test(groups = { "functional.flow" })
+    public void getDialogByIdTest() throws Exception {
+
+        SccpAddress localAddress = new SccpAddressImpl();
+        SccpAddress remoteAddress = new SccpAddressImpl();
+
+        Dialog dlg1 = this.tcapStack1.getProvider().getNewDialog(localAddress, remoteAddress);
+        Dialog dlg2 = this.tcapStack1.getProvider().getNewDialog(localAddress, remoteAddress);
+        assertSame(this.tcapStack1.getProvider().getDialogById(dlg1.getLocalDialogId()), dlg1);
+        assertSame(this.tcapStack1.getProvider().getDialogById(dlg2.getLocalDialogId()), dlg2);
+        assertNull(this.tcapStack1.getProvider().getDialogById(1000L));
+        assertNull(this.tcapStack1.getProvider().getDialogById(null));
+
+        // the upper dialog slot is independent from the user object
+        Object upperDialog = new Object();
+        dlg1.setUpperDialog(upperDialog);
+        dlg1.setUserObject("userObject");
+        assertSame(this.tcapStack1.getProvider().getDialogById(dlg1.getLocalDialogId()).getUpperDialog(), upperDialog);
+        assertEquals(dlg1.getUserObject(), "userObject");
+        assertNull(dlg2.getUpperDialog());
+
+        dlg1.release();
+        assertNull(this.tcapStack1.getProvider().getDialogById(dlg1.getLocalDialogId()));
+    }
+
     private class SccpHarnessPreview implements SccpProvider {
 
         @Override
@@ -0,0 +1,140 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.restcomm.protocols.ss7.tcap.api.TCAPException;
+import org.testng.annotations.Test;
+
+/**
+ * Test for DialogTable id allocation
+ *
+ */
+public class DialogTableTest {
+
+    @Test(groups = { "functional.settings" })
+    public void testReserveRemove() throws Exception {
+        DialogTable table = new DialogTable(100);
+
+        assertTrue(table.reserve(10));
+        assertFalse(table.reserve(10));
+        assertTrue(table.contains(10));
+        assertNull(table.get(10));
+        assertEquals(table.size(), 1);
+
+        assertNull(table.remove(10));
+        assertFalse(table.contains(10));
+        assertEquals(table.size(), 0);
+        assertTrue(table.reserve(10));
+
+        // growing of shards over the initial capacity
+        for (long i1 = 100; i1 < 100100; i1++) {
+            assertTrue(table.reserve(i1));
+        }
+        assertEquals(table.size(), 100001);
+        for (long i1 = 100; i1 < 100100; i1 += 2) {
+            table.remove(i1);
+        }
+        for (long i1 = 100; i1 < 100100; i1++) {
+            assertEquals(table.contains(i1), i1 % 2 != 0);
+        }
+
+        table.clear();
+        assertEquals(table.size(), 0);
+        assertFalse(table.contains(101));
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testAllocateId() throws Exception {
+        DialogTable table = new DialogTable(100);
+
+        assertEquals(table.allocateId(20, 30, 100), 20);
+        assertEquals(table.allocateId(20, 30, 100), 21);
+        assertTrue(table.reserve(22));
+        assertEquals(table.allocateId(20, 30, 100), 23);
+        assertEquals(table.findFreeId(20, 30, 100), 24);
+        assertEquals(table.allocateId(20, 30, 100), 25);
+
+        // ring wrapping
+        table.resetCursor(20, 30);
+        table.remove(21);
+        assertEquals(table.allocateId(20, 30, 100), 26);
+        for (int i1 = 0; i1 < 4; i1++) {
+            table.allocateId(20, 30, 100);
+        }
+        assertEquals(table.allocateId(20, 30, 100), 21);
+
+        try {
+            table.allocateId(20, 30, table.size());
+            fail("Must be exception");
+        } catch (TCAPException e) {
+        }
+
+        table.resetCursor(1000, 2000);
+        assertEquals(table.allocateId(1000, 2000, 100), 1001);
+    }
+
+    @Test(groups = { "functional.settings" })
+    public void testConcurrentAllocateId() throws Exception {
+        final DialogTable table = new DialogTable(10000);
+        final ConcurrentHashMap<Long, Long> ids = new ConcurrentHashMap<Long, Long>();
+        final int threadCount = 16;
+        final int perThread = 5000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+
+        for (int i1 = 0; i1 < threadCount; i1++) {
+            new Thread() {
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i2 = 0; i2 < perThread; i2++) {
+                            long id = table.allocateId(1, 1000000, 1000000);
+                            ids.put(id, id);
+                            if (i2 % 2 == 0)
+                                table.remove(id);
+                        }
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }.start();
+        }
+        start.countDown();
+        done.await();
+
+        assertEquals(ids.size(), threadCount * perThread);
+        assertEquals(table.size(), threadCount * perThread / 2);
+    }
+
+}
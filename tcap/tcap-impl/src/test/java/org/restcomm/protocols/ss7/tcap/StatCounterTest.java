@@ -33,6 +33,7 @@ import org.restcomm.protocols.ss7.statistics.api.LongValue;
 import org.restcomm.protocols.ss7.statistics.api.StatCounterCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollection;
 import org.restcomm.protocols.ss7.statistics.api.StatDataCollectorType;
+import org.restcomm.protocols.ss7.statistics.api.StatHistogram;
 import org.restcomm.protocols.ss7.statistics.api.StatResult;
 import org.testng.annotations.Test;
 
@@ -230,5 +231,93 @@ public class StatCounterTest {
 
     }
 
-}
+    @Test(groups = { "statistic" })
+    public void countersSnapshotTest() throws Exception {
+
+        StatDataCollection sdc = new StatDataCollectionImpl();
+        StatCounterCollection scc = sdc.registerStatCounterCollector("counter1", StatDataCollectorType.StringLongMap);
 
+        assertNull(sdc.getSnapshot("counter1", "a1"));
+        sdc.restartAndGet("counter1", "a1");
+
+        scc.updateData("x1");
+        scc.updateData("x1");
+        StatResult res1 = scc.getSnapshot("a1");
+        assertEquals(res1.getStringLongValue().get("x1").getValue(), 2);
+
+        // a snapshot does not restart the campaign
+        scc.updateData("x1");
+        res1 = sdc.getSnapshot("counter1", "a1");
+        assertEquals(res1.getStringLongValue().get("x1").getValue(), 3);
+        res1 = sdc.restartAndGet("counter1", "a1");
+        assertEquals(res1.getStringLongValue().get("x1").getValue(), 3);
+        res1 = sdc.getSnapshot("counter1", "a1");
+        assertEquals(res1.getStringLongValue().size(), 0);
+    }
+
+    @Test(groups = { "statistic" })
+    public void countersStringConcurrentTest() throws Exception {
+
+        StatDataCollection sdc = new StatDataCollectionImpl();
+        final StatCounterCollection scc = sdc.registerStatCounterCollector("counter1", StatDataCollectorType.StringLongMap);
+        sdc.restartAndGet("counter1", "a1");
+
+        final int threadCount = 8;
+        final int perThread = 20000;
+        Thread[] threads = new Thread[threadCount];
+        for (int i1 = 0; i1 < threadCount; i1++) {
+            threads[i1] = new Thread() {
+                public void run() {
+                    for (int i2 = 0; i2 < perThread; i2++) {
+                        scc.updateData("x" + (i2 % 4));
+                    }
+                }
+            };
+            threads[i1].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        FastMap<String, LongValue> resa1 = sdc.restartAndGet("counter1", "a1").getStringLongValue();
+        assertEquals(resa1.size(), 4);
+        for (int i1 = 0; i1 < 4; i1++) {
+            assertEquals(resa1.get("x" + i1).getValue(), threadCount * perThread / 4);
+        }
+    }
+
+    @Test(groups = { "statistic" })
+    public void countersHistogramTest() throws Exception {
+
+        StatDataCollection sdc = new StatDataCollectionImpl();
+        StatCounterCollection scc = sdc.registerStatCounterCollector("counter1", StatDataCollectorType.HISTOGRAM);
+
+        StatResult res1 = sdc.restartAndGet("counter1", "a1");
+        assertNull(res1);
+        StatHistogram h1 = sdc.getSnapshot("counter1", "a1").getHistogram();
+        assertEquals(h1.getCount(), 0);
+
+        for (int i1 = 1; i1 <= 1000; i1++) {
+            scc.updateData(i1);
+        }
+        res1 = sdc.restartAndGet("counter1", "a1");
+        h1 = res1.getHistogram();
+        assertEquals(res1.getLongValue(), 1000);
+        assertEquals(h1.getCount(), 1000);
+        assertEquals(h1.getMin(), 1);
+        assertTrue(h1.getMax() >= 1000 && h1.getMax() <= 1032);
+        assertTrue(Math.abs(h1.getMean() - 500.5) < 500.5 / 32);
+        assertTrue(Math.abs(h1.getValueAtPercentile(50) - 500) <= 500 / 32 + 1);
+        assertTrue(Math.abs(h1.getValueAtPercentile(99) - 990) <= 990 / 32 + 1);
+
+        // a new campaign collects from its own start only
+        assertNull(sdc.restartAndGet("counter1", "a2"));
+        scc.updateData(100000);
+        StatHistogram h2 = sdc.restartAndGet("counter1", "a2").getHistogram();
+        assertEquals(h2.getCount(), 1);
+        h1 = sdc.restartAndGet("counter1", "a1").getHistogram();
+        assertEquals(h1.getCount(), 1);
+        assertTrue(Math.abs(h1.getMax() - 100000) <= 100000 / 32);
+    }
+
+}
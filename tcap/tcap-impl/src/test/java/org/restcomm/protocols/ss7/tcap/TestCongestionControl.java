@@ -26,8 +26,10 @@ import static org.testng.Assert.*;
 
 import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
 import org.restcomm.protocols.ss7.sccp.impl.SccpHarness;
+import org.restcomm.protocols.ss7.sccp.message.SccpDataMessage;
 import org.restcomm.protocols.ss7.sccp.parameter.SccpAddress;
 import org.restcomm.protocols.ss7.tcap.TCAPStackImpl;
+import org.restcomm.protocols.ss7.tcap.asn.comp.PAbortCauseType;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -178,4 +180,28 @@ public class TestCongestionControl extends SccpHarness {
         assertEquals(client.observerdEvents.get(10).getEventType(), EventType.PAbort);
     }
 
+    /**
+     * A TC-BEGIN with an unsupported dialog protocol version is aborted with NoCommonDialoguePortion when it is decoded.
+     * When new dialogs are blocked it must be aborted with ResourceLimitation only from its transaction portion, before
+     * the dialog portion is decoded.
+     */
+    @Test(groups = { "congestion" })
+    public void beginRejectedBeforeDecodingTest() throws Exception {
+        this.tcapStack2.setCongControl_blockingIncomingTcapMessages(true);
+        this.tcapStack2.getProvider().setUserPartCongestionLevel("a1", 2);
+        client.waitFor(1100);
+
+        client.startClientDialog();
+        SccpDataMessage message = this.sccpProvider1.getMessageFactory().createDataMessageClass1(peer2Address, peer1Address,
+                TCAPAbnormalTest.getMessageWithUnsupportedProtocolVersion(), 0, 0, false, null, null);
+        this.sccpProvider1.send(message);
+        client.waitFor(WAIT_TIME);
+
+        assertEquals(server.observerdEvents.size(), 0);
+        assertEquals(client.observerdEvents.size(), 2);
+        assertEquals(client.observerdEvents.get(0).getEventType(), EventType.PAbort);
+        // TCAPAbnormalTest.badDialogProtocolVersionTest() gets NoCommonDialoguePortion for the same message
+        assertEquals(client.pAbortCauseType, PAbortCauseType.ResourceLimitation);
+    }
+
 }
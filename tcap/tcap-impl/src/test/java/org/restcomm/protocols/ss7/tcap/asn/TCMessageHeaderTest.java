@@ -0,0 +1,102 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.asn;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import org.restcomm.protocols.ss7.tcap.asn.comp.TCAbortMessage;
+import org.restcomm.protocols.ss7.tcap.asn.comp.TCContinueMessage;
+import org.restcomm.protocols.ss7.tcap.asn.comp.TCEndMessage;
+import org.testng.annotations.Test;
+
+@Test(groups = { "asn" })
+public class TCMessageHeaderTest {
+
+    @Test(groups = { "functional.decode" })
+    public void testContinue() {
+        byte[] b = new byte[] { 0x65, 0x16,
+                // org txid
+                0x48, 0x04, 0x08, (byte) 0xA5, 0, 0x01,
+                // dtx
+                0x49, 0x04, 8, (byte) 0xA4, 0, 1,
+                // comp portion
+                0x6C, 8,
+                // invoke
+                (byte) 0xA1, 6, 0x02, 0x01, 0x01, 0x02, 0x01, 0x37 };
+
+        TCMessageHeader header = new TCMessageHeader();
+        assertTrue(header.scan(b));
+        assertEquals(header.getMessageTag(), TCContinueMessage._TAG);
+        assertEquals(header.getOriginatingTransactionId(), new byte[] { 0x08, (byte) 0xA5, 0, 0x01 });
+        assertEquals(header.getDestinationTransactionId(), new byte[] { 8, (byte) 0xA4, 0, 1 });
+        assertEquals(header.getDialogPortionOffset(), -1);
+        assertEquals(header.getComponentPortionOffset(), 14);
+
+        assertTrue(header.isDestinationDialogIdAvailable(true));
+        assertEquals(header.getDestinationDialogId(true), Utils.decodeTransactionId(header.getDestinationTransactionId(), true));
+        assertEquals(header.getDestinationDialogId(false), Utils.decodeTransactionId(header.getDestinationTransactionId(), false));
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testEndAndAbort() {
+        // TC-END with a dialog portion and a short dtid, indefinite length
+        byte[] b = new byte[] { 0x64, (byte) 0x80, 0x49, 0x02, 0x01, 0x02, 0x6B, 0x02, 0x01, 0x01, 0x6C, (byte) 0x80, 0, 0,
+                0, 0 };
+        TCMessageHeader header = new TCMessageHeader();
+        assertTrue(header.scan(b));
+        assertEquals(header.getMessageTag(), TCEndMessage._TAG);
+        assertFalse(header.hasOriginatingTransactionId());
+        assertNull(header.getOriginatingTransactionId());
+        assertEquals(header.getDialogPortionOffset(), 6);
+        assertEquals(header.getComponentPortionOffset(), 10);
+        assertTrue(header.isDestinationDialogIdAvailable(true));
+        assertFalse(header.isDestinationDialogIdAvailable(false));
+        assertEquals(header.getDestinationDialogId(true), 0x0102);
+
+        // TC-ABORT with P-AbortCause
+        b = new byte[] { 0x67, 0x09, 0x49, 0x04, 0x01, 0x02, 0x03, 0x04, 0x4A, 0x01, 0x01 };
+        assertTrue(header.scan(b));
+        assertEquals(header.getMessageTag(), TCAbortMessage._TAG);
+        assertEquals(header.getDestinationDialogId(true), 0x01020304L);
+        assertEquals(header.getDestinationDialogId(false), 0x04030201L);
+        assertEquals(header.getComponentPortionOffset(), -1);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testBadHeader() {
+        TCMessageHeader header = new TCMessageHeader();
+        // not an application tag
+        assertFalse(header.scan(new byte[] { 0x30, 0x03, 0x02, 0x01, 0x01 }));
+        // too long transaction id
+        assertFalse(header.scan(new byte[] { 0x65, 0x07, 0x48, 0x05, 1, 2, 3, 4, 5 }));
+        // message length exceeds data
+        assertFalse(header.scan(new byte[] { 0x65, 0x10, 0x48, 0x04, 1, 2, 3, 4 }));
+        // unknown element
+        assertFalse(header.scan(new byte[] { 0x65, 0x06, 0x48, 0x01, 1, 0x02, 0x01, 0x01 }));
+        assertEquals(header.getMessageTag(), TCContinueMessage._TAG);
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tcap.timers;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for HashedWheelTimerService
+ *
+ */
+public class HashedWheelTimerServiceTest {
+
+    private ExecutorService executor;
+    private HashedWheelTimerService timerService;
+
+    @BeforeMethod
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(2);
+        // 1 ms ticks - the first wheel level covers 512 ms
+        this.timerService = new HashedWheelTimerService(this.executor, 1, 4);
+        this.timerService.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        this.timerService.stop();
+        this.executor.shutdown();
+    }
+
+    @Test(groups = { "functional.timers" })
+    public void testScheduleCancel() throws Exception {
+        CountingTask t1 = new CountingTask();
+        CountingTask t2 = new CountingTask();
+        CountingTask t3 = new CountingTask();
+
+        long start = System.currentTimeMillis();
+        this.timerService.schedule(t1, 100);
+        this.timerService.schedule(t2, 100);
+        this.timerService.schedule(t3, 700);
+        assertTrue(this.timerService.cancel(t2));
+        assertFalse(this.timerService.cancel(t2));
+
+        Thread.sleep(300);
+        assertEquals(t1.count.get(), 1);
+        assertTrue(t1.lastRun - start >= 100);
+        assertEquals(t2.count.get(), 0);
+        assertEquals(t3.count.get(), 0);
+        assertFalse(this.timerService.cancel(t1));
+
+        // t3 is cascaded from the second level
+        Thread.sleep(700);
+        assertEquals(t3.count.get(), 1);
+        assertTrue(t3.lastRun - start >= 700);
+        assertEquals(t2.count.get(), 0);
+    }
+
+    @Test(groups = { "functional.timers" })
+    public void testReschedule() throws Exception {
+        CountingTask t1 = new CountingTask();
+
+        long start = System.currentTimeMillis();
+        for (int i1 = 0; i1 < 10; i1++) {
+            this.timerService.schedule(t1, 200);
+            Thread.sleep(20);
+        }
+        Thread.sleep(100);
+        assertEquals(t1.count.get(), 0);
+
+        Thread.sleep(300);
+        assertEquals(t1.count.get(), 1);
+        assertTrue(t1.lastRun - start >= 380);
+
+        // a task can be scheduled again after it has run
+        this.timerService.schedule(t1, 50);
+        Thread.sleep(200);
+        assertEquals(t1.count.get(), 2);
+    }
+
+    @Test(groups = { "functional.timers" })
+    public void testManyTasks() throws Exception {
+        CountingTask[] tasks = new CountingTask[10000];
+        for (int i1 = 0; i1 < tasks.length; i1++) {
+            tasks[i1] = new CountingTask();
+            this.timerService.schedule(tasks[i1], 50 + i1 % 1000);
+        }
+        for (int i1 = 0; i1 < tasks.length; i1 += 2) {
+            this.timerService.cancel(tasks[i1]);
+        }
+
+        Thread.sleep(1500);
+        for (int i1 = 0; i1 < tasks.length; i1++) {
+            assertEquals(tasks[i1].count.get(), i1 % 2 == 0 ? 0 : 1);
+        }
+    }
+
+    private static class CountingTask extends TimerTask {
+        AtomicInteger count = new AtomicInteger();
+        volatile long lastRun;
+
+        public void run() {
+            this.lastRun = System.currentTimeMillis();
+            this.count.incrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.isup.impl.message;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.isup.ISUPParameterFactory;
+import org.restcomm.protocols.ss7.isup.impl.message.parameter.ISUPParameterFactoryImpl;
+import org.restcomm.protocols.ss7.isup.message.AddressCompleteMessage;
+import org.restcomm.protocols.ss7.isup.message.ISUPMessage;
+import org.restcomm.protocols.ss7.isup.message.InitialAddressMessage;
+import org.restcomm.protocols.ss7.isup.message.ReleaseMessage;
+import org.restcomm.protocols.ss7.isup.message.parameter.CalledPartyNumber;
+import org.restcomm.protocols.ss7.isup.message.parameter.CallingPartyNumber;
+import org.restcomm.protocols.ss7.isup.message.parameter.CauseIndicators;
+import org.testng.annotations.Test;
+
+/**
+ * Measures creating, encoding and decoding of the messages of a basic call (IAM, ACM, ANM, REL, RLC) created by
+ * ISUPMessageFactoryImpl. encodeToBuffer writes into a preallocated buffer, encode returns a new byte[] as it is done for
+ * outgoing MTP3 messages.
+ *
+ */
+@State(Scope.Thread)
+public class JMHIsupMessageCodecTest {
+
+    private static final int CIC = 17;
+
+    @Param({ "IAM", "ACM", "ANM", "REL", "RLC" })
+    public String messageType;
+
+    ISUPParameterFactory parameterFactory;
+    ISUPMessageFactoryImpl messageFactory;
+    ISUPMessage message;
+    byte[] payload;
+    byte[] buffer = new byte[512];
+
+    @Setup
+    public void doSetup() throws Exception {
+        parameterFactory = new ISUPParameterFactoryImpl();
+        messageFactory = new ISUPMessageFactoryImpl(parameterFactory);
+        message = createMessage();
+        payload = ((AbstractISUPMessage) message).encode();
+    }
+
+    private ISUPMessage createMessage() {
+        if (messageType.equals("IAM")) {
+            InitialAddressMessage iam = messageFactory.createIAM(CIC);
+            iam.setNatureOfConnectionIndicators(parameterFactory.createNatureOfConnectionIndicators());
+            iam.setForwardCallIndicators(parameterFactory.createForwardCallIndicators());
+            iam.setCallingPartCategory(parameterFactory.createCallingPartyCategory());
+            iam.setTransmissionMediumRequirement(parameterFactory.createTransmissionMediumRequirement());
+            CalledPartyNumber cpn = parameterFactory.createCalledPartyNumber();
+            cpn.setAddress("14614577");
+            iam.setCalledPartyNumber(cpn);
+            CallingPartyNumber cgpn = parameterFactory.createCallingPartyNumber();
+            cgpn.setAddress("48602100200");
+            iam.setCallingPartyNumber(cgpn);
+            return iam;
+        } else if (messageType.equals("ACM")) {
+            AddressCompleteMessage acm = messageFactory.createACM(CIC);
+            acm.setBackwardCallIndicators(parameterFactory.createBackwardCallIndicators());
+            return acm;
+        } else if (messageType.equals("ANM")) {
+            return messageFactory.createANM(CIC);
+        } else if (messageType.equals("REL")) {
+            ReleaseMessage rel = messageFactory.createREL(CIC);
+            CauseIndicators cause = parameterFactory.createCauseIndicators();
+            cause.setLocation(CauseIndicators._LOCATION_USER);
+            cause.setCauseValue(CauseIndicators._CV_ALL_CLEAR);
+            rel.setCauseIndicators(cause);
+            return rel;
+        } else {
+            return messageFactory.createRLC(CIC);
+        }
+    }
+
+    @Benchmark
+    public ISUPMessage create() throws Exception {
+        return createMessage();
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return ((AbstractISUPMessage) message).encode();
+    }
+
+    @Benchmark
+    public int encodeToBuffer() throws Exception {
+        return ((ISUPMessageImpl) message).encode(buffer, 0);
+    }
+
+    @Benchmark
+    public ISUPMessage decode() throws Exception {
+        AbstractISUPMessage msg = (AbstractISUPMessage) messageFactory.createCommand(payload[2]);
+        msg.decode(payload, messageFactory, parameterFactory);
+        return msg;
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHIsupMessageCodecTest.class.getSimpleName())
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.AverageTime)
+                .threads(1)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
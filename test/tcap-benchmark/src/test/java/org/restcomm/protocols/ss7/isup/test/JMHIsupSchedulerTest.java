@@ -0,0 +1,220 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.isup.test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.isup.ISUPEvent;
+import org.restcomm.protocols.ss7.isup.ISUPListener;
+import org.restcomm.protocols.ss7.isup.ISUPProvider;
+import org.restcomm.protocols.ss7.isup.ISUPTimeoutEvent;
+import org.restcomm.protocols.ss7.isup.impl.CircuitManagerImpl;
+import org.restcomm.protocols.ss7.isup.impl.ISUPStackImpl;
+import org.restcomm.protocols.ss7.isup.message.AddressCompleteMessage;
+import org.restcomm.protocols.ss7.isup.message.ISUPMessage;
+import org.restcomm.protocols.ss7.isup.message.InitialAddressMessage;
+import org.restcomm.protocols.ss7.isup.message.parameter.CalledPartyNumber;
+import org.restcomm.protocols.ss7.isup.message.parameter.CircuitIdentificationCode;
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
+import org.restcomm.protocols.ss7.mtp.Mtp3UserPartBaseImpl;
+import org.restcomm.protocols.ss7.scheduler.DefaultClock;
+import org.restcomm.protocols.ss7.scheduler.Scheduler;
+import org.restcomm.protocols.ss7.scheduler.SchedulerMode;
+import org.testng.annotations.Test;
+
+/**
+ * Measures the latency of IAM->ACM round trips between two ISUP stacks that are connected back to back for both Scheduler
+ * modes. Every benchmark thread uses its own circuit.
+ *
+ */
+@State(Scope.Benchmark)
+public class JMHIsupSchedulerTest {
+
+    public static final int CIRCUITS = 64;
+    public static final int[] THREAD_COUNTS = new int[] { 1, 16 };
+
+    private static final int OPC = 1;
+    private static final int DPC = 2;
+    private static final int NI = 2;
+
+    @Param({ "Cycle", "EventDriven" })
+    public String schedulerMode;
+
+    Scheduler scheduler;
+    ISUPStackImpl stackA;
+    ISUPStackImpl stackB;
+    LoopbackMtp3UserPart userPartA;
+    LoopbackMtp3UserPart userPartB;
+
+    AtomicReferenceArray<CountDownLatch> pendingAcm = new AtomicReferenceArray<CountDownLatch>(CIRCUITS + 1);
+    AtomicInteger circuitIndex = new AtomicInteger();
+
+    @Setup
+    public void doStart() throws Exception {
+        scheduler = new Scheduler(SchedulerMode.valueOf(schedulerMode));
+        scheduler.setClock(new DefaultClock());
+        scheduler.start();
+
+        userPartA = new LoopbackMtp3UserPart();
+        userPartB = new LoopbackMtp3UserPart();
+        userPartA.peer = userPartB;
+        userPartB.peer = userPartA;
+        userPartA.start();
+        userPartB.start();
+
+        stackA = createStack(userPartA, OPC, DPC);
+        stackB = createStack(userPartB, DPC, OPC);
+
+        // side A: waits for ACM
+        stackA.getIsupProvider().addListener(new ListenerAdapter() {
+            public void onEvent(ISUPEvent event) {
+                if (event.getMessage() instanceof AddressCompleteMessage) {
+                    CountDownLatch latch = pendingAcm.get(event.getMessage().getCircuitIdentificationCode().getCIC());
+                    if (latch != null)
+                        latch.countDown();
+                }
+            }
+        });
+
+        // side B: answers IAM with ACM
+        final ISUPProvider providerB = stackB.getIsupProvider();
+        providerB.addListener(new ListenerAdapter() {
+            public void onEvent(ISUPEvent event) {
+                if (event.getMessage() instanceof InitialAddressMessage) {
+                    AddressCompleteMessage acm = providerB.getMessageFactory().createACM();
+                    acm.setBackwardCallIndicators(providerB.getParameterFactory().createBackwardCallIndicators());
+                    CircuitIdentificationCode cic = providerB.getParameterFactory().createCircuitIdentificationCode();
+                    cic.setCIC(event.getMessage().getCircuitIdentificationCode().getCIC());
+                    acm.setCircuitIdentificationCode(cic);
+                    try {
+                        providerB.sendMessage(acm, OPC);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            }
+        });
+    }
+
+    private ISUPStackImpl createStack(Mtp3UserPartBaseImpl userPart, int localSpc, int remoteSpc) {
+        ISUPStackImpl stack = new ISUPStackImpl(scheduler, localSpc, NI);
+        stack.setMtp3UserPart(userPart);
+        CircuitManagerImpl cm = new CircuitManagerImpl();
+        for (int cic = 1; cic <= CIRCUITS; cic++) {
+            cm.addCircuit(cic, remoteSpc);
+        }
+        stack.setCircuitManager(cm);
+        stack.start();
+        return stack;
+    }
+
+    @TearDown
+    public void doStop() throws Exception {
+        stackA.stop();
+        stackB.stop();
+        userPartA.stop();
+        userPartB.stop();
+        scheduler.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int cic;
+        InitialAddressMessage iam;
+
+        @Setup
+        public void doSetup(JMHIsupSchedulerTest bench) {
+            cic = bench.circuitIndex.incrementAndGet() % CIRCUITS + 1;
+
+            ISUPProvider provider = bench.stackA.getIsupProvider();
+            iam = provider.getMessageFactory().createIAM(cic);
+            iam.setNatureOfConnectionIndicators(provider.getParameterFactory().createNatureOfConnectionIndicators());
+            iam.setForwardCallIndicators(provider.getParameterFactory().createForwardCallIndicators());
+            iam.setCallingPartCategory(provider.getParameterFactory().createCallingPartyCategory());
+            iam.setTransmissionMediumRequirement(provider.getParameterFactory().createTransmissionMediumRequirement());
+            CalledPartyNumber cpn = provider.getParameterFactory().createCalledPartyNumber();
+            cpn.setAddress("14614577");
+            iam.setCalledPartyNumber(cpn);
+        }
+    }
+
+    @Benchmark
+    public boolean iamAcmRoundTrip(ThreadState ts) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        pendingAcm.set(ts.cic, latch);
+        stackA.getIsupProvider().sendMessage(ts.iam, DPC);
+        return latch.await(5, TimeUnit.SECONDS);
+    }
+
+    private static class LoopbackMtp3UserPart extends Mtp3UserPartBaseImpl {
+        private LoopbackMtp3UserPart peer;
+
+        public LoopbackMtp3UserPart() {
+            super(null, null);
+        }
+
+        @Override
+        public void sendMessage(Mtp3TransferPrimitive msg) throws IOException {
+            this.peer.sendTransferMessageToLocalUser(msg, msg.getSls());
+        }
+    }
+
+    private abstract static class ListenerAdapter implements ISUPListener {
+        public void onTimeout(ISUPTimeoutEvent event) {
+        }
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        for (int threads : THREAD_COUNTS) {
+            Options opt = new OptionsBuilder()
+                    .include(JMHIsupSchedulerTest.class.getSimpleName())
+                    .timeUnit(TimeUnit.MICROSECONDS)
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(2))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(5))
+                    .mode(Mode.SampleTime)
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.m3ua.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import javolution.util.FastMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.testng.annotations.Test;
+
+/**
+ * Compares M3UA route resolution with 10k configured routes: string "dpc:opc:si" keys (the former M3UARouteManagement
+ * lookup) against the compiled RouteIndex. Lookups go through all three wildcard tiers.
+ *
+ */
+@State(Scope.Benchmark)
+public class JMHM3uaRouteIndexTest {
+
+    public static final int ROUTES = 10000;
+    public static final int[] THREAD_COUNTS = new int[] { 1, 8 };
+
+    private static final String KEY_SEPARATOR = ":";
+    private static final int WILDCARD = -1;
+
+    RouteMap<String, RouteAsImpl> route;
+    RouteIndex routeIndex;
+
+    int[] dpcs;
+    int[] opcs;
+    int[] sis;
+
+    @Setup
+    public void doStart() {
+        route = new RouteMap<String, RouteAsImpl>();
+        dpcs = new int[ROUTES];
+        opcs = new int[ROUTES];
+        sis = new int[ROUTES];
+        for (int i1 = 0; i1 < ROUTES; i1++) {
+            // one third of routes for each tier
+            int dpc = 1000 + i1;
+            int opc = (i1 % 3 == 2) ? WILDCARD : 100 + i1 % 50;
+            int si = (i1 % 3 == 0) ? 3 : WILDCARD;
+            route.put(dpc + KEY_SEPARATOR + opc + KEY_SEPARATOR + si, new RouteAsImpl());
+
+            dpcs[i1] = dpc;
+            opcs[i1] = 100 + i1 % 50;
+            sis[i1] = 3;
+        }
+        routeIndex = RouteIndex.build(route, KEY_SEPARATOR);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int pos;
+
+        int next() {
+            pos++;
+            if (pos >= ROUTES)
+                pos = 0;
+            return pos;
+        }
+    }
+
+    @Benchmark
+    public RouteAsImpl stringKey(ThreadState ts) {
+        int i1 = ts.next();
+        int dpc = dpcs[i1];
+        int opc = opcs[i1];
+        int si = sis[i1];
+
+        String key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(si))
+                .toString();
+        RouteAsImpl routeAs = route.get(key);
+        if (routeAs == null) {
+            key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(WILDCARD))
+                    .toString();
+            routeAs = route.get(key);
+            if (routeAs == null) {
+                key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(WILDCARD).append(KEY_SEPARATOR)
+                        .append(WILDCARD)).toString();
+                routeAs = route.get(key);
+            }
+        }
+        return routeAs;
+    }
+
+    @Benchmark
+    public RouteAsImpl routeIndex(ThreadState ts) {
+        int i1 = ts.next();
+        int dpc = dpcs[i1];
+        int opc = opcs[i1];
+        int si = sis[i1];
+
+        RouteIndex index = routeIndex;
+        RouteAsImpl routeAs = index.get(dpc, opc, si);
+        if (routeAs == null) {
+            routeAs = index.get(dpc, opc, WILDCARD);
+            if (routeAs == null) {
+                routeAs = index.get(dpc, WILDCARD, WILDCARD);
+            }
+        }
+        return routeAs;
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        for (int threads : THREAD_COUNTS) {
+            Options opt = new OptionsBuilder()
+                    .include(JMHM3uaRouteIndexTest.class.getSimpleName())
+                    .timeUnit(TimeUnit.MICROSECONDS)
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(2))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(5))
+                    .mode(Mode.Throughput)
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+}
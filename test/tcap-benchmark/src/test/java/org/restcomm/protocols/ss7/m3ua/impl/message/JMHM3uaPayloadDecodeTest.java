@@ -0,0 +1,115 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.m3ua.impl.message;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.m3ua.impl.message.transfer.PayloadDataImpl;
+import org.restcomm.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
+import org.restcomm.protocols.ss7.m3ua.message.MessageClass;
+import org.restcomm.protocols.ss7.m3ua.message.MessageType;
+import org.restcomm.protocols.ss7.m3ua.parameter.ProtocolData;
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitive;
+import org.restcomm.protocols.ss7.mtp.Mtp3TransferPrimitiveFactory;
+import org.restcomm.protocols.ss7.mtp.RoutingLabelFormat;
+import org.testng.annotations.Test;
+
+/**
+ * Decoding of a received M3UA DATA message (network appearance, routing context and protocol data) up to the
+ * Mtp3TransferPrimitive that is delivered to MTP3 users. The allocated bytes per MSU are reported by the GC profiler
+ * (gc.alloc.rate.norm).
+ *
+ */
+@State(Scope.Thread)
+public class JMHM3uaPayloadDecodeTest {
+
+    @Param({ "40", "160", "272" })
+    int userDataLength;
+
+    MessageFactoryImpl messageFactory;
+    Mtp3TransferPrimitiveFactory mtp3TransferPrimitiveFactory;
+    ByteBuf message;
+
+    @Setup
+    public void doStart() {
+        messageFactory = new MessageFactoryImpl();
+        mtp3TransferPrimitiveFactory = new Mtp3TransferPrimitiveFactory(RoutingLabelFormat.ITU);
+
+        ParameterFactoryImpl parameterFactory = new ParameterFactoryImpl();
+        PayloadDataImpl payload = (PayloadDataImpl) messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES,
+                MessageType.PAYLOAD);
+        byte[] userData = new byte[userDataLength];
+        for (int i1 = 0; i1 < userData.length; i1++) {
+            userData[i1] = (byte) i1;
+        }
+        payload.setNetworkAppearance(parameterFactory.createNetworkAppearance(102));
+        payload.setRoutingContext(parameterFactory.createRoutingContext(new long[] { 100 }));
+        payload.setData(parameterFactory.createProtocolData(1408, 14150, 3, 2, 0, 5, userData));
+        message = Unpooled.buffer();
+        payload.encode(message);
+    }
+
+    @Benchmark
+    public Mtp3TransferPrimitive decodePayload(Blackhole bh) {
+        message.readerIndex(0);
+        PayloadDataImpl payload = (PayloadDataImpl) messageFactory.createMessage(message);
+
+        bh.consume(payload.getRoutingContext().getRoutingContexts()[0]);
+        ProtocolData protocolData = payload.getData();
+        return mtp3TransferPrimitiveFactory.createMtp3TransferPrimitive(protocolData.getSI(), protocolData.getNI(),
+                protocolData.getMP(), protocolData.getOpc(), protocolData.getDpc(), protocolData.getSLS(),
+                protocolData.getData());
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHM3uaPayloadDecodeTest.class.getSimpleName())
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.AverageTime)
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
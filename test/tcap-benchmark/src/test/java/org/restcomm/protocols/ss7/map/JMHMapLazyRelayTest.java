@@ -0,0 +1,177 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.map.api.MAPException;
+import org.restcomm.protocols.ss7.map.api.MAPParsingComponentException;
+import org.restcomm.protocols.ss7.map.api.primitives.AddressNature;
+import org.restcomm.protocols.ss7.map.api.primitives.MAPPrivateExtension;
+import org.restcomm.protocols.ss7.map.api.primitives.NumberingPlan;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.BearerServiceCodeValue;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.ExtBearerServiceCode;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.ExtTeleserviceCode;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.NetworkAccessMode;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.SubscriberStatus;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.TeleserviceCodeValue;
+import org.restcomm.protocols.ss7.map.api.service.mobility.subscriberManagement.ZoneCode;
+import org.restcomm.protocols.ss7.map.api.service.sms.SM_RP_MTI;
+import org.restcomm.protocols.ss7.map.primitives.IMSIImpl;
+import org.restcomm.protocols.ss7.map.primitives.ISDNAddressStringImpl;
+import org.restcomm.protocols.ss7.map.primitives.MAPAsnPrimitive;
+import org.restcomm.protocols.ss7.map.primitives.MAPExtensionContainerImpl;
+import org.restcomm.protocols.ss7.map.primitives.MAPPrivateExtensionImpl;
+import org.restcomm.protocols.ss7.map.service.mobility.subscriberManagement.CategoryImpl;
+import org.restcomm.protocols.ss7.map.service.mobility.subscriberManagement.ChargingCharacteristicsImpl;
+import org.restcomm.protocols.ss7.map.service.mobility.subscriberManagement.ExtBearerServiceCodeImpl;
+import org.restcomm.protocols.ss7.map.service.mobility.subscriberManagement.ExtTeleserviceCodeImpl;
+import org.restcomm.protocols.ss7.map.service.mobility.subscriberManagement.InsertSubscriberDataRequestImpl;
+import org.restcomm.protocols.ss7.map.service.mobility.subscriberManagement.ZoneCodeImpl;
+import org.restcomm.protocols.ss7.map.service.sms.SendRoutingInfoForSMRequestImpl;
+import org.testng.annotations.Test;
+
+/**
+ * A relay (STP / signalling router like) handling of received InsertSubscriberDataRequest and SendRoutingInfoForSMRequest:
+ * the parameter is decoded, the routing field (IMSI / MSISDN) is read and the parameter is encoded for the outgoing
+ * dialog. "eager" decodes the whole parameter and encodes it again, "lazy" decodes only the routing field element and
+ * forwards the received parameter.
+ */
+@State(Scope.Thread)
+public class JMHMapLazyRelayTest {
+
+    @Param({ "insertSubscriberData", "sendRoutingInfoForSM" })
+    public String messageType;
+
+    @Param({ "eager", "lazy" })
+    public String decodingMode;
+
+    byte[] parameterData;
+    boolean lazy;
+
+    @Setup
+    public void doSetup() throws MAPException {
+        lazy = decodingMode.equals("lazy");
+
+        ArrayList<MAPPrivateExtension> privateExtensions = new ArrayList<MAPPrivateExtension>();
+        privateExtensions.add(new MAPPrivateExtensionImpl(new long[] { 1, 2, 840, 10045, 3 }, new byte[] { 1, 2, 3, 4, 5, 6,
+                7, 8, 9, 10, 11, 12, 13, 14, 15, 16 }));
+        MAPExtensionContainerImpl extensionContainer = new MAPExtensionContainerImpl(privateExtensions, null);
+
+        MAPAsnPrimitive message;
+        if (messageType.equals("insertSubscriberData")) {
+            ArrayList<ExtBearerServiceCode> bearerServiceList = new ArrayList<ExtBearerServiceCode>();
+            bearerServiceList.add(new ExtBearerServiceCodeImpl(BearerServiceCodeValue.allDataCDAServices));
+            bearerServiceList.add(new ExtBearerServiceCodeImpl(BearerServiceCodeValue.allAsynchronousServices));
+            ArrayList<ExtTeleserviceCode> teleserviceList = new ArrayList<ExtTeleserviceCode>();
+            teleserviceList.add(new ExtTeleserviceCodeImpl(TeleserviceCodeValue.telephony));
+            teleserviceList.add(new ExtTeleserviceCodeImpl(TeleserviceCodeValue.emergencyCalls));
+            teleserviceList.add(new ExtTeleserviceCodeImpl(TeleserviceCodeValue.shortMessageMT_PP));
+            teleserviceList.add(new ExtTeleserviceCodeImpl(TeleserviceCodeValue.shortMessageMO_PP));
+            teleserviceList.add(new ExtTeleserviceCodeImpl(TeleserviceCodeValue.automaticFacsimileGroup3));
+            ArrayList<ZoneCode> regionalSubscriptionData = new ArrayList<ZoneCode>();
+            for (int i1 = 1; i1 <= 10; i1++) {
+                regionalSubscriptionData.add(new ZoneCodeImpl(i1 * 100));
+            }
+
+            message = new InsertSubscriberDataRequestImpl(3, new IMSIImpl("250991357999999"), new ISDNAddressStringImpl(
+                    AddressNature.international_number, NumberingPlan.ISDN, "79273605819"), new CategoryImpl(10),
+                    SubscriberStatus.serviceGranted, bearerServiceList, teleserviceList, null, null, false,
+                    regionalSubscriptionData, null, null, null, extensionContainer, null, null, false,
+                    NetworkAccessMode.packetAndCircuit, null, false, null, 20, null, null, null, null,
+                    new ChargingCharacteristicsImpl(false, true, false, false), null, true, null, null, false,
+                    new ISDNAddressStringImpl(AddressNature.international_number, NumberingPlan.ISDN, "79273600000"), null,
+                    3240L, false, true, 3240L);
+        } else {
+            message = new SendRoutingInfoForSMRequestImpl(new ISDNAddressStringImpl(AddressNature.international_number,
+                    NumberingPlan.ISDN, "79273605819"), true, new ISDNAddressStringImpl(AddressNature.international_number,
+                    NumberingPlan.ISDN, "79273600001"), extensionContainer, true, SM_RP_MTI.SMS_Deliver, null, null, true,
+                    null, false, false, null, null);
+        }
+
+        AsnOutputStream aos = new AsnOutputStream();
+        message.encodeData(aos);
+        parameterData = aos.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] relay() throws MAPException, MAPParsingComponentException {
+        String routingKey;
+        MAPAsnPrimitive message;
+        if (messageType.equals("insertSubscriberData")) {
+            InsertSubscriberDataRequestImpl ind = new InsertSubscriberDataRequestImpl(3);
+            this.decode(ind, ind);
+            routingKey = ind.getImsi().getData();
+            message = ind;
+        } else {
+            SendRoutingInfoForSMRequestImpl ind = new SendRoutingInfoForSMRequestImpl();
+            this.decode(ind, ind);
+            routingKey = ind.getMsisdn().getAddress();
+            message = ind;
+        }
+        if (routingKey == null)
+            return null;
+
+        AsnOutputStream aos = new AsnOutputStream();
+        message.encodeData(aos);
+        return aos.toByteArray();
+    }
+
+    private void decode(MessageImpl message, MAPAsnPrimitive primitive) throws MAPParsingComponentException {
+        if (lazy) {
+            message.decodeDataLazy(parameterData);
+        } else {
+            primitive.decodeData(new AsnInputStream(parameterData), parameterData.length);
+        }
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHMapLazyRelayTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(1)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.datacoding;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.map.api.MAPException;
+import org.restcomm.protocols.ss7.map.api.smstpdu.DataCodingScheme;
+import org.restcomm.protocols.ss7.map.smstpdu.DataCodingSchemeImpl;
+import org.restcomm.protocols.ss7.map.smstpdu.UserDataImpl;
+import org.testng.annotations.Test;
+
+/**
+ * SMS user data encoding and decoding: plain latin GSM7 text, GSM7 text with extension table chars and a text that
+ * can not be encoded by GSM7 and is sent as UCS2. "charsetEncoder" encodes the same text by GSMCharsetEncoder (the path
+ * that UserDataImpl used before).
+ *
+ */
+@State(Scope.Thread)
+public class JMHGsm7CodecTest {
+
+    private static final String LATIN = "Your verification code is 734126. It expires in 10 minutes, do not share it with anyone.";
+    private static final String EXTENSION = "Balance: 12.50 € [bonus {3}] ~ use *100# | help: ^info\\ or visit web";
+    private static final String UCS2 = "Ваш код подтверждения 734126, не сообщайте его";
+
+    @Param({ "latin", "extension", "ucs2" })
+    public String messageType;
+
+    String text;
+    DataCodingScheme dcs;
+    GSMCharset gsm7Charset;
+    byte[] encodedData;
+    int encodedLength;
+
+    @Setup
+    public void doSetup() throws MAPException {
+        if (messageType.equals("latin")) {
+            text = LATIN;
+            dcs = new DataCodingSchemeImpl(0);
+        } else if (messageType.equals("extension")) {
+            text = EXTENSION;
+            dcs = new DataCodingSchemeImpl(0);
+        } else {
+            text = UCS2;
+            dcs = new DataCodingSchemeImpl(8);
+        }
+        gsm7Charset = new GSMCharset("GSM", new String[] {});
+
+        UserDataImpl ud = new UserDataImpl(text, dcs, null, null);
+        ud.encode();
+        encodedData = ud.getEncodedData();
+        encodedLength = ud.getEncodedUserDataLength();
+    }
+
+    @Benchmark
+    public byte[] userDataEncode() throws MAPException {
+        UserDataImpl ud = new UserDataImpl(text, dcs, null, null);
+        ud.encode();
+        return ud.getEncodedData();
+    }
+
+    @Benchmark
+    public String userDataDecode() throws MAPException {
+        UserDataImpl ud = new UserDataImpl(encodedData, dcs, encodedLength, false, null);
+        ud.decode();
+        return ud.getDecodedMessage();
+    }
+
+    @Benchmark
+    public ByteBuffer charsetEncoder() throws CharacterCodingException {
+        GSMCharsetEncoder encoder = (GSMCharsetEncoder) gsm7Charset.newEncoder();
+        encoder.setGSMCharsetEncodingData(new GSMCharsetEncodingData(Gsm7EncodingStyle.bit7_sms_style, null));
+        return encoder.encode(CharBuffer.wrap(text));
+    }
+
+    @Benchmark
+    public boolean checkAllCharsCanBeEncoded() {
+        return gsm7Charset.checkAllCharsCanBeEncoded(text);
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHGsm7CodecTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(1)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.map.primitives;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.map.api.MAPException;
+import org.restcomm.protocols.ss7.map.api.MAPParsingComponentException;
+import org.restcomm.protocols.ss7.map.api.primitives.AddressNature;
+import org.restcomm.protocols.ss7.map.api.primitives.NumberingPlan;
+import org.restcomm.protocols.ss7.utils.DigitString;
+import org.testng.annotations.Test;
+
+/**
+ * Relay like handling of a received MSISDN and IMSI: both are decoded, checked against a routing prefix and encoded
+ * again. "string" reads digits by getAddress() / getData(), "digitString" works with the packed digits only.
+ */
+@State(Scope.Thread)
+public class JMHMapAddressStringTest {
+
+    @Param({ "string", "digitString" })
+    public String accessMode;
+
+    byte[] msisdnData;
+    byte[] imsiData;
+    boolean packed;
+    DigitString msisdnPrefix;
+    DigitString imsiPrefix;
+
+    @Setup
+    public void doSetup() throws MAPException {
+        packed = accessMode.equals("digitString");
+        msisdnPrefix = DigitString.valueOfTbcd("7927");
+        imsiPrefix = DigitString.valueOfTbcd("25099");
+
+        AsnOutputStream aos = new AsnOutputStream();
+        new ISDNAddressStringImpl(AddressNature.international_number, NumberingPlan.ISDN, "79273605819").encodeData(aos);
+        msisdnData = aos.toByteArray();
+        aos = new AsnOutputStream();
+        new IMSIImpl("250991357999999").encodeData(aos);
+        imsiData = aos.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] relay() throws MAPException, MAPParsingComponentException {
+        ISDNAddressStringImpl msisdn = new ISDNAddressStringImpl();
+        msisdn.decodeData(new AsnInputStream(msisdnData), msisdnData.length);
+        IMSIImpl imsi = new IMSIImpl();
+        imsi.decodeData(new AsnInputStream(imsiData), imsiData.length);
+
+        boolean matched;
+        if (packed) {
+            matched = msisdn.getDigitString().startsWith(msisdnPrefix) && imsi.getDigitString().startsWith(imsiPrefix);
+        } else {
+            matched = msisdn.getAddress().startsWith("7927") && imsi.getData().startsWith("25099");
+        }
+        if (!matched)
+            return null;
+
+        AsnOutputStream aos = new AsnOutputStream();
+        msisdn.encodeData(aos);
+        imsi.encodeData(aos);
+        return aos.toByteArray();
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHMapAddressStringTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.Throughput)
+                .threads(1)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
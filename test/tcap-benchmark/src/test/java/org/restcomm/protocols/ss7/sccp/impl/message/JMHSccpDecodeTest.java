@@ -0,0 +1,164 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.indicator.NatureOfAddress;
+import org.restcomm.protocols.ss7.indicator.NumberingPlan;
+import org.restcomm.protocols.ss7.indicator.RoutingIndicator;
+import org.restcomm.protocols.ss7.sccp.SccpProtocolVersion;
+import org.restcomm.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.BCDOddEncodingScheme;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.GlobalTitle0100Impl;
+import org.restcomm.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.restcomm.protocols.ss7.sccp.message.SccpMessage;
+import org.testng.annotations.Test;
+
+/**
+ * Compares decoding of incoming UDT / XUDT / LUDT messages via InputStream (the former SccpStackImpl path) with the
+ * decoding directly from the MTP3 payload array. Both called and calling party addresses carry GT0100 with E.164 digits.
+ *
+ */
+@State(Scope.Thread)
+public class JMHSccpDecodeTest {
+
+    @Param({ "UDT", "XUDT", "LUDT" })
+    public String messageType;
+
+    MessageFactoryImpl messageFactory;
+    byte[] payload;
+
+    @Setup
+    public void doSetup() throws Exception {
+        SccpStackImpl stack = new SccpStackImpl("JMHSccpDecodeTest", null);
+        messageFactory = new MessageFactoryImpl(stack);
+
+        byte[] cdp = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, new GlobalTitle0100Impl("2348030000480", 0,
+                BCDOddEncodingScheme.INSTANCE, NumberingPlan.ISDN_TELEPHONY, NatureOfAddress.INTERNATIONAL), 0, 6).encode(false,
+                SccpProtocolVersion.ITU);
+        byte[] cnp = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, new GlobalTitle0100Impl("2348030008180", 0,
+                BCDOddEncodingScheme.INSTANCE, NumberingPlan.ISDN_TELEPHONY, NatureOfAddress.INTERNATIONAL), 0, 8).encode(false,
+                SccpProtocolVersion.ITU);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (messageType.equals("UDT")) {
+            byte[] data = new byte[160];
+            out.write(SccpMessage.MESSAGE_TYPE_UDT);
+            out.write(0x81);
+            // a pointer is the offset from the pointer octet
+            out.write(3);
+            out.write(2 + 1 + cdp.length);
+            out.write(1 + 1 + cdp.length + 1 + cnp.length);
+            out.write(cdp.length);
+            out.write(cdp);
+            out.write(cnp.length);
+            out.write(cnp);
+            out.write(data.length);
+            out.write(data);
+        } else if (messageType.equals("XUDT")) {
+            byte[] data = new byte[200];
+            out.write(SccpMessage.MESSAGE_TYPE_XUDT);
+            out.write(0x81);
+            out.write(15);
+            out.write(4);
+            out.write(3 + 1 + cdp.length);
+            out.write(2 + 1 + cdp.length + 1 + cnp.length);
+            out.write(1 + 1 + cdp.length + 1 + cnp.length + 1 + data.length);
+            out.write(cdp.length);
+            out.write(cdp);
+            out.write(cnp.length);
+            out.write(cnp);
+            out.write(data.length);
+            out.write(data);
+            // segmentation + importance
+            out.write(new byte[] { 16, 4, (byte) 0xc1, 100, 0, 0, 18, 1, 7, 0 });
+        } else {
+            byte[] data = new byte[1000];
+            out.write(SccpMessage.MESSAGE_TYPE_LUDT);
+            out.write(0x81);
+            out.write(15);
+            int p = 7;
+            out.write(p & 0xff);
+            out.write(p >> 8);
+            p += cdp.length - 1;
+            out.write(p & 0xff);
+            out.write(p >> 8);
+            p += cnp.length - 1;
+            out.write(p & 0xff);
+            out.write(p >> 8);
+            out.write(0);
+            out.write(0);
+            out.write(cdp.length);
+            out.write(cdp);
+            out.write(cnp.length);
+            out.write(cnp);
+            out.write(data.length & 0xff);
+            out.write(data.length >> 8);
+            out.write(data);
+        }
+        payload = out.toByteArray();
+    }
+
+    @Benchmark
+    public SccpMessageImpl streamDecode() throws Exception {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int mt = in.readUnsignedByte();
+        return messageFactory.createMessage(mt, 1, 2, 0, in, SccpProtocolVersion.ITU, 0);
+    }
+
+    @Benchmark
+    public SccpMessageImpl arrayDecode() throws Exception {
+        return messageFactory.createMessage(payload[0] & 0xff, 1, 2, 0, payload, 1, payload.length - 1, SccpProtocolVersion.ITU, 0);
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHSccpDecodeTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.AverageTime)
+                .threads(1)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.sccp.impl.router;
+
+import java.util.concurrent.TimeUnit;
+
+import javolution.util.FastMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+import org.testng.annotations.Test;
+
+/**
+ * Compares the SAP selection for outgoing messages (dpc, sls, networkId) by the walk of all SAPs and their destinations
+ * (the former RouterImpl lookup) against Mtp3ServiceAccessPointIndex. Every SAP has two destinations (SLS halves of its
+ * own DPC range), lookups go over DPCs of all SAPs.
+ *
+ */
+@State(Scope.Thread)
+public class JMHSccpSapIndexTest {
+
+    @Param({ "1", "50", "500" })
+    public int sapCount;
+
+    Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps;
+    Mtp3ServiceAccessPointIndex sapIndex;
+
+    int[] dpcs;
+    int pos;
+
+    @Setup
+    public void doSetup() throws Exception {
+        saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+        for (int i1 = 0; i1 < sapCount; i1++) {
+            Mtp3ServiceAccessPointImpl sap = new Mtp3ServiceAccessPointImpl(1, 1, 2, "Test", 0, null);
+            int firstDpc = 1000 + i1 * 10;
+            sap.addMtp3Destination(1, firstDpc, firstDpc + 9, 0, 7, 15);
+            sap.addMtp3Destination(2, firstDpc, firstDpc + 9, 8, 15, 15);
+            saps.put(i1, sap);
+        }
+        sapIndex = new Mtp3ServiceAccessPointIndex(saps);
+
+        dpcs = new int[1024];
+        for (int i1 = 0; i1 < dpcs.length; i1++) {
+            dpcs[i1] = 1000 + (i1 * 7919) % (sapCount * 10);
+        }
+    }
+
+    private int nextDpc() {
+        pos = (pos + 1) & (dpcs.length - 1);
+        return dpcs[pos];
+    }
+
+    @Benchmark
+    public Mtp3ServiceAccessPoint linearWalk() {
+        int dpc = nextDpc();
+        int sls = pos & 0x0F;
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
+            Mtp3ServiceAccessPoint sap = e.getValue();
+            if (sap.matches(dpc, sls)) {
+                if (sap.getNetworkId() == 0) {
+                    return sap;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Mtp3ServiceAccessPoint sapIndex() {
+        int dpc = nextDpc();
+        int sls = pos & 0x0F;
+        return sapIndex.findMtp3ServiceAccessPoint(dpc, sls, 0);
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHSccpSapIndexTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(2))
+                .measurementIterations(5)
+                .measurementTime(TimeValue.seconds(5))
+                .mode(Mode.AverageTime)
+                .threads(1)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
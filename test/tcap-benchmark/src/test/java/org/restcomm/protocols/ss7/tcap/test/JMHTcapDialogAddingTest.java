@@ -13,6 +13,7 @@ import org.restcomm.protocols.ss7.tcap.api.tc.dialog.Dialog;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -28,6 +29,13 @@ import org.testng.annotations.Test;
 @State(Scope.Benchmark)
 public class JMHTcapDialogAddingTest {
 
+    public static final int MAX_DIALOGS = 100000;
+    public static final int[] THREAD_COUNTS = new int[] { 8, 16, 32, 64 };
+
+    // percent of maxDialogs that are occupied by long living dialogs during the measurement
+    @Param({ "10", "50", "95" })
+    public int occupancy;
+
     TCAPStackImpl stack;
     TCAPProvider provider;
     SccpAddress sccpAddress = new SccpAddressImpl();
@@ -56,11 +64,12 @@ public class JMHTcapDialogAddingTest {
         stack = new TCAPStackImpl("Test_Benchmark", sccpProvider, 8);
 
         stack.start();
-        stack.setMaxDialogs(1000000);
+        stack.setMaxDialogs(MAX_DIALOGS + THREAD_COUNTS[THREAD_COUNTS.length - 1]);
         provider = stack.getProvider();
 
-        // adding of initial 10000 dialogs
-        for (int i1 = 0; i1 < 100000; i1++) {
+        // adding of initial dialogs up to the occupancy level
+        int initialDialogs = MAX_DIALOGS * occupancy / 100;
+        for (int i1 = 0; i1 < initialDialogs; i1++) {
             provider.getNewDialog(sccpAddress, sccpAddress);
         }
     }
@@ -88,21 +97,23 @@ public class JMHTcapDialogAddingTest {
 
     @Test
     public void launchBenchmark() throws Exception {
-        Options opt = new OptionsBuilder()
-                // Specify which benchmarks to run.
-                // You can be more specific if you'd like to run only one benchmark per test.
-                .include(JMHTcapDialogAddingTest.class.getSimpleName())
-                // Set the following options as needed
-                .timeUnit(TimeUnit.MICROSECONDS)
-                .warmupIterations(0)
-                .measurementIterations(5)
-                .measurementTime(TimeValue.seconds(5))
-                .mode(Mode.Throughput)
-                .threads(20)
-                .forks(1)
-                .build();
-
-        new Runner(opt).run();
+        for (int threads : THREAD_COUNTS) {
+            Options opt = new OptionsBuilder()
+                    // Specify which benchmarks to run.
+                    // You can be more specific if you'd like to run only one benchmark per test.
+                    .include(JMHTcapDialogAddingTest.class.getSimpleName())
+                    // Set the following options as needed
+                    .timeUnit(TimeUnit.MICROSECONDS)
+                    .warmupIterations(0)
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(5))
+                    .mode(Mode.Throughput)
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
 
 //        .shouldFailOnError(true)
 //        .shouldDoGC(true)
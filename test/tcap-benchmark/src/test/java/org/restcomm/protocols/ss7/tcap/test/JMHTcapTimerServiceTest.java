@@ -0,0 +1,127 @@
+package org.restcomm.protocols.ss7.tcap.test;
+
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.restcomm.protocols.ss7.tcap.TimerServiceType;
+import org.restcomm.protocols.ss7.tcap.timers.ExecutorTimerService;
+import org.restcomm.protocols.ss7.tcap.timers.HashedWheelTimerService;
+import org.restcomm.protocols.ss7.tcap.timers.TimerService;
+import org.restcomm.protocols.ss7.tcap.timers.TimerTask;
+import org.testng.annotations.Test;
+
+/**
+ * Compares TimerService implementations for the dialog idle timer usage pattern: a large number of live timers that are
+ * restarted on every message and cancelled when a dialog is released.
+ *
+ */
+@State(Scope.Benchmark)
+public class JMHTcapTimerServiceTest {
+
+    public static final int LIVE_TIMERS = 100000;
+    public static final int[] THREAD_COUNTS = new int[] { 1, 8, 32 };
+    public static final long IDLE_TIMEOUT = 60000;
+
+    @Param({ "Executor", "HashedWheel" })
+    public String timerServiceType;
+
+    ScheduledThreadPoolExecutor executor;
+    TimerService timerService;
+    TimerTask[] tasks;
+    AtomicInteger threadIndex = new AtomicInteger();
+
+    @Setup
+    public void doStart() {
+        executor = new ScheduledThreadPoolExecutor(4);
+        if (TimerServiceType.valueOf(timerServiceType) == TimerServiceType.HashedWheel)
+            timerService = new HashedWheelTimerService(executor);
+        else
+            timerService = new ExecutorTimerService(executor);
+        timerService.start();
+
+        tasks = new TimerTask[LIVE_TIMERS];
+        for (int i1 = 0; i1 < LIVE_TIMERS; i1++) {
+            tasks[i1] = new IdleTask();
+            timerService.schedule(tasks[i1], IDLE_TIMEOUT);
+        }
+    }
+
+    @TearDown
+    public void doStop() {
+        timerService.stop();
+        executor.shutdownNow();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        int pos;
+
+        @Setup
+        public void doSetup(JMHTcapTimerServiceTest bench) {
+            // every thread walks over its own part of the live timers
+            int idx = bench.threadIndex.getAndIncrement();
+            pos = (idx * 7919) % LIVE_TIMERS;
+        }
+
+        TimerTask next(TimerTask[] tasks) {
+            pos++;
+            if (pos >= tasks.length)
+                pos = 0;
+            return tasks[pos];
+        }
+    }
+
+    /**
+     * restartIdleTimer() of a live dialog
+     */
+    @Benchmark
+    public void restart(ThreadState ts) {
+        timerService.schedule(ts.next(tasks), IDLE_TIMEOUT);
+    }
+
+    /**
+     * a short dialog: the idle timer is started and cancelled when the dialog is released
+     */
+    @Benchmark
+    public void scheduleCancel() {
+        TimerTask task = new IdleTask();
+        timerService.schedule(task, IDLE_TIMEOUT);
+        timerService.cancel(task);
+    }
+
+    private static class IdleTask extends TimerTask {
+        public void run() {
+        }
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        for (int threads : THREAD_COUNTS) {
+            Options opt = new OptionsBuilder()
+                    .include(JMHTcapTimerServiceTest.class.getSimpleName())
+                    .timeUnit(TimeUnit.MICROSECONDS)
+                    .warmupIterations(2)
+                    .warmupTime(TimeValue.seconds(2))
+                    .measurementIterations(5)
+                    .measurementTime(TimeValue.seconds(5))
+                    .mode(Mode.Throughput)
+                    .threads(threads)
+                    .forks(1)
+                    .build();
+
+            new Runner(opt).run();
+        }
+    }
+}
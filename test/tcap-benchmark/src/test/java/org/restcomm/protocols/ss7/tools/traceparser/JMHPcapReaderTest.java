@@ -0,0 +1,139 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tools.traceparser;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Reading of a synthetic multi-GB LIBPCAP capture (Ethernet, SCTP, M3UA DATA with SCCP UDT) by the sequential and the
+ * memory-mapped Pcap drivers. One invocation reads the whole file, the throughput is fileSizeMb divided by the time. The
+ * capture is written into java.io.tmpdir once per trial.
+ *
+ */
+@State(Scope.Benchmark)
+public class JMHPcapReaderTest {
+
+    @Param({ "2048" })
+    long fileSizeMb;
+
+    @Param({ "sequential", "mapped" })
+    String driver;
+
+    File file;
+
+    @Setup(Level.Trial)
+    public void doStart() throws Exception {
+        List<SyntheticCapture.Packet> packets = new ArrayList<SyntheticCapture.Packet>();
+        for (int i1 = 0; i1 < 4096; i1++) {
+            int cnt = 1 + i1 % 3;
+            byte[][] m3ua = new byte[cnt][];
+            for (int i2 = 0; i2 < cnt; i2++) {
+                byte[] tcap = i1 % 2 == 0 ? SyntheticCapture.tcBegin(i1) : SyntheticCapture.tcContinue(i1, i1 + 1);
+                byte[] data = new byte[tcap.length + (i1 * 7 + i2 * 31) % 160];
+                System.arraycopy(tcap, 0, data, 0, tcap.length);
+                m3ua[i2] = SyntheticCapture.m3uaData(1, 2, i1 & 0x0F, SyntheticCapture.sccpUdt(6, 8, data));
+            }
+            packets.add(SyntheticCapture.ethernet(SyntheticCapture.ipSctp(m3ua)));
+        }
+
+        file = File.createTempFile("JMHPcapReaderTest", ".pcap");
+        SyntheticCapture.writeLibPcap(file, packets, fileSizeMb * 1024 * 1024);
+    }
+
+    @TearDown(Level.Trial)
+    public void doStop() {
+        file.delete();
+    }
+
+    @Benchmark
+    public long readFile() throws Exception {
+        TraceReaderDriver reader;
+        if (driver.equals("mapped"))
+            reader = new TraceReaderDriverPcapMapped(new Control(), file.getPath());
+        else
+            reader = new TraceReaderDriverPcap(new Control(), file.getPath());
+        Counter counter = new Counter();
+        reader.addTraceListener(counter);
+        reader.startTraceFile();
+        return counter.bytes;
+    }
+
+    private static class Counter implements TraceReaderListener {
+        private long bytes;
+
+        public void ss7Message(int si, int ni, int priority, int opc, int dpc, int sls, byte[] data) {
+            bytes += data.length;
+        }
+    }
+
+    private static class Control implements ProcessControl {
+        public boolean isFinished() {
+            return false;
+        }
+
+        public String getErrorMessage() {
+            return null;
+        }
+
+        public void interrupt() {
+        }
+
+        public boolean checkNeedInterrupt() {
+            return false;
+        }
+
+        public int getMsgCount() {
+            return 0;
+        }
+    }
+
+    @Test
+    public void launchBenchmark() throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(JMHPcapReaderTest.class.getSimpleName())
+                .timeUnit(TimeUnit.MILLISECONDS)
+                .warmupIterations(1)
+                .measurementIterations(3)
+                .mode(Mode.SingleShotTime)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
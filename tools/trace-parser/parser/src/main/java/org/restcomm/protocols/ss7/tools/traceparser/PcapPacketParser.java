@@ -0,0 +1,212 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tools.traceparser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ *
+ * Link (Ethernet, Linux cooked, MTP3), IPv4, SCTP and M3UA levels of a captured packet. The packet is a range of a buffer, so
+ * it may be a byte array of a sequential reader or a part of a memory-mapped file. SS7 messages that are found in the packet
+ * are passed to listeners.
+ *
+ * Single bytes are read by absolute indexes, the buffer position is used only for copying of message payloads, so a buffer
+ * must not be shared between threads (use {@link ByteBuffer#duplicate()}).
+ *
+ */
+public class PcapPacketParser {
+
+    public static void parsePacket(ByteBuffer buf, int base, int len, int network, ArrayList<TraceReaderListener> listeners)
+            throws TraceReaderException {
+
+        switch (network) {
+            case 1: // DLT_EN10MB
+                // check the min possible length
+                if (len < 34)
+                    return;
+                // Ethernet II level
+                if (u8(buf, base, len, 12) != 8 || u8(buf, base, len, 13) != 0) {
+                    // this is not IP protocol - return
+                    return;
+                }
+                parseIpV4Packet(buf, base + 14, len - 14, listeners);
+                break;
+
+            case 113: // DLT_LINUX_SLL
+                // check the min possible length
+                if (len < 36)
+                    return;
+                // Ethernet II level
+                if (u8(buf, base, len, 14) != 8 || u8(buf, base, len, 15) != 0) {
+                    // this is not IP protocol - return
+                    return;
+                }
+                parseIpV4Packet(buf, base + 16, len - 16, listeners);
+                break;
+
+            case 141: // DLT_MTP3
+                // check the min possible length
+                if (len < 5)
+                    return;
+                byte[] bufMsg = new byte[len + 3];
+                bufMsg[2] = 63;
+                copy(buf, base, bufMsg, 3, len);
+                TraceParserUtil.parceLegacyMtp3(bufMsg, listeners);
+                break;
+        }
+    }
+
+    private static void parseIpV4Packet(ByteBuffer buf, int base, int len, ArrayList<TraceReaderListener> listeners)
+            throws TraceReaderException {
+
+        // IP protocol level
+        int version = (u8(buf, base, len, 0) & 0xF0) >> 4;
+        int ipHeaderLen = (u8(buf, base, len, 0) & 0x0F) * 4;
+        if (version != 4) {
+            // TODO: add support for IP V6
+            return;
+        }
+        if (u8(buf, base, len, 9) != 132) { // 132 == SCTP protocol
+            // TODO: add support for TCP protocol
+            return;
+        }
+
+        // SCTP - skip SCTP header
+        int startSctpBlock = ipHeaderLen + 12;
+        while (true) {
+            // check if else sctp block exists
+            if (len < startSctpBlock + 4)
+                break;
+
+            int blockType = u8(buf, base, len, startSctpBlock);
+            int blockLen = u16(buf, base, len, startSctpBlock + 2);
+            if (blockLen == 0)
+                break;
+            if (len < startSctpBlock + blockLen)
+                break;
+
+            if (blockType == 0 && blockLen > 16) {
+                // for m3ua blockType==0
+                parseM3uaPacket(buf, base + startSctpBlock + 16, blockLen - 16, listeners);
+            }
+
+            int suff = blockLen % 4;
+            if (suff > 0)
+                blockLen += 4 - suff;
+            startSctpBlock += blockLen;
+        }
+    }
+
+    private static void parseM3uaPacket(ByteBuffer buf, int base, int len, ArrayList<TraceReaderListener> listeners)
+            throws TraceReaderException {
+
+        if (len < 8)
+            return;
+
+        int messageClass = u8(buf, base, len, 2);
+        int messageType = u8(buf, base, len, 3);
+        int msgLen = int32(buf, base, len, 4);
+        if (len < msgLen)
+            return;
+
+        if (messageClass == 1 && messageType == 1) { // parse only transfer message - payload data
+            int pos = 8;
+            int protocolDataPos = -1;
+            int protocolDataLen = 0;
+            while (true) {
+                if (pos + 4 > msgLen)
+                    break;
+                int parLen = u16(buf, base, len, pos + 2);
+                if (pos + parLen > msgLen)
+                    break;
+
+                if (u8(buf, base, len, pos) == 0x02 && u8(buf, base, len, pos + 1) == 0x10) {
+                    // Protocol Data
+                    if (parLen < 4)
+                        throw new TraceReaderException("Bad M3UA Protocol Data parameter length: " + parLen);
+                    protocolDataPos = pos + 4;
+                    protocolDataLen = parLen - 4;
+                }
+
+                int parLen2 = ((parLen - 1) / 4) * 4 + 4;
+                pos += parLen2;
+            }
+
+            if (protocolDataPos >= 0)
+                parseM3uaProtocolData(buf, base + protocolDataPos, protocolDataLen, listeners);
+
+        } else if (messageClass == 6 && messageType == 1) {
+            int len2 = u16(buf, base, len, 18);
+            if (len2 < 4)
+                throw new TraceReaderException("Bad M3UA legacy MTP3 parameter length: " + len2);
+            if (20 + len2 - 4 > len)
+                throw new ArrayIndexOutOfBoundsException(20 + len2 - 4);
+            byte[] protocolData = new byte[len2 - 4 + 3];
+            protocolData[2] = 63;
+            copy(buf, base + 20, protocolData, 3, len2 - 4);
+            TraceParserUtil.parceLegacyMtp3(protocolData, listeners);
+        }
+    }
+
+    private static void parseM3uaProtocolData(ByteBuffer buf, int base, int len, ArrayList<TraceReaderListener> listeners)
+            throws TraceReaderException {
+
+        if (len < 14)
+            return;
+
+        int opc = int32(buf, base, len, 0);
+        int dpc = int32(buf, base, len, 4);
+        int si = u8(buf, base, len, 8);
+        int ni = u8(buf, base, len, 9);
+        int sls = u8(buf, base, len, 11);
+
+        byte[] bufMsg = new byte[len - 12];
+        copy(buf, base + 12, bufMsg, 0, len - 12);
+
+        for (TraceReaderListener ls : listeners) {
+            ls.ss7Message(si, ni, 0, opc, dpc, sls, bufMsg);
+        }
+    }
+
+    // access to a byte of a packet level [base, base + len) with the same bound check as for a byte array
+    private static int u8(ByteBuffer buf, int base, int len, int ind) {
+        if (ind < 0 || ind >= len)
+            throw new ArrayIndexOutOfBoundsException(ind);
+        return buf.get(base + ind) & 0xFF;
+    }
+
+    private static int u16(ByteBuffer buf, int base, int len, int ind) {
+        return (u8(buf, base, len, ind) << 8) | u8(buf, base, len, ind + 1);
+    }
+
+    private static int int32(ByteBuffer buf, int base, int len, int ind) {
+        return (u16(buf, base, len, ind) << 16) | u16(buf, base, len, ind + 2);
+    }
+
+    private static void copy(ByteBuffer buf, int from, byte[] dst, int dstPos, int len) {
+        buf.position(from);
+        buf.get(dst, dstPos, len);
+    }
+
+}
@@ -342,7 +342,10 @@ public class SS7TraceParser implements TraceReaderListener, MAPDialogListener, C
                 this.driver = new TraceReaderDriverSimpleSeq(this, filePath);
                 break;
             case Pcap:
-                this.driver = new TraceReaderDriverPcap(this, filePath);
+                if (this.par.getPcapMappedReader())
+                    this.driver = new TraceReaderDriverPcapMapped(this, filePath);
+                else
+                    this.driver = new TraceReaderDriverPcap(this, filePath);
                 break;
             case HexStream:
                 this.driver = new TraceReaderDriverHexStream(this, filePath);
@@ -44,6 +44,7 @@ public class Ss7ParseParameters {
     private String messageChainFilePath;
     private Integer[] opcDpcFilter;
     private SccpProtocolVersion sccpProtocolVersion = SccpProtocolVersion.ITU;
+    private boolean pcapMappedReader = false;
 
     public ParseDriverType getFileTypeN() {
         return fileTypeN;
@@ -97,6 +98,14 @@ public class Ss7ParseParameters {
         return sccpProtocolVersion;
     }
 
+    /**
+     * If true Pcap files are read by {@link TraceReaderDriverPcapMapped} (memory-mapped file, parallel packet decoding) that is
+     * intended for large files, else by {@link TraceReaderDriverPcap}
+     */
+    public boolean getPcapMappedReader() {
+        return pcapMappedReader;
+    }
+
     public void setFileTypeN(ParseDriverType fileTypeN) {
         this.fileTypeN = fileTypeN;
     }
@@ -148,4 +157,8 @@ public class Ss7ParseParameters {
     public void setSccpProtocolVersion(SccpProtocolVersion sccpProtocolVersion) {
         this.sccpProtocolVersion = sccpProtocolVersion;
     }
+
+    public void setPcapMappedReader(boolean pcapMappedReader) {
+        this.pcapMappedReader = pcapMappedReader;
+    }
 }
@@ -76,6 +76,7 @@ public class TraceParserForm {
     private JRadioButton rdbtnTpSimpleSeq;
     private JRadioButton rdbtnTpPcap;
     private JRadioButton rdbtnHexStream;
+    private JCheckBox cbPcapMappedReader;
     private JButton btnStart;
     private JButton btnStop;
     private JPanel pnMsgLog;
@@ -184,6 +185,7 @@ public class TraceParserForm {
                     newPar.setFileTypeN(ParseDriverType.Pcap);
                 if (rdbtnHexStream.isSelected())
                     newPar.setFileTypeN(ParseDriverType.HexStream);
+                newPar.setPcapMappedReader(cbPcapMappedReader.isSelected());
 
                 if (rdbtnMap.isSelected())
                     newPar.setParseProtocol(ParseProtocol.Map);
@@ -333,6 +335,10 @@ public class TraceParserForm {
         rdbtnHexStream.setBounds(380, 27, 127, 25);
         panel_2.add(rdbtnHexStream);
 
+        cbPcapMappedReader = new JCheckBox("Pcap: parallel reader for large files");
+        cbPcapMappedReader.setBounds(275, 5, 262, 20);
+        panel_2.add(cbPcapMappedReader);
+
         tfFilePath = new JTextField();
         tfFilePath.setBounds(20, 187, 481, 20);
         panel_1.add(tfFilePath);
@@ -645,6 +651,7 @@ public class TraceParserForm {
                     rdbtnHexStream.setSelected(true);
                     break;
             }
+            cbPcapMappedReader.setSelected(par.getPcapMappedReader());
 
             switch (par.getParseProtocol()) {
                 case Map:
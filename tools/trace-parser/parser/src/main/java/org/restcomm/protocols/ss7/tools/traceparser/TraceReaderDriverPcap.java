@@ -25,6 +25,7 @@ package org.restcomm.protocols.ss7.tools.traceparser;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -285,194 +286,7 @@ public class TraceReaderDriverPcap extends TraceReaderDriverBase implements Trac
     }
 
     private void parsePacket(byte[] data, int network) throws TraceReaderException {
-
-        switch (network) {
-        case 1: // DLT_EN10MB
-            // check the min possible length
-            if (data == null || data.length < 34) {
-                return;
-            }
-
-            // Ethernet II level
-            if (data[12] != 8 || data[13] != 0) {
-                // this is not IP protocol - return
-                return;
-            }
-
-            byte[] ipData = new byte[data.length - 14];
-            System.arraycopy(data, 14, ipData, 0, data.length - 14);
-            this.parseIpV4Packet(ipData);
-            break;
-
-        case 113: // DLT_LINUX_SLL
-            // check the min possible length
-            if (data == null || data.length < 36) {
-                return;
-            }
-
-            // Ethernet II level
-            if (data[14] != 8 || data[15] != 0) {
-                // this is not IP protocol - return
-                return;
-            }
-
-            ipData = new byte[data.length - 16];
-            System.arraycopy(data, 16, ipData, 0, data.length - 16);
-            this.parseIpV4Packet(ipData);
-            break;
-
-        case 141: // DLT_MTP3
-            // check the min possible length
-            if (data == null || data.length < 5) {
-                return;
-            }
-            byte[] bufMsg = new byte[data.length + 3];
-            bufMsg[2] = 63;
-            System.arraycopy(data, 0, bufMsg, 3, data.length);
-            for (TraceReaderListener ls : this.listeners) {
-                TraceParserUtil.parceLegacyMtp3(bufMsg, this.listeners);
-            }
-
-            break;
-        }
-    }
-
-    private void parseIpV4Packet(byte[] data) throws TraceReaderException {
-
-        // IP protocol level
-        int version = (data[0] & 0xF0) >> 4; // 14
-        int ipHeaderLen = (data[0] & 0x0F) * 4;
-        if (version != 4) {
-            // TODO: add support for IP V6
-            return;
-        }
-        int ipProtocolId = data[9] & 0xFF; // 23
-        if (ipProtocolId != 132) { // 132 == SCTP protocol
-            // TODO: add support for TCP protocol
-            return;
-        }
-        int startSctpBlock = ipHeaderLen; // int startSctpBlock = 14 + ipHeaderLen
-
-        // SCTP
-        // skip SCTP header
-        startSctpBlock += 12;
-
-        while (true) {
-            // check if else sctp block exists
-            if (data.length < startSctpBlock + 4) // data.length < startSctpBlock + 4
-                break;
-
-            int blockType = data[startSctpBlock] & 0xFF;
-            int blockLen = ((data[startSctpBlock + 2] & 0xFF) << 8) + (data[startSctpBlock + 3] & 0xFF);
-            if (blockLen == 0)
-                break;
-            if (data.length < startSctpBlock + blockLen)
-                break;
-
-            if (blockType == 0 && blockLen > 16) {
-                // for m3ua blockType==0
-                byte[] bufM3ua = new byte[blockLen - 16];
-                System.arraycopy(data, startSctpBlock + 16, bufM3ua, 0, blockLen - 16);
-                this.parseM3uaPacket(bufM3ua);
-            }
-
-            int suff = blockLen % 4;
-            if (suff > 0)
-                blockLen += 4 - suff;
-            startSctpBlock += blockLen;
-        }
-    }
-
-    private void parseM3uaPacket(byte[] data) throws TraceReaderException {
-
-        if (data.length < 8)
-            return;
-
-        int version = data[0] & 0xFF;
-        int messageClass = data[2] & 0xFF;
-        int messageType = data[3] & 0xFF;
-
-        int msgLen = ((data[4] & 0xFF) << 24) + ((data[5] & 0xFF) << 16) + ((data[6] & 0xFF) << 8) + (data[7] & 0xFF);
-        if (data.length < msgLen)
-            return;
-
-        if (messageClass == 1 && messageType == 1) { // parse only transfer message - payload data
-
-            int pos = 8;
-            long networkAppearance = -1;
-            long routingContext = -1;
-            long correlationId = -1;
-            byte[] protocolData = null;
-            while (true) {
-                if (pos + 4 > msgLen)
-                    break;
-                int parLen = ((data[pos + 2] & 0xFF) << 8) + (data[pos + 3] & 0xFF);
-                if (pos + parLen > msgLen)
-                    break;
-
-                if (data[pos] == 0x02 && data[pos + 1] == 0x00) {
-                    // Network Appearance
-                    networkAppearance = ((data[pos + 4] & 0xFF) << 24) + ((data[pos + 5] & 0xFF) << 16)
-                            + ((data[pos + 6] & 0xFF) << 8) + (data[pos + 7] & 0xFF);
-                }
-
-                if (data[pos] == 0x00 && data[pos + 1] == 0x06) {
-                    // Routing Context
-                    routingContext = ((data[pos + 4] & 0xFF) << 24) + ((data[pos + 5] & 0xFF) << 16)
-                            + ((data[pos + 6] & 0xFF) << 8) + (data[pos + 7] & 0xFF);
-                }
-
-                if (data[pos] == 0x02 && data[pos + 1] == 0x10) {
-                    // Protocol Data
-                    protocolData = new byte[parLen - 4];
-                    System.arraycopy(data, pos + 4, protocolData, 0, parLen - 4);
-                }
-
-                if (data[pos] == 0x00 && data[pos + 1] == 0x13) {
-                    // Correlation Id
-                    correlationId = ((data[pos + 4] & 0xFF) << 24) + ((data[pos + 5] & 0xFF) << 16)
-                            + ((data[pos + 6] & 0xFF) << 8) + (data[pos + 7] & 0xFF);
-                }
-
-                int parLen2 = ((parLen - 1) / 4) * 4 + 4;
-                pos += parLen2;
-            }
-
-            if (protocolData != null) {
-                this.parseM3uaProtocolData(networkAppearance, routingContext, correlationId, protocolData);
-            }
-        } else if (messageClass == 6 && messageType == 1) {
-            int len2 = ((data[18] & 0xFF) << 8) + data[19] & 0xFF;
-            byte[] protocolData = new byte[len2 - 4 + 3];
-            protocolData[2] = 63;
-            System.arraycopy(data, 20, protocolData, 3, protocolData.length - 3);
-
-            for (TraceReaderListener ls : this.listeners) {
-                TraceParserUtil.parceLegacyMtp3(protocolData, this.listeners);
-            }
-        }
-    }
-
-    private void parseM3uaProtocolData(long networkAppearance, long routingContext, long correlationId, byte[] data)
-            throws TraceReaderException {
-
-        if (data.length < 14) {
-            return;
-        }
-
-        int opc = ((data[0] & 0xFF) << 24) + ((data[1] & 0xFF) << 16) + ((data[2] & 0xFF) << 8) + (data[3] & 0xFF);
-        int dpc = ((data[4] & 0xFF) << 24) + ((data[5] & 0xFF) << 16) + ((data[6] & 0xFF) << 8) + (data[7] & 0xFF);
-        int si = data[8] & 0xFF;
-        int ni = data[9] & 0xFF;
-        int mp = data[10] & 0xFF;
-        int sls = data[11] & 0xFF;
-
-        byte[] bufMsg = new byte[data.length - 12];
-        System.arraycopy(data, 12, bufMsg, 0, data.length - 12);
-
-        for (TraceReaderListener ls : this.listeners) {
-            ls.ss7Message(si, ni, 0, opc, dpc, sls, bufMsg);
-        }
+        PcapPacketParser.parsePacket(ByteBuffer.wrap(data), 0, data.length, network, this.listeners);
     }
 
     public enum FileEncodingType {
@@ -0,0 +1,433 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tools.traceparser;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import org.restcomm.protocols.ss7.tools.traceparser.TraceReaderDriverPcap.FileEncodingType;
+
+/**
+ *
+ * LIBPCAP / PCAPNG reader for large trace files. The file is memory-mapped by windows, record boundaries are found by a
+ * sequential pre-scan of record headers and packets of each batch of records are decoded (link, IP, SCTP and M3UA levels)
+ * in parallel in a ForkJoinPool. Decoded SS7 messages are delivered to listeners in the calling thread in the file order,
+ * while the next batch is decoded, so listeners receive the same message sequence as from {@link TraceReaderDriverPcap}.
+ *
+ */
+public class TraceReaderDriverPcapMapped extends TraceReaderDriverBase implements TraceReaderDriver {
+
+    public static final int DEFAULT_WINDOW_SIZE = 256 * 1024 * 1024;
+    public static final int DEFAULT_BATCH_SIZE = 16384;
+    private static final int TASK_SIZE = 256;
+
+    private static final int LIB_PCAP_SIGN = 0xd4c3b2a1;
+    private static final int PCAP_NG_SIGN = 0x0A0D0D0A;
+    private static final int PCAP_NG_BIG_ENDIAN_SIGN = 0x1A2B3C4D;
+
+    private final int parallelism;
+    private final int windowSize;
+    private final int batchSize;
+
+    public TraceReaderDriverPcapMapped(ProcessControl processControl, String fileName) {
+        this(processControl, fileName, Runtime.getRuntime().availableProcessors());
+    }
+
+    public TraceReaderDriverPcapMapped(ProcessControl processControl, String fileName, int parallelism) {
+        this(processControl, fileName, parallelism, DEFAULT_WINDOW_SIZE, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param parallelism the count of threads that decode packets
+     * @param windowSize the size of a memory-mapped file window, a record that is bigger is mapped by a separate window
+     * @param batchSize the max count of records that are decoded in one batch
+     */
+    public TraceReaderDriverPcapMapped(ProcessControl processControl, String fileName, int parallelism, int windowSize,
+            int batchSize) {
+        super(processControl, fileName);
+        this.parallelism = parallelism;
+        this.windowSize = windowSize;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void startTraceFile() throws TraceReaderException {
+
+        if (this.listeners.size() == 0)
+            throw new TraceReaderException("TraceReaderListener list is empty");
+
+        this.isStarted = true;
+
+        RandomAccessFile raf = null;
+        ForkJoinPool pool = null;
+
+        try {
+            if (this.processControl.checkNeedInterrupt())
+                return;
+
+            raf = new RandomAccessFile(fileName, "r");
+            pool = new ForkJoinPool(this.parallelism);
+
+            RecordScanner scanner = new RecordScanner(raf.getChannel());
+            scanner.readFileHeader();
+
+            // batch N + 1 is scanned and decoded while batch N is delivered
+            Batch prev = null;
+            while (true) {
+                if (this.processControl.checkNeedInterrupt())
+                    return;
+
+                Batch batch = scanner.nextBatch();
+                if (batch != null)
+                    batch.task = pool.submit(new DecodeTask(batch, 0, batch.count));
+                if (prev != null) {
+                    prev.task.join();
+                    if (!this.deliver(prev))
+                        return;
+                }
+                if (batch == null)
+                    break;
+                prev = batch;
+            }
+
+        } catch (Throwable e) {
+            this.loger.error("General exception: " + e.getMessage());
+            e.printStackTrace();
+            throw new TraceReaderException("General exception: " + e.getMessage(), e);
+        } finally {
+            if (pool != null)
+                pool.shutdownNow();
+            try {
+                if (raf != null)
+                    raf.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private boolean deliver(Batch batch) throws Throwable {
+        for (int i1 = 0; i1 < batch.count; i1++) {
+            if (this.processControl.checkNeedInterrupt())
+                return false;
+
+            PacketResult res = batch.results[i1];
+            if (res != null) {
+                for (Ss7Message msg : res.messages) {
+                    for (TraceReaderListener ls : this.listeners) {
+                        ls.ss7Message(msg.si, msg.ni, msg.priority, msg.opc, msg.dpc, msg.sls, msg.data);
+                    }
+                }
+                if (res.error != null)
+                    throw res.error;
+            }
+        }
+
+        if (batch.scanError != null)
+            throw batch.scanError;
+        return true;
+    }
+
+    /**
+     * Sequential pass over record headers. Every batch refers to records of one mapped window.
+     */
+    private class RecordScanner {
+
+        private final FileChannel channel;
+        private final long fileSize;
+
+        private MappedByteBuffer window;
+        private long windowStart;
+        private long windowEnd;
+
+        private long pos;
+        private boolean finished;
+
+        private FileEncodingType fileEncodingType;
+        private ByteOrder byteOrder;
+        private int network;
+
+        public RecordScanner(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.fileSize = channel.size();
+        }
+
+        private boolean fits(long start, long len) {
+            return this.window != null && start >= this.windowStart && start + len <= this.windowEnd;
+        }
+
+        private void map(long start, long len) throws IOException {
+            long size = Math.min(this.fileSize - start, Math.max(windowSize, len));
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            this.window.order(this.byteOrder != null ? this.byteOrder : ByteOrder.LITTLE_ENDIAN);
+            this.windowStart = start;
+            this.windowEnd = start + size;
+        }
+
+        private int getInt(long p) {
+            return this.window.getInt((int) (p - this.windowStart));
+        }
+
+        private int getShort(long p) {
+            return this.window.getShort((int) (p - this.windowStart)) & 0xFFFF;
+        }
+
+        public void readFileHeader() throws Exception {
+            if (this.fileSize < 4)
+                throw new Exception("Not enouph data for a file signature");
+            this.map(0, 4);
+            this.window.order(ByteOrder.BIG_ENDIAN);
+            int sign = this.window.getInt(0);
+
+            if (sign == LIB_PCAP_SIGN) {
+                this.fileEncodingType = FileEncodingType.LIB_PCAP;
+                if (this.fileSize < 24)
+                    throw new Exception("Not enough data for a global header LIB PCAP");
+                this.byteOrder = ByteOrder.LITTLE_ENDIAN;
+                this.window.order(this.byteOrder);
+                this.network = this.getInt(20);
+                this.pos = 24;
+            } else if (sign == PCAP_NG_SIGN) {
+                this.fileEncodingType = FileEncodingType.PCAP_NG;
+                if (this.fileSize < 24)
+                    throw new Exception("Not enough data for a sectionHeaderBlock Header PCAP NG");
+                if (this.getInt(8) == PCAP_NG_BIG_ENDIAN_SIGN)
+                    this.byteOrder = ByteOrder.BIG_ENDIAN;
+                else
+                    this.byteOrder = ByteOrder.LITTLE_ENDIAN;
+                this.window.order(this.byteOrder);
+                int blockTotalLength = this.getInt(4);
+                if (blockTotalLength < 28 || blockTotalLength > this.fileSize)
+                    throw new Exception("Not enough data for a sectionHeaderBlock Options PCAP NG");
+                this.network = 0;
+                this.pos = blockTotalLength;
+            } else {
+                throw new Exception("A file signature does not match to LIBPCAP or PCAPNG file formats");
+            }
+        }
+
+        /**
+         * @return the next batch of records or null if the file end (or a file format error) has been reached
+         */
+        public Batch nextBatch() throws IOException {
+            if (this.finished)
+                return null;
+
+            Batch batch = null;
+            try {
+                while (this.pos < this.fileSize) {
+                    int hdrLen = this.fileEncodingType == FileEncodingType.LIB_PCAP ? 16 : 8;
+                    if (this.fileSize - this.pos < hdrLen) {
+                        throw new Exception(this.fileEncodingType == FileEncodingType.LIB_PCAP ? "Not enough data for a packet header LIB PCAP"
+                                : "Not enough data for a packet header PCAP NG");
+                    }
+                    if (!this.fits(this.pos, hdrLen)) {
+                        if (batch != null && batch.count > 0)
+                            return batch;
+                        this.map(this.pos, hdrLen);
+                        batch = null;
+                    }
+                    if (batch == null)
+                        batch = new Batch(this.window, batchSize);
+
+                    int recLen;
+                    long dataPos;
+                    int dataLen;
+                    if (this.fileEncodingType == FileEncodingType.LIB_PCAP) {
+                        int inclLen = this.getInt(this.pos + 8);
+                        if (inclLen < 0 || this.fileSize - this.pos - 16 < inclLen)
+                            throw new Exception("Not enough data for a packet data");
+                        recLen = 16 + inclLen;
+                        dataPos = this.pos + 16;
+                        dataLen = inclLen;
+                    } else {
+                        int blockType = this.getInt(this.pos);
+                        int blockTotalLength = this.getInt(this.pos + 4);
+                        if (blockTotalLength < 12 || this.fileSize - this.pos < blockTotalLength)
+                            throw new Exception("Not enough data for a block data PCAP NG");
+                        recLen = blockTotalLength;
+                        dataPos = -1;
+                        dataLen = 0;
+                        if (blockType == 1 || blockType == 6) {
+                            if (!this.fits(this.pos, recLen)) {
+                                if (batch.count > 0)
+                                    return batch;
+                                this.map(this.pos, recLen);
+                                batch = new Batch(this.window, batchSize);
+                            }
+                            int blockDataLen = blockTotalLength - 12;
+                            if (blockType == 1) {
+                                // Interface description block
+                                if (blockDataLen < 8)
+                                    throw new Exception("Not enough data for an interface description block PCAP NG");
+                                this.network = this.getShort(this.pos + 8);
+                            } else {
+                                // Enhanced packet block
+                                if (blockDataLen < 20)
+                                    throw new Exception("Not enough data for an enhanced packet block PCAP NG");
+                                int capturedLen = this.getInt(this.pos + 8 + 12);
+                                if (capturedLen < 0 || capturedLen > blockDataLen - 20)
+                                    throw new Exception("Not enough data for a packet data PCAP NG");
+                                dataPos = this.pos + 8 + 20;
+                                dataLen = capturedLen;
+                            }
+                        }
+                    }
+
+                    if (dataPos >= 0) {
+                        if (!this.fits(dataPos, dataLen)) {
+                            if (batch.count > 0)
+                                return batch;
+                            this.map(this.pos, recLen);
+                            batch = new Batch(this.window, batchSize);
+                        }
+                        batch.add((int) (dataPos - this.windowStart), dataLen, this.network);
+                    }
+                    this.pos += recLen;
+
+                    if (batch.count == batchSize)
+                        return batch;
+                }
+            } catch (Exception e) {
+                if (batch == null)
+                    batch = new Batch(this.window, batchSize);
+                batch.scanError = e;
+            }
+
+            this.finished = true;
+            return batch;
+        }
+    }
+
+    private static class Batch {
+        private final ByteBuffer buf;
+        private final int[] offsets;
+        private final int[] lengths;
+        private final int[] networks;
+        private final PacketResult[] results;
+        private int count;
+        private Exception scanError;
+        private ForkJoinTask<?> task;
+
+        public Batch(ByteBuffer buf, int size) {
+            this.buf = buf;
+            this.offsets = new int[size];
+            this.lengths = new int[size];
+            this.networks = new int[size];
+            this.results = new PacketResult[size];
+        }
+
+        public void add(int offset, int length, int network) {
+            this.offsets[this.count] = offset;
+            this.lengths[this.count] = length;
+            this.networks[this.count] = network;
+            this.count++;
+        }
+    }
+
+    private static class Ss7Message {
+        private final int si;
+        private final int ni;
+        private final int priority;
+        private final int opc;
+        private final int dpc;
+        private final int sls;
+        private final byte[] data;
+
+        public Ss7Message(int si, int ni, int priority, int opc, int dpc, int sls, byte[] data) {
+            this.si = si;
+            this.ni = ni;
+            this.priority = priority;
+            this.opc = opc;
+            this.dpc = dpc;
+            this.sls = sls;
+            this.data = data;
+        }
+    }
+
+    private static class PacketResult {
+        private ArrayList<Ss7Message> messages = new ArrayList<Ss7Message>(1);
+        private Throwable error;
+    }
+
+    /**
+     * Decodes packets of a batch range. Results are collected per packet and are delivered later by the reader thread.
+     */
+    private static class DecodeTask extends RecursiveAction implements TraceReaderListener {
+
+        private final Batch batch;
+        private final int from;
+        private final int to;
+
+        private PacketResult current;
+
+        public DecodeTask(Batch batch, int from, int to) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > TASK_SIZE) {
+                int mid = (this.from + this.to) >>> 1;
+                invokeAll(new DecodeTask(this.batch, this.from, mid), new DecodeTask(this.batch, mid, this.to));
+                return;
+            }
+
+            ByteBuffer buf = this.batch.buf.duplicate();
+            ArrayList<TraceReaderListener> listeners = new ArrayList<TraceReaderListener>(1);
+            listeners.add(this);
+            for (int i1 = this.from; i1 < this.to; i1++) {
+                this.current = null;
+                try {
+                    PcapPacketParser.parsePacket(buf, this.batch.offsets[i1], this.batch.lengths[i1], this.batch.networks[i1],
+                            listeners);
+                } catch (Throwable e) {
+                    this.result().error = e;
+                }
+                this.batch.results[i1] = this.current;
+            }
+        }
+
+        private PacketResult result() {
+            if (this.current == null)
+                this.current = new PacketResult();
+            return this.current;
+        }
+
+        @Override
+        public void ss7Message(int si, int ni, int priority, int opc, int dpc, int sls, byte[] data) {
+            this.result().messages.add(new Ss7Message(si, ni, priority, opc, dpc, sls, data));
+        }
+    }
+
+}
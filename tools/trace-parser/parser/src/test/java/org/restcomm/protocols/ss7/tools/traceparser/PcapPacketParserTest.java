@@ -0,0 +1,135 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tools.traceparser;
+
+import static org.testng.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Test for link, IP, SCTP and M3UA levels of PcapPacketParser
+ *
+ */
+public class PcapPacketParserTest {
+
+    private ArrayList<String> messages;
+    private ArrayList<TraceReaderListener> listeners;
+
+    @BeforeMethod
+    public void setUp() {
+        messages = new ArrayList<String>();
+        listeners = new ArrayList<TraceReaderListener>();
+        listeners.add(new TraceReaderListener() {
+            public void ss7Message(int si, int ni, int priority, int opc, int dpc, int sls, byte[] data) {
+                messages.add(si + "," + ni + "," + opc + "," + dpc + "," + sls + "," + Arrays.toString(data));
+            }
+        });
+    }
+
+    private void parse(SyntheticCapture.Packet packet) throws Exception {
+        // the packet is placed in the middle of a buffer as it is in a mapped file
+        ByteBuffer buf = ByteBuffer.allocate(packet.data.length + 20);
+        buf.position(10);
+        buf.put(packet.data);
+        PcapPacketParser.parsePacket(buf, 10, packet.data.length, packet.link, listeners);
+    }
+
+    private static byte[] sccp(int dataLen) {
+        byte[] data = new byte[dataLen];
+        for (int i1 = 0; i1 < data.length; i1++) {
+            data[i1] = (byte) (i1 + 0x70);
+        }
+        return SyntheticCapture.sccpUdt(6, 8, data);
+    }
+
+    private static String expected(int opc, int dpc, int sls, byte[] data) {
+        return "3,2," + opc + "," + dpc + "," + sls + "," + Arrays.toString(data);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testM3uaData() throws Exception {
+        byte[] sccp1 = sccp(10);
+        byte[] sccp2 = sccp(131);
+        parse(SyntheticCapture.ethernet(SyntheticCapture.ipSctp(SyntheticCapture.m3uaData(1, 2, 3, sccp1),
+                SyntheticCapture.m3uaData(200, 100, 15, sccp2))));
+        parse(SyntheticCapture.linuxCooked(SyntheticCapture.ipSctp(SyntheticCapture.m3uaData(12345, 2, 0, sccp1))));
+
+        assertEquals(messages.size(), 3);
+        assertEquals(messages.get(0), expected(1, 2, 3, sccp1));
+        assertEquals(messages.get(1), expected(200, 100, 15, sccp2));
+        assertEquals(messages.get(2), expected(12345, 2, 0, sccp1));
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testLegacyMtp3() throws Exception {
+        // the parameter length is more than 255 and its low byte is negative as a signed byte
+        byte[] sccp = new byte[400];
+        for (int i1 = 0; i1 < sccp.length; i1++) {
+            sccp[i1] = (byte) i1;
+        }
+        byte[] msu = SyntheticCapture.mtp3Msu(1000, 2000, 7, sccp);
+        assertEquals((4 + msu.length) & 0xFF80, 0x180);
+        parse(SyntheticCapture.ethernet(SyntheticCapture.ipSctp(SyntheticCapture.m3uaLegacyMtp3(msu))));
+        parse(SyntheticCapture.mtp3(msu));
+
+        assertEquals(messages.size(), 2);
+        assertEquals(messages.get(0), expected(1000, 2000, 7, sccp));
+        assertEquals(messages.get(1), expected(1000, 2000, 7, sccp));
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testSkippedPackets() throws Exception {
+        byte[] ip = SyntheticCapture.ipSctp(SyntheticCapture.m3uaData(1, 2, 3, sccp(10)));
+
+        // not SCTP
+        byte[] udp = ip.clone();
+        udp[9] = 17;
+        parse(SyntheticCapture.ethernet(udp));
+        // not IPv4
+        byte[] ipV6 = ip.clone();
+        ipV6[0] = 0x65;
+        parse(SyntheticCapture.ethernet(ipV6));
+        // not DATA chunk
+        byte[] init = ip.clone();
+        init[32] = 1;
+        parse(SyntheticCapture.ethernet(init));
+        // unknown link type
+        parse(new SyntheticCapture.Packet(228, ip));
+
+        assertEquals(messages.size(), 0);
+    }
+
+    @Test(groups = { "functional.decode" }, expectedExceptions = ArrayIndexOutOfBoundsException.class)
+    public void testTruncatedLegacyMtp3() throws Exception {
+        byte[] m3ua = SyntheticCapture.m3uaLegacyMtp3(SyntheticCapture.mtp3Msu(1, 2, 3, sccp(10)));
+        // the parameter length is bigger than the message
+        m3ua[19] = (byte) 0xF0;
+        parse(SyntheticCapture.ethernet(SyntheticCapture.ipSctp(m3ua)));
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tools.traceparser;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Builder of synthetic LIBPCAP / PCAPNG captures with SCCP UDT messages carrying TCAP transactions
+ *
+ */
+public class SyntheticCapture {
+
+    public static final int LINK_ETHERNET = 1;
+    public static final int LINK_SLL = 113;
+    public static final int LINK_MTP3 = 141;
+
+    public static class Packet {
+        public final int link;
+        public final byte[] data;
+
+        public Packet(int link, byte[] data) {
+            this.link = link;
+            this.data = data;
+        }
+    }
+
+    public static byte[] tcBegin(int otid) {
+        return new byte[] { 0x62, 6, 0x48, 4, (byte) (otid >> 24), (byte) (otid >> 16), (byte) (otid >> 8), (byte) otid };
+    }
+
+    public static byte[] tcContinue(int otid, int dtid) {
+        return new byte[] { 0x65, 12, 0x48, 4, (byte) (otid >> 24), (byte) (otid >> 16), (byte) (otid >> 8), (byte) otid,
+                0x49, 4, (byte) (dtid >> 24), (byte) (dtid >> 16), (byte) (dtid >> 8), (byte) dtid };
+    }
+
+    public static byte[] tcEnd(int dtid) {
+        return new byte[] { 0x64, 6, 0x49, 4, (byte) (dtid >> 24), (byte) (dtid >> 16), (byte) (dtid >> 8), (byte) dtid };
+    }
+
+    /**
+     * SCCP UDT with called and calling party addresses that are routed on SSN
+     */
+    public static byte[] sccpUdt(int calledSsn, int callingSsn, byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x09); // UDT
+        out.write(0); // protocol class 0
+        out.write(3);
+        out.write(5);
+        out.write(7);
+        out.write(2);
+        out.write(0x42);
+        out.write(calledSsn);
+        out.write(2);
+        out.write(0x42);
+        out.write(callingSsn);
+        out.write(data.length);
+        out.write(data, 0, data.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * SIO and ITU routing label followed by the SCCP message
+     */
+    public static byte[] mtp3Msu(int opc, int dpc, int sls, byte[] sccp) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0x83); // national network, SCCP
+        out.write(dpc);
+        out.write(((dpc >> 8) & 0x3F) | ((opc & 0x03) << 6));
+        out.write(opc >> 2);
+        out.write(((opc >> 10) & 0x0F) | (sls << 4));
+        out.write(sccp, 0, sccp.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * M3UA DATA message with a routing context and protocol data parameter
+     */
+    public static byte[] m3uaData(int opc, int dpc, int sls, byte[] sccp) {
+        int protocolDataLen = 4 + 12 + sccp.length;
+        int padding = (4 - protocolDataLen % 4) % 4;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, 0x01000101);
+        writeInt(out, 8 + 8 + protocolDataLen + padding);
+        writeInt(out, 0x00060008); // routing context
+        writeInt(out, 100);
+        writeInt(out, 0x02100000 | protocolDataLen);
+        writeInt(out, opc);
+        writeInt(out, dpc);
+        out.write(3);
+        out.write(2);
+        out.write(0);
+        out.write(sls);
+        out.write(sccp, 0, sccp.length);
+        for (int i1 = 0; i1 < padding; i1++) {
+            out.write(0);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * M3UA message of class 6 type 1 with a legacy MTP3 MSU
+     */
+    public static byte[] m3uaLegacyMtp3(byte[] msu) {
+        int parLen = 4 + msu.length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, 0x01000601);
+        writeInt(out, 16 + parLen);
+        writeInt(out, 0x00010008);
+        writeInt(out, 0);
+        writeInt(out, 0x03000000 | parLen);
+        out.write(msu, 0, msu.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * IPv4 packet with one SCTP DATA chunk per M3UA message
+     */
+    public static byte[] ipSctp(byte[]... m3uaMessages) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeInt(out, 0x45000000);
+        writeInt(out, 0);
+        writeInt(out, 0x40840000); // TTL, SCTP
+        writeInt(out, 0x0A000001);
+        writeInt(out, 0x0A000002);
+        writeInt(out, 0x0B540B55); // SCTP ports
+        writeInt(out, 1);
+        writeInt(out, 0);
+        for (byte[] m3ua : m3uaMessages) {
+            int chunkLen = 16 + m3ua.length;
+            writeInt(out, chunkLen);
+            writeInt(out, 1);
+            writeInt(out, 0);
+            writeInt(out, 3); // M3UA payload protocol identifier
+            out.write(m3ua, 0, m3ua.length);
+            for (int i1 = chunkLen; i1 % 4 != 0; i1++) {
+                out.write(0);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static Packet ethernet(byte[] ip) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i1 = 0; i1 < 12; i1++) {
+            out.write(i1);
+        }
+        out.write(8);
+        out.write(0);
+        out.write(ip, 0, ip.length);
+        return new Packet(LINK_ETHERNET, out.toByteArray());
+    }
+
+    public static Packet linuxCooked(byte[] ip) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i1 = 0; i1 < 14; i1++) {
+            out.write(i1);
+        }
+        out.write(8);
+        out.write(0);
+        out.write(ip, 0, ip.length);
+        return new Packet(LINK_SLL, out.toByteArray());
+    }
+
+    public static Packet mtp3(byte[] msu) {
+        return new Packet(LINK_MTP3, msu);
+    }
+
+    /**
+     * Writes a LIBPCAP file, all packets must have the same link type
+     */
+    public static void writeLibPcap(File file, List<Packet> packets) throws IOException {
+        writeLibPcap(file, packets, 0);
+    }
+
+    /**
+     * Writes a LIBPCAP file, packets are repeated until the file size reaches minSize
+     */
+    public static void writeLibPcap(File file, List<Packet> packets, long minSize) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 20);
+        try {
+            out.write(new byte[] { (byte) 0xd4, (byte) 0xc3, (byte) 0xb2, (byte) 0xa1, 2, 0, 4, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+                    (byte) 0xff, (byte) 0xff, 0, 0 });
+            writeIntLe(out, packets.size() > 0 ? packets.get(0).link : LINK_ETHERNET);
+            long size = 24;
+            int i1 = 0;
+            do {
+                for (Packet packet : packets) {
+                    writeIntLe(out, i1++);
+                    writeIntLe(out, 0);
+                    writeIntLe(out, packet.data.length);
+                    writeIntLe(out, packet.data.length);
+                    out.write(packet.data);
+                    size += 16 + packet.data.length;
+                }
+            } while (size < minSize && packets.size() > 0);
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Writes a PCAPNG file, an interface description block is written before a packet of another link type
+     */
+    public static void writePcapNg(File file, List<Packet> packets) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16);
+        try {
+            // section header block
+            writeIntLe(out, 0x0A0D0D0A);
+            writeIntLe(out, 28);
+            writeIntLe(out, 0x1A2B3C4D);
+            writeIntLe(out, 1);
+            writeIntLe(out, -1);
+            writeIntLe(out, -1);
+            writeIntLe(out, 28);
+
+            int link = -1;
+            int i1 = 0;
+            for (Packet packet : packets) {
+                if (packet.link != link) {
+                    link = packet.link;
+                    writeIntLe(out, 1);
+                    writeIntLe(out, 20);
+                    writeIntLe(out, link);
+                    writeIntLe(out, 65535);
+                    writeIntLe(out, 20);
+                }
+                if (i1++ % 10 == 0) {
+                    // a block that is not decoded
+                    writeIntLe(out, 5);
+                    writeIntLe(out, 16);
+                    writeIntLe(out, 0);
+                    writeIntLe(out, 16);
+                }
+                int paddedLen = (packet.data.length + 3) / 4 * 4;
+                int blockLen = 12 + 20 + paddedLen;
+                writeIntLe(out, 6);
+                writeIntLe(out, blockLen);
+                writeIntLe(out, 0);
+                writeIntLe(out, 0);
+                writeIntLe(out, i1);
+                writeIntLe(out, packet.data.length);
+                writeIntLe(out, packet.data.length);
+                out.write(packet.data);
+                for (int i2 = packet.data.length; i2 < paddedLen; i2++) {
+                    out.write(0);
+                }
+                writeIntLe(out, blockLen);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int val) {
+        out.write(val >> 24);
+        out.write(val >> 16);
+        out.write(val >> 8);
+        out.write(val);
+    }
+
+    private static void writeIntLe(OutputStream out, int val) throws IOException {
+        out.write(val);
+        out.write(val >> 8);
+        out.write(val >> 16);
+        out.write(val >> 24);
+    }
+
+}
@@ -0,0 +1,230 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.protocols.ss7.tools.traceparser;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * TraceReaderDriverPcapMapped must deliver the same messages as TraceReaderDriverPcap and SS7TraceParser must build the same
+ * dialog message chains with both drivers
+ *
+ */
+public class TraceReaderDriverPcapMappedTest {
+
+    private static final int DIALOG_COUNT = 3000;
+
+    private File dir;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("TraceReaderDriverPcapMappedTest").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * TCAP transactions Begin - Continue - End in SCCP UDT over M3UA. Transactions are interleaved, some SCTP packets carry
+     * several messages. If mixedLinks is true packets are sent over Ethernet, Linux cooked and MTP3 links.
+     */
+    private static List<SyntheticCapture.Packet> createPackets(boolean mixedLinks) {
+        Random rnd = new Random(1);
+        ArrayList<byte[]> msgs = new ArrayList<byte[]>();
+        ArrayList<Integer> opcs = new ArrayList<Integer>();
+        for (int i1 = 0; i1 < DIALOG_COUNT; i1++) {
+            int dlg = i1 * 2 + 1;
+            msgs.add(SyntheticCapture.sccpUdt(6, 8, SyntheticCapture.tcBegin(dlg)));
+            opcs.add(1);
+            if (i1 >= 10) {
+                int prev = (i1 - 10) * 2 + 1;
+                msgs.add(SyntheticCapture.sccpUdt(8, 6, SyntheticCapture.tcContinue(prev + 1, prev)));
+                opcs.add(2);
+                msgs.add(SyntheticCapture.sccpUdt(6, 8, SyntheticCapture.tcEnd(prev + 1)));
+                opcs.add(1);
+            }
+        }
+
+        ArrayList<SyntheticCapture.Packet> packets = new ArrayList<SyntheticCapture.Packet>();
+        int i1 = 0;
+        while (i1 < msgs.size()) {
+            int link = mixedLinks ? rnd.nextInt(3) : 0;
+            if (link == 2) {
+                int opc = opcs.get(i1);
+                byte[] msu = SyntheticCapture.mtp3Msu(opc, 3 - opc, i1 & 0x0F, msgs.get(i1++));
+                packets.add(SyntheticCapture.mtp3(msu));
+                continue;
+            }
+
+            int cnt = Math.min(1 + rnd.nextInt(3), msgs.size() - i1);
+            byte[][] m3ua = new byte[cnt][];
+            for (int i2 = 0; i2 < cnt; i2++) {
+                int opc = opcs.get(i1);
+                if (mixedLinks && rnd.nextInt(10) == 0)
+                    m3ua[i2] = SyntheticCapture.m3uaLegacyMtp3(SyntheticCapture.mtp3Msu(opc, 3 - opc, i1 & 0x0F, msgs.get(i1)));
+                else
+                    m3ua[i2] = SyntheticCapture.m3uaData(opc, 3 - opc, i1 & 0x0F, msgs.get(i1));
+                i1++;
+            }
+            byte[] ip = SyntheticCapture.ipSctp(m3ua);
+            packets.add(link == 0 ? SyntheticCapture.ethernet(ip) : SyntheticCapture.linuxCooked(ip));
+        }
+        return packets;
+    }
+
+    private static class Collector implements TraceReaderListener {
+        private ArrayList<String> messages = new ArrayList<String>();
+
+        public void ss7Message(int si, int ni, int priority, int opc, int dpc, int sls, byte[] data) {
+            messages.add(si + "," + ni + "," + priority + "," + opc + "," + dpc + "," + sls + "," + Arrays.toString(data));
+        }
+    }
+
+    private static class Control implements ProcessControl {
+        public boolean isFinished() {
+            return false;
+        }
+
+        public String getErrorMessage() {
+            return null;
+        }
+
+        public void interrupt() {
+        }
+
+        public boolean checkNeedInterrupt() {
+            return false;
+        }
+
+        public int getMsgCount() {
+            return 0;
+        }
+    }
+
+    /**
+     * @return delivered messages, the last item is the error message if the driver has failed
+     */
+    private static List<String> read(TraceReaderDriver driver) {
+        Collector collector = new Collector();
+        driver.addTraceListener(collector);
+        try {
+            driver.startTraceFile();
+        } catch (TraceReaderException e) {
+            collector.messages.add("error: " + e.getMessage());
+        }
+        return collector.messages;
+    }
+
+    private static void assertSameMessages(File file, int expectedCount) {
+        List<String> expected = read(new TraceReaderDriverPcap(new Control(), file.getPath()));
+        assertEquals(expected.size(), expectedCount);
+
+        // a small window and batch, so records cross windows and records bigger than a window are mapped separately
+        List<String> mapped = read(new TraceReaderDriverPcapMapped(new Control(), file.getPath(), 4, 1024, 37));
+        assertEquals(mapped, expected);
+        mapped = read(new TraceReaderDriverPcapMapped(new Control(), file.getPath()));
+        assertEquals(mapped, expected);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testLibPcap() throws Exception {
+        File file = new File(dir, "trace.pcap");
+        SyntheticCapture.writeLibPcap(file, createPackets(false));
+        assertSameMessages(file, DIALOG_COUNT * 3 - 20);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testPcapNg() throws Exception {
+        File file = new File(dir, "trace.pcapng");
+        SyntheticCapture.writePcapNg(file, createPackets(true));
+        assertSameMessages(file, DIALOG_COUNT * 3 - 20);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testTruncatedFile() throws Exception {
+        File file = new File(dir, "trace.pcap");
+        SyntheticCapture.writeLibPcap(file, createPackets(false));
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(raf.length() * 2 / 3 + 5);
+        raf.close();
+
+        List<String> expected = read(new TraceReaderDriverPcap(new Control(), file.getPath()));
+        assertTrue(expected.get(expected.size() - 1).startsWith("error: "));
+        List<String> mapped = read(new TraceReaderDriverPcapMapped(new Control(), file.getPath(), 4, 1024, 37));
+        assertEquals(mapped, expected);
+    }
+
+    private String parseDialogChains(File file, boolean mappedReader) throws Exception {
+        Ss7ParseParameters par = new Ss7ParseParameters();
+        par.setFileTypeN(ParseDriverType.Pcap);
+        par.setPcapMappedReader(mappedReader);
+        par.setParseProtocol(ParseProtocol.Map);
+        par.setSourceFilePath(file.getPath());
+        File chainFile = new File(dir, file.getName() + (mappedReader ? ".mapped" : ".seq") + ".txt");
+        par.setMessageChainFilePath(chainFile.getPath());
+
+        SS7TraceParser parser = new SS7TraceParser(dir.getPath(), par);
+        parser.run();
+        assertTrue(parser.isFinished());
+        assertNull(parser.getErrorMessage());
+        assertEquals(parser.getMsgCount(), DIALOG_COUNT * 3 - 20);
+
+        return new String(Files.readAllBytes(chainFile.toPath()), "UTF-8");
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testDialogMessageChains() throws Exception {
+        File file = new File(dir, "trace.pcapng");
+        SyntheticCapture.writePcapNg(file, createPackets(true));
+
+        String expected = parseDialogChains(file, false);
+        assertNotNull(expected);
+        assertTrue(expected.contains("TC-BEGIN"));
+        assertTrue(expected.contains("TC-CONTINUE"));
+        assertTrue(expected.contains("TC-END"));
+        assertEquals(parseDialogChains(file, true), expected);
+    }
+
+}